@@ -11,6 +11,7 @@ import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.ActiveEvent;
 import java.util.EmptyStackException;
+import java.util.AtomicInteger;
 import java.lang.reflect.InvocationTargetException;
 import sun.awt.PeerEvent;
 import sun.awt.SunToolkit;
@@ -38,9 +39,9 @@ public class EventQueue {
     private static final DebugHelper dbg = DebugHelper.create(EventQueue.class);
 
     // From Thread.java
-    private static int threadInitNumber;
-    private static synchronized int nextThreadNum() {
-	return threadInitNumber++;
+    private static final AtomicInteger threadInitNumber = new AtomicInteger();
+    private static int nextThreadNum() {
+	return threadInitNumber.getAndIncrement();
     }
 
     private static final int LOW_PRIORITY = 0;
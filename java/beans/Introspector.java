@@ -1341,7 +1341,10 @@ public class Introspector {
     private Class beanClass;
     private BeanInfo superBeanInfo;
     private BeanInfo additionalBeanInfo[];
-    private static java.util.Hashtable beanInfoCache = new java.util.Hashtable();
+    // Cache of BeanInfo by Class, bounded so that long-running tools
+    // that introspect many classes do not keep them all reachable:
+    private static final int BEANINFO_CACHE_SIZE = 500;
+    private static java.util.Cache beanInfoCache = new java.util.Cache(BEANINFO_CACHE_SIZE);
     private static Class eventListenerType = java.util.EventListener.class;
     private String defaultEventName;
     private String defaultPropertyName;
@@ -1352,7 +1355,7 @@ public class Introspector {
     private java.util.Hashtable methods = new java.util.Hashtable();
 
     // Cache of Class.getDeclaredMethods:
-    private static java.util.Hashtable declaredMethodCache = new java.util.Hashtable();
+    private static java.util.Cache declaredMethodCache = new java.util.Cache(BEANINFO_CACHE_SIZE);
 
     // properties maps from String names to PropertyDescriptors
     private java.util.Hashtable properties = new java.util.Hashtable();
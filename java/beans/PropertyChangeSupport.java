@@ -19,7 +19,13 @@ import java.io.IOException;
  * This class is serializable.  When it is serialized it will save
  * (and restore) any listeners that are themselves serializable.  Any
  * non-serializable listeners will be skipped during serialization.
+ * <p>
+ * Listeners are kept in a <code>CopyOnWriteArrayList</code>, so firing an
+ * event neither copies the listener list nor blocks while listeners are
+ * being added or removed.  A listener added or removed while an event is
+ * being fired may or may not receive that event.
  *
+ * @see java.util.CopyOnWriteArrayList
  */
 
 public class PropertyChangeSupport implements java.io.Serializable {
@@ -47,9 +53,9 @@ public class PropertyChangeSupport implements java.io.Serializable {
     public synchronized void addPropertyChangeListener(
 				PropertyChangeListener listener) {
 	if (listeners == null) {
-	    listeners = new java.util.Vector();
+	    listeners = new java.util.CopyOnWriteArrayList();
 	}
-	listeners.addElement(listener);
+	listeners.add(listener);
     }
 
     /**
@@ -65,7 +71,7 @@ public class PropertyChangeSupport implements java.io.Serializable {
 	if (listeners == null) {
 	    return;
 	}
-	listeners.removeElement(listener);
+	listeners.remove(listener);
     }
 
     /**
@@ -127,30 +133,11 @@ public class PropertyChangeSupport implements java.io.Serializable {
 	    return;
 	}
 
-	java.util.Vector targets = null;
-	PropertyChangeSupport child = null;
-	synchronized (this) {
-	    if (listeners != null) {
-	        targets = (java.util.Vector) listeners.clone();
-	    }
-	    if (children != null && propertyName != null) {
-		child = (PropertyChangeSupport)children.get(propertyName);
-	    }
+	if (listeners == null && children == null) {
+	    return;	// Nobody to tell; don't create the event
 	}
-
-        PropertyChangeEvent evt = new PropertyChangeEvent(source,
-					    propertyName, oldValue, newValue);
-
-	if (targets != null) {
-	    for (int i = 0; i < targets.size(); i++) {
-	        PropertyChangeListener target = (PropertyChangeListener)targets.elementAt(i);
-	        target.propertyChange(evt);
-	    }
-	}
-
-	if (child != null) {
-	    child.firePropertyChange(evt);
-	}	
+	firePropertyChange(new PropertyChangeEvent(source, propertyName,
+						   oldValue, newValue));
     }
 
     /**
@@ -208,25 +195,22 @@ public class PropertyChangeSupport implements java.io.Serializable {
 	    return;
 	}
 
-	java.util.Vector targets = null;
-	PropertyChangeSupport child = null;
-	synchronized (this) {
-	    if (listeners != null) {
-	        targets = (java.util.Vector) listeners.clone();
-	    }
-	    if (children != null && propertyName != null) {
-		child = (PropertyChangeSupport)children.get(propertyName);
-	    }
-	}
-
+	// No locking: the listener list is copy-on-write, and iterating
+	// over it walks a snapshot that later changes cannot disturb.
+	java.util.CopyOnWriteArrayList targets = listeners;
 	if (targets != null) {
-	    for (int i = 0; i < targets.size(); i++) {
-	        PropertyChangeListener target = (PropertyChangeListener)targets.elementAt(i);
+	    for (java.util.Iterator i = targets.iterator(); i.hasNext(); ) {
+	        PropertyChangeListener target = (PropertyChangeListener)i.next();
 	        target.propertyChange(evt);
 	    }
 	}
-	if (child != null) {
-	    child.firePropertyChange(evt);
+
+	java.util.Hashtable c = children;
+	if (c != null && propertyName != null) {
+	    PropertyChangeSupport child = (PropertyChangeSupport)c.get(propertyName);
+	    if (child != null) {
+		child.firePropertyChange(evt);
+	    }
 	}
     }
 
@@ -236,15 +220,18 @@ public class PropertyChangeSupport implements java.io.Serializable {
      * @param propertyName  the property name.
      * @return true if there are ore or more listeners for the given property
      */
-    public synchronized boolean hasListeners(String propertyName) {
-	if (listeners != null && !listeners.isEmpty()) {
+    public boolean hasListeners(String propertyName) {
+	java.util.CopyOnWriteArrayList l = listeners;
+	if (l != null && !l.isEmpty()) {
 	    // there is a generic listener
 	    return true;
 	}
-	if (children != null) {
-	    PropertyChangeSupport child = (PropertyChangeSupport)children.get(propertyName);
-	    if (child != null && child.listeners != null) {
-		return !child.listeners.isEmpty();
+	java.util.Hashtable c = children;
+	if (c != null && propertyName != null) {
+	    PropertyChangeSupport child = (PropertyChangeSupport)c.get(propertyName);
+	    if (child != null) {
+		l = child.listeners;
+		return l != null && !l.isEmpty();
 	    }
 	}
 	return false;
@@ -260,16 +247,10 @@ public class PropertyChangeSupport implements java.io.Serializable {
     private void writeObject(ObjectOutputStream s) throws IOException {
         s.defaultWriteObject();
 
-	java.util.Vector v = null;
-	synchronized (this) {
-	    if (listeners != null) {
-	        v = (java.util.Vector) listeners.clone();
-            }
-	}
-
+	java.util.CopyOnWriteArrayList v = listeners;
 	if (v != null) {
-	    for (int i = 0; i < v.size(); i++) {
-	        PropertyChangeListener l = (PropertyChangeListener)v.elementAt(i);
+	    for (java.util.Iterator i = v.iterator(); i.hasNext(); ) {
+	        PropertyChangeListener l = (PropertyChangeListener)i.next();
 	        if (l instanceof Serializable) {
 	            s.writeObject(l);
 	        }
@@ -289,11 +270,12 @@ public class PropertyChangeSupport implements java.io.Serializable {
     }
 
     /**
-     * "listeners" lists all the generic listeners.
+     * "listeners" lists all the generic listeners.  It is created and
+     * modified holding this object's lock, and read without it.
      *
      *  This is transient - its state is written in the writeObject method.
      */
-    transient private java.util.Vector listeners;
+    transient private volatile java.util.CopyOnWriteArrayList listeners;
 
     /** 
      * Hashtable for managing listeners for specific properties.
@@ -301,7 +283,7 @@ public class PropertyChangeSupport implements java.io.Serializable {
      * @serial 
      * @since 1.2
      */
-    private java.util.Hashtable children;
+    private volatile java.util.Hashtable children;
 
     /** 
      * The object to be provided as the "source" for any generated events.
@@ -19,6 +19,13 @@ import java.io.IOException;
  * This class is serializable.  When it is serialized it will save
  * (and restore) any listeners that are themselves serializable.  Any
  * non-serializable listeners will be skipped during serialization.
+ * <p>
+ * Listeners are kept in a <code>CopyOnWriteArrayList</code>, so firing an
+ * event neither copies the listener list nor blocks while listeners are
+ * being added or removed.  A listener added or removed while an event is
+ * being fired may or may not receive that event.
+ *
+ * @see java.util.CopyOnWriteArrayList
  */
 
 public class VetoableChangeSupport implements java.io.Serializable {
@@ -46,9 +53,9 @@ public class VetoableChangeSupport implements java.io.Serializable {
     public synchronized void addVetoableChangeListener(
 					VetoableChangeListener listener) {
 	if (listeners == null) {
-	    listeners = new java.util.Vector();
+	    listeners = new java.util.CopyOnWriteArrayList();
 	}
-	listeners.addElement(listener);
+	listeners.add(listener);
     }
 
     /**
@@ -63,7 +70,7 @@ public class VetoableChangeSupport implements java.io.Serializable {
 	if (listeners == null) {
 	    return;
 	}
-	listeners.removeElement(listener);
+	listeners.remove(listener);
     }
 
 
@@ -201,31 +208,31 @@ public class VetoableChangeSupport implements java.io.Serializable {
 	    return;
 	}
 
-	java.util.Vector targets = null;
-	VetoableChangeSupport child = null;
-	synchronized (this) {
-	    if (listeners != null) {
-	        targets = (java.util.Vector) listeners.clone();
-	    }
-	    if (children != null && propertyName != null) {
-		child = (VetoableChangeSupport)children.get(propertyName);
-	    }
-	}
-
-	if (listeners != null) {
+	// No locking: the listener list is copy-on-write, and iterating
+	// over it walks a snapshot that later changes cannot disturb.
+	java.util.CopyOnWriteArrayList targets = listeners;
+	if (targets != null) {
+	    java.util.ListIterator i = targets.listIterator();
 	    try {
-	        for (int i = 0; i < targets.size(); i++) {
+	        while (i.hasNext()) {
 	            VetoableChangeListener target = 
-				(VetoableChangeListener)targets.elementAt(i);
+				(VetoableChangeListener)i.next();
 	            target.vetoableChange(evt);
 	        }
 	    } catch (PropertyVetoException veto) {
 	        // Create an event to revert everyone to the old value.
        	        evt = new PropertyChangeEvent(source, propertyName, newValue, oldValue);
-	        for (int i = 0; i < targets.size(); i++) {
+	        // Rewind the same snapshot and notify every listener in it,
+	        // including those not yet asked about the change, as the
+	        // method's contract calls for; listeners added or removed since
+	        // the change was fired are not affected.
+	        while (i.hasPrevious()) {
+	            i.previous();
+	        }
+	        while (i.hasNext()) {
 		    try {
 	                VetoableChangeListener target =
-				(VetoableChangeListener)targets.elementAt(i);
+				(VetoableChangeListener)i.next();
 	                target.vetoableChange(evt);
 		    } catch (PropertyVetoException ex) {
 		         // We just ignore exceptions that occur during reversions.
@@ -236,8 +243,12 @@ public class VetoableChangeSupport implements java.io.Serializable {
 	    }
 	}
 
-	if (child != null) {
-	    child.fireVetoableChange(evt);
+	java.util.Hashtable c = children;
+	if (c != null && propertyName != null) {
+	    VetoableChangeSupport child = (VetoableChangeSupport)c.get(propertyName);
+	    if (child != null) {
+		child.fireVetoableChange(evt);
+	    }
 	}
     }
 
@@ -248,15 +259,18 @@ public class VetoableChangeSupport implements java.io.Serializable {
      * @param propertyName  the property name.
      * @return true if there are one or more listeners for the given property
      */
-    public synchronized boolean hasListeners(String propertyName) {
-	if (listeners != null && !listeners.isEmpty()) {
+    public boolean hasListeners(String propertyName) {
+	java.util.CopyOnWriteArrayList l = listeners;
+	if (l != null && !l.isEmpty()) {
 	    // there is a generic listener
 	    return true;
 	}
-	if (children != null) {
-	    VetoableChangeSupport child = (VetoableChangeSupport)children.get(propertyName);
-	    if (child != null && child.listeners != null) {
-		return !child.listeners.isEmpty();
+	java.util.Hashtable c = children;
+	if (c != null && propertyName != null) {
+	    VetoableChangeSupport child = (VetoableChangeSupport)c.get(propertyName);
+	    if (child != null) {
+		l = child.listeners;
+		return l != null && !l.isEmpty();
 	    }
 	}
 	return false;
@@ -273,16 +287,10 @@ public class VetoableChangeSupport implements java.io.Serializable {
     private void writeObject(ObjectOutputStream s) throws IOException {
         s.defaultWriteObject();
 
-	java.util.Vector v = null;
-	synchronized (this) {
-	    if (listeners != null) {
-	        v = (java.util.Vector) listeners.clone();
-            }
-	}
-
+	java.util.CopyOnWriteArrayList v = listeners;
 	if (v != null) {
-	    for(int i = 0; i < v.size(); i++) {
-	        VetoableChangeListener l = (VetoableChangeListener)v.elementAt(i);
+	    for (java.util.Iterator i = v.iterator(); i.hasNext(); ) {
+	        VetoableChangeListener l = (VetoableChangeListener)i.next();
 	        if (l instanceof Serializable) {
 	            s.writeObject(l);
 	        }
@@ -302,11 +310,12 @@ public class VetoableChangeSupport implements java.io.Serializable {
     }
 
     /**
-     * "listeners" lists all the generic listeners.
+     * "listeners" lists all the generic listeners.  It is created and
+     * modified holding this object's lock, and read without it.
      *
      *  This is transient - its state is written in the writeObject method.
      */
-    transient private java.util.Vector listeners;
+    transient private volatile java.util.CopyOnWriteArrayList listeners;
 
     /** 
      * Hashtable for managing listeners for specific properties.
@@ -314,7 +323,7 @@ public class VetoableChangeSupport implements java.io.Serializable {
      * @serial 
      * @since 1.2
      */
-    private java.util.Hashtable children;
+    private volatile java.util.Hashtable children;
 
     /** 
      * The object to be provided as the "source" for any generated events.
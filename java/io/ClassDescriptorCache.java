@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A table of the class descriptors already exchanged over one direction of
+ * a connection, shared by the successive object streams that are used on
+ * it.  An <code>ObjectOutputStream</code> constructed with a cache writes
+ * the descriptor of a class in full only the first time that class is
+ * written to the connection, assigning it a compact numeric ID; thereafter
+ * any stream writing over the same connection with the same cache sends
+ * only the ID.  An <code>ObjectInputStream</code> constructed with its own
+ * cache records each descriptor as it first arrives and resolves later IDs
+ * against it.  This removes class names, serial version UIDs, and field
+ * names and signatures from all but the first message of each class, which
+ * for the short-lived, per-message streams used by remote invocation is
+ * most of the payload.<p>
+ *
+ * The IDs are agreed implicitly, in the order in which descriptors are
+ * first written, so one cache must be used on each end of each direction of
+ * a connection, and every stream written with the sending cache must be
+ * read in full, and in order, with the receiving cache.  A stream written
+ * with a cache is marked as such in its header; an input stream that has
+ * no cache rejects it, while an input stream that has one reads streams
+ * both with and without compact descriptors.<p>
+ *
+ * Class descriptors for dynamic proxy classes are not cached.  Caching
+ * cannot be combined with the JDK 1.1 stream protocol
+ * (<code>PROTOCOL_VERSION_1</code>).<p>
+ *
+ * A cache may be shared by streams in different threads; its methods are
+ * synchronized.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ObjectOutputStream#ObjectOutputStream(OutputStream, ClassDescriptorCache)
+ * @see     ObjectInputStream#ObjectInputStream(InputStream, ClassDescriptorCache)
+ * @since   1.4
+ */
+public final class ClassDescriptorCache {
+
+    /* Sending side: local descriptor -> Integer ID */
+    private HashMap ids = new HashMap();
+
+    /* Receiving side: ID -> descriptor read from the stream */
+    private ArrayList descs = new ArrayList();
+
+    /**
+     * Creates a new, empty cache.
+     */
+    public ClassDescriptorCache() {
+    }
+
+    /**
+     * Returns the number of class descriptors that have been sent or
+     * received through this cache.
+     *
+     * @return the number of cached descriptors
+     */
+    public synchronized int size() {
+	return ids.size() + descs.size();
+    }
+
+    /*
+     * Returns the ID assigned to the given local descriptor, or -1 if it
+     * has not been sent yet.
+     */
+    synchronized int lookup(ObjectStreamClass desc) {
+	Integer id = (Integer) ids.get(desc);
+	return (id != null) ? id.intValue() : -1;
+    }
+
+    /*
+     * Assigns the next ID to the given local descriptor, which is about to
+     * be sent in full.
+     */
+    synchronized int assign(ObjectStreamClass desc) {
+	int id = ids.size();
+	ids.put(desc, new Integer(id));
+	return id;
+    }
+
+    /*
+     * Records a descriptor received in full under the given ID, which must
+     * be the next one expected.
+     */
+    synchronized void define(int id, ObjectStreamClass desc)
+	throws StreamCorruptedException
+    {
+	if (id != descs.size())
+	    throw new StreamCorruptedException(
+		"Class descriptor ID out of sequence: " + id);
+	descs.add(desc);
+    }
+
+    /*
+     * Returns the descriptor received under the given ID.
+     */
+    synchronized ObjectStreamClass get(int id)
+	throws StreamCorruptedException
+    {
+	if (id < 0 || id >= descs.size())
+	    throw new StreamCorruptedException(
+		"Unknown class descriptor ID: " + id);
+	return (ObjectStreamClass) descs.get(id);
+    }
+}
@@ -5,6 +5,9 @@
 
 package java.io;
 
+import java.nio.channels.FileChannel;
+import sun.nio.ch.FileChannelImpl;
+
 /**
  * A <code>FileInputStream</code> obtains input bytes
  * from a file in a file system. What files
@@ -23,6 +26,8 @@ class FileInputStream extends InputStream
     /* File Descriptor - handle to the open file */
     private FileDescriptor fd;
 
+    private FileChannel channel = null;
+
     /**
      * Creates a <code>FileInputStream</code> by
      * opening a connection to an actual file,
@@ -205,6 +210,9 @@ class FileInputStream extends InputStream
      * Closes this file input stream and releases any system resources
      * associated with the stream.
      *
+     * <p> If this stream has an associated channel then the channel is
+     * closed as well.
+     *
      * @exception  IOException  if an I/O error occurs.
      */
     public native void close() throws IOException;
@@ -224,6 +232,29 @@ class FileInputStream extends InputStream
 	throw new IOException();
     }
 
+    /**
+     * Returns the unique {@link java.nio.channels.FileChannel FileChannel}
+     * object associated with this file input stream.
+     *
+     * <p> The initial {@link java.nio.channels.FileChannel#position()
+     * position} of the returned channel will be equal to the
+     * number of bytes read from the file so far.  Reading bytes from this
+     * stream will increment the channel's position.  Changing the channel's
+     * position, either explicitly or by reading, will change this stream's
+     * file position.
+     *
+     * @return  the file channel associated with this file input stream
+     *
+     * @since 1.4
+     */
+    public FileChannel getChannel() {
+	synchronized (this) {
+	    if (channel == null)
+		channel = FileChannelImpl.open(fd, true, false, this);
+	    return channel;
+	}
+    }
+
     private static native void initIDs();
 
     static {
@@ -5,6 +5,9 @@
 
 package java.io;
 
+import java.nio.channels.FileChannel;
+import sun.nio.ch.FileChannelImpl;
+
 
 /**
  * A file output stream is an output stream for writing data to a 
@@ -32,6 +35,8 @@ class FileOutputStream extends OutputStream
      */
     private FileDescriptor fd;
 
+    private FileChannel channel = null;
+
     /**
      * Creates an output file stream to write to the file with the 
      * specified name. A new <code>FileDescriptor</code> object is 
@@ -221,9 +226,12 @@ class FileOutputStream extends OutputStream
      * associated with this stream. This file output stream may no longer 
      * be used for writing bytes. 
      *
+     * <p> If this stream has an associated channel then the channel is
+     * closed as well.
+     *
      * @exception  IOException  if an I/O error occurs.
      */
-     public native void close() throws IOException;
+    public native void close() throws IOException;
 
     /**
      * Returns the file descriptor associated with this stream.
@@ -258,6 +266,30 @@ class FileOutputStream extends OutputStream
  	}
     }
 
+    /**
+     * Returns the unique {@link java.nio.channels.FileChannel FileChannel}
+     * object associated with this file output stream.
+     *
+     * <p> The initial {@link java.nio.channels.FileChannel#position()
+     * position} of the returned channel will be equal to the
+     * number of bytes written to the file so far unless this stream is in
+     * append mode, in which case it will be equal to the size of the file.
+     * Writing bytes to this stream will increment the channel's position
+     * accordingly.  Changing the channel's position, either explicitly or by
+     * writing, will change this stream's file position.
+     *
+     * @return  the file channel associated with this file output stream
+     *
+     * @since 1.4
+     */
+    public FileChannel getChannel() {
+	synchronized (this) {
+	    if (channel == null)
+		channel = FileChannelImpl.open(fd, false, true, this);
+	    return channel;
+	}
+    }
+
     private static native void initIDs();
     
     static {
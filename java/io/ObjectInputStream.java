@@ -6,6 +6,7 @@
 package java.io;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Stack;
 import java.util.Hashtable;
 import java.lang.Math;
@@ -150,8 +151,33 @@ public class ObjectInputStream extends InputStream
      */
     public ObjectInputStream(InputStream in)
 	throws IOException, StreamCorruptedException
+    {
+	this(in, null);
+    }
+
+    /**
+     * Create an ObjectInputStream that reads from the specified InputStream,
+     * resolving compact class descriptors against the given cache.  The
+     * stream may have been written with or without a class descriptor
+     * cache; if it was, it must be read with the cache of the receiving end
+     * of the connection it was written to, and every such stream must be
+     * read in full and in order.
+     *
+     * @param in the underlying <code>InputStream</code> from which to read
+     * @param cache the class descriptor cache of the receiving end of the
+     *        connection, or <code>null</code> to accept only streams with
+     *        full class descriptors
+     * @exception StreamCorruptedException The version or magic number are
+     * incorrect.
+     * @exception IOException An exception occurred in the underlying stream.
+     * @see java.io.ObjectOutputStream#ObjectOutputStream(OutputStream, ClassDescriptorCache)
+     * @since 1.4
+     */
+    public ObjectInputStream(InputStream in, ClassDescriptorCache cache)
+	throws IOException, StreamCorruptedException
     {
 	enableSubclassImplementation = false;
+	descCache = cache;
 	/*
 	 * Save the input stream to read bytes from
 	 * Create a DataInputStream used to read primitive types.
@@ -228,10 +254,75 @@ public class ObjectInputStream extends InputStream
 	else {
 
 	    /* require local Class for object by default. */
-	    return readObject(true);
+	    return readObject0(true, false);
 	}
     }
 
+    /**
+     * Reads an "unshared" object from the ObjectInputStream.  This method
+     * is identical to readObject, except that it prevents subsequent calls
+     * to readObject and readUnshared from returning additional references
+     * to the deserialized instance obtained via this call, and that the
+     * stream does not retain a reference to the instance once it has been
+     * read.  Specifically:
+     * <ul>
+     *   <li>If readUnshared is called to deserialize a back-reference (the
+     *       stream representation of an object which has been written
+     *       previously to the stream), an InvalidObjectException will be
+     *       thrown.
+     *
+     *   <li>If readUnshared returns successfully, then any subsequent
+     *       attempts to deserialize back-references to the stream handle
+     *       deserialized by readUnshared will cause an
+     *       InvalidObjectException to be thrown.
+     * </ul>
+     * Objects referenced by the returned object are read as by
+     * readObject.  Class objects and class descriptors are always shared.
+     * The corresponding method in ObjectOutputStream is writeUnshared.
+     *
+     * @return reference to deserialized object
+     * @throws ClassNotFoundException if class of an object to deserialize
+     *         cannot be found
+     * @throws StreamCorruptedException if control information in the stream
+     *         is inconsistent
+     * @throws InvalidObjectException if the object to deserialize has
+     *         already appeared in the stream
+     * @throws OptionalDataException if primitive data is next in stream
+     * @throws IOException if an I/O error occurs during deserialization
+     * @see #enableUnsharedMode(boolean)
+     * @see java.io.ObjectOutputStream#writeUnshared(Object)
+     * @since 1.4
+     */
+    public Object readUnshared()
+	throws IOException, ClassNotFoundException
+    {
+	if (enableSubclassImplementation)
+	    return readObjectOverride();
+	return readObject0(true, true);
+    }
+
+    /**
+     * Enables or disables the unshared mode of this stream.  While the
+     * mode is enabled, every object read by readObject on behalf of a
+     * caller outside of deserialization must be a new object rather than
+     * a reference to an object read earlier; an InvalidObjectException is
+     * thrown otherwise.  References within the graph of the object,
+     * including cycles through the object itself, are resolved, and the
+     * stream forgets the graph where the writer marks it to.  This is the
+     * counterpart of the unshared mode of ObjectOutputStream.
+     *
+     * @param enable true to enable the unshared mode, false to disable it
+     * @return the previous setting
+     * @see #readUnshared()
+     * @see java.io.ObjectOutputStream#enableUnsharedMode(boolean)
+     * @since 1.4
+     */
+    public boolean enableUnsharedMode(boolean enable) {
+	boolean previous = unsharedMode;
+	unsharedMode = enable;
+	return previous;
+    }
+
     /**
      * This method is called by trusted subclasses of ObjectOutputStream
      * that constructed ObjectOutputStream using the 
@@ -266,6 +357,16 @@ public class ObjectInputStream extends InputStream
      */
     private final Object readObject(boolean requireLocalClass)
 	throws OptionalDataException, ClassNotFoundException, IOException
+    {
+	return readObject0(requireLocalClass, false);
+    }
+
+    /*
+     * Reads an object, as an unshared object whose handle can not be
+     * referred to again if unshared is true.
+     */
+    private Object readObject0(boolean requireLocalClass, boolean unshared)
+	throws OptionalDataException, ClassNotFoundException, IOException
     {
 	/* If the stream is in blockData mode and there's any data
 	 * left throw an exception to report how much there is.
@@ -284,7 +385,15 @@ public class ObjectInputStream extends InputStream
 	 * Look ahead now to absorb any pending reset's.
 	 * Before changing the state.
 	 */
-	peekCode();
+	byte pcode = peekCode();
+
+	/* In unshared mode, a top-level object must be new.  It is read
+	 * shared, so that references to it from within its own graph
+	 * resolve, and forgotten at the writer's following reset.
+	 */
+	if (unsharedMode && recursionDepth == 0 && pcode == TC_REFERENCE)
+	    throw new InvalidObjectException(
+		"cannot read back reference in unshared mode");
 
 	/* Save the current state and get ready to read an object. */
 	Object prevObject = currentObject;
@@ -316,11 +425,15 @@ public class ObjectInputStream extends InputStream
 		/* This is a reference to a pre-existing object */
 		wireoffset = readInt() - baseWireHandle; 
 		
-		try {
-		    obj = wireHandle2Object.get(wireoffset);
-		} catch (ArrayIndexOutOfBoundsException e) {
+		if (wireoffset < 0 || wireoffset >= handles.size())
 		    throw new StreamCorruptedException("Reference to object never serialized.");
-		}
+		if (unshared)
+		    throw new InvalidObjectException(
+			"cannot read back reference as unshared");
+		if (handles.isUnshared(wireoffset))
+		    throw new InvalidObjectException(
+			"cannot read back reference to unshared object");
+		obj = handles.lookup(wireoffset);
 		break;
 		
 	    case TC_STRING:
@@ -337,7 +450,7 @@ public class ObjectInputStream extends InputStream
 		    }
 
 		    if (obj != localObj)
-			wireHandle2Object.set(wireoffset, obj);
+			handles.set(wireoffset, obj);
 		}
 		break;
 		
@@ -374,7 +487,7 @@ public class ObjectInputStream extends InputStream
 		}
 
 		if (obj != currentObject)
-		    wireHandle2Object.set(wireoffset, obj);
+		    handles.set(wireoffset, obj);
 		break;
 		
 	    case TC_OBJECT:
@@ -395,7 +508,7 @@ public class ObjectInputStream extends InputStream
 		}
 
 		if (obj != currentObject)
-		    wireHandle2Object.set(wireoffset, obj);
+		    handles.set(wireoffset, obj);
 		break;
 		
 	    case TC_ENDBLOCKDATA:
@@ -442,6 +555,10 @@ public class ObjectInputStream extends InputStream
 	    default:
 		throw new StreamCorruptedException("Unknown code in readObject " + rcode);
 	    }
+
+	    /* Drop the stream's reference to an object read unshared. */
+	    if (unshared && wireoffset >= 0)
+		handles.markUnshared(wireoffset);
 	} catch (OptionalDataException optdata) {
 	    /* OptionalDataExceptions won't terminate everything.
 	     * so just rethrow it.
@@ -843,6 +960,13 @@ public class ObjectInputStream extends InputStream
 	if (incoming_magic != STREAM_MAGIC)
 	    throw new StreamCorruptedException("InputStream does not contain a serialized object");
 	
+	/* A stream with compact class descriptors can be read only with a
+	 * cache.
+	 */
+	if (incoming_version == STREAM_VERSION_CACHED && descCache != null) {
+	    readCachedDescriptors = true;
+	    return;
+	}
 	if (incoming_version != STREAM_VERSION)
 	    throw new StreamCorruptedException("Version Mismatch, Expected " +
 					       STREAM_VERSION + " and got " +
@@ -871,10 +995,23 @@ public class ObjectInputStream extends InputStream
     protected ObjectStreamClass readClassDescriptor() 
 	throws IOException, ClassNotFoundException
     {
+	/* With a cache, a non-negative ID names a descriptor received
+	 * before; otherwise its complement is the ID of the full
+	 * descriptor that follows.
+	 */
+	int id = -1;
+	if (readCachedDescriptors) {
+	    int code = readInt();
+	    if (code >= 0)
+		return descCache.get(code);
+	    id = ~code;
+	}
 	String classname = readUTF();
 	long hash = readLong();
 	ObjectStreamClass v = new ObjectStreamClass(classname, hash);
 	v.read(this);
+	if (id >= 0)
+	    descCache.define(id, v);
 	return v;
     }
 
@@ -895,7 +1032,7 @@ public class ObjectInputStream extends InputStream
 	 * into the empty class descriptor.
 	 */
 	ObjectStreamClass copydesc = new ObjectStreamClass(null, 0);
-	int wireoffset = assignWireOffset(copydesc);
+	int wireoffset = handles.assignDescriptor(copydesc);
 
 	/* Read in class descriptor */
 	ObjectStreamClass desc = readClassDescriptor();
@@ -955,7 +1092,7 @@ public class ObjectInputStream extends InputStream
 	 * All proxy classes have a serialVersionUID of 0L.
 	 */
 	ObjectStreamClass v = new ObjectStreamClass("", 0L);
-	int wireoffset = assignWireOffset(v);
+	int wireoffset = handles.assignDescriptor(v);
 
 	/*
 	 * Read in the names of the proxy interfaces.
@@ -1496,11 +1633,10 @@ public class ObjectInputStream extends InputStream
      * Reset the stream to be just like it was after the constructor.
      */
     private void resetStream() throws IOException {
-	if (wireHandle2Object == null)
-	    wireHandle2Object = new ArrayList();
+	if (handles == null)
+	    handles = new HandleTable(10);
 	else
-	    wireHandle2Object.clear();
-	nextWireOffset = 0;
+	    handles.clear();
 
 	if (classes == null)
 	    classes = new Class[20];
@@ -1522,17 +1658,13 @@ public class ObjectInputStream extends InputStream
     }
 
     /* Allocate a handle for an object.
-     * The list is indexed by the wireHandleOffset
+     * The table is indexed by the wireHandleOffset
      * and contains the object.
      */
     private int assignWireOffset(Object obj)
 	throws IOException
     {
-	wireHandle2Object.add(obj);
-	if (++nextWireOffset != wireHandle2Object.size())
-	  throw new StreamCorruptedException(
-	      "Elements not assigned in order");
-	return nextWireOffset-1;
+	return handles.assign(obj);
     }
 
     /*
@@ -1563,6 +1695,17 @@ public class ObjectInputStream extends InputStream
 		 */
 		resetStream();
 		currCode = 0;
+	    } else if (currCode == TC_RESETOBJECTS) {
+		if (recursionDepth != 0 ||
+		    currentObject != null ||
+		    currentClassDesc != null)
+		    throw new StreamCorruptedException("Illegal stream state for reset");
+
+		/* Forget all objects but keep class descriptors, and
+		 * repeat the peek at the next code
+		 */
+		handles.retainDescriptors();
+		currCode = 0;
 	    }
 	}
 	return currCode;
@@ -2246,8 +2389,8 @@ public class ObjectInputStream extends InputStream
 		data = new byte[currentClassDesc.numPrimBytes];
 	    readFully(data, 0, currentClassDesc.numPrimBytes);
 	    if (o != null)
-		setPrimitiveFieldValues(o, currentClassDesc.primFieldIDs,
-			currentClassDesc.primFieldTypecodes, data);
+		setPrimitiveFieldValues(o, currentClassDesc.fieldRefl.primFieldIDs,
+			currentClassDesc.fieldRefl.primFieldTypecodes, data);
 	}
 
 	/* Read and set object fields from the input stream. */
@@ -2259,8 +2402,9 @@ public class ObjectInputStream extends InputStream
 	    if ((o == null) || (field == null))
 		continue;
 	    try {
-		setObjectFieldValue(o, currentClassDesc.objFieldIDs[i], 
-			currentClassDesc.objFieldTypes[i], val);
+		ObjectStreamClass.FieldReflector refl = currentClassDesc.fieldRefl;
+		setObjectFieldValue(o, refl.objFieldIDs[i],
+			refl.objFieldTypes[i], val);
 	    } catch (ClassCastException e) {
 		// fill in error message
 		throw new ClassCastException("Assigning instance of class " +
@@ -2275,11 +2419,12 @@ public class ObjectInputStream extends InputStream
 
     /*
      * Sets the values of the primitive fields of object obj.  fieldIDs is an
-     * array of field IDs (the primFieldsID field of the appropriate
-     * ObjectStreamClass) identifying which fields to set.  typecodes is an
-     * array of characters designating the primitive type of each field (e.g.,
-     * 'C' for char, 'Z' for boolean, etc.)  data is the byte buffer from which
-     * the primitive field values are read, in the order of their field IDs.
+     * array of field IDs (the primFieldIDs of the plan held by the
+     * appropriate ObjectStreamClass) identifying which fields to set.
+     * typecodes is an array of characters designating the primitive type of
+     * each field (e.g., 'C' for char, 'Z' for boolean, etc.)  data is the byte
+     * buffer from which the primitive field values are read, in the order of
+     * their field IDs.
      * 
      * For efficiency, this method does not check all of its arguments for
      * safety.  Specifically, it assumes that obj's type is compatible with the
@@ -2291,10 +2436,10 @@ public class ObjectInputStream extends InputStream
     
     /*
      * Sets the value of an object field of object obj.  fieldID is the field ID
-     * identifying which field to set (obtained from the objFieldsID array field
-     * of the appropriate ObjectStreamClass).  type is the field type; it is
-     * provided so that the native method can ensure that the passed value val
-     * is assignable to the field.
+     * identifying which field to set (obtained from the objFieldIDs array of
+     * the plan held by the appropriate ObjectStreamClass).  type is the field
+     * type; it is provided so that the native method can ensure that the
+     * passed value val is assignable to the field.
      * 
      * For efficiency, this method does not check all of its arguments for
      * safety.  Specifically, it assumes that obj's type is compatible with the
@@ -2304,7 +2449,6 @@ public class ObjectInputStream extends InputStream
     private static native void setObjectFieldValue(Object obj, long fieldID, 
 	    Class type, Object val);
 
-
     /*************************************************************/
 
     /**
@@ -2864,11 +3008,10 @@ public class ObjectInputStream extends InputStream
 
     /* During deserialization the objects in the stream are represented by
      * handles (ints), they need to be mapped to the objects.
-     * The vector is indexed by the offset between baseWireHandle and the
+     * The table is indexed by the offset between baseWireHandle and the
      * wire handle in the stream.
      */
-    private ArrayList wireHandle2Object;
-    private int nextWireOffset;
+    private HandleTable handles;
 
     /* List of validation callback objects
      * The list is created as needed, and ValidationCallback objects added
@@ -2897,6 +3040,136 @@ public class ObjectInputStream extends InputStream
     private boolean enableSubclassImplementation;
 
     private Object[] readObjectArglist = {this};
+
+    /* Cache of class descriptors already received on the connection, or
+     * null; descriptors are read in compact form only if the stream
+     * header says they were written so.
+     */
+    private ClassDescriptorCache descCache;
+    private boolean readCachedDescriptors = false;
+
+    /* If true, top-level objects must not be back references.  Set by
+     * enableUnsharedMode.
+     */
+    private boolean unsharedMode = false;
+
+    /**
+     * Unsynchronized table mapping wire handle offsets to the objects read
+     * from the stream.  Handles are assigned densely and in order, so the
+     * table is a plain growable array; unlike a list it performs no range
+     * check or modification counting on each access.
+     */
+    private static final class HandleTable {
+
+	/* status codes */
+	private static final byte STATUS_OBJECT = 0;
+	private static final byte STATUS_DESCRIPTOR = 1;
+	private static final byte STATUS_UNSHARED = 2;
+
+	private Object[] entries;	// handle -> object mapping
+	private byte[] status;		// handle -> status
+	private int size;		// number of handles assigned
+
+	HandleTable(int initialCapacity) {
+	    entries = new Object[initialCapacity];
+	    status = new byte[initialCapacity];
+	}
+
+	/**
+	 * Assigns the next handle to the given object and returns it.
+	 */
+	int assign(Object obj) {
+	    return assign(obj, STATUS_OBJECT);
+	}
+
+	/**
+	 * Assigns the next handle to the given class descriptor and returns
+	 * it.  Descriptor handles survive {@link #retainDescriptors}.
+	 */
+	int assignDescriptor(ObjectStreamClass desc) {
+	    return assign(desc, STATUS_DESCRIPTOR);
+	}
+
+	private int assign(Object obj, byte st) {
+	    if (size >= entries.length)
+		grow();
+	    entries[size] = obj;
+	    status[size] = st;
+	    return size++;
+	}
+
+	/**
+	 * Marks the given handle as belonging to an object read unshared,
+	 * dropping the table's reference to the object.
+	 */
+	void markUnshared(int handle) {
+	    entries[handle] = null;
+	    status[handle] = STATUS_UNSHARED;
+	}
+
+	/**
+	 * Tells whether the given handle belongs to an object read unshared.
+	 */
+	boolean isUnshared(int handle) {
+	    return status[handle] == STATUS_UNSHARED;
+	}
+
+	/**
+	 * Replaces the object associated with the given handle.
+	 */
+	void set(int handle, Object obj) {
+	    entries[handle] = obj;
+	}
+
+	/**
+	 * Returns the object associated with the given handle, which the
+	 * caller has checked to be less than {@link #size}.
+	 */
+	Object lookup(int handle) {
+	    return entries[handle];
+	}
+
+	/**
+	 * Returns the number of handles assigned so far.
+	 */
+	int size() {
+	    return size;
+	}
+
+	/**
+	 * Discards all handles, retaining the table's capacity.
+	 */
+	void clear() {
+	    Arrays.fill(entries, 0, size, null);
+	    size = 0;
+	}
+
+	/**
+	 * Discards all handles except those of class descriptors, which
+	 * are renumbered in order from zero.
+	 */
+	void retainDescriptors() {
+	    int n = 0;
+	    for (int i = 0; i < size; i++) {
+		if (status[i] == STATUS_DESCRIPTOR) {
+		    entries[n] = entries[i];
+		    status[n++] = STATUS_DESCRIPTOR;
+		}
+	    }
+	    Arrays.fill(entries, n, size, null);
+	    size = n;
+	}
+
+	private void grow() {
+	    int newLength = (entries.length << 1) + 1;
+	    Object[] newEntries = new Object[newLength];
+	    System.arraycopy(entries, 0, newEntries, 0, size);
+	    entries = newEntries;
+	    byte[] newStatus = new byte[newLength];
+	    System.arraycopy(status, 0, newStatus, 0, size);
+	    status = newStatus;
+	}
+    }
 };
 
 // Internal class to hold the Callback object and priority
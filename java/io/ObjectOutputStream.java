@@ -147,8 +147,32 @@ public class ObjectOutputStream
 
      */
     public ObjectOutputStream(OutputStream out) throws IOException {
+	this(out, null);
+    }
+
+    /**
+     * Creates an ObjectOutputStream that writes to the specified
+     * OutputStream, writing class descriptors in the compact form of the
+     * given cache.  The descriptor of a class is written in full only if
+     * it has not been written through the cache before; otherwise only
+     * its ID in the cache is written.  The stream must be read by an
+     * ObjectInputStream constructed with the cache of the receiving end
+     * of the connection.
+     *
+     * @param out <code>OutputStream</code> to write to
+     * @param cache the class descriptor cache of the sending end of the
+     *        connection, or <code>null</code> to write descriptors in full
+     * @exception IOException Any exception thrown by the underlying
+     * OutputStream.
+     * @see java.io.ObjectInputStream#ObjectInputStream(InputStream, ClassDescriptorCache)
+     * @since 1.4
+     */
+    public ObjectOutputStream(OutputStream out, ClassDescriptorCache cache)
+	throws IOException
+    {
 	enableSubclassImplementation = false;
 	this.out = out;
+	descCache = cache;
 	dos = new DataOutputStream(this);
 	buf = new byte[1024];	// allocate buffer
 	writeStreamHeader();
@@ -212,7 +236,8 @@ public class ObjectOutputStream
      *
      * @param version   use ProtocolVersion from java.io.ObjectStreamConstants.
      * @exception IllegalStateException   Thrown if called after any objects
-     * have been serialized.
+     * have been serialized, or if <code>PROTOCOL_VERSION_1</code> is
+     * requested for a stream using a class descriptor cache.
      * @exception IllegalArgumentException if invalid version is passed in.
      * @throws IOException if I/O errors occur
      *
@@ -228,6 +253,9 @@ public class ObjectOutputStream
 
 	switch (version) {
 	case PROTOCOL_VERSION_1:
+	    if (descCache != null)
+		throw new IllegalStateException("Class descriptor cache" +
+			" requires PROTOCOL_VERSION_2");
 	    useDeprecatedExternalizableFormat = true;
 	    break;
 	case PROTOCOL_VERSION_2:
@@ -266,14 +294,131 @@ public class ObjectOutputStream
 	    writeObjectOverride(obj);
 	    return;
 	}
+	/* In unshared mode, a top-level object is written shared, so that
+	 * references to it from within its own graph are preserved, and is
+	 * kept apart from earlier objects by the reset that follows it.
+	 * Objects written before the mode was enabled are forgotten first.
+	 */
+	if (unsharedMode && recursionDepth == 0 && objectsRetained) {
+	    if (currentObject == null && currentClassDesc == null)
+		resetObjects();
+	}
+	writeObject0(obj, false);
+    }
+
+    /**
+     * Writes an "unshared" object to the ObjectOutputStream.  This method
+     * is identical to writeObject, except that it always writes the given
+     * object as a new, unique object in the stream (as opposed to a
+     * back-reference pointing to a previously serialized instance), and
+     * that the stream does not retain a reference to the object once it
+     * has been written.  Specifically:
+     * <ul>
+     *   <li>An object written via writeUnshared is always serialized in the
+     *       same manner as a newly appearing object (an object that has not
+     *       been written to the stream yet), regardless of whether or not
+     *       the object has been written previously.
+     *
+     *   <li>If writeObject is used to write an object that has been
+     *       previously written with writeUnshared, the previous
+     *       writeUnshared operation is treated as if it were a write of a
+     *       separate object.  In other words, ObjectOutputStream will never
+     *       generate back-references to object data written by calls to
+     *       writeUnshared.
+     * </ul>
+     * Objects referenced by the given object are written as by
+     * writeObject.  Class objects and class descriptors are always
+     * shared.  The corresponding method in ObjectInputStream is
+     * readUnshared.
+     *
+     * @param obj object to write to stream
+     * @throws NotSerializableException if an object in the graph to be
+     *         serialized does not implement the Serializable interface
+     * @throws InvalidClassException if a problem exists with the class of
+     *         an object to be serialized
+     * @throws IOException if an I/O error occurs during serialization
+     * @see #enableUnsharedMode(boolean)
+     * @see java.io.ObjectInputStream#readUnshared()
+     * @since 1.4
+     */
+    public void writeUnshared(Object obj) throws IOException {
+	if (enableSubclassImplementation) {
+	    writeObjectOverride(obj);
+	    return;
+	}
+	writeObject0(obj, true);
+    }
+
+    /**
+     * Enables or disables the unshared mode of this stream.  While the
+     * mode is enabled, every object passed to writeObject by a caller
+     * outside of serialization is written as a new object, never as a
+     * reference to an object written by an earlier call, and once it has
+     * been written the stream forgets the objects of its graph, as if by
+     * a reset that keeps class descriptors (see
+     * {@link #enableDescriptorRetention(boolean)}).  References within the
+     * graph of a single object, including cycles through the object
+     * itself, are preserved.  The
+     * memory used by a long-lived stream in this mode is thus bounded by
+     * the size of the largest graph written, rather than growing with
+     * every object written.
+     *
+     * <p>Streams written in this mode can only be read by an
+     * ObjectInputStream that recognizes the
+     * {@link ObjectStreamConstants#TC_RESETOBJECTS} marker.
+     *
+     * @param enable true to enable the unshared mode, false to disable it
+     * @return the previous setting
+     * @see #writeUnshared(Object)
+     * @see java.io.ObjectInputStream#enableUnsharedMode(boolean)
+     * @since 1.4
+     */
+    public boolean enableUnsharedMode(boolean enable) {
+	boolean previous = unsharedMode;
+	unsharedMode = enable;
+	if (enable && !previous)
+	    objectsRetained = true;
+	return previous;
+    }
+
+    /**
+     * Enables or disables the retention of class descriptors across
+     * <code>reset</code>.  While retention is enabled, reset forgets all
+     * objects already written to the stream, so that they no longer pin
+     * memory and will be written again in full, but keeps the descriptors
+     * of the classes already written, so that they are not sent again.
+     *
+     * <p>Streams written with retention enabled can only be read by an
+     * ObjectInputStream that recognizes the
+     * {@link ObjectStreamConstants#TC_RESETOBJECTS} marker.
+     *
+     * @param enable true to retain class descriptors across reset, false
+     *        to have reset discard them along with all objects
+     * @return the previous setting
+     * @see #reset()
+     * @since 1.4
+     */
+    public boolean enableDescriptorRetention(boolean enable) {
+	boolean previous = retainDescriptors;
+	retainDescriptors = enable;
+	return previous;
+    }
 
+    /*
+     * Writes the given object, as a new object with no retained handle if
+     * unshared is true.
+     */
+    private void writeObject0(Object obj, boolean unshared)
+	throws IOException
+    {
 	Object prevObject = currentObject;
 	ObjectStreamClass prevClassDesc = currentClassDesc;
 	boolean oldBlockDataMode = setBlockData(false);
 	recursionDepth++;
 
 	try {
-	    if (serializeNullAndRepeat(obj, REPLACEABLE))
+	    if (unshared ? serializeNull(obj) :
+		serializeNullAndRepeat(obj, REPLACEABLE))
 		return;
 
 	    if (checkSpecialClasses(obj))
@@ -331,7 +476,8 @@ public class ObjectOutputStream
 
 		// If the alternate object is already
 		// serialized just remember the replacement
-		if (serializeNullAndRepeat(altobj, REPLACEABLE)) {
+		if (unshared ? serializeNull(altobj) :
+		    serializeNullAndRepeat(altobj, REPLACEABLE)) {
 		    addReplacement(obj, altobj);
 		    return;
 		}
@@ -354,11 +500,12 @@ public class ObjectOutputStream
 		obj = altobj;
 	    }
 	    if (checkSubstitutableSpecialClasses(obj,
-						 currentClassDesc.forClass()))
+						 currentClassDesc.forClass(),
+						 unshared))
 		return;
 
 	    /* Write out the object as itself */
-	    outputObject(obj);
+	    outputObject(obj, unshared);
 	} catch (IOException ee) {
 	    if (abortIOException == null) {
 		try {
@@ -378,7 +525,7 @@ public class ObjectOutputStream
 		    setBlockData(false); //added since resetStream set to TRUE.
 		    currentClassDesc =
 			ObjectStreamClass.lookupInternal(ee.getClass());
-		    this.outputObject(ee); //avoid recursing with writeObject
+		    this.outputObject(ee, false); //avoid recursing with writeObject
 		    resetStream();
 
 		    // Set the pending exception to be rethrown.
@@ -402,6 +549,12 @@ public class ObjectOutputStream
 	    setBlockData(oldBlockDataMode);
 	}
 
+	/* In unshared mode, forget the graph of a completed top-level
+	 * object, keeping only class descriptors.
+	 */
+	if (unsharedMode && recursionDepth == 0 && abortIOException == null)
+	    resetObjects();
+
 	/* If the recursion depth is 0, test for and clear the pending exception.
 	 * If there is a pending exception throw it.
 	 */
@@ -439,16 +592,17 @@ public class ObjectOutputStream
      * Check for special cases of substitutable serializing objects.
      * These classes are replaceable.
      */
-    private boolean checkSubstitutableSpecialClasses(Object obj, Class cl)
+    private boolean checkSubstitutableSpecialClasses(Object obj, Class cl,
+						     boolean unshared)
 	throws IOException
     {
 	if (cl == String.class) {
-	    outputString((String)obj);
+	    outputString((String)obj, unshared);
 	    return true;
 	}
 
 	if (cl.isArray()) {
-	    outputArray(obj);
+	    outputArray(obj, unshared);
 	    return true;
 	}
 
@@ -521,29 +675,54 @@ public class ObjectOutputStream
      * as reset so the corresponding ObjectInputStream will be reset
      * at the same point.  Objects previously written to the stream
      * will not be refered to as already being in the stream.  They
-     * will be written to the stream again.
+     * will be written to the stream again.  If descriptor retention is
+     * enabled, the descriptors of classes already written are kept and
+     * are not written again.
      * 
      * @throws IOException if reset() is invoked while serializing an object.
+     * @see #enableDescriptorRetention(boolean)
      */
     public void reset() throws IOException {
 	if (currentObject != null || currentClassDesc != null)
 	    throw new IOException("Illegal call to reset");
 
-	/* Write a reset to the stream. */
-	setBlockData(false);
-	writeCode(TC_RESET);
+	if (retainDescriptors) {
+	    resetObjects();
+	} else {
+	    /* Write a reset to the stream. */
+	    setBlockData(false);
+	    writeCode(TC_RESET);
 
-	resetStream();			// re-init the stream
+	    resetStream();		// re-init the stream
+	}
 	abortIOException = null;
     }
 
+    /*
+     * Forget all objects written to the stream, but keep the handles of
+     * class descriptors, and mark the point in the stream so that the
+     * corresponding ObjectInputStream does the same.  The retained
+     * handles are renumbered in order on both sides.
+     */
+    private void resetObjects() throws IOException {
+	boolean prevMode = setBlockData(false);
+	writeCode(TC_RESETOBJECTS);
+	setBlockData(prevMode);
+
+	handleTable.retainDescriptors();
+	if (replaceTable != null) {
+	    replaceTable.clear();
+	}
+	objectsRetained = false;
+    }
+
     /*
      * Internal reset function to reinitialize the state of the stream.
      * Reset state of things changed by using the stream.
      */
     private void resetStream() throws IOException {
 	if (handleTable == null) {
-	    handleTable = new HandleTable(11, (float) 7.0);
+	    handleTable = new HandleTable(10, (float) 3.0);
 	} else {
 	    handleTable.clear();
 	}
@@ -698,7 +877,7 @@ public class ObjectOutputStream
      */
     protected void writeStreamHeader() throws IOException {
 	writeShort(STREAM_MAGIC);
-	writeShort(STREAM_VERSION);
+	writeShort(descCache != null ? STREAM_VERSION_CACHED : STREAM_VERSION);
     }
 
     /**
@@ -706,11 +885,11 @@ public class ObjectOutputStream
      * Note that since Strings are Objects, writeObject
      * will behave identically.
      */
-    private void outputString(String s) throws IOException {
+    private void outputString(String s, boolean unshared) throws IOException {
 	long utflen;
 	int slen = s.length();
 
-	handleTable.assignWireOffset(s);
+	handleTable.assignWireOffset(unshared ? null : s);
 	
 	if ((cdata == null) || (cdata.length < slen)) {
 	    cdata = s.toCharArray();
@@ -820,6 +999,18 @@ public class ObjectOutputStream
     private void writeClassDescriptor0(ObjectStreamClass classdesc)
 	throws IOException
     {
+	/* With a cache, write the ID alone if the descriptor has been
+	 * written before, otherwise the complement of a newly assigned ID
+	 * followed by the full descriptor.
+	 */
+	if (descCache != null) {
+	    int id = descCache.lookup(classdesc);
+	    if (id >= 0) {
+		writeInt(id);
+		return;
+	    }
+	    writeInt(~descCache.assign(classdesc));
+	}
 	writeUTF(classdesc.getName());
 	writeLong(classdesc.getSerialVersionUID());
 	classdesc.write(this);
@@ -949,7 +1140,7 @@ public class ObjectOutputStream
      *
      * @param o can represent an array of any type/dimension.
      */
-    private void outputArray(Object obj)
+    private void outputArray(Object obj, boolean unshared)
 	throws IOException
     {
 	Class currclass = currentClassDesc.forClass();
@@ -961,7 +1152,7 @@ public class ObjectOutputStream
 	/* Assign the wirehandle for this object and outputArrayValues
 	 * writes the length and the array contents.
 	 */
-	handleTable.assignWireOffset(obj);
+	handleTable.assignWireOffset(unshared ? null : obj);
 
 	int i, length, limit;
 	Class type = currclass.getComponentType();
@@ -1135,7 +1326,7 @@ public class ObjectOutputStream
      * serialization code and dispatching to Specials where
      * appropriate.
      */
-    private void outputObject(Object obj)
+    private void outputObject(Object obj, boolean unshared)
 	throws IOException
     {
 	currentObject = obj;
@@ -1150,8 +1341,10 @@ public class ObjectOutputStream
 	writeCode(TC_OBJECT);
 	outputClassDescriptor(currentClassDesc);
 
-	/* Assign the next wirehandle */
-	handleTable.assignWireOffset(obj);
+	/* Assign the next wirehandle; an unshared object is given a
+	 * handle that no later write can refer to.
+	 */
+	handleTable.assignWireOffset(unshared ? null : obj);
 
 	/* If the object is externalizable,
 	 * call writeExternal.
@@ -1224,6 +1417,18 @@ public class ObjectOutputStream
     }
 
 
+    /* Serialize the reference if it is NULL.
+     *
+     * @return True if the reference is null.
+     */
+    private boolean serializeNull(Object obj) throws IOException {
+	if (obj == null) {
+	    writeCode(TC_NULL);
+	    return true;
+	}
+	return false;
+    }
+
     /* Serialize the reference if it is NULL or is for an object that
      * was already replaced or already serialized.
      * If the object was already replaced, look for the replacement
@@ -1267,7 +1472,7 @@ public class ObjectOutputStream
      */
     private void addReplacement(Object orig, Object replacement) {
 	if (replaceTable == null) {
-	    replaceTable = new ReplaceTable(11, (float) 7.0);
+	    replaceTable = new ReplaceTable(10, (float) 3.0);
 	}
 	replaceTable.assign(orig, replacement);
     }
@@ -1804,13 +2009,14 @@ public class ObjectOutputStream
 	    } else if (data.length < numPrimBytes) {
 		data = new byte[numPrimBytes];
 	    }
-	    getPrimitiveFieldValues(o, currentClassDesc.primFieldIDs,
-		    currentClassDesc.primFieldTypecodes, data);
+	    ObjectStreamClass.FieldReflector refl = currentClassDesc.fieldRefl;
+	    getPrimitiveFieldValues(o, refl.primFieldIDs,
+		    refl.primFieldTypecodes, data);
 	    writeInternal(data, 0, numPrimBytes, false);
 	}
 
 	int numPrimFields = fields.length - currentClassDesc.numObjFields;
-	long[] objFieldIDs = currentClassDesc.objFieldIDs;
+	long[] objFieldIDs = currentClassDesc.fieldRefl.objFieldIDs;
 	for (int i = 0; i < currentClassDesc.numObjFields; i++) {
 	    Object val;
 	    try {
@@ -1825,11 +2031,12 @@ public class ObjectOutputStream
 
     /*
      * Gets the values of the primitive fields of object obj.  fieldIDs is an
-     * array of field IDs (the primFieldsID field of the appropriate
-     * ObjectStreamClass) identifying which fields to get.  typecodes is an
-     * array of characters designating the primitive type of each field (e.g.,
-     * 'C' for char, 'Z' for boolean, etc.)  data is the byte buffer in which
-     * the primitive field values are written, in the order of their field IDs.
+     * array of field IDs (the primFieldIDs of the plan held by the
+     * appropriate ObjectStreamClass) identifying which fields to get.
+     * typecodes is an array of characters designating the primitive type of
+     * each field (e.g., 'C' for char, 'Z' for boolean, etc.)  data is the byte
+     * buffer in which the primitive field values are written, in the order of
+     * their field IDs.
      * 
      * For efficiency, this method does not check all of its arguments for
      * safety.  Specifically, it assumes that obj's type is compatible with the
@@ -1841,8 +2048,8 @@ public class ObjectOutputStream
     
     /*
      * Gets the value of an object field of object obj.  fieldID is the field ID
-     * identifying which field to set (obtained from the objFieldsID array field
-     * of the appropriate ObjectStreamClass).
+     * identifying which field to set (obtained from the objFieldIDs array of
+     * the plan held by the appropriate ObjectStreamClass).
      * 
      * For efficiency, this method does not check to make sure that obj's type
      * is compatible with the given field ID.
@@ -2241,6 +2448,24 @@ public class ObjectOutputStream
      */
     private int recursionDepth = 0;
 
+    /* If true, top-level objects are written as new objects and forgotten
+     * once written.  Set by enableUnsharedMode.
+     */
+    private boolean unsharedMode = false;
+
+    /* True if objects written before unshared mode was enabled may still
+     * be in the handle table; cleared by resetObjects.
+     */
+    private boolean objectsRetained = false;
+
+    /* If true, reset keeps class descriptors.  Set by
+     * enableDescriptorRetention.
+     */
+    private boolean retainDescriptors = false;
+
+    /* Cache of class descriptors already sent on the connection, or null. */
+    private ClassDescriptorCache descCache;
+
     /* If true, use JDK 1.1 Externalizable data format. */
     boolean useDeprecatedExternalizableFormat = false;
 
@@ -2296,9 +2521,11 @@ public class ObjectOutputStream
          * enough.
          */
         private void insert(Object obj, int offset) {
+            wireHandle2Object[offset] = obj;
+            if (obj == null)
+                return;         // reserved handle, never looked up
             int index = (System.identityHashCode(obj) & 0x7FFFFFFF) %
                 wireHash2Handle.length;
-            wireHandle2Object[offset] = obj;
             wireNextHandle[offset] = wireHash2Handle[index];
             wireHash2Handle[index] = offset;
         }
@@ -2358,6 +2585,25 @@ public class ObjectOutputStream
 	    nextWireOffset = 0;
         }
         
+        /**
+         * Removes all mappings except those for class descriptors, which
+         * are renumbered in order from zero.
+         */
+        public void retainDescriptors() {
+	    int n = 0;
+	    for (int i = 0; i < nextWireOffset; i++) {
+		Object obj = wireHandle2Object[i];
+		if (obj instanceof ObjectStreamClass)
+		    wireHandle2Object[n++] = obj;
+	    }
+	    Arrays.fill(wireHandle2Object, n, nextWireOffset, null);
+	    Arrays.fill(wireHash2Handle, -1);
+	    nextWireOffset = n;
+	    for (int i = 0; i < n; i++) {
+		insert(wireHandle2Object[i], i);
+	    }
+        }
+
         /**
          * Return number of entries currently in handle table.
          */
@@ -361,7 +361,9 @@ public class ObjectStreamClass implements java.io.Serializable {
 				    Field reflField = cl.getDeclaredField(
 						fields[j].getName());
 				    if (fields[j].getType() == 
-					    reflField.getType()) 
+					    reflField.getType() &&
+					!Modifier.isStatic(
+					    reflField.getModifiers()))
 				    {
 					fields[j].setField(reflField);
 				    } else {
@@ -606,11 +608,12 @@ public class ObjectStreamClass implements java.io.Serializable {
 	    for (int k = j; k < destfield.length; k++) {
 	      if (srcfield[i].getName().equals(destfield[k].getName())) {
 		  /* found match */
-		  if (srcfield[i].isPrimitive() && 
+		  if ((srcfield[i].isPrimitive() ||
+		       destfield[k].isPrimitive()) &&
 		      !srcfield[i].typeEquals(destfield[k])) {
 		      throw new InvalidClassException(cl.getName(),
 						  "The type of field " +
-						       destfield[i].getName() +
+						       destfield[k].getName() +
 						       " of class " + name +
 						       " is incompatible.");
 		  }
@@ -790,50 +793,11 @@ public class ObjectStreamClass implements java.io.Serializable {
 	    }
 	}
 	
-	/* if this descriptor is bound to a class, obtain field IDs and
-	 * associated info.
+	/* if this descriptor is bound to a class, build the plan for
+	 * getting and setting the values of its fields.
 	 */
 	if (ofClass != null) {
-	    int numPrimFields = fields.length - numObjFields;
-
-	    if (numPrimFields > 0) {
-		primFieldIDs = new long[numPrimFields];
-		primFieldTypecodes = new char[numPrimFields];
-	    }
-	    if (numObjFields > 0) {
-		objFieldIDs = new long[numObjFields];
-		objFieldTypes = new Class[numObjFields];
-	    }
-	    
-	    getFieldIDs(fields, primFieldIDs, objFieldIDs);
-	    
-	    int oi = 0, pi = 0;
-	    try {
-		for (int i = 0; i < fields.length; i++) {
-		    char tc = fields[i].getTypeCode();
-		    switch (tc) {
-			case 'L':
-			case '[':
-			    {
-				Field f = fields[i].getField();
-				objFieldTypes[oi++] = (f != null) ? 
-				    f.getType() : null;
-			    }
-			    break;
-
-			default:
-			    primFieldTypecodes[pi++] = tc;
-			    break;
-		    }
-		}
-	    } catch (ArrayIndexOutOfBoundsException e) {
-		throw new InternalError("field count mismatch for class " +
-			ofClass.getName());
-	    }
-	    if (oi != numObjFields || pi != numPrimFields) {
-		throw new InternalError("field count mismatch for class " +
-			ofClass.getName());
-	    }
+	    fieldRefl = new FieldReflector(fields, numObjFields);
 	}
     }
     
@@ -1393,19 +1357,12 @@ public class ObjectStreamClass implements java.io.Serializable {
      */
     Class[] ancestors;
 
-    /* 
-     * IDs and typecodes (e.g., 'I', 'Z') for the primitive fields of the class
-     * this descriptor represents.
-     */
-    long[] primFieldIDs;
-    char[] primFieldTypecodes;
-    
     /*
-     * IDs and class types for the object fields of the class this descriptor
-     * represents.
+     * Plan for getting and setting the values of the serializable fields of
+     * the class this descriptor represents; null if it is not bound to a
+     * class.
      */
-    long[] objFieldIDs;
-    Class[] objFieldTypes;
+    FieldReflector fieldRefl;
 
     /* Internal lock object. */
     private Object lock = new Object();
@@ -1415,6 +1372,9 @@ public class ObjectStreamClass implements java.io.Serializable {
      */
     private static native void initNative();
     
+    /* Find out if the class has a static class initializer <clinit> */
+    private static native boolean hasStaticInitializer(Class cl);
+
     /*
      * Get the field IDs associated with the given fields.  The field IDs are
      * later passed as arguments to the various ObjectInputStream and
@@ -1423,8 +1383,116 @@ public class ObjectStreamClass implements java.io.Serializable {
     private static native void getFieldIDs(ObjectStreamField[] fields,
 	    long[] primFieldIDs, long[] objFieldIDs);
 
-    /* Find out if the class has a static class initializer <clinit> */
-    private static native boolean hasStaticInitializer(Class cl);
+    /**
+     * Plan for getting and setting the values of the serializable fields of
+     * a class.  The plan is computed once per class descriptor, and thus
+     * once per class, and then reused for every instance written or read:
+     * its field IDs and types are passed as they stand to the
+     * ObjectOutputStream and ObjectInputStream natives that move the
+     * values.  A field with no local counterpart has the field ID 0, which
+     * those natives skip.
+     */
+    static final class FieldReflector {
+
+	/*
+	 * IDs and typecodes (e.g., 'I', 'Z') of the primitive fields, in
+	 * the order their values appear in the stream; null if there are no
+	 * primitive fields.
+	 */
+	final long[] primFieldIDs;
+	final char[] primFieldTypecodes;
+
+	/*
+	 * IDs and class types of the object fields; null if there are no
+	 * object fields.  The type of a field with no local counterpart is
+	 * null.
+	 */
+	final long[] objFieldIDs;
+	final Class[] objFieldTypes;
+
+	/**
+	 * Builds the plan for the given fields, primitive fields first, whose
+	 * data offsets have already been computed.
+	 */
+	FieldReflector(ObjectStreamField[] fields, int numObjFields) {
+	    int numPrimFields = fields.length - numObjFields;
+	    if (numPrimFields > 0) {
+		primFieldIDs = new long[numPrimFields];
+		primFieldTypecodes = new char[numPrimFields];
+	    } else {
+		primFieldIDs = null;
+		primFieldTypecodes = null;
+	    }
+	    if (numObjFields > 0) {
+		objFieldIDs = new long[numObjFields];
+		objFieldTypes = new Class[numObjFields];
+	    } else {
+		objFieldIDs = null;
+		objFieldTypes = null;
+	    }
+
+	    getFieldIDs(fields, primFieldIDs, objFieldIDs);
+
+	    int pi = 0, oi = 0;
+	    for (int i = 0; i < fields.length; i++) {
+		ObjectStreamField f = fields[i];
+		Field rf = f.getField();
+		boolean bound = isBindable(f, rf);
+		char tc = f.getTypeCode();
+		if (tc == 'L' || tc == '[') {
+		    if (oi >= numObjFields)
+			throw new InternalError("field count mismatch");
+		    if (!bound)
+			objFieldIDs[oi] = 0;
+		    objFieldTypes[oi] = bound ? rf.getType() : null;
+		    oi++;
+		} else {
+		    if (pi >= numPrimFields)
+			throw new InternalError("field count mismatch");
+		    if (!bound)
+			primFieldIDs[pi] = 0;
+		    primFieldTypecodes[pi] = tc;
+		    pi++;
+		}
+	    }
+	    if (oi != numObjFields || pi != numPrimFields)
+		throw new InternalError("field count mismatch");
+	}
+
+	/*
+	 * Returns true if f is bound to a local field that is not static and
+	 * that holds the kind of value f's type code calls for, so that no
+	 * field ID is ever used to access a field of another type.
+	 */
+	private static boolean isBindable(ObjectStreamField f, Field rf) {
+	    if (rf == null || Modifier.isStatic(rf.getModifiers()))
+		return false;
+	    Class type = rf.getType();
+	    switch (f.getTypeCode()) {
+	    case 'Z':
+		return type == Boolean.TYPE;
+	    case 'B':
+		return type == Byte.TYPE;
+	    case 'C':
+		return type == Character.TYPE;
+	    case 'S':
+		return type == Short.TYPE;
+	    case 'I':
+		return type == Integer.TYPE;
+	    case 'F':
+		return type == Float.TYPE;
+	    case 'J':
+		return type == Long.TYPE;
+	    case 'D':
+		return type == Double.TYPE;
+	    case 'L':
+	    case '[':
+		return !type.isPrimitive();
+	    default:
+		return false;
+	    }
+	}
+    }
 
     /** use serialVersionUID from JDK 1.1. for interoperability */
     private static final long serialVersionUID = -6120832682080437368L;
@@ -24,6 +24,14 @@ public interface ObjectStreamConstants {
      */
     final static short STREAM_VERSION = 5;
 
+    /**
+     * Version number that is written to the header of a stream whose class
+     * descriptors are written in the compact form of a
+     * <code>ClassDescriptorCache</code>.
+     * @since 1.4
+     */
+    final static short STREAM_VERSION_CACHED = (short)0x4005;
+
     /* Each item in the stream is preceded by a tag
      */
 
@@ -104,10 +112,18 @@ public interface ObjectStreamConstants {
      */
     final static byte TC_PROXYCLASSDESC =	(byte)0x7D;
 
+    /**
+     * Reset of object handles only.  Handles assigned to class descriptors
+     * are kept and renumbered in order from <code>baseWireHandle</code>;
+     * all other handles are discarded.
+     * @since 1.4
+     */
+    final static byte TC_RESETOBJECTS =	(byte)0x7E;
+
     /** 
      * Last tag value.
      */
-    final static byte TC_MAX = 		(byte)0x7D;
+    final static byte TC_MAX = 		(byte)0x7E;
 
     /**
      * First wire handle to be assigned. 
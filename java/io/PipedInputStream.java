@@ -39,7 +39,7 @@ class PipedInputStream extends InputStream {
     Thread writeSide;
 
     /**
-     * The size of the pipe's circular input buffer.
+     * The default size of the pipe's circular input buffer.
      * @since   JDK1.1
      */
     protected static final int PIPE_SIZE = 1024;
@@ -48,7 +48,7 @@ class PipedInputStream extends InputStream {
      * The circular buffer into which incoming data is placed.
      * @since   JDK1.1
      */
-    protected byte buffer[] = new byte[PIPE_SIZE];
+    protected byte buffer[];
 
     /**
      * The index of the position in the circular buffer at which the
@@ -66,6 +66,9 @@ class PipedInputStream extends InputStream {
      */
     protected int out = 0;
 
+    /* Number of threads waiting for the state of the pipe to change */
+    private int waiting = 0;
+
     /**
      * Creates a <code>PipedInputStream</code> so
      * that it is connected to the piped output
@@ -77,6 +80,27 @@ class PipedInputStream extends InputStream {
      * @exception  IOException  if an I/O error occurs.
      */
     public PipedInputStream(PipedOutputStream src) throws IOException {
+	this(src, PIPE_SIZE);
+    }
+
+    /**
+     * Creates a <code>PipedInputStream</code> so that it is connected to
+     * the piped output stream <code>src</code> and uses the specified pipe
+     * size for the pipe's buffer.  Data bytes written to <code>src</code>
+     * will then be available as input from this stream.  A larger buffer
+     * lets the writer run further ahead of the reader, so that the two
+     * threads hand off to each other less often.
+     *
+     * @param      src   the stream to connect to.
+     * @param      pipeSize the size of the pipe's buffer.
+     * @exception  IOException  if an I/O error occurs.
+     * @exception  IllegalArgumentException if <code>pipeSize &lt;= 0</code>.
+     * @since      1.4
+     */
+    public PipedInputStream(PipedOutputStream src, int pipeSize)
+	throws IOException
+    {
+	initPipe(pipeSize);
 	connect(src);
     }
 
@@ -90,6 +114,30 @@ class PipedInputStream extends InputStream {
      * @see     java.io.PipedOutputStream#connect(java.io.PipedInputStream)
      */
     public PipedInputStream() {
+	initPipe(PIPE_SIZE);
+    }
+
+    /**
+     * Creates a <code>PipedInputStream</code> so that it is not yet
+     * connected and uses the specified pipe size for the pipe's buffer.
+     * It must be connected to a <code>PipedOutputStream</code> before
+     * being used.
+     *
+     * @param      pipeSize the size of the pipe's buffer.
+     * @exception  IllegalArgumentException if <code>pipeSize &lt;= 0</code>.
+     * @see        java.io.PipedInputStream#connect(java.io.PipedOutputStream)
+     * @see        java.io.PipedOutputStream#connect(java.io.PipedInputStream)
+     * @since      1.4
+     */
+    public PipedInputStream(int pipeSize) {
+	initPipe(pipeSize);
+    }
+
+    private void initPipe(int pipeSize) {
+	if (pipeSize <= 0) {
+	    throw new IllegalArgumentException("Pipe Size <= 0");
+	}
+	buffer = new byte[pipeSize];
     }
 
     /**
@@ -128,27 +176,11 @@ class PipedInputStream extends InputStream {
      * @since     JDK1.1
      */
     protected synchronized void receive(int b) throws IOException {
-        if (!connected) {
-            throw new IOException("Pipe not connected");
-        } else if (closedByWriter || closedByReader) {
-	    throw new IOException("Pipe closed");
-	} else if (readSide != null && !readSide.isAlive()) {
-            throw new IOException("Read end dead");
-        }
+	checkStateForReceive();
 
 	writeSide = Thread.currentThread();
-	while (in == out) {
-	    if ((readSide != null) && !readSide.isAlive()) {
-		throw new IOException("Pipe broken");
-	    }
-	    /* full: kick any waiting readers */
-	    notifyAll();
-	    try {
-	        wait(1000);
-	    } catch (InterruptedException ex) {
-		throw new java.io.InterruptedIOException();
-	    }
-	}
+	if (in == out)
+	    awaitSpace();
 	if (in < 0) {
 	    in = 0;
 	    out = 0;
@@ -157,6 +189,7 @@ class PipedInputStream extends InputStream {
 	if (in >= buffer.length) {
 	    in = 0;
 	}
+	signalChange();
     }
 
     /**
@@ -170,8 +203,88 @@ class PipedInputStream extends InputStream {
      * @exception IOException If an I/O error has occurred.
      */
     synchronized void receive(byte b[], int off, int len)  throws IOException {
-	while (--len >= 0) {
-	    receive(b[off++]);
+	checkStateForReceive();
+	writeSide = Thread.currentThread();
+	while (len > 0) {
+	    if (in == out)
+		awaitSpace();
+	    /* copy as much as fits before the read position or the end of
+	     * the buffer, whichever comes first */
+	    int n;
+	    if (in < 0) {
+		in = 0;
+		out = 0;
+		n = buffer.length;
+	    } else if (in < out) {
+		n = out - in;
+	    } else {
+		n = buffer.length - in;
+	    }
+	    if (n > len) {
+		n = len;
+	    }
+	    System.arraycopy(b, off, buffer, in, n);
+	    in += n;
+	    off += n;
+	    len -= n;
+	    if (in >= buffer.length) {
+		in = 0;
+	    }
+	    signalChange();
+	}
+    }
+
+    /*
+     * Checks that the pipe is open at both ends.
+     */
+    private void checkStateForReceive() throws IOException {
+        if (!connected) {
+            throw new IOException("Pipe not connected");
+        } else if (closedByWriter || closedByReader) {
+	    throw new IOException("Pipe closed");
+	} else if (readSide != null && !readSide.isAlive()) {
+            throw new IOException("Read end dead");
+        }
+    }
+
+    /*
+     * Waits for the other end of the pipe to change its state, for at most
+     * a second so that the death of the thread at the other end is noticed
+     * even though it can no longer signal.  Must be called while holding
+     * the lock on this pipe.
+     */
+    private void awaitChange() throws IOException {
+	waiting++;
+	try {
+	    wait(1000);
+	} catch (InterruptedException ex) {
+	    throw new java.io.InterruptedIOException();
+	} finally {
+	    waiting--;
+	}
+    }
+
+    /*
+     * Wakes the threads, if any, waiting for the state of the pipe to
+     * change.  Must be called while holding the lock on this pipe.
+     */
+    private void signalChange() {
+	if (waiting > 0)
+	    notifyAll();
+    }
+
+    /*
+     * Waits until the buffer has room for at least one more byte.
+     */
+    private void awaitSpace() throws IOException {
+	while (in == out) {
+	    if (closedByReader) {
+		throw new IOException("Pipe closed");
+	    }
+	    if ((readSide != null) && !readSide.isAlive()) {
+		throw new IOException("Pipe broken");
+	    }
+	    awaitChange();
 	}
     }
 
@@ -221,14 +334,8 @@ class PipedInputStream extends InputStream {
 	    if ((writeSide != null) && (!writeSide.isAlive()) && (--trials < 0)) {
 		throw new IOException("Pipe broken");
 	    }
-            /* might be a writer waiting */
-	    notifyAll();
-	    try {
-	        wait(1000);
-	    } catch (InterruptedException ex) {
-		throw new java.io.InterruptedIOException();
-	    }
- 	}
+	    awaitChange();
+	}
 	int ret = buffer[out++] & 0xFF;
 	if (out >= buffer.length) {
 	    out = 0;
@@ -237,6 +344,7 @@ class PipedInputStream extends InputStream {
             /* now empty */
 	    in = -1;
 	}
+	signalChange();
 	return ret;
     }
 
@@ -275,9 +383,18 @@ class PipedInputStream extends InputStream {
 	}
 	b[off] = (byte) c;
 	int rlen = 1;
-	while ((in >= 0) && (--len > 0)) {
-	    b[off + rlen] = buffer[out++];
-	    rlen++;
+	len--;
+	while ((in >= 0) && (len > 0)) {
+	    /* copy up to the write position or the end of the buffer,
+	     * whichever comes first */
+	    int n = (in > out) ? in - out : buffer.length - out;
+	    if (n > len) {
+		n = len;
+	    }
+	    System.arraycopy(buffer, out, b, off + rlen, n);
+	    out += n;
+	    rlen += n;
+	    len -= n;
 	    if (out >= buffer.length) {
 		out = 0;
 	    }
@@ -286,6 +403,7 @@ class PipedInputStream extends InputStream {
 		in = -1;
 	    }
 	}
+	signalChange();
 	return rlen;
     }
 
@@ -317,7 +435,10 @@ class PipedInputStream extends InputStream {
      * @exception  IOException  if an I/O error occurs.
      */
     public void close()  throws IOException {
-	in = -1;
 	closedByReader = true;
+	synchronized (this) {
+	    in = -1;
+	    signalChange();
+	}
     }
 }
@@ -27,14 +27,14 @@ public class PipedReader extends Reader {
     Thread writeSide;
 
     /**
-     * The size of the pipe's circular input buffer.
+     * The default size of the pipe's circular input buffer.
      */
     static final int PIPE_SIZE = 1024;
 
     /**
      * The circular buffer into which incoming data is placed.
      */
-    char buffer[] = new char[PIPE_SIZE];
+    char buffer[];
 
     /**
      * The index of the position in the circular buffer at which the 
@@ -50,6 +50,9 @@ public class PipedReader extends Reader {
      */
     int out = 0;
 
+    /* Number of threads waiting for the state of the pipe to change */
+    private int waiting = 0;
+
     /**
      * Creates a <code>PipedReader</code> so
      * that it is connected to the piped writer
@@ -60,6 +63,23 @@ public class PipedReader extends Reader {
      * @exception  IOException  if an I/O error occurs.
      */
     public PipedReader(PipedWriter src) throws IOException {
+	this(src, PIPE_SIZE);
+    }
+
+    /**
+     * Creates a <code>PipedReader</code> so that it is connected to the
+     * piped writer <code>src</code> and uses the specified pipe size for
+     * the pipe's buffer.  Data written to <code>src</code> will then be
+     * available as input from this stream.
+     *
+     * @param      src   the stream to connect to.
+     * @param      pipeSize the size of the pipe's buffer.
+     * @exception  IOException  if an I/O error occurs.
+     * @exception  IllegalArgumentException if <code>pipeSize &lt;= 0</code>.
+     * @since      1.4
+     */
+    public PipedReader(PipedWriter src, int pipeSize) throws IOException {
+	initPipe(pipeSize);
 	connect(src);
     }
 
@@ -73,6 +93,29 @@ public class PipedReader extends Reader {
      * @see     java.io.PipedWriter#connect(java.io.PipedReader)
      */
     public PipedReader() {
+	initPipe(PIPE_SIZE);
+    }
+
+    /**
+     * Creates a <code>PipedReader</code> so that it is not yet connected
+     * and uses the specified pipe size for the pipe's buffer.  It must be
+     * connected to a <code>PipedWriter</code> before being used.
+     *
+     * @param      pipeSize the size of the pipe's buffer.
+     * @exception  IllegalArgumentException if <code>pipeSize &lt;= 0</code>.
+     * @see        java.io.PipedReader#connect(java.io.PipedWriter)
+     * @see        java.io.PipedWriter#connect(java.io.PipedReader)
+     * @since      1.4
+     */
+    public PipedReader(int pipeSize) {
+	initPipe(pipeSize);
+    }
+
+    private void initPipe(int pipeSize) {
+	if (pipeSize <= 0) {
+	    throw new IllegalArgumentException("Pipe size <= 0");
+	}
+	buffer = new char[pipeSize];
     }
 
     /**
@@ -108,27 +151,11 @@ public class PipedReader extends Reader {
      * available.
      */
     synchronized void receive(int c) throws IOException {
-        if (!connected) {
-            throw new IOException("Pipe not connected");
-        } else if (closedByWriter || closedByReader) {
-	    throw new IOException("Pipe closed");
-	} else if (readSide != null && !readSide.isAlive()) {
-            throw new IOException("Read end dead");
-        }
+	checkStateForReceive();
 
 	writeSide = Thread.currentThread();
-	while (in == out) {
-	    if ((readSide != null) && !readSide.isAlive()) {
-		throw new IOException("Pipe broken");
-	    }
-	    /* full: kick any waiting readers */
-	    notifyAll();	
-	    try {
-	        wait(1000);
-	    } catch (InterruptedException ex) {
-		throw new java.io.InterruptedIOException();
-	    }
-	}
+	if (in == out)
+	    awaitSpace();
 	if (in < 0) {
 	    in = 0;
 	    out = 0;
@@ -137,6 +164,7 @@ public class PipedReader extends Reader {
 	if (in >= buffer.length) {
 	    in = 0;
 	}
+	signalChange();
     }
 
     /**
@@ -144,8 +172,88 @@ public class PipedReader extends Reader {
      * block until some input is available. 
      */
     synchronized void receive(char c[], int off, int len)  throws IOException {
-	while (--len >= 0) {
-	    receive(c[off++]);
+	checkStateForReceive();
+	writeSide = Thread.currentThread();
+	while (len > 0) {
+	    if (in == out)
+		awaitSpace();
+	    /* copy as much as fits before the read position or the end of
+	     * the buffer, whichever comes first */
+	    int n;
+	    if (in < 0) {
+		in = 0;
+		out = 0;
+		n = buffer.length;
+	    } else if (in < out) {
+		n = out - in;
+	    } else {
+		n = buffer.length - in;
+	    }
+	    if (n > len) {
+		n = len;
+	    }
+	    System.arraycopy(c, off, buffer, in, n);
+	    in += n;
+	    off += n;
+	    len -= n;
+	    if (in >= buffer.length) {
+		in = 0;
+	    }
+	    signalChange();
+	}
+    }
+
+    /*
+     * Checks that the pipe is open at both ends.
+     */
+    private void checkStateForReceive() throws IOException {
+        if (!connected) {
+            throw new IOException("Pipe not connected");
+        } else if (closedByWriter || closedByReader) {
+	    throw new IOException("Pipe closed");
+	} else if (readSide != null && !readSide.isAlive()) {
+            throw new IOException("Read end dead");
+        }
+    }
+
+    /*
+     * Waits for the other end of the pipe to change its state, for at most
+     * a second so that the death of the thread at the other end is noticed
+     * even though it can no longer signal.  Must be called while holding
+     * the lock on this pipe.
+     */
+    private void awaitChange() throws IOException {
+	waiting++;
+	try {
+	    wait(1000);
+	} catch (InterruptedException ex) {
+	    throw new java.io.InterruptedIOException();
+	} finally {
+	    waiting--;
+	}
+    }
+
+    /*
+     * Wakes the threads, if any, waiting for the state of the pipe to
+     * change.  Must be called while holding the lock on this pipe.
+     */
+    private void signalChange() {
+	if (waiting > 0)
+	    notifyAll();
+    }
+
+    /*
+     * Waits until the buffer has room for at least one more character.
+     */
+    private void awaitSpace() throws IOException {
+	while (in == out) {
+	    if (closedByReader) {
+		throw new IOException("Pipe closed");
+	    }
+	    if ((readSide != null) && !readSide.isAlive()) {
+		throw new IOException("Pipe broken");
+	    }
+	    awaitChange();
 	}
     }
 
@@ -194,22 +302,17 @@ public class PipedReader extends Reader {
 	    if ((writeSide != null) && (!writeSide.isAlive()) && (--trials < 0)) {
 		throw new IOException("Pipe broken");
 	    }
-            /* might be a writer waiting */
-	    notifyAll();
-	    try {
-	        wait(1000);
-	    } catch (InterruptedException ex) {
-		throw new java.io.InterruptedIOException();
-	    }
- 	}
+	    awaitChange();
+	}
 	int ret = buffer[out++];
 	if (out >= buffer.length) {
 	    out = 0;
 	}
 	if (in == out) {
             /* now empty */
-	    in = -1;		
+	    in = -1;
 	}
+	signalChange();
 	return ret;
     }
 
@@ -254,17 +357,27 @@ public class PipedReader extends Reader {
 	}
 	cbuf[off] =  (char)c;
 	int rlen = 1;
-	while ((in >= 0) && (--len > 0)) {
-	    cbuf[off + rlen] = buffer[out++];
-	    rlen++;
+	len--;
+	while ((in >= 0) && (len > 0)) {
+	    /* copy up to the write position or the end of the buffer,
+	     * whichever comes first */
+	    int n = (in > out) ? in - out : buffer.length - out;
+	    if (n > len) {
+		n = len;
+	    }
+	    System.arraycopy(buffer, out, cbuf, off + rlen, n);
+	    out += n;
+	    rlen += n;
+	    len -= n;
 	    if (out >= buffer.length) {
 		out = 0;
 	    }
 	    if (in == out) {
                 /* now empty */
-		in = -1;	
+		in = -1;
 	    }
 	}
+	signalChange();
 	return rlen;
     }
 
@@ -297,7 +410,10 @@ public class PipedReader extends Reader {
      * @exception  IOException  if an I/O error occurs.
      */
     public void close()  throws IOException {
-	in = -1;
 	closedByReader = true;
+	synchronized (this) {
+	    in = -1;
+	    signalChange();
+	}
     }
 }
@@ -5,6 +5,9 @@
 
 package java.io;
 
+import java.nio.channels.FileChannel;
+import sun.nio.ch.FileChannelImpl;
+
 
 /**
  * Instances of this class support both reading and writing to a 
@@ -36,6 +39,8 @@ package java.io;
 
 public class RandomAccessFile implements DataOutput, DataInput {
     private FileDescriptor fd;
+    private FileChannel channel = null;
+    private boolean rw;
 
     /**
      * Creates a random access file stream to read from, and optionally 
@@ -135,6 +140,7 @@ public class RandomAccessFile implements DataOutput, DataInput {
 		security.checkWrite(name);
 	    }
 	}
+	this.rw = rw;
 	fd = new FileDescriptor();
 	open(name, rw);
     }
@@ -151,6 +157,46 @@ public class RandomAccessFile implements DataOutput, DataInput {
 	throw new IOException();
     }
 
+    /**
+     * Returns the unique {@link java.nio.channels.FileChannel FileChannel}
+     * object associated with this file.
+     *
+     * <p> The {@link java.nio.channels.FileChannel#position() position} of
+     * the returned channel will always be equal to this object's
+     * file-pointer offset as returned by the {@link #getFilePointer
+     * getFilePointer} method.  Changing this object's file-pointer offset,
+     * whether explicitly or by reading or writing bytes, will change the
+     * position of the channel, and vice versa.  Changing the file's length
+     * via this object will change the length seen via the file channel, and
+     * vice versa.  The channel is open for writing only if this file was
+     * opened in mode <code>"rw"</code>.
+     *
+     * <p> A region of the file can be mapped into memory, read-only,
+     * read/write or copy-on-write, by invoking the channel's {@link
+     * java.nio.channels.FileChannel#map map} method.  Random reads from
+     * the resulting buffer involve neither a native call nor a copy.
+     *
+     * <p> The channel's {@link
+     * java.nio.channels.FileChannel#read(java.nio.ByteBuffer, long)
+     * positional} read and write methods neither use nor change the file
+     * pointer, so several threads may read the file at once without
+     * synchronizing around <code>seek</code>.  Its {@link
+     * java.nio.channels.FileChannel#lock(long, long, boolean) lock} methods
+     * acquire shared or exclusive advisory locks on the whole file or on a
+     * byte range, for coordination with other programs.
+     *
+     * @return  the file channel associated with this file
+     *
+     * @since 1.4
+     */
+    public FileChannel getChannel() {
+	synchronized (this) {
+	    if (channel == null)
+		channel = FileChannelImpl.open(fd, true, rw, this);
+	    return channel;
+	}
+    }
+
     /**
      * Opens a file and returns the file descriptor.  The file is 
      * opened in read-write mode if writeable is true, else 
@@ -418,6 +464,9 @@ public class RandomAccessFile implements DataOutput, DataInput {
      * file cannot perform input or output operations and cannot be 
      * reopened.
      *
+     * <p> If this file has an associated channel then the channel is closed
+     * as well.
+     *
      * @exception  IOException  if an I/O error occurs.
      */
     public native void close() throws IOException;
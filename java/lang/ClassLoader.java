@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.PrintWriter;
 import java.io.File;
+import java.util.ConcurrentHashMap;
 import java.util.Hashtable;
 import java.util.Enumeration;
 import java.util.Vector;
@@ -178,6 +179,15 @@ public abstract class ClassLoader {
      */
     private HashMap packages = new HashMap();
 
+    /*
+     * If this loader is parallel capable, maps the names of the classes
+     * being loaded to the objects on which their loading is synchronized;
+     * otherwise null, and classes are loaded holding the loader itself.
+     * Entries are never removed: the map holds one lock for each class
+     * name ever requested of the loader, found or not.
+     */
+    private ConcurrentHashMap parallelLockMap;
+
     /**
      * Creates a new class loader using the specified parent class loader
      * for delegation.
@@ -267,6 +277,10 @@ public abstract class ClassLoader {
      * <code>resolve</code> flag is true, this method will then call the
      * {@link #resolveClass(Class)} method on the resulting class object.
      * <p>
+     * Unless overridden, this method synchronizes on the result of
+     * {@link #getClassLoadingLock(String)} during the entire class
+     * loading process.
+     * <p>
      * From the Java 2 SDK, v1.2, subclasses of ClassLoader are 
      * encouraged to override
      * {@link #findClass(String)}, rather than this method.<p>
@@ -276,37 +290,101 @@ public abstract class ClassLoader {
      * @return	  the resulting <code>Class</code> object
      * @exception ClassNotFoundException if the class could not be found
      */
-    protected synchronized Class loadClass(String name, boolean resolve)
+    protected Class loadClass(String name, boolean resolve)
 	throws ClassNotFoundException
     {
-	// First, check if the class has already been loaded
-	Class c = findLoadedClass(name);
-	if (c == null) {
-	    try {
-		if (parent != null) {
-		    c = parent.loadClass(name, false);
-		} else {
-		    c = findBootstrapClass0(name);
+	synchronized (getClassLoadingLock(name)) {
+	    // First, check if the class has already been loaded
+	    Class c = findLoadedClass(name);
+	    if (c == null) {
+		try {
+		    if (parent != null) {
+			c = parent.loadClass(name, false);
+		    } else {
+			c = findBootstrapClass0(name);
+		    }
+		} catch (ClassNotFoundException e) {
+		    // If still not found, then call findClass in order
+		    // to find the class.
+		    c = findClass(name);
 		}
-	    } catch (ClassNotFoundException e) {
-	        // If still not found, then call findClass in order
-	        // to find the class.
-	        c = findClass(name);
+	    }
+	    if (resolve) {
+		resolveClass(c);
+	    }
+	    return c;
+	}
+    }
+
+    /**
+     * Registers this class loader as <i>parallel capable</i>.  A parallel
+     * capable class loader loads different classes at the same time in
+     * different threads: the {@link #loadClass(String, boolean)} method
+     * synchronizes on an object particular to the name of the class being
+     * loaded, rather than on the class loader.  Other class loaders are
+     * used by one thread at a time.
+     * <p>
+     * A class loader should register only if its own methods, and those of
+     * its superclasses, are safe for use by several threads at once.  The
+     * method must be called from the constructor, before the class loader
+     * is used to load any class.  Registration cannot be undone.
+     * <p>
+     * The virtual machine still holds the class loader's own lock while it
+     * defines a class, and while it loads a class through the loader to
+     * resolve a reference.  A parallel capable class loader must therefore
+     * not be used both directly, through <code>loadClass</code>, and by the
+     * virtual machine to load the same class at the same time, as the two
+     * threads would take the two locks in opposite orders.  Each parallel
+     * capable class loader also keeps one lock object for every class name
+     * it has been asked to load, for as long as the loader exists.
+     *
+     * @see #getClassLoadingLock(String)
+     * @since 1.4
+     */
+    protected final void registerAsParallelCapable() {
+	synchronized (this) {
+	    if (parallelLockMap == null) {
+		parallelLockMap = new ConcurrentHashMap();
 	    }
 	}
-	if (resolve) {
-	    resolveClass(c);
+    }
+
+    /**
+     * Returns the object on which the loading of a class is synchronized.
+     * If this class loader is parallel capable, this is an object
+     * associated with the given class name, the same one for every thread;
+     * otherwise it is this class loader.  Subclasses that override
+     * {@link #loadClass(String, boolean)} should synchronize on it.
+     *
+     * @param  className the name of the class to be loaded
+     * @return the lock for loading the class
+     * @see    #registerAsParallelCapable()
+     * @since  1.4
+     */
+    protected Object getClassLoadingLock(String className) {
+	ConcurrentHashMap map = parallelLockMap;
+	if (map == null) {
+	    return this;
 	}
-	return c;
+	Object lock = new Object();
+	Object existing = map.putIfAbsent(className, lock);
+	return (existing != null) ? existing : lock;
     }
 
     /*
      * This method is called by the virtual machine to load
      * a class.
      */
-    private synchronized Class loadClassInternal(String name)
+    private Class loadClassInternal(String name)
 	throws ClassNotFoundException {
 
+	// A loader that isn't parallel capable is locked while the VM
+	// loads through it, as it always has been
+	if (parallelLockMap == null) {
+	    synchronized (this) {
+		return loadClass(name);
+	    }
+	}
 	return loadClass(name);
     }
 
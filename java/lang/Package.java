@@ -153,7 +153,9 @@ public class Package {
      * @return true if this package is sealed with respect to url
      */
     public boolean isSealed(URL url) {
-	return url.equals(sealBase);
+	// Compare lexically; resolving the host names could block
+	return sealBase != null &&
+	    url.getIdentityKey().equals(sealBase.getIdentityKey());
     }
 
     /**
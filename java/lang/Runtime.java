@@ -7,6 +7,8 @@ package java.lang;
 
 import java.io.*;
 import java.util.StringTokenizer;
+import java.security.AccessController;
+import sun.security.action.GetIntegerAction;
 
 /**
  * Every Java application has a single instance of class 
@@ -546,6 +548,28 @@ public class Runtime {
 	return execInternal(cmdarray, envp, path);
     }
 
+    /**
+     * Returns the number of processors available to the Java virtual
+     * machine.  This value may change during a particular invocation of
+     * the virtual machine, so applications that are sensitive to the
+     * number of available processors should occasionally poll this
+     * property.
+     * <p>
+     * The count is taken from the <code>sun.availableProcessors</code>
+     * system property, which the launcher or the user may set; if it is
+     * not set, or is not a positive number, one processor is assumed.
+     *
+     * @return  the maximum number of processors available to the virtual
+     *          machine; never smaller than one.
+     * @since   1.4
+     */
+    public int availableProcessors() {
+	Integer n = (Integer) AccessController.doPrivileged(
+			new GetIntegerAction("sun.availableProcessors", 1));
+	int count = n.intValue();
+	return (count < 1) ? 1 : count;
+    }
+
     /**
      * Returns the amount of free memory in the system. Calling the 
      * <code>gc</code> method may result in increasing the value returned 
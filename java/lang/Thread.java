@@ -9,6 +9,7 @@ import java.security.AccessController;
 import java.security.AccessControlContext;
 import java.util.Map;
 import java.util.Collections;
+import sun.nio.ch.Interruptible;
 
 /**
  * A <i>thread</i> is a thread of execution in a program. The Java 
@@ -136,6 +137,13 @@ class Thread implements Runnable {
     /* The inherited AccessControlContext of this thread */
     private AccessControlContext inheritedAccessControlContext;
 
+    /* The object in which this thread is blocked in an interruptible I/O
+     * operation, if any.  The blocker's interrupt method should be invoked
+     * after setting this thread's interrupt status.
+     */
+    private volatile Interruptible blocker;
+    private Object blockerLock = new Object();
+
     /* For autonumbering anonymous threads. */
     private static int threadInitNumber;
     private static synchronized int nextThreadNum() {
@@ -662,9 +670,25 @@ class Thread implements Runnable {
 	//    exactly when it's done WRT probes via the interrupted() method.
     public void interrupt() {
 	checkAccess();
+	synchronized (blockerLock) {
+	    Interruptible b = blocker;
+	    if (b != null) {
+		interrupt0();		// Just to set the interrupt flag
+		b.interrupt();
+		return;
+	    }
+	}
 	interrupt0();
     }
 
+    /* Set the blocker field; invoked via reflection from java.nio code
+     */
+    private void blockedOn(Interruptible b) {
+	synchronized (blockerLock) {
+	    blocker = b;
+	}
+    }
+
     /**
      * Tests whether the current thread has been interrupted.  The
      * <i>interrupted status</i> of the thread is cleared by this method.  In
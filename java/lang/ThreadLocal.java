@@ -5,6 +5,7 @@
 
 package java.lang;
 import java.lang.ref.*;
+import java.util.AtomicInteger;
 
 /**
  * This class provides ThreadLocal variables.  These variables differ from
@@ -38,9 +39,10 @@ public class ThreadLocal {
     private final int threadLocalHashCode = nextHashCode();
 
     /**
-     * The next hash code to be given out. Accessed only by like-named method.
+     * The next hash code to be given out. Updated atomically, starting at
+     * zero.
      */
-    private static int nextHashCode = 0;
+    private static final AtomicInteger nextHashCode = new AtomicInteger();
 
     /**
      * The difference between successively generated hash codes - turns
@@ -50,16 +52,11 @@ public class ThreadLocal {
     private static final int HASH_INCREMENT = 0x61c88647;
 
     /**
-     * Compute the next hash code. The static synchronization used here
-     * should not be a performance bottleneck. When ThreadLocals are
-     * generated in different threads at a fast enough rate to regularly
-     * contend on this lock, memory contention is by far a more serious
-     * problem than lock contention.
+     * Returns the next hash code.  ThreadLocals generated in different
+     * threads at a fast rate no longer serialize on a class-wide lock.
      */
-    private static synchronized int nextHashCode() {
-        int h = nextHashCode;
-        nextHashCode = h + HASH_INCREMENT;
-        return h;
+    private static int nextHashCode() {
+        return nextHashCode.getAndAdd(HASH_INCREMENT);
     }
 
     /**
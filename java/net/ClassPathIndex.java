@@ -0,0 +1,288 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.net;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import sun.misc.Resource;
+import sun.misc.URLClassPath;
+
+/**
+ * An index from the directories ("packages") of a <code>URLClassLoader</code>
+ * search path to the entries of the path that contain them, so that a
+ * resource is looked for only in the jar files that can hold it rather than
+ * in every entry in turn.  The index covers search paths made of local jar
+ * files and directories.  Jar files are indexed by the
+ * <code>META-INF/INDEX.LIST</code> of the first jar file on the path, if it
+ * lists them, or else by reading their directories when the index is built;
+ * directories cannot be indexed and are searched for every name.
+ */
+final class ClassPathIndex {
+
+    private static final String INDEX_NAME = "META-INF/INDEX.LIST";
+    private static final int[] NONE = new int[0];
+
+    // The search path; addURL only ever appends to it
+    private final URL[] urls;
+    private final URLStreamHandlerFactory factory;
+
+    // Package name -> ascending int[] of the jar entries that contain it
+    private final HashMap packages;
+
+    // Ascending positions of the directory entries
+    private final int[] directories;
+
+    // One-entry search paths through which the entries are read, created
+    // as they are first needed
+    private final URLClassPath[] loaders;
+
+    private ClassPathIndex(URL[] urls, URLStreamHandlerFactory factory,
+			   HashMap packages, int[] directories,
+			   ClassPathIndex previous)
+    {
+	this.urls = urls;
+	this.factory = factory;
+	this.packages = packages;
+	this.directories = directories;
+	this.loaders = new URLClassPath[urls.length];
+	if (previous != null) {
+	    System.arraycopy(previous.loaders, 0, loaders, 0,
+			     Math.min(previous.loaders.length, loaders.length));
+	}
+    }
+
+    /**
+     * Tells whether every entry of the search path is a jar file, whose
+     * contents are not expected to change while it is in use.
+     */
+    static boolean isJarsOnly(URL[] urls) {
+	for (int i = 0; i < urls.length; i++) {
+	    if (urls[i].getFile().endsWith("/"))
+		return false;
+	}
+	return true;
+    }
+
+    /**
+     * Builds the index of the given search path, reusing the loaders of a
+     * previous index of a prefix of the path.  Returns null if the path
+     * cannot be indexed: if it has an entry that is not local, or a jar
+     * file that cannot be read or that extends the path with a
+     * <code>Class-Path</code> manifest attribute.
+     */
+    static ClassPathIndex build(URL[] urls, URLStreamHandlerFactory factory,
+				ClassPathIndex previous)
+    {
+	for (int i = 0; i < urls.length; i++) {
+	    if (!"file".equals(urls[i].getProtocol()))
+		return null;
+	}
+	HashMap packages = new HashMap();
+	int[] dirs = new int[urls.length];
+	int ndirs = 0;
+	HashMap listed = null;
+	try {
+	    for (int i = 0; i < urls.length; i++) {
+		String file = urls[i].getFile();
+		if (file.endsWith("/")) {
+		    dirs[ndirs++] = i;
+		    continue;
+		}
+		String[] names = null;
+		if (listed != null)
+		    names = (String[])listed.remove(jarName(file));
+		if (names == null) {
+		    JarFile jar = new JarFile(toFile(file));
+		    try {
+			if (hasClassPath(jar))
+			    return null;
+			if (i == 0)
+			    listed = readIndexList(jar);
+			names = listPackages(jar);
+		    } finally {
+			jar.close();
+		    }
+		}
+		for (int j = 0; j < names.length; j++)
+		    add(packages, names[j], i);
+	    }
+	} catch (IOException e) {
+	    return null;
+	}
+	int[] directories = new int[ndirs];
+	System.arraycopy(dirs, 0, directories, 0, ndirs);
+	return new ClassPathIndex(urls, factory, packages, directories,
+				  previous);
+    }
+
+    private static File toFile(String file) {
+	return new File(file.replace('/', File.separatorChar));
+    }
+
+    private static String jarName(String file) {
+	return file.substring(file.lastIndexOf('/') + 1);
+    }
+
+    private static boolean hasClassPath(JarFile jar) throws IOException {
+	Manifest man = jar.getManifest();
+	return man != null &&
+	    man.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) != null;
+    }
+
+    /*
+     * Returns the directories of a jar file's entries, and the names of
+     * the entries at its top level, under which they are looked up.
+     */
+    private static String[] listPackages(JarFile jar) {
+	HashMap seen = new HashMap();
+	Enumeration e = jar.entries();
+	while (e.hasMoreElements()) {
+	    String name = ((ZipEntry)e.nextElement()).getName();
+	    int i = name.lastIndexOf('/');
+	    if (i == -1)
+		seen.put(name, name);
+	    else if (i > 0)
+		seen.put(name.substring(0, i), name);
+	}
+	return (String[])seen.keySet().toArray(new String[seen.size()]);
+    }
+
+    /*
+     * Reads the INDEX.LIST of a jar file, if it has one, into a map from
+     * jar file names to the packages they are listed with.  The file
+     * holds a version line, then one section per jar file, each a line
+     * with the file name followed by a line per package, with sections
+     * separated by blank lines.
+     */
+    private static HashMap readIndexList(JarFile jar) throws IOException {
+	ZipEntry entry = jar.getEntry(INDEX_NAME);
+	if (entry == null)
+	    return null;
+	HashMap listed = new HashMap();
+	InputStream in = jar.getInputStream(entry);
+	try {
+	    BufferedReader r =
+		new BufferedReader(new InputStreamReader(in, "UTF8"));
+	    String line = r.readLine();
+	    if (line == null || !line.startsWith("JarIndex-Version:"))
+		return null;
+	    String current = null;
+	    ArrayList names = new ArrayList();
+	    while ((line = r.readLine()) != null) {
+		line = line.trim();
+		if (line.length() == 0) {
+		    if (current != null)
+			listed.put(current, names.toArray(new String[names.size()]));
+		    current = null;
+		    names.clear();
+		} else if (current == null) {
+		    current = line;
+		} else {
+		    names.add(line);
+		}
+	    }
+	    if (current != null)
+		listed.put(current, names.toArray(new String[names.size()]));
+	} finally {
+	    in.close();
+	}
+	return listed;
+    }
+
+    private static void add(HashMap packages, String name, int pos) {
+	int[] old = (int[])packages.get(name);
+	if (old == null) {
+	    packages.put(name, new int[] { pos });
+	} else if (old[old.length - 1] != pos) {
+	    int[] a = new int[old.length + 1];
+	    System.arraycopy(old, 0, a, 0, old.length);
+	    a[old.length] = pos;
+	    packages.put(name, a);
+	}
+    }
+
+    /**
+     * Finds a resource in the first entry of the search path that has it.
+     * Only the entries indexed under the resource's directory, or under
+     * its top-level directory as an <code>INDEX.LIST</code> may abbreviate
+     * it, and the directory entries are searched, in path order.
+     *
+     * @param name the resource name
+     * @param check whether to perform a security check
+     * @return the resource, or <code>null</code> if it was not found
+     */
+    Resource getResource(String name, boolean check) {
+	int i = name.lastIndexOf('/');
+	int[] jars;
+	if (i == -1) {
+	    jars = lookup(name);
+	} else {
+	    int j = name.indexOf('/');
+	    jars = lookup(name.substring(0, i));
+	    if (j < i)
+		jars = merge(jars, lookup(name.substring(0, j)));
+	}
+	int[] entries = merge(jars, directories);
+	for (int k = 0; k < entries.length; k++) {
+	    Resource res = getLoader(entries[k]).getResource(name, check);
+	    if (res != null)
+		return res;
+	}
+	return null;
+    }
+
+    private int[] lookup(String name) {
+	int[] a = (int[])packages.get(name);
+	return (a != null) ? a : NONE;
+    }
+
+    /*
+     * Merges two ascending arrays of positions, dropping duplicates.
+     */
+    private static int[] merge(int[] a, int[] b) {
+	if (b.length == 0)
+	    return a;
+	if (a.length == 0)
+	    return b;
+	int[] m = new int[a.length + b.length];
+	int i = 0, j = 0, n = 0;
+	while (i < a.length || j < b.length) {
+	    int v;
+	    if (j == b.length || (i < a.length && a[i] <= b[j]))
+		v = a[i++];
+	    else
+		v = b[j++];
+	    if (n == 0 || m[n - 1] != v)
+		m[n++] = v;
+	}
+	if (n == m.length)
+	    return m;
+	int[] r = new int[n];
+	System.arraycopy(m, 0, r, 0, n);
+	return r;
+    }
+
+    private synchronized URLClassPath getLoader(int pos) {
+	URLClassPath loader = loaders[pos];
+	if (loader == null) {
+	    URL[] path = new URL[] { urls[pos] };
+	    loader = (factory != null) ? new URLClassPath(path, factory)
+				       : new URLClassPath(path);
+	    loaders[pos] = loader;
+	}
+	return loader;
+    }
+}
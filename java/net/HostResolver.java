@@ -0,0 +1,46 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.net;
+
+/**
+ * This interface defines a name service that <code>InetAddress</code>
+ * uses to look up the addresses of host names in place of the
+ * platform's resolver.  It is installed with
+ * <code>InetAddress.setHostResolver</code>, for instance to resolve
+ * names from a local table, or to drive a program against a stub name
+ * service.
+ * <p>
+ * A resolver may be called from several threads at once, but never
+ * more than once at a time for the same host name, and not at all for
+ * names whose addresses are already cached.
+ *
+ * @version 1.1, 10/15/26
+ * @see     java.net.InetAddress#setHostResolver(java.net.HostResolver)
+ * @since   1.4
+ */
+public
+interface HostResolver {
+    /**
+     * Looks up all the IP addresses of the named host.
+     * <p>
+     * The first element of <code>timeToLive</code> is initially
+     * <code>-1</code>.  A resolver that knows how long its answer
+     * remains valid, such as the time-to-live of a DNS record, may store
+     * that number of seconds there, either before returning or before
+     * throwing <code>UnknownHostException</code>.  The answer is then
+     * cached no longer than that, nor longer than the cache policy
+     * allows; <code>0</code> prevents it from being cached at all.
+     *
+     * @param      host         the name of the host.
+     * @param      timeToLive   a one-element array in which the resolver
+     *                          may return the time-to-live of its answer.
+     * @return     the raw IP addresses of the host, in network byte
+     *             order, one array per address.
+     * @exception  UnknownHostException  if the host has no addresses.
+     */
+    byte[][] lookupAllHostAddr(String host, int[] timeToLive)
+	throws UnknownHostException;
+}
@@ -5,9 +5,18 @@
 
 package java.net;
 
-import java.util.HashMap;
+import java.util.Callable;
+import java.util.ConcurrentHashMap;
+import java.util.ExecutionException;
+import java.util.Future;
+import java.util.FutureTask;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Random;
+import java.util.ThreadPool;
+import java.util.TimeoutException;
 import java.security.AccessController;
+import java.security.PrivilegedAction;
 import sun.security.action.*;
 import sun.net.InetAddressCachePolicy;
 
@@ -261,70 +270,126 @@ class InetAddress implements java.io.Serializable {
     }
 
     /*
-     * Cached addresses - our own litle nis, not!
+     * Cached addresses - our own litle nis, not!  Each entry carries its
+     * own expiration time, and the table is concurrent, so that lookups
+     * of cached names never wait for one another or for the name service.
+     * The cache is not bounded, so that a FOREVER policy really caches
+     * forever, but entries that have expired are swept out from time to
+     * time as new ones are added.
      */
-    private static HashMap	    addressCache = new HashMap();
+    private static ConcurrentHashMap addressCache = new ConcurrentHashMap();
     private static InetAddress	    unknownAddress;
     private static InetAddress      localHost;
     private static InetAddress[]    unknown_array; // put THIS in cache
     static InetAddress	    anyLocalAddress;
     static InetAddressImpl  impl;
 
-    private static HashMap          lookupTable = new HashMap();
+    /*
+     * The name service installed by setHostResolver, or null to use impl.
+     */
+    private static HostResolver resolver;
+
+    /*
+     * Lookups in progress, by lower-cased host name.  A thread that needs
+     * a name that is already being looked up waits for that lookup rather
+     * than starting its own.
+     */
+    private static ConcurrentHashMap lookupTable = new ConcurrentHashMap();
+
+    /*
+     * How many seconds failed lookups are cached, or FOREVER.
+     */
+    private static int negativeCachePolicy;
+
+    /*
+     * Number of entries added to the cache, used to pace the sweeps.
+     * Updates may be lost under contention, which only shifts a sweep.
+     */
+    private static int cacheAdditions;
+    private static final int SWEEP_INTERVAL = 256;
+
+    /*
+     * Threads that run asynchronous lookups; the pool starts them on
+     * first use.
+     */
+    private static final int RESOLVER_THREADS = 4;
+    private static final ThreadPool resolverPool = makeResolverPool();
 
     static final class CacheEntry {
 
-	CacheEntry(String hostname, Object address, long expiration) {
-	    this.hostname = hostname;
+	CacheEntry(Object address, long expiration) {
 	    this.address = address;
 	    this.expiration = expiration;
 	}
 
-	String hostname;
-	Object address;
-	long expiration;
+	/* InetAddress[] or unknown_array */
+	final Object address;
+
+	/* time in milliseconds after which the entry is stale, or -1 */
+	final long expiration;
+
+	boolean isExpired(long now) {
+	    return expiration != -1 && now >= expiration;
+	}
     }
 
-    private static void cacheAddress(String hostname, Object address) {
+    /*
+     * Caches the result of a lookup, for as long as the cache policy for
+     * its kind of result allows and, if the resolver gave one, no longer
+     * than the result's own time-to-live in seconds.
+     */
+    private static void cacheAddress(String hostname, Object address,
+				     int recordTTL) {
+	int ttl = (address == unknown_array) ? negativeCachePolicy
+					     : InetAddressCachePolicy.get();
+	if (recordTTL >= 0 &&
+	    (ttl == InetAddressCachePolicy.FOREVER || recordTTL < ttl)) {
+	    ttl = recordTTL;
+	}
 	// if the cache policy is to cache nothing, just return
-	int policy = InetAddressCachePolicy.get();
-	if (policy == 0) {
+	if (ttl == 0) {
 	    return;
 	}
-	long expiration = -1;
-	if (policy != InetAddressCachePolicy.FOREVER) {
-	    expiration = System.currentTimeMillis() + (policy * 1000);
+	long expiration = -1;	// never expires
+	if (ttl != InetAddressCachePolicy.FOREVER) {
+	    expiration = System.currentTimeMillis() + ttl * 1000L;
 	}
-	cacheAddress(hostname, address, expiration);
+	putCacheEntry(hostname, new CacheEntry(address, expiration));
     }
 
-    private static void cacheAddress(String hostname, Object address, long expiration) {
-        hostname = hostname.toLowerCase();
-	synchronized (addressCache) {
-	    CacheEntry entry = (CacheEntry)addressCache.get(hostname);
-	    if (entry == null) {
-		entry = new CacheEntry(hostname, address, expiration);
-		addressCache.put(hostname, entry);
-	    } else {
-		entry.address = address;
-		entry.expiration = expiration;
+    private static void putCacheEntry(String hostname, CacheEntry entry) {
+	addressCache.put(hostname.toLowerCase(), entry);
+	if (++cacheAdditions % SWEEP_INTERVAL == 0) {
+	    sweepCache();
+	}
+    }
+
+    /*
+     * Drops the entries that have expired.  An entry replaced meanwhile
+     * is left alone.
+     */
+    private static void sweepCache() {
+	long now = System.currentTimeMillis();
+	Iterator i = addressCache.entrySet().iterator();
+	while (i.hasNext()) {
+	    Map.Entry e = (Map.Entry)i.next();
+	    if (((CacheEntry)e.getValue()).isExpired(now)) {
+		addressCache.remove(e.getKey(), e.getValue());
 	    }
 	}
     }
 
     private static Object getCachedAddress(String hostname) {
         hostname = hostname.toLowerCase();
-	if (InetAddressCachePolicy.get() == 0) {
+	CacheEntry entry = (CacheEntry)addressCache.get(hostname);
+	if (entry == null) {
 	    return null;
 	}
-	synchronized (addressCache) {
-	    CacheEntry entry = (CacheEntry)addressCache.get(hostname);
-	    if (entry != null && entry.expiration < System.currentTimeMillis() &&
-		entry.expiration >= 0) {
-		entry = null;
-	    }
-	    return entry != null ? entry.address : null;
+	if (entry.isExpired(System.currentTimeMillis())) {
+	    addressCache.remove(hostname, entry);
+	    return null;
 	}
+	return entry.address;
     }
 
     /*
@@ -344,6 +409,17 @@ class InetAddress implements java.io.Serializable {
 	String prefix = (String)AccessController.doPrivileged(
 		      new GetPropertyAction("impl.prefix", ""));
 
+	/*
+	 * Failed lookups are cached for ten seconds by default, so that
+	 * a name that comes into existence is soon found.
+	 */
+	Integer negativeTTL = (Integer)AccessController.doPrivileged(
+		      new GetIntegerAction("sun.net.inetaddr.negative.ttl", 10));
+	negativeCachePolicy = negativeTTL.intValue();
+	if (negativeCachePolicy < 0) {
+	    negativeCachePolicy = InetAddressCachePolicy.FOREVER;
+	}
+
 	try {
 	    impl = null;
 	    impl = (InetAddressImpl)(Class.forName("java.net." + prefix +
@@ -419,7 +495,7 @@ class InetAddress implements java.io.Serializable {
 	unknown_array = new InetAddress[1];
 	unknown_array[0] = new InetAddress(unknownByAddr,
 					   unknownAddress.getAddress());
-	cacheAddress(unknownByAddr, unknown_array, InetAddressCachePolicy.FOREVER);
+	putCacheEntry(unknownByAddr, new CacheEntry(unknown_array, -1));
     }
 
     /**
@@ -436,59 +512,63 @@ class InetAddress implements java.io.Serializable {
      */
     public static InetAddress getByName(String host)
 	throws UnknownHostException {
-	Object obj = null;
 	if (host == null || host.length() == 0) {
 	    return loopbackHost;
 	}
-        if (!Character.isDigit(host.charAt(0))) {
-	    return getAllByName0(host)[0];
-	} else {
-	    /* The string (probably) represents a numerical IP address.
-	     * Parse it into an int, don't do uneeded reverese lookup,
-	     * leave hostName null, don't cache.  If it isn't an IP address,
-	     * (i.e., not "%d.%d.%d.%d") or if any element > 0xFF,
-	     * we treat it as a hostname, and lookup that way.
-	     * This seems to be 100% compliant to the RFC1123 spec:
-	     * a partial hostname like 3com.domain4 is technically valid.
-	     */
-
-	    int IP = 0x00;
-	    int hitDots = 0;
-	    char[] data = host.toCharArray();
+        if (Character.isDigit(host.charAt(0))) {
+	    InetAddress in = getByNumericAddress(host);
+	    if (in != null) {
+		return in;
+	    }
+	}
+	return getAllByName0(host)[0];
+    }
 
-	    for(int i = 0; i < data.length; i++) {
-		char c = data[i];
+    /*
+     * If the string represents a numerical IP address, parses it into an
+     * int, doesn't do uneeded reverse lookup, leaves hostName null and
+     * doesn't cache.  If it isn't an IP address, (i.e., not
+     * "%d.%d.%d.%d") or if any element > 0xFF, returns null, and the
+     * caller treats it as a hostname and looks it up that way.  This
+     * seems to be 100% compliant to the RFC1123 spec: a partial hostname
+     * like 3com.domain4 is technically valid.
+     */
+    private static InetAddress getByNumericAddress(String host) {
+	int IP = 0x00;
+	int hitDots = 0;
+	char[] data = host.toCharArray();
+
+	for(int i = 0; i < data.length; i++) {
+	    char c = data[i];
+	    if (c < 48 || c > 57) { // !digit
+		return null;
+	    }
+	    int b = 0x00;
+	    while(c != '.') {
 		if (c < 48 || c > 57) { // !digit
-		    return getAllByName0(host)[0];
+		    return null;
 		}
-		int b = 0x00;
-		while(c != '.') {
-		    if (c < 48 || c > 57) { // !digit
-			return getAllByName0(host)[0];
-		    }
-		    b = b*10 + c - '0';
+		b = b*10 + c - '0';
 
-		    if (++i >= data.length)
-			break;
-		    c = data[i];
-		}
-		if(b > 0xFF) { /* bogus - bigger than a byte */
-		    return getAllByName0(host)[0];
-		}
-		IP = (IP << 8) + b;
-		hitDots++;
+		if (++i >= data.length)
+		    break;
+		c = data[i];
 	    }
-
-	    if(hitDots != 4 || host.endsWith(".")) {
-		return getAllByName0(host)[0];
+	    if(b > 0xFF) { /* bogus - bigger than a byte */
+		return null;
 	    }
+	    IP = (IP << 8) + b;
+	    hitDots++;
+	}
 
-	    InetAddress in = new InetAddress();
-	    in.address = IP;
-	    in.hostName = null;
-	    return in;
+	if(hitDots != 4 || host.endsWith(".")) {
+	    return null;
 	}
 
+	InetAddress in = new InetAddress();
+	in.address = IP;
+	in.hostName = null;
+	return in;
     }
 
     /**
@@ -529,6 +609,112 @@ class InetAddress implements java.io.Serializable {
 	}
     }
 
+    /**
+     * Starts to determine all the IP addresses of a host, given the
+     * host's name, and returns without waiting for the name service.
+     * The <code>get</code> method of the returned <code>Future</code>
+     * yields the same <code>InetAddress</code> array as
+     * <code>getAllByName</code>, or throws an
+     * <code>ExecutionException</code> whose cause is the
+     * <code>UnknownHostException</code> that <code>getAllByName</code>
+     * would have thrown.
+     * <p>
+     * Numerical IP addresses and cached host names are resolved at once.
+     * Other names are looked up by a small set of daemon threads;
+     * concurrent requests for the same name, whether made with this
+     * method or with <code>getAllByName</code>, share a single lookup.
+     * The returned <code>Future</code> cannot be cancelled.
+     *
+     * <p>If there is a security manager and <code>host</code> is not 
+     * null and <code>host.length() </code> is not equal to zero, the
+     * security manager's
+     * <code>checkConnect</code> method is called, by the calling thread,
+     * with the hostname and <code>-1</code> 
+     * as its arguments to see if the operation is allowed.
+     *
+     * @param      host   the name of the host.
+     * @return     a <code>Future</code> for the array of all the IP
+     *             addresses of the host.
+     * 
+     * @exception  SecurityException  if a security manager exists and its  
+     *               <code>checkConnect</code> method doesn't allow the operation.
+     * 
+     * @see #getAllByName(java.lang.String)
+     * @see SecurityManager#checkConnect
+     * @since 1.4
+     */
+    public static Future getAllByNameAsync(String host) {
+	if (host == null || host.length() == 0) {
+	    return new Resolution(host, unknown_array, null);
+	}
+	if (Character.isDigit(host.charAt(0))) {
+	    InetAddress in = getByNumericAddress(host);
+	    if (in != null) {
+		InetAddress[] ret = new InetAddress[1];
+		ret[0] = in;
+		return new Resolution(host, ret, null);
+	    }
+	}
+
+	SecurityManager security = System.getSecurityManager();
+	if (security != null) {
+	    security.checkConnect(host, -1);
+	}
+
+	Object obj = getCachedAddress(host);
+	if (obj != null) {
+	    return new Resolution(host, obj, null);
+	}
+
+	String key = host.toLowerCase();
+	Lookup lookup = new Lookup(host, key);
+	Lookup pending = (Lookup)lookupTable.putIfAbsent(key, lookup);
+	if (pending == null) {
+	    // The pool may have to start a thread in the system group
+	    final Lookup task = lookup;
+	    AccessController.doPrivileged(new PrivilegedAction() {
+		public Object run() {
+		    resolverPool.execute(task);
+		    return null;
+		}
+	    });
+	    pending = lookup;
+	}
+	return new Resolution(host, null, pending);
+    }
+
+    /**
+     * Sets the name service used to look up the addresses of host names,
+     * in place of the platform's resolver.  The resolver can be set only
+     * once.  Addresses that are already cached continue to be used until
+     * they expire.
+     * 
+     * <p>If there is a security manager, this method first calls
+     * the security manager's <code>checkSetFactory</code> method 
+     * to ensure the operation is allowed. 
+     * This could result in a SecurityException.
+     *
+     * @param      r   the name service to use.
+     * @exception  SocketException  if the resolver is already set.
+     * @exception  SecurityException  if a security manager exists and its  
+     *             <code>checkSetFactory</code> method doesn't allow the operation.
+     * @see        java.net.HostResolver
+     * @see        SecurityManager#checkSetFactory
+     * @since      1.4
+     */
+    public static synchronized void setHostResolver(HostResolver r)
+	throws SocketException
+    {
+	if (resolver != null) {
+	    throw new SocketException("resolver already set");
+	}
+	SecurityManager security = System.getSecurityManager();
+	if (security != null) {
+	    security.checkSetFactory();
+	}
+	resolver = r;
+    }
+
     private static InetAddress[] getAllByName0 (String host)
 	throws UnknownHostException
     {
@@ -541,9 +727,8 @@ class InetAddress implements java.io.Serializable {
     static InetAddress[] getAllByName0 (String host, boolean check)
 	throws UnknownHostException  {
 	/* If it gets here it is presumed to be a hostname */
-	/* Cache.get can return: null, unknownAddress, or InetAddress[] */
+	/* The cache can return: null, unknown_array, or InetAddress[] */
         Object obj = null;
-	Object objcopy = null;
 
 	/* make sure the connection to the host is allowed, before we
 	 * give out a hostname
@@ -566,118 +751,176 @@ class InetAddress implements java.io.Serializable {
             throw new UnknownHostException(host);
 
 	/* Make a copy of the InetAddress array */
-	try {
-	    objcopy = ((InetAddress [])obj).clone();
-	    // the following line is a hack, to ensure that the code
-	    // can compile for both the broken compiler and the fixed one.
-	    if (objcopy == null)
-		throw new CloneNotSupportedException();
-	} catch (CloneNotSupportedException cnse) {
-	    cnse.printStackTrace();
+	return (InetAddress[])((InetAddress[])obj).clone();
+    }
+
+    /*
+     * Looks up a host that isn't cached, in the calling thread, unless
+     * another thread is already looking it up, in which case it waits
+     * for that lookup to finish and uses its result.
+     */
+    private static Object getAddressFromNameService(String host)
+	throws UnknownHostException
+    {
+	String key = host.toLowerCase();
+	Lookup lookup = new Lookup(host, key);
+	Lookup pending = (Lookup)lookupTable.putIfAbsent(key, lookup);
+	if (pending == null) {
+	    lookup.run();
+	    pending = lookup;
 	}
 
-	return (InetAddress [])objcopy;
+	// Wait for the lookup even if interrupted, as we always have, but
+	// leave the interrupt pending for the caller to see.
+	boolean interrupted = false;
+	try {
+	    for (;;) {
+		try {
+		    return pending.get();
+		} catch (InterruptedException e) {
+		    interrupted = true;
+		} catch (ExecutionException e) {
+		    Throwable cause = e.getCause();
+		    if (cause instanceof RuntimeException)
+			throw (RuntimeException)cause;
+		    if (cause instanceof Error)
+			throw (Error)cause;
+		    throw new UnknownHostException(host);
+		}
+	    }
+	} finally {
+	    if (interrupted) {
+		Thread.currentThread().interrupt();
+	    }
+	}
     }
 
-    private static Object getAddressFromNameService(String host) {
-	Object obj = null;
-
-	// Check whether the host is in the lookupTable.
-	// 1) If the host isn't in the lookupTable when
-	//    checkLookupTable() is called, checkLookupTable()
-	//    would add the host in the lookupTable and
-	//    return null. So we will do the lookup.
-	// 2) If the host is in the lookupTable when
-	//    checkLookupTable() is called, the current thread
-	//    would be blocked until the host is removed
-	//    from the lookupTable. Then this thread
-	//    should try to look up the addressCache.
-	//     i) if it found the address in the
-	//        addressCache, checkLookupTable()  would
-	//        return the address.
-	//     ii) if it didn't find the address in the
-	//         addressCache for any reason,
-	//         it should add the host in the
-	//         lookupTable and return null so the
-	//         following code would do  a lookup itself.
-	if ((obj = checkLookupTable(host)) == null) {
-	    // This is the first thread which looks up the address 
-	    // this host or the cache entry for this host has been
-	    // expired so this thread should do the lookup.
-	    try {
-		/*
-		 * Do not put the call to lookup() inside the
-		 * constructor.  if you do you will still be
-		 * allocating space when the lookup fails.
-		 */
-		byte[][] byte_array;
+    /*
+     * Asks the name service for the addresses of a host and caches the
+     * answer.  Returns the InetAddress[], or unknown_array if the host
+     * is unknown.
+     */
+    private static Object lookupAllHostAddr(String host) {
+	// A lookup that finished after we missed the cache, but before
+	// this one was registered, may have left the answer.
+	Object obj = getCachedAddress(host);
+	if (obj != null) {
+	    return obj;
+	}
+
+	int[] ttl = new int[] { -1 };
+	try {
+	    /*
+	     * Do not put the call to lookup() inside the
+	     * constructor.  if you do you will still be
+	     * allocating space when the lookup fails.
+	     */
+	    HostResolver r = resolver;
+	    byte[][] byte_array;
+	    if (r != null) {
+		byte_array = r.lookupAllHostAddr(host, ttl);
+	    } else {
 		byte_array = impl.lookupAllHostAddr(host);
-		InetAddress[] addr_array =
-		    new InetAddress[byte_array.length];
+	    }
+	    InetAddress[] addr_array =
+		new InetAddress[byte_array.length];
 
-		for (int i = 0; i < byte_array.length; i++) {
-		    byte addr[] = byte_array[i];
-		    addr_array[i] = new InetAddress(host, addr);
-		}
-		obj = addr_array;
-	    } catch (UnknownHostException e) {
-		obj  = unknown_array;
-	    } finally {
-		// Cache the address.
-		cacheAddress(host, obj);
-		// Delete the host from the lookupTable, and
-		// notify all threads waiting for the monitor
-		// for lookupTable.
-		updateLookupTable(host);
+	    for (int i = 0; i < byte_array.length; i++) {
+		byte addr[] = byte_array[i];
+		addr_array[i] = new InetAddress(host, addr);
 	    }
+	    obj = addr_array;
+	} catch (UnknownHostException e) {
+	    obj  = unknown_array;
 	}
-
+	cacheAddress(host, obj, ttl[0]);
 	return obj;
     }
-	
-		
-    private static Object checkLookupTable(String host) {
-	// make sure obj  is null.
-	Object obj = null;
-	
-	synchronized (lookupTable) {
-	    // If the host isn't in the lookupTable, add it in the
-	    // lookuptable and return null. The caller should do
-	    // the lookup.
-	    if (lookupTable.containsKey(host) == false) {
-		lookupTable.put(host, null);
-		return obj;
-	    }
 
-	    // If the host is in the lookupTable, it means that another
-	    // thread is trying to look up the address of this host.
-	    // This thread should wait.
-	    while (lookupTable.containsKey(host)) {
-		try {
-		    lookupTable.wait();
-		} catch (InterruptedException e) {
+    /*
+     * Creates the pool that runs asynchronous lookups.  Its daemon
+     * threads belong to the system thread group, not to that of whichever
+     * thread happens to make a request.
+     */
+    private static ThreadPool makeResolverPool() {
+	return (ThreadPool)AccessController.doPrivileged(
+	    new PrivilegedAction() {
+		public Object run() {
+		    ThreadGroup group = Thread.currentThread().getThreadGroup();
+		    while (group.getParent() != null) {
+			group = group.getParent();
+		    }
+		    return new ThreadPool(RESOLVER_THREADS, RESOLVER_THREADS,
+					  0, Integer.MAX_VALUE, group,
+					  "InetAddress-resolver-", true);
 		}
-	    }
+	    });
+    }
+
+    /*
+     * A lookup of one host, registered in the lookupTable while it is in
+     * progress.
+     */
+    private static final class Lookup extends FutureTask {
+	private final String key;
+
+	Lookup(final String host, String key) {
+	    super(new Callable() {
+		public Object call() {
+		    return lookupAllHostAddr(host);
+		}
+	    });
+	    this.key = key;
 	}
 
-	// The other thread has finished looking up the address of
-	// the host. This thread should retry to get the address
-	// from the addressCache. If it doesn't get the address from
-	// the cache,  it will try to look up the address itself.
-	obj = getCachedAddress(host);
-	if (obj == null) {
-	    synchronized (lookupTable) {
-		lookupTable.put(host, null);
-	    }
+	protected void done() {
+	    lookupTable.remove(key, this);
 	}
-	 
-	return obj;
     }
 
-    private static void updateLookupTable(String host) {
-	synchronized (lookupTable) {
-	    lookupTable.remove(host);
-	    lookupTable.notifyAll();
+    /*
+     * The Future returned by getAllByNameAsync, over either an answer
+     * that was available at once or a lookup that several callers may
+     * share, which is why it cannot be cancelled.
+     */
+    private static final class Resolution implements Future {
+	private final String host;
+	private final Object address;
+	private final Future lookup;
+
+	Resolution(String host, Object address, Future lookup) {
+	    this.host = host;
+	    this.address = address;
+	    this.lookup = lookup;
+	}
+
+	public boolean cancel(boolean mayInterruptIfRunning) {
+	    return false;
+	}
+
+	public boolean isCancelled() {
+	    return false;
+	}
+
+	public boolean isDone() {
+	    return lookup == null || lookup.isDone();
+	}
+
+	public Object get() throws InterruptedException, ExecutionException {
+	    return result((lookup == null) ? address : lookup.get());
+	}
+
+	public Object get(long timeout)
+	    throws InterruptedException, ExecutionException, TimeoutException
+	{
+	    return result((lookup == null) ? address : lookup.get(timeout));
+	}
+
+	private Object result(Object obj) throws ExecutionException {
+	    if (obj == unknown_array) {
+		throw new ExecutionException(new UnknownHostException(host));
+	    }
+	    return ((InetAddress[])obj).clone();
 	}
     }
 
@@ -158,6 +158,9 @@ public final class URL implements java.io.Serializable {
     /* Our hash code. */
     private int hashCode = -1;
 
+    /* Our identity key, computed on demand. */
+    private transient String identityKey;
+
     /** 
      * Creates a <code>URL</code> object from the specified 
      * <code>protocol</code>, <code>host</code>, <code>port</code> 
@@ -548,6 +551,7 @@ public final class URL implements java.io.Serializable {
 	     * URL has been changed. */
 	    hashCode = -1;
             hostAddress = null;
+            identityKey = null;
             int q = file.lastIndexOf('?');
             if (q != -1) {
                 query = file.substring(q+1);
@@ -586,6 +590,7 @@ public final class URL implements java.io.Serializable {
 	     * URL has been changed. */
 	    hashCode = -1;
             hostAddress = null;
+            identityKey = null;
             this.query = query;
             this.authority = authority;
 	}
@@ -709,6 +714,45 @@ public final class URL implements java.io.Serializable {
 	return hashCode;
     }
 
+    /**
+     * Returns a normalized string that identifies the resource, and the
+     * anchor within it, that this <code>URL</code> refers to.  Two URLs
+     * have the same identity key if they have the same protocol and host,
+     * ignoring case, the same port number once the protocol's default
+     * port is filled in, and the same file and anchor.
+     * <p>
+     * Unlike <code>equals</code> and <code>hashCode</code>, which may
+     * resolve host names to compare them, this never performs a network
+     * lookup, and the key is computed only once for each
+     * <code>URL</code>.  It is therefore suitable for keying tables of
+     * URLs where a lexical comparison is good enough.  Names that resolve
+     * to the same address, such as aliases of one host, give different
+     * keys.
+     *
+     * @return  the identity key of this <code>URL</code>.
+     * @see     java.net.URL#equals(java.lang.Object)
+     * @since   1.4
+     */
+    public String getIdentityKey() {
+	String key = identityKey;
+	if (key == null) {
+	    StringBuffer result = new StringBuffer(protocol.toLowerCase());
+	    result.append("://");
+	    if (host != null)
+		result.append(host.toLowerCase());
+	    result.append(':');
+	    result.append((port != -1) ? port : handler.getDefaultPort());
+	    if (file != null)
+		result.append(file);
+	    if (ref != null) {
+		result.append('#');
+		result.append(ref);
+	    }
+	    identityKey = key = result.toString();
+	}
+	return key;
+    }
+
     /**
      * Compares two URLs, excluding the "ref" fields.
      * Returns <code>true</code> if this <code>URL</code> and the 
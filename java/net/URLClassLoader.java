@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandlerFactory;
+import java.util.ConcurrentHashMap;
 import java.util.Enumeration;
 import java.util.NoSuchElementException;
 import java.util.StringTokenizer;
@@ -43,6 +44,13 @@ import sun.misc.URLClassPath;
  * <p>
  * The classes that are loaded are by default granted permission only to
  * access the URLs specified when the URLClassLoader was created.
+ * <p>
+ * When the search path consists of local JAR files and directories, the
+ * loader indexes the packages of the JAR files the first time it looks
+ * for a class or resource, from the <code>META-INF/INDEX.LIST</code> of
+ * the first JAR file if it has one, and afterwards looks only in the JAR
+ * files that hold the package concerned.  When the search path consists
+ * only of JAR files, the loader also remembers the names it did not find.
  *
  * @author  David Connelly
  * @version 1.78, 06/12/03
@@ -55,6 +63,28 @@ public class URLClassLoader extends SecureClassLoader {
     /* The context to be used when loading classes and resources */
     private AccessControlContext acc;
 
+    /* The factory for the search path's URLs, or null */
+    private URLStreamHandlerFactory factory;
+
+    /*
+     * The package index of the search path, built when first needed and
+     * again after the path is extended; null if the path cannot be
+     * indexed.  Guarded by indexLock.
+     */
+    private ClassPathIndex index;
+    private boolean indexed = false;
+    private boolean cacheMisses = false;
+    private final Object indexLock = new Object();
+
+    /*
+     * Resource names not found on the search path, mapped to FALSE if they
+     * were looked for without a security check, and so are missing for
+     * any lookup, or to TRUE if only for checked ones.  Replaced by a new
+     * map when the path is extended.
+     */
+    private ConcurrentHashMap misses = new ConcurrentHashMap();
+    private static final int MAX_MISSES = 8192;
+
     /**
      * Constructs a new URLClassLoader for the given URLs. The URLs will be
      * searched in the order specified for classes and resources after first
@@ -145,6 +175,7 @@ public class URLClassLoader extends SecureClassLoader {
 	}
 	ucp = new URLClassPath(urls, factory);
 	acc = AccessController.getContext();
+	this.factory = factory;
     }
 
     /**
@@ -154,7 +185,11 @@ public class URLClassLoader extends SecureClassLoader {
      * @param url the URL to be added to the search path of URLs
      */
     protected void addURL(URL url) {
-	ucp.addURL(url);
+	synchronized (indexLock) {
+	    ucp.addURL(url);
+	    indexed = false;
+	    misses = new ConcurrentHashMap();
+	}
     }
 
     /**
@@ -184,7 +219,7 @@ public class URLClassLoader extends SecureClassLoader {
 		AccessController.doPrivileged(new PrivilegedExceptionAction() {
 		    public Object run() throws ClassNotFoundException {
 			String path = name.replace('.', '/').concat(".class");
-			Resource res = ucp.getResource(path, false);
+			Resource res = getResource0(path, false);
 			if (res != null) {
 			    try {
 				return defineClass(name, res);
@@ -201,6 +236,48 @@ public class URLClassLoader extends SecureClassLoader {
 	}
     }
 
+    /*
+     * Finds a resource on the search path, through the package index if
+     * there is one, and remembers the names that are not found.
+     */
+    private Resource getResource0(String name, boolean check) {
+	ConcurrentHashMap missed = misses;
+	Object m = missed.get(name);
+	if (m != null && (check || m == Boolean.FALSE)) {
+	    return null;
+	}
+	ClassPathIndex idx = getIndex();
+	Resource res = (idx != null) ? idx.getResource(name, check)
+				     : ucp.getResource(name, check);
+	if (res == null && cacheMisses) {
+	    if (missed.size() >= MAX_MISSES) {
+		missed.clear();
+	    }
+	    if (check) {
+		missed.putIfAbsent(name, Boolean.TRUE);
+	    } else {
+		missed.put(name, Boolean.FALSE);
+	    }
+	}
+	return res;
+    }
+
+    /*
+     * Returns the package index of the current search path, building it
+     * if need be.
+     */
+    private ClassPathIndex getIndex() {
+	synchronized (indexLock) {
+	    if (!indexed) {
+		URL[] urls = ucp.getURLs();
+		index = ClassPathIndex.build(urls, factory, index);
+		cacheMisses = ClassPathIndex.isJarsOnly(urls);
+		indexed = true;
+	    }
+	    return index;
+	}
+    }
+
     /*
      * Defines a Class using the class bytes obtained from the specified
      * Resource. The resulting Class must be resolved before it can be
@@ -229,11 +306,22 @@ public class URLClassLoader extends SecureClassLoader {
 		    throw new SecurityException("sealing violation");
 		}
 	    } else {
-		if (man != null) {
-		    definePackage(pkgname, man, url);
-		} else {
-                    definePackage(pkgname, null, null, null, null, null, null, null);
-                }
+		try {
+		    if (man != null) {
+			definePackage(pkgname, man, url);
+		    } else {
+			definePackage(pkgname, null, null, null, null, null, null, null);
+		    }
+		} catch (IllegalArgumentException e) {
+		    // Another thread defined the package first
+		    pkg = getPackage(pkgname);
+		    if (pkg == null) {
+			throw e;
+		    }
+		    if (pkg.isSealed() && !pkg.isSealed(url)) {
+			throw new SecurityException("sealing violation");
+		    }
+		}
 	    }
 	}
 	// Now read the class bytes and define the class
@@ -341,7 +429,7 @@ public class URLClassLoader extends SecureClassLoader {
 	Resource res =
 	    (Resource) AccessController.doPrivileged(new PrivilegedAction() {
 		    public Object run() {
-			return ucp.getResource(name, true);
+			return getResource0(name, true);
 		    }
 		}, acc);
 	
@@ -10,6 +10,8 @@ import java.io.InputStream;
 import java.io.File;
 import java.io.OutputStream;
 import java.util.Hashtable;
+import java.security.AccessController;
+import sun.security.action.GetBooleanAction;
 
 /**
  * The abstract class <code>URLStreamHandler</code> is the common
@@ -209,6 +211,34 @@ public abstract class URLStreamHandler {
         return -1;
     }
 
+    /*
+     * Whether handlers compare hosts by name unless they say otherwise.
+     */
+    private static final boolean lexicalEquality =
+	((Boolean)AccessController.doPrivileged(
+	    new GetBooleanAction("sun.net.url.lexicalEquality"))).booleanValue();
+
+    /**
+     * Tells whether this handler compares and hashes the hosts of URLs
+     * by name alone, ignoring case, rather than by IP address.  Lexical
+     * comparison never waits for the name service, so URLs of this
+     * protocol can be kept in hash tables without network lookups, but
+     * different names of one host are not equal.
+     * <p>
+     * The default implementation returns <code>true</code> if the
+     * system property <code>sun.net.url.lexicalEquality</code> is
+     * <code>"true"</code>, and <code>false</code> otherwise.  Handlers
+     * may override it to choose either mode for their protocol.
+     *
+     * @return  <code>true</code> if hosts are compared by name.
+     * @see     java.net.URLStreamHandler#hostsEqual(java.net.URL, java.net.URL)
+     * @see     java.net.URL#getIdentityKey()
+     * @since   1.4
+     */
+    protected boolean usesLexicalEquality() {
+	return lexicalEquality;
+    }
+
     /**
      * Provides the default equals calculation. May be overidden by handlers
      * for other protocols that have different requirements for equals().
@@ -241,7 +271,7 @@ public abstract class URLStreamHandler {
 	    h += protocol.hashCode();
 
         // Generate the host part.
-	InetAddress addr = getHostAddress(u);
+	InetAddress addr = usesLexicalEquality() ? null : getHostAddress(u);
 	if (addr != null) {
 	    h += addr.hashCode();
 	} else {
@@ -305,12 +335,13 @@ public abstract class URLStreamHandler {
 
     /**
      * Get the IP address of our host. An empty host field or a DNS failure
-     * will result in a null return.
+     * will result in a null return.  The address is remembered in the
+     * <code>URL</code>; threads that race to look it up find the same one.
      *
      * @return an <code>InetAddress</code> representing the host
      * IP address.
      */
-    protected synchronized InetAddress getHostAddress(URL u) {
+    protected InetAddress getHostAddress(URL u) {
 	if (u.hostAddress != null)
             return u.hostAddress;
     
@@ -330,16 +361,23 @@ public abstract class URLStreamHandler {
     }
 
     /**
-     * Compares the host components of two URLs.
+     * Compares the host components of two URLs.  Unless this handler
+     * uses lexical equality, hosts that resolve to the same IP address
+     * are equal.
      * @param u1 the URL of the first host to compare 
      * @param u2 the URL of the second host to compare 
      * @return	<tt>true</tt> if and only if they 
      * are equal, <tt>false</tt> otherwise.
      * @exception UnknownHostException If an unknown host is found.
+     * @see #usesLexicalEquality()
      */
     protected boolean hostsEqual(URL u1, URL u2) {
-	InetAddress a1 = getHostAddress(u1);
-        InetAddress a2 = getHostAddress(u2);
+	InetAddress a1 = null;
+	InetAddress a2 = null;
+	if (!usesLexicalEquality()) {
+	    a1 = getHostAddress(u1);
+	    a2 = getHostAddress(u2);
+	}
 	// if we have internet address for both, compare them
 	if (a1 != null && a2 != null) {
 	    return a1.equals(a2);
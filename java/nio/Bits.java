@@ -0,0 +1,259 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio;
+
+import sun.misc.Unsafe;
+
+/**
+ * Access to bits, native and otherwise.
+ */
+class Bits {
+
+    private Bits() { }
+
+    // -- Swapping --
+
+    static short swap(short x) {
+        return (short) ((x << 8) | ((x >> 8) & 0xff));
+    }
+
+    static char swap(char x) {
+        return (char) ((x << 8) | ((x >> 8) & 0xff));
+    }
+
+    static int swap(int x) {
+        return ((x << 24)
+                | ((x & 0x0000ff00) << 8)
+                | ((x & 0x00ff0000) >>> 8)
+                | (x >>> 24));
+    }
+
+    static long swap(long x) {
+        return (((long) swap((int) x) << 32)
+                | ((long) swap((int) (x >>> 32)) & 0xffffffffL));
+    }
+
+    // -- get/put values from a byte array, in either order --
+
+    static char getChar(byte[] b, int bi, boolean bigEndian) {
+        return (char) getShort(b, bi, bigEndian);
+    }
+
+    static short getShort(byte[] b, int bi, boolean bigEndian) {
+        if (bigEndian)
+            return (short) ((b[bi] << 8) | (b[bi + 1] & 0xff));
+        return (short) ((b[bi + 1] << 8) | (b[bi] & 0xff));
+    }
+
+    static int getInt(byte[] b, int bi, boolean bigEndian) {
+        if (bigEndian)
+            return (((b[bi]           ) << 24) |
+                    ((b[bi + 1] & 0xff) << 16) |
+                    ((b[bi + 2] & 0xff) <<  8) |
+                    ((b[bi + 3] & 0xff)      ));
+        return (((b[bi + 3]       ) << 24) |
+                ((b[bi + 2] & 0xff) << 16) |
+                ((b[bi + 1] & 0xff) <<  8) |
+                ((b[bi]     & 0xff)      ));
+    }
+
+    static long getLong(byte[] b, int bi, boolean bigEndian) {
+        long hi = getInt(b, bigEndian ? bi : bi + 4, bigEndian);
+        long lo = getInt(b, bigEndian ? bi + 4 : bi, bigEndian);
+        return (hi << 32) | (lo & 0xffffffffL);
+    }
+
+    static float getFloat(byte[] b, int bi, boolean bigEndian) {
+        return Float.intBitsToFloat(getInt(b, bi, bigEndian));
+    }
+
+    static double getDouble(byte[] b, int bi, boolean bigEndian) {
+        return Double.longBitsToDouble(getLong(b, bi, bigEndian));
+    }
+
+    static void putChar(byte[] b, int bi, char x, boolean bigEndian) {
+        putShort(b, bi, (short) x, bigEndian);
+    }
+
+    static void putShort(byte[] b, int bi, short x, boolean bigEndian) {
+        if (bigEndian) {
+            b[bi]     = (byte) (x >> 8);
+            b[bi + 1] = (byte) x;
+        } else {
+            b[bi]     = (byte) x;
+            b[bi + 1] = (byte) (x >> 8);
+        }
+    }
+
+    static void putInt(byte[] b, int bi, int x, boolean bigEndian) {
+        if (bigEndian) {
+            b[bi]     = (byte) (x >> 24);
+            b[bi + 1] = (byte) (x >> 16);
+            b[bi + 2] = (byte) (x >> 8);
+            b[bi + 3] = (byte) x;
+        } else {
+            b[bi]     = (byte) x;
+            b[bi + 1] = (byte) (x >> 8);
+            b[bi + 2] = (byte) (x >> 16);
+            b[bi + 3] = (byte) (x >> 24);
+        }
+    }
+
+    static void putLong(byte[] b, int bi, long x, boolean bigEndian) {
+        int hi = (int) (x >> 32);
+        int lo = (int) x;
+        putInt(b, bigEndian ? bi : bi + 4, hi, bigEndian);
+        putInt(b, bigEndian ? bi + 4 : bi, lo, bigEndian);
+    }
+
+    static void putFloat(byte[] b, int bi, float x, boolean bigEndian) {
+        putInt(b, bi, Float.floatToIntBits(x), bigEndian);
+    }
+
+    static void putDouble(byte[] b, int bi, double x, boolean bigEndian) {
+        putLong(b, bi, Double.doubleToLongBits(x), bigEndian);
+    }
+
+    // -- get/put values from native memory a byte at a time --
+
+    static short getShort(long a, boolean bigEndian) {
+        byte b0 = unsafe.getByte(a);
+        byte b1 = unsafe.getByte(a + 1);
+        if (bigEndian)
+            return (short) ((b0 << 8) | (b1 & 0xff));
+        return (short) ((b1 << 8) | (b0 & 0xff));
+    }
+
+    static int getInt(long a, boolean bigEndian) {
+        int x = 0;
+        for (int i = 0; i < 4; i++)
+            x = (x << 8) | (unsafe.getByte(a + (bigEndian ? i : 3 - i)) & 0xff);
+        return x;
+    }
+
+    static long getLong(long a, boolean bigEndian) {
+        long x = 0;
+        for (int i = 0; i < 8; i++)
+            x = (x << 8) | (unsafe.getByte(a + (bigEndian ? i : 7 - i)) & 0xff);
+        return x;
+    }
+
+    static void putShort(long a, short x, boolean bigEndian) {
+        unsafe.putByte(a + (bigEndian ? 0 : 1), (byte) (x >> 8));
+        unsafe.putByte(a + (bigEndian ? 1 : 0), (byte) x);
+    }
+
+    static void putInt(long a, int x, boolean bigEndian) {
+        for (int i = 0; i < 4; i++)
+            unsafe.putByte(a + (bigEndian ? 3 - i : i), (byte) (x >> (8 * i)));
+    }
+
+    static void putLong(long a, long x, boolean bigEndian) {
+        for (int i = 0; i < 8; i++)
+            unsafe.putByte(a + (bigEndian ? 7 - i : i), (byte) (x >> (8 * i)));
+    }
+
+    // -- Unsafe access --
+
+    // Direct buffers need the raw-memory methods of sun.misc.Unsafe:
+    // allocateMemory, freeMemory, setMemory, copyMemory, pageSize and the
+    // get and put methods that take an address.  The Unsafe of this VM does
+    // not provide them, so direct buffers cannot be used until it does.
+
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+
+    static Unsafe unsafe() {
+        return unsafe;
+    }
+
+    // -- Processor and memory-system properties --
+
+    private static ByteOrder byteOrder = null;
+
+    /**
+     * Returns the byte order of the processor, as given by the
+     * <tt>sun.cpu.endian</tt> property if it is set and otherwise by the
+     * processor architecture.  Every byte buffer asks for it, so it is
+     * worked out without touching native memory.
+     */
+    static ByteOrder byteOrder() {
+        if (byteOrder != null)
+            return byteOrder;
+        String endian = (String) java.security.AccessController.doPrivileged(
+            new sun.security.action.GetPropertyAction("sun.cpu.endian"));
+        if (endian != null) {
+            if (endian.equals("little"))
+                byteOrder = ByteOrder.LITTLE_ENDIAN;
+            else if (endian.equals("big"))
+                byteOrder = ByteOrder.BIG_ENDIAN;
+            else
+                throw new Error("Unknown byte order");
+        } else {
+            String arch = (String) java.security.AccessController.doPrivileged(
+                new sun.security.action.GetPropertyAction("os.arch"));
+            if (arch.equals("i386") || arch.equals("x86")
+                || arch.equals("amd64") || arch.equals("x86_64")
+                || arch.equals("ia64"))
+                byteOrder = ByteOrder.LITTLE_ENDIAN;
+            else
+                byteOrder = ByteOrder.BIG_ENDIAN;
+        }
+        return byteOrder;
+    }
+
+    private static boolean unaligned;
+    private static boolean unalignedKnown = false;
+
+    /**
+     * Tells whether the processor permits multibyte values to be read and
+     * written at any address.  Where it does not, direct buffers assemble
+     * such values a byte at a time.
+     */
+    static boolean unaligned() {
+        if (unalignedKnown)
+            return unaligned;
+        String arch = (String) java.security.AccessController.doPrivileged(
+            new sun.security.action.GetPropertyAction("os.arch"));
+        unaligned = arch.equals("i386") || arch.equals("x86")
+            || arch.equals("amd64") || arch.equals("x86_64");
+        unalignedKnown = true;
+        return unaligned;
+    }
+
+    private static int pageSize = -1;
+
+    static int pageSize() {
+        if (pageSize == -1)
+            pageSize = unsafe.pageSize();
+        return pageSize;
+    }
+
+    // -- Bulk copying between arrays and native memory --
+
+    // The two copy methods below belong to the nio library, which is not
+    // built from this tree; see sun.nio.ch.Util.load.  Only direct buffers
+    // call them, so DirectByteBuffer loads the library.
+
+    // These numbers represent the point at which we have empirically
+    // determined that the average cost of a JNI call exceeds the expense
+    // of an element by element copy.  These numbers may change over time.
+    static final int JNI_COPY_TO_ARRAY_THRESHOLD   = 6;
+    static final int JNI_COPY_FROM_ARRAY_THRESHOLD = 6;
+
+    /**
+     * Copies <tt>length</tt> bytes from the given array, starting at
+     * <tt>srcPos</tt>, to native memory at <tt>dstAddr</tt>.
+     */
+    static native void copyFromByteArray(Object src, long srcPos,
+                                         long dstAddr, long length);
+
+    /**
+     * Copies <tt>length</tt> bytes from native memory at <tt>srcAddr</tt> to
+     * the given array, starting at <tt>dstPos</tt>.
+     */
+    static native void copyToByteArray(long srcAddr, Object dst, long dstPos,
+                                       long length);
+}
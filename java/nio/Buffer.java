@@ -0,0 +1,311 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio;
+
+/**
+ * A container for data of a specific primitive type.<p>
+ *
+ * A buffer is a linear, finite sequence of elements of a specific
+ * primitive type.  Aside from its content, the essential properties of a
+ * buffer are its capacity, limit, and position:
+ * <ul>
+ *  <li>A buffer's <i>capacity</i> is the number of elements it contains.
+ *      The capacity of a buffer is never negative and never changes.
+ *  <li>A buffer's <i>limit</i> is the index of the first element that
+ *      should not be read or written.  A buffer's limit is never negative
+ *      and is never greater than its capacity.
+ *  <li>A buffer's <i>position</i> is the index of the next element to be
+ *      read or written.  A buffer's position is never negative and is never
+ *      greater than its limit.
+ * </ul>
+ * A buffer's <i>mark</i> is the index to which its position will be reset
+ * when the {@link #reset reset} method is invoked.  The following invariant
+ * holds for the mark, position, limit, and capacity values:
+ * <blockquote>
+ *     <tt>0</tt> <tt>&lt;=</tt> <i>mark</i> <tt>&lt;=</tt> <i>position</i>
+ *     <tt>&lt;=</tt> <i>limit</i> <tt>&lt;=</tt> <i>capacity</i>
+ * </blockquote><p>
+ *
+ * Each subclass of this class defines two categories of <i>get</i> and
+ * <i>put</i> operations.  <i>Relative</i> operations read or write one or
+ * more elements starting at the current position and then increment the
+ * position by the number of elements transferred.  <i>Absolute</i>
+ * operations take an explicit element index and do not affect the
+ * position.<p>
+ *
+ * In addition to methods for accessing the position, limit, and capacity
+ * values and for marking and resetting, this class also defines the
+ * following operations upon buffers:
+ * <ul>
+ *  <li>{@link #clear} makes a buffer ready for a new sequence of channel-read
+ *      or relative <i>put</i> operations.
+ *  <li>{@link #flip} makes a buffer ready for a new sequence of
+ *      channel-write or relative <i>get</i> operations.
+ *  <li>{@link #rewind} makes a buffer ready for re-reading the data that it
+ *      already contains.
+ * </ul>
+ * Buffers are not safe for use by multiple concurrent threads.  If a buffer
+ * is to be used by more than one thread then access to the buffer should be
+ * controlled by appropriate synchronization.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ByteBuffer
+ * @since   1.4
+ */
+public abstract class Buffer {
+
+    // Invariants: mark <= position <= limit <= capacity
+    private int mark = -1;
+    private int position = 0;
+    private int limit;
+    private int capacity;
+
+    // Creates a new buffer with the given mark, position, limit, and
+    // capacity, after checking invariants.
+    //
+    Buffer(int mark, int pos, int lim, int cap) {
+        if (cap < 0)
+            throw new IllegalArgumentException("Negative capacity: " + cap);
+        this.capacity = cap;
+        limit(lim);
+        position(pos);
+        if (mark >= 0) {
+            if (mark > pos)
+                throw new IllegalArgumentException();
+            this.mark = mark;
+        }
+    }
+
+    /**
+     * Returns this buffer's capacity.
+     *
+     * @return the capacity of this buffer.
+     */
+    public final int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns this buffer's position.
+     *
+     * @return the position of this buffer.
+     */
+    public final int position() {
+        return position;
+    }
+
+    /**
+     * Sets this buffer's position.  If the mark is defined and larger than
+     * the new position then it is discarded.
+     *
+     * @param newPosition the new position value; must be non-negative and
+     *        no larger than the current limit.
+     * @return this buffer.
+     * @exception IllegalArgumentException if the preconditions on
+     *            <tt>newPosition</tt> do not hold.
+     */
+    public final Buffer position(int newPosition) {
+        if ((newPosition > limit) || (newPosition < 0))
+            throw new IllegalArgumentException();
+        position = newPosition;
+        if (mark > position) mark = -1;
+        return this;
+    }
+
+    /**
+     * Returns this buffer's limit.
+     *
+     * @return the limit of this buffer.
+     */
+    public final int limit() {
+        return limit;
+    }
+
+    /**
+     * Sets this buffer's limit.  If the position is larger than the new
+     * limit then it is set to the new limit.  If the mark is defined and
+     * larger than the new limit then it is discarded.
+     *
+     * @param newLimit the new limit value; must be non-negative and no
+     *        larger than this buffer's capacity.
+     * @return this buffer.
+     * @exception IllegalArgumentException if the preconditions on
+     *            <tt>newLimit</tt> do not hold.
+     */
+    public final Buffer limit(int newLimit) {
+        if ((newLimit > capacity) || (newLimit < 0))
+            throw new IllegalArgumentException();
+        limit = newLimit;
+        if (position > limit) position = limit;
+        if (mark > limit) mark = -1;
+        return this;
+    }
+
+    /**
+     * Sets this buffer's mark at its position.
+     *
+     * @return this buffer.
+     */
+    public final Buffer mark() {
+        mark = position;
+        return this;
+    }
+
+    /**
+     * Resets this buffer's position to the previously-marked position.
+     * Invoking this method neither changes nor discards the mark's value.
+     *
+     * @return this buffer.
+     * @exception InvalidMarkException if the mark has not been set.
+     */
+    public final Buffer reset() {
+        int m = mark;
+        if (m < 0)
+            throw new InvalidMarkException();
+        position = m;
+        return this;
+    }
+
+    /**
+     * Clears this buffer.  The position is set to zero, the limit is set to
+     * the capacity, and the mark is discarded.  This method does not
+     * actually erase the data in the buffer.
+     *
+     * @return this buffer.
+     */
+    public final Buffer clear() {
+        position = 0;
+        limit = capacity;
+        mark = -1;
+        return this;
+    }
+
+    /**
+     * Flips this buffer.  The limit is set to the current position and then
+     * the position is set to zero.  If the mark is defined then it is
+     * discarded.  After a sequence of channel-read or <i>put</i> operations,
+     * invoke this method to prepare for a sequence of channel-write or
+     * relative <i>get</i> operations.
+     *
+     * @return this buffer.
+     */
+    public final Buffer flip() {
+        limit = position;
+        position = 0;
+        mark = -1;
+        return this;
+    }
+
+    /**
+     * Rewinds this buffer.  The position is set to zero and the mark is
+     * discarded.
+     *
+     * @return this buffer.
+     */
+    public final Buffer rewind() {
+        position = 0;
+        mark = -1;
+        return this;
+    }
+
+    /**
+     * Returns the number of elements between the current position and the
+     * limit.
+     *
+     * @return the number of elements remaining in this buffer.
+     */
+    public final int remaining() {
+        return limit - position;
+    }
+
+    /**
+     * Tells whether there are any elements between the current position and
+     * the limit.
+     *
+     * @return <tt>true</tt> if, and only if, there is at least one element
+     *         remaining in this buffer.
+     */
+    public final boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * Tells whether or not this buffer is read-only.
+     *
+     * @return <tt>true</tt> if, and only if, this buffer is read-only.
+     */
+    public abstract boolean isReadOnly();
+
+    // -- Package-private methods for bounds checking, etc. --
+
+    /**
+     * Checks the current position against the limit, throwing a
+     * {@link BufferUnderflowException} if it is not smaller than the limit,
+     * and then increments the position.
+     *
+     * @return the current position value, before it is incremented.
+     */
+    final int nextGetIndex() {
+        if (position >= limit)
+            throw new BufferUnderflowException();
+        return position++;
+    }
+
+    final int nextGetIndex(int nb) {
+        if (limit - position < nb)
+            throw new BufferUnderflowException();
+        int p = position;
+        position += nb;
+        return p;
+    }
+
+    /**
+     * Checks the current position against the limit, throwing a
+     * {@link BufferOverflowException} if it is not smaller than the limit,
+     * and then increments the position.
+     *
+     * @return the current position value, before it is incremented.
+     */
+    final int nextPutIndex() {
+        if (position >= limit)
+            throw new BufferOverflowException();
+        return position++;
+    }
+
+    final int nextPutIndex(int nb) {
+        if (limit - position < nb)
+            throw new BufferOverflowException();
+        int p = position;
+        position += nb;
+        return p;
+    }
+
+    /**
+     * Checks the given index against the limit, throwing an
+     * {@link IndexOutOfBoundsException} if it is not smaller than the limit
+     * or is smaller than zero.
+     */
+    final int checkIndex(int i) {
+        if ((i < 0) || (i >= limit))
+            throw new IndexOutOfBoundsException();
+        return i;
+    }
+
+    final int checkIndex(int i, int nb) {
+        if ((i < 0) || (nb > limit - i))
+            throw new IndexOutOfBoundsException();
+        return i;
+    }
+
+    final int markValue() {
+        return mark;
+    }
+
+    static void checkBounds(int off, int len, int size) {
+        if ((off | len | (off + len) | (size - (off + len))) < 0)
+            throw new IndexOutOfBoundsException();
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio;
+
+/**
+ * Unchecked exception thrown when a relative <i>put</i> operation reaches
+ * the target buffer's limit.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public class BufferOverflowException extends RuntimeException {
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public BufferOverflowException() { }
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio;
+
+/**
+ * Unchecked exception thrown when a relative <i>get</i> operation reaches
+ * the source buffer's limit.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public class BufferUnderflowException extends RuntimeException {
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public BufferUnderflowException() { }
+}
@@ -0,0 +1,761 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio;
+
+/**
+ * A byte buffer.<p>
+ *
+ * This class defines five categories of operations upon byte buffers:
+ * <ul>
+ *  <li>Absolute and relative {@link #get() <i>get</i>} and
+ *      {@link #put(byte) <i>put</i>} methods that read and write single
+ *      bytes;
+ *  <li>Relative {@link #get(byte[]) <i>bulk get</i>} methods that transfer
+ *      contiguous sequences of bytes from this buffer into an array;
+ *  <li>Relative {@link #put(byte[]) <i>bulk put</i>} methods that transfer
+ *      contiguous sequences of bytes from a byte array or some other byte
+ *      buffer into this buffer;
+ *  <li>Absolute and relative <i>get</i> and <i>put</i> methods that read
+ *      and write values of other primitive types, translating them to and
+ *      from sequences of bytes in the buffer's current byte order;
+ *  <li>Methods for {@link #compact compacting}, {@link #duplicate
+ *      duplicating}, and {@link #slice slicing} a byte buffer.
+ * </ul>
+ * Byte buffers can be created either by {@link #allocate <i>allocation</i>},
+ * which allocates space for the buffer's content, or by {@link #wrap(byte[])
+ * <i>wrapping</i>} an existing byte array into a buffer.<p>
+ *
+ * <b>Direct <i>vs.</i> non-direct buffers</b><p>
+ *
+ * A byte buffer is either <i>direct</i> or <i>non-direct</i>.  Given a
+ * direct byte buffer, the channels in <tt>java.nio.channels</tt> perform
+ * native I/O operations directly upon it: the operating system reads into,
+ * and writes from, the buffer's memory without the content ever being
+ * copied through a Java <tt>byte[]</tt> or a native bounce buffer.  A
+ * direct byte buffer may be created by invoking the
+ * {@link #allocateDirect allocateDirect} factory method.  Its content
+ * resides outside of the normal garbage-collected heap, and is released
+ * when the buffer, and every buffer derived from it, is finalized.  The
+ * allocation and deallocation costs of direct buffers are higher than
+ * those of non-direct buffers, so they are best used for large,
+ * long-lived buffers that are subject to the underlying system's native
+ * I/O operations.  Whether or not a byte buffer is direct may be determined
+ * by invoking its {@link #isDirect isDirect} method.<p>
+ *
+ * <b>Access to binary data</b><p>
+ *
+ * This class defines methods for reading and writing values of all other
+ * primitive types, except <tt>boolean</tt>.  Primitive values are
+ * translated to (or from) sequences of bytes according to the buffer's
+ * current byte order, which may be retrieved and modified via the
+ * {@link #order order} methods.  The initial order of a byte buffer is
+ * always {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}, the order used by
+ * <tt>DataInput</tt> and <tt>DataOutput</tt>.<p>
+ *
+ * <b>Invocation chaining</b><p>
+ *
+ * Methods in this class that do not otherwise have a value to return are
+ * specified to return the buffer upon which they are invoked.  This allows
+ * method invocations to be chained, for example
+ * <blockquote><pre>
+ * bb.putInt(0xCAFEBABE).putShort((short) 3).putShort((short) 45);</pre>
+ * </blockquote>
+ *
+ * @version 1.1, 10/15/26
+ * @see     Buffer
+ * @see     ByteOrder
+ * @since   1.4
+ */
+public abstract class ByteBuffer extends Buffer implements Comparable {
+
+    // These fields are declared here rather than in HeapByteBuffer in
+    // order to reduce the number of virtual method invocations needed to
+    // access these values, which is especially costly when accessing small
+    // buffers.
+    //
+    final byte[] hb;                  // Non-null only for heap buffers
+    final int offset;
+    boolean isReadOnly;
+
+    // Creates a new buffer with the given mark, position, limit, capacity,
+    // backing array, and array offset
+    //
+    ByteBuffer(int mark, int pos, int lim, int cap,
+               byte[] hb, int offset)
+    {
+        super(mark, pos, lim, cap);
+        this.hb = hb;
+        this.offset = offset;
+    }
+
+    // Creates a new buffer with the given mark, position, limit, and
+    // capacity
+    //
+    ByteBuffer(int mark, int pos, int lim, int cap) {
+        this(mark, pos, lim, cap, null, 0);
+    }
+
+    /**
+     * Allocates a new direct byte buffer.  The new buffer's position will
+     * be zero, its limit will be its capacity, its mark will be undefined,
+     * and each of its elements will be initialized to zero.
+     *
+     * @param capacity the new buffer's capacity, in bytes.
+     * @return the new byte buffer.
+     * @exception IllegalArgumentException if the <tt>capacity</tt> is a
+     *            negative integer.
+     */
+    public static ByteBuffer allocateDirect(int capacity) {
+        return new DirectByteBuffer(capacity);
+    }
+
+    /**
+     * Allocates a new byte buffer.  The new buffer's position will be zero,
+     * its limit will be its capacity, its mark will be undefined, and each
+     * of its elements will be initialized to zero.  It will have a
+     * {@link #array backing array}, and its {@link #arrayOffset array
+     * offset} will be zero.
+     *
+     * @param capacity the new buffer's capacity, in bytes.
+     * @return the new byte buffer.
+     * @exception IllegalArgumentException if the <tt>capacity</tt> is a
+     *            negative integer.
+     */
+    public static ByteBuffer allocate(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException();
+        return new HeapByteBuffer(capacity, capacity);
+    }
+
+    /**
+     * Wraps a byte array into a buffer.  The new buffer will be backed by
+     * the given byte array; that is, modifications to the buffer will cause
+     * the array to be modified and vice versa.  The new buffer's capacity
+     * will be <tt>array.length</tt>, its position will be <tt>offset</tt>,
+     * its limit will be <tt>offset + length</tt>, and its mark will be
+     * undefined.
+     *
+     * @param array the array that will back the new buffer.
+     * @param offset the offset of the subarray to be used.
+     * @param length the length of the subarray to be used.
+     * @return the new byte buffer.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     */
+    public static ByteBuffer wrap(byte[] array, int offset, int length) {
+        try {
+            return new HeapByteBuffer(array, offset, length);
+        } catch (IllegalArgumentException x) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Wraps a byte array into a buffer.  The new buffer's capacity and limit
+     * will be <tt>array.length</tt>, its position will be zero, and its
+     * mark will be undefined.
+     *
+     * @param array the array that will back this buffer.
+     * @return the new byte buffer.
+     */
+    public static ByteBuffer wrap(byte[] array) {
+        return wrap(array, 0, array.length);
+    }
+
+    /**
+     * Creates a new byte buffer whose content is a shared subsequence of
+     * this buffer's content.  The content of the new buffer will start at
+     * this buffer's current position.  The new buffer's position will be
+     * zero, its capacity and its limit will be the number of bytes
+     * remaining in this buffer, and its mark will be undefined.  The new
+     * buffer will be direct if, and only if, this buffer is direct, and it
+     * will be read-only if, and only if, this buffer is read-only.
+     *
+     * @return the new byte buffer.
+     */
+    public abstract ByteBuffer slice();
+
+    /**
+     * Creates a new byte buffer that shares this buffer's content.  The new
+     * buffer's capacity, limit, position, and mark values will be identical
+     * to those of this buffer; its byte order will be
+     * {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.
+     *
+     * @return the new byte buffer.
+     */
+    public abstract ByteBuffer duplicate();
+
+    /**
+     * Creates a new, read-only byte buffer that shares this buffer's
+     * content.  The new buffer's capacity, limit, position, and mark values
+     * will be identical to those of this buffer.
+     *
+     * @return the new, read-only byte buffer.
+     */
+    public abstract ByteBuffer asReadOnlyBuffer();
+
+    // -- Singleton get/put methods --
+
+    /**
+     * Relative <i>get</i> method.  Reads the byte at this buffer's current
+     * position, and then increments the position.
+     *
+     * @return the byte at the buffer's current position.
+     * @exception BufferUnderflowException if the buffer's current position
+     *            is not smaller than its limit.
+     */
+    public abstract byte get();
+
+    /**
+     * Relative <i>put</i> method.  Writes the given byte into this buffer at
+     * the current position, and then increments the position.
+     *
+     * @param b the byte to be written.
+     * @return this buffer.
+     * @exception BufferOverflowException if this buffer's current position
+     *            is not smaller than its limit.
+     * @exception ReadOnlyBufferException if this buffer is read-only.
+     */
+    public abstract ByteBuffer put(byte b);
+
+    /**
+     * Absolute <i>get</i> method.  Reads the byte at the given index.
+     *
+     * @param index the index from which the byte will be read.
+     * @return the byte at the given index.
+     * @exception IndexOutOfBoundsException if <tt>index</tt> is negative or
+     *            not smaller than the buffer's limit.
+     */
+    public abstract byte get(int index);
+
+    /**
+     * Absolute <i>put</i> method.  Writes the given byte into this buffer at
+     * the given index.
+     *
+     * @param index the index at which the byte will be written.
+     * @param b the byte value to be written.
+     * @return this buffer.
+     * @exception IndexOutOfBoundsException if <tt>index</tt> is negative or
+     *            not smaller than the buffer's limit.
+     * @exception ReadOnlyBufferException if this buffer is read-only.
+     */
+    public abstract ByteBuffer put(int index, byte b);
+
+    // -- Bulk get operations --
+
+    /**
+     * Relative bulk <i>get</i> method.  This method transfers
+     * <tt>length</tt> bytes from this buffer into the given array, starting
+     * at the current position of this buffer and at the given offset in the
+     * array.  The position of this buffer is then incremented by
+     * <tt>length</tt>.  If there are fewer bytes remaining in the buffer
+     * than are required to satisfy the request then no bytes are
+     * transferred and a {@link BufferUnderflowException} is thrown.
+     *
+     * @param dst the array into which bytes are to be written.
+     * @param offset the offset within the array of the first byte to be
+     *        written.
+     * @param length the number of bytes to be written to the array.
+     * @return this buffer.
+     * @exception BufferUnderflowException if there are fewer than
+     *            <tt>length</tt> bytes remaining in this buffer.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     */
+    public ByteBuffer get(byte[] dst, int offset, int length) {
+        checkBounds(offset, length, dst.length);
+        if (length > remaining())
+            throw new BufferUnderflowException();
+        int end = offset + length;
+        for (int i = offset; i < end; i++)
+            dst[i] = get();
+        return this;
+    }
+
+    /**
+     * Relative bulk <i>get</i> method.  An invocation of this method of the
+     * form <tt>src.get(a)</tt> behaves in exactly the same way as the
+     * invocation <tt>src.get(a, 0, a.length)</tt>.
+     *
+     * @param dst the destination array.
+     * @return this buffer.
+     * @exception BufferUnderflowException if there are fewer than
+     *            <tt>dst.length</tt> bytes remaining in this buffer.
+     */
+    public ByteBuffer get(byte[] dst) {
+        return get(dst, 0, dst.length);
+    }
+
+    // -- Bulk put operations --
+
+    /**
+     * Relative bulk <i>put</i> method.  This method transfers the bytes
+     * remaining in the given source buffer into this buffer.  If there are
+     * more bytes remaining in the source buffer than in this buffer then no
+     * bytes are transferred and a {@link BufferOverflowException} is
+     * thrown.  Otherwise the positions of both buffers are incremented by
+     * the number of bytes transferred.
+     *
+     * @param src the source buffer from which bytes are to be read; must
+     *        not be this buffer.
+     * @return this buffer.
+     * @exception BufferOverflowException if there is insufficient space in
+     *            this buffer for the remaining bytes in the source buffer.
+     * @exception IllegalArgumentException if the source buffer is this
+     *            buffer.
+     * @exception ReadOnlyBufferException if this buffer is read-only.
+     */
+    public ByteBuffer put(ByteBuffer src) {
+        if (src == this)
+            throw new IllegalArgumentException();
+        int n = src.remaining();
+        if (n > remaining())
+            throw new BufferOverflowException();
+        for (int i = 0; i < n; i++)
+            put(src.get());
+        return this;
+    }
+
+    /**
+     * Relative bulk <i>put</i> method.  This method transfers
+     * <tt>length</tt> bytes into this buffer from the given source array.
+     * If there are more bytes to be copied from the array than remain in
+     * this buffer then no bytes are transferred and a
+     * {@link BufferOverflowException} is thrown.  Otherwise the position of
+     * this buffer is incremented by <tt>length</tt>.
+     *
+     * @param src the array from which bytes are to be read.
+     * @param offset the offset within the array of the first byte to be
+     *        read.
+     * @param length the number of bytes to be read from the given array.
+     * @return this buffer.
+     * @exception BufferOverflowException if there is insufficient space in
+     *            this buffer.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     * @exception ReadOnlyBufferException if this buffer is read-only.
+     */
+    public ByteBuffer put(byte[] src, int offset, int length) {
+        checkBounds(offset, length, src.length);
+        if (length > remaining())
+            throw new BufferOverflowException();
+        int end = offset + length;
+        for (int i = offset; i < end; i++)
+            this.put(src[i]);
+        return this;
+    }
+
+    /**
+     * Relative bulk <i>put</i> method.  This method transfers the entire
+     * content of the given source byte array into this buffer.
+     *
+     * @param src the source array.
+     * @return this buffer.
+     * @exception BufferOverflowException if there is insufficient space in
+     *            this buffer.
+     * @exception ReadOnlyBufferException if this buffer is read-only.
+     */
+    public final ByteBuffer put(byte[] src) {
+        return put(src, 0, src.length);
+    }
+
+    // -- Other stuff --
+
+    /**
+     * Tells whether or not this buffer is backed by an accessible byte
+     * array.  If this method returns <tt>true</tt> then the {@link #array()
+     * array} and {@link #arrayOffset() arrayOffset} methods may safely be
+     * invoked.
+     *
+     * @return <tt>true</tt> if, and only if, this buffer is backed by an
+     *         array and is not read-only.
+     */
+    public final boolean hasArray() {
+        return (hb != null) && !isReadOnly;
+    }
+
+    /**
+     * Returns the byte array that backs this buffer.  Modifications to this
+     * buffer's content will cause the returned array's content to be
+     * modified, and vice versa.
+     *
+     * @return the array that backs this buffer.
+     * @exception ReadOnlyBufferException if this buffer is backed by an
+     *            array but is read-only.
+     * @exception UnsupportedOperationException if this buffer is not
+     *            backed by an accessible array.
+     */
+    public final byte[] array() {
+        if (hb == null)
+            throw new UnsupportedOperationException();
+        if (isReadOnly)
+            throw new ReadOnlyBufferException();
+        return hb;
+    }
+
+    /**
+     * Returns the offset within this buffer's backing array of the first
+     * element of the buffer.  If this buffer is backed by an array then
+     * buffer position <i>p</i> corresponds to array index
+     * <i>p</i>&nbsp;+&nbsp;<tt>arrayOffset()</tt>.
+     *
+     * @return the offset within this buffer's array of the first element of
+     *         the buffer.
+     * @exception ReadOnlyBufferException if this buffer is backed by an
+     *            array but is read-only.
+     * @exception UnsupportedOperationException if this buffer is not
+     *            backed by an accessible array.
+     */
+    public final int arrayOffset() {
+        if (hb == null)
+            throw new UnsupportedOperationException();
+        if (isReadOnly)
+            throw new ReadOnlyBufferException();
+        return offset;
+    }
+
+    /**
+     * Compacts this buffer.  The bytes between the buffer's current
+     * position and its limit, if any, are copied to the beginning of the
+     * buffer.  The buffer's position is then set to the number of bytes
+     * copied, its limit is set to its capacity, and its mark is discarded.
+     * Invoke this method after writing data from a buffer in case the write
+     * was incomplete.
+     *
+     * @return this buffer.
+     * @exception ReadOnlyBufferException if this buffer is read-only.
+     */
+    public abstract ByteBuffer compact();
+
+    /**
+     * Tells whether or not this byte buffer is direct.
+     *
+     * @return <tt>true</tt> if, and only if, this buffer is direct.
+     */
+    public abstract boolean isDirect();
+
+    /**
+     * Returns a string summarizing the state of this buffer.
+     *
+     * @return a summary string.
+     */
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        sb.append(getClass().getName());
+        sb.append("[pos=");
+        sb.append(position());
+        sb.append(" lim=");
+        sb.append(limit());
+        sb.append(" cap=");
+        sb.append(capacity());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the current hash code of this buffer.  The hash code of a
+     * byte buffer depends only upon its remaining elements.  Because buffer
+     * hash codes are content-dependent, it is inadvisable to use buffers as
+     * keys in hash maps or similar data structures unless it is known that
+     * their contents will not change.
+     *
+     * @return the current hash code of this buffer.
+     */
+    public int hashCode() {
+        int h = 1;
+        int p = position();
+        for (int i = limit() - 1; i >= p; i--)
+            h = 31 * h + (int) get(i);
+        return h;
+    }
+
+    /**
+     * Tells whether or not this buffer is equal to another object.  Two
+     * byte buffers are equal if, and only if, they have the same number of
+     * remaining elements and the two sequences of remaining elements,
+     * considered independently of their starting positions, are pointwise
+     * equal.  A byte buffer is not equal to any other type of object.
+     *
+     * @param ob the object to which this buffer is to be compared.
+     * @return <tt>true</tt> if, and only if, this buffer is equal to the
+     *         given object.
+     */
+    public boolean equals(Object ob) {
+        if (this == ob)
+            return true;
+        if (!(ob instanceof ByteBuffer))
+            return false;
+        ByteBuffer that = (ByteBuffer) ob;
+        if (this.remaining() != that.remaining())
+            return false;
+        int p = this.position();
+        for (int i = this.limit() - 1, j = that.limit() - 1; i >= p; i--, j--)
+            if (this.get(i) != that.get(j))
+                return false;
+        return true;
+    }
+
+    /**
+     * Compares this buffer to another.  Two byte buffers are compared by
+     * comparing their sequences of remaining elements lexicographically,
+     * without regard to the starting position of each sequence within its
+     * corresponding buffer.
+     *
+     * @param ob the object to which this buffer is to be compared.
+     * @return a negative integer, zero, or a positive integer as this
+     *         buffer is less than, equal to, or greater than the given
+     *         buffer.
+     * @exception ClassCastException if the argument is not a byte buffer.
+     */
+    public int compareTo(Object ob) {
+        ByteBuffer that = (ByteBuffer) ob;
+        int n = this.position() + Math.min(this.remaining(), that.remaining());
+        for (int i = this.position(), j = that.position(); i < n; i++, j++) {
+            byte v1 = this.get(i);
+            byte v2 = that.get(j);
+            if (v1 == v2)
+                continue;
+            if (v1 < v2)
+                return -1;
+            return +1;
+        }
+        return this.remaining() - that.remaining();
+    }
+
+    // -- Byte order --
+
+    boolean bigEndian = true;
+    boolean nativeByteOrder = (Bits.byteOrder() == ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Retrieves this buffer's byte order.  The byte order is used when
+     * reading or writing multibyte values.  The order of a newly-created
+     * byte buffer is always {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.
+     *
+     * @return this buffer's byte order.
+     */
+    public final ByteOrder order() {
+        return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+
+    /**
+     * Modifies this buffer's byte order.
+     *
+     * @param bo the new byte order, either
+     *        {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN} or
+     *        {@link ByteOrder#LITTLE_ENDIAN LITTLE_ENDIAN}.
+     * @return this buffer.
+     */
+    public final ByteBuffer order(ByteOrder bo) {
+        bigEndian = (bo == ByteOrder.BIG_ENDIAN);
+        nativeByteOrder =
+            (bigEndian == (Bits.byteOrder() == ByteOrder.BIG_ENDIAN));
+        return this;
+    }
+
+    // -- Primitive-type accessors --
+    //
+    // Each relative method reads or writes the value at the current
+    // position and then advances the position by the size of the value,
+    // throwing BufferUnderflowException or BufferOverflowException if
+    // fewer bytes than that remain.  Each absolute method reads or writes
+    // the value at the given index, throwing IndexOutOfBoundsException if
+    // the value would not fit below the limit.  All of them use this
+    // buffer's current byte order, and the put methods throw
+    // ReadOnlyBufferException if this buffer is read-only.
+
+    /**
+     * Relative <i>get</i> method for reading a char value.
+     *
+     * @return the char value at the buffer's current position.
+     */
+    public abstract char getChar();
+
+    /**
+     * Relative <i>put</i> method for writing a char value.
+     *
+     * @param value the char value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putChar(char value);
+
+    /**
+     * Absolute <i>get</i> method for reading a char value.
+     *
+     * @param index the index from which the bytes will be read.
+     * @return the char value at the given index.
+     */
+    public abstract char getChar(int index);
+
+    /**
+     * Absolute <i>put</i> method for writing a char value.
+     *
+     * @param index the index at which the bytes will be written.
+     * @param value the char value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putChar(int index, char value);
+
+    /**
+     * Relative <i>get</i> method for reading a short value.
+     *
+     * @return the short value at the buffer's current position.
+     */
+    public abstract short getShort();
+
+    /**
+     * Relative <i>put</i> method for writing a short value.
+     *
+     * @param value the short value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putShort(short value);
+
+    /**
+     * Absolute <i>get</i> method for reading a short value.
+     *
+     * @param index the index from which the bytes will be read.
+     * @return the short value at the given index.
+     */
+    public abstract short getShort(int index);
+
+    /**
+     * Absolute <i>put</i> method for writing a short value.
+     *
+     * @param index the index at which the bytes will be written.
+     * @param value the short value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putShort(int index, short value);
+
+    /**
+     * Relative <i>get</i> method for reading an int value.
+     *
+     * @return the int value at the buffer's current position.
+     */
+    public abstract int getInt();
+
+    /**
+     * Relative <i>put</i> method for writing an int value.
+     *
+     * @param value the int value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putInt(int value);
+
+    /**
+     * Absolute <i>get</i> method for reading an int value.
+     *
+     * @param index the index from which the bytes will be read.
+     * @return the int value at the given index.
+     */
+    public abstract int getInt(int index);
+
+    /**
+     * Absolute <i>put</i> method for writing an int value.
+     *
+     * @param index the index at which the bytes will be written.
+     * @param value the int value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putInt(int index, int value);
+
+    /**
+     * Relative <i>get</i> method for reading a long value.
+     *
+     * @return the long value at the buffer's current position.
+     */
+    public abstract long getLong();
+
+    /**
+     * Relative <i>put</i> method for writing a long value.
+     *
+     * @param value the long value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putLong(long value);
+
+    /**
+     * Absolute <i>get</i> method for reading a long value.
+     *
+     * @param index the index from which the bytes will be read.
+     * @return the long value at the given index.
+     */
+    public abstract long getLong(int index);
+
+    /**
+     * Absolute <i>put</i> method for writing a long value.
+     *
+     * @param index the index at which the bytes will be written.
+     * @param value the long value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putLong(int index, long value);
+
+    /**
+     * Relative <i>get</i> method for reading a float value.
+     *
+     * @return the float value at the buffer's current position.
+     */
+    public abstract float getFloat();
+
+    /**
+     * Relative <i>put</i> method for writing a float value.
+     *
+     * @param value the float value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putFloat(float value);
+
+    /**
+     * Absolute <i>get</i> method for reading a float value.
+     *
+     * @param index the index from which the bytes will be read.
+     * @return the float value at the given index.
+     */
+    public abstract float getFloat(int index);
+
+    /**
+     * Absolute <i>put</i> method for writing a float value.
+     *
+     * @param index the index at which the bytes will be written.
+     * @param value the float value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putFloat(int index, float value);
+
+    /**
+     * Relative <i>get</i> method for reading a double value.
+     *
+     * @return the double value at the buffer's current position.
+     */
+    public abstract double getDouble();
+
+    /**
+     * Relative <i>put</i> method for writing a double value.
+     *
+     * @param value the double value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putDouble(double value);
+
+    /**
+     * Absolute <i>get</i> method for reading a double value.
+     *
+     * @param index the index from which the bytes will be read.
+     * @return the double value at the given index.
+     */
+    public abstract double getDouble(int index);
+
+    /**
+     * Absolute <i>put</i> method for writing a double value.
+     *
+     * @param index the index at which the bytes will be written.
+     * @param value the double value to be written.
+     * @return this buffer.
+     */
+    public abstract ByteBuffer putDouble(int index, double value);
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio;
+
+import sun.misc.Unsafe;
+
+/**
+ * A read/write or read-only byte buffer whose content is held in native
+ * memory, outside of the garbage-collected heap: either memory allocated
+ * for the buffer or a mapped region of a file.  The memory is released, or
+ * the region unmapped, once this buffer and every buffer derived from it
+ * are unreachable.
+ * <p>
+ * Its memory is reached through <tt>sun.misc.Unsafe</tt>, whose raw-memory
+ * methods this VM does not yet provide (see <tt>Bits</tt>), so this class
+ * cannot be used here as it stands.
+ */
+class DirectByteBuffer extends MappedByteBuffer
+    implements sun.nio.ch.DirectBuffer
+{
+
+    protected static final Unsafe unsafe = Bits.unsafe();
+
+    protected static final boolean unaligned = Bits.unaligned();
+
+    static {
+        // For the bulk copy methods of Bits
+        java.security.AccessController.doPrivileged(
+                  new sun.security.action.LoadLibraryAction("nio"));
+    }
+
+    // Address of the element at index zero
+    protected final long address;
+
+    // The object that frees the memory, or unmaps the file region, shared
+    // by this buffer and by all slices and duplicates of it.  A view holds a
+    // reference to it so that the memory is not released while the view is
+    // still reachable.
+    private final Object att;
+
+    /**
+     * Frees a block of native memory once the last buffer that refers to
+     * it has been collected.
+     */
+    private static class Deallocator {
+
+        private long address;
+
+        Deallocator(long address) {
+            this.address = address;
+        }
+
+        protected synchronized void finalize() {
+            if (address == 0)
+                return;
+            unsafe.freeMemory(address);
+            address = 0;
+        }
+    }
+
+    DirectByteBuffer(int cap) {
+        super(-1, 0, cap, cap);
+        long base = unsafe.allocateMemory(Math.max(1, cap));
+        unsafe.setMemory(base, cap, (byte) 0);
+        address = base;
+        att = new Deallocator(base);
+    }
+
+    // Invoked only by sun.nio.ch.Util, via reflection, to create a buffer
+    // for a mapped file region.  The unmapper's finalizer unmaps the region.
+    //
+    protected DirectByteBuffer(int cap, long addr, Object unmapper,
+                               boolean readOnly)
+    {
+        super(-1, 0, cap, cap, true);
+        address = addr;
+        att = unmapper;
+        isReadOnly = readOnly;
+    }
+
+    // For slices and duplicates; off is relative to db's address
+    DirectByteBuffer(DirectByteBuffer db, int mark, int pos, int lim, int cap,
+                     int off, boolean readOnly)
+    {
+        super(mark, pos, lim, cap, db.isAMappedBuffer);
+        address = db.address + off;
+        att = db.att;
+        isReadOnly = readOnly;
+    }
+
+    public long address() {
+        return address;
+    }
+
+    public ByteBuffer slice() {
+        int pos = this.position();
+        int rem = this.remaining();
+        return new DirectByteBuffer(this, -1, 0, rem, rem, pos, isReadOnly);
+    }
+
+    public ByteBuffer duplicate() {
+        return new DirectByteBuffer(this, this.markValue(), this.position(),
+                                    this.limit(), this.capacity(), 0,
+                                    isReadOnly);
+    }
+
+    public ByteBuffer asReadOnlyBuffer() {
+        return new DirectByteBuffer(this, this.markValue(), this.position(),
+                                    this.limit(), this.capacity(), 0, true);
+    }
+
+    private long ix(int i) {
+        return address + i;
+    }
+
+    private void checkWritable() {
+        if (isReadOnly)
+            throw new ReadOnlyBufferException();
+    }
+
+    public byte get() {
+        return unsafe.getByte(ix(nextGetIndex()));
+    }
+
+    public byte get(int i) {
+        return unsafe.getByte(ix(checkIndex(i)));
+    }
+
+    public ByteBuffer get(byte[] dst, int offset, int length) {
+        if (length <= Bits.JNI_COPY_TO_ARRAY_THRESHOLD)
+            return super.get(dst, offset, length);
+        checkBounds(offset, length, dst.length);
+        int pos = position();
+        if (length > limit() - pos)
+            throw new BufferUnderflowException();
+        Bits.copyToByteArray(ix(pos), dst, offset, length);
+        position(pos + length);
+        return this;
+    }
+
+    public boolean isDirect() {
+        return true;
+    }
+
+    public boolean isReadOnly() {
+        return isReadOnly;
+    }
+
+    public ByteBuffer put(byte x) {
+        checkWritable();
+        unsafe.putByte(ix(nextPutIndex()), x);
+        return this;
+    }
+
+    public ByteBuffer put(int i, byte x) {
+        checkWritable();
+        unsafe.putByte(ix(checkIndex(i)), x);
+        return this;
+    }
+
+    public ByteBuffer put(byte[] src, int offset, int length) {
+        checkWritable();
+        if (length <= Bits.JNI_COPY_FROM_ARRAY_THRESHOLD)
+            return super.put(src, offset, length);
+        checkBounds(offset, length, src.length);
+        int pos = position();
+        if (length > limit() - pos)
+            throw new BufferOverflowException();
+        Bits.copyFromByteArray(src, offset, ix(pos), length);
+        position(pos + length);
+        return this;
+    }
+
+    public ByteBuffer put(ByteBuffer src) {
+        if (src instanceof DirectByteBuffer) {
+            if (src == this)
+                throw new IllegalArgumentException();
+            checkWritable();
+            DirectByteBuffer sb = (DirectByteBuffer) src;
+            int spos = sb.position();
+            int n = sb.remaining();
+            int pos = position();
+            if (n > limit() - pos)
+                throw new BufferOverflowException();
+            unsafe.copyMemory(sb.ix(spos), ix(pos), n);
+            sb.position(spos + n);
+            position(pos + n);
+        } else if (src.hb != null) {
+            int spos = src.position();
+            int n = src.remaining();
+            put(src.hb, src.offset + spos, n);
+            src.position(spos + n);
+        } else {
+            super.put(src);
+        }
+        return this;
+    }
+
+    public ByteBuffer compact() {
+        checkWritable();
+        int pos = position();
+        int rem = remaining();
+        unsafe.copyMemory(ix(pos), ix(0), rem);
+        position(rem);
+        limit(capacity());
+        return this;
+    }
+
+    // -- Primitive-type accessors --
+    //
+    // Where the processor permits unaligned access a value is moved with a
+    // single load or store and swapped if this buffer's order is not the
+    // native order; otherwise it is assembled a byte at a time.
+
+    private short getShortRaw(long a) {
+        if (unaligned) {
+            short x = unsafe.getShort(a);
+            return nativeByteOrder ? x : Bits.swap(x);
+        }
+        return Bits.getShort(a, bigEndian);
+    }
+
+    private void putShortRaw(long a, short x) {
+        if (unaligned)
+            unsafe.putShort(a, nativeByteOrder ? x : Bits.swap(x));
+        else
+            Bits.putShort(a, x, bigEndian);
+    }
+
+    private int getIntRaw(long a) {
+        if (unaligned) {
+            int x = unsafe.getInt(a);
+            return nativeByteOrder ? x : Bits.swap(x);
+        }
+        return Bits.getInt(a, bigEndian);
+    }
+
+    private void putIntRaw(long a, int x) {
+        if (unaligned)
+            unsafe.putInt(a, nativeByteOrder ? x : Bits.swap(x));
+        else
+            Bits.putInt(a, x, bigEndian);
+    }
+
+    private long getLongRaw(long a) {
+        if (unaligned) {
+            long x = unsafe.getLong(a);
+            return nativeByteOrder ? x : Bits.swap(x);
+        }
+        return Bits.getLong(a, bigEndian);
+    }
+
+    private void putLongRaw(long a, long x) {
+        if (unaligned)
+            unsafe.putLong(a, nativeByteOrder ? x : Bits.swap(x));
+        else
+            Bits.putLong(a, x, bigEndian);
+    }
+
+    public char getChar() {
+        return (char) getShortRaw(ix(nextGetIndex(2)));
+    }
+
+    public char getChar(int i) {
+        return (char) getShortRaw(ix(checkIndex(i, 2)));
+    }
+
+    public ByteBuffer putChar(char x) {
+        checkWritable();
+        putShortRaw(ix(nextPutIndex(2)), (short) x);
+        return this;
+    }
+
+    public ByteBuffer putChar(int i, char x) {
+        checkWritable();
+        putShortRaw(ix(checkIndex(i, 2)), (short) x);
+        return this;
+    }
+
+    public short getShort() {
+        return getShortRaw(ix(nextGetIndex(2)));
+    }
+
+    public short getShort(int i) {
+        return getShortRaw(ix(checkIndex(i, 2)));
+    }
+
+    public ByteBuffer putShort(short x) {
+        checkWritable();
+        putShortRaw(ix(nextPutIndex(2)), x);
+        return this;
+    }
+
+    public ByteBuffer putShort(int i, short x) {
+        checkWritable();
+        putShortRaw(ix(checkIndex(i, 2)), x);
+        return this;
+    }
+
+    public int getInt() {
+        return getIntRaw(ix(nextGetIndex(4)));
+    }
+
+    public int getInt(int i) {
+        return getIntRaw(ix(checkIndex(i, 4)));
+    }
+
+    public ByteBuffer putInt(int x) {
+        checkWritable();
+        putIntRaw(ix(nextPutIndex(4)), x);
+        return this;
+    }
+
+    public ByteBuffer putInt(int i, int x) {
+        checkWritable();
+        putIntRaw(ix(checkIndex(i, 4)), x);
+        return this;
+    }
+
+    public long getLong() {
+        return getLongRaw(ix(nextGetIndex(8)));
+    }
+
+    public long getLong(int i) {
+        return getLongRaw(ix(checkIndex(i, 8)));
+    }
+
+    public ByteBuffer putLong(long x) {
+        checkWritable();
+        putLongRaw(ix(nextPutIndex(8)), x);
+        return this;
+    }
+
+    public ByteBuffer putLong(int i, long x) {
+        checkWritable();
+        putLongRaw(ix(checkIndex(i, 8)), x);
+        return this;
+    }
+
+    public float getFloat() {
+        return Float.intBitsToFloat(getIntRaw(ix(nextGetIndex(4))));
+    }
+
+    public float getFloat(int i) {
+        return Float.intBitsToFloat(getIntRaw(ix(checkIndex(i, 4))));
+    }
+
+    public ByteBuffer putFloat(float x) {
+        checkWritable();
+        putIntRaw(ix(nextPutIndex(4)), Float.floatToIntBits(x));
+        return this;
+    }
+
+    public ByteBuffer putFloat(int i, float x) {
+        checkWritable();
+        putIntRaw(ix(checkIndex(i, 4)), Float.floatToIntBits(x));
+        return this;
+    }
+
+    public double getDouble() {
+        return Double.longBitsToDouble(getLongRaw(ix(nextGetIndex(8))));
+    }
+
+    public double getDouble(int i) {
+        return Double.longBitsToDouble(getLongRaw(ix(checkIndex(i, 8))));
+    }
+
+    public ByteBuffer putDouble(double x) {
+        checkWritable();
+        putLongRaw(ix(nextPutIndex(8)), Double.doubleToLongBits(x));
+        return this;
+    }
+
+    public ByteBuffer putDouble(int i, double x) {
+        checkWritable();
+        putLongRaw(ix(checkIndex(i, 8)), Double.doubleToLongBits(x));
+        return this;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio;
+
+/**
+ * A read/write or read-only byte buffer whose content is held in a Java
+ * byte array.
+ */
+class HeapByteBuffer extends ByteBuffer {
+
+    HeapByteBuffer(int cap, int lim) {
+        super(-1, 0, lim, cap, new byte[cap], 0);
+    }
+
+    HeapByteBuffer(byte[] buf, int off, int len) {
+        super(-1, off, off + len, buf.length, buf, 0);
+    }
+
+    protected HeapByteBuffer(byte[] buf, int mark, int pos, int lim, int cap,
+                             int off, boolean readOnly)
+    {
+        super(mark, pos, lim, cap, buf, off);
+        this.isReadOnly = readOnly;
+    }
+
+    public ByteBuffer slice() {
+        return new HeapByteBuffer(hb, -1, 0, this.remaining(),
+                                  this.remaining(),
+                                  this.position() + offset, isReadOnly);
+    }
+
+    public ByteBuffer duplicate() {
+        return new HeapByteBuffer(hb, this.markValue(), this.position(),
+                                  this.limit(), this.capacity(), offset,
+                                  isReadOnly);
+    }
+
+    public ByteBuffer asReadOnlyBuffer() {
+        return new HeapByteBuffer(hb, this.markValue(), this.position(),
+                                  this.limit(), this.capacity(), offset,
+                                  true);
+    }
+
+    protected int ix(int i) {
+        return i + offset;
+    }
+
+    private void checkWritable() {
+        if (isReadOnly)
+            throw new ReadOnlyBufferException();
+    }
+
+    public byte get() {
+        return hb[ix(nextGetIndex())];
+    }
+
+    public byte get(int i) {
+        return hb[ix(checkIndex(i))];
+    }
+
+    public ByteBuffer get(byte[] dst, int offset, int length) {
+        checkBounds(offset, length, dst.length);
+        if (length > remaining())
+            throw new BufferUnderflowException();
+        System.arraycopy(hb, ix(position()), dst, offset, length);
+        position(position() + length);
+        return this;
+    }
+
+    public boolean isDirect() {
+        return false;
+    }
+
+    public boolean isReadOnly() {
+        return isReadOnly;
+    }
+
+    public ByteBuffer put(byte x) {
+        checkWritable();
+        hb[ix(nextPutIndex())] = x;
+        return this;
+    }
+
+    public ByteBuffer put(int i, byte x) {
+        checkWritable();
+        hb[ix(checkIndex(i))] = x;
+        return this;
+    }
+
+    public ByteBuffer put(byte[] src, int offset, int length) {
+        checkWritable();
+        checkBounds(offset, length, src.length);
+        if (length > remaining())
+            throw new BufferOverflowException();
+        System.arraycopy(src, offset, hb, ix(position()), length);
+        position(position() + length);
+        return this;
+    }
+
+    public ByteBuffer put(ByteBuffer src) {
+        if (src instanceof HeapByteBuffer) {
+            if (src == this)
+                throw new IllegalArgumentException();
+            checkWritable();
+            HeapByteBuffer sb = (HeapByteBuffer) src;
+            int n = sb.remaining();
+            if (n > remaining())
+                throw new BufferOverflowException();
+            System.arraycopy(sb.hb, sb.ix(sb.position()),
+                             hb, ix(position()), n);
+            sb.position(sb.position() + n);
+            position(position() + n);
+        } else if (src.isDirect()) {
+            checkWritable();
+            int n = src.remaining();
+            if (n > remaining())
+                throw new BufferOverflowException();
+            src.get(hb, ix(position()), n);
+            position(position() + n);
+        } else {
+            super.put(src);
+        }
+        return this;
+    }
+
+    public ByteBuffer compact() {
+        checkWritable();
+        System.arraycopy(hb, ix(position()), hb, ix(0), remaining());
+        position(remaining());
+        limit(capacity());
+        return this;
+    }
+
+    // -- Primitive-type accessors --
+
+    public char getChar() {
+        return Bits.getChar(hb, ix(nextGetIndex(2)), bigEndian);
+    }
+
+    public char getChar(int i) {
+        return Bits.getChar(hb, ix(checkIndex(i, 2)), bigEndian);
+    }
+
+    public ByteBuffer putChar(char x) {
+        checkWritable();
+        Bits.putChar(hb, ix(nextPutIndex(2)), x, bigEndian);
+        return this;
+    }
+
+    public ByteBuffer putChar(int i, char x) {
+        checkWritable();
+        Bits.putChar(hb, ix(checkIndex(i, 2)), x, bigEndian);
+        return this;
+    }
+
+    public short getShort() {
+        return Bits.getShort(hb, ix(nextGetIndex(2)), bigEndian);
+    }
+
+    public short getShort(int i) {
+        return Bits.getShort(hb, ix(checkIndex(i, 2)), bigEndian);
+    }
+
+    public ByteBuffer putShort(short x) {
+        checkWritable();
+        Bits.putShort(hb, ix(nextPutIndex(2)), x, bigEndian);
+        return this;
+    }
+
+    public ByteBuffer putShort(int i, short x) {
+        checkWritable();
+        Bits.putShort(hb, ix(checkIndex(i, 2)), x, bigEndian);
+        return this;
+    }
+
+    public int getInt() {
+        return Bits.getInt(hb, ix(nextGetIndex(4)), bigEndian);
+    }
+
+    public int getInt(int i) {
+        return Bits.getInt(hb, ix(checkIndex(i, 4)), bigEndian);
+    }
+
+    public ByteBuffer putInt(int x) {
+        checkWritable();
+        Bits.putInt(hb, ix(nextPutIndex(4)), x, bigEndian);
+        return this;
+    }
+
+    public ByteBuffer putInt(int i, int x) {
+        checkWritable();
+        Bits.putInt(hb, ix(checkIndex(i, 4)), x, bigEndian);
+        return this;
+    }
+
+    public long getLong() {
+        return Bits.getLong(hb, ix(nextGetIndex(8)), bigEndian);
+    }
+
+    public long getLong(int i) {
+        return Bits.getLong(hb, ix(checkIndex(i, 8)), bigEndian);
+    }
+
+    public ByteBuffer putLong(long x) {
+        checkWritable();
+        Bits.putLong(hb, ix(nextPutIndex(8)), x, bigEndian);
+        return this;
+    }
+
+    public ByteBuffer putLong(int i, long x) {
+        checkWritable();
+        Bits.putLong(hb, ix(checkIndex(i, 8)), x, bigEndian);
+        return this;
+    }
+
+    public float getFloat() {
+        return Bits.getFloat(hb, ix(nextGetIndex(4)), bigEndian);
+    }
+
+    public float getFloat(int i) {
+        return Bits.getFloat(hb, ix(checkIndex(i, 4)), bigEndian);
+    }
+
+    public ByteBuffer putFloat(float x) {
+        checkWritable();
+        Bits.putFloat(hb, ix(nextPutIndex(4)), x, bigEndian);
+        return this;
+    }
+
+    public ByteBuffer putFloat(int i, float x) {
+        checkWritable();
+        Bits.putFloat(hb, ix(checkIndex(i, 4)), x, bigEndian);
+        return this;
+    }
+
+    public double getDouble() {
+        return Bits.getDouble(hb, ix(nextGetIndex(8)), bigEndian);
+    }
+
+    public double getDouble(int i) {
+        return Bits.getDouble(hb, ix(checkIndex(i, 8)), bigEndian);
+    }
+
+    public ByteBuffer putDouble(double x) {
+        checkWritable();
+        Bits.putDouble(hb, ix(nextPutIndex(8)), x, bigEndian);
+        return this;
+    }
+
+    public ByteBuffer putDouble(int i, double x) {
+        checkWritable();
+        Bits.putDouble(hb, ix(checkIndex(i, 8)), x, bigEndian);
+        return this;
+    }
+}
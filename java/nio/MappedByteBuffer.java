@@ -0,0 +1,138 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio;
+
+/**
+ * A direct byte buffer whose content is a memory-mapped region of a file.<p>
+ *
+ * Mapped byte buffers are created via the {@link
+ * java.nio.channels.FileChannel#map FileChannel.map} method.  This class
+ * extends the {@link ByteBuffer} class with operations that are specific to
+ * memory-mapped file regions.<p>
+ *
+ * A mapped byte buffer and the file mapping that it represents remain
+ * valid until the buffer itself, and every slice and duplicate derived from
+ * it, is garbage-collected.  Closing the channel from which the buffer was
+ * mapped does not invalidate the mapping, so a mapped buffer may be shared
+ * freely among threads without any risk that the memory behind it
+ * disappears while it is in use.<p>
+ *
+ * The content of a mapped byte buffer can change at any time, for example
+ * if the content of the corresponding region of the mapped file is changed
+ * by this program or another.  Whether or not such changes occur, and when
+ * they occur, is operating-system dependent.  All or part of a mapped byte
+ * buffer may become inaccessible at any time, for example if the mapped
+ * file is truncated.  An attempt to access an inaccessible region of a
+ * mapped byte buffer will not change the buffer's content and will cause
+ * an unspecified exception to be thrown either at the time of the access
+ * or at some later time.
+ *
+ * @version 1.1, 10/15/26
+ * @see     java.nio.channels.FileChannel#map
+ * @since   1.4
+ */
+public abstract class MappedByteBuffer extends ByteBuffer {
+
+    // This is a little bit backwards: By rights MappedByteBuffer should be
+    // a subclass of DirectByteBuffer, but to keep the spec clear and simple,
+    // and for optimization purposes, it's easier to do it the other way
+    // around.  This works because DirectByteBuffer is a package-private
+    // class.
+
+    // True if this buffer's content is a mapped file region, false if it is
+    // a plain direct buffer
+    final boolean isAMappedBuffer;
+
+    MappedByteBuffer(int mark, int pos, int lim, int cap, boolean mapped) {
+        super(mark, pos, lim, cap);
+        this.isAMappedBuffer = mapped;
+    }
+
+    MappedByteBuffer(int mark, int pos, int lim, int cap) {
+        this(mark, pos, lim, cap, false);
+    }
+
+    private long address() {
+        return ((sun.nio.ch.DirectBuffer) this).address();
+    }
+
+    /**
+     * Tells whether or not this buffer's content is resident in physical
+     * memory.  A return value of <tt>true</tt> implies that it is highly
+     * likely that all of the data in this buffer is resident in physical
+     * memory and may therefore be accessed without incurring any virtual
+     * memory page faults or I/O operations.  This method is only a hint.
+     *
+     * @return <tt>true</tt> if it is likely that this buffer's content is
+     *         resident in physical memory.
+     */
+    public final boolean isLoaded() {
+        if (!isAMappedBuffer || capacity() == 0)
+            return true;
+        return isLoaded0(address(), capacity());
+    }
+
+    /**
+     * Loads this buffer's content into physical memory.  This method makes
+     * a best effort to ensure that, when it returns, this buffer's content
+     * is resident in physical memory.
+     *
+     * @return this buffer.
+     */
+    public final MappedByteBuffer load() {
+        if (!isAMappedBuffer || capacity() == 0)
+            return this;
+        long a = address();
+        int cap = capacity();
+        load0(a, cap);
+
+        // Touch one byte in each page, so that every page is faulted in
+        // even where the advice given by load0 is ignored
+        sun.misc.Unsafe unsafe = Bits.unsafe();
+        int ps = Bits.pageSize();
+        byte x = 0;
+        for (int i = 0; i < cap; i += ps)
+            x ^= unsafe.getByte(a + i);
+        return this;
+    }
+
+    /**
+     * Forces any changes made to this buffer's content to be written to
+     * the storage device containing the mapped file.  If the file resides
+     * on a local storage device then when this method returns it is
+     * guaranteed that all changes made to the buffer since it was created,
+     * or since this method was last invoked, will have been written to that
+     * device.  If this buffer was not mapped in read/write mode then
+     * invoking this method has no effect.
+     *
+     * @return this buffer.
+     */
+    public final MappedByteBuffer force() {
+        if (isAMappedBuffer && !isReadOnly() && capacity() > 0)
+            force0(address(), capacity());
+        return this;
+    }
+
+    // -- Native methods --
+
+    // These belong to the nio library, which is not built from this tree
+    // (see sun.nio.ch.Util.load); until it is supplied, load, isLoaded and
+    // force fail with UnsatisfiedLinkError on a mapped buffer.
+
+    // Advises the operating system that the given pages will be needed
+    private static native void load0(long address, long length);
+
+    // Tells whether all pages of the given range are resident
+    private static native boolean isLoaded0(long address, long length);
+
+    // Synchronously writes the dirty pages of the given range to the file
+    private static native void force0(long address, long length);
+
+    static {
+        java.security.AccessController.doPrivileged(
+                  new sun.security.action.LoadLibraryAction("nio"));
+    }
+}
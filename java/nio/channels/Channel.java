@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+
+/**
+ * A nexus for I/O operations.<p>
+ *
+ * A channel represents an open connection to an entity such as a hardware
+ * device, a file, a network socket, or a program component that is capable
+ * of performing one or more distinct I/O operations, for example reading or
+ * writing.<p>
+ *
+ * A channel is either open or closed.  A channel is open upon creation,
+ * and once closed it remains closed.  Once a channel is closed, any attempt
+ * to invoke an I/O operation upon it will cause a
+ * {@link ClosedChannelException} to be thrown.  Whether or not a channel is
+ * open may be tested by invoking its {@link #isOpen isOpen} method.<p>
+ *
+ * Channels are, in general, intended to be safe for multithreaded access
+ * as described in the specifications of the interfaces and classes that
+ * extend and implement this interface.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public interface Channel {
+
+    /**
+     * Tells whether or not this channel is open.
+     *
+     * @return <tt>true</tt> if, and only if, this channel is open.
+     */
+    public boolean isOpen();
+
+    /**
+     * Closes this channel.<p>
+     *
+     * After a channel is closed, any further attempt to invoke I/O
+     * operations upon it will cause a {@link ClosedChannelException} to be
+     * thrown.  If this channel is already closed then invoking this method
+     * has no effect.<p>
+     *
+     * This method may be invoked at any time.  If some other thread has
+     * already invoked it, however, then another invocation will block until
+     * the first invocation is complete, after which it will return without
+     * effect.
+     *
+     * @exception IOException if an I/O error occurs.
+     */
+    public void close() throws IOException;
+}
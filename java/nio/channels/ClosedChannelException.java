@@ -0,0 +1,22 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+/**
+ * Checked exception thrown when an attempt is made to invoke or complete an
+ * I/O operation upon a channel that is closed, or at least closed to that
+ * operation.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public class ClosedChannelException extends java.io.IOException {
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public ClosedChannelException() { }
+}
@@ -0,0 +1,660 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * A channel for reading, writing, and manipulating a file.<p>
+ *
+ * A file channel has a current <i>position</i> within its file which can
+ * be both {@link #position() <i>queried</i>} and
+ * {@link #position(long) <i>modified</i>}.  The file itself contains a
+ * variable-length sequence of bytes that can be read and written and whose
+ * current {@link #size <i>size</i>} can be queried.  The size of the file
+ * increases when bytes are written beyond its current size; the size of the
+ * file decreases when it is {@link #truncate <i>truncated</i>}.<p>
+ *
+ * A file channel is obtained from an existing {@link java.io.FileInputStream},
+ * {@link java.io.FileOutputStream}, or {@link java.io.RandomAccessFile}
+ * object by invoking that object's <tt>getChannel</tt> method.  The channel
+ * is connected to the same underlying file as the stream, and shares its
+ * position: reading or writing through one advances the other.  A channel
+ * obtained from a <tt>FileInputStream</tt> is open for reading only, one
+ * obtained from a <tt>FileOutputStream</tt> for writing only, and one
+ * obtained from a <tt>RandomAccessFile</tt> for reading, and for writing if
+ * the file was opened in mode <tt>"rw"</tt>.  Closing the channel closes
+ * the stream, and closing the stream closes the channel.<p>
+ *
+ * Bytes read into, or written from, a direct {@link ByteBuffer} move
+ * between the file and the buffer's native memory without being copied
+ * through a Java array.  A region of the file may also be
+ * {@link #map <i>mapped</i>} directly into memory, so that it can be read
+ * and written through a buffer with no system call at all.<p>
+ *
+ * File channels are safe for use by multiple concurrent threads.  Only one
+ * operation that involves the channel's position or can change its file's
+ * size may be in progress at any given time; the {@link
+ * #read(ByteBuffer,long) positional} read and write methods, which neither
+ * use nor change the position, may proceed concurrently with each other
+ * and with such an operation.  Regions of the file may be {@link #lock
+ * <i>locked</i>} against access by other programs.
+ *
+ * @version 1.1, 10/15/26
+ * @see     java.io.FileInputStream#getChannel()
+ * @see     java.io.FileOutputStream#getChannel()
+ * @see     java.io.RandomAccessFile#getChannel()
+ * @since   1.4
+ */
+public abstract class FileChannel
+    implements ByteChannel, GatheringByteChannel, ScatteringByteChannel
+{
+
+    private final Object closeLock = new Object();
+    private volatile boolean open = true;
+
+    /**
+     * Initializes a new instance of this class.
+     */
+    protected FileChannel() { }
+
+    /**
+     * Closes this channel.  If the channel has already been closed then
+     * this method returns immediately; otherwise it marks the channel as
+     * closed and then invokes the {@link #implCloseChannel implCloseChannel}
+     * method in order to complete the close operation.
+     *
+     * @exception IOException if an I/O error occurs.
+     */
+    public final void close() throws IOException {
+        synchronized (closeLock) {
+            if (!open)
+                return;
+            open = false;
+            implCloseChannel();
+        }
+    }
+
+    /**
+     * Closes this channel.  This method is invoked by the {@link #close
+     * close} method in order to perform the actual work of closing the
+     * channel.  It is only invoked if the channel has not yet been closed,
+     * and it is never invoked more than once.
+     *
+     * @exception IOException if an I/O error occurs while closing the
+     *            channel.
+     */
+    protected abstract void implCloseChannel() throws IOException;
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    // -- Channel operations --
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffer,
+     * starting at this channel's current file position, and then updates
+     * the file position with the number of bytes actually read.
+     *
+     * @param dst the buffer into which bytes are to be transferred.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-file.
+     * @exception NonReadableChannelException if this channel was not opened
+     *            for reading.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract int read(ByteBuffer dst) throws IOException;
+
+    /**
+     * Writes a sequence of bytes to this channel from the given buffer,
+     * starting at this channel's current file position unless the channel
+     * is in append mode, in which case the position is first advanced to
+     * the end of the file.  The file is grown, if necessary, to accommodate
+     * the written bytes, and then the file position is updated with the
+     * number of bytes actually written.  This method returns only once all
+     * of the remaining bytes in the buffer have been written.
+     *
+     * @param src the buffer from which bytes are to be retrieved.
+     * @return the number of bytes written.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract int write(ByteBuffer src) throws IOException;
+
+    /**
+     * Reads a sequence of bytes from this channel into a subsequence of the
+     * given buffers, starting at this channel's current file position, and
+     * then updates the file position with the number of bytes actually
+     * read.
+     *
+     * @param dsts the buffers into which bytes are to be transferred.
+     * @param offset the offset within the buffer array of the first buffer
+     *        into which bytes are to be transferred.
+     * @param length the maximum number of buffers to be accessed.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-file.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     * @exception NonReadableChannelException if this channel was not opened
+     *            for reading.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract long read(ByteBuffer[] dsts, int offset, int length)
+        throws IOException;
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffers.
+     *
+     * @param dsts the buffers into which bytes are to be transferred.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-file.
+     * @exception NonReadableChannelException if this channel was not opened
+     *            for reading.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public final long read(ByteBuffer[] dsts) throws IOException {
+        return read(dsts, 0, dsts.length);
+    }
+
+    /**
+     * Writes a sequence of bytes to this channel from a subsequence of the
+     * given buffers, starting at this channel's current file position
+     * unless the channel is in append mode, and then updates the file
+     * position with the number of bytes actually written.  This method
+     * returns only once all of the remaining bytes in the buffers have been
+     * written.
+     *
+     * @param srcs the buffers from which bytes are to be retrieved.
+     * @param offset the offset within the buffer array of the first buffer
+     *        from which bytes are to be retrieved.
+     * @param length the maximum number of buffers to be accessed.
+     * @return the number of bytes written.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract long write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException;
+
+    /**
+     * Writes a sequence of bytes to this channel from the given buffers.
+     *
+     * @param srcs the buffers from which bytes are to be retrieved.
+     * @return the number of bytes written.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public final long write(ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
+    // -- Positional I/O --
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffer,
+     * starting at the given file position.<p>
+     *
+     * This method works in the same manner as the {@link
+     * #read(ByteBuffer)} method, except that bytes are read starting at the
+     * given file position rather than at the channel's current position.
+     * This method does not modify this channel's position, and it does not
+     * exclude other threads: any number of positional reads and writes may
+     * be in progress upon the channel at once, so concurrent readers need
+     * not synchronize around a shared file pointer.  If the given position
+     * is greater than the file's current size then no bytes are read.
+     *
+     * @param dst the buffer into which bytes are to be transferred.
+     * @param position the file position at which the transfer is to begin;
+     *        must be non-negative.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         given position is greater than or equal to the file's current
+     *         size.
+     * @exception IllegalArgumentException if the position is negative.
+     * @exception NonReadableChannelException if this channel was not opened
+     *            for reading.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract int read(ByteBuffer dst, long position)
+        throws IOException;
+
+    /**
+     * Writes a sequence of bytes to this channel from the given buffer,
+     * starting at the given file position.<p>
+     *
+     * This method works in the same manner as the {@link
+     * #write(ByteBuffer)} method, except that bytes are written starting at
+     * the given file position rather than at the channel's current
+     * position.  This method does not modify this channel's position, and
+     * it may be invoked concurrently with other positional reads and
+     * writes.  If the given position is greater than the file's current
+     * size then the file will be grown to accommodate the new bytes; the
+     * values of any bytes between the previous end-of-file and the
+     * newly-written bytes are unspecified.
+     *
+     * @param src the buffer from which bytes are to be transferred.
+     * @param position the file position at which the transfer is to begin;
+     *        must be non-negative.
+     * @return the number of bytes written.
+     * @exception IllegalArgumentException if the position is negative.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract int write(ByteBuffer src, long position)
+        throws IOException;
+
+    // -- Other operations --
+
+    /**
+     * Returns this channel's file position.
+     *
+     * @return this channel's file position, a non-negative integer counting
+     *         the number of bytes from the beginning of the file to the
+     *         current position.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract long position() throws IOException;
+
+    /**
+     * Sets this channel's file position.  Setting the position to a value
+     * that is greater than the file's current size is legal but does not
+     * change the size of the file.  A later attempt to read bytes at such a
+     * position will immediately return an end-of-file indication, and a
+     * later attempt to write bytes there will cause the file to be grown;
+     * the values of any bytes between the previous end-of-file and the
+     * newly-written bytes are unspecified.
+     *
+     * @param newPosition the new position, a non-negative integer counting
+     *        the number of bytes from the beginning of the file.
+     * @return this file channel.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IllegalArgumentException if the new position is negative.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract FileChannel position(long newPosition) throws IOException;
+
+    /**
+     * Returns the current size of this channel's file.
+     *
+     * @return the current size of this channel's file, measured in bytes.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract long size() throws IOException;
+
+    /**
+     * Truncates this channel's file to the given size.  If the given size
+     * is less than the file's current size then the file is truncated,
+     * discarding any bytes beyond the new end of the file.  If the given
+     * size is greater than or equal to the file's current size then the
+     * file is not modified.  In either case, if this channel's file
+     * position is greater than the given size then it is set to that size.
+     *
+     * @param size the new size, a non-negative byte count.
+     * @return this file channel.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IllegalArgumentException if the new size is negative.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract FileChannel truncate(long size) throws IOException;
+
+    /**
+     * Forces any updates to this channel's file to be written to the
+     * storage device that contains it.  If the file resides on a local
+     * storage device then when this method returns it is guaranteed that
+     * all changes made to the file since this channel was created, or since
+     * this method was last invoked, will have been written to that device.
+     *
+     * @param metaData if <tt>true</tt> then this method is required to
+     *        force changes to both the file's content and its metadata to be
+     *        written to storage; otherwise, it need only force content
+     *        changes to be written.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract void force(boolean metaData) throws IOException;
+
+    // -- Transfers --
+
+    /**
+     * Transfers bytes from this channel's file to the given writable byte
+     * channel.<p>
+     *
+     * An attempt is made to read up to <tt>count</tt> bytes starting at
+     * the given <tt>position</tt> in this channel's file and write them to
+     * the target channel.  An invocation of this method may or may not
+     * transfer all of the requested bytes; whether or not it does so
+     * depends upon the natures and states of the channels.  Fewer than the
+     * requested number of bytes are transferred if this channel's file
+     * contains fewer than <tt>count</tt> bytes starting at the given
+     * <tt>position</tt>, or if the target channel is non-blocking and it
+     * has fewer than <tt>count</tt> bytes free in its output buffer.<p>
+     *
+     * This method does not modify this channel's position.  If the given
+     * position is greater than the file's current size then no bytes are
+     * transferred.  If the target channel has a position then bytes are
+     * written starting at that position and then the position is
+     * incremented by the number of bytes written.<p>
+     *
+     * This method is potentially much more efficient than a simple loop
+     * that reads from this channel and writes to the target channel.  Where
+     * the target is a socket channel or another file channel, the operating
+     * system may be able to transfer bytes directly from the filesystem
+     * cache to the target without copying them through the Java heap; on
+     * other platforms, or for other targets, the bytes are copied a chunk
+     * at a time.
+     *
+     * @param position the position within the file at which the transfer
+     *        is to begin; must be non-negative.
+     * @param count the maximum number of bytes to be transferred; must be
+     *        non-negative.
+     * @param target the target channel.
+     * @return the number of bytes, possibly zero, that were actually
+     *         transferred.
+     * @exception IllegalArgumentException if the preconditions on the
+     *            parameters do not hold.
+     * @exception NonReadableChannelException if this channel was not opened
+     *            for reading.
+     * @exception NonWritableChannelException if the target channel was not
+     *            opened for writing.
+     * @exception ClosedChannelException if either this channel or the
+     *            target channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract long transferTo(long position, long count,
+                                    WritableByteChannel target)
+        throws IOException;
+
+    /**
+     * Transfers bytes into this channel's file from the given readable byte
+     * channel.<p>
+     *
+     * An attempt is made to read up to <tt>count</tt> bytes from the
+     * source channel and write them to this channel's file starting at the
+     * given <tt>position</tt>.  An invocation of this method may or may not
+     * transfer all of the requested bytes; whether or not it does so
+     * depends upon the natures and states of the channels.  Fewer than the
+     * requested number of bytes will be transferred if the source channel
+     * has fewer than <tt>count</tt> bytes remaining, or if the source
+     * channel is non-blocking and has fewer than <tt>count</tt> bytes
+     * immediately available in its input buffer.<p>
+     *
+     * This method does not modify this channel's position.  If the given
+     * position is greater than the file's current size then no bytes are
+     * transferred.  If the source channel has a position then bytes are
+     * read starting at that position and then the position is incremented
+     * by the number of bytes read.<p>
+     *
+     * This method is potentially much more efficient than a simple loop
+     * that reads from the source channel and writes to this channel.  Where
+     * the source is another file channel, the operating system may be able
+     * to copy bytes between the files without copying them through the
+     * Java heap.
+     *
+     * @param src the source channel.
+     * @param position the position within the file at which the transfer
+     *        is to begin; must be non-negative.
+     * @param count the maximum number of bytes to be transferred; must be
+     *        non-negative.
+     * @return the number of bytes, possibly zero, that were actually
+     *         transferred.
+     * @exception IllegalArgumentException if the preconditions on the
+     *            parameters do not hold.
+     * @exception NonReadableChannelException if the source channel was not
+     *            opened for reading.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if either this channel or the
+     *            source channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract long transferFrom(ReadableByteChannel src,
+                                      long position, long count)
+        throws IOException;
+
+    // -- Locks --
+
+    /**
+     * Acquires a lock on the given region of this channel's file.<p>
+     *
+     * An invocation of this method will block until the region can be
+     * locked, this channel is closed, or another thread closes it.  The
+     * region need not be contained within, or even overlap, the actual
+     * underlying file, so a lock whose size is {@link Long#MAX_VALUE}
+     * covers the file even as it grows.<p>
+     *
+     * Some operating systems do not support shared locks, in which case a
+     * request for a shared lock is automatically converted into a request
+     * for an exclusive lock.  Whether the newly-acquired lock is shared or
+     * exclusive may be tested by invoking the resulting lock object's
+     * {@link FileLock#isShared() isShared} method.<p>
+     *
+     * File locks are held on behalf of the entire Java virtual machine.
+     * They are not suitable for controlling access to a file by multiple
+     * threads within the same virtual machine.
+     *
+     * @param position the position at which the locked region is to start;
+     *        must be non-negative.
+     * @param size the size of the locked region; must be non-negative, and
+     *        the sum <tt>position</tt>&nbsp;+&nbsp;<tt>size</tt> must be
+     *        non-negative.
+     * @param shared <tt>true</tt> to request a shared lock, in which case
+     *        this channel must be open for reading; <tt>false</tt> to
+     *        request an exclusive lock, in which case this channel must be
+     *        open for writing.
+     * @return a lock object representing the newly-acquired lock.
+     * @exception IllegalArgumentException if the preconditions on the
+     *            parameters do not hold.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception AsynchronousCloseException if another thread closes this
+     *            channel while the invoking thread is blocked in this
+     *            method.
+     * @exception OverlappingFileLockException if a lock that overlaps the
+     *            requested region is already held through this channel, or
+     *            if another thread is already blocked in this method and is
+     *            attempting to lock an overlapping region.
+     * @exception NonReadableChannelException if <tt>shared</tt> is
+     *            <tt>true</tt> but this channel was not opened for reading.
+     * @exception NonWritableChannelException if <tt>shared</tt> is
+     *            <tt>false</tt> but this channel was not opened for writing.
+     * @exception IOException if some other I/O error occurs.
+     * @see       #lock()
+     * @see       #tryLock(long,long,boolean)
+     */
+    public abstract FileLock lock(long position, long size, boolean shared)
+        throws IOException;
+
+    /**
+     * Acquires an exclusive lock on this channel's file.  An invocation of
+     * this method of the form <tt>fc.lock()</tt> behaves in exactly the
+     * same way as the invocation
+     * <blockquote><pre>
+     * fc.{@link #lock(long,long,boolean) lock}(0L, Long.MAX_VALUE, false)</pre></blockquote>
+     *
+     * @return a lock object representing the newly-acquired lock.
+     * @exception IOException if an I/O error occurs.
+     * @see       #lock(long,long,boolean)
+     */
+    public final FileLock lock() throws IOException {
+        return lock(0L, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Attempts to acquire a lock on the given region of this channel's
+     * file.  This method does not block.  An invocation always returns
+     * immediately, either having acquired a lock on the requested region or
+     * having failed to do so.  If it fails to acquire a lock because an
+     * overlapping lock is held by another program then it returns
+     * <tt>null</tt>.
+     *
+     * @param position the position at which the locked region is to start;
+     *        must be non-negative.
+     * @param size the size of the locked region; must be non-negative, and
+     *        the sum <tt>position</tt>&nbsp;+&nbsp;<tt>size</tt> must be
+     *        non-negative.
+     * @param shared <tt>true</tt> to request a shared lock,
+     *        <tt>false</tt> to request an exclusive lock.
+     * @return a lock object representing the newly-acquired lock, or
+     *         <tt>null</tt> if the lock could not be acquired because
+     *         another program holds an overlapping lock.
+     * @exception IllegalArgumentException if the preconditions on the
+     *            parameters do not hold.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception OverlappingFileLockException if a lock that overlaps the
+     *            requested region is already held through this channel, or
+     *            if another thread is already blocked in a lock method and
+     *            is attempting to lock an overlapping region.
+     * @exception IOException if some other I/O error occurs.
+     * @see       #lock(long,long,boolean)
+     * @see       #tryLock()
+     */
+    public abstract FileLock tryLock(long position, long size, boolean shared)
+        throws IOException;
+
+    /**
+     * Attempts to acquire an exclusive lock on this channel's file.  An
+     * invocation of this method of the form <tt>fc.tryLock()</tt> behaves
+     * in exactly the same way as the invocation
+     * <blockquote><pre>
+     * fc.{@link #tryLock(long,long,boolean) tryLock}(0L, Long.MAX_VALUE, false)</pre></blockquote>
+     *
+     * @return a lock object representing the newly-acquired lock, or
+     *         <tt>null</tt> if the lock could not be acquired because
+     *         another program holds an overlapping lock.
+     * @exception IOException if an I/O error occurs.
+     * @see       #tryLock(long,long,boolean)
+     */
+    public final FileLock tryLock() throws IOException {
+        return tryLock(0L, Long.MAX_VALUE, false);
+    }
+
+    // -- Memory-mapped buffers --
+
+    /**
+     * A typesafe enumeration for file-mapping modes.
+     *
+     * @version 1.1, 10/15/26
+     * @see     java.nio.channels.FileChannel#map
+     * @since   1.4
+     */
+    public static class MapMode {
+
+        /**
+         * Mode for a read-only mapping.
+         */
+        public static final MapMode READ_ONLY = new MapMode("READ_ONLY");
+
+        /**
+         * Mode for a read/write mapping.
+         */
+        public static final MapMode READ_WRITE = new MapMode("READ_WRITE");
+
+        /**
+         * Mode for a private (copy-on-write) mapping.
+         */
+        public static final MapMode PRIVATE = new MapMode("PRIVATE");
+
+        private final String name;
+
+        private MapMode(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns a string describing this file-mapping mode.
+         *
+         * @return a descriptive string.
+         */
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Maps a region of this channel's file directly into memory.<p>
+     *
+     * A region of a file may be mapped into memory in one of three modes:
+     * <ul>
+     *  <li><i>Read-only:</i> Any attempt to modify the resulting buffer will
+     *      cause a {@link java.nio.ReadOnlyBufferException} to be thrown.
+     *      ({@link MapMode#READ_ONLY MapMode.READ_ONLY})
+     *  <li><i>Read/write:</i> Changes made to the resulting buffer will
+     *      eventually be propagated to the file; they may or may not be made
+     *      visible to other programs that have mapped the same file.
+     *      ({@link MapMode#READ_WRITE MapMode.READ_WRITE})
+     *  <li><i>Private:</i> Changes made to the resulting buffer will not be
+     *      propagated to the file and will not be visible to other programs
+     *      that have mapped the same file; instead, they will cause private
+     *      copies of the modified portions of the buffer to be created.
+     *      ({@link MapMode#PRIVATE MapMode.PRIVATE})
+     * </ul>
+     * For a read-only mapping, this channel must have been opened for
+     * reading; for a read/write or private mapping, this channel must have
+     * been opened for both reading and writing.  If the requested region is
+     * not completely contained within this channel's file then the file is
+     * grown to the required size.<p>
+     *
+     * The {@link MappedByteBuffer <i>mapped byte buffer</i>} returned by
+     * this method will have a position of zero and a limit and capacity of
+     * <tt>size</tt>; its mark will be undefined.  The buffer and the mapping
+     * that it represents will remain valid until the buffer itself is
+     * garbage-collected, even if this channel is closed in the meantime.
+     * Reading a value from the buffer costs no more than reading from an
+     * array once the page holding it is resident, so many small random
+     * reads are far cheaper than repeated <tt>seek</tt> and <tt>read</tt>
+     * invocations upon the file.<p>
+     *
+     * For most operating systems, mapping a file into memory is more
+     * expensive than reading or writing a few tens of kilobytes of data via
+     * the usual {@link #read read} and {@link #write write} methods.  From
+     * the standpoint of performance it is generally only worth mapping
+     * relatively large files into memory.
+     *
+     * @param mode one of the constants {@link MapMode#READ_ONLY READ_ONLY},
+     *        {@link MapMode#READ_WRITE READ_WRITE}, or {@link MapMode#PRIVATE
+     *        PRIVATE} defined in the {@link MapMode} class, according to
+     *        whether the file is to be mapped read-only, read/write, or
+     *        privately (copy-on-write), respectively.
+     * @param position the position within the file at which the mapped
+     *        region is to start; must be non-negative.
+     * @param size the size of the region to be mapped; must be non-negative
+     *        and no greater than {@link java.lang.Integer#MAX_VALUE}.
+     * @return the mapped byte buffer.
+     * @exception NonReadableChannelException if the <tt>mode</tt> is
+     *            {@link MapMode#READ_ONLY READ_ONLY} but this channel was not
+     *            opened for reading.
+     * @exception NonWritableChannelException if the <tt>mode</tt> is
+     *            {@link MapMode#READ_WRITE READ_WRITE} or {@link
+     *            MapMode#PRIVATE PRIVATE} but this channel was not opened for
+     *            both reading and writing.
+     * @exception IllegalArgumentException if the preconditions on the
+     *            parameters do not hold.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     * @see       java.nio.channels.FileChannel.MapMode
+     * @see       java.nio.MappedByteBuffer
+     */
+    public abstract MappedByteBuffer map(MapMode mode, long position,
+                                         long size) throws IOException;
+}
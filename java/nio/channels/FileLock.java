@@ -0,0 +1,173 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+
+/**
+ * A token representing a lock on a region of a file.<p>
+ *
+ * A file-lock object is created each time a lock is acquired on a file via
+ * one of the {@link FileChannel#lock(long,long,boolean) lock} or {@link
+ * FileChannel#tryLock(long,long,boolean) tryLock} methods of the
+ * {@link FileChannel} class.  A file-lock object is initially valid.  It
+ * remains valid until the lock is released by invoking the {@link #release
+ * release} method or by closing the channel that was used to acquire it,
+ * whichever comes first.<p>
+ *
+ * A file lock is either <i>exclusive</i> or <i>shared</i>.  A shared lock
+ * prevents other concurrently-running programs from acquiring an
+ * overlapping exclusive lock, but does allow them to acquire overlapping
+ * shared locks.  An exclusive lock prevents other programs from acquiring
+ * an overlapping lock of either type.  Once it is released, a lock has no
+ * further effect on the locks that may be acquired by other programs.<p>
+ *
+ * File locks are held on behalf of the entire Java virtual machine.  They
+ * are not suitable for controlling access to a file by multiple threads
+ * within the same virtual machine, and an attempt to acquire a lock that
+ * overlaps one already held through the same channel causes an
+ * {@link OverlappingFileLockException} to be thrown.<p>
+ *
+ * Whether or not a lock actually prevents another program from accessing
+ * the content of the locked region is system-dependent and therefore
+ * unspecified.  On most systems file locks are <i>advisory</i>: programs
+ * must cooperatively observe a known locking protocol in order to guarantee
+ * data integrity.<p>
+ *
+ * File-lock objects are safe for use by multiple concurrent threads.
+ *
+ * @version 1.1, 10/15/26
+ * @see     FileChannel#lock(long,long,boolean)
+ * @see     FileChannel#tryLock(long,long,boolean)
+ * @since   1.4
+ */
+public abstract class FileLock {
+
+    private final FileChannel channel;
+    private final long position;
+    private final long size;
+    private final boolean shared;
+
+    /**
+     * Initializes a new instance of this class.
+     *
+     * @param channel the file channel upon whose file this lock is held.
+     * @param position the position within the file at which the locked
+     *        region starts; must be non-negative.
+     * @param size the size of the locked region; must be non-negative, and
+     *        the sum <tt>position</tt>&nbsp;+&nbsp;<tt>size</tt> must be
+     *        non-negative.
+     * @param shared <tt>true</tt> if this lock is shared, <tt>false</tt> if
+     *        it is exclusive.
+     * @exception IllegalArgumentException if the preconditions on the
+     *            parameters do not hold.
+     */
+    protected FileLock(FileChannel channel, long position, long size,
+                       boolean shared)
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (size < 0)
+            throw new IllegalArgumentException("Negative size");
+        if (position + size < 0)
+            throw new IllegalArgumentException("Negative position + size");
+        this.channel = channel;
+        this.position = position;
+        this.size = size;
+        this.shared = shared;
+    }
+
+    /**
+     * Returns the file channel upon whose file this lock is held.
+     *
+     * @return the file channel.
+     */
+    public final FileChannel channel() {
+        return channel;
+    }
+
+    /**
+     * Returns the position within the file of the first byte of the locked
+     * region.
+     *
+     * @return the position.
+     */
+    public final long position() {
+        return position;
+    }
+
+    /**
+     * Returns the size of the locked region in bytes.  A lock on the whole
+     * file has a size of {@link Long#MAX_VALUE}, and covers the file even
+     * as it grows.
+     *
+     * @return the size of the locked region.
+     */
+    public final long size() {
+        return size;
+    }
+
+    /**
+     * Tells whether this lock is shared.
+     *
+     * @return <tt>true</tt> if lock is shared, <tt>false</tt> if it is
+     *         exclusive.
+     */
+    public final boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Tells whether or not this lock overlaps the given lock range.
+     *
+     * @param position the starting position of the range.
+     * @param size the size of the range.
+     * @return <tt>true</tt> if, and only if, this lock and the given lock
+     *         range overlap by at least one byte.
+     */
+    public final boolean overlaps(long position, long size) {
+        if (position + size <= this.position)
+            return false;               // That is below this
+        if (this.position + this.size <= position)
+            return false;               // This is below that
+        return true;
+    }
+
+    /**
+     * Tells whether or not this lock is valid.  A lock object remains valid
+     * until it is released or the associated file channel is closed,
+     * whichever comes first.
+     *
+     * @return <tt>true</tt> if, and only if, this lock is valid.
+     */
+    public abstract boolean isValid();
+
+    /**
+     * Releases this lock.  If this lock object is valid then invoking this
+     * method releases the lock and renders the object invalid.  If this
+     * lock object is invalid then invoking this method has no effect.
+     *
+     * @exception ClosedChannelException if the channel that was used to
+     *            acquire this lock is no longer open.
+     * @exception IOException if an I/O error occurs.
+     */
+    public abstract void release() throws IOException;
+
+    /**
+     * Returns a string describing the range, type, and validity of this
+     * lock.
+     *
+     * @return a descriptive string.
+     */
+    public final String toString() {
+        return (this.getClass().getName()
+                + "[" + position
+                + ":" + size
+                + " " + (shared ? "shared" : "exclusive")
+                + " " + (isValid() ? "valid" : "invalid")
+                + "]");
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A channel that can write bytes from a sequence of buffers.<p>
+ *
+ * A <i>gathering</i> write operation writes, in a single invocation, a
+ * sequence of bytes from one or more of a given sequence of buffers.
+ * Gathering writes are often useful when implementing network protocols or
+ * file formats that, for example, group data into segments consisting of
+ * one or more fixed-length headers followed by a variable-length body: the
+ * header and the body can be written together without first being
+ * concatenated.  Where the underlying descriptor supports it, the whole
+ * operation is performed by a single system call.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ScatteringByteChannel
+ * @since   1.4
+ */
+public interface GatheringByteChannel extends WritableByteChannel {
+
+    /**
+     * Writes a sequence of bytes to this channel from a subsequence of the
+     * given buffers.<p>
+     *
+     * An attempt is made to write up to <i>r</i> bytes to this channel,
+     * where <i>r</i> is the total number of bytes remaining in the
+     * specified subsequence of the given buffer array, that is,
+     * <blockquote><pre>
+     * srcs[offset].remaining()
+     *     + srcs[offset+1].remaining()
+     *     + ... + srcs[offset+length-1].remaining()</pre></blockquote>
+     * at the moment that this method is invoked.  Bytes are taken from each
+     * buffer in turn, emptying the first before moving to the next, and the
+     * position of each buffer is advanced by the number of bytes taken from
+     * it.<p>
+     *
+     * Unless otherwise specified, a write operation will return only after
+     * writing all of the <i>r</i> requested bytes.  A socket channel in
+     * non-blocking mode, for example, cannot write any more bytes than are
+     * free in the socket's output buffer.
+     *
+     * @param srcs the buffers from which bytes are to be retrieved.
+     * @param offset the offset within the buffer array of the first buffer
+     *        from which bytes are to be retrieved; must be non-negative and
+     *        no larger than <tt>srcs.length</tt>.
+     * @param length the maximum number of buffers to be accessed; must be
+     *        non-negative and no larger than <tt>srcs.length - offset</tt>.
+     * @return the number of bytes written, possibly zero.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public long write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException;
+
+    /**
+     * Writes a sequence of bytes to this channel from the given buffers.
+     * An invocation of this method of the form <tt>c.write(srcs)</tt>
+     * behaves in exactly the same manner as the invocation
+     * <blockquote><pre>
+     * c.write(srcs, 0, srcs.length);</pre></blockquote>
+     *
+     * @param srcs the buffers from which bytes are to be retrieved.
+     * @return the number of bytes written, possibly zero.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public long write(ByteBuffer[] srcs) throws IOException;
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+/**
+ * Unchecked exception thrown when a blocking-mode-specific operation is
+ * invoked upon a channel in the incorrect blocking mode.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public class IllegalBlockingModeException extends IllegalStateException {
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public IllegalBlockingModeException() { }
+}
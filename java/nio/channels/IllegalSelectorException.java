@@ -0,0 +1,22 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+/**
+ * Unchecked exception thrown when an attempt is made to register a channel
+ * with a selector that was not created by the provider that created the
+ * channel.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public class IllegalSelectorException extends IllegalArgumentException {
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public IllegalSelectorException() { }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+/**
+ * Unchecked exception thrown when the <tt>finishConnect</tt> method of a
+ * socket channel is invoked without first successfully invoking its
+ * <tt>connect</tt> method.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public class NoConnectionPendingException extends IllegalStateException {
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public NoConnectionPendingException() { }
+}
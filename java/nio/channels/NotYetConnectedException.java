@@ -0,0 +1,21 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+/**
+ * Unchecked exception thrown when an attempt is made to invoke an I/O
+ * operation upon a socket channel that is not yet connected.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public class NotYetConnectedException extends IllegalStateException {
+
+    /**
+     * Constructs an instance of this class.
+     */
+    public NotYetConnectedException() { }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A channel that can read bytes.<p>
+ *
+ * Only one read operation upon a readable channel may be in progress at
+ * any given time.  If one thread initiates a read operation upon a channel
+ * then any other thread that attempts to initiate another read operation
+ * will block until the first operation is complete.
+ *
+ * @version 1.1, 10/15/26
+ * @see     WritableByteChannel
+ * @since   1.4
+ */
+public interface ReadableByteChannel extends Channel {
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffer.<p>
+     *
+     * An attempt is made to read up to <i>r</i> bytes from the channel,
+     * where <i>r</i> is the number of bytes remaining in the buffer, that
+     * is, <tt>dst.remaining()</tt>, at the moment this method is invoked.
+     * The bytes are transferred into the buffer starting at its position,
+     * and the position is then advanced by the number of bytes read.  If
+     * the buffer is direct then the bytes are transferred without being
+     * copied through a Java array.
+     *
+     * @param dst the buffer into which bytes are to be transferred.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-stream.
+     * @exception NonReadableChannelException if this channel was not opened
+     *            for reading.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception AsynchronousCloseException if another thread closes this
+     *            channel while the read operation is in progress.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public int read(ByteBuffer dst) throws IOException;
+}
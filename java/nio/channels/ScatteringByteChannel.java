@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A channel that can read bytes into a sequence of buffers.<p>
+ *
+ * A <i>scattering</i> read operation reads, in a single invocation, a
+ * sequence of bytes into one or more of a given sequence of buffers.
+ * Scattering reads are often useful when implementing network protocols or
+ * file formats that, for example, group data into segments consisting of
+ * one or more fixed-length headers followed by a variable-length body.
+ * Where the underlying descriptor supports it, the whole operation is
+ * performed by a single system call.
+ *
+ * @version 1.1, 10/15/26
+ * @see     GatheringByteChannel
+ * @since   1.4
+ */
+public interface ScatteringByteChannel extends ReadableByteChannel {
+
+    /**
+     * Reads a sequence of bytes from this channel into a subsequence of the
+     * given buffers.<p>
+     *
+     * An invocation of this method attempts to read up to <i>r</i> bytes
+     * from this channel, where <i>r</i> is the total number of bytes
+     * remaining in the specified subsequence of the given buffer array,
+     * that is,
+     * <blockquote><pre>
+     * dsts[offset].remaining()
+     *     + dsts[offset+1].remaining()
+     *     + ... + dsts[offset+length-1].remaining()</pre></blockquote>
+     * at the moment that this method is invoked.  Bytes are transferred
+     * into each buffer in turn, filling the first before moving to the
+     * next, and the position of each buffer is advanced by the number of
+     * bytes transferred into it.
+     *
+     * @param dsts the buffers into which bytes are to be transferred.
+     * @param offset the offset within the buffer array of the first buffer
+     *        into which bytes are to be transferred; must be non-negative
+     *        and no larger than <tt>dsts.length</tt>.
+     * @param length the maximum number of buffers to be accessed; must be
+     *        non-negative and no larger than <tt>dsts.length - offset</tt>.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-stream.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     * @exception NonReadableChannelException if this channel was not opened
+     *            for reading.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public long read(ByteBuffer[] dsts, int offset, int length)
+        throws IOException;
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffers.
+     * An invocation of this method of the form <tt>c.read(dsts)</tt>
+     * behaves in exactly the same manner as the invocation
+     * <blockquote><pre>
+     * c.read(dsts, 0, dsts.length);</pre></blockquote>
+     *
+     * @param dsts the buffers into which bytes are to be transferred.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-stream.
+     * @exception NonReadableChannelException if this channel was not opened
+     *            for reading.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public long read(ByteBuffer[] dsts) throws IOException;
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * A channel that can be multiplexed via a {@link Selector}.<p>
+ *
+ * In order to be used with a selector, an instance of this class must
+ * first be <i>registered</i> via the {@link #register(Selector,int,Object)
+ * register} method.  This method returns a new {@link SelectionKey} object
+ * that represents the channel's registration with the selector.  Once
+ * registered with a selector, a channel remains registered until it is
+ * <i>deregistered</i>, which happens when its key is cancelled and the
+ * selector next performs a selection operation.  A channel may be
+ * registered at most once with any particular selector.<p>
+ *
+ * A selectable channel is either in <i>blocking</i> mode or in
+ * <i>non-blocking</i> mode.  In blocking mode, every I/O operation invoked
+ * upon the channel will block until it completes.  In non-blocking mode an
+ * I/O operation will never block and may transfer fewer bytes than were
+ * requested or possibly no bytes at all.  Newly-created selectable
+ * channels are always in blocking mode.  A channel must be placed into
+ * non-blocking mode before being registered with a selector, and may not
+ * be returned to blocking mode until it has been deregistered.<p>
+ *
+ * Selectable channels are safe for use by multiple concurrent threads.
+ *
+ * @version 1.1, 10/15/26
+ * @see     SelectionKey
+ * @see     Selector
+ * @since   1.4
+ */
+public abstract class SelectableChannel implements Channel {
+
+    /**
+     * Initializes a new instance of this class.
+     */
+    protected SelectableChannel() { }
+
+    /**
+     * Returns the provider that created this channel.
+     *
+     * @return the provider that created this channel.
+     */
+    public abstract SelectorProvider provider();
+
+    /**
+     * Returns an operation set identifying this channel's supported
+     * operations.  The bits that are set in this integer value denote
+     * exactly the operations that are valid for this channel.
+     *
+     * @return the valid-operation set.
+     */
+    public abstract int validOps();
+
+    /**
+     * Tells whether or not this channel is currently registered with any
+     * selectors.  A newly-created channel is not registered.
+     *
+     * @return <tt>true</tt> if, and only if, this channel is registered.
+     */
+    public abstract boolean isRegistered();
+
+    /**
+     * Retrieves the key representing the channel's registration with the
+     * given selector.
+     *
+     * @param sel the selector.
+     * @return the key returned when this channel was last registered with
+     *         the given selector, or <tt>null</tt> if this channel is not
+     *         currently registered with that selector.
+     */
+    public abstract SelectionKey keyFor(Selector sel);
+
+    /**
+     * Registers this channel with the given selector, returning a
+     * selection key.<p>
+     *
+     * If this channel is currently registered with the given selector then
+     * the selection key representing that registration is returned after
+     * its interest set has been changed to <tt>ops</tt> and the given
+     * attachment has been attached to it.<p>
+     *
+     * This method may be invoked at any time.  If it is invoked while
+     * another invocation of this method or of the
+     * {@link #configureBlocking(boolean) configureBlocking} method is in
+     * progress then it will first block until the other operation is
+     * complete.  This method will then synchronize on the selector's key
+     * set and therefore may block if invoked concurrently with another
+     * registration or selection operation involving the same selector.
+     *
+     * @param sel the selector with which this channel is to be registered.
+     * @param ops the interest set for the resulting key.
+     * @param att the attachment for the resulting key; may be
+     *        <tt>null</tt>.
+     * @return a key representing the registration of this channel with the
+     *         given selector.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception ClosedSelectorException if the selector is closed.
+     * @exception IllegalBlockingModeException if this channel is in
+     *            blocking mode.
+     * @exception IllegalSelectorException if this channel was not created
+     *            by the same provider as the given selector.
+     * @exception CancelledKeyException if this channel is currently
+     *            registered with the given selector but the corresponding
+     *            key has already been cancelled.
+     * @exception IllegalArgumentException if a bit in <tt>ops</tt> does not
+     *            correspond to an operation supported by this channel.
+     */
+    public abstract SelectionKey register(Selector sel, int ops, Object att)
+        throws ClosedChannelException;
+
+    /**
+     * Registers this channel with the given selector, returning a
+     * selection key.  An invocation of this convenience method of the form
+     * <tt>sc.register(sel, ops)</tt> behaves in exactly the same way as
+     * the invocation <tt>sc.register(sel, ops, null)</tt>.
+     *
+     * @param sel the selector with which this channel is to be registered.
+     * @param ops the interest set for the resulting key.
+     * @return a key representing the registration of this channel with the
+     *         given selector.
+     * @exception ClosedChannelException if this channel is closed.
+     */
+    public final SelectionKey register(Selector sel, int ops)
+        throws ClosedChannelException
+    {
+        return register(sel, ops, null);
+    }
+
+    /**
+     * Adjusts this channel's blocking mode.<p>
+     *
+     * If this channel is registered with one or more selectors then an
+     * attempt to place it into blocking mode will cause an
+     * {@link IllegalBlockingModeException} to be thrown.
+     *
+     * @param block if <tt>true</tt> then this channel will be placed in
+     *        blocking mode; if <tt>false</tt> then it will be placed in
+     *        non-blocking mode.
+     * @return this selectable channel.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if an I/O error occurs.
+     */
+    public abstract SelectableChannel configureBlocking(boolean block)
+        throws IOException;
+
+    /**
+     * Tells whether or not every I/O operation on this channel will block
+     * until it completes.  A newly-created channel is always in blocking
+     * mode.
+     *
+     * @return <tt>true</tt> if, and only if, this channel is in blocking
+     *         mode.
+     */
+    public abstract boolean isBlocking();
+
+    /**
+     * Retrieves the object upon which the
+     * {@link #configureBlocking(boolean) configureBlocking} and
+     * {@link #register(Selector,int,Object) register} methods synchronize.
+     * This is often useful in the implementation of adaptors that require
+     * a specific blocking mode to be maintained for a short period of time.
+     *
+     * @return the blocking-mode lock object.
+     */
+    public abstract Object blockingLock();
+}
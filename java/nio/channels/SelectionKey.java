@@ -0,0 +1,213 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+/**
+ * A token representing the registration of a {@link SelectableChannel}
+ * with a {@link Selector}.<p>
+ *
+ * A selection key is created each time a channel is registered with a
+ * selector.  A key remains valid until it is <i>cancelled</i> by invoking
+ * its {@link #cancel cancel} method, by closing its channel, or by closing
+ * its selector.  Cancelling a key does not immediately remove it from its
+ * selector; it is instead added to the selector's cancelled-key set for
+ * removal during the next selection operation.<p>
+ *
+ * A selection key contains two operation sets represented as integer
+ * values.  Each bit of an operation set denotes a category of selectable
+ * operations that are supported by the key's channel.
+ * <ul>
+ *  <li>The <i>interest set</i> determines which operation categories will
+ *      be tested for readiness the next time one of the selector's
+ *      selection methods is invoked.
+ *  <li>The <i>ready set</i> identifies the operation categories for which
+ *      the key's channel has been detected to be ready by the key's
+ *      selector.  The ready set cannot be modified directly.
+ * </ul>
+ * Readiness is only a hint: it is not a guarantee that an operation in
+ * the ready set can be performed by a thread without causing the thread
+ * to block.<p>
+ *
+ * It is often necessary to associate some application-specific data with a
+ * selection key, for example an object that represents the state of a
+ * higher-level protocol.  Selection keys therefore support the
+ * <i>attachment</i> of a single arbitrary object to a key.<p>
+ *
+ * Selection keys are safe for use by multiple concurrent threads.
+ *
+ * @version 1.1, 10/15/26
+ * @see     SelectableChannel
+ * @see     Selector
+ * @since   1.4
+ */
+public abstract class SelectionKey {
+
+    /**
+     * Operation-set bit for read operations.
+     */
+    public static final int OP_READ = 1 << 0;
+
+    /**
+     * Operation-set bit for write operations.
+     */
+    public static final int OP_WRITE = 1 << 2;
+
+    /**
+     * Operation-set bit for socket-connect operations.
+     */
+    public static final int OP_CONNECT = 1 << 3;
+
+    /**
+     * Operation-set bit for socket-accept operations.
+     */
+    public static final int OP_ACCEPT = 1 << 4;
+
+    private volatile Object attachment = null;
+
+    /**
+     * Constructs an instance of this class.
+     */
+    protected SelectionKey() { }
+
+    /**
+     * Returns the channel for which this key was created.  This method
+     * will continue to return the channel even after the key is cancelled.
+     *
+     * @return this key's channel.
+     */
+    public abstract SelectableChannel channel();
+
+    /**
+     * Returns the selector for which this key was created.  This method
+     * will continue to return the selector even after the key is cancelled.
+     *
+     * @return this key's selector.
+     */
+    public abstract Selector selector();
+
+    /**
+     * Tells whether or not this key is valid.  A key is valid upon
+     * creation and remains so until it is cancelled, its channel is
+     * closed, or its selector is closed.
+     *
+     * @return <tt>true</tt> if, and only if, this key is valid.
+     */
+    public abstract boolean isValid();
+
+    /**
+     * Requests that the registration of this key's channel with its
+     * selector be cancelled.  Upon return the key will be invalid and will
+     * have been added to its selector's cancelled-key set.  The key will be
+     * removed from all of the selector's key sets during the next selection
+     * operation.  If this key has already been cancelled then invoking this
+     * method has no effect.
+     */
+    public abstract void cancel();
+
+    /**
+     * Retrieves this key's interest set.
+     *
+     * @return this key's interest set.
+     * @exception CancelledKeyException if this key has been cancelled.
+     */
+    public abstract int interestOps();
+
+    /**
+     * Sets this key's interest set to the given value.  The change takes
+     * effect at the start of the next selection operation; a selection
+     * operation that is already in progress is not affected.
+     *
+     * @param ops the new interest set.
+     * @return this selection key.
+     * @exception IllegalArgumentException if a bit in the set does not
+     *            correspond to an operation that is supported by this key's
+     *            channel.
+     * @exception CancelledKeyException if this key has been cancelled.
+     */
+    public abstract SelectionKey interestOps(int ops);
+
+    /**
+     * Retrieves this key's ready-operation set.  It is guaranteed that the
+     * returned set will only contain operation bits that are valid for this
+     * key's channel.
+     *
+     * @return this key's ready-operation set.
+     * @exception CancelledKeyException if this key has been cancelled.
+     */
+    public abstract int readyOps();
+
+    /**
+     * Tests whether this key's channel is ready for reading.
+     *
+     * @return <tt>true</tt> if, and only if,
+     *         <tt>readyOps() &amp; OP_READ</tt> is nonzero.
+     * @exception CancelledKeyException if this key has been cancelled.
+     */
+    public final boolean isReadable() {
+        return (readyOps() & OP_READ) != 0;
+    }
+
+    /**
+     * Tests whether this key's channel is ready for writing.
+     *
+     * @return <tt>true</tt> if, and only if,
+     *         <tt>readyOps() &amp; OP_WRITE</tt> is nonzero.
+     * @exception CancelledKeyException if this key has been cancelled.
+     */
+    public final boolean isWritable() {
+        return (readyOps() & OP_WRITE) != 0;
+    }
+
+    /**
+     * Tests whether this key's channel has either finished, or failed to
+     * finish, its socket-connection operation.
+     *
+     * @return <tt>true</tt> if, and only if,
+     *         <tt>readyOps() &amp; OP_CONNECT</tt> is nonzero.
+     * @exception CancelledKeyException if this key has been cancelled.
+     */
+    public final boolean isConnectable() {
+        return (readyOps() & OP_CONNECT) != 0;
+    }
+
+    /**
+     * Tests whether this key's channel is ready to accept a new socket
+     * connection.
+     *
+     * @return <tt>true</tt> if, and only if,
+     *         <tt>readyOps() &amp; OP_ACCEPT</tt> is nonzero.
+     * @exception CancelledKeyException if this key has been cancelled.
+     */
+    public final boolean isAcceptable() {
+        return (readyOps() & OP_ACCEPT) != 0;
+    }
+
+    /**
+     * Attaches the given object to this key.  An attached object may later
+     * be retrieved via the {@link #attachment attachment} method.  Only
+     * one object may be attached at a time; invoking this method causes
+     * any previous attachment to be discarded.
+     *
+     * @param ob the object to be attached; may be <tt>null</tt>.
+     * @return the previously-attached object, if any, otherwise
+     *         <tt>null</tt>.
+     */
+    public final synchronized Object attach(Object ob) {
+        Object a = attachment;
+        attachment = ob;
+        return a;
+    }
+
+    /**
+     * Retrieves the current attachment.
+     *
+     * @return the object currently attached to this key, or <tt>null</tt>
+     *         if there is no attachment.
+     */
+    public final Object attachment() {
+        return attachment;
+    }
+}
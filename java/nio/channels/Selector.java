@@ -0,0 +1,193 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Set;
+
+/**
+ * A multiplexor of {@link SelectableChannel} objects.<p>
+ *
+ * A selector may be created by invoking the {@link #open open} method of
+ * this class, which will use the system's default
+ * {@link SelectorProvider} to create a new selector.  On Linux the default
+ * selector is backed by <tt>epoll</tt>, so that the cost of a selection
+ * operation is proportional to the number of ready channels rather than to
+ * the number of registered channels; elsewhere it is backed by
+ * <tt>poll</tt>.  A selector remains open until it is closed via its
+ * {@link #close close} method.<p>
+ *
+ * A selector maintains three sets of selection keys:
+ * <ul>
+ *  <li>The <i>key set</i> contains the keys representing the current
+ *      channel registrations of this selector, and is returned by the
+ *      {@link #keys keys} method.
+ *  <li>The <i>selected-key set</i> is the set of keys such that each key's
+ *      channel was detected to be ready for at least one of the operations
+ *      identified in the key's interest set during a prior selection
+ *      operation.  It is returned by the {@link #selectedKeys selectedKeys}
+ *      method.  Keys are never added to this set directly by the
+ *      application, but may be removed from it.
+ *  <li>The <i>cancelled-key set</i> is the set of keys that have been
+ *      cancelled but whose channels have not yet been deregistered.
+ * </ul>
+ * A typical server thread registers many non-blocking channels, then loops
+ * calling {@link #select()} and servicing each key in the selected-key
+ * set, removing each key once it has been handled:
+ * <pre>
+ *     while (true) {
+ *         selector.select();
+ *         Iterator i = selector.selectedKeys().iterator();
+ *         while (i.hasNext()) {
+ *             SelectionKey k = (SelectionKey) i.next();
+ *             i.remove();
+ *             if (k.isAcceptable()) ...
+ *             if (k.isReadable()) ...
+ *         }
+ *     }
+ * </pre><p>
+ *
+ * Selectors are themselves safe for use by multiple concurrent threads;
+ * their key sets, however, are not.  A selection operation synchronizes on
+ * the selector itself, then on its key set, and then on its selected-key
+ * set.  A thread blocked in a selection operation may be interrupted by
+ * another thread invoking the selector's {@link #wakeup wakeup} or
+ * {@link #close close} method.
+ *
+ * @version 1.1, 10/15/26
+ * @see     SelectableChannel
+ * @see     SelectionKey
+ * @since   1.4
+ */
+public abstract class Selector {
+
+    /**
+     * Initializes a new instance of this class.
+     */
+    protected Selector() { }
+
+    /**
+     * Opens a selector.  The new selector is created by invoking the
+     * {@link SelectorProvider#openSelector openSelector} method of the
+     * system-wide default {@link SelectorProvider} object.
+     *
+     * @return a new selector.
+     * @exception IOException if an I/O error occurs.
+     */
+    public static Selector open() throws IOException {
+        return SelectorProvider.provider().openSelector();
+    }
+
+    /**
+     * Tells whether or not this selector is open.
+     *
+     * @return <tt>true</tt> if, and only if, this selector is open.
+     */
+    public abstract boolean isOpen();
+
+    /**
+     * Returns the provider that created this selector.
+     *
+     * @return the provider that created this selector.
+     */
+    public abstract SelectorProvider provider();
+
+    /**
+     * Returns this selector's key set.  The key set is not directly
+     * modifiable; a key is removed only after it has been cancelled and its
+     * channel has been deregistered.  The key set is not thread-safe.
+     *
+     * @return this selector's key set.
+     * @exception ClosedSelectorException if this selector is closed.
+     */
+    public abstract Set keys();
+
+    /**
+     * Returns this selector's selected-key set.  Keys may be removed from,
+     * but not directly added to, the selected-key set.  The selected-key
+     * set is not thread-safe.
+     *
+     * @return this selector's selected-key set.
+     * @exception ClosedSelectorException if this selector is closed.
+     */
+    public abstract Set selectedKeys();
+
+    /**
+     * Selects a set of keys whose corresponding channels are ready for I/O
+     * operations.  This method performs a non-blocking selection
+     * operation: if no channels have become selectable since the previous
+     * selection operation then it immediately returns zero.
+     *
+     * @return the number of keys, possibly zero, whose ready-operation
+     *         sets were updated by the selection operation.
+     * @exception IOException if an I/O error occurs.
+     * @exception ClosedSelectorException if this selector is closed.
+     */
+    public abstract int selectNow() throws IOException;
+
+    /**
+     * Selects a set of keys whose corresponding channels are ready for I/O
+     * operations.  This method performs a blocking selection operation.  It
+     * returns only after at least one channel is selected, this selector's
+     * {@link #wakeup wakeup} method is invoked, the current thread is
+     * interrupted, or the given timeout period expires, whichever comes
+     * first.
+     *
+     * @param timeout if positive, block for up to <tt>timeout</tt>
+     *        milliseconds, more or less, while waiting for a channel to
+     *        become ready; if zero, block indefinitely.
+     * @return the number of keys, possibly zero, whose ready-operation
+     *         sets were updated.
+     * @exception IOException if an I/O error occurs.
+     * @exception ClosedSelectorException if this selector is closed.
+     * @exception IllegalArgumentException if the value of the timeout
+     *            argument is negative.
+     */
+    public abstract int select(long timeout) throws IOException;
+
+    /**
+     * Selects a set of keys whose corresponding channels are ready for I/O
+     * operations.  This method performs a blocking selection operation.  It
+     * returns only after at least one channel is selected, this selector's
+     * {@link #wakeup wakeup} method is invoked, or the current thread is
+     * interrupted, whichever comes first.
+     *
+     * @return the number of keys, possibly zero, whose ready-operation
+     *         sets were updated.
+     * @exception IOException if an I/O error occurs.
+     * @exception ClosedSelectorException if this selector is closed.
+     */
+    public abstract int select() throws IOException;
+
+    /**
+     * Causes the first selection operation that has not yet returned to
+     * return immediately.  If another thread is currently blocked in an
+     * invocation of the {@link #select()} or {@link #select(long)} methods
+     * then that invocation will return immediately.  If no selection
+     * operation is currently in progress then the next invocation of one of
+     * these methods will return immediately, unless the {@link #selectNow()}
+     * method is invoked in the meantime.
+     *
+     * @return this selector.
+     */
+    public abstract Selector wakeup();
+
+    /**
+     * Closes this selector.<p>
+     *
+     * If a thread is currently blocked in one of this selector's selection
+     * methods then it is interrupted as if by invoking the selector's
+     * {@link #wakeup wakeup} method.  Any uncancelled keys still associated
+     * with this selector are invalidated, their channels are deregistered,
+     * and any other resources associated with this selector are released.
+     * If this selector is already closed then invoking this method has no
+     * effect.
+     *
+     * @exception IOException if an I/O error occurs.
+     */
+    public abstract void close() throws IOException;
+}
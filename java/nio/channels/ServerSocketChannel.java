@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketOptions;
+import java.nio.channels.spi.AbstractSelectableChannel;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * A selectable channel for stream-oriented listening sockets.<p>
+ *
+ * A server-socket channel is created by invoking the {@link #open open}
+ * method of this class.  A newly-created server-socket channel is open but
+ * not yet bound.  An attempt to invoke the {@link #accept accept} method of
+ * an unbound server-socket channel will cause a
+ * {@link NotYetBoundException} to be thrown.  A server-socket channel is
+ * bound by invoking its {@link #bind bind} method.<p>
+ *
+ * In non-blocking mode the channel may be registered with a
+ * {@link Selector} for {@link SelectionKey#OP_ACCEPT OP_ACCEPT}, so that a
+ * single thread can accept connections on many listening sockets while
+ * also servicing the accepted connections.<p>
+ *
+ * Server-socket channels are safe for use by multiple concurrent threads.
+ *
+ * @version 1.1, 10/15/26
+ * @see     SocketChannel
+ * @see     Selector
+ * @since   1.4
+ */
+public abstract class ServerSocketChannel extends AbstractSelectableChannel
+                                          implements SocketOptions {
+
+    /**
+     * Initializes a new instance of this class.
+     *
+     * @param provider the provider that created this channel.
+     */
+    protected ServerSocketChannel(SelectorProvider provider) {
+        super(provider);
+    }
+
+    /**
+     * Opens a server-socket channel.  The new channel is created by invoking
+     * the {@link SelectorProvider#openServerSocketChannel
+     * openServerSocketChannel} method of the system-wide default
+     * {@link SelectorProvider} object.
+     *
+     * @return a new, unbound server-socket channel.
+     * @exception IOException if an I/O error occurs.
+     */
+    public static ServerSocketChannel open() throws IOException {
+        return SelectorProvider.provider().openServerSocketChannel();
+    }
+
+    /**
+     * Returns an operation set identifying this channel's supported
+     * operations.  Server-socket channels only support the accepting of new
+     * connections, so this method returns
+     * <tt>SelectionKey.OP_ACCEPT</tt>.
+     *
+     * @return the valid-operation set.
+     */
+    public final int validOps() {
+        return SelectionKey.OP_ACCEPT;
+    }
+
+    /**
+     * Binds this channel's socket to a local address and port and
+     * configures it to listen for connections.
+     *
+     * @param bindAddr the local address to bind to, or <tt>null</tt> to
+     *        bind to any local address.
+     * @param port the local port, or <tt>0</tt> to use any free port.
+     * @param backlog the maximum length of the queue of incoming
+     *        connections; if less than <tt>1</tt>, a default of 50 is used.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception SecurityException if a security manager exists and its
+     *            <tt>checkListen</tt> method doesn't allow the operation.
+     * @exception IOException if some other I/O error occurs, for example
+     *            if the channel is already bound.
+     */
+    public abstract void bind(InetAddress bindAddr, int port, int backlog)
+        throws IOException;
+
+    /**
+     * Accepts a connection made to this channel's socket.<p>
+     *
+     * If this channel is in non-blocking mode then this method will
+     * immediately return <tt>null</tt> if there are no pending connections.
+     * Otherwise it will block indefinitely until a new connection is
+     * available or an I/O error occurs.  The socket channel returned by
+     * this method, if any, will be in blocking mode regardless of the
+     * blocking mode of this channel.<p>
+     *
+     * This method performs exactly the same security checks as the
+     * <tt>accept</tt> method of the <tt>java.net.ServerSocket</tt> class.
+     *
+     * @return the socket channel for the new connection, or <tt>null</tt>
+     *         if this channel is in non-blocking mode and no connection is
+     *         available to be accepted.
+     * @exception NotYetBoundException if this channel's socket has not yet
+     *            been bound.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception SecurityException if a security manager has been installed
+     *            and it does not permit access to the remote endpoint of the
+     *            new connection.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract SocketChannel accept() throws IOException;
+
+    /**
+     * Returns the local address to which this channel's socket is bound.
+     *
+     * @return the local address, or <tt>null</tt> if the socket is not yet
+     *         bound.
+     */
+    public abstract InetAddress getInetAddress();
+
+    /**
+     * Returns the local port on which this channel's socket is listening.
+     *
+     * @return the local port, or <tt>-1</tt> if the socket is not yet
+     *         bound.
+     */
+    public abstract int getLocalPort();
+}
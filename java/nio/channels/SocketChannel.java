@@ -0,0 +1,389 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.spi.AbstractSelectableChannel;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * A selectable channel for stream-oriented connecting sockets.<p>
+ *
+ * A socket channel is created by invoking one of the {@link #open open}
+ * methods of this class.  A newly-created socket channel is open but not
+ * yet connected.  An attempt to invoke an I/O operation upon an unconnected
+ * channel will cause a {@link NotYetConnectedException} to be thrown.  A
+ * socket channel is connected by invoking its {@link #connect connect}
+ * method; once connected, a socket channel remains connected until it is
+ * closed.<p>
+ *
+ * Socket channels support <i>non-blocking connection:</i> a socket channel
+ * may be created and the process of establishing the link to the remote
+ * socket may be initiated via the {@link #connect connect} method for later
+ * completion by the {@link #finishConnect finishConnect} method.  In
+ * non-blocking mode the {@link #read read} and {@link #write write} methods
+ * transfer only as many bytes as can be transferred without blocking, and
+ * return zero if none can be.  Bytes read into, or written from, a direct
+ * {@link ByteBuffer} move between the socket and the buffer's native memory
+ * without being copied through a Java array.<p>
+ *
+ * Socket options are set and queried with the constants and methods of
+ * {@link SocketOptions}, exactly as for a <tt>SocketImpl</tt>.  The channel
+ * holds its own socket <tt>FileDescriptor</tt> and uses the same native
+ * socket layer as <tt>java.net.Socket</tt>, but never creates a stream
+ * or blocks a thread on behalf of an idle connection.<p>
+ *
+ * Socket channels are safe for use by multiple concurrent threads.  At most
+ * one thread may be reading and at most one thread may be writing at any
+ * given time; the {@link #connect connect} and
+ * {@link #finishConnect finishConnect} methods are mutually synchronized
+ * against each other and against reads and writes.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ServerSocketChannel
+ * @see     Selector
+ * @since   1.4
+ */
+public abstract class SocketChannel extends AbstractSelectableChannel
+    implements ByteChannel, ScatteringByteChannel, GatheringByteChannel,
+               SocketOptions
+{
+
+    /**
+     * Initializes a new instance of this class.
+     *
+     * @param provider the provider that created this channel.
+     */
+    protected SocketChannel(SelectorProvider provider) {
+        super(provider);
+    }
+
+    /**
+     * Opens a socket channel.  The new channel is created by invoking the
+     * {@link SelectorProvider#openSocketChannel openSocketChannel} method of
+     * the system-wide default {@link SelectorProvider} object.
+     *
+     * @return a new, unconnected socket channel.
+     * @exception IOException if an I/O error occurs.
+     */
+    public static SocketChannel open() throws IOException {
+        return SelectorProvider.provider().openSocketChannel();
+    }
+
+    /**
+     * Opens a socket channel and connects it to a remote address.  The new
+     * channel is in blocking mode, so this method returns only once the
+     * connection has been established.
+     *
+     * @param address the remote address.
+     * @param port the remote port.
+     * @return a new, and connected, socket channel.
+     * @exception IOException if an I/O error occurs.
+     * @exception SecurityException if a security manager has been installed
+     *            and it does not permit access to the given remote endpoint.
+     */
+    public static SocketChannel open(InetAddress address, int port)
+        throws IOException
+    {
+        SocketChannel sc = open();
+        try {
+            sc.connect(address, port);
+        } catch (IOException e) {
+            try {
+                sc.close();
+            } catch (IOException x) { }
+            throw e;
+        }
+        return sc;
+    }
+
+    /**
+     * Returns an operation set identifying this channel's supported
+     * operations.  Socket channels support connecting, reading, and
+     * writing, so this method returns <tt>(SelectionKey.OP_CONNECT |
+     * SelectionKey.OP_READ | SelectionKey.OP_WRITE)</tt>.
+     *
+     * @return the valid-operation set.
+     */
+    public final int validOps() {
+        return (SelectionKey.OP_READ
+                | SelectionKey.OP_WRITE
+                | SelectionKey.OP_CONNECT);
+    }
+
+    /**
+     * Tells whether or not this channel's network socket is connected.
+     *
+     * @return <tt>true</tt> if, and only if, this channel's network socket
+     *         is connected.
+     */
+    public abstract boolean isConnected();
+
+    /**
+     * Tells whether or not a connection operation is in progress on this
+     * channel.
+     *
+     * @return <tt>true</tt> if, and only if, a connection operation has
+     *         been initiated on this channel but not yet completed by
+     *         invoking the {@link #finishConnect} method.
+     */
+    public abstract boolean isConnectionPending();
+
+    /**
+     * Connects this channel's socket.<p>
+     *
+     * If this channel is in non-blocking mode then an invocation of this
+     * method initiates a non-blocking connection operation.  If the
+     * connection is established immediately, as can happen with a local
+     * connection, then this method returns <tt>true</tt>.  Otherwise this
+     * method returns <tt>false</tt> and the connection operation must later
+     * be completed by invoking the {@link #finishConnect finishConnect}
+     * method, typically once the channel's key has been selected for
+     * {@link SelectionKey#OP_CONNECT OP_CONNECT}.<p>
+     *
+     * If this channel is in blocking mode then an invocation of this method
+     * will block until the connection is established or an I/O error
+     * occurs.<p>
+     *
+     * This method performs exactly the same security checks as the
+     * <tt>java.net.Socket</tt> class.
+     *
+     * @param address the remote address.
+     * @param port the remote port.
+     * @return <tt>true</tt> if a connection was established, <tt>false</tt>
+     *         if this channel is in non-blocking mode and the connection
+     *         operation is in progress.
+     * @exception AlreadyConnectedException if this channel is already
+     *            connected.
+     * @exception ConnectionPendingException if a non-blocking connection
+     *            operation is already in progress on this channel.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception SecurityException if a security manager has been installed
+     *            and it does not permit access to the given remote endpoint.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract boolean connect(InetAddress address, int port)
+        throws IOException;
+
+    /**
+     * Finishes the process of connecting a socket channel.<p>
+     *
+     * If the connection operation failed then invoking this method will
+     * cause an appropriate <tt>IOException</tt> to be thrown and the
+     * channel to be closed.  If this channel is already connected then this
+     * method will not block and will immediately return <tt>true</tt>.  If
+     * this channel is in non-blocking mode then this method will return
+     * <tt>false</tt> if the connection process is not yet complete.  If
+     * this channel is in blocking mode then this method will block until
+     * the connection either completes or fails.
+     *
+     * @return <tt>true</tt> if, and only if, this channel's socket is now
+     *         connected.
+     * @exception NoConnectionPendingException if this channel is not
+     *            connected and a connection operation has not been
+     *            initiated.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract boolean finishConnect() throws IOException;
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffer.
+     * In non-blocking mode this method returns immediately with the number
+     * of bytes that were available, which may be zero.
+     *
+     * @param dst the buffer into which bytes are to be transferred.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-stream.
+     * @exception NotYetConnectedException if this channel is not yet
+     *            connected.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract int read(ByteBuffer dst) throws IOException;
+
+    /**
+     * Writes a sequence of bytes to this channel from the given buffer.
+     * In non-blocking mode this method writes only as many bytes as the
+     * socket's send buffer can take, which may be zero; in blocking mode it
+     * returns only once all of the remaining bytes have been written.
+     *
+     * @param src the buffer from which bytes are to be retrieved.
+     * @return the number of bytes written, possibly zero.
+     * @exception NotYetConnectedException if this channel is not yet
+     *            connected.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract int write(ByteBuffer src) throws IOException;
+
+    /**
+     * Reads a sequence of bytes from this channel into a subsequence of the
+     * given buffers, with a single system call where possible.  In
+     * non-blocking mode this method returns immediately with the number of
+     * bytes that were available, which may be zero.
+     *
+     * @param dsts the buffers into which bytes are to be transferred.
+     * @param offset the offset within the buffer array of the first buffer
+     *        into which bytes are to be transferred.
+     * @param length the maximum number of buffers to be accessed.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-stream.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     * @exception NotYetConnectedException if this channel is not yet
+     *            connected.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract long read(ByteBuffer[] dsts, int offset, int length)
+        throws IOException;
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffers.
+     *
+     * @param dsts the buffers into which bytes are to be transferred.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-stream.
+     * @exception NotYetConnectedException if this channel is not yet
+     *            connected.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public final long read(ByteBuffer[] dsts) throws IOException {
+        return read(dsts, 0, dsts.length);
+    }
+
+    /**
+     * Writes a sequence of bytes to this channel from a subsequence of the
+     * given buffers, with a single system call where possible.  A framed
+     * message held as a header buffer and a body buffer can thus be sent
+     * without first being concatenated.  In non-blocking mode this method
+     * writes only as many bytes as the socket's send buffer can take; in
+     * blocking mode it returns only once all of the remaining bytes have
+     * been written.
+     *
+     * @param srcs the buffers from which bytes are to be retrieved.
+     * @param offset the offset within the buffer array of the first buffer
+     *        from which bytes are to be retrieved.
+     * @param length the maximum number of buffers to be accessed.
+     * @return the number of bytes written, possibly zero.
+     * @exception IndexOutOfBoundsException if the preconditions on the
+     *            <tt>offset</tt> and <tt>length</tt> parameters do not hold.
+     * @exception NotYetConnectedException if this channel is not yet
+     *            connected.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public abstract long write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException;
+
+    /**
+     * Writes a sequence of bytes to this channel from the given buffers.
+     *
+     * @param srcs the buffers from which bytes are to be retrieved.
+     * @return the number of bytes written, possibly zero.
+     * @exception NotYetConnectedException if this channel is not yet
+     *            connected.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public final long write(ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
+    /**
+     * Reads up to <tt>len</tt> bytes from this channel into the given
+     * array.  An invocation of this method behaves in exactly the same way
+     * as the invocation
+     * <blockquote><tt>read(ByteBuffer.wrap(b, off, len))</tt></blockquote>
+     *
+     * @param b the array into which bytes are to be transferred.
+     * @param off the offset within the array of the first byte to be
+     *        written.
+     * @param len the maximum number of bytes to be read.
+     * @return the number of bytes read, possibly zero, or <tt>-1</tt> if the
+     *         channel has reached end-of-stream.
+     * @exception NotYetConnectedException if this channel is not yet
+     *            connected.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public int read(byte[] b, int off, int len) throws IOException {
+        return read(ByteBuffer.wrap(b, off, len));
+    }
+
+    /**
+     * Writes up to <tt>len</tt> bytes to this channel from the given
+     * array.  An invocation of this method behaves in exactly the same way
+     * as the invocation
+     * <blockquote><tt>write(ByteBuffer.wrap(b, off, len))</tt></blockquote>
+     *
+     * @param b the array from which bytes are to be transferred.
+     * @param off the offset within the array of the first byte to be
+     *        written.
+     * @param len the number of bytes to be written.
+     * @return the number of bytes written, possibly zero.
+     * @exception NotYetConnectedException if this channel is not yet
+     *            connected.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public int write(byte[] b, int off, int len) throws IOException {
+        return write(ByteBuffer.wrap(b, off, len));
+    }
+
+    /**
+     * Returns the remote address to which this channel is connected.
+     *
+     * @return the remote address, or <tt>null</tt> if this channel is not
+     *         connected.
+     */
+    public abstract InetAddress getInetAddress();
+
+    /**
+     * Returns the remote port to which this channel is connected.
+     *
+     * @return the remote port, or <tt>0</tt> if this channel is not
+     *         connected.
+     */
+    public abstract int getPort();
+
+    /**
+     * Returns the local address to which this channel's socket is bound.
+     *
+     * @return the local address, or <tt>null</tt> if the socket is not
+     *         bound.
+     */
+    public abstract InetAddress getLocalAddress();
+
+    /**
+     * Returns the local port to which this channel's socket is bound.
+     *
+     * @return the local port, or <tt>0</tt> if the socket is not bound.
+     */
+    public abstract int getLocalPort();
+
+    /**
+     * Places the input stream of this channel's socket at "end of stream".
+     * Subsequent reads return <tt>-1</tt>.
+     *
+     * @exception IOException if an I/O error occurs.
+     */
+    public abstract void shutdownInput() throws IOException;
+
+    /**
+     * Disables the output stream of this channel's socket.  Any previously
+     * written data will be sent followed by TCP's normal connection
+     * termination sequence.
+     *
+     * @exception IOException if an I/O error occurs.
+     */
+    public abstract void shutdownOutput() throws IOException;
+}
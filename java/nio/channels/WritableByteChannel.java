@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A channel that can write bytes.<p>
+ *
+ * Only one write operation upon a writable channel may be in progress at
+ * any given time.  If one thread initiates a write operation upon a
+ * channel then any other thread that attempts to initiate another write
+ * operation will block until the first operation is complete.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ReadableByteChannel
+ * @since   1.4
+ */
+public interface WritableByteChannel extends Channel {
+
+    /**
+     * Writes a sequence of bytes to this channel from the given buffer.<p>
+     *
+     * An attempt is made to write up to <i>r</i> bytes to the channel,
+     * where <i>r</i> is the number of bytes remaining in the buffer, that
+     * is, <tt>src.remaining()</tt>, at the moment this method is invoked.
+     * The bytes are taken from the buffer starting at its position, and the
+     * position is then advanced by the number of bytes written.  If the
+     * buffer is direct then the bytes are transferred without being copied
+     * through a Java array.<p>
+     *
+     * Unless otherwise specified, a write operation will return only after
+     * writing all of the <i>r</i> requested bytes.  Some types of channels,
+     * depending upon their state, may write only some of the bytes or
+     * possibly none at all.  A socket channel in non-blocking mode, for
+     * example, cannot write any more bytes than are free in the socket's
+     * output buffer.
+     *
+     * @param src the buffer from which bytes are to be retrieved.
+     * @return the number of bytes written, possibly zero.
+     * @exception NonWritableChannelException if this channel was not opened
+     *            for writing.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception AsynchronousCloseException if another thread closes this
+     *            channel while the write operation is in progress.
+     * @exception IOException if some other I/O error occurs.
+     */
+    public int write(ByteBuffer src) throws IOException;
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels.spi;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.IllegalSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * Base implementation class for selectable channels.<p>
+ *
+ * This class defines methods that handle the mechanics of channel
+ * registration, deregistration, and closing.  It maintains the current
+ * blocking mode of this channel as well as its current set of selection
+ * keys.  It performs all of the synchronization required to implement the
+ * {@link SelectableChannel} specification.  Implementations of the
+ * abstract protected methods defined in this class need not synchronize
+ * against other threads that might be engaged in the same operations.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public abstract class AbstractSelectableChannel extends SelectableChannel {
+
+    // The provider that created this channel
+    private final SelectorProvider provider;
+
+    // Keys that have been created by registering this channel with
+    // selectors.  They are saved because if this channel is closed the keys
+    // must be cancelled.  Protected by keyLock.
+    private SelectionKey[] keys = null;
+    private int keyCount = 0;
+
+    // Lock for key set and count
+    private final Object keyLock = new Object();
+
+    // Lock for registration and configureBlocking operations
+    private final Object regLock = new Object();
+
+    // Blocking mode, protected by regLock
+    private boolean blocking = true;
+
+    // Lock and state for close
+    private final Object closeLock = new Object();
+    private volatile boolean open = true;
+
+    /**
+     * Initializes a new instance of this class.
+     *
+     * @param provider the provider that created this channel.
+     */
+    protected AbstractSelectableChannel(SelectorProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Returns the provider that created this channel.
+     *
+     * @return the provider that created this channel.
+     */
+    public final SelectorProvider provider() {
+        return provider;
+    }
+
+    // -- Utility methods for the key set --
+
+    private void addKey(SelectionKey k) {
+        int i = 0;
+        if ((keys != null) && (keyCount < keys.length)) {
+            // Find empty element of key array
+            for (i = 0; i < keys.length; i++)
+                if (keys[i] == null)
+                    break;
+        } else if (keys == null) {
+            keys = new SelectionKey[3];
+        } else {
+            // Grow key array
+            int n = keys.length * 2;
+            SelectionKey[] ks = new SelectionKey[n];
+            System.arraycopy(keys, 0, ks, 0, keys.length);
+            i = keys.length;
+            keys = ks;
+        }
+        keys[i] = k;
+        keyCount++;
+    }
+
+    private SelectionKey findKey(Selector sel) {
+        synchronized (keyLock) {
+            if (keys == null)
+                return null;
+            for (int i = 0; i < keys.length; i++)
+                if ((keys[i] != null) && (keys[i].selector() == sel))
+                    return keys[i];
+            return null;
+        }
+    }
+
+    /**
+     * Removes a key from this channel's key set.  Invoked by a selector
+     * when it deregisters this channel.
+     */
+    void removeKey(SelectionKey k) {
+        synchronized (keyLock) {
+            for (int i = 0; i < keys.length; i++)
+                if (keys[i] == k) {
+                    keys[i] = null;
+                    keyCount--;
+                }
+            ((AbstractSelectionKey) k).invalidate();
+        }
+    }
+
+    private boolean haveValidKeys() {
+        synchronized (keyLock) {
+            if (keyCount == 0)
+                return false;
+            for (int i = 0; i < keys.length; i++) {
+                if ((keys[i] != null) && keys[i].isValid())
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    // -- Registration --
+
+    public final boolean isRegistered() {
+        synchronized (keyLock) {
+            return keyCount != 0;
+        }
+    }
+
+    public final SelectionKey keyFor(Selector sel) {
+        return findKey(sel);
+    }
+
+    /**
+     * Registers this channel with the given selector, returning a
+     * selection key.<p>
+     *
+     * This method first verifies that this channel is open and that the
+     * given initial interest set is valid.  If this channel is already
+     * registered with the given selector then the selection key
+     * representing that registration is returned after setting its interest
+     * set to the given value.  Otherwise this channel has not yet been
+     * registered with the given selector, so the
+     * {@link AbstractSelector#register register} method of the selector is
+     * invoked while holding the registration lock.  The resulting key is
+     * added to this channel's key set before being returned.
+     *
+     * @param sel the selector.
+     * @param ops the interest set for the resulting key.
+     * @param att the attachment for the resulting key; may be
+     *        <tt>null</tt>.
+     * @return a key representing the registration of this channel with the
+     *         given selector.
+     * @exception ClosedChannelException if this channel is closed.
+     */
+    public final SelectionKey register(Selector sel, int ops, Object att)
+        throws ClosedChannelException
+    {
+        if (!(sel instanceof AbstractSelector)
+            || (((AbstractSelector) sel).provider() != provider))
+            throw new IllegalSelectorException();
+        synchronized (regLock) {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            if ((ops & ~validOps()) != 0)
+                throw new IllegalArgumentException();
+            if (blocking)
+                throw new IllegalBlockingModeException();
+            SelectionKey k = findKey(sel);
+            if (k != null) {
+                if (!k.isValid())
+                    throw new CancelledKeyException();
+                k.interestOps(ops);
+                k.attach(att);
+                return k;
+            }
+            if (!sel.isOpen())
+                throw new ClosedSelectorException();
+            // The selector is not invoked while holding keyLock, since a
+            // selector in the midst of a selection operation takes keyLock
+            // when it deregisters a cancelled key
+            k = ((AbstractSelector) sel).register(this, ops, att);
+            synchronized (keyLock) {
+                addKey(k);
+                if (!isOpen())
+                    k.cancel();
+            }
+            return k;
+        }
+    }
+
+    // -- Closing --
+
+    public final boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Closes this channel.<p>
+     *
+     * If the channel has already been closed then this method returns
+     * immediately.  Otherwise it marks the channel as closed, invokes the
+     * {@link #implCloseSelectableChannel implCloseSelectableChannel} method
+     * in order to complete the close operation, and then cancels all of the
+     * channel's keys.
+     *
+     * @exception IOException if an I/O error occurs.
+     */
+    public final void close() throws IOException {
+        synchronized (closeLock) {
+            if (!open)
+                return;
+            open = false;
+            implCloseSelectableChannel();
+            synchronized (keyLock) {
+                int count = (keys == null) ? 0 : keys.length;
+                for (int i = 0; i < count; i++) {
+                    SelectionKey k = keys[i];
+                    if (k != null)
+                        k.cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes this selectable channel.<p>
+     *
+     * This method is invoked by the {@link #close close} method in order to
+     * perform the actual work of closing the channel.  It is only invoked if
+     * the channel has not yet been closed, and it is never invoked more than
+     * once.  An implementation of this method must arrange for any other
+     * thread that is blocked in an I/O operation upon this channel to
+     * return immediately, either by throwing an exception or by returning
+     * normally.
+     *
+     * @exception IOException if an I/O error occurs while closing the
+     *            channel.
+     */
+    protected abstract void implCloseSelectableChannel() throws IOException;
+
+    // -- Blocking --
+
+    public final boolean isBlocking() {
+        synchronized (regLock) {
+            return blocking;
+        }
+    }
+
+    public final Object blockingLock() {
+        return regLock;
+    }
+
+    /**
+     * Adjusts this channel's blocking mode.<p>
+     *
+     * If the given blocking mode is different from the current blocking
+     * mode then this method invokes the
+     * {@link #implConfigureBlocking implConfigureBlocking} method, while
+     * holding the appropriate locks, in order to change the mode.
+     *
+     * @param block the new blocking mode.
+     * @return this selectable channel.
+     * @exception ClosedChannelException if this channel is closed.
+     * @exception IOException if an I/O error occurs.
+     */
+    public final SelectableChannel configureBlocking(boolean block)
+        throws IOException
+    {
+        if (!isOpen())
+            throw new ClosedChannelException();
+        synchronized (regLock) {
+            if (blocking == block)
+                return this;
+            if (block && haveValidKeys())
+                throw new IllegalBlockingModeException();
+            implConfigureBlocking(block);
+            blocking = block;
+        }
+        return this;
+    }
+
+    /**
+     * Adjusts this channel's blocking mode.  This method is invoked by the
+     * {@link #configureBlocking configureBlocking} method in order to
+     * perform the actual work of changing the blocking mode.  It is only
+     * invoked if the new mode is different from the current mode.
+     *
+     * @param block if <tt>true</tt> then the channel will be placed in
+     *        blocking mode; if <tt>false</tt> then it will be placed in
+     *        non-blocking mode.
+     * @exception IOException if an I/O error occurs.
+     */
+    protected abstract void implConfigureBlocking(boolean block)
+        throws IOException;
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels.spi;
+
+import java.nio.channels.SelectionKey;
+
+/**
+ * Base implementation class for selection keys.<p>
+ *
+ * This class tracks the validity of the key and implements cancellation.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public abstract class AbstractSelectionKey extends SelectionKey {
+
+    private volatile boolean valid = true;
+
+    /**
+     * Initializes a new instance of this class.
+     */
+    protected AbstractSelectionKey() { }
+
+    public final boolean isValid() {
+        return valid;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Cancels this key.<p>
+     *
+     * If this key has not yet been cancelled then it is added to its
+     * selector's cancelled-key set while synchronized on that set.
+     */
+    public final void cancel() {
+        synchronized (this) {
+            if (!valid)
+                return;
+            valid = false;
+        }
+        ((AbstractSelector) selector()).cancel(this);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels.spi;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.HashSet;
+import java.util.Set;
+import sun.nio.ch.Interruptible;
+
+/**
+ * Base implementation class for selectors.<p>
+ *
+ * This class encapsulates the low-level machinery required to implement
+ * the cancellation of selection keys and the closing of the selector.  A
+ * concrete selector class must invoke the {@link #deregister deregister}
+ * method for each key in the {@link #cancelledKeys cancelled-key set},
+ * while synchronized on that set, at the start of every selection
+ * operation.<p>
+ *
+ * A selection operation that may block indefinitely should be enclosed
+ * in an invocation of the {@link #begin begin} method and one of the
+ * {@link #end end} method, so that interrupting the blocked thread wakes
+ * up the selector.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public abstract class AbstractSelector extends Selector {
+
+    private volatile boolean selectorOpen = true;
+
+    // The provider that created this selector
+    private final SelectorProvider provider;
+
+    private final Set cancelledKeys = new HashSet();
+
+    // Wakes up this selector when a thread blocked in it is interrupted
+    private Interruptible interruptor = null;
+
+    /**
+     * Initializes a new instance of this class.
+     *
+     * @param provider the provider that created this selector.
+     */
+    protected AbstractSelector(SelectorProvider provider) {
+        this.provider = provider;
+    }
+
+    void cancel(SelectionKey k) {
+        synchronized (cancelledKeys) {
+            cancelledKeys.add(k);
+        }
+    }
+
+    /**
+     * Closes this selector.<p>
+     *
+     * If the selector has already been closed then this method returns
+     * immediately.  Otherwise it marks the selector as closed and then
+     * invokes the {@link #implCloseSelector implCloseSelector} method in
+     * order to complete the close operation.
+     *
+     * @exception IOException if an I/O error occurs.
+     */
+    public final void close() throws IOException {
+        synchronized (this) {
+            if (!selectorOpen)
+                return;
+            selectorOpen = false;
+        }
+        implCloseSelector();
+    }
+
+    /**
+     * Closes this selector.  This method is invoked by the
+     * {@link #close close} method in order to perform the actual work of
+     * closing the selector.  An implementation of this method must arrange
+     * for any other thread that is blocked in a selection operation upon
+     * this selector to return immediately as if by invoking the
+     * {@link Selector#wakeup wakeup} method.
+     *
+     * @exception IOException if an I/O error occurs while closing the
+     *            selector.
+     */
+    protected abstract void implCloseSelector() throws IOException;
+
+    public final boolean isOpen() {
+        return selectorOpen;
+    }
+
+    /**
+     * Returns the provider that created this selector.
+     *
+     * @return the provider that created this selector.
+     */
+    public final SelectorProvider provider() {
+        return provider;
+    }
+
+    /**
+     * Retrieves this selector's cancelled-key set.  This set should only be
+     * used while synchronized upon it.
+     *
+     * @return the cancelled-key set.
+     */
+    protected final Set cancelledKeys() {
+        return cancelledKeys;
+    }
+
+    /**
+     * Registers the given channel with this selector.  This method is
+     * invoked by a channel's {@link AbstractSelectableChannel#register
+     * register} method in order to perform the actual work of registering
+     * the channel with this selector.
+     *
+     * @param ch the channel to be registered.
+     * @param ops the initial interest set, which must be valid.
+     * @param att the initial attachment for the resulting key.
+     * @return a new key representing the registration of the given channel
+     *         with this selector.
+     */
+    protected abstract SelectionKey register(AbstractSelectableChannel ch,
+                                             int ops, Object att);
+
+    /**
+     * Marks the beginning of an I/O operation that might block
+     * indefinitely.<p>
+     *
+     * This method should be invoked in tandem with the {@link #end end}
+     * method, using a <tt>try</tt>&nbsp;...&nbsp;<tt>finally</tt> block, in
+     * order to implement interruption for this selector.
+     * It arranges for the selector's {@link Selector#wakeup wakeup} method
+     * to be invoked if a thread's {@link Thread#interrupt interrupt} method
+     * is invoked while the thread is blocked in an I/O operation upon the
+     * selector, or if the thread has already been interrupted.
+     */
+    protected final void begin() {
+        if (interruptor == null) {
+            interruptor = new Interruptible() {
+                    public void interrupt() {
+                        AbstractSelector.this.wakeup();
+                    }};
+        }
+        blockedOn(interruptor);
+        if (Thread.currentThread().isInterrupted())
+            interruptor.interrupt();
+    }
+
+    /**
+     * Marks the end of an I/O operation that might block indefinitely.<p>
+     *
+     * This method should be invoked in tandem with the {@link #begin begin}
+     * method, using a <tt>try</tt>&nbsp;...&nbsp;<tt>finally</tt> block, in
+     * order to implement interruption for this selector.
+     */
+    protected final void end() {
+        blockedOn(null);
+    }
+
+    // Thread.blockedOn, which is private, made accessible on first use
+    private static Method blockedOnMethod = null;
+
+    /*
+     * Records the object, if any, in which the current thread is blocked,
+     * so that interrupting the thread notifies it.
+     */
+    static void blockedOn(Interruptible intr) {
+        Method m = blockedOnMethod;
+        if (m == null) {
+            m = (Method) AccessController.doPrivileged(new PrivilegedAction() {
+                    public Object run() {
+                        try {
+                            Method bo = Thread.class.getDeclaredMethod(
+                                "blockedOn",
+                                new Class[] { Interruptible.class });
+                            bo.setAccessible(true);
+                            return bo;
+                        } catch (NoSuchMethodException x) {
+                            throw new InternalError(x.toString());
+                        }
+                    }});
+            blockedOnMethod = m;
+        }
+        try {
+            m.invoke(Thread.currentThread(), new Object[] { intr });
+        } catch (IllegalAccessException x) {
+            throw new InternalError(x.toString());
+        } catch (InvocationTargetException x) {
+            throw new InternalError(x.getTargetException().toString());
+        }
+    }
+
+    /**
+     * Removes the given key from its channel's key set.  This method must
+     * be invoked by the selector for each channel that it deregisters.
+     *
+     * @param key the selection key to be removed.
+     */
+    protected final void deregister(AbstractSelectionKey key) {
+        ((AbstractSelectableChannel) key.channel()).removeKey(key);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.nio.channels.spi;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+/**
+ * Service-provider class for selectors and selectable channels.<p>
+ *
+ * A selector provider is a concrete subclass of this class that has a
+ * zero-argument constructor and implements the abstract methods specified
+ * below.  A given invocation of the Java virtual machine maintains a single
+ * system-wide default provider instance, which is returned by the
+ * {@link #provider() provider} method.  The first invocation of that method
+ * will locate the default provider as follows:
+ * <ol>
+ *  <li>If the system property
+ *      <tt>java.nio.channels.spi.SelectorProvider</tt> is defined then it is
+ *      taken to be the fully-qualified name of a concrete provider class.
+ *      The class is loaded and instantiated; if this process fails then an
+ *      unspecified error is thrown.
+ *  <li>Finally, if no provider has been specified by the above means then
+ *      the system-default provider class is instantiated.  On Linux the
+ *      default provider's selectors use <tt>epoll</tt>; on other platforms
+ *      they use <tt>poll</tt>.
+ * </ol>
+ * All of the methods in this class are safe for use by multiple concurrent
+ * threads.
+ *
+ * @version 1.1, 10/15/26
+ * @since   1.4
+ */
+public abstract class SelectorProvider {
+
+    private static final Object lock = new Object();
+    private static SelectorProvider provider = null;
+
+    /**
+     * Initializes a new instance of this class.
+     *
+     * @exception SecurityException if a security manager has been
+     *            installed and it denies
+     *            <tt>RuntimePermission("selectorProvider")</tt>.
+     */
+    protected SelectorProvider() {
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null)
+            sm.checkPermission(new RuntimePermission("selectorProvider"));
+    }
+
+    /**
+     * Returns the system-wide default selector provider for this invocation
+     * of the Java virtual machine.
+     *
+     * @return the system-wide default selector provider.
+     */
+    public static SelectorProvider provider() {
+        synchronized (lock) {
+            if (provider != null)
+                return provider;
+            provider = (SelectorProvider) AccessController.doPrivileged(
+                new PrivilegedAction() {
+                    public Object run() {
+                        String cn = System.getProperty(
+                            "java.nio.channels.spi.SelectorProvider");
+                        if (cn == null)
+                            return sun.nio.ch.DefaultSelectorProvider.create();
+                        try {
+                            Class c = Class.forName(cn, true,
+                                ClassLoader.getSystemClassLoader());
+                            return c.newInstance();
+                        } catch (ClassNotFoundException x) {
+                            throw new InternalError(x.toString());
+                        } catch (IllegalAccessException x) {
+                            throw new InternalError(x.toString());
+                        } catch (InstantiationException x) {
+                            throw new InternalError(x.toString());
+                        }
+                    }
+                });
+            return provider;
+        }
+    }
+
+    /**
+     * Opens a selector.
+     *
+     * @return the new selector.
+     * @exception IOException if an I/O error occurs.
+     */
+    public abstract AbstractSelector openSelector() throws IOException;
+
+    /**
+     * Opens a server-socket channel.
+     *
+     * @return the new channel.
+     * @exception IOException if an I/O error occurs.
+     */
+    public abstract ServerSocketChannel openServerSocketChannel()
+        throws IOException;
+
+    /**
+     * Opens a socket channel.
+     *
+     * @return the new channel.
+     * @exception IOException if an I/O error occurs.
+     */
+    public abstract SocketChannel openSocketChannel() throws IOException;
+}
@@ -8,6 +8,7 @@ package java.security;
 import java.util.Hashtable;
 import java.util.ArrayList;
 import java.net.URL;
+import java.security.cert.Certificate;
 
 import sun.security.util.Debug;
 
@@ -28,7 +29,7 @@ public class SecureClassLoader extends ClassLoader {
      */
     private boolean initialized = false;
 
-    // Hashtable that maps CodeSource to ProtectionDomain
+    // Hashtable that maps CodeSourceKey to ProtectionDomain
     private Hashtable pdcache = new Hashtable(11);
 
     private static final Debug debug = Debug.getInstance("scl");
@@ -148,10 +149,11 @@ public class SecureClassLoader extends ClassLoader {
 	if (cs == null)
 	    return null;
 
-	ProtectionDomain pd = (ProtectionDomain)pdcache.get(cs);
+	CodeSourceKey key = new CodeSourceKey(cs);
+	ProtectionDomain pd = (ProtectionDomain)pdcache.get(key);
 	if (pd == null) {
 	    synchronized (pdcache) {
-		pd = (ProtectionDomain)pdcache.get(cs);
+		pd = (ProtectionDomain)pdcache.get(key);
 		if (pd == null) {
 
 		    PermissionCollection perms = getPermissions(cs);
@@ -163,7 +165,7 @@ public class SecureClassLoader extends ClassLoader {
 		    pd = new ProtectionDomain(cs, perms);
 
 		    if (pd != null) {
-			pdcache.put(cs, pd);
+			pdcache.put(key, pd);
 		    }
 		}
 	    }
@@ -171,6 +173,59 @@ public class SecureClassLoader extends ClassLoader {
 	return pd;
     }
 
+    /*
+     * Key for the ProtectionDomain cache.  CodeSource.equals and hashCode
+     * compare locations with URL.equals, which may resolve host names, so
+     * the cache compares their identity keys instead.
+     */
+    private static final class CodeSourceKey {
+	private final String location;
+	private final Certificate[] certs;
+
+	CodeSourceKey(CodeSource cs) {
+	    URL url = cs.getLocation();
+	    this.location = (url != null) ? url.getIdentityKey() : null;
+	    this.certs = cs.getCertificates();
+	}
+
+	public int hashCode() {
+	    return (location != null) ? location.hashCode() : 0;
+	}
+
+	public boolean equals(Object obj) {
+	    if (obj == this)
+		return true;
+	    if (!(obj instanceof CodeSourceKey))
+		return false;
+	    CodeSourceKey k = (CodeSourceKey)obj;
+	    if (location == null ? k.location != null
+				 : !location.equals(k.location))
+		return false;
+	    return sameCerts(certs, k.certs) && sameCerts(k.certs, certs);
+	}
+
+	/*
+	 * Tests whether every certificate in a is also in b, as
+	 * CodeSource.equals compares them.
+	 */
+	private static boolean sameCerts(Certificate[] a, Certificate[] b) {
+	    if (a == null || b == null)
+		return a == b;
+	    for (int i = 0; i < a.length; i++) {
+		boolean match = false;
+		for (int j = 0; j < b.length; j++) {
+		    if (a[i].equals(b[j])) {
+			match = true;
+			break;
+		    }
+		}
+		if (!match)
+		    return false;
+	    }
+	    return true;
+	}
+    }
+
     /*
      * Check to make sure the class loader has been initialized.
      */
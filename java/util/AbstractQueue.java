@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * This class provides skeletal implementations of some {@link Queue}
+ * operations.  The implementations in this class are appropriate when the
+ * base implementation does <em>not</em> allow <tt>null</tt> elements.
+ * Methods <tt>add</tt>, <tt>remove</tt>, and <tt>element</tt> are based on
+ * <tt>offer</tt>, <tt>poll</tt>, and <tt>peek</tt>, respectively, but throw
+ * exceptions instead of indicating failure via <tt>false</tt> or
+ * <tt>null</tt> returns.<p>
+ *
+ * A <tt>Queue</tt> implementation that extends this class must minimally
+ * define a method <tt>offer</tt> which does not permit insertion of
+ * <tt>null</tt> elements, along with methods <tt>peek</tt>, <tt>poll</tt>,
+ * <tt>size</tt>, and a <tt>iterator</tt> supporting
+ * <tt>Iterator.remove</tt>.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Queue
+ * @see     AbstractCollection
+ * @since   1.4
+ */
+public abstract class AbstractQueue extends AbstractCollection
+                                   implements Queue {
+    /**
+     * Sole constructor.  (For invocation by subclass constructors, typically
+     * implicit.)
+     */
+    protected AbstractQueue() {
+    }
+
+    /**
+     * Adds the specified element to this queue.  This implementation
+     * returns <tt>true</tt> if <tt>offer</tt> succeeds, else throws an
+     * <tt>IllegalStateException</tt>.
+     *
+     * @param o the element.
+     * @return <tt>true</tt> (as per the general contract of
+     *         <tt>Collection.add</tt>).
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     * @throws IllegalStateException if element cannot be added.
+     */
+    public boolean add(Object o) {
+        if (offer(o))
+            return true;
+        else
+            throw new IllegalStateException("Queue full");
+    }
+
+    /**
+     * Retrieves and removes the head of this queue.  This implementation
+     * returns the result of <tt>poll</tt> unless the queue is empty.
+     *
+     * @return the head of this queue.
+     * @throws NoSuchElementException if this queue is empty.
+     */
+    public Object remove() {
+        Object x = poll();
+        if (x != null)
+            return x;
+        else
+            throw new NoSuchElementException();
+    }
+
+    /**
+     * Retrieves, but does not remove, the head of this queue.  This
+     * implementation returns the result of <tt>peek</tt> unless the queue
+     * is empty.
+     *
+     * @return the head of this queue.
+     * @throws NoSuchElementException if this queue is empty.
+     */
+    public Object element() {
+        Object x = peek();
+        if (x != null)
+            return x;
+        else
+            throw new NoSuchElementException();
+    }
+
+    /**
+     * Removes all of the elements from this queue.  This implementation
+     * repeatedly invokes <tt>poll</tt> until it returns <tt>null</tt>.
+     */
+    public void clear() {
+        while (poll() != null)
+            ;
+    }
+
+    /**
+     * Adds all of the elements in the specified collection to this queue.
+     * Attempts to <tt>addAll</tt> of a queue to itself result in
+     * <tt>IllegalArgumentException</tt>.
+     *
+     * @param c collection whose elements are to be added to this queue.
+     * @return <tt>true</tt> if this queue changed as a result of the call.
+     * @throws NullPointerException if <tt>c</tt> or any of its elements is
+     *         <tt>null</tt>.
+     * @throws IllegalArgumentException if <tt>c</tt> is this queue.
+     * @throws IllegalStateException if not all the elements can be added
+     *         because of capacity restrictions.
+     */
+    public boolean addAll(Collection c) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        boolean modified = false;
+        Iterator e = c.iterator();
+        while (e.hasNext()) {
+            if (add(e.next()))
+                modified = true;
+        }
+        return modified;
+    }
+}
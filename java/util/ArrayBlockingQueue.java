@@ -0,0 +1,153 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A bounded {@linkplain BlockingQueue blocking queue} backed by an array.
+ * This queue orders elements FIFO (first-in-first-out).  The <em>head</em>
+ * of the queue is that element that has been on the queue the longest
+ * time.  The <em>tail</em> of the queue is that element that has been on
+ * the queue the shortest time.  New elements are inserted at the tail of
+ * the queue, and the queue retrieval operations obtain elements at the
+ * head of the queue.<p>
+ *
+ * This is a classic &quot;bounded buffer&quot;, in which a fixed-sized
+ * array holds elements inserted by producers and extracted by consumers.
+ * Once created, the capacity cannot be increased.  Attempts to
+ * <tt>put</tt> an element into a full queue will result in the operation
+ * blocking; attempts to <tt>take</tt> an element from an empty queue will
+ * similarly block.  The array is allocated once, so a steady stream of
+ * <tt>put</tt> and <tt>take</tt> calls allocates nothing.<p>
+ *
+ * Producers and consumers lock separately: a producer only ever blocks
+ * another producer, and a consumer another consumer.  Blocked threads are
+ * woken one at a time, as space or elements become available.
+ *
+ * @version 1.1, 10/15/26
+ * @see     BlockingQueue
+ * @see     LinkedBlockingQueue
+ * @since   1.4
+ */
+public class ArrayBlockingQueue extends TwoLockQueue {
+    private static final long serialVersionUID = -817911632652898426L;
+
+    /** The queued items */
+    private transient Object[] items;
+
+    /** Index of the next item to take; guarded by takeLock */
+    private transient int takeIndex;
+
+    /** Index of the next slot to put into; guarded by putLock */
+    private transient int putIndex;
+
+    /**
+     * Creates an <tt>ArrayBlockingQueue</tt> with the given (fixed)
+     * capacity.
+     *
+     * @param capacity the capacity of this queue.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is less than 1.
+     */
+    public ArrayBlockingQueue(int capacity) {
+        super(capacity);
+        initStorage();
+    }
+
+    /**
+     * Creates an <tt>ArrayBlockingQueue</tt> with the given (fixed)
+     * capacity, initially containing the elements of the given collection,
+     * added in traversal order of the collection's iterator.
+     *
+     * @param capacity the capacity of this queue.
+     * @param c the collection of elements to initially contain.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is less than
+     *         <tt>c.size()</tt>, or less than 1.
+     * @throws NullPointerException if <tt>c</tt> or any element within it
+     *         is <tt>null</tt>.
+     */
+    public ArrayBlockingQueue(int capacity, Collection c) {
+        this(capacity);
+        if (capacity < c.size())
+            throw new IllegalArgumentException();
+        for (Iterator it = c.iterator(); it.hasNext();)
+            add(it.next());
+    }
+
+    void initStorage() {
+        items = new Object[capacity];
+        takeIndex = 0;
+        putIndex = 0;
+    }
+
+    /** Circularly increments i */
+    private int inc(int i) {
+        return (++i == items.length) ? 0 : i;
+    }
+
+    void enqueue(Object x) {
+        items[putIndex] = x;
+        putIndex = inc(putIndex);
+    }
+
+    Object dequeue() {
+        Object x = items[takeIndex];
+        items[takeIndex] = null;
+        takeIndex = inc(takeIndex);
+        return x;
+    }
+
+    Object first() {
+        return items[takeIndex];
+    }
+
+    Object[] elements() {
+        int n = count.get();
+        Object[] a = new Object[n];
+        for (int i = 0, k = takeIndex; i < n; i++, k = inc(k))
+            a[i] = items[k];
+        return a;
+    }
+
+    boolean removeElement(Object o, boolean identity) {
+        int n = count.get();
+        for (int i = 0, k = takeIndex; i < n; i++, k = inc(k)) {
+            Object x = items[k];
+            if (identity ? x == o : o.equals(x)) {
+                removeAt(k);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the item at slot i by sliding the later items down one
+     * place.  Called holding both locks.
+     */
+    private void removeAt(int i) {
+        if (i == takeIndex) {
+            items[takeIndex] = null;
+            takeIndex = inc(takeIndex);
+            return;
+        }
+        for (;;) {
+            int next = inc(i);
+            if (next == putIndex) {
+                items[i] = null;
+                putIndex = i;
+                return;
+            }
+            items[i] = items[next];
+            i = next;
+        }
+    }
+
+    void clearElements() {
+        int n = count.get();
+        for (int i = 0, k = takeIndex; i < n; i++, k = inc(k))
+            items[k] = null;
+        takeIndex = putIndex = 0;
+    }
+}
@@ -38,7 +38,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      */
@@ -56,7 +58,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      * @param fromIndex the index of the first element (inclusive) to be
@@ -77,7 +81,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      */
@@ -95,7 +101,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      * @param fromIndex the index of the first element (inclusive) to be
@@ -116,7 +124,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      */
@@ -134,7 +144,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      * @param fromIndex the index of the first element (inclusive) to be
@@ -155,7 +167,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      */
@@ -173,7 +187,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      * @param fromIndex the index of the first element (inclusive) to be
@@ -194,7 +210,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      */
@@ -212,7 +230,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      * @param fromIndex the index of the first element (inclusive) to be
@@ -233,12 +253,14 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      */
     public static void sort(double[] a) {
-	sort2(a, 0, a.length);
+	sort2(a, 0, a.length, false);
     }
 
     /**
@@ -251,7 +273,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      * @param fromIndex the index of the first element (inclusive) to be
@@ -263,7 +287,7 @@ public class Arrays {
      */
     public static void sort(double[] a, int fromIndex, int toIndex) {
         rangeCheck(a.length, fromIndex, toIndex);
-	sort2(a, fromIndex, toIndex);
+	sort2(a, fromIndex, toIndex, false);
     }
 
     /**
@@ -272,12 +296,14 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      */
     public static void sort(float[] a) {
-	sort2(a, 0, a.length);
+	sort2(a, 0, a.length, false);
     }
 
     /**
@@ -290,7 +316,9 @@ public class Arrays {
      * L. Bentley and M. Douglas McIlroy's "Engineering a Sort Function",
      * Software-Practice and Experience, Vol. 23(11) P. 1249-1265 (November
      * 1993).  This algorithm offers n*log(n) performance on many data sets
-     * that cause other quicksorts to degrade to quadratic performance.
+     * that cause other quicksorts to degrade to quadratic performance, and
+     * it switches to heapsort on any data set that still partitions badly,
+     * so its worst case is also n*log(n).
      *
      * @param a the array to be sorted.
      * @param fromIndex the index of the first element (inclusive) to be
@@ -302,10 +330,11 @@ public class Arrays {
      */
     public static void sort(float[] a, int fromIndex, int toIndex) {
         rangeCheck(a.length, fromIndex, toIndex);
-	sort2(a, fromIndex, toIndex);
+	sort2(a, fromIndex, toIndex, false);
     }
 
-    private static void sort2(double a[], int fromIndex, int toIndex) {
+    private static void sort2(double a[], int fromIndex, int toIndex,
+                              boolean parallel) {
         final long NEG_ZERO_BITS = Double.doubleToLongBits(-0.0d);
         /*
          * The sort is done in three phases to avoid the expense of using
@@ -332,7 +361,10 @@ public class Arrays {
         }
 
         // Main sort phase: quicksort everything but the NaN's
-	sort1(a, fromIndex, n-fromIndex);
+        if (parallel)
+            new DoubleSorter(a).sort(fromIndex, n);
+        else
+            sort1(a, fromIndex, n-fromIndex);
 
         // Postprocessing phase: change 0.0's to -0.0's as required
         if (numNegZeros != 0) {
@@ -348,7 +380,8 @@ public class Arrays {
     }
 
 
-    private static void sort2(float a[], int fromIndex, int toIndex) {
+    private static void sort2(float a[], int fromIndex, int toIndex,
+                              boolean parallel) {
         final int NEG_ZERO_BITS = Float.floatToIntBits(-0.0f);
         /*
          * The sort is done in three phases to avoid the expense of using
@@ -375,7 +408,10 @@ public class Arrays {
         }
 
         // Main sort phase: quicksort everything but the NaN's
-	sort1(a, fromIndex, n-fromIndex);
+        if (parallel)
+            new FloatSorter(a).sort(fromIndex, n);
+        else
+            sort1(a, fromIndex, n-fromIndex);
 
         // Postprocessing phase: change 0.0's to -0.0's as required
         if (numNegZeros != 0) {
@@ -396,10 +432,32 @@ public class Arrays {
      * C'est la vie.
      */
 
+    /**
+     * Returns the number of levels of partitioning after which a quicksort
+     * of len elements switches to heapsort: twice the depth of a perfectly
+     * balanced partitioning.  This bounds the worst case at n*log(n).
+     */
+    private static int depthLimit(int len) {
+	int depth = 0;
+	while (len > 1) {
+	    len >>>= 1;
+	    depth += 2;
+	}
+	return depth;
+    }
+
     /**
      * Sorts the specified sub-array of longs into ascending order.
      */
     private static void sort1(long x[], int off, int len) {
+	sort1(x, off, len, depthLimit(len));
+    }
+
+    /**
+     * Sorts the specified sub-array of longs into ascending order, falling
+     * back on heapsort once depth levels of partitioning have been used up.
+     */
+    private static void sort1(long x[], int off, int len, int depth) {
 	// Insertion sort on smallest arrays
 	if (len < 7) {
 	    for (int i=off; i<len+off; i++)
@@ -408,6 +466,13 @@ public class Arrays {
 	    return;
 	}
 
+	// Fall back on heapsort if partitioning has gone badly
+	if (depth == 0) {
+	    heapSort(x, off, len);
+	    return;
+	}
+	depth--;
+
 	// Choose a partition element, v
 	int m = off + len/2;       // Small arrays, middle element
 	if (len > 7) {
@@ -448,9 +513,9 @@ public class Arrays {
 
 	// Recursively sort non-partition-elements
 	if ((s = b-a) > 1)
-	    sort1(x, off, s);
+	    sort1(x, off, s, depth);
 	if ((s = d-c) > 1)
-	    sort1(x, n-s, s);
+	    sort1(x, n-s, s, depth);
     }
 
     /**
@@ -479,10 +544,49 @@ public class Arrays {
 		(x[b] > x[c] ? b : x[a] > x[c] ? c : a));
     }
 
+    /**
+     * Sorts the specified sub-array of longs into ascending order with
+     * heapsort.
+     */
+    private static void heapSort(long x[], int off, int len) {
+	for (int i = len/2 - 1; i >= 0; i--)
+	    siftDown(x, off, i, len);
+	for (int n = len - 1; n > 0; n--) {
+	    swap(x, off, off + n);
+	    siftDown(x, off, 0, n);
+	}
+    }
+
+    /**
+     * Restores the heap property of the n-element heap at x[off] by moving
+     * the element at heap position i down.
+     */
+    private static void siftDown(long x[], int off, int i, int n) {
+	long v = x[off + i];
+	int child;
+	while ((child = 2*i + 1) < n) {
+	    if (child + 1 < n && x[off + child] < x[off + child + 1])
+		child++;
+	    if (v >= x[off + child])
+		break;
+	    x[off + i] = x[off + child];
+	    i = child;
+	}
+	x[off + i] = v;
+    }
+
     /**
      * Sorts the specified sub-array of integers into ascending order.
      */
     private static void sort1(int x[], int off, int len) {
+	sort1(x, off, len, depthLimit(len));
+    }
+
+    /**
+     * Sorts the specified sub-array of integers into ascending order, falling
+     * back on heapsort once depth levels of partitioning have been used up.
+     */
+    private static void sort1(int x[], int off, int len, int depth) {
 	// Insertion sort on smallest arrays
 	if (len < 7) {
 	    for (int i=off; i<len+off; i++)
@@ -491,6 +595,13 @@ public class Arrays {
 	    return;
 	}
 
+	// Fall back on heapsort if partitioning has gone badly
+	if (depth == 0) {
+	    heapSort(x, off, len);
+	    return;
+	}
+	depth--;
+
 	// Choose a partition element, v
 	int m = off + len/2;       // Small arrays, middle element
 	if (len > 7) {
@@ -531,9 +642,9 @@ public class Arrays {
 
 	// Recursively sort non-partition-elements
 	if ((s = b-a) > 1)
-	    sort1(x, off, s);
+	    sort1(x, off, s, depth);
 	if ((s = d-c) > 1)
-	    sort1(x, n-s, s);
+	    sort1(x, n-s, s, depth);
     }
 
     /**
@@ -562,10 +673,49 @@ public class Arrays {
 		(x[b] > x[c] ? b : x[a] > x[c] ? c : a));
     }
 
+    /**
+     * Sorts the specified sub-array of integers into ascending order with
+     * heapsort.
+     */
+    private static void heapSort(int x[], int off, int len) {
+	for (int i = len/2 - 1; i >= 0; i--)
+	    siftDown(x, off, i, len);
+	for (int n = len - 1; n > 0; n--) {
+	    swap(x, off, off + n);
+	    siftDown(x, off, 0, n);
+	}
+    }
+
+    /**
+     * Restores the heap property of the n-element heap at x[off] by moving
+     * the element at heap position i down.
+     */
+    private static void siftDown(int x[], int off, int i, int n) {
+	int v = x[off + i];
+	int child;
+	while ((child = 2*i + 1) < n) {
+	    if (child + 1 < n && x[off + child] < x[off + child + 1])
+		child++;
+	    if (v >= x[off + child])
+		break;
+	    x[off + i] = x[off + child];
+	    i = child;
+	}
+	x[off + i] = v;
+    }
+
     /**
      * Sorts the specified sub-array of shorts into ascending order.
      */
     private static void sort1(short x[], int off, int len) {
+	sort1(x, off, len, depthLimit(len));
+    }
+
+    /**
+     * Sorts the specified sub-array of shorts into ascending order, falling
+     * back on heapsort once depth levels of partitioning have been used up.
+     */
+    private static void sort1(short x[], int off, int len, int depth) {
 	// Insertion sort on smallest arrays
 	if (len < 7) {
 	    for (int i=off; i<len+off; i++)
@@ -574,6 +724,13 @@ public class Arrays {
 	    return;
 	}
 
+	// Fall back on heapsort if partitioning has gone badly
+	if (depth == 0) {
+	    heapSort(x, off, len);
+	    return;
+	}
+	depth--;
+
 	// Choose a partition element, v
 	int m = off + len/2;       // Small arrays, middle element
 	if (len > 7) {
@@ -614,9 +771,9 @@ public class Arrays {
 
 	// Recursively sort non-partition-elements
 	if ((s = b-a) > 1)
-	    sort1(x, off, s);
+	    sort1(x, off, s, depth);
 	if ((s = d-c) > 1)
-	    sort1(x, n-s, s);
+	    sort1(x, n-s, s, depth);
     }
 
     /**
@@ -645,11 +802,50 @@ public class Arrays {
 		(x[b] > x[c] ? b : x[a] > x[c] ? c : a));
     }
 
+    /**
+     * Sorts the specified sub-array of shorts into ascending order with
+     * heapsort.
+     */
+    private static void heapSort(short x[], int off, int len) {
+	for (int i = len/2 - 1; i >= 0; i--)
+	    siftDown(x, off, i, len);
+	for (int n = len - 1; n > 0; n--) {
+	    swap(x, off, off + n);
+	    siftDown(x, off, 0, n);
+	}
+    }
+
+    /**
+     * Restores the heap property of the n-element heap at x[off] by moving
+     * the element at heap position i down.
+     */
+    private static void siftDown(short x[], int off, int i, int n) {
+	short v = x[off + i];
+	int child;
+	while ((child = 2*i + 1) < n) {
+	    if (child + 1 < n && x[off + child] < x[off + child + 1])
+		child++;
+	    if (v >= x[off + child])
+		break;
+	    x[off + i] = x[off + child];
+	    i = child;
+	}
+	x[off + i] = v;
+    }
+
 
     /**
      * Sorts the specified sub-array of chars into ascending order.
      */
     private static void sort1(char x[], int off, int len) {
+	sort1(x, off, len, depthLimit(len));
+    }
+
+    /**
+     * Sorts the specified sub-array of chars into ascending order, falling
+     * back on heapsort once depth levels of partitioning have been used up.
+     */
+    private static void sort1(char x[], int off, int len, int depth) {
 	// Insertion sort on smallest arrays
 	if (len < 7) {
 	    for (int i=off; i<len+off; i++)
@@ -658,6 +854,13 @@ public class Arrays {
 	    return;
 	}
 
+	// Fall back on heapsort if partitioning has gone badly
+	if (depth == 0) {
+	    heapSort(x, off, len);
+	    return;
+	}
+	depth--;
+
 	// Choose a partition element, v
 	int m = off + len/2;       // Small arrays, middle element
 	if (len > 7) {
@@ -698,9 +901,9 @@ public class Arrays {
 
 	// Recursively sort non-partition-elements
 	if ((s = b-a) > 1)
-	    sort1(x, off, s);
+	    sort1(x, off, s, depth);
 	if ((s = d-c) > 1)
-	    sort1(x, n-s, s);
+	    sort1(x, n-s, s, depth);
     }
 
     /**
@@ -729,11 +932,50 @@ public class Arrays {
 		(x[b] > x[c] ? b : x[a] > x[c] ? c : a));
     }
 
+    /**
+     * Sorts the specified sub-array of chars into ascending order with
+     * heapsort.
+     */
+    private static void heapSort(char x[], int off, int len) {
+	for (int i = len/2 - 1; i >= 0; i--)
+	    siftDown(x, off, i, len);
+	for (int n = len - 1; n > 0; n--) {
+	    swap(x, off, off + n);
+	    siftDown(x, off, 0, n);
+	}
+    }
+
+    /**
+     * Restores the heap property of the n-element heap at x[off] by moving
+     * the element at heap position i down.
+     */
+    private static void siftDown(char x[], int off, int i, int n) {
+	char v = x[off + i];
+	int child;
+	while ((child = 2*i + 1) < n) {
+	    if (child + 1 < n && x[off + child] < x[off + child + 1])
+		child++;
+	    if (v >= x[off + child])
+		break;
+	    x[off + i] = x[off + child];
+	    i = child;
+	}
+	x[off + i] = v;
+    }
+
 
     /**
      * Sorts the specified sub-array of bytes into ascending order.
      */
     private static void sort1(byte x[], int off, int len) {
+	sort1(x, off, len, depthLimit(len));
+    }
+
+    /**
+     * Sorts the specified sub-array of bytes into ascending order, falling
+     * back on heapsort once depth levels of partitioning have been used up.
+     */
+    private static void sort1(byte x[], int off, int len, int depth) {
 	// Insertion sort on smallest arrays
 	if (len < 7) {
 	    for (int i=off; i<len+off; i++)
@@ -742,6 +984,13 @@ public class Arrays {
 	    return;
 	}
 
+	// Fall back on heapsort if partitioning has gone badly
+	if (depth == 0) {
+	    heapSort(x, off, len);
+	    return;
+	}
+	depth--;
+
 	// Choose a partition element, v
 	int m = off + len/2;       // Small arrays, middle element
 	if (len > 7) {
@@ -782,9 +1031,9 @@ public class Arrays {
 
 	// Recursively sort non-partition-elements
 	if ((s = b-a) > 1)
-	    sort1(x, off, s);
+	    sort1(x, off, s, depth);
 	if ((s = d-c) > 1)
-	    sort1(x, n-s, s);
+	    sort1(x, n-s, s, depth);
     }
 
     /**
@@ -813,11 +1062,50 @@ public class Arrays {
 		(x[b] > x[c] ? b : x[a] > x[c] ? c : a));
     }
 
+    /**
+     * Sorts the specified sub-array of bytes into ascending order with
+     * heapsort.
+     */
+    private static void heapSort(byte x[], int off, int len) {
+	for (int i = len/2 - 1; i >= 0; i--)
+	    siftDown(x, off, i, len);
+	for (int n = len - 1; n > 0; n--) {
+	    swap(x, off, off + n);
+	    siftDown(x, off, 0, n);
+	}
+    }
+
+    /**
+     * Restores the heap property of the n-element heap at x[off] by moving
+     * the element at heap position i down.
+     */
+    private static void siftDown(byte x[], int off, int i, int n) {
+	byte v = x[off + i];
+	int child;
+	while ((child = 2*i + 1) < n) {
+	    if (child + 1 < n && x[off + child] < x[off + child + 1])
+		child++;
+	    if (v >= x[off + child])
+		break;
+	    x[off + i] = x[off + child];
+	    i = child;
+	}
+	x[off + i] = v;
+    }
+
 
     /**
      * Sorts the specified sub-array of doubles into ascending order.
      */
     private static void sort1(double x[], int off, int len) {
+	sort1(x, off, len, depthLimit(len));
+    }
+
+    /**
+     * Sorts the specified sub-array of doubles into ascending order, falling
+     * back on heapsort once depth levels of partitioning have been used up.
+     */
+    private static void sort1(double x[], int off, int len, int depth) {
 	// Insertion sort on smallest arrays
 	if (len < 7) {
 	    for (int i=off; i<len+off; i++)
@@ -826,6 +1114,13 @@ public class Arrays {
 	    return;
 	}
 
+	// Fall back on heapsort if partitioning has gone badly
+	if (depth == 0) {
+	    heapSort(x, off, len);
+	    return;
+	}
+	depth--;
+
 	// Choose a partition element, v
 	int m = off + len/2;       // Small arrays, middle element
 	if (len > 7) {
@@ -866,9 +1161,9 @@ public class Arrays {
 
 	// Recursively sort non-partition-elements
 	if ((s = b-a) > 1)
-	    sort1(x, off, s);
+	    sort1(x, off, s, depth);
 	if ((s = d-c) > 1)
-	    sort1(x, n-s, s);
+	    sort1(x, n-s, s, depth);
     }
 
     /**
@@ -897,11 +1192,50 @@ public class Arrays {
 		(x[b] > x[c] ? b : x[a] > x[c] ? c : a));
     }
 
+    /**
+     * Sorts the specified sub-array of doubles into ascending order with
+     * heapsort.
+     */
+    private static void heapSort(double x[], int off, int len) {
+	for (int i = len/2 - 1; i >= 0; i--)
+	    siftDown(x, off, i, len);
+	for (int n = len - 1; n > 0; n--) {
+	    swap(x, off, off + n);
+	    siftDown(x, off, 0, n);
+	}
+    }
+
+    /**
+     * Restores the heap property of the n-element heap at x[off] by moving
+     * the element at heap position i down.
+     */
+    private static void siftDown(double x[], int off, int i, int n) {
+	double v = x[off + i];
+	int child;
+	while ((child = 2*i + 1) < n) {
+	    if (child + 1 < n && x[off + child] < x[off + child + 1])
+		child++;
+	    if (v >= x[off + child])
+		break;
+	    x[off + i] = x[off + child];
+	    i = child;
+	}
+	x[off + i] = v;
+    }
+
 
     /**
      * Sorts the specified sub-array of floats into ascending order.
      */
     private static void sort1(float x[], int off, int len) {
+	sort1(x, off, len, depthLimit(len));
+    }
+
+    /**
+     * Sorts the specified sub-array of floats into ascending order, falling
+     * back on heapsort once depth levels of partitioning have been used up.
+     */
+    private static void sort1(float x[], int off, int len, int depth) {
 	// Insertion sort on smallest arrays
 	if (len < 7) {
 	    for (int i=off; i<len+off; i++)
@@ -910,6 +1244,13 @@ public class Arrays {
 	    return;
 	}
 
+	// Fall back on heapsort if partitioning has gone badly
+	if (depth == 0) {
+	    heapSort(x, off, len);
+	    return;
+	}
+	depth--;
+
 	// Choose a partition element, v
 	int m = off + len/2;       // Small arrays, middle element
 	if (len > 7) {
@@ -950,9 +1291,9 @@ public class Arrays {
 
 	// Recursively sort non-partition-elements
 	if ((s = b-a) > 1)
-	    sort1(x, off, s);
+	    sort1(x, off, s, depth);
 	if ((s = d-c) > 1)
-	    sort1(x, n-s, s);
+	    sort1(x, n-s, s, depth);
     }
 
     /**
@@ -981,6 +1322,37 @@ public class Arrays {
 		(x[b] > x[c] ? b : x[a] > x[c] ? c : a));
     }
 
+    /**
+     * Sorts the specified sub-array of floats into ascending order with
+     * heapsort.
+     */
+    private static void heapSort(float x[], int off, int len) {
+	for (int i = len/2 - 1; i >= 0; i--)
+	    siftDown(x, off, i, len);
+	for (int n = len - 1; n > 0; n--) {
+	    swap(x, off, off + n);
+	    siftDown(x, off, 0, n);
+	}
+    }
+
+    /**
+     * Restores the heap property of the n-element heap at x[off] by moving
+     * the element at heap position i down.
+     */
+    private static void siftDown(float x[], int off, int i, int n) {
+	float v = x[off + i];
+	int child;
+	while ((child = 2*i + 1) < n) {
+	    if (child + 1 < n && x[off + child] < x[off + child + 1])
+		child++;
+	    if (v >= x[off + child])
+		break;
+	    x[off + i] = x[off + child];
+	    i = child;
+	}
+	x[off + i] = v;
+    }
+
 
     /**
      * Sorts the specified array of objects into ascending order, according to
@@ -1006,7 +1378,7 @@ public class Arrays {
      */
     public static void sort(Object[] a) {
         Object aux[] = (Object[])a.clone();
-        mergeSort(aux, a, 0, a.length);
+        mergeSort(aux, a, 0, a.length, 0);
     }
 
     /**
@@ -1044,12 +1416,29 @@ public class Arrays {
      */
     public static void sort(Object[] a, int fromIndex, int toIndex) {
         rangeCheck(a.length, fromIndex, toIndex);
-        Object aux[] = (Object[])a.clone();  // Optimization opportunity
-        mergeSort(aux, a, fromIndex, toIndex);
+        Object aux[] = copyOfRange(a, fromIndex, toIndex);
+        mergeSort(aux, a, fromIndex, toIndex, -fromIndex);
+    }
+
+    /**
+     * Returns a new array holding a[fromIndex .. toIndex-1], to serve as
+     * the scratch space of a merge sort of just that range.
+     */
+    private static Object[] copyOfRange(Object[] a, int fromIndex,
+                                        int toIndex) {
+        Object aux[] = new Object[toIndex - fromIndex];
+        System.arraycopy(a, fromIndex, aux, 0, aux.length);
+        return aux;
     }
 
+    /**
+     * Sorts dest[low .. high-1], using src as scratch space.  On entry the
+     * range must hold the same elements in src and dest, where the element
+     * at dest[i] is at src[i+off]; off is non-zero when src is a copy of
+     * just the range being sorted.
+     */
     private static void mergeSort(Object src[], Object dest[],
-                                  int low, int high) {
+                                  int low, int high, int off) {
 	int length = high - low;
 
 	// Insertion sort on smallest arrays
@@ -1062,19 +1451,23 @@ public class Arrays {
 	}
 
         // Recursively sort halves of dest into src
+        int destLow  = low;
+        int destHigh = high;
+        low  += off;
+        high += off;
         int mid = (low + high)/2;
-        mergeSort(dest, src, low, mid);
-        mergeSort(dest, src, mid, high);
+        mergeSort(dest, src, low, mid, -off);
+        mergeSort(dest, src, mid, high, -off);
 
         // If list is already sorted, just copy from src to dest.  This is an
         // optimization that results in faster sorts for nearly ordered lists.
         if (((Comparable)src[mid-1]).compareTo((Comparable)src[mid]) <= 0) {
-           System.arraycopy(src, low, dest, low, length);
+           System.arraycopy(src, low, dest, destLow, length);
            return;
         }
 
         // Merge sorted halves (now in src) into dest
-        for(int i = low, p = low, q = mid; i < high; i++) {
+        for(int i = destLow, p = low, q = mid; i < destHigh; i++) {
             if (q>=high || p<mid && ((Comparable)src[p]).compareTo(src[q])<=0)
                 dest[i] = src[p++];
             else
@@ -1118,9 +1511,9 @@ public class Arrays {
     public static void sort(Object[] a, Comparator c) {
         Object aux[] = (Object[])a.clone();
         if (c==null)
-            mergeSort(aux, a, 0, a.length);
+            mergeSort(aux, a, 0, a.length, 0);
         else
-            mergeSort(aux, a, 0, a.length, c);
+            mergeSort(aux, a, 0, a.length, 0, c);
     }
 
     /**
@@ -1159,15 +1552,15 @@ public class Arrays {
     public static void sort(Object[] a, int fromIndex, int toIndex,
                             Comparator c) {
         rangeCheck(a.length, fromIndex, toIndex);
-        Object aux[] = (Object[])a.clone();
+        Object aux[] = copyOfRange(a, fromIndex, toIndex);
         if (c==null)
-            mergeSort(aux, a, fromIndex, toIndex);
+            mergeSort(aux, a, fromIndex, toIndex, -fromIndex);
         else
-            mergeSort(aux, a, fromIndex, toIndex, c);
+            mergeSort(aux, a, fromIndex, toIndex, -fromIndex, c);
     }
 
     private static void mergeSort(Object src[], Object dest[],
-                                  int low, int high, Comparator c) {
+                                  int low, int high, int off, Comparator c) {
 	int length = high - low;
 
 	// Insertion sort on smallest arrays
@@ -1179,19 +1572,23 @@ public class Arrays {
 	}
 
         // Recursively sort halves of dest into src
+        int destLow  = low;
+        int destHigh = high;
+        low  += off;
+        high += off;
         int mid = (low + high)/2;
-        mergeSort(dest, src, low, mid, c);
-        mergeSort(dest, src, mid, high, c);
+        mergeSort(dest, src, low, mid, -off, c);
+        mergeSort(dest, src, mid, high, -off, c);
 
         // If list is already sorted, just copy from src to dest.  This is an
         // optimization that results in faster sorts for nearly ordered lists.
         if (c.compare(src[mid-1], src[mid]) <= 0) {
-           System.arraycopy(src, low, dest, low, length);
+           System.arraycopy(src, low, dest, destLow, length);
            return;
         }
 
         // Merge sorted halves (now in src) into dest
-        for(int i = low, p = low, q = mid; i < high; i++) {
+        for(int i = destLow, p = low, q = mid; i < destHigh; i++) {
             if (q>=high || p<mid && c.compare(src[p], src[q]) <= 0)
                 dest[i] = src[p++];
             else
@@ -1199,6 +1596,646 @@ public class Arrays {
         }
     }
 
+
+    // Parallel sorting
+
+    /**
+     * Sorts the specified array of longs into ascending numerical order,
+     * using several threads on a multiprocessor.  The result is the same as
+     * that of {@link #sort(long[])}.<p>
+     *
+     * The array is divided into one contiguous run per available
+     * processor, each run is sorted with the algorithm of
+     * <tt>sort(long[])</tt> in a thread of its own, and the sorted runs are
+     * merged, again concurrently where possible.  The merges use a scratch
+     * array as long as the input.  Arrays too short to benefit are sorted
+     * sequentially in the calling thread.
+     *
+     * @param a the array to be sorted.
+     * @since 1.4
+     */
+    public static void parallelSort(long[] a) {
+        new LongSorter(a).sort(0, a.length);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of longs into
+     * ascending numerical order, using several threads on a multiprocessor.
+     * The range to be sorted extends from index <tt>fromIndex</tt>,
+     * inclusive, to index <tt>toIndex</tt>, exclusive.  (If
+     * <tt>fromIndex==toIndex</tt>, the range to be sorted is empty.)  The
+     * result is the same as that of
+     * {@link #sort(long[], int, int)}.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @see #parallelSort(long[])
+     * @since 1.4
+     */
+    public static void parallelSort(long[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        new LongSorter(a).sort(fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array of ints into ascending numerical order,
+     * using several threads on a multiprocessor.  The result is the same as
+     * that of {@link #sort(int[])}.<p>
+     *
+     * The array is divided into one contiguous run per available
+     * processor, each run is sorted with the algorithm of
+     * <tt>sort(int[])</tt> in a thread of its own, and the sorted runs are
+     * merged, again concurrently where possible.  The merges use a scratch
+     * array as long as the input.  Arrays too short to benefit are sorted
+     * sequentially in the calling thread.
+     *
+     * @param a the array to be sorted.
+     * @since 1.4
+     */
+    public static void parallelSort(int[] a) {
+        new IntSorter(a).sort(0, a.length);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of ints into
+     * ascending numerical order, using several threads on a multiprocessor.
+     * The range to be sorted extends from index <tt>fromIndex</tt>,
+     * inclusive, to index <tt>toIndex</tt>, exclusive.  (If
+     * <tt>fromIndex==toIndex</tt>, the range to be sorted is empty.)  The
+     * result is the same as that of
+     * {@link #sort(int[], int, int)}.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @see #parallelSort(int[])
+     * @since 1.4
+     */
+    public static void parallelSort(int[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        new IntSorter(a).sort(fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array of shorts into ascending numerical order,
+     * using several threads on a multiprocessor.  The result is the same as
+     * that of {@link #sort(short[])}.<p>
+     *
+     * The array is divided into one contiguous run per available
+     * processor, each run is sorted with the algorithm of
+     * <tt>sort(short[])</tt> in a thread of its own, and the sorted runs are
+     * merged, again concurrently where possible.  The merges use a scratch
+     * array as long as the input.  Arrays too short to benefit are sorted
+     * sequentially in the calling thread.
+     *
+     * @param a the array to be sorted.
+     * @since 1.4
+     */
+    public static void parallelSort(short[] a) {
+        new ShortSorter(a).sort(0, a.length);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of shorts into
+     * ascending numerical order, using several threads on a multiprocessor.
+     * The range to be sorted extends from index <tt>fromIndex</tt>,
+     * inclusive, to index <tt>toIndex</tt>, exclusive.  (If
+     * <tt>fromIndex==toIndex</tt>, the range to be sorted is empty.)  The
+     * result is the same as that of
+     * {@link #sort(short[], int, int)}.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @see #parallelSort(short[])
+     * @since 1.4
+     */
+    public static void parallelSort(short[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        new ShortSorter(a).sort(fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array of chars into ascending numerical order,
+     * using several threads on a multiprocessor.  The result is the same as
+     * that of {@link #sort(char[])}.<p>
+     *
+     * The array is divided into one contiguous run per available
+     * processor, each run is sorted with the algorithm of
+     * <tt>sort(char[])</tt> in a thread of its own, and the sorted runs are
+     * merged, again concurrently where possible.  The merges use a scratch
+     * array as long as the input.  Arrays too short to benefit are sorted
+     * sequentially in the calling thread.
+     *
+     * @param a the array to be sorted.
+     * @since 1.4
+     */
+    public static void parallelSort(char[] a) {
+        new CharSorter(a).sort(0, a.length);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of chars into
+     * ascending numerical order, using several threads on a multiprocessor.
+     * The range to be sorted extends from index <tt>fromIndex</tt>,
+     * inclusive, to index <tt>toIndex</tt>, exclusive.  (If
+     * <tt>fromIndex==toIndex</tt>, the range to be sorted is empty.)  The
+     * result is the same as that of
+     * {@link #sort(char[], int, int)}.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @see #parallelSort(char[])
+     * @since 1.4
+     */
+    public static void parallelSort(char[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        new CharSorter(a).sort(fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array of bytes into ascending numerical order,
+     * using several threads on a multiprocessor.  The result is the same as
+     * that of {@link #sort(byte[])}.<p>
+     *
+     * The array is divided into one contiguous run per available
+     * processor, each run is sorted with the algorithm of
+     * <tt>sort(byte[])</tt> in a thread of its own, and the sorted runs are
+     * merged, again concurrently where possible.  The merges use a scratch
+     * array as long as the input.  Arrays too short to benefit are sorted
+     * sequentially in the calling thread.
+     *
+     * @param a the array to be sorted.
+     * @since 1.4
+     */
+    public static void parallelSort(byte[] a) {
+        new ByteSorter(a).sort(0, a.length);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of bytes into
+     * ascending numerical order, using several threads on a multiprocessor.
+     * The range to be sorted extends from index <tt>fromIndex</tt>,
+     * inclusive, to index <tt>toIndex</tt>, exclusive.  (If
+     * <tt>fromIndex==toIndex</tt>, the range to be sorted is empty.)  The
+     * result is the same as that of
+     * {@link #sort(byte[], int, int)}.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @see #parallelSort(byte[])
+     * @since 1.4
+     */
+    public static void parallelSort(byte[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        new ByteSorter(a).sort(fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array of doubles into ascending numerical order,
+     * using several threads on a multiprocessor.  The result is the same as
+     * that of {@link #sort(double[])}.<p>
+     *
+     * The array is divided into one contiguous run per available
+     * processor, each run is sorted with the algorithm of
+     * <tt>sort(double[])</tt> in a thread of its own, and the sorted runs are
+     * merged, again concurrently where possible.  The merges use a scratch
+     * array as long as the input.  Arrays too short to benefit are sorted
+     * sequentially in the calling thread.
+     *
+     * @param a the array to be sorted.
+     * @since 1.4
+     */
+    public static void parallelSort(double[] a) {
+        sort2(a, 0, a.length, true);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of doubles into
+     * ascending numerical order, using several threads on a multiprocessor.
+     * The range to be sorted extends from index <tt>fromIndex</tt>,
+     * inclusive, to index <tt>toIndex</tt>, exclusive.  (If
+     * <tt>fromIndex==toIndex</tt>, the range to be sorted is empty.)  The
+     * result is the same as that of
+     * {@link #sort(double[], int, int)}.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @see #parallelSort(double[])
+     * @since 1.4
+     */
+    public static void parallelSort(double[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        sort2(a, fromIndex, toIndex, true);
+    }
+
+    /**
+     * Sorts the specified array of floats into ascending numerical order,
+     * using several threads on a multiprocessor.  The result is the same as
+     * that of {@link #sort(float[])}.<p>
+     *
+     * The array is divided into one contiguous run per available
+     * processor, each run is sorted with the algorithm of
+     * <tt>sort(float[])</tt> in a thread of its own, and the sorted runs are
+     * merged, again concurrently where possible.  The merges use a scratch
+     * array as long as the input.  Arrays too short to benefit are sorted
+     * sequentially in the calling thread.
+     *
+     * @param a the array to be sorted.
+     * @since 1.4
+     */
+    public static void parallelSort(float[] a) {
+        sort2(a, 0, a.length, true);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of floats into
+     * ascending numerical order, using several threads on a multiprocessor.
+     * The range to be sorted extends from index <tt>fromIndex</tt>,
+     * inclusive, to index <tt>toIndex</tt>, exclusive.  (If
+     * <tt>fromIndex==toIndex</tt>, the range to be sorted is empty.)  The
+     * result is the same as that of
+     * {@link #sort(float[], int, int)}.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @see #parallelSort(float[])
+     * @since 1.4
+     */
+    public static void parallelSort(float[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        sort2(a, fromIndex, toIndex, true);
+    }
+
+    /**
+     * Sorts the specified array of objects into ascending order, according
+     * to the <i>natural ordering</i> of its elements, using several threads
+     * on a multiprocessor.  The result is the same as that of
+     * {@link #sort(Object[])}; in particular, this sort is guaranteed to be
+     * <i>stable</i>.<p>
+     *
+     * The array is divided into one contiguous run per available
+     * processor, each run is sorted with the mergesort of
+     * <tt>sort(Object[])</tt> in a thread of its own, and the sorted runs
+     * are merged, again concurrently where possible.  Arrays too short to
+     * benefit are sorted sequentially in the calling thread.
+     *
+     * @param a the array to be sorted.
+     * @throws  ClassCastException if the array contains elements that are not
+     *		<i>mutually comparable</i> (for example, strings and integers).
+     * @see Comparable
+     * @since 1.4
+     */
+    public static void parallelSort(Object[] a) {
+        new ObjectSorter(a, null).sort(0, a.length);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of objects into
+     * ascending order, according to the <i>natural ordering</i> of its
+     * elements, using several threads on a multiprocessor.  The range to be
+     * sorted extends from index <tt>fromIndex</tt>, inclusive, to index
+     * <tt>toIndex</tt>, exclusive.  (If <tt>fromIndex==toIndex</tt>, the
+     * range to be sorted is empty.)  The result is the same as that of
+     * {@link #sort(Object[], int, int)}.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @throws    ClassCastException if the array contains elements that are
+     *		  not <i>mutually comparable</i> (for example, strings and
+     *		  integers).
+     * @see #parallelSort(Object[])
+     * @since 1.4
+     */
+    public static void parallelSort(Object[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        new ObjectSorter(a, null).sort(fromIndex, toIndex);
+    }
+
+    /**
+     * Sorts the specified array of objects according to the order induced
+     * by the specified comparator, using several threads on a
+     * multiprocessor.  The result is the same as that of
+     * {@link #sort(Object[], Comparator)}; in particular, this sort is
+     * guaranteed to be <i>stable</i>.  The comparator may be called from
+     * several threads at once.
+     *
+     * @param a the array to be sorted.
+     * @param c the comparator to determine the order of the array.  A
+     *        <tt>null</tt> value indicates that the elements' <i>natural
+     *        ordering</i> should be used.
+     * @throws  ClassCastException if the array contains elements that are
+     *		not <i>mutually comparable</i> using the specified comparator.
+     * @see #parallelSort(Object[])
+     * @since 1.4
+     */
+    public static void parallelSort(Object[] a, Comparator c) {
+        new ObjectSorter(a, c).sort(0, a.length);
+    }
+
+    /**
+     * Sorts the specified range of the specified array of objects according
+     * to the order induced by the specified comparator, using several
+     * threads on a multiprocessor.  The range to be sorted extends from
+     * index <tt>fromIndex</tt>, inclusive, to index <tt>toIndex</tt>,
+     * exclusive.  (If <tt>fromIndex==toIndex</tt>, the range to be sorted
+     * is empty.)  The result is the same as that of
+     * {@link #sort(Object[], int, int, Comparator)}.  The comparator may be
+     * called from several threads at once.
+     *
+     * @param a the array to be sorted.
+     * @param fromIndex the index of the first element (inclusive) to be
+     *        sorted.
+     * @param toIndex the index of the last element (exclusive) to be sorted.
+     * @param c the comparator to determine the order of the array.  A
+     *        <tt>null</tt> value indicates that the elements' <i>natural
+     *        ordering</i> should be used.
+     * @throws ClassCastException if the array contains elements that are not
+     *	       <i>mutually comparable</i> using the specified comparator.
+     * @throws IllegalArgumentException if <tt>fromIndex &gt; toIndex</tt>
+     * @throws ArrayIndexOutOfBoundsException if <tt>fromIndex &lt; 0</tt> or
+     *	       <tt>toIndex &gt; a.length</tt>
+     * @see #parallelSort(Object[])
+     * @since 1.4
+     */
+    public static void parallelSort(Object[] a, int fromIndex, int toIndex,
+                                    Comparator c) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        new ObjectSorter(a, c).sort(fromIndex, toIndex);
+    }
+
+    /*
+     * The ParallelSorter for each array type.  The merges copy the low run
+     * into the scratch array and merge it with the high run, which is
+     * already in place, back into the array; a merge is skipped if the two
+     * runs are already in order.
+     */
+
+    private static final class LongSorter extends ParallelSorter {
+        private final long[] a;
+        private long[] buf;
+
+        LongSorter(long[] a) {
+            this.a = a;
+        }
+
+        void sortRange(int from, int to) {
+            sort1(a, from, to - from);
+        }
+
+        void allocate(int n) {
+            buf = new long[n];
+        }
+
+        void merge(int lo, int mid, int hi) {
+            if (a[mid-1] <= a[mid])
+                return;
+            System.arraycopy(a, lo, buf, lo - base, mid - lo);
+            int i = lo - base, end = mid - base, j = mid, k = lo;
+            while (i < end && j < hi)
+                a[k++] = (a[j] < buf[i]) ? a[j++] : buf[i++];
+            System.arraycopy(buf, i, a, k, end - i);
+        }
+    }
+
+    private static final class IntSorter extends ParallelSorter {
+        private final int[] a;
+        private int[] buf;
+
+        IntSorter(int[] a) {
+            this.a = a;
+        }
+
+        void sortRange(int from, int to) {
+            sort1(a, from, to - from);
+        }
+
+        void allocate(int n) {
+            buf = new int[n];
+        }
+
+        void merge(int lo, int mid, int hi) {
+            if (a[mid-1] <= a[mid])
+                return;
+            System.arraycopy(a, lo, buf, lo - base, mid - lo);
+            int i = lo - base, end = mid - base, j = mid, k = lo;
+            while (i < end && j < hi)
+                a[k++] = (a[j] < buf[i]) ? a[j++] : buf[i++];
+            System.arraycopy(buf, i, a, k, end - i);
+        }
+    }
+
+    private static final class ShortSorter extends ParallelSorter {
+        private final short[] a;
+        private short[] buf;
+
+        ShortSorter(short[] a) {
+            this.a = a;
+        }
+
+        void sortRange(int from, int to) {
+            sort1(a, from, to - from);
+        }
+
+        void allocate(int n) {
+            buf = new short[n];
+        }
+
+        void merge(int lo, int mid, int hi) {
+            if (a[mid-1] <= a[mid])
+                return;
+            System.arraycopy(a, lo, buf, lo - base, mid - lo);
+            int i = lo - base, end = mid - base, j = mid, k = lo;
+            while (i < end && j < hi)
+                a[k++] = (a[j] < buf[i]) ? a[j++] : buf[i++];
+            System.arraycopy(buf, i, a, k, end - i);
+        }
+    }
+
+    private static final class CharSorter extends ParallelSorter {
+        private final char[] a;
+        private char[] buf;
+
+        CharSorter(char[] a) {
+            this.a = a;
+        }
+
+        void sortRange(int from, int to) {
+            sort1(a, from, to - from);
+        }
+
+        void allocate(int n) {
+            buf = new char[n];
+        }
+
+        void merge(int lo, int mid, int hi) {
+            if (a[mid-1] <= a[mid])
+                return;
+            System.arraycopy(a, lo, buf, lo - base, mid - lo);
+            int i = lo - base, end = mid - base, j = mid, k = lo;
+            while (i < end && j < hi)
+                a[k++] = (a[j] < buf[i]) ? a[j++] : buf[i++];
+            System.arraycopy(buf, i, a, k, end - i);
+        }
+    }
+
+    private static final class ByteSorter extends ParallelSorter {
+        private final byte[] a;
+        private byte[] buf;
+
+        ByteSorter(byte[] a) {
+            this.a = a;
+        }
+
+        void sortRange(int from, int to) {
+            sort1(a, from, to - from);
+        }
+
+        void allocate(int n) {
+            buf = new byte[n];
+        }
+
+        void merge(int lo, int mid, int hi) {
+            if (a[mid-1] <= a[mid])
+                return;
+            System.arraycopy(a, lo, buf, lo - base, mid - lo);
+            int i = lo - base, end = mid - base, j = mid, k = lo;
+            while (i < end && j < hi)
+                a[k++] = (a[j] < buf[i]) ? a[j++] : buf[i++];
+            System.arraycopy(buf, i, a, k, end - i);
+        }
+    }
+
+    private static final class DoubleSorter extends ParallelSorter {
+        private final double[] a;
+        private double[] buf;
+
+        DoubleSorter(double[] a) {
+            this.a = a;
+        }
+
+        void sortRange(int from, int to) {
+            sort1(a, from, to - from);
+        }
+
+        void allocate(int n) {
+            buf = new double[n];
+        }
+
+        void merge(int lo, int mid, int hi) {
+            if (a[mid-1] <= a[mid])
+                return;
+            System.arraycopy(a, lo, buf, lo - base, mid - lo);
+            int i = lo - base, end = mid - base, j = mid, k = lo;
+            while (i < end && j < hi)
+                a[k++] = (a[j] < buf[i]) ? a[j++] : buf[i++];
+            System.arraycopy(buf, i, a, k, end - i);
+        }
+    }
+
+    private static final class FloatSorter extends ParallelSorter {
+        private final float[] a;
+        private float[] buf;
+
+        FloatSorter(float[] a) {
+            this.a = a;
+        }
+
+        void sortRange(int from, int to) {
+            sort1(a, from, to - from);
+        }
+
+        void allocate(int n) {
+            buf = new float[n];
+        }
+
+        void merge(int lo, int mid, int hi) {
+            if (a[mid-1] <= a[mid])
+                return;
+            System.arraycopy(a, lo, buf, lo - base, mid - lo);
+            int i = lo - base, end = mid - base, j = mid, k = lo;
+            while (i < end && j < hi)
+                a[k++] = (a[j] < buf[i]) ? a[j++] : buf[i++];
+            System.arraycopy(buf, i, a, k, end - i);
+        }
+    }
+
+    private static final class ObjectSorter extends ParallelSorter {
+        private final Object[] a;
+        private final Comparator c;
+        private Object[] buf;
+
+        ObjectSorter(Object[] a, Comparator c) {
+            this.a = a;
+            this.c = c;
+        }
+
+        void sortRange(int from, int to) {
+            Object aux[] = copyOfRange(a, from, to);
+            if (c == null)
+                mergeSort(aux, a, from, to, -from);
+            else
+                mergeSort(aux, a, from, to, -from, c);
+        }
+
+        void allocate(int n) {
+            buf = new Object[n];
+        }
+
+        private int compare(Object o1, Object o2) {
+            return (c == null ? ((Comparable)o1).compareTo(o2)
+                              : c.compare(o1, o2));
+        }
+
+        void merge(int lo, int mid, int hi) {
+            if (compare(a[mid-1], a[mid]) <= 0)
+                return;
+            System.arraycopy(a, lo, buf, lo - base, mid - lo);
+            int i = lo - base, end = mid - base, j = mid, k = lo;
+            while (i < end && j < hi)
+                a[k++] = (compare(a[j], buf[i]) < 0) ? a[j++] : buf[i++];
+            System.arraycopy(buf, i, a, k, end - i);
+        }
+    }
+
     /**
      * Check that fromIndex and toIndex are in range, and throw an
      * appropriate exception if they aren't.
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * An <tt>int</tt> value that may be updated atomically.  An
+ * <tt>AtomicInteger</tt> is used in applications such as atomically
+ * incremented counters and sequence numbers, so that callers need not
+ * share a lock of their own around the value.<p>
+ *
+ * Every method that changes the value holds this object's monitor, only
+ * for the few instructions needed, so each read-modify-write operation,
+ * such as {@link #compareAndSet} or {@link #getAndAdd}, is a single
+ * atomic step.  The value is held in a <tt>volatile</tt> field, so
+ * <tt>get</tt> is an ordinary volatile read.<p>
+ *
+ * This class is not a substitute for <tt>java.lang.Integer</tt>: it does
+ * not define <tt>equals</tt> or <tt>hashCode</tt> in terms of its value,
+ * since the value may change.
+ *
+ * @version 1.1, 10/15/26
+ * @see     AtomicLong
+ * @see     AtomicReference
+ * @since   1.4
+ */
+public class AtomicInteger extends Number implements java.io.Serializable {
+    private static final long serialVersionUID = 6214790243416807050L;
+
+    /**
+     * The current value.
+     *
+     * @serial
+     */
+    private volatile int value;
+
+    /**
+     * Creates a new <tt>AtomicInteger</tt> with the given initial value.
+     *
+     * @param initialValue the initial value.
+     */
+    public AtomicInteger(int initialValue) {
+        value = initialValue;
+    }
+
+    /**
+     * Creates a new <tt>AtomicInteger</tt> with initial value <tt>0</tt>.
+     */
+    public AtomicInteger() {
+    }
+
+    /**
+     * Gets the current value.
+     *
+     * @return the current value.
+     */
+    public final int get() {
+        return value;
+    }
+
+    /**
+     * Sets to the given value.
+     *
+     * @param newValue the new value.
+     */
+    public final synchronized void set(int newValue) {
+        value = newValue;
+    }
+
+    /**
+     * Eventually sets to the given value.  Unlike <tt>set</tt>, this
+     * method does not guarantee that the new value is visible to other
+     * threads before the current thread's subsequent actions.  It is
+     * intended for resetting fields that are no longer accessed by other
+     * threads, such as clearing a reference for the garbage collector.
+     *
+     * @param newValue the new value.
+     */
+    public final synchronized void lazySet(int newValue) {
+        value = newValue;
+    }
+
+    /**
+     * Atomically sets the value to the given updated value if the current
+     * value <tt>==</tt> the expected value.
+     *
+     * @param expect the expected value.
+     * @param update the new value.
+     * @return <tt>true</tt> if successful.  <tt>false</tt> indicates that
+     *         the actual value was not equal to the expected value.
+     */
+    public final synchronized boolean compareAndSet(int expect,
+                                                    int update) {
+        if (value != expect)
+            return false;
+        value = update;
+        return true;
+    }
+
+    /**
+     * Atomically sets to the given value and returns the old value.
+     *
+     * @param newValue the new value.
+     * @return the previous value.
+     */
+    public final synchronized int getAndSet(int newValue) {
+        int current = value;
+        value = newValue;
+        return current;
+    }
+
+    /**
+     * Atomically increments by one the current value.
+     *
+     * @return the previous value.
+     */
+    public final int getAndIncrement() {
+        return getAndAdd(1);
+    }
+
+    /**
+     * Atomically decrements by one the current value.
+     *
+     * @return the previous value.
+     */
+    public final int getAndDecrement() {
+        return getAndAdd(-1);
+    }
+
+    /**
+     * Atomically adds the given value to the current value.
+     *
+     * @param delta the value to add.
+     * @return the previous value.
+     */
+    public final synchronized int getAndAdd(int delta) {
+        int current = value;
+        value = current + delta;
+        return current;
+    }
+
+    /**
+     * Atomically increments by one the current value.
+     *
+     * @return the updated value.
+     */
+    public final int incrementAndGet() {
+        return getAndAdd(1) + 1;
+    }
+
+    /**
+     * Atomically decrements by one the current value.
+     *
+     * @return the updated value.
+     */
+    public final int decrementAndGet() {
+        return getAndAdd(-1) - 1;
+    }
+
+    /**
+     * Atomically adds the given value to the current value.
+     *
+     * @param delta the value to add.
+     * @return the updated value.
+     */
+    public final int addAndGet(int delta) {
+        return getAndAdd(delta) + delta;
+    }
+
+    /**
+     * Returns the String representation of the current value.
+     *
+     * @return the String representation of the current value.
+     */
+    public String toString() {
+        return Integer.toString(get());
+    }
+
+    public int intValue() {
+        return get();
+    }
+
+    public long longValue() {
+        return (long)get();
+    }
+
+    public float floatValue() {
+        return (float)get();
+    }
+
+    public double doubleValue() {
+        return (double)get();
+    }
+}
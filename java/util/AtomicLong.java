@@ -0,0 +1,197 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A <tt>long</tt> value that may be updated atomically.  An
+ * <tt>AtomicLong</tt> is used in applications such as atomically
+ * incremented counters and sequence numbers, so that callers need not
+ * share a lock of their own around the value.<p>
+ *
+ * Every method that changes the value holds this object's monitor, only
+ * for the few instructions needed, so each read-modify-write operation,
+ * such as {@link #compareAndSet} or {@link #getAndAdd}, is a single
+ * atomic step.  <tt>get</tt> also holds the monitor, since this virtual
+ * machine does not guarantee that a read of a <tt>volatile long</tt> is
+ * atomic.<p>
+ *
+ * This class is not a substitute for <tt>java.lang.Long</tt>: it does
+ * not define <tt>equals</tt> or <tt>hashCode</tt> in terms of its value,
+ * since the value may change.
+ *
+ * @version 1.1, 10/15/26
+ * @see     AtomicInteger
+ * @see     AtomicReference
+ * @since   1.4
+ */
+public class AtomicLong extends Number implements java.io.Serializable {
+    private static final long serialVersionUID = 1927816293512124184L;
+
+    /**
+     * The current value.
+     *
+     * @serial
+     */
+    private volatile long value;
+
+    /**
+     * Creates a new <tt>AtomicLong</tt> with the given initial value.
+     *
+     * @param initialValue the initial value.
+     */
+    public AtomicLong(long initialValue) {
+        value = initialValue;
+    }
+
+    /**
+     * Creates a new <tt>AtomicLong</tt> with initial value <tt>0</tt>.
+     */
+    public AtomicLong() {
+    }
+
+    /**
+     * Gets the current value.
+     *
+     * @return the current value.
+     */
+    public final synchronized long get() {
+        return value;
+    }
+
+    /**
+     * Sets to the given value.
+     *
+     * @param newValue the new value.
+     */
+    public final synchronized void set(long newValue) {
+        value = newValue;
+    }
+
+    /**
+     * Eventually sets to the given value.  Unlike <tt>set</tt>, this
+     * method does not guarantee that the new value is visible to other
+     * threads before the current thread's subsequent actions.  It is
+     * intended for resetting fields that are no longer accessed by other
+     * threads, such as clearing a reference for the garbage collector.
+     *
+     * @param newValue the new value.
+     */
+    public final synchronized void lazySet(long newValue) {
+        value = newValue;
+    }
+
+    /**
+     * Atomically sets the value to the given updated value if the current
+     * value <tt>==</tt> the expected value.
+     *
+     * @param expect the expected value.
+     * @param update the new value.
+     * @return <tt>true</tt> if successful.  <tt>false</tt> indicates that
+     *         the actual value was not equal to the expected value.
+     */
+    public final synchronized boolean compareAndSet(long expect,
+                                                    long update) {
+        if (value != expect)
+            return false;
+        value = update;
+        return true;
+    }
+
+    /**
+     * Atomically sets to the given value and returns the old value.
+     *
+     * @param newValue the new value.
+     * @return the previous value.
+     */
+    public final synchronized long getAndSet(long newValue) {
+        long current = value;
+        value = newValue;
+        return current;
+    }
+
+    /**
+     * Atomically increments by one the current value.
+     *
+     * @return the previous value.
+     */
+    public final long getAndIncrement() {
+        return getAndAdd(1);
+    }
+
+    /**
+     * Atomically decrements by one the current value.
+     *
+     * @return the previous value.
+     */
+    public final long getAndDecrement() {
+        return getAndAdd(-1);
+    }
+
+    /**
+     * Atomically adds the given value to the current value.
+     *
+     * @param delta the value to add.
+     * @return the previous value.
+     */
+    public final synchronized long getAndAdd(long delta) {
+        long current = value;
+        value = current + delta;
+        return current;
+    }
+
+    /**
+     * Atomically increments by one the current value.
+     *
+     * @return the updated value.
+     */
+    public final long incrementAndGet() {
+        return getAndAdd(1) + 1;
+    }
+
+    /**
+     * Atomically decrements by one the current value.
+     *
+     * @return the updated value.
+     */
+    public final long decrementAndGet() {
+        return getAndAdd(-1) - 1;
+    }
+
+    /**
+     * Atomically adds the given value to the current value.
+     *
+     * @param delta the value to add.
+     * @return the updated value.
+     */
+    public final long addAndGet(long delta) {
+        return getAndAdd(delta) + delta;
+    }
+
+    /**
+     * Returns the String representation of the current value.
+     *
+     * @return the String representation of the current value.
+     */
+    public String toString() {
+        return Long.toString(get());
+    }
+
+    public int intValue() {
+        return (int)get();
+    }
+
+    public long longValue() {
+        return get();
+    }
+
+    public float floatValue() {
+        return (float)get();
+    }
+
+    public double doubleValue() {
+        return (double)get();
+    }
+}
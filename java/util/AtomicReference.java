@@ -0,0 +1,114 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * An object reference that may be updated atomically.  The reference is
+ * held in a <tt>volatile</tt> field, so <tt>get</tt> is an ordinary
+ * volatile read; every method that changes it holds this object's
+ * monitor, so that {@link #compareAndSet} and {@link #getAndSet} are
+ * atomic.  Comparison is by identity (<tt>==</tt>), not by
+ * <tt>equals</tt>.
+ *
+ * @version 1.1, 10/15/26
+ * @see     AtomicInteger
+ * @see     AtomicLong
+ * @since   1.4
+ */
+public class AtomicReference implements java.io.Serializable {
+    private static final long serialVersionUID = -1848883965231344442L;
+
+    /**
+     * The current value.
+     *
+     * @serial
+     */
+    private volatile Object value;
+
+    /**
+     * Creates a new <tt>AtomicReference</tt> with the given initial value.
+     *
+     * @param initialValue the initial value.
+     */
+    public AtomicReference(Object initialValue) {
+        value = initialValue;
+    }
+
+    /**
+     * Creates a new <tt>AtomicReference</tt> with <tt>null</tt> initial
+     * value.
+     */
+    public AtomicReference() {
+    }
+
+    /**
+     * Gets the current value.
+     *
+     * @return the current value.
+     */
+    public final Object get() {
+        return value;
+    }
+
+    /**
+     * Sets to the given value.
+     *
+     * @param newValue the new value.
+     */
+    public final synchronized void set(Object newValue) {
+        value = newValue;
+    }
+
+    /**
+     * Eventually sets to the given value.  Unlike <tt>set</tt>, this
+     * method does not guarantee that the new value is visible to other
+     * threads before the current thread's subsequent actions.
+     *
+     * @param newValue the new value.
+     * @see AtomicInteger#lazySet
+     */
+    public final synchronized void lazySet(Object newValue) {
+        value = newValue;
+    }
+
+    /**
+     * Atomically sets the value to the given updated value if the current
+     * value <tt>==</tt> the expected value.
+     *
+     * @param expect the expected value.
+     * @param update the new value.
+     * @return <tt>true</tt> if successful.  <tt>false</tt> indicates that
+     *         the actual value was not the expected value.
+     */
+    public final synchronized boolean compareAndSet(Object expect,
+                                                    Object update) {
+        if (value != expect)
+            return false;
+        value = update;
+        return true;
+    }
+
+    /**
+     * Atomically sets to the given value and returns the old value.
+     *
+     * @param newValue the new value.
+     * @return the previous value.
+     */
+    public final synchronized Object getAndSet(Object newValue) {
+        Object current = value;
+        value = newValue;
+        return current;
+    }
+
+    /**
+     * Returns the String representation of the current value.
+     *
+     * @return the String representation of the current value.
+     */
+    public String toString() {
+        return String.valueOf(get());
+    }
+}
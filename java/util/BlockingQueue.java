@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A {@link Queue} that additionally supports operations that wait for the
+ * queue to become non-empty when retrieving an element, and wait for space
+ * to become available in the queue when storing an element.  A
+ * <tt>BlockingQueue</tt> does not accept <tt>null</tt> elements.<p>
+ *
+ * A <tt>BlockingQueue</tt> may be capacity bounded.  At any given time it
+ * may have a <tt>remainingCapacity</tt> beyond which no additional elements
+ * can be <tt>put</tt> without blocking.<p>
+ *
+ * <tt>BlockingQueue</tt> implementations are designed to be used primarily
+ * for producer-consumer queues, and are thread-safe.  All queuing methods
+ * achieve their effects atomically using internal locks.  However, the bulk
+ * <tt>Collection</tt> operations <tt>addAll</tt>, <tt>containsAll</tt>,
+ * <tt>retainAll</tt> and <tt>removeAll</tt> are <em>not</em> necessarily
+ * performed atomically.  The <tt>drainTo</tt> methods remove many elements
+ * under a single acquisition of the queue's locks, and are more efficient
+ * than repeatedly polling.<p>
+ *
+ * Timeouts are given in milliseconds, as for <tt>Object.wait(long)</tt>.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ArrayBlockingQueue
+ * @see     LinkedBlockingQueue
+ * @see     SynchronousQueue
+ * @since   1.4
+ */
+public interface BlockingQueue extends Queue {
+    /**
+     * Inserts the specified element into this queue, waiting if necessary
+     * up to the specified wait time for space to become available.
+     *
+     * @param o the element to add.
+     * @param timeout how long to wait before giving up, in milliseconds.
+     * @return <tt>true</tt> if successful, or <tt>false</tt> if the
+     *         specified waiting time elapses before space is available.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    boolean offer(Object o, long timeout) throws InterruptedException;
+
+    /**
+     * Retrieves and removes the head of this queue, waiting if necessary up
+     * to the specified wait time if no elements are present on this queue.
+     *
+     * @param timeout how long to wait before giving up, in milliseconds.
+     * @return the head of this queue, or <tt>null</tt> if the specified
+     *         waiting time elapses before an element is present.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    Object poll(long timeout) throws InterruptedException;
+
+    /**
+     * Retrieves and removes the head of this queue, waiting if no elements
+     * are present on this queue.
+     *
+     * @return the head of this queue.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    Object take() throws InterruptedException;
+
+    /**
+     * Adds the specified element to this queue, waiting if necessary for
+     * space to become available.
+     *
+     * @param o the element to add.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    void put(Object o) throws InterruptedException;
+
+    /**
+     * Returns the number of elements that this queue can ideally (in the
+     * absence of memory or resource constraints) accept without blocking,
+     * or <tt>Integer.MAX_VALUE</tt> if there is no intrinsic limit.  Note
+     * that one cannot always tell if an attempt to <tt>add</tt> an element
+     * will succeed by inspecting <tt>remainingCapacity</tt>, because it may
+     * be the case that another thread is about to <tt>put</tt> or
+     * <tt>take</tt> an element.
+     *
+     * @return the remaining capacity.
+     */
+    int remainingCapacity();
+
+    /**
+     * Removes all available elements from this queue and adds them into
+     * the given collection.
+     *
+     * @param c the collection to transfer elements into.
+     * @return the number of elements transferred.
+     * @throws NullPointerException if <tt>c</tt> is <tt>null</tt>.
+     * @throws IllegalArgumentException if <tt>c</tt> is this queue.
+     */
+    int drainTo(Collection c);
+
+    /**
+     * Removes at most the given number of available elements from this
+     * queue and adds them into the given collection.
+     *
+     * @param c the collection to transfer elements into.
+     * @param maxElements the maximum number of elements to transfer.
+     * @return the number of elements transferred.
+     * @throws NullPointerException if <tt>c</tt> is <tt>null</tt>.
+     * @throws IllegalArgumentException if <tt>c</tt> is this queue.
+     */
+    int drainTo(Collection c, int maxElements);
+}
@@ -0,0 +1,808 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A thread-safe, bounded map from keys to values that are expensive to
+ * compute or fetch, and that can be recomputed or refetched when needed.
+ * Unlike a <tt>WeakHashMap</tt>, which loses its entries whenever the
+ * garbage collector runs, a cache keeps its entries until its capacity is
+ * reached or they expire, so that its hit rate is predictable.  Every
+ * operation takes constant time.  Neither keys nor values may be
+ * <tt>null</tt>.<p>
+ *
+ * <b>Capacity and eviction.</b> A cache holds entries up to a total
+ * <i>weight</i> given by its capacity.  By default every entry weighs one,
+ * so that the capacity is the maximum number of entries; a {@link Weigher}
+ * may be given to the constructor to weigh entries by, say, their size in
+ * bytes instead.  When a <tt>put</tt> takes the total weight above the
+ * capacity, entries are evicted until it fits again.  The entry to evict
+ * is chosen by the cache's policy: {@link #LRU} evicts the least recently
+ * used entry, and {@link #LFU} the least frequently used one, breaking
+ * ties by recency.  A <tt>get</tt> or <tt>put</tt> of an existing key
+ * counts as a use; <tt>containsKey</tt> does not.<p>
+ *
+ * <b>Expiry.</b> An entry may also be given a limited lifetime: with a
+ * {@linkplain #setTimeToLive time to live} it expires that long after it
+ * was last written, and with a {@linkplain #setTimeToIdle time to idle}
+ * that long after it was last used.  The time to live can also be given
+ * for a single entry when it is put.  An expired entry is never returned.
+ * It is removed when it is next looked up, when it becomes the oldest
+ * entry and another is put, or by {@link #purge}; until then it still
+ * counts towards the size and weight of the cache.<p>
+ *
+ * <b>Statistics.</b> The cache counts the hits and misses of
+ * <tt>get</tt>, and the entries it has evicted and expired, so that its
+ * capacity can be tuned.<p>
+ *
+ * <b>Listeners.</b> An {@link EvictionListener} is told about each entry
+ * that the cache removes on its own, because of its capacity or because
+ * the entry expired.  Listeners are called after the cache's lock has been
+ * released, by the thread whose operation caused the removal, and so may
+ * use the cache themselves.
+ *
+ * @version 1.1, 10/15/26
+ * @see     LinkedHashMap
+ * @see     WeakHashMap
+ * @since   1.4
+ */
+public class Cache {
+    /**
+     * Eviction policy that evicts the least recently used entry first.
+     */
+    public static final int LRU = 0;
+
+    /**
+     * Eviction policy that evicts the least frequently used entry first,
+     * and of those the least recently used.
+     */
+    public static final int LFU = 1;
+
+    /**
+     * Removal cause passed to an {@link EvictionListener} for an entry
+     * evicted to keep the cache within its capacity.
+     */
+    public static final int EVICTED = 0;
+
+    /**
+     * Removal cause passed to an {@link EvictionListener} for an entry
+     * that was removed because it expired.
+     */
+    public static final int EXPIRED = 1;
+
+    /**
+     * Computes the weight of cache entries.
+     */
+    public interface Weigher {
+        /**
+         * Returns the weight of an entry.  The weight is computed when the
+         * entry is put and does not change while it is in the cache.
+         *
+         * @param key the key of the entry.
+         * @param value the value of the entry.
+         * @return the weight of the entry, which must not be negative.
+         */
+        long weightOf(Object key, Object value);
+    }
+
+    /**
+     * A listener notified of entries that a cache removes on its own.
+     */
+    public interface EvictionListener extends EventListener {
+        /**
+         * Called after an entry was removed from a cache because of its
+         * capacity or because the entry expired.  Entries removed
+         * explicitly, by <tt>remove</tt>, <tt>clear</tt> or by being
+         * replaced, are not reported.
+         *
+         * @param key the key of the entry.
+         * @param value the value of the entry.
+         * @param cause {@link #EVICTED} or {@link #EXPIRED}.
+         */
+        void entryRemoved(Object key, Object value, int cause);
+    }
+
+    /*
+     * Each entry is a Node, found through a HashMap, and linked into two
+     * circular lists.  The usage list orders entries by eviction priority:
+     * it is split into buckets of entries used the same number of times,
+     * in increasing order of use count, and each bucket is in order of
+     * last use.  Under LRU all entries stay in one bucket, so a use simply
+     * moves the entry to the end; under LFU a use moves the entry to the
+     * end of the next bucket, creating that bucket if needed.  The victim
+     * is always the first entry of the first bucket.  This is the
+     * constant-time LFU scheme of Shah, Mitra and Matani.
+     *
+     * The touch list orders entries by the time that governs their
+     * expiry: last write, or last use if a time to idle is set.  While the
+     * time to live is the same for all entries, its head is the entry due
+     * to expire first, so expired entries are removed from there as new
+     * ones are put.
+     */
+
+    /**
+     * A cache entry.
+     */
+    private static final class Node {
+        final Object key;
+        Object value;
+        long weight;
+        /** Time after which the entry expires, or Long.MAX_VALUE */
+        long expires;
+        /** Time of last write, or of last use */
+        long touched;
+        /** Links in the usage list, within bucket */
+        Node prev, next;
+        /** Links in the touch list */
+        Node older, newer;
+        /** The bucket holding this entry */
+        Bucket bucket;
+        /** Why the entry was removed, for listeners */
+        int cause;
+
+        Node(Object key) {
+            this.key = key;
+            prev = next = older = newer = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+        }
+
+        void linkBefore(Node n) {
+            next = n;
+            prev = n.prev;
+            prev.next = this;
+            n.prev = this;
+        }
+
+        void unlinkTouch() {
+            older.newer = newer;
+            newer.older = older;
+        }
+
+        void linkTouchBefore(Node n) {
+            newer = n;
+            older = n.older;
+            older.newer = this;
+            n.older = this;
+        }
+    }
+
+    /**
+     * A run of entries used the same number of times.
+     */
+    private static final class Bucket {
+        final long uses;
+        Bucket prev, next;
+        /** Header of this bucket's circular list of entries */
+        final Node items = new Node(null);
+
+        Bucket(long uses) {
+            this.uses = uses;
+            prev = next = this;
+        }
+
+        boolean isEmpty() {
+            return items.next == items;
+        }
+
+        void linkAfter(Bucket b) {
+            prev = b;
+            next = b.next;
+            next.prev = this;
+            b.next = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+        }
+    }
+
+    /** Maps each key to its node */
+    private final HashMap map = new HashMap();
+
+    /** The eviction policy, LRU or LFU */
+    private final int policy;
+
+    /** The weigher, or null if every entry weighs one */
+    private final Weigher weigher;
+
+    /** Header of the bucket list, in increasing order of uses */
+    private final Bucket buckets = new Bucket(0);
+
+    /** Header of the touch list, from oldest to newest */
+    private final Node touches = new Node(null);
+
+    /** Maximum total weight */
+    private long capacity;
+
+    /** Current total weight */
+    private long weight;
+
+    /** Default time to live in milliseconds, or 0 if none */
+    private long timeToLive;
+
+    /** Time to idle in milliseconds, or 0 if none */
+    private long timeToIdle;
+
+    /* Statistics */
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expirationCount;
+
+    /** The listeners; fired without holding the lock */
+    private final CopyOnWriteArrayList listeners = new CopyOnWriteArrayList();
+
+    /** Removed nodes waiting to be reported to the listeners */
+    private List pending;
+
+    /**
+     * Creates an LRU cache holding up to the given number of entries.
+     *
+     * @param capacity the maximum number of entries.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is not
+     *         positive.
+     */
+    public Cache(long capacity) {
+        this(capacity, LRU, null);
+    }
+
+    /**
+     * Creates a cache with the given eviction policy, holding up to the
+     * given number of entries.
+     *
+     * @param capacity the maximum number of entries.
+     * @param policy {@link #LRU} or {@link #LFU}.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is not
+     *         positive, or <tt>policy</tt> is not one of the above.
+     */
+    public Cache(long capacity, int policy) {
+        this(capacity, policy, null);
+    }
+
+    /**
+     * Creates a cache with the given eviction policy, holding entries up to
+     * the given total weight.
+     *
+     * @param capacity the maximum total weight of the entries.
+     * @param policy {@link #LRU} or {@link #LFU}.
+     * @param weigher the weigher used to weigh entries, or <tt>null</tt>
+     *        if every entry weighs one.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is not
+     *         positive, or <tt>policy</tt> is not one of the above.
+     */
+    public Cache(long capacity, int policy, Weigher weigher) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Illegal capacity: " +
+                                               capacity);
+        if (policy != LRU && policy != LFU)
+            throw new IllegalArgumentException("Illegal policy: " + policy);
+        this.capacity = capacity;
+        this.policy = policy;
+        this.weigher = weigher;
+        if (policy == LRU)
+            new Bucket(1).linkAfter(buckets);  // the only one, never removed
+    }
+
+    /**
+     * Returns the value cached for the given key, or <tt>null</tt> if
+     * there is none or it has expired, and records a hit or a miss.
+     *
+     * @param key the key.
+     * @return the value cached for the key, or <tt>null</tt>.
+     * @throws NullPointerException if <tt>key</tt> is <tt>null</tt>.
+     */
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        Object value = null;
+        List removed;
+        synchronized (this) {
+            Node n = (Node) map.get(key);
+            if (n != null) {
+                long now = System.currentTimeMillis();
+                if (isExpired(n, now)) {
+                    removeNode(n, EXPIRED);
+                } else {
+                    use(n, now);
+                    value = n.value;
+                }
+            }
+            if (value != null)
+                hitCount++;
+            else
+                missCount++;
+            removed = takePending();
+        }
+        fire(removed);
+        return value;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the cache holds an unexpired value for the
+     * given key.  This is not counted as a use of the entry, nor as a hit
+     * or a miss.
+     *
+     * @param key the key.
+     * @return <tt>true</tt> if the cache holds a value for the key.
+     * @throws NullPointerException if <tt>key</tt> is <tt>null</tt>.
+     */
+    public synchronized boolean containsKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        Node n = (Node) map.get(key);
+        return n != null && !isExpired(n, System.currentTimeMillis());
+    }
+
+    /**
+     * Caches the given value for the given key, with the cache's time to
+     * live, evicting entries if necessary to stay within capacity.
+     *
+     * @param key the key.
+     * @param value the value.
+     * @return the value previously cached for the key, or <tt>null</tt>.
+     * @throws NullPointerException if <tt>key</tt> or <tt>value</tt> is
+     *         <tt>null</tt>.
+     * @throws IllegalArgumentException if the weigher returns a negative
+     *         weight.
+     */
+    public Object put(Object key, Object value) {
+        return put(key, value, -1);
+    }
+
+    /**
+     * Caches the given value for the given key, with the given time to
+     * live, evicting entries if necessary to stay within capacity.  The
+     * cache's time to idle still applies.
+     *
+     * @param key the key.
+     * @param value the value.
+     * @param timeToLive the time in milliseconds after which the entry
+     *        expires; zero for never, or negative for the cache's own time
+     *        to live.
+     * @return the value previously cached for the key, or <tt>null</tt>.
+     * @throws NullPointerException if <tt>key</tt> or <tt>value</tt> is
+     *         <tt>null</tt>.
+     * @throws IllegalArgumentException if the weigher returns a negative
+     *         weight.
+     */
+    public Object put(Object key, Object value, long timeToLive) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        long w = (weigher == null) ? 1 : weigher.weightOf(key, value);
+        if (w < 0)
+            throw new IllegalArgumentException("Negative weight: " + w);
+        Object old = null;
+        List removed;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (timeToLive < 0)
+                timeToLive = this.timeToLive;
+            Node n = (Node) map.get(key);
+            if (n != null && isExpired(n, now)) {
+                removeNode(n, EXPIRED);
+                n = null;
+            }
+            if (n == null) {
+                // Make room first, so that under LFU the new entry is not
+                // itself the least frequently used one
+                trim(capacity - w);
+                n = new Node(key);
+                map.put(key, n);
+                n.bucket = firstBucket(1);
+                n.linkBefore(n.bucket.items);
+            } else {
+                old = n.value;
+                weight -= n.weight;
+                use(n, now);
+            }
+            n.value = value;
+            n.weight = w;
+            weight += w;
+            n.expires = (timeToLive > 0 && now + timeToLive > 0)
+                ? now + timeToLive : Long.MAX_VALUE;
+            n.touched = now;
+            n.unlinkTouch();
+            n.linkTouchBefore(touches);
+
+            // Drop expired entries from the old end, then trim to capacity
+            for (Node e = touches.newer; e != n && isExpired(e, now);
+                 e = touches.newer)
+                removeNode(e, EXPIRED);
+            trim(capacity);
+            removed = takePending();
+        }
+        fire(removed);
+        return old;
+    }
+
+    /**
+     * Removes the entry for the given key, if any.
+     *
+     * @param key the key.
+     * @return the value cached for the key, or <tt>null</tt> if there was
+     *         none or it had expired.
+     * @throws NullPointerException if <tt>key</tt> is <tt>null</tt>.
+     */
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        Object value = null;
+        List removed;
+        synchronized (this) {
+            Node n = (Node) map.get(key);
+            if (n != null) {
+                if (isExpired(n, System.currentTimeMillis())) {
+                    removeNode(n, EXPIRED);
+                } else {
+                    value = n.value;
+                    removeNode(n, -1);
+                }
+            }
+            removed = takePending();
+        }
+        fire(removed);
+        return value;
+    }
+
+    /**
+     * Removes all entries from the cache.  The statistics are not reset.
+     */
+    public synchronized void clear() {
+        map.clear();
+        buckets.prev = buckets.next = buckets;
+        if (policy == LRU)
+            new Bucket(1).linkAfter(buckets);
+        touches.older = touches.newer = touches;
+        weight = 0;
+    }
+
+    /**
+     * Removes all expired entries.  Unlike the removal of expired entries
+     * by the other operations, this takes time proportional to the size of
+     * the cache.
+     */
+    public void purge() {
+        List removed;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            for (Node n = touches.newer; n != touches; ) {
+                Node next = n.newer;
+                if (isExpired(n, now))
+                    removeNode(n, EXPIRED);
+                n = next;
+            }
+            removed = takePending();
+        }
+        fire(removed);
+    }
+
+    /**
+     * Returns the number of entries in the cache, including any expired
+     * entries not yet removed.
+     *
+     * @return the number of entries in the cache.
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the total weight of the entries in the cache, including any
+     * expired entries not yet removed.  Without a weigher this is the
+     * number of entries.
+     *
+     * @return the total weight of the entries.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns a snapshot of the keys of the unexpired entries, in no
+     * particular order.  Taking the snapshot does not count as a use of
+     * the entries.
+     *
+     * @return a new set containing the keys.
+     */
+    public synchronized Set keySet() {
+        long now = System.currentTimeMillis();
+        HashSet keys = new HashSet(Math.max(2 * map.size(), 11));
+        for (Node n = touches.newer; n != touches; n = n.newer) {
+            if (!isExpired(n, now))
+                keys.add(n.key);
+        }
+        return keys;
+    }
+
+    /**
+     * Sets the capacity of the cache, evicting entries at once if the
+     * cache holds more than the new capacity.
+     *
+     * @param capacity the maximum total weight of the entries.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is not
+     *         positive.
+     */
+    public void setCapacity(long capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Illegal capacity: " +
+                                               capacity);
+        List removed;
+        synchronized (this) {
+            this.capacity = capacity;
+            trim(capacity);
+            removed = takePending();
+        }
+        fire(removed);
+    }
+
+    /**
+     * Returns the capacity of the cache.
+     *
+     * @return the maximum total weight of the entries.
+     */
+    public synchronized long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the eviction policy of the cache.
+     *
+     * @return {@link #LRU} or {@link #LFU}.
+     */
+    public int getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Sets the time after being written at which entries expire.  This
+     * applies to entries written from now on, other than those put with a
+     * time to live of their own.
+     *
+     * @param timeToLive the time to live in milliseconds, or zero for
+     *        entries not to expire.
+     * @throws IllegalArgumentException if <tt>timeToLive</tt> is negative.
+     */
+    public synchronized void setTimeToLive(long timeToLive) {
+        if (timeToLive < 0)
+            throw new IllegalArgumentException();
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Returns the time after being written at which entries expire.
+     *
+     * @return the time to live in milliseconds, or zero if none.
+     */
+    public synchronized long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Sets the time after being last used at which entries expire.  This
+     * applies to all entries at once.
+     *
+     * @param timeToIdle the time to idle in milliseconds, or zero for
+     *        entries not to expire when unused.
+     * @throws IllegalArgumentException if <tt>timeToIdle</tt> is negative.
+     */
+    public synchronized void setTimeToIdle(long timeToIdle) {
+        if (timeToIdle < 0)
+            throw new IllegalArgumentException();
+        this.timeToIdle = timeToIdle;
+    }
+
+    /**
+     * Returns the time after being last used at which entries expire.
+     *
+     * @return the time to idle in milliseconds, or zero if none.
+     */
+    public synchronized long getTimeToIdle() {
+        return timeToIdle;
+    }
+
+    /**
+     * Returns the number of calls to <tt>get</tt> that found a value.
+     *
+     * @return the hit count.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of calls to <tt>get</tt> that returned
+     * <tt>null</tt>.
+     *
+     * @return the miss count.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the ratio of hits to calls of <tt>get</tt>, or 1.0 if
+     * <tt>get</tt> has not been called.
+     *
+     * @return the hit rate, between 0.0 and 1.0.
+     */
+    public synchronized double getHitRate() {
+        long requests = hitCount + missCount;
+        return (requests == 0) ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Returns the number of entries evicted to keep the cache within its
+     * capacity.
+     *
+     * @return the eviction count.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of entries removed because they expired.
+     *
+     * @return the expiration count.
+     */
+    public synchronized long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * Resets the hit, miss, eviction and expiration counts to zero.
+     */
+    public synchronized void resetStatistics() {
+        hitCount = missCount = evictionCount = expirationCount = 0;
+    }
+
+    /**
+     * Adds a listener to be told of entries the cache evicts or expires.
+     *
+     * @param l the listener.
+     * @throws NullPointerException if <tt>l</tt> is <tt>null</tt>.
+     */
+    public void addEvictionListener(EvictionListener l) {
+        if (l == null)
+            throw new NullPointerException();
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener added by <tt>addEvictionListener</tt>.
+     *
+     * @param l the listener.
+     */
+    public void removeEvictionListener(EvictionListener l) {
+        listeners.remove(l);
+    }
+
+    /**
+     * Returns a string listing the size, capacity and statistics of the
+     * cache.
+     *
+     * @return a string representation of the cache.
+     */
+    public synchronized String toString() {
+        return super.toString() + "[size=" + map.size() +
+            ", weight=" + weight + ", capacity=" + capacity +
+            ", hits=" + hitCount + ", misses=" + missCount +
+            ", evictions=" + evictionCount +
+            ", expirations=" + expirationCount + "]";
+    }
+
+    /* ---------------- Internal methods -------------- */
+
+    private boolean isExpired(Node n, long now) {
+        return now >= n.expires ||
+            (timeToIdle > 0 && now - n.touched >= timeToIdle);
+    }
+
+    /**
+     * Returns the first bucket, creating it with the given use count if
+     * the first one has a different count.
+     */
+    private Bucket firstBucket(long uses) {
+        Bucket b = buckets.next;
+        if (b == buckets || (policy == LFU && b.uses != uses)) {
+            b = new Bucket(uses);
+            b.linkAfter(buckets);
+        }
+        return b;
+    }
+
+    /**
+     * Records a use of the given entry, moving it up in the usage list
+     * and, if a time to idle is set, to the new end of the touch list.
+     */
+    private void use(Node n, long now) {
+        Bucket b = n.bucket;
+        n.unlink();
+        if (policy == LFU) {
+            Bucket nb = b.next;
+            if (nb == buckets || nb.uses != b.uses + 1) {
+                nb = new Bucket(b.uses + 1);
+                nb.linkAfter(b);
+            }
+            if (b.isEmpty())
+                b.unlink();
+            b = nb;
+        }
+        n.linkBefore(b.items);
+        n.bucket = b;
+
+        if (timeToIdle > 0) {
+            n.touched = now;
+            n.unlinkTouch();
+            n.linkTouchBefore(touches);
+        }
+    }
+
+    /**
+     * Evicts entries until the total weight is within the given limit.
+     */
+    private void trim(long limit) {
+        while (weight > limit) {
+            Bucket b = buckets.next;
+            if (b == buckets || b.isEmpty())
+                break;
+            removeNode(b.items.next, EVICTED);
+        }
+    }
+
+    /**
+     * Unlinks a node, counting and queueing it for the listeners if it was
+     * evicted or expired; cause is -1 for explicit removals.
+     */
+    private void removeNode(Node n, int cause) {
+        map.remove(n.key);
+        Bucket b = n.bucket;
+        n.unlink();
+        if (policy == LFU && b.isEmpty())
+            b.unlink();
+        n.unlinkTouch();
+        weight -= n.weight;
+
+        if (cause == EVICTED)
+            evictionCount++;
+        else if (cause == EXPIRED)
+            expirationCount++;
+        if (cause >= 0 && !listeners.isEmpty()) {
+            n.cause = cause;
+            if (pending == null)
+                pending = new ArrayList();
+            pending.add(n);
+        }
+    }
+
+    /**
+     * Returns and clears the list of nodes waiting to be reported.
+     */
+    private List takePending() {
+        List p = pending;
+        pending = null;
+        return p;
+    }
+
+    /**
+     * Reports removed nodes to the listeners.  Called without the lock.
+     */
+    private void fire(List removed) {
+        if (removed == null)
+            return;
+        for (int i = 0; i < removed.size(); i++) {
+            Node n = (Node) removed.get(i);
+            for (Iterator it = listeners.iterator(); it.hasNext(); )
+                ((EvictionListener) it.next()).entryRemoved(n.key, n.value,
+                                                            n.cause);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A task that returns a result and may throw an exception.  Implementors
+ * define a single method with no arguments called <tt>call</tt>.<p>
+ *
+ * The <tt>Callable</tt> interface is similar to {@link java.lang.Runnable},
+ * in that both are designed for classes whose instances are potentially
+ * executed by another thread.  A <tt>Runnable</tt>, however, does not
+ * return a result and cannot throw a checked exception.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Executor
+ * @see     FutureTask
+ * @since   1.4
+ */
+public interface Callable {
+    /**
+     * Computes a result, or throws an exception if unable to do so.
+     *
+     * @return the computed result.
+     * @exception Exception if unable to compute a result.
+     */
+    Object call() throws Exception;
+}
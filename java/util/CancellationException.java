@@ -0,0 +1,32 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * Thrown to indicate that the result of a value-producing task, such as a
+ * {@link FutureTask}, cannot be retrieved because the task was cancelled.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Future#cancel(boolean)
+ * @since   1.4
+ */
+public class CancellationException extends IllegalStateException {
+    /**
+     * Constructs a <tt>CancellationException</tt> with no detail message.
+     */
+    public CancellationException() {
+    }
+
+    /**
+     * Constructs a <tt>CancellationException</tt> with the specified
+     * detail message.
+     *
+     * @param message the detail message.
+     */
+    public CancellationException(String message) {
+        super(message);
+    }
+}
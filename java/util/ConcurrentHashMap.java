@@ -0,0 +1,1219 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+import java.io.*;
+
+/**
+ * A hash table supporting full concurrency of retrievals and adjustable
+ * expected concurrency for updates.  This class obeys the same functional
+ * specification as {@link Hashtable}, and includes versions of methods
+ * corresponding to each method of <tt>Hashtable</tt>, including the
+ * <tt>Dictionary</tt>-style <tt>keys</tt>, <tt>elements</tt> and
+ * <tt>contains</tt> methods.  However, even though all operations are
+ * thread-safe, retrieval operations do <em>not</em> entail locking, and
+ * there is no support for locking the entire table in a way that prevents
+ * all access.  Like <tt>Hashtable</tt> but unlike <tt>HashMap</tt>, this
+ * class does <em>not</em> allow <tt>null</tt> to be used as a key or
+ * value.<p>
+ *
+ * The table is internally partitioned into <i>segments</i>, each of which
+ * is itself a small hash table guarded by its own monitor.  Updates lock
+ * only the segment that the key hashes to, so that up to
+ * <i>concurrencyLevel</i> threads can update the table without contending
+ * with one another.  Retrievals (including <tt>get</tt>) generally do not
+ * block, and so may overlap with updates.  Retrievals reflect the results of
+ * the most recently <em>completed</em> update operations holding upon their
+ * onset.  For aggregate operations such as <tt>putAll</tt> and
+ * <tt>clear</tt>, concurrent retrievals may reflect insertion or removal of
+ * only some entries.<p>
+ *
+ * Similarly, the Iterators and Enumerations returned by this class's
+ * collection views are <em>weakly consistent</em>: they return elements
+ * reflecting the state of the hash table at some point at or since the
+ * creation of the iterator.  They do <em>not</em> throw
+ * {@link ConcurrentModificationException}, and may proceed concurrently
+ * with other operations.  However, iterators are designed to be used by
+ * only one thread at a time.<p>
+ *
+ * The allowed concurrency among update operations is guided by the
+ * optional <tt>concurrencyLevel</tt> constructor argument (default 16),
+ * which is used as a hint for internal sizing.  Ideally, you should choose
+ * a value to accommodate as many threads as will ever concurrently modify
+ * the table.  Using a significantly higher value than you need can waste
+ * space and time, and a significantly lower value can lead to thread
+ * contention.<p>
+ *
+ * In addition to the <tt>Map</tt> operations, this class provides the
+ * atomic <tt>putIfAbsent</tt>, <tt>remove(key, value)</tt> and
+ * <tt>replace</tt> operations, which allow callers to perform common
+ * check-then-act sequences without external synchronization.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Hashtable
+ * @see     HashMap
+ * @see     Map
+ * @since   1.4
+ */
+public class ConcurrentHashMap extends AbstractMap
+                               implements Map, java.io.Serializable {
+
+    /**
+     * The default initial number of table slots for this table.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * The default load factor for this table.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * The default number of concurrency control segments.
+     */
+    static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The maximum capacity, used if a higher value is implicitly specified
+     * by either of the constructors with arguments.  Must be a power of two
+     * <= 1<<30 so that entries are indexable using ints.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The maximum number of segments to allow; used to bound constructor
+     * arguments.  Since <tt>size</tt> and <tt>containsValue</tt> may lock
+     * every segment, recursing once per segment to hold all of their
+     * monitors at once, this also bounds the depth of that recursion.
+     */
+    static final int MAX_SEGMENTS = 1 << 8;
+
+    /**
+     * Number of unsynchronized retries in size and containsValue methods
+     * before resorting to locking.  This is used to avoid unbounded retries
+     * if tables undergo continuous modification which would make it
+     * impossible to obtain an accurate result.
+     */
+    static final int RETRIES_BEFORE_LOCK = 2;
+
+    /**
+     * Mask value for indexing into segments.  The upper bits of a key's
+     * hash code are used to choose the segment.
+     */
+    private transient int segmentMask;
+
+    /**
+     * Shift value for indexing within segments.
+     */
+    private transient int segmentShift;
+
+    /**
+     * The segments, each of which is a specialized hash table.
+     */
+    private transient Segment[] segments;
+
+    /**
+     * The load factor of each segment.
+     *
+     * @serial
+     */
+    private final float loadFactor;
+
+    /**
+     * The concurrency level this table was created with.
+     *
+     * @serial
+     */
+    private final int concurrencyLevel;
+
+    private static final long serialVersionUID = 7249069246763182397L;
+
+    /**
+     * Applies a supplemental hash function to a given hashCode, which
+     * defends against poor quality hash functions.  This is critical
+     * because the table uses power-of-two length hash tables, that
+     * otherwise encounter collisions for hashCodes that do not differ
+     * in lower or upper bits.
+     */
+    static int hash(Object x) {
+        int h = x.hashCode();
+        h += ~(h << 9);
+        h ^=  (h >>> 14);
+        h +=  (h << 4);
+        h ^=  (h >>> 10);
+        return h;
+    }
+
+    /**
+     * Returns the segment that should be used for key with given hash.
+     */
+    final Segment segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Creates a new, empty map with the specified initial capacity, load
+     * factor and concurrency level.
+     *
+     * @param initialCapacity the initial capacity.  The implementation
+     *        performs internal sizing to accommodate this many elements.
+     * @param loadFactor the load factor threshold, used to control
+     *        resizing.  Resizing may be performed when the average number
+     *        of elements per bin exceeds this threshold.
+     * @param concurrencyLevel the estimated number of concurrently
+     *        updating threads.  The implementation performs internal sizing
+     *        to try to accommodate this many threads.
+     * @exception IllegalArgumentException if the initial capacity is
+     *            negative or the load factor or concurrencyLevel are
+     *            nonpositive.
+     */
+    public ConcurrentHashMap(int initialCapacity, float loadFactor,
+                             int concurrencyLevel) {
+        if (!(loadFactor > 0) || initialCapacity < 0 || concurrencyLevel <= 0)
+            throw new IllegalArgumentException();
+        this.loadFactor = loadFactor;
+        this.concurrencyLevel = concurrencyLevel;
+        init(initialCapacity);
+    }
+
+    /**
+     * Creates a new, empty map with the specified initial capacity and
+     * default load factor (0.75) and concurrency level (16).
+     *
+     * @param initialCapacity the initial capacity.
+     * @exception IllegalArgumentException if the initial capacity of
+     *            elements is negative.
+     */
+    public ConcurrentHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a new, empty map with a default initial capacity (16), load
+     * factor (0.75) and concurrency level (16).
+     */
+    public ConcurrentHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR,
+             DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a new map with the same mappings as the given map.  The map
+     * is created with a capacity sufficient to hold the mappings in the
+     * given map, and the default load factor and concurrency level.
+     *
+     * @param t the map whose mappings are to be placed in this map.
+     * @exception NullPointerException if the specified map, or any of its
+     *            keys or values, is <tt>null</tt>.
+     */
+    public ConcurrentHashMap(Map t) {
+        this(Math.max((int) (t.size() / DEFAULT_LOAD_FACTOR) + 1,
+                      DEFAULT_INITIAL_CAPACITY),
+             DEFAULT_LOAD_FACTOR, DEFAULT_CONCURRENCY_LEVEL);
+        putAll(t);
+    }
+
+    /**
+     * Sizes and creates the segments.  Called from the constructors and
+     * from readObject.
+     */
+    private void init(int initialCapacity) {
+        int level = concurrencyLevel;
+        if (level > MAX_SEGMENTS)
+            level = MAX_SEGMENTS;
+
+        // Find power-of-two sizes best matching arguments
+        int sshift = 0;
+        int ssize = 1;
+        while (ssize < level) {
+            ++sshift;
+            ssize <<= 1;
+        }
+        segmentShift = 32 - sshift;
+        segmentMask = ssize - 1;
+        segments = new Segment[ssize];
+
+        if (initialCapacity > MAXIMUM_CAPACITY)
+            initialCapacity = MAXIMUM_CAPACITY;
+        int c = initialCapacity / ssize;
+        if (c * ssize < initialCapacity)
+            ++c;
+        int cap = 1;
+        while (cap < c)
+            cap <<= 1;
+
+        for (int i = 0; i < segments.length; ++i)
+            segments[i] = new Segment(cap, loadFactor);
+    }
+
+    // Query Operations
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map.
+     */
+    public int size() {
+        Segment[] segments = this.segments;
+        long sum = 0;
+        long check = 0;
+        int[] mc = new int[segments.length];
+        // Try a few times to get accurate count. On failure due to
+        // continuous async changes in table, resort to locking.
+        for (int k = 0; k < RETRIES_BEFORE_LOCK; ++k) {
+            check = 0;
+            sum = 0;
+            int mcsum = 0;
+            for (int i = 0; i < segments.length; ++i) {
+                sum += segments[i].count;
+                mcsum += mc[i] = segments[i].modCount;
+            }
+            if (mcsum != 0) {
+                for (int i = 0; i < segments.length; ++i) {
+                    check += segments[i].count;
+                    if (mc[i] != segments[i].modCount) {
+                        check = -1; // force retry
+                        break;
+                    }
+                }
+            }
+            if (check == sum)
+                break;
+        }
+        if (check != sum)
+            sum = lockedSize(0);
+        if (sum > Integer.MAX_VALUE)
+            return Integer.MAX_VALUE;
+        else
+            return (int)sum;
+    }
+
+    /**
+     * Totals the segment counts while holding every segment's monitor,
+     * starting with segment <tt>i</tt>.  Monitors are always acquired in
+     * ascending segment order.
+     */
+    private long lockedSize(int i) {
+        if (i == segments.length)
+            return 0;
+        Segment seg = segments[i];
+        synchronized (seg) {
+            return seg.count + lockedSize(i + 1);
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains no key-value mappings.
+     *
+     * @return <tt>true</tt> if this map contains no key-value mappings.
+     */
+    public boolean isEmpty() {
+        Segment[] segments = this.segments;
+        /*
+         * We keep track of per-segment modCounts to avoid ABA problems in
+         * which an element in one segment was added and in another removed
+         * during traversal, in which case the table was never actually
+         * empty at any point.  Note the similar use of modCounts in the
+         * size() and containsValue() methods, which are the only other
+         * methods also susceptible to ABA problems.
+         */
+        int[] mc = new int[segments.length];
+        int mcsum = 0;
+        for (int i = 0; i < segments.length; ++i) {
+            if (segments[i].count != 0)
+                return false;
+            else
+                mcsum += mc[i] = segments[i].modCount;
+        }
+        // If mcsum happens to be zero, then we know we got a snapshot
+        // before any modifications at all were made.  This is probably
+        // common enough to bother tracking.
+        if (mcsum != 0) {
+            for (int i = 0; i < segments.length; ++i) {
+                if (segments[i].count != 0 ||
+                    mc[i] != segments[i].modCount)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped in this map.
+     *
+     * @param   key   a key in the map.
+     * @return  the value to which the key is mapped in this map;
+     *          <tt>null</tt> if the key is not mapped to any value in
+     *          this map.
+     * @exception NullPointerException  if the key is <tt>null</tt>.
+     */
+    public Object get(Object key) {
+        int hash = hash(key); // throws NullPointerException if key null
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Tests if the specified object is a key in this map.
+     *
+     * @param   key   possible key.
+     * @return  <tt>true</tt> if and only if the specified object is a key
+     *          in this map, as determined by the <tt>equals</tt> method;
+     *          <tt>false</tt> otherwise.
+     * @exception NullPointerException  if the key is <tt>null</tt>.
+     */
+    public boolean containsKey(Object key) {
+        int hash = hash(key); // throws NullPointerException if key null
+        return segmentFor(hash).containsKey(key, hash);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map maps one or more keys to the
+     * specified value.  Note: This method requires a full internal
+     * traversal of the hash table, and so is much slower than method
+     * <tt>containsKey</tt>.
+     *
+     * @param value value whose presence in this map is to be tested.
+     * @return <tt>true</tt> if this map maps one or more keys to the
+     *         specified value.
+     * @exception NullPointerException  if the value is <tt>null</tt>.
+     */
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        Segment[] segments = this.segments;
+        int[] mc = new int[segments.length];
+
+        // Try a few times without locking
+        for (int k = 0; k < RETRIES_BEFORE_LOCK; ++k) {
+            int mcsum = 0;
+            for (int i = 0; i < segments.length; ++i) {
+                mcsum += mc[i] = segments[i].modCount;
+                if (segments[i].containsValue(value))
+                    return true;
+            }
+            boolean cleanSweep = true;
+            if (mcsum != 0) {
+                for (int i = 0; i < segments.length; ++i) {
+                    if (mc[i] != segments[i].modCount) {
+                        cleanSweep = false;
+                        break;
+                    }
+                }
+            }
+            if (cleanSweep)
+                return false;
+        }
+        // Resort to locking all segments
+        return lockedContainsValue(0, value);
+    }
+
+    /**
+     * Searches for the given value while holding every segment's monitor,
+     * starting with segment <tt>i</tt>.
+     */
+    private boolean lockedContainsValue(int i, Object value) {
+        if (i == segments.length)
+            return false;
+        Segment seg = segments[i];
+        synchronized (seg) {
+            return seg.containsValue(value) ||
+                   lockedContainsValue(i + 1, value);
+        }
+    }
+
+    /**
+     * Legacy method testing if some key maps into the specified value in
+     * this table.  This method is identical in functionality to
+     * {@link #containsValue}, and exists solely to ensure full
+     * compatibility with class {@link Hashtable}.
+     *
+     * @param      value   a value to search for.
+     * @return     <tt>true</tt> if and only if some key maps to the
+     *             <tt>value</tt> argument in this table as determined by
+     *             the <tt>equals</tt> method; <tt>false</tt> otherwise.
+     * @exception  NullPointerException  if the value is <tt>null</tt>.
+     */
+    public boolean contains(Object value) {
+        return containsValue(value);
+    }
+
+    // Modification Operations
+
+    /**
+     * Maps the specified <tt>key</tt> to the specified <tt>value</tt> in
+     * this map.  Neither the key nor the value can be <tt>null</tt>.<p>
+     *
+     * The value can be retrieved by calling the <tt>get</tt> method with a
+     * key that is equal to the original key.
+     *
+     * @param      key     the map key.
+     * @param      value   the value.
+     * @return     the previous value of the specified key in this map, or
+     *             <tt>null</tt> if it did not have one.
+     * @exception  NullPointerException  if the key or value is
+     *             <tt>null</tt>.
+     */
+    public Object put(Object key, Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * If the specified key is not already associated with a value,
+     * associates it with the given value.  This is equivalent to
+     * <pre>
+     *   if (!map.containsKey(key))
+     *       return map.put(key, value);
+     *   else
+     *       return map.get(key);
+     * </pre>
+     * except that the action is performed atomically.
+     *
+     * @param key key with which the specified value is to be associated.
+     * @param value value to be associated with the specified key.
+     * @return previous value associated with specified key, or
+     *         <tt>null</tt> if there was no mapping for key.
+     * @exception NullPointerException if the specified key or value is
+     *            <tt>null</tt>.
+     */
+    public Object putIfAbsent(Object key, Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this one.
+     * These mappings replace any mappings that this map had for any of the
+     * keys currently in the specified map.
+     *
+     * @param t mappings to be stored in this map.
+     * @exception NullPointerException if the specified map, or any of its
+     *            keys or values, is <tt>null</tt>.
+     */
+    public void putAll(Map t) {
+        for (Iterator it = t.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Removes the key (and its corresponding value) from this map.  This
+     * method does nothing if the key is not in the map.
+     *
+     * @param   key   the key that needs to be removed.
+     * @return  the value to which the key had been mapped in this map, or
+     *          <tt>null</tt> if the key did not have a mapping.
+     * @exception NullPointerException  if the key is <tt>null</tt>.
+     */
+    public Object remove(Object key) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, null);
+    }
+
+    /**
+     * Removes the entry for a key only if currently mapped to a given
+     * value.  The action is performed atomically.
+     *
+     * @param key key with which the specified value is associated.
+     * @param value value associated with the specified key.
+     * @return <tt>true</tt> if the value was removed.
+     * @exception NullPointerException if the specified key is
+     *            <tt>null</tt>.
+     */
+    public boolean remove(Object key, Object value) {
+        if (value == null)
+            return false;
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, value) != null;
+    }
+
+    /**
+     * Replaces the entry for a key only if currently mapped to a given
+     * value.  The action is performed atomically.
+     *
+     * @param key key with which the specified value is associated.
+     * @param oldValue value expected to be associated with the specified
+     *        key.
+     * @param newValue value to be associated with the specified key.
+     * @return <tt>true</tt> if the value was replaced.
+     * @exception NullPointerException if any of the arguments are
+     *            <tt>null</tt>.
+     */
+    public boolean replace(Object key, Object oldValue, Object newValue) {
+        if (oldValue == null || newValue == null)
+            throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).replace(key, hash, oldValue, newValue);
+    }
+
+    /**
+     * Replaces the entry for a key only if currently mapped to some value.
+     * The action is performed atomically.
+     *
+     * @param key key with which the specified value is associated.
+     * @param value value to be associated with the specified key.
+     * @return previous value associated with specified key, or
+     *         <tt>null</tt> if there was no mapping for key.
+     * @exception NullPointerException if the specified key or value is
+     *            <tt>null</tt>.
+     */
+    public Object replace(Object key, Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        int hash = hash(key);
+        return segmentFor(hash).replace(key, hash, value);
+    }
+
+    /**
+     * Removes all mappings from this map.
+     */
+    public void clear() {
+        for (int i = 0; i < segments.length; ++i)
+            segments[i].clear();
+    }
+
+    // Views
+
+    private transient Set keySet = null;
+    private transient Set entrySet = null;
+    private transient Collection values = null;
+
+    /**
+     * Returns a set view of the keys contained in this map.  The set is
+     * backed by the map, so changes to the map are reflected in the set,
+     * and vice-versa.  The set supports element removal, which removes the
+     * corresponding mapping from this map, via the <tt>Iterator.remove</tt>,
+     * <tt>Set.remove</tt>, <tt>removeAll</tt>, <tt>retainAll</tt>, and
+     * <tt>clear</tt> operations.  It does not support the <tt>add</tt> or
+     * <tt>addAll</tt> operations.  The view's returned <tt>iterator</tt> is
+     * a "weakly consistent" iterator that will never throw
+     * {@link ConcurrentModificationException}.
+     *
+     * @return a set view of the keys contained in this map.
+     */
+    public Set keySet() {
+        Set ks = keySet;
+        return (ks != null) ? ks : (keySet = new KeySet());
+    }
+
+    /**
+     * Returns a collection view of the values contained in this map.  The
+     * collection is backed by the map, so changes to the map are reflected
+     * in the collection, and vice-versa.  The collection supports element
+     * removal, which removes the corresponding mapping from this map, via
+     * the <tt>Iterator.remove</tt>, <tt>Collection.remove</tt>,
+     * <tt>removeAll</tt>, <tt>retainAll</tt>, and <tt>clear</tt>
+     * operations.  It does not support the <tt>add</tt> or <tt>addAll</tt>
+     * operations.  The view's returned <tt>iterator</tt> is a "weakly
+     * consistent" iterator that will never throw
+     * {@link ConcurrentModificationException}.
+     *
+     * @return a collection view of the values contained in this map.
+     */
+    public Collection values() {
+        Collection vs = values;
+        return (vs != null) ? vs : (values = new Values());
+    }
+
+    /**
+     * Returns a collection view of the mappings contained in this map.
+     * Each element in the returned collection is a <tt>Map.Entry</tt>.  The
+     * collection is backed by the map, so changes to the map are reflected
+     * in the collection, and vice-versa.  The collection supports element
+     * removal, which removes the corresponding mapping from the map, via
+     * the <tt>Iterator.remove</tt>, <tt>Collection.remove</tt>,
+     * <tt>removeAll</tt>, <tt>retainAll</tt>, and <tt>clear</tt>
+     * operations.  It does not support the <tt>add</tt> or <tt>addAll</tt>
+     * operations.  The view's returned <tt>iterator</tt> is a "weakly
+     * consistent" iterator that will never throw
+     * {@link ConcurrentModificationException}.
+     *
+     * @return a collection view of the mappings contained in this map.
+     */
+    public Set entrySet() {
+        Set es = entrySet;
+        return (es != null) ? es : (entrySet = new EntrySet());
+    }
+
+    /**
+     * Returns an enumeration of the keys in this table.
+     *
+     * @return  an enumeration of the keys in this table.
+     * @see     #keySet()
+     */
+    public Enumeration keys() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Returns an enumeration of the values in this table.
+     *
+     * @return  an enumeration of the values in this table.
+     * @see     #values()
+     */
+    public Enumeration elements() {
+        return new ValueIterator();
+    }
+
+    // Serialization Support
+
+    /**
+     * Save the state of the <tt>ConcurrentHashMap</tt> instance to a
+     * stream (i.e., serialize it).
+     *
+     * @serialData the key (Object) and value (Object) for each key-value
+     *             mapping, followed by a null pair.  The key-value mappings
+     *             are emitted in no particular order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+
+        for (int k = 0; k < segments.length; ++k) {
+            Segment seg = segments[k];
+            synchronized (seg) {
+                HashEntry[] tab = seg.table;
+                for (int i = 0; i < tab.length; ++i) {
+                    for (HashEntry e = tab[i]; e != null; e = e.next) {
+                        s.writeObject(e.key);
+                        s.writeObject(e.value);
+                    }
+                }
+            }
+        }
+        s.writeObject(null);
+        s.writeObject(null);
+    }
+
+    /**
+     * Reconstitute the <tt>ConcurrentHashMap</tt> instance from a stream
+     * (i.e., deserialize it).
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        init(DEFAULT_INITIAL_CAPACITY);
+
+        // Read the keys and values, and put the mappings in the table
+        for (;;) {
+            Object key = s.readObject();
+            Object value = s.readObject();
+            if (key == null)
+                break;
+            put(key, value);
+        }
+    }
+
+    /**
+     * ConcurrentHashMap list entry.  Note that this is never exported out
+     * as a user-visible Map.Entry.<p>
+     *
+     * Because the value field is volatile, not final, it is possible for
+     * an unsynchronized reader to see a null value for a newly constructed
+     * entry that has been published through a racy table write.  Readers
+     * recheck such values under the segment's monitor.  The key, hash and
+     * next fields are never changed once the entry is constructed, so that
+     * a removal never disturbs a reader that is traversing the list.
+     */
+    static final class HashEntry {
+        final Object key;
+        final int hash;
+        volatile Object value;
+        final HashEntry next;
+
+        HashEntry(Object key, int hash, HashEntry next, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.next = next;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Segments are specialized versions of hash tables.  All mutative
+     * operations synchronize on the segment itself, and are therefore
+     * serialized with respect to one another, but reads traverse the table
+     * without locking.<p>
+     *
+     * Reads rely on the following invariants: the <tt>next</tt> fields of
+     * nodes are immutable, so a list may only be changed by replacing its
+     * head; rehashing and removal copy the portion of a list they change
+     * rather than relinking it; and every write is followed by a write of
+     * the volatile <tt>count</tt> field, while every read begins with a read
+     * of <tt>count</tt>.  A reader therefore always sees a well-formed
+     * table, possibly missing the effects of updates in progress.
+     */
+    static final class Segment {
+        /**
+         * The number of elements in this segment's region.
+         */
+        transient volatile int count;
+
+        /**
+         * Number of updates that alter the size of the table.  This is
+         * used during bulk-read methods to make sure they see a consistent
+         * snapshot: if modCounts change during a traversal of segments
+         * computing size or checking containsValue, then we might have an
+         * inconsistent view of state so (usually) must retry.
+         */
+        transient int modCount;
+
+        /**
+         * The table is rehashed when its size exceeds this threshold.
+         * (The value of this field is always
+         * <tt>(int)(capacity * loadFactor)</tt>.)
+         */
+        transient int threshold;
+
+        /**
+         * The per-segment table.
+         */
+        transient volatile HashEntry[] table;
+
+        /**
+         * The load factor for the hash table.  Even though this value is
+         * same for all segments, it is replicated to avoid needing links to
+         * outer object.
+         */
+        final float loadFactor;
+
+        Segment(int initialCapacity, float lf) {
+            loadFactor = lf;
+            setTable(new HashEntry[initialCapacity]);
+        }
+
+        /**
+         * Sets table to new HashEntry array.  Call only while holding the
+         * segment's monitor or in the constructor.
+         */
+        void setTable(HashEntry[] newTable) {
+            threshold = (int)(newTable.length * loadFactor);
+            table = newTable;
+        }
+
+        /**
+         * Returns properly casted first entry of bin for given hash.
+         */
+        HashEntry getFirst(int hash) {
+            HashEntry[] tab = table;
+            return tab[hash & (tab.length - 1)];
+        }
+
+        /**
+         * Reads value field of an entry under the segment's monitor.
+         * Called if value field ever appears to be null.  This is possible
+         * only if a compiler happens to reorder a HashEntry initialization
+         * with its table assignment, which is legal under the memory model
+         * but is not known to ever occur.
+         */
+        synchronized Object readValueUnderLock(HashEntry e) {
+            return e.value;
+        }
+
+        /* Specialized implementations of map methods */
+
+        Object get(Object key, int hash) {
+            if (count != 0) { // read-volatile
+                HashEntry e = getFirst(hash);
+                while (e != null) {
+                    if (e.hash == hash && key.equals(e.key)) {
+                        Object v = e.value;
+                        if (v != null)
+                            return v;
+                        return readValueUnderLock(e); // recheck
+                    }
+                    e = e.next;
+                }
+            }
+            return null;
+        }
+
+        boolean containsKey(Object key, int hash) {
+            if (count != 0) { // read-volatile
+                HashEntry e = getFirst(hash);
+                while (e != null) {
+                    if (e.hash == hash && key.equals(e.key))
+                        return true;
+                    e = e.next;
+                }
+            }
+            return false;
+        }
+
+        boolean containsValue(Object value) {
+            if (count != 0) { // read-volatile
+                HashEntry[] tab = table;
+                int len = tab.length;
+                for (int i = 0 ; i < len; i++) {
+                    for (HashEntry e = tab[i]; e != null; e = e.next) {
+                        Object v = e.value;
+                        if (v == null) // recheck
+                            v = readValueUnderLock(e);
+                        if (value.equals(v))
+                            return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean replace(Object key, int hash, Object oldValue,
+                                     Object newValue) {
+            HashEntry e = getFirst(hash);
+            while (e != null && (e.hash != hash || !key.equals(e.key)))
+                e = e.next;
+
+            boolean replaced = false;
+            if (e != null && oldValue.equals(e.value)) {
+                replaced = true;
+                e.value = newValue;
+            }
+            return replaced;
+        }
+
+        synchronized Object replace(Object key, int hash, Object newValue) {
+            HashEntry e = getFirst(hash);
+            while (e != null && (e.hash != hash || !key.equals(e.key)))
+                e = e.next;
+
+            Object oldValue = null;
+            if (e != null) {
+                oldValue = e.value;
+                e.value = newValue;
+            }
+            return oldValue;
+        }
+
+        synchronized Object put(Object key, int hash, Object value,
+                                boolean onlyIfAbsent) {
+            int c = count;
+            if (c++ > threshold) // ensure capacity
+                rehash();
+            HashEntry[] tab = table;
+            int index = hash & (tab.length - 1);
+            HashEntry first = tab[index];
+            HashEntry e = first;
+            while (e != null && (e.hash != hash || !key.equals(e.key)))
+                e = e.next;
+
+            Object oldValue;
+            if (e != null) {
+                oldValue = e.value;
+                if (!onlyIfAbsent)
+                    e.value = value;
+            } else {
+                oldValue = null;
+                ++modCount;
+                tab[index] = new HashEntry(key, hash, first, value);
+                count = c; // write-volatile
+            }
+            return oldValue;
+        }
+
+        void rehash() {
+            HashEntry[] oldTable = table;
+            int oldCapacity = oldTable.length;
+            if (oldCapacity >= MAXIMUM_CAPACITY)
+                return;
+
+            /*
+             * Reclassify nodes in each list to new table.  Because we are
+             * using power-of-two expansion, the elements from each bin must
+             * either stay at same index, or move with a power of two offset.
+             * We eliminate unnecessary node creation by catching cases where
+             * old nodes can be reused because their next fields won't
+             * change.  Statistically, at the default threshold, only about
+             * one-sixth of them need cloning when a table doubles.  The
+             * nodes they replace will be garbage collectable as soon as they
+             * are no longer referenced by any reader thread that may be in
+             * the midst of traversing table right now.
+             */
+            HashEntry[] newTable = new HashEntry[oldCapacity << 1];
+            threshold = (int)(newTable.length * loadFactor);
+            int sizeMask = newTable.length - 1;
+            for (int i = 0; i < oldCapacity ; i++) {
+                // We need to guarantee that any existing reads of old Map
+                // can proceed.  So we cannot yet null out each bin.
+                HashEntry e = oldTable[i];
+
+                if (e != null) {
+                    HashEntry next = e.next;
+                    int idx = e.hash & sizeMask;
+
+                    //  Single node on list
+                    if (next == null)
+                        newTable[idx] = e;
+
+                    else {
+                        // Reuse trailing consecutive sequence at same slot
+                        HashEntry lastRun = e;
+                        int lastIdx = idx;
+                        for (HashEntry last = next;
+                             last != null;
+                             last = last.next) {
+                            int k = last.hash & sizeMask;
+                            if (k != lastIdx) {
+                                lastIdx = k;
+                                lastRun = last;
+                            }
+                        }
+                        newTable[lastIdx] = lastRun;
+
+                        // Clone all remaining nodes
+                        for (HashEntry p = e; p != lastRun; p = p.next) {
+                            int k = p.hash & sizeMask;
+                            HashEntry n = newTable[k];
+                            newTable[k] = new HashEntry(p.key, p.hash,
+                                                        n, p.value);
+                        }
+                    }
+                }
+            }
+            table = newTable;
+        }
+
+        /**
+         * Remove; match on key only if value null, else match both.
+         */
+        synchronized Object remove(Object key, int hash, Object value) {
+            int c = count - 1;
+            HashEntry[] tab = table;
+            int index = hash & (tab.length - 1);
+            HashEntry first = tab[index];
+            HashEntry e = first;
+            while (e != null && (e.hash != hash || !key.equals(e.key)))
+                e = e.next;
+
+            Object oldValue = null;
+            if (e != null) {
+                Object v = e.value;
+                if (value == null || value.equals(v)) {
+                    oldValue = v;
+                    // All entries following removed node can stay
+                    // in list, but all preceding ones need to be
+                    // cloned.
+                    ++modCount;
+                    HashEntry newFirst = e.next;
+                    for (HashEntry p = first; p != e; p = p.next)
+                        newFirst = new HashEntry(p.key, p.hash,
+                                                 newFirst, p.value);
+                    tab[index] = newFirst;
+                    count = c; // write-volatile
+                }
+            }
+            return oldValue;
+        }
+
+        synchronized void clear() {
+            if (count != 0) {
+                HashEntry[] tab = table;
+                for (int i = 0; i < tab.length ; i++)
+                    tab[i] = null;
+                ++modCount;
+                count = 0; // write-volatile
+            }
+        }
+    }
+
+    /* ---------------- Iterator Support -------------- */
+
+    /**
+     * Base class for the weakly consistent iterators over the collection
+     * views.  Segments are visited from last to first, and each segment's
+     * table is captured once, so entries inserted or removed after the
+     * iterator reaches a bin may or may not be reported.
+     */
+    abstract class HashIterator {
+        int nextSegmentIndex;
+        int nextTableIndex;
+        HashEntry[] currentTable;
+        HashEntry nextEntry;
+        HashEntry lastReturned;
+
+        HashIterator() {
+            nextSegmentIndex = segments.length - 1;
+            nextTableIndex = -1;
+            advance();
+        }
+
+        public boolean hasMoreElements() { return hasNext(); }
+
+        final void advance() {
+            if (nextEntry != null && (nextEntry = nextEntry.next) != null)
+                return;
+
+            while (nextTableIndex >= 0) {
+                if ((nextEntry = currentTable[nextTableIndex--]) != null)
+                    return;
+            }
+
+            while (nextSegmentIndex >= 0) {
+                Segment seg = segments[nextSegmentIndex--];
+                if (seg.count != 0) {
+                    currentTable = seg.table;
+                    for (int j = currentTable.length - 1; j >= 0; --j) {
+                        if ((nextEntry = currentTable[j]) != null) {
+                            nextTableIndex = j - 1;
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        public boolean hasNext() { return nextEntry != null; }
+
+        HashEntry nextEntry() {
+            if (nextEntry == null)
+                throw new NoSuchElementException();
+            lastReturned = nextEntry;
+            advance();
+            return lastReturned;
+        }
+
+        public void remove() {
+            if (lastReturned == null)
+                throw new IllegalStateException();
+            ConcurrentHashMap.this.remove(lastReturned.key);
+            lastReturned = null;
+        }
+    }
+
+    final class KeyIterator extends HashIterator
+                            implements Iterator, Enumeration {
+        public Object next()        { return nextEntry().key; }
+        public Object nextElement() { return nextEntry().key; }
+    }
+
+    final class ValueIterator extends HashIterator
+                              implements Iterator, Enumeration {
+        public Object next()        { return nextEntry().value; }
+        public Object nextElement() { return nextEntry().value; }
+    }
+
+    final class EntryIterator extends HashIterator implements Iterator {
+        public Object next() {
+            HashEntry e = nextEntry();
+            return new WriteThroughEntry(e.key, e.value);
+        }
+    }
+
+    /**
+     * Custom Entry class used by EntryIterator.next(), that relays
+     * setValue changes to the underlying map.
+     */
+    final class WriteThroughEntry implements Map.Entry {
+        private final Object key;
+        private Object value;
+
+        WriteThroughEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Set our entry's value and write through to the map.  The value
+         * to return is somewhat arbitrary here.  Since a WriteThroughEntry
+         * does not necessarily track asynchronous changes, the most recent
+         * "previous" value could be different from what we return (or could
+         * even have been removed in which case the put will re-establish).
+         * We do not and cannot guarantee more.
+         */
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+            Object v = this.value;
+            this.value = value;
+            ConcurrentHashMap.this.put(key, value);
+            return v;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry e = (Map.Entry)o;
+            return key.equals(e.getKey()) && value.equals(e.getValue());
+        }
+
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    final class KeySet extends AbstractSet {
+        public Iterator iterator() {
+            return new KeyIterator();
+        }
+        public int size() {
+            return ConcurrentHashMap.this.size();
+        }
+        public boolean contains(Object o) {
+            return ConcurrentHashMap.this.containsKey(o);
+        }
+        public boolean remove(Object o) {
+            return ConcurrentHashMap.this.remove(o) != null;
+        }
+        public void clear() {
+            ConcurrentHashMap.this.clear();
+        }
+    }
+
+    final class Values extends AbstractCollection {
+        public Iterator iterator() {
+            return new ValueIterator();
+        }
+        public int size() {
+            return ConcurrentHashMap.this.size();
+        }
+        public boolean contains(Object o) {
+            return ConcurrentHashMap.this.containsValue(o);
+        }
+        public void clear() {
+            ConcurrentHashMap.this.clear();
+        }
+    }
+
+    final class EntrySet extends AbstractSet {
+        public Iterator iterator() {
+            return new EntryIterator();
+        }
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry e = (Map.Entry)o;
+            Object v = ConcurrentHashMap.this.get(e.getKey());
+            return v != null && v.equals(e.getValue());
+        }
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry e = (Map.Entry)o;
+            return ConcurrentHashMap.this.remove(e.getKey(), e.getValue());
+        }
+        public int size() {
+            return ConcurrentHashMap.this.size();
+        }
+        public void clear() {
+            ConcurrentHashMap.this.clear();
+        }
+    }
+}
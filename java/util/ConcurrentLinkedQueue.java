@@ -0,0 +1,405 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * An unbounded thread-safe {@link Queue} based on linked nodes.  This
+ * queue orders elements FIFO (first-in-first-out).  New elements are
+ * inserted at the tail of the queue, and the queue retrieval operations
+ * obtain elements at the head of the queue.  A
+ * <tt>ConcurrentLinkedQueue</tt> is an appropriate choice when many threads
+ * will share access to a common collection.  This queue does not permit
+ * <tt>null</tt> elements.<p>
+ *
+ * This implementation employs an efficient <em>non-blocking</em>
+ * algorithm based on one described in <a
+ * href="http://www.cs.rochester.edu/u/michael/PODC96.html"> Simple, Fast,
+ * and Practical Non-Blocking and Blocking Concurrent Queue Algorithms</a>
+ * by Maged M. Michael and Michael L. Scott.  No operation takes a lock:
+ * the head and tail pointers, and the item and link of each node, are
+ * updated with {@link AtomicReference#compareAndSet}, and a thread that
+ * loses a race helps complete the other thread's update and retries.<p>
+ *
+ * Beware that, unlike in most collections, the <tt>size</tt> method is
+ * <em>NOT</em> a constant-time operation.  Because of the asynchronous
+ * nature of these queues, determining the current number of elements
+ * requires a traversal of the elements.<p>
+ *
+ * Iterators are <i>weakly consistent</i>, returning elements reflecting
+ * the state of the queue at some point at or since the creation of the
+ * iterator.  They do <em>not</em> throw
+ * {@link ConcurrentModificationException}, and may proceed concurrently
+ * with other operations.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Queue
+ * @see     LinkedBlockingQueue
+ * @since   1.4
+ */
+public class ConcurrentLinkedQueue extends AbstractQueue
+                                   implements Queue, java.io.Serializable {
+    private static final long serialVersionUID = 196745693267521676L;
+
+    /*
+     * This is a straight adaptation of the Michael-Scott algorithm.  The
+     * queue always holds a dummy node at its head; the first element, if
+     * any, is in the node after it.  Elements are removed by advancing
+     * head, which turns the node holding the removed element into the new
+     * dummy, and by clearing its item, which is done with compareAndSet so
+     * that poll and an interior remove(Object) cannot both claim the same
+     * element.  A node whose item has been cleared is skipped by
+     * traversals.
+     */
+
+    /**
+     * A queue node.  The node itself is the atomic reference to its item;
+     * the link to the next node is a second atomic reference.
+     */
+    private static final class Node extends AtomicReference {
+        final AtomicReference next = new AtomicReference();
+
+        Node(Object item) {
+            super(item);
+        }
+
+        Node getNext() {
+            return (Node) next.get();
+        }
+
+        boolean casNext(Node cmp, Node val) {
+            return next.compareAndSet(cmp, val);
+        }
+    }
+
+    /**
+     * Pointer to the dummy header node, whose successor holds the first
+     * element.
+     */
+    private transient AtomicReference head;
+
+    /**
+     * Pointer to the last node on the list, or to its predecessor while an
+     * insertion is in progress.
+     */
+    private transient AtomicReference tail;
+
+    /**
+     * Creates a <tt>ConcurrentLinkedQueue</tt> that is initially empty.
+     */
+    public ConcurrentLinkedQueue() {
+        init();
+    }
+
+    /**
+     * Creates a <tt>ConcurrentLinkedQueue</tt> initially containing the
+     * elements of the given collection, added in traversal order of the
+     * collection's iterator.
+     *
+     * @param c the collection of elements to initially contain.
+     * @throws NullPointerException if <tt>c</tt> or any element within it
+     *         is <tt>null</tt>.
+     */
+    public ConcurrentLinkedQueue(Collection c) {
+        init();
+        for (Iterator it = c.iterator(); it.hasNext();)
+            add(it.next());
+    }
+
+    /**
+     * Adds the specified element to the tail of this queue.
+     *
+     * @param o the element to add.
+     * @return <tt>true</tt> (as per the general contract of
+     *         <tt>Collection.add</tt>).
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean add(Object o) {
+        return offer(o);
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue.
+     *
+     * @param o the element to add.
+     * @return <tt>true</tt> (as per the general contract of
+     *         <tt>Queue.offer</tt>).
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean offer(Object o) {
+        if (o == null)
+            throw new NullPointerException();
+        Node n = new Node(o);
+        for (;;) {
+            Node t = (Node) tail.get();
+            Node s = t.getNext();
+            if (t == tail.get()) {
+                if (s == null) {
+                    if (t.casNext(s, n)) {
+                        tail.compareAndSet(t, n);
+                        return true;
+                    }
+                } else {
+                    tail.compareAndSet(t, s);  // Help a lagging insertion
+                }
+            }
+        }
+    }
+
+    public Object poll() {
+        for (;;) {
+            Node h = (Node) head.get();
+            Node t = (Node) tail.get();
+            Node first = h.getNext();
+            if (h == head.get()) {
+                if (h == t) {
+                    if (first == null)
+                        return null;
+                    else
+                        tail.compareAndSet(t, first);
+                } else if (head.compareAndSet(h, first)) {
+                    Object item = first.get();
+                    if (item != null && first.compareAndSet(item, null))
+                        return item;
+                    // else skip over element removed by remove(Object)
+                }
+            }
+        }
+    }
+
+    public Object peek() {
+        for (;;) {
+            Node h = (Node) head.get();
+            Node t = (Node) tail.get();
+            Node first = h.getNext();
+            if (h == head.get()) {
+                if (h == t) {
+                    if (first == null)
+                        return null;
+                    else
+                        tail.compareAndSet(t, first);
+                } else {
+                    Object item = first.get();
+                    if (item != null)
+                        return item;
+                    else // remove deleted node and continue
+                        head.compareAndSet(h, first);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the first actual (non-header) node on list.  This is yet
+     * another variant of poll/peek; here returning out the first node, not
+     * element (so we cannot collapse with peek() without introducing race).
+     */
+    private Node first() {
+        for (;;) {
+            Node h = (Node) head.get();
+            Node t = (Node) tail.get();
+            Node first = h.getNext();
+            if (h == head.get()) {
+                if (h == t) {
+                    if (first == null)
+                        return null;
+                    else
+                        tail.compareAndSet(t, first);
+                } else {
+                    if (first.get() != null)
+                        return first;
+                    else // remove deleted node and continue
+                        head.compareAndSet(h, first);
+                }
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return first() == null;
+    }
+
+    /**
+     * Returns the number of elements in this queue.  If this queue
+     * contains more than <tt>Integer.MAX_VALUE</tt> elements, returns
+     * <tt>Integer.MAX_VALUE</tt>.<p>
+     *
+     * Beware that, unlike in most collections, this method is <em>NOT</em>
+     * a constant-time operation.  Because of the asynchronous nature of
+     * these queues, determining the current number of elements requires an
+     * O(n) traversal.
+     *
+     * @return the number of elements in this queue.
+     */
+    public int size() {
+        int count = 0;
+        for (Node p = first(); p != null; p = p.getNext()) {
+            if (p.get() != null) {
+                // Collections.size() spec says to max out
+                if (++count == Integer.MAX_VALUE)
+                    break;
+            }
+        }
+        return count;
+    }
+
+    public boolean contains(Object o) {
+        if (o == null)
+            return false;
+        for (Node p = first(); p != null; p = p.getNext()) {
+            Object item = p.get();
+            if (item != null && o.equals(item))
+                return true;
+        }
+        return false;
+    }
+
+    public boolean remove(Object o) {
+        if (o == null)
+            return false;
+        for (Node p = first(); p != null; p = p.getNext()) {
+            Object item = p.get();
+            if (item != null && o.equals(item) && p.compareAndSet(item, null))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns an iterator over the elements in this queue in proper
+     * sequence.  The returned iterator is a "weakly consistent" iterator
+     * that will never throw {@link ConcurrentModificationException}, and
+     * guarantees to traverse elements as they existed upon construction of
+     * the iterator, and may (but is not guaranteed to) reflect any
+     * modifications subsequent to construction.
+     *
+     * @return an iterator over the elements in this queue in proper
+     *         sequence.
+     */
+    public Iterator iterator() {
+        return new Itr();
+    }
+
+    private class Itr implements Iterator {
+        /**
+         * Next node to return item for.
+         */
+        private Node nextNode;
+
+        /**
+         * nextItem holds on to item fields because once we claim that an
+         * element exists in hasNext(), we must return it in the following
+         * next() call even if it was in the process of being removed when
+         * hasNext() was called.
+         */
+        private Object nextItem;
+
+        /**
+         * Node of the last returned item, to support remove.
+         */
+        private Node lastRet;
+
+        Itr() {
+            advance();
+        }
+
+        /**
+         * Moves to next valid node and returns item to return for next(),
+         * or null if no such.
+         */
+        private Object advance() {
+            lastRet = nextNode;
+            Object x = nextItem;
+
+            Node p = (nextNode == null) ? first() : nextNode.getNext();
+            for (;;) {
+                if (p == null) {
+                    nextNode = null;
+                    nextItem = null;
+                    return x;
+                }
+                Object item = p.get();
+                if (item != null) {
+                    nextNode = p;
+                    nextItem = item;
+                    return x;
+                } else // skip over nulls
+                    p = p.getNext();
+            }
+        }
+
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        public Object next() {
+            if (nextNode == null)
+                throw new NoSuchElementException();
+            return advance();
+        }
+
+        public void remove() {
+            Node l = lastRet;
+            if (l == null)
+                throw new IllegalStateException();
+            // rely on a future traversal to relink.
+            l.set(null);
+            lastRet = null;
+        }
+    }
+
+    /**
+     * Save the state to a stream (that is, serialize it).
+     *
+     * @serialData All of the elements (each an <tt>Object</tt>) in the
+     *             proper order, followed by a null.
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws java.io.IOException {
+
+        // Write out any hidden stuff
+        s.defaultWriteObject();
+
+        // Write out all elements in the proper order.
+        for (Node p = first(); p != null; p = p.getNext()) {
+            Object item = p.get();
+            if (item != null)
+                s.writeObject(item);
+        }
+
+        // Use trailing null as sentinel
+        s.writeObject(null);
+    }
+
+    /**
+     * Reconstitute the Queue instance from a stream (that is, deserialize
+     * it).
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+        // Read in any hidden stuff
+        s.defaultReadObject();
+        init();
+        for (;;) {
+            Object item = s.readObject();
+            if (item == null)
+                break;
+            else
+                offer(item);
+        }
+    }
+
+    /**
+     * Sets up an empty list: head and tail both point to a dummy node.
+     * Called by the constructors and by readObject.
+     */
+    private void init() {
+        Node dummy = new Node(null);
+        head = new AtomicReference(dummy);
+        tail = new AtomicReference(dummy);
+    }
+}
@@ -0,0 +1,1756 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A scalable concurrent {@link SortedMap} implementation.  The map is
+ * sorted according to the <i>natural order</i> of its keys (see
+ * <tt>Comparable</tt>), or by the comparator provided at creation time,
+ * depending on which constructor is used.<p>
+ *
+ * This class implements a concurrent variant of <a
+ * href="http://www.cs.umd.edu/~pugh/">SkipLists</a> providing expected
+ * average log(n) time cost for the <tt>containsKey</tt>, <tt>get</tt>,
+ * <tt>put</tt> and <tt>remove</tt> operations and their variants.
+ * Retrievals take no lock, and insertion, removal, update and access
+ * operations safely execute concurrently by multiple threads: no operation
+ * takes a lock, and a thread that loses a race helps complete the other
+ * thread's update and retries.  Ascending key ordered views and their
+ * iterators are faster than descending ones.<p>
+ *
+ * Iterators are <i>weakly consistent</i>, returning elements reflecting
+ * the state of the map at some point at or since the creation of the
+ * iterator.  They do <em>not</em> throw
+ * {@link ConcurrentModificationException}, and may proceed concurrently
+ * with other operations.  The same holds for the views returned by
+ * <tt>subMap</tt>, <tt>headMap</tt> and <tt>tailMap</tt>, which can be
+ * scanned while other threads insert into and remove from the range.  All
+ * <tt>Map.Entry</tt> pairs returned by the iterators represent snapshots
+ * of mappings at the time they were produced; their <tt>setValue</tt>
+ * method writes through to the map.<p>
+ *
+ * Beware that, unlike in most collections, the <tt>size</tt> method is
+ * <em>NOT</em> a constant-time operation.  Because of the asynchronous
+ * nature of these maps, determining the current number of elements
+ * requires a traversal of the elements.  Additionally, the bulk operations
+ * <tt>putAll</tt>, <tt>equals</tt> and <tt>clear</tt> are <em>not</em>
+ * guaranteed to be performed atomically.<p>
+ *
+ * Like <tt>ConcurrentHashMap</tt>, this class provides the atomic
+ * <tt>putIfAbsent</tt>, <tt>remove(key, value)</tt> and <tt>replace</tt>
+ * operations, and does <em>not</em> permit the use of <tt>null</tt> keys
+ * or values because some null return values cannot be reliably
+ * distinguished from the absence of elements.
+ *
+ * @version 1.1, 10/15/26
+ * @see     SortedMap
+ * @see     TreeMap
+ * @see     ConcurrentHashMap
+ * @see     ConcurrentSkipListSet
+ * @since   1.4
+ */
+public class ConcurrentSkipListMap extends AbstractMap
+                                   implements SortedMap, Cloneable,
+                                              java.io.Serializable {
+    private static final long serialVersionUID = -8627078645895051609L;
+
+    /*
+     * This class implements a tree-like two-dimensionally linked skip
+     * list in which the index levels are represented in separate nodes
+     * from the base nodes holding data.  The base list is a sorted singly
+     * linked list of Nodes, headed by a dummy node whose value is
+     * BASE_HEADER.  Above it, each level of Index nodes links to the Node
+     * it indexes, to the Index below it, and to the next Index on its
+     * level.  The HeadIndex nodes on the left also record their level.
+     *
+     *  Head nodes          Index nodes
+     *  +-+    right        +-+                      +-+
+     *  |2|---------------->| |--------------------->| |->null
+     *  +-+                 +-+                      +-+
+     *   | down              |                        |
+     *   v                   v                        v
+     *  +-+            +-+  +-+       +-+            +-+       +-+
+     *  |1|----------->| |->| |------>| |----------->| |------>| |->null
+     *  +-+            +-+  +-+       +-+            +-+       +-+
+     *   v              |    |         |              |         |
+     *  Nodes  next     v    v         v              v         v
+     *  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+
+     *  | |->|A|->|B|->|C|->|D|->|E|->|F|->|G|->|H|->|I|->|J|->|K|->null
+     *  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+  +-+
+     *
+     * As in ConcurrentLinkedQueue, every link that can change is an
+     * AtomicReference, and so is a node's value: a Node is the atomic
+     * reference to its value, and an Index the atomic reference to its
+     * right neighbour.  Only the base list is needed for correctness; the
+     * index levels just make searches fast, and are allowed to lag
+     * behind, or race ahead of, the base list.
+     *
+     * Deletion uses the technique of Harris and of Michael: a node is
+     * deleted by first setting its value to null, then appending a marker
+     * node (a node whose value is itself) after it, and then unlinking it
+     * and the marker from its predecessor.  The marker guarantees that no
+     * insertion can slip in after a node that is being unlinked.  Any
+     * traversal that meets a node with a null value helps finish the
+     * deletion, and index nodes of deleted nodes are unlinked lazily by
+     * searches.  A node counts as absent as soon as its value is null.
+     *
+     * Insertion first links the new node into the base list with a single
+     * compareAndSet, which is the point at which it becomes visible, and
+     * then links index nodes for it on a random number of levels, each
+     * level being used with a quarter of the probability of the one below.
+     * When a level above the current top is chosen the head is replaced
+     * by a taller one; when the top levels become empty the head may be
+     * lowered again.
+     *
+     * This is an adaptation of the algorithm in Doug Lea's
+     * util.concurrent package; see also Fraser's and Sundell and Tsigas's
+     * lock-free skip lists.
+     */
+
+    /** Generates the initial random seed for each map */
+    private static final Random seedGenerator = new Random();
+
+    /** Special value used to identify the base-level header */
+    private static final Object BASE_HEADER = new Object();
+
+    /**
+     * The topmost head index of the skip list.
+     */
+    private transient AtomicReference head;
+
+    /**
+     * The comparator used to maintain order in this map, or
+     * <tt>null</tt> if it uses its elements' natural ordering.
+     *
+     * @serial
+     */
+    private final Comparator comparator;
+
+    /** Seed for the random level generator; races are harmless */
+    private transient int randomSeed;
+
+    /** Lazily initialized views */
+    private transient Set keySet;
+    private transient Set entrySet;
+    private transient Collection values;
+
+    /**
+     * Initializes or resets the state of this map.
+     */
+    private void initialize() {
+        keySet = null;
+        entrySet = null;
+        values = null;
+        randomSeed = seedGenerator.nextInt() | 0x0100; // ensure nonzero
+        head = new AtomicReference(emptyHead());
+    }
+
+    /**
+     * Returns a new head index for an empty list.
+     */
+    private static HeadIndex emptyHead() {
+        return new HeadIndex(new Node(null, BASE_HEADER, null), null, null, 1);
+    }
+
+    /* ---------------- Nodes -------------- */
+
+    /**
+     * A base-level node.  The node itself is the atomic reference to its
+     * value, which is null once the node is deleted and refers to the
+     * node itself if it is a marker; the link to the next node is a second
+     * atomic reference.
+     */
+    static final class Node extends AtomicReference {
+        final Object key;
+        final AtomicReference next;
+
+        Node(Object key, Object value, Node next) {
+            super(value);
+            this.key = key;
+            this.next = new AtomicReference(next);
+        }
+
+        /**
+         * Creates a marker node.  A marker is distinguished by having its
+         * value refer to itself.
+         */
+        Node(Node next) {
+            this.key = null;
+            this.next = new AtomicReference(next);
+            set(this);
+        }
+
+        Node getNext() {
+            return (Node) next.get();
+        }
+
+        boolean casValue(Object cmp, Object val) {
+            return compareAndSet(cmp, val);
+        }
+
+        boolean casNext(Node cmp, Node val) {
+            return next.compareAndSet(cmp, val);
+        }
+
+        boolean isMarker() {
+            return get() == this;
+        }
+
+        boolean isBaseHeader() {
+            return get() == BASE_HEADER;
+        }
+
+        /**
+         * Tries to append a deletion marker to this node, which must
+         * currently be followed by f.
+         */
+        boolean appendMarker(Node f) {
+            return casNext(f, new Node(f));
+        }
+
+        /**
+         * Helps out a deletion by appending a marker or unlinking from
+         * predecessor b.  Called during traversals when this node's value
+         * was seen to be null; f is its successor.
+         */
+        void helpDelete(Node b, Node f) {
+            /*
+             * Rechecking links and then doing only one of the help-out
+             * stages per call tends to minimize CAS interference among
+             * helping threads.
+             */
+            if (f == getNext() && this == b.getNext()) {
+                if (f == null || f.get() != f) // not already marked
+                    appendMarker(f);
+                else
+                    b.casNext(this, f.getNext());
+            }
+        }
+
+        /**
+         * Returns the value if this node contains a valid key-value pair,
+         * else null.
+         */
+        Object getValidValue() {
+            Object v = get();
+            if (v == this || v == BASE_HEADER)
+                return null;
+            return v;
+        }
+    }
+
+    /* ---------------- Indexing -------------- */
+
+    /**
+     * An index node.  The node itself is the atomic reference to its
+     * right neighbour; the node and down fields never change.
+     */
+    static class Index extends AtomicReference {
+        final Node node;
+        final Index down;
+
+        Index(Node node, Index down, Index right) {
+            super(right);
+            this.node = node;
+            this.down = down;
+        }
+
+        Index getRight() {
+            return (Index) get();
+        }
+
+        boolean casRight(Index cmp, Index val) {
+            return compareAndSet(cmp, val);
+        }
+
+        /**
+         * Returns true if the node this indexes has been deleted.
+         */
+        boolean indexesDeletedNode() {
+            return node.get() == null;
+        }
+
+        /**
+         * Tries to link newSucc in after this index, in place of succ.
+         * Fails if this index's node has been deleted, so that no new
+         * index can be linked behind a deleted one.
+         */
+        boolean link(Index succ, Index newSucc) {
+            Node n = node;
+            newSucc.set(succ);
+            return n.get() != null && casRight(succ, newSucc);
+        }
+
+        /**
+         * Tries to unlink succ, the current successor of this index.
+         */
+        boolean unlink(Index succ) {
+            return node.get() != null && casRight(succ, succ.getRight());
+        }
+    }
+
+    /**
+     * Nodes heading each level keep track of their level.
+     */
+    static final class HeadIndex extends Index {
+        final int level;
+
+        HeadIndex(Node node, Index down, Index right, int level) {
+            super(node, down, right);
+            this.level = level;
+        }
+    }
+
+    private HeadIndex head() {
+        return (HeadIndex) head.get();
+    }
+
+    private boolean casHead(HeadIndex cmp, HeadIndex val) {
+        return head.compareAndSet(cmp, val);
+    }
+
+    /* ---------------- Comparison utilities -------------- */
+
+    /**
+     * Compares two keys using the comparator, or natural ordering if
+     * there is none.
+     */
+    int compare(Object k1, Object k2) {
+        return (comparator == null) ? ((Comparable) k1).compareTo(k2)
+                                    : comparator.compare(k1, k2);
+    }
+
+    /**
+     * Returns true if the given key lies within the range [lo, hi), where
+     * a null bound means the range is open at that end.
+     */
+    boolean inRange(Object key, Object lo, Object hi) {
+        if (key == null)
+            throw new NullPointerException();
+        return (lo == null || compare(key, lo) >= 0) &&
+               (hi == null || compare(key, hi) < 0);
+    }
+
+    /* ---------------- Traversal -------------- */
+
+    /**
+     * Returns a base-level node with key strictly less than the given
+     * key, or the base-level header if there is no such node.  Also
+     * unlinks indexes to deleted nodes found along the way.
+     */
+    private Node findPredecessor(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        for (;;) {
+            Index q = head();
+            Index r = q.getRight();
+            for (;;) {
+                if (r != null) {
+                    Node n = r.node;
+                    if (n.get() == null) {
+                        if (!q.unlink(r))
+                            break;             // restart
+                        r = q.getRight();      // reread r
+                        continue;
+                    }
+                    if (compare(key, n.key) > 0) {
+                        q = r;
+                        r = r.getRight();
+                        continue;
+                    }
+                }
+                Index d = q.down;
+                if (d != null) {
+                    q = d;
+                    r = d.getRight();
+                } else {
+                    return q.node;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the node holding key, or null if there is none, cleaning up
+     * any deleted nodes seen along the way.  Each traversal step keeps a
+     * predecessor b and current node n and restarts from the top whenever
+     * one of them turns out to have been changed underneath it.
+     */
+    private Node findNode(Object key) {
+        for (;;) {
+            Node b = findPredecessor(key);
+            Node n = b.getNext();
+            for (;;) {
+                if (n == null)
+                    return null;
+                Node f = n.getNext();
+                if (n != b.getNext())             // inconsistent read
+                    break;
+                Object v = n.get();
+                if (v == null) {                  // n is deleted
+                    n.helpDelete(b, f);
+                    break;
+                }
+                if (v == n || b.get() == null)    // b is deleted
+                    break;
+                int c = compare(key, n.key);
+                if (c == 0)
+                    return n;
+                if (c < 0)
+                    return null;
+                b = n;
+                n = f;
+            }
+        }
+    }
+
+    /**
+     * Gets the value for key.
+     */
+    private Object doGet(Object key) {
+        for (;;) {
+            Node n = findNode(key);
+            if (n == null)
+                return null;
+            Object v = n.get();
+            if (v != null)
+                return v;
+        }
+    }
+
+    /* ---------------- Insertion -------------- */
+
+    /**
+     * Main insertion method.  Adds the element if not present, or
+     * replaces the value if present and onlyIfAbsent is false.
+     *
+     * @return the old value, or null if newly inserted.
+     */
+    private Object doPut(Object key, Object value, boolean onlyIfAbsent) {
+        for (;;) {
+            Node b = findPredecessor(key);
+            Node n = b.getNext();
+            for (;;) {
+                if (n != null) {
+                    Node f = n.getNext();
+                    if (n != b.getNext())
+                        break;
+                    Object v = n.get();
+                    if (v == null) {
+                        n.helpDelete(b, f);
+                        break;
+                    }
+                    if (v == n || b.get() == null)
+                        break;
+                    int c = compare(key, n.key);
+                    if (c > 0) {
+                        b = n;
+                        n = f;
+                        continue;
+                    }
+                    if (c == 0) {
+                        if (onlyIfAbsent || n.casValue(v, value))
+                            return v;
+                        else
+                            break;    // restart if lost race to replace
+                    }
+                    // else c < 0; fall through
+                }
+
+                Node z = new Node(key, value, n);
+                if (!b.casNext(n, z))
+                    break;            // restart if lost race to append
+                int level = randomLevel();
+                if (level > 0)
+                    insertIndex(z, level);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns a random level for inserting a new node.  Hardwired to
+     * k=1, p=0.5, max 31; with the low and high bits tested first, only a
+     * quarter of the nodes are indexed at all.  This uses the simplest of
+     * the generators described in George Marsaglia's "Xorshift RNGs"
+     * paper; the seed is not shared, and races on it are benign.
+     */
+    private int randomLevel() {
+        int x = randomSeed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        randomSeed = x ^= x << 5;
+        if ((x & 0x8001) != 0)       // test highest and lowest bits
+            return 0;
+        int level = 1;
+        while (((x >>>= 1) & 1) != 0)
+            ++level;
+        return level;
+    }
+
+    /**
+     * Creates and adds index nodes for the given node.
+     */
+    private void insertIndex(Node z, int level) {
+        HeadIndex h = head();
+        int max = h.level;
+
+        if (level <= max) {
+            Index idx = null;
+            for (int i = 1; i <= level; ++i)
+                idx = new Index(z, idx, null);
+            addIndex(idx, h, level);
+
+        } else { // Add a new level
+            /*
+             * To reduce interference by other threads checking for empty
+             * levels in tryReduceLevel, new levels are added with
+             * initialized right pointers, which in turn requires keeping
+             * the levels in an array to access them while creating new
+             * head index nodes from the opposite direction.
+             */
+            level = max + 1;
+            Index[] idxs = new Index[level + 1];
+            Index idx = null;
+            for (int i = 1; i <= level; ++i)
+                idxs[i] = idx = new Index(z, idx, null);
+
+            HeadIndex oldh;
+            int k;
+            for (;;) {
+                oldh = head();
+                int oldLevel = oldh.level;
+                if (level <= oldLevel) { // lost race to add level
+                    k = level;
+                    break;
+                }
+                HeadIndex newh = oldh;
+                Node oldbase = oldh.node;
+                for (int j = oldLevel + 1; j <= level; ++j)
+                    newh = new HeadIndex(oldbase, newh, idxs[j], j);
+                if (casHead(oldh, newh)) {
+                    k = oldLevel;
+                    break;
+                }
+            }
+            addIndex(idxs[k], oldh, k);
+        }
+    }
+
+    /**
+     * Adds the given index nodes from the given level down to 1.
+     *
+     * @param idx the topmost index node being inserted
+     * @param h the value of head to use to insert; this must be
+     *        consistent with indexLevel
+     * @param indexLevel the level of the index
+     */
+    private void addIndex(Index idx, HeadIndex h, int indexLevel) {
+        // Track next level to insert in case of retries
+        int insertionLevel = indexLevel;
+        Object key = idx.node.key;
+
+        // Similar to findPredecessor, but adding index nodes along
+        // the path to the key.
+        for (;;) {
+            int j = h.level;
+            Index q = h;
+            Index r = q.getRight();
+            Index t = idx;
+            for (;;) {
+                if (r != null) {
+                    Node n = r.node;
+                    // compare before deletion check avoids needing recheck
+                    int c = compare(key, n.key);
+                    if (n.get() == null) {
+                        if (!q.unlink(r))
+                            break;
+                        r = q.getRight();
+                        continue;
+                    }
+                    if (c > 0) {
+                        q = r;
+                        r = r.getRight();
+                        continue;
+                    }
+                }
+
+                if (j == insertionLevel) {
+                    // Don't insert index if node already deleted
+                    if (t.indexesDeletedNode()) {
+                        findNode(key); // cleans up
+                        return;
+                    }
+                    if (!q.link(r, t))
+                        break; // restart
+                    if (--insertionLevel == 0) {
+                        // need final deletion check before return
+                        if (t.indexesDeletedNode())
+                            findNode(key);
+                        return;
+                    }
+                }
+
+                if (--j >= insertionLevel && j < indexLevel)
+                    t = t.down;
+                q = q.down;
+                r = q.getRight();
+            }
+        }
+    }
+
+    /* ---------------- Deletion -------------- */
+
+    /**
+     * Main deletion method.  Locates the node, nulls out its value,
+     * appends a deletion marker, unlinks the predecessor, removes the
+     * associated index nodes, and possibly reduces the head index level.
+     * The index nodes are removed simply by calling findPredecessor,
+     * which unlinks indexes to deleted nodes found along the path to key.
+     *
+     * @param key the key
+     * @param value if non-null, the value that must be associated with key
+     * @return the node, or null if not found
+     */
+    private Object doRemove(Object key, Object value) {
+        for (;;) {
+            Node b = findPredecessor(key);
+            Node n = b.getNext();
+            for (;;) {
+                if (n == null)
+                    return null;
+                Node f = n.getNext();
+                if (n != b.getNext())
+                    break;
+                Object v = n.get();
+                if (v == null) {
+                    n.helpDelete(b, f);
+                    break;
+                }
+                if (v == n || b.get() == null)
+                    break;
+                int c = compare(key, n.key);
+                if (c < 0)
+                    return null;
+                if (c > 0) {
+                    b = n;
+                    n = f;
+                    continue;
+                }
+                if (value != null && !value.equals(v))
+                    return null;
+                if (!n.casValue(v, null))
+                    break;
+                if (!n.appendMarker(f) || !b.casNext(n, f)) {
+                    findNode(key);                  // retry via findNode
+                } else {
+                    findPredecessor(key);           // clean index
+                    if (head().getRight() == null)
+                        tryReduceLevel();
+                }
+                return v;
+            }
+        }
+    }
+
+    /**
+     * Possibly reduces the head level if it has no nodes.  This method can
+     * (rarely) make mistakes, in which case levels can disappear even
+     * though they are about to contain index nodes.  This impacts
+     * performance, not correctness.  To minimize mistakes as well as to
+     * reduce hysteresis, the level is reduced by one only if the topmost
+     * three levels look empty, and the head is restored if the level
+     * seems to have gained a node right after the change.
+     */
+    private void tryReduceLevel() {
+        HeadIndex h = head();
+        HeadIndex d;
+        HeadIndex e;
+        if (h.level > 3 &&
+            (d = (HeadIndex) h.down) != null &&
+            (e = (HeadIndex) d.down) != null &&
+            e.getRight() == null &&
+            d.getRight() == null &&
+            h.getRight() == null &&
+            casHead(h, d) &&           // try to set
+            h.getRight() != null)      // recheck
+            casHead(d, h);             // try to backout
+    }
+
+    /* ---------------- Finding extremes -------------- */
+
+    /**
+     * Returns the first valid node, or null if the map is empty.
+     */
+    Node findFirst() {
+        for (;;) {
+            Node b = head().node;
+            Node n = b.getNext();
+            if (n == null)
+                return null;
+            if (n.get() != null)
+                return n;
+            n.helpDelete(b, n.getNext());
+        }
+    }
+
+    /**
+     * Returns the last valid node, or null if the map is empty.  The
+     * index levels are used to get close to the end, then the base list
+     * is traversed; any inconsistency restarts the whole search.
+     */
+    Node findLast() {
+        Index q = head();
+        for (;;) {
+            Index d;
+            Index r;
+            if ((r = q.getRight()) != null) {
+                if (r.indexesDeletedNode()) {
+                    q.unlink(r);
+                    q = head(); // restart
+                } else {
+                    q = r;
+                }
+            } else if ((d = q.down) != null) {
+                q = d;
+            } else {
+                Node b = q.node;
+                Node n = b.getNext();
+                for (;;) {
+                    if (n == null)
+                        return b.isBaseHeader() ? null : b;
+                    Node f = n.getNext();
+                    if (n != b.getNext())
+                        break;
+                    Object v = n.get();
+                    if (v == null) {
+                        n.helpDelete(b, f);
+                        break;
+                    }
+                    if (v == n || b.get() == null)
+                        break;
+                    b = n;
+                    n = f;
+                }
+                q = head(); // restart
+            }
+        }
+    }
+
+    /* Relational operator codes for findNear */
+    private static final int EQ = 1;
+    private static final int LT = 2;
+    private static final int GT = 0; // Actually checked as !LT
+
+    /**
+     * Utility for ceiling-, floor-, lower- and higher-style lookups.
+     *
+     * @param key the key
+     * @param rel the relation: LT, LT|EQ, GT or GT|EQ
+     * @return the nearest node fitting the relation, or null if there is
+     *         none
+     */
+    Node findNear(Object key, int rel) {
+        for (;;) {
+            Node b = findPredecessor(key);
+            Node n = b.getNext();
+            for (;;) {
+                if (n == null)
+                    return ((rel & LT) == 0 || b.isBaseHeader()) ? null : b;
+                Node f = n.getNext();
+                if (n != b.getNext())
+                    break;
+                Object v = n.get();
+                if (v == null) {
+                    n.helpDelete(b, f);
+                    break;
+                }
+                if (v == n || b.get() == null)
+                    break;
+                int c = compare(key, n.key);
+                if ((c == 0 && (rel & EQ) != 0) ||
+                    (c <  0 && (rel & LT) == 0))
+                    return n;
+                if (c <= 0 && (rel & LT) != 0)
+                    return b.isBaseHeader() ? null : b;
+                b = n;
+                n = f;
+            }
+        }
+    }
+
+    /**
+     * Returns the first valid node whose key lies in [lo, hi), or null.
+     */
+    Node lowestNode(Object lo, Object hi) {
+        for (;;) {
+            Node n = (lo == null) ? findFirst() : findNear(lo, GT | EQ);
+            if (n == null || (hi != null && compare(n.key, hi) >= 0))
+                return null;
+            if (n.getValidValue() != null)
+                return n;
+        }
+    }
+
+    /**
+     * Returns the last valid node whose key lies in [lo, hi), or null.
+     */
+    Node highestNode(Object lo, Object hi) {
+        for (;;) {
+            Node n = (hi == null) ? findLast() : findNear(hi, LT);
+            if (n == null || (lo != null && compare(n.key, lo) < 0))
+                return null;
+            if (n.getValidValue() != null)
+                return n;
+        }
+    }
+
+    /* ---------------- Constructors -------------- */
+
+    /**
+     * Constructs a new, empty map, sorted according to the keys' natural
+     * order.  All keys inserted into the map must implement the
+     * <tt>Comparable</tt> interface, and must be mutually comparable.
+     */
+    public ConcurrentSkipListMap() {
+        this.comparator = null;
+        initialize();
+    }
+
+    /**
+     * Constructs a new, empty map, sorted according to the given
+     * comparator.
+     *
+     * @param c the comparator that will be used to sort this map.  A
+     *        <tt>null</tt> value indicates that the keys' <i>natural
+     *        ordering</i> should be used.
+     */
+    public ConcurrentSkipListMap(Comparator c) {
+        this.comparator = c;
+        initialize();
+    }
+
+    /**
+     * Constructs a new map containing the same mappings as the given map,
+     * sorted according to the keys' <i>natural order</i>.
+     *
+     * @param m the map whose mappings are to be placed in this map.
+     * @throws ClassCastException if the keys in m are not Comparable, or
+     *         are not mutually comparable.
+     * @throws NullPointerException if the specified map, or any of its
+     *         keys or values, is <tt>null</tt>.
+     */
+    public ConcurrentSkipListMap(Map m) {
+        this.comparator = null;
+        initialize();
+        putAll(m);
+    }
+
+    /**
+     * Constructs a new map containing the same mappings as the given
+     * <tt>SortedMap</tt>, sorted according to the same ordering.
+     *
+     * @param m the sorted map whose mappings are to be placed in this map,
+     *        and whose comparator is to be used to sort this map.
+     * @throws NullPointerException if the specified sorted map, or any of
+     *         its keys or values, is <tt>null</tt>.
+     */
+    public ConcurrentSkipListMap(SortedMap m) {
+        this.comparator = m.comparator();
+        initialize();
+        putAll(m);
+    }
+
+    /**
+     * Returns a shallow copy of this <tt>ConcurrentSkipListMap</tt>
+     * instance.  (The keys and values themselves are not cloned.)
+     *
+     * @return a shallow copy of this map.
+     */
+    public Object clone() {
+        ConcurrentSkipListMap clone = null;
+        try {
+            clone = (ConcurrentSkipListMap) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError();
+        }
+        clone.initialize();
+        for (Node n = findFirst(); n != null; n = n.getNext()) {
+            Object v = n.getValidValue();
+            if (v != null)
+                clone.doPut(n.key, v, false);
+        }
+        return clone;
+    }
+
+    /* ---------------- Map API methods -------------- */
+
+    /**
+     * Returns <tt>true</tt> if this map contains a mapping for the
+     * specified key.
+     *
+     * @param key key whose presence in this map is to be tested.
+     * @return <tt>true</tt> if this map contains a mapping for the
+     *         specified key.
+     * @throws ClassCastException if the key cannot be compared with the
+     *         keys currently in the map.
+     * @throws NullPointerException if the key is <tt>null</tt>.
+     */
+    public boolean containsKey(Object key) {
+        return doGet(key) != null;
+    }
+
+    /**
+     * Returns the value to which this map maps the specified key, or
+     * <tt>null</tt> if the map contains no mapping for the key.
+     *
+     * @param key key whose associated value is to be returned.
+     * @return the value to which this map maps the specified key, or
+     *         <tt>null</tt> if the map contains no mapping for the key.
+     * @throws ClassCastException if the key cannot be compared with the
+     *         keys currently in the map.
+     * @throws NullPointerException if the key is <tt>null</tt>.
+     */
+    public Object get(Object key) {
+        return doGet(key);
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for this key, the old
+     * value is replaced.
+     *
+     * @param key key with which the specified value is to be associated.
+     * @param value value to be associated with the specified key.
+     * @return the previous value associated with the specified key, or
+     *         <tt>null</tt> if there was no mapping for the key.
+     * @throws ClassCastException if the key cannot be compared with the
+     *         keys currently in the map.
+     * @throws NullPointerException if the key or value is <tt>null</tt>.
+     */
+    public Object put(Object key, Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        return doPut(key, value, false);
+    }
+
+    /**
+     * Removes the mapping for this key from this map if present.
+     *
+     * @param key key for which the mapping should be removed.
+     * @return the previous value associated with the specified key, or
+     *         <tt>null</tt> if there was no mapping for the key.
+     * @throws ClassCastException if the key cannot be compared with the
+     *         keys currently in the map.
+     * @throws NullPointerException if the key is <tt>null</tt>.
+     */
+    public Object remove(Object key) {
+        return doRemove(key, null);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map maps one or more keys to the
+     * specified value.  This operation requires time linear in the map
+     * size.
+     *
+     * @param value value whose presence in this map is to be tested.
+     * @return <tt>true</tt> if a mapping to <tt>value</tt> exists.
+     * @throws NullPointerException if the value is <tt>null</tt>.
+     */
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        for (Node n = findFirst(); n != null; n = n.getNext()) {
+            Object v = n.getValidValue();
+            if (v != null && value.equals(v))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.  If this map
+     * contains more than <tt>Integer.MAX_VALUE</tt> elements, it returns
+     * <tt>Integer.MAX_VALUE</tt>.<p>
+     *
+     * Beware that, unlike in most collections, this method is
+     * <em>NOT</em> a constant-time operation.  Because of the asynchronous
+     * nature of these maps, determining the current number of elements
+     * requires traversing them all to count them.  Additionally, it is
+     * possible for the size to change during execution of this method, in
+     * which case the returned result will be inaccurate.
+     *
+     * @return the number of elements in this map.
+     */
+    public int size() {
+        return countNodes(null, null);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains no key-value mappings.
+     *
+     * @return <tt>true</tt> if this map contains no key-value mappings.
+     */
+    public boolean isEmpty() {
+        return findFirst() == null;
+    }
+
+    /**
+     * Removes all mappings from this map.
+     */
+    public void clear() {
+        head.set(emptyHead());
+    }
+
+    /**
+     * Counts the valid nodes whose keys lie in [lo, hi).
+     */
+    int countNodes(Object lo, Object hi) {
+        long count = 0;
+        for (Node n = lowestNode(lo, hi); n != null; n = n.getNext()) {
+            if (n.getValidValue() == null)
+                continue;
+            if (hi != null && compare(n.key, hi) >= 0)
+                break;
+            ++count;
+        }
+        return (count >= Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) count;
+    }
+
+    /* ---------------- Atomic updates -------------- */
+
+    /**
+     * If the specified key is not already associated with a value,
+     * associates it with the given value.  This is equivalent to
+     * <pre>
+     *   if (!map.containsKey(key))
+     *       return map.put(key, value);
+     *   else
+     *       return map.get(key);
+     * </pre>
+     * except that the action is performed atomically.
+     *
+     * @param key key with which the specified value is to be associated.
+     * @param value value to be associated with the specified key.
+     * @return previous value associated with specified key, or
+     *         <tt>null</tt> if there was no mapping for key.
+     * @throws ClassCastException if the key cannot be compared with the
+     *         keys currently in the map.
+     * @throws NullPointerException if the specified key or value is
+     *         <tt>null</tt>.
+     */
+    public Object putIfAbsent(Object key, Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        return doPut(key, value, true);
+    }
+
+    /**
+     * Removes the entry for a key only if currently mapped to a given
+     * value.  The action is performed atomically.
+     *
+     * @param key key with which the specified value is associated.
+     * @param value value associated with the specified key.
+     * @return <tt>true</tt> if the value was removed.
+     * @throws ClassCastException if the key cannot be compared with the
+     *         keys currently in the map.
+     * @throws NullPointerException if the specified key is <tt>null</tt>.
+     */
+    public boolean remove(Object key, Object value) {
+        if (key == null)
+            throw new NullPointerException();
+        if (value == null)
+            return false;
+        return doRemove(key, value) != null;
+    }
+
+    /**
+     * Replaces the entry for a key only if currently mapped to a given
+     * value.  The action is performed atomically.
+     *
+     * @param key key with which the specified value is associated.
+     * @param oldValue value expected to be associated with the specified
+     *        key.
+     * @param newValue value to be associated with the specified key.
+     * @return <tt>true</tt> if the value was replaced.
+     * @throws ClassCastException if the key cannot be compared with the
+     *         keys currently in the map.
+     * @throws NullPointerException if any of the arguments are
+     *         <tt>null</tt>.
+     */
+    public boolean replace(Object key, Object oldValue, Object newValue) {
+        if (oldValue == null || newValue == null)
+            throw new NullPointerException();
+        for (;;) {
+            Node n = findNode(key);
+            if (n == null)
+                return false;
+            Object v = n.get();
+            if (v != null) {
+                if (!oldValue.equals(v))
+                    return false;
+                if (n.casValue(v, newValue))
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Replaces the entry for a key only if currently mapped to some value.
+     * The action is performed atomically.
+     *
+     * @param key key with which the specified value is associated.
+     * @param value value to be associated with the specified key.
+     * @return previous value associated with specified key, or
+     *         <tt>null</tt> if there was no mapping for key.
+     * @throws ClassCastException if the key cannot be compared with the
+     *         keys currently in the map.
+     * @throws NullPointerException if the specified key or value is
+     *         <tt>null</tt>.
+     */
+    public Object replace(Object key, Object value) {
+        if (value == null)
+            throw new NullPointerException();
+        for (;;) {
+            Node n = findNode(key);
+            if (n == null)
+                return null;
+            Object v = n.get();
+            if (v != null && n.casValue(v, value))
+                return v;
+        }
+    }
+
+    /* ---------------- SortedMap API methods -------------- */
+
+    /**
+     * Returns the comparator used to order this map, or <tt>null</tt> if
+     * this map uses its keys' natural order.
+     *
+     * @return the comparator associated with this map, or <tt>null</tt> if
+     *         it uses its keys' natural sort method.
+     */
+    public Comparator comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns the first (lowest) key currently in this map.
+     *
+     * @return the first (lowest) key currently in this map.
+     * @throws NoSuchElementException if the map is empty.
+     */
+    public Object firstKey() {
+        Node n = findFirst();
+        if (n == null)
+            throw new NoSuchElementException();
+        return n.key;
+    }
+
+    /**
+     * Returns the last (highest) key currently in this map.
+     *
+     * @return the last (highest) key currently in this map.
+     * @throws NoSuchElementException if the map is empty.
+     */
+    public Object lastKey() {
+        Node n = findLast();
+        if (n == null)
+            throw new NoSuchElementException();
+        return n.key;
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys range from
+     * <tt>fromKey</tt>, inclusive, to <tt>toKey</tt>, exclusive.  The
+     * returned map is backed by this map, so changes in the returned map
+     * are reflected in this map, and vice-versa.  The returned map
+     * supports all optional map operations, and its iterators are weakly
+     * consistent, so a range can be scanned while other threads update
+     * it.  An attempt to insert a key outside its range throws an
+     * <tt>IllegalArgumentException</tt>.
+     *
+     * @param fromKey low endpoint (inclusive) of the subMap.
+     * @param toKey high endpoint (exclusive) of the subMap.
+     * @return a view of the portion of this map whose keys range from
+     *         <tt>fromKey</tt>, inclusive, to <tt>toKey</tt>, exclusive.
+     * @throws ClassCastException if <tt>fromKey</tt> and <tt>toKey</tt>
+     *         cannot be compared to one another using this map's
+     *         comparator (or, if the map has no comparator, using natural
+     *         ordering).
+     * @throws IllegalArgumentException if <tt>fromKey</tt> is greater
+     *         than <tt>toKey</tt>.
+     * @throws NullPointerException if <tt>fromKey</tt> or <tt>toKey</tt>
+     *         is <tt>null</tt>.
+     */
+    public SortedMap subMap(Object fromKey, Object toKey) {
+        if (fromKey == null || toKey == null)
+            throw new NullPointerException();
+        return new SubMap(fromKey, toKey);
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys are strictly
+     * less than <tt>toKey</tt>.  The returned map is backed by this map,
+     * so changes in the returned map are reflected in this map, and
+     * vice-versa.
+     *
+     * @param toKey high endpoint (exclusive) of the headMap.
+     * @return a view of the portion of this map whose keys are strictly
+     *         less than <tt>toKey</tt>.
+     * @throws ClassCastException if <tt>toKey</tt> is not compatible with
+     *         this map's comparator (or, if the map has no comparator, if
+     *         <tt>toKey</tt> does not implement <tt>Comparable</tt>).
+     * @throws NullPointerException if <tt>toKey</tt> is <tt>null</tt>.
+     */
+    public SortedMap headMap(Object toKey) {
+        if (toKey == null)
+            throw new NullPointerException();
+        return new SubMap(null, toKey);
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys are greater
+     * than or equal to <tt>fromKey</tt>.  The returned map is backed by
+     * this map, so changes in the returned map are reflected in this map,
+     * and vice-versa.
+     *
+     * @param fromKey low endpoint (inclusive) of the tailMap.
+     * @return a view of the portion of this map whose keys are greater
+     *         than or equal to <tt>fromKey</tt>.
+     * @throws ClassCastException if <tt>fromKey</tt> is not compatible
+     *         with this map's comparator (or, if the map has no comparator,
+     *         if <tt>fromKey</tt> does not implement <tt>Comparable</tt>).
+     * @throws NullPointerException if <tt>fromKey</tt> is <tt>null</tt>.
+     */
+    public SortedMap tailMap(Object fromKey) {
+        if (fromKey == null)
+            throw new NullPointerException();
+        return new SubMap(fromKey, null);
+    }
+
+    /* ---------------- Views -------------- */
+
+    /**
+     * Returns a set view of the keys contained in this map, in ascending
+     * order.  The set is backed by the map, so changes to the map are
+     * reflected in the set, and vice-versa.  The set supports element
+     * removal, which removes the corresponding mapping from this map, via
+     * the <tt>Iterator.remove</tt>, <tt>Set.remove</tt>,
+     * <tt>removeAll</tt>, <tt>retainAll</tt>, and <tt>clear</tt>
+     * operations.  It does not support the <tt>add</tt> or <tt>addAll</tt>
+     * operations.  The view's <tt>iterator</tt> is a "weakly consistent"
+     * iterator that will never throw
+     * {@link ConcurrentModificationException}.
+     *
+     * @return a set view of the keys contained in this map.
+     */
+    public Set keySet() {
+        Set ks = keySet;
+        return (ks != null) ? ks : (keySet = new KeySet(null, null));
+    }
+
+    /**
+     * Returns a collection view of the values contained in this map, in
+     * ascending order of the corresponding keys.  The collection is backed
+     * by the map, so changes to the map are reflected in the collection,
+     * and vice-versa.  The collection supports element removal, which
+     * removes the corresponding mapping from this map, via the
+     * <tt>Iterator.remove</tt>, <tt>Collection.remove</tt>,
+     * <tt>removeAll</tt>, <tt>retainAll</tt>, and <tt>clear</tt>
+     * operations.  It does not support the <tt>add</tt> or <tt>addAll</tt>
+     * operations.  The view's <tt>iterator</tt> is a "weakly consistent"
+     * iterator that will never throw
+     * {@link ConcurrentModificationException}.
+     *
+     * @return a collection view of the values contained in this map.
+     */
+    public Collection values() {
+        Collection vs = values;
+        return (vs != null) ? vs : (values = new Values(null, null));
+    }
+
+    /**
+     * Returns a collection view of the mappings contained in this map, in
+     * ascending key order.  Each element in the returned collection is a
+     * <tt>Map.Entry</tt>.  The collection is backed by the map, so changes
+     * to the map are reflected in the collection, and vice-versa.  The
+     * collection supports element removal, which removes the corresponding
+     * mapping from the map, via the <tt>Iterator.remove</tt>,
+     * <tt>Collection.remove</tt>, <tt>removeAll</tt>, <tt>retainAll</tt>,
+     * and <tt>clear</tt> operations.  It does not support the <tt>add</tt>
+     * or <tt>addAll</tt> operations.  The view's <tt>iterator</tt> is a
+     * "weakly consistent" iterator that will never throw
+     * {@link ConcurrentModificationException}.
+     *
+     * @return a collection view of the mappings contained in this map.
+     */
+    public Set entrySet() {
+        Set es = entrySet;
+        return (es != null) ? es : (entrySet = new EntrySet(null, null));
+    }
+
+    /* ---------------- Serialization -------------- */
+
+    /**
+     * Save the state of the <tt>ConcurrentSkipListMap</tt> instance to a
+     * stream (i.e., serialize it).
+     *
+     * @serialData the key (Object) and value (Object) for each key-value
+     *             mapping represented by the map, in ascending key order,
+     *             followed by <tt>null</tt>.
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws java.io.IOException {
+        s.defaultWriteObject();
+
+        for (Node n = findFirst(); n != null; n = n.getNext()) {
+            Object v = n.getValidValue();
+            if (v != null) {
+                s.writeObject(n.key);
+                s.writeObject(v);
+            }
+        }
+        s.writeObject(null);
+    }
+
+    /**
+     * Reconstitute the <tt>ConcurrentSkipListMap</tt> instance from a
+     * stream (i.e., deserialize it).
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        initialize();
+
+        for (;;) {
+            Object key = s.readObject();
+            if (key == null)
+                break;
+            Object value = s.readObject();
+            if (value == null)
+                throw new NullPointerException();
+            doPut(key, value, false);
+        }
+    }
+
+    /* ---------------- Iterators -------------- */
+
+    /**
+     * Base class for the weakly consistent iterators over the views of a
+     * range [lo, hi) of the map.  The next node and its value are read
+     * ahead, so hasNext never blocks and next always returns a mapping
+     * that was present at some point since the previous call.
+     */
+    abstract class Iter implements Iterator {
+        /** the last node returned by next() */
+        Node lastReturned;
+        /** the next node to return from next() */
+        Node next;
+        /** cached value field of next */
+        Object nextValue;
+        /** the value of lastReturned when it was reached */
+        Object lastValue;
+        /** exclusive upper bound, or null */
+        final Object hi;
+
+        Iter(Object lo, Object hi) {
+            this.hi = hi;
+            next = lowestNode(lo, hi);
+            if (next != null)
+                nextValue = next.getValidValue();
+            if (next != null && nextValue == null)
+                advance();
+        }
+
+        public final boolean hasNext() {
+            return next != null;
+        }
+
+        /**
+         * Moves next to the following valid node in range.
+         */
+        final void advance() {
+            for (;;) {
+                next = next.getNext();
+                if (next == null)
+                    return;
+                Object x = next.getValidValue();
+                if (x != null) {
+                    if (hi != null && compare(next.key, hi) >= 0)
+                        next = null;
+                    else
+                        nextValue = x;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns the next node, leaving its value in lastValue.
+         */
+        final Node nextNode() {
+            Node n = next;
+            if (n == null)
+                throw new NoSuchElementException();
+            lastReturned = n;
+            lastValue = nextValue;
+            advance();
+            return n;
+        }
+
+        public void remove() {
+            Node l = lastReturned;
+            if (l == null)
+                throw new IllegalStateException();
+            // It would not be worth all of the overhead to directly
+            // unlink from here. Using remove is fast enough.
+            ConcurrentSkipListMap.this.remove(l.key);
+            lastReturned = null;
+        }
+    }
+
+    final class KeyIterator extends Iter {
+        KeyIterator(Object lo, Object hi) {
+            super(lo, hi);
+        }
+        public Object next() {
+            return nextNode().key;
+        }
+    }
+
+    final class ValueIterator extends Iter {
+        ValueIterator(Object lo, Object hi) {
+            super(lo, hi);
+        }
+        public Object next() {
+            nextNode();
+            return lastValue;
+        }
+    }
+
+    final class EntryIterator extends Iter {
+        EntryIterator(Object lo, Object hi) {
+            super(lo, hi);
+        }
+        public Object next() {
+            Node n = nextNode();
+            return new WriteThroughEntry(n.key, lastValue);
+        }
+    }
+
+    /**
+     * Entry returned by EntryIterator.next(), a snapshot of a mapping
+     * that relays setValue changes to the underlying map.
+     */
+    final class WriteThroughEntry implements Map.Entry {
+        private final Object key;
+        private Object value;
+
+        WriteThroughEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Set our entry's value and write through to the map.  As with
+         * ConcurrentHashMap, the value returned is the one this entry last
+         * saw, which need not be the one the map held.
+         */
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+            Object v = this.value;
+            this.value = value;
+            ConcurrentSkipListMap.this.put(key, value);
+            return v;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry e = (Map.Entry)o;
+            return key.equals(e.getKey()) && value.equals(e.getValue());
+        }
+
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /* ---------------- View classes -------------- */
+
+    /*
+     * The views of the whole map and of submaps are the same classes,
+     * restricted to the range [lo, hi); a null bound leaves that end
+     * open.
+     */
+
+    final class KeySet extends AbstractSet {
+        private final Object lo;
+        private final Object hi;
+
+        KeySet(Object lo, Object hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+        public Iterator iterator() {
+            return new KeyIterator(lo, hi);
+        }
+        public int size() {
+            return countNodes(lo, hi);
+        }
+        public boolean isEmpty() {
+            return lowestNode(lo, hi) == null;
+        }
+        public boolean contains(Object o) {
+            return inRange(o, lo, hi) && containsKey(o);
+        }
+        public boolean remove(Object o) {
+            return inRange(o, lo, hi) && doRemove(o, null) != null;
+        }
+        public void clear() {
+            clearRange(lo, hi);
+        }
+    }
+
+    final class Values extends AbstractCollection {
+        private final Object lo;
+        private final Object hi;
+
+        Values(Object lo, Object hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+        public Iterator iterator() {
+            return new ValueIterator(lo, hi);
+        }
+        public int size() {
+            return countNodes(lo, hi);
+        }
+        public boolean isEmpty() {
+            return lowestNode(lo, hi) == null;
+        }
+        public void clear() {
+            clearRange(lo, hi);
+        }
+    }
+
+    final class EntrySet extends AbstractSet {
+        private final Object lo;
+        private final Object hi;
+
+        EntrySet(Object lo, Object hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+        public Iterator iterator() {
+            return new EntryIterator(lo, hi);
+        }
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry e = (Map.Entry)o;
+            Object k = e.getKey();
+            if (!inRange(k, lo, hi))
+                return false;
+            Object v = doGet(k);
+            return v != null && v.equals(e.getValue());
+        }
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry e = (Map.Entry)o;
+            Object k = e.getKey();
+            return inRange(k, lo, hi) &&
+                ConcurrentSkipListMap.this.remove(k, e.getValue());
+        }
+        public int size() {
+            return countNodes(lo, hi);
+        }
+        public boolean isEmpty() {
+            return lowestNode(lo, hi) == null;
+        }
+        public void clear() {
+            clearRange(lo, hi);
+        }
+    }
+
+    /**
+     * Removes every mapping whose key lies in [lo, hi).
+     */
+    void clearRange(Object lo, Object hi) {
+        if (lo == null && hi == null) {
+            clear();
+            return;
+        }
+        for (Node n = lowestNode(lo, hi); n != null; n = n.getNext()) {
+            Object v = n.getValidValue();
+            if (v == null)
+                continue;
+            if (hi != null && compare(n.key, hi) >= 0)
+                break;
+            doRemove(n.key, null);
+        }
+    }
+
+    /**
+     * A view of the range [fromKey, toKey) of the map.  A null bound
+     * leaves that end of the range open.  All operations are carried out
+     * directly on the underlying skip list, with range checks.
+     */
+    final class SubMap extends AbstractMap
+                       implements SortedMap, java.io.Serializable {
+        private static final long serialVersionUID = -7647078645895051609L;
+
+        /**
+         * The low endpoint (inclusive), or null if unbounded.
+         *
+         * @serial
+         */
+        private final Object fromKey;
+
+        /**
+         * The high endpoint (exclusive), or null if unbounded.
+         *
+         * @serial
+         */
+        private final Object toKey;
+
+        /** Lazily initialized views */
+        private transient Set keySetView;
+        private transient Set entrySetView;
+        private transient Collection valuesView;
+
+        SubMap(Object fromKey, Object toKey) {
+            if (fromKey != null && toKey != null &&
+                compare(fromKey, toKey) > 0)
+                throw new IllegalArgumentException("fromKey > toKey");
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        private boolean inRange(Object key) {
+            return ConcurrentSkipListMap.this.inRange(key, fromKey, toKey);
+        }
+
+        private void checkKey(Object key) {
+            if (!inRange(key))
+                throw new IllegalArgumentException("key out of range");
+        }
+
+        public boolean containsKey(Object key) {
+            return inRange(key) && ConcurrentSkipListMap.this.containsKey(key);
+        }
+
+        public Object get(Object key) {
+            return inRange(key) ? doGet(key) : null;
+        }
+
+        public Object put(Object key, Object value) {
+            checkKey(key);
+            return ConcurrentSkipListMap.this.put(key, value);
+        }
+
+        public Object remove(Object key) {
+            return inRange(key) ? doRemove(key, null) : null;
+        }
+
+        public int size() {
+            return countNodes(fromKey, toKey);
+        }
+
+        public boolean isEmpty() {
+            return lowestNode(fromKey, toKey) == null;
+        }
+
+        public boolean containsValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+            for (Iterator it = values().iterator(); it.hasNext(); ) {
+                if (value.equals(it.next()))
+                    return true;
+            }
+            return false;
+        }
+
+        public void clear() {
+            clearRange(fromKey, toKey);
+        }
+
+        public Comparator comparator() {
+            return comparator;
+        }
+
+        public Object firstKey() {
+            Node n = lowestNode(fromKey, toKey);
+            if (n == null)
+                throw new NoSuchElementException();
+            return n.key;
+        }
+
+        public Object lastKey() {
+            Node n = highestNode(fromKey, toKey);
+            if (n == null)
+                throw new NoSuchElementException();
+            return n.key;
+        }
+
+        public SortedMap subMap(Object fromKey, Object toKey) {
+            if (fromKey == null || toKey == null)
+                throw new NullPointerException();
+            checkKey(fromKey);
+            if (this.toKey != null && compare(toKey, this.toKey) > 0)
+                throw new IllegalArgumentException("toKey out of range");
+            return new SubMap(fromKey, toKey);
+        }
+
+        public SortedMap headMap(Object toKey) {
+            if (toKey == null)
+                throw new NullPointerException();
+            if (this.fromKey != null && compare(toKey, this.fromKey) < 0)
+                throw new IllegalArgumentException("toKey out of range");
+            if (this.toKey != null && compare(toKey, this.toKey) > 0)
+                throw new IllegalArgumentException("toKey out of range");
+            return new SubMap(this.fromKey, toKey);
+        }
+
+        public SortedMap tailMap(Object fromKey) {
+            checkKey(fromKey);
+            return new SubMap(fromKey, this.toKey);
+        }
+
+        public Set keySet() {
+            Set ks = keySetView;
+            return (ks != null) ? ks
+                                : (keySetView = new KeySet(fromKey, toKey));
+        }
+
+        public Collection values() {
+            Collection vs = valuesView;
+            return (vs != null) ? vs
+                                : (valuesView = new Values(fromKey, toKey));
+        }
+
+        public Set entrySet() {
+            Set es = entrySetView;
+            return (es != null) ? es
+                                : (entrySetView = new EntrySet(fromKey, toKey));
+        }
+    }
+}
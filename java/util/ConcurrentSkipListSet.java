@@ -0,0 +1,307 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A scalable concurrent {@link SortedSet} implementation based on a
+ * {@link ConcurrentSkipListMap}.  The elements of the set are kept sorted
+ * according to their <i>natural order</i> (see <tt>Comparable</tt>), or
+ * by the comparator provided at creation time, depending on which
+ * constructor is used.<p>
+ *
+ * This implementation provides expected average log(n) time cost for the
+ * <tt>contains</tt>, <tt>add</tt> and <tt>remove</tt> operations and
+ * their variants.  Insertion, removal and access operations safely execute
+ * concurrently by multiple threads, and none of them takes a lock.
+ * Iterators, including those of the views returned by <tt>subSet</tt>,
+ * <tt>headSet</tt> and <tt>tailSet</tt>, are <i>weakly consistent</i>,
+ * returning elements reflecting the state of the set at some point at or
+ * since the creation of the iterator.  They do <em>not</em> throw
+ * {@link ConcurrentModificationException}, and may proceed concurrently
+ * with other operations.<p>
+ *
+ * Beware that, unlike in most collections, the <tt>size</tt> method is
+ * <em>NOT</em> a constant-time operation.  Because of the asynchronous
+ * nature of these sets, determining the current number of elements
+ * requires a traversal of the elements.  Additionally, the bulk operations
+ * <tt>addAll</tt>, <tt>removeAll</tt>, <tt>retainAll</tt> and
+ * <tt>containsAll</tt> are <em>not</em> guaranteed to be performed
+ * atomically.  This class does not permit the use of <tt>null</tt>
+ * elements.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ConcurrentSkipListMap
+ * @see     TreeSet
+ * @since   1.4
+ */
+public class ConcurrentSkipListSet extends AbstractSet
+                                   implements SortedSet, Cloneable,
+                                              java.io.Serializable {
+    private static final long serialVersionUID = -2479143111061671589L;
+
+    /**
+     * The underlying map, a <tt>ConcurrentSkipListMap</tt> or a range view
+     * of one.  Each element is a key, mapped to <tt>Boolean.TRUE</tt>.
+     *
+     * @serial
+     */
+    private SortedMap m;
+
+    /**
+     * Constructs a set backed by the given sorted map.
+     */
+    private ConcurrentSkipListSet(SortedMap m) {
+        this.m = m;
+    }
+
+    /**
+     * Constructs a new, empty set, sorted according to the elements'
+     * natural order.  All elements inserted into the set must implement
+     * the <tt>Comparable</tt> interface, and must be mutually comparable.
+     */
+    public ConcurrentSkipListSet() {
+        this(new ConcurrentSkipListMap());
+    }
+
+    /**
+     * Constructs a new, empty set, sorted according to the given
+     * comparator.
+     *
+     * @param c the comparator that will be used to sort this set.  A
+     *        <tt>null</tt> value indicates that the elements' <i>natural
+     *        ordering</i> should be used.
+     */
+    public ConcurrentSkipListSet(Comparator c) {
+        this(new ConcurrentSkipListMap(c));
+    }
+
+    /**
+     * Constructs a new set containing the elements in the specified
+     * collection, sorted according to the elements' <i>natural order</i>.
+     *
+     * @param c the elements that will comprise the new set.
+     * @throws ClassCastException if the elements in the given collection
+     *         are not comparable, or are not mutually comparable.
+     * @throws NullPointerException if the specified collection, or any of
+     *         its elements, is <tt>null</tt>.
+     */
+    public ConcurrentSkipListSet(Collection c) {
+        this();
+        addAll(c);
+    }
+
+    /**
+     * Constructs a new set containing the same elements as the given
+     * sorted set, sorted according to the same ordering.
+     *
+     * @param s sorted set whose elements will comprise the new set.
+     * @throws NullPointerException if the specified sorted set, or any of
+     *         its elements, is <tt>null</tt>.
+     */
+    public ConcurrentSkipListSet(SortedSet s) {
+        this(s.comparator());
+        addAll(s);
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the elements in this set,
+     * in ascending order.
+     *
+     * @return an iterator over the elements in this set.
+     */
+    public Iterator iterator() {
+        return m.keySet().iterator();
+    }
+
+    /**
+     * Returns the number of elements in this set.  Beware that this is not
+     * a constant-time operation, and that the result may be inaccurate if
+     * the set is modified while it is computed.
+     *
+     * @return the number of elements in this set.
+     */
+    public int size() {
+        return m.size();
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains no elements.
+     *
+     * @return <tt>true</tt> if this set contains no elements.
+     */
+    public boolean isEmpty() {
+        return m.isEmpty();
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains the specified element.
+     *
+     * @param o the object to be checked for containment in this set.
+     * @return <tt>true</tt> if this set contains the specified element.
+     * @throws ClassCastException if the specified object cannot be compared
+     *         with the elements currently in the set.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean contains(Object o) {
+        return m.containsKey(o);
+    }
+
+    /**
+     * Adds the specified element to this set if it is not already present.
+     *
+     * @param o element to be added to this set.
+     * @return <tt>true</tt> if the set did not already contain the specified
+     *         element.
+     * @throws ClassCastException if the specified object cannot be compared
+     *         with the elements currently in the set.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean add(Object o) {
+        return m.put(o, Boolean.TRUE) == null;
+    }
+
+    /**
+     * Removes the given element from this set if it is present.
+     *
+     * @param o object to be removed from this set, if present.
+     * @return <tt>true</tt> if the set contained the specified element.
+     * @throws ClassCastException if the specified object cannot be compared
+     *         with the elements currently in the set.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean remove(Object o) {
+        return m.remove(o) != null;
+    }
+
+    /**
+     * Removes all of the elements from this set.
+     */
+    public void clear() {
+        m.clear();
+    }
+
+    /**
+     * Returns a view of the portion of this set whose elements range from
+     * <tt>fromElement</tt>, inclusive, to <tt>toElement</tt>, exclusive.
+     * The returned sorted set is backed by this set, so changes in the
+     * returned sorted set are reflected in this set, and vice-versa.  The
+     * returned set supports all optional set operations, and will throw an
+     * <tt>IllegalArgumentException</tt> if the user attempts to insert an
+     * element outside the specified range.
+     *
+     * @param fromElement low endpoint (inclusive) of the subSet.
+     * @param toElement high endpoint (exclusive) of the subSet.
+     * @return a view of the portion of this set whose elements range from
+     *         <tt>fromElement</tt>, inclusive, to <tt>toElement</tt>,
+     *         exclusive.
+     * @throws ClassCastException if <tt>fromElement</tt> and
+     *         <tt>toElement</tt> cannot be compared to one another using
+     *         this set's comparator (or, if the set has no comparator,
+     *         using natural ordering).
+     * @throws IllegalArgumentException if <tt>fromElement</tt> is greater
+     *         than <tt>toElement</tt>, or if this set is itself a view and
+     *         either endpoint lies outside its range.
+     * @throws NullPointerException if <tt>fromElement</tt> or
+     *         <tt>toElement</tt> is <tt>null</tt>.
+     */
+    public SortedSet subSet(Object fromElement, Object toElement) {
+        return new ConcurrentSkipListSet(m.subMap(fromElement, toElement));
+    }
+
+    /**
+     * Returns a view of the portion of this set whose elements are
+     * strictly less than <tt>toElement</tt>.  The returned sorted set is
+     * backed by this set, so changes in the returned sorted set are
+     * reflected in this set, and vice-versa.
+     *
+     * @param toElement high endpoint (exclusive) of the headSet.
+     * @return a view of the portion of this set whose elements are strictly
+     *         less than <tt>toElement</tt>.
+     * @throws ClassCastException if <tt>toElement</tt> is not compatible
+     *         with this set's comparator (or, if the set has no comparator,
+     *         if <tt>toElement</tt> does not implement <tt>Comparable</tt>).
+     * @throws IllegalArgumentException if this set is itself a view, and
+     *         <tt>toElement</tt> lies outside its range.
+     * @throws NullPointerException if <tt>toElement</tt> is <tt>null</tt>.
+     */
+    public SortedSet headSet(Object toElement) {
+        return new ConcurrentSkipListSet(m.headMap(toElement));
+    }
+
+    /**
+     * Returns a view of the portion of this set whose elements are greater
+     * than or equal to <tt>fromElement</tt>.  The returned sorted set is
+     * backed by this set, so changes in the returned sorted set are
+     * reflected in this set, and vice-versa.
+     *
+     * @param fromElement low endpoint (inclusive) of the tailSet.
+     * @return a view of the portion of this set whose elements are greater
+     *         than or equal to <tt>fromElement</tt>.
+     * @throws ClassCastException if <tt>fromElement</tt> is not compatible
+     *         with this set's comparator (or, if the set has no comparator,
+     *         if <tt>fromElement</tt> does not implement
+     *         <tt>Comparable</tt>).
+     * @throws IllegalArgumentException if this set is itself a view, and
+     *         <tt>fromElement</tt> lies outside its range.
+     * @throws NullPointerException if <tt>fromElement</tt> is
+     *         <tt>null</tt>.
+     */
+    public SortedSet tailSet(Object fromElement) {
+        return new ConcurrentSkipListSet(m.tailMap(fromElement));
+    }
+
+    /**
+     * Returns the comparator used to order this set, or <tt>null</tt> if
+     * this set uses its elements' natural ordering.
+     *
+     * @return the comparator used to order this set, or <tt>null</tt> if
+     *         this set uses its elements' natural ordering.
+     */
+    public Comparator comparator() {
+        return m.comparator();
+    }
+
+    /**
+     * Returns the first (lowest) element currently in this set.
+     *
+     * @return the first (lowest) element currently in this set.
+     * @throws NoSuchElementException if this set is empty.
+     */
+    public Object first() {
+        return m.firstKey();
+    }
+
+    /**
+     * Returns the last (highest) element currently in this set.
+     *
+     * @return the last (highest) element currently in this set.
+     * @throws NoSuchElementException if this set is empty.
+     */
+    public Object last() {
+        return m.lastKey();
+    }
+
+    /**
+     * Returns a shallow copy of this <tt>ConcurrentSkipListSet</tt>
+     * instance.  (The elements themselves are not cloned.)  The copy of a
+     * view is an independent set holding the elements in its range.
+     *
+     * @return a shallow copy of this set.
+     */
+    public Object clone() {
+        ConcurrentSkipListSet clone = null;
+        try {
+            clone = (ConcurrentSkipListSet) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError();
+        }
+        clone.m = new ConcurrentSkipListMap(m);
+        return clone;
+    }
+}
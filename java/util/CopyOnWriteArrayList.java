@@ -0,0 +1,702 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A thread-safe variant of {@link ArrayList} in which all mutative
+ * operations (<tt>add</tt>, <tt>set</tt>, and so on) are implemented by
+ * making a fresh copy of the underlying array.<p>
+ *
+ * This is ordinarily too costly, but may be <em>more</em> efficient than
+ * alternatives when traversal operations vastly outnumber mutations, and
+ * is useful when you cannot or don't want to synchronize traversals, yet
+ * need to preclude interference among concurrent threads.  Lists of event
+ * listeners are the typical case: listeners are added and removed rarely,
+ * but the list is traversed every time an event is fired.<p>
+ *
+ * Read operations take no lock.  The "snapshot" style iterator method
+ * uses a reference to the state of the array at the point that the
+ * iterator was created.  This array never changes during the lifetime of
+ * the iterator, so interference is impossible and the iterator is
+ * guaranteed not to throw <tt>ConcurrentModificationException</tt>.  The
+ * iterator will not reflect additions, removals, or changes to the list
+ * since the iterator was created.  Element-changing operations on
+ * iterators themselves (<tt>remove</tt>, <tt>set</tt>, and <tt>add</tt>)
+ * are not supported.  These methods throw
+ * <tt>UnsupportedOperationException</tt>.<p>
+ *
+ * All elements are permitted, including <tt>null</tt>.
+ *
+ * @version 1.1, 10/15/26
+ * @see     CopyOnWriteArraySet
+ * @see     ArrayList
+ * @since   1.4
+ */
+public class CopyOnWriteArrayList extends AbstractList
+                                  implements List, Cloneable,
+                                             java.io.Serializable {
+    private static final long serialVersionUID = 8673264195747942595L;
+
+    /** The array shared by all empty lists */
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * The array, accessed only via getArray/setArray.  Mutators replace it
+     * holding this list's monitor; it is never modified once published.
+     */
+    private volatile transient Object[] array;
+
+    /**
+     * Gets the array.
+     */
+    private Object[] getArray() {
+        return array;
+    }
+
+    /**
+     * Sets the array.
+     */
+    private void setArray(Object[] a) {
+        array = a;
+        modCount++;
+    }
+
+    /**
+     * Creates an empty list.
+     */
+    public CopyOnWriteArrayList() {
+        array = EMPTY;
+    }
+
+    /**
+     * Creates a list containing the elements of the specified collection,
+     * in the order they are returned by the collection's iterator.
+     *
+     * @param c the collection of initially held elements.
+     */
+    public CopyOnWriteArrayList(Collection c) {
+        array = c.toArray();
+        if (array.getClass() != Object[].class)
+            array = copyOf(array, array.length);
+    }
+
+    /**
+     * Creates a list holding a copy of the given array.
+     *
+     * @param toCopyIn the array (a copy of this array is used as the
+     *        internal array).
+     */
+    public CopyOnWriteArrayList(Object[] toCopyIn) {
+        array = copyOf(toCopyIn, toCopyIn.length);
+    }
+
+    /**
+     * Returns a new Object array of the given length, holding a prefix of
+     * the given array.
+     */
+    private static Object[] copyOf(Object[] a, int newLength) {
+        Object[] copy = new Object[newLength];
+        System.arraycopy(a, 0, copy, 0, Math.min(a.length, newLength));
+        return copy;
+    }
+
+    /**
+     * Returns the number of elements in this list.
+     *
+     * @return the number of elements in this list.
+     */
+    public int size() {
+        return getArray().length;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this list contains no elements.
+     *
+     * @return <tt>true</tt> if this list contains no elements.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Searches for the first occurrence of o in elements[index .. fence-1].
+     */
+    private static int indexOf(Object o, Object[] elements,
+                               int index, int fence) {
+        if (o == null) {
+            for (int i = index; i < fence; i++)
+                if (elements[i] == null)
+                    return i;
+        } else {
+            for (int i = index; i < fence; i++)
+                if (o.equals(elements[i]))
+                    return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Searches for the last occurrence of o in elements[0 .. index].
+     */
+    private static int lastIndexOf(Object o, Object[] elements, int index) {
+        if (o == null) {
+            for (int i = index; i >= 0; i--)
+                if (elements[i] == null)
+                    return i;
+        } else {
+            for (int i = index; i >= 0; i--)
+                if (o.equals(elements[i]))
+                    return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this list contains the specified element.
+     *
+     * @param o element whose presence in this list is to be tested.
+     * @return <tt>true</tt> if this list contains the specified element.
+     */
+    public boolean contains(Object o) {
+        Object[] elements = getArray();
+        return indexOf(o, elements, 0, elements.length) >= 0;
+    }
+
+    public int indexOf(Object o) {
+        Object[] elements = getArray();
+        return indexOf(o, elements, 0, elements.length);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified element
+     * in this list, searching forwards from <tt>index</tt>, or -1 if the
+     * element is not found.
+     *
+     * @param o element to search for.
+     * @param index index to start searching from.
+     * @return the index of the first occurrence of the element at or
+     *         after <tt>index</tt>, or -1 if it is not found.
+     * @throws IndexOutOfBoundsException if <tt>index</tt> is negative.
+     */
+    public int indexOf(Object o, int index) {
+        Object[] elements = getArray();
+        if (index < 0)
+            throw new IndexOutOfBoundsException("Index: " + index);
+        return indexOf(o, elements, index, elements.length);
+    }
+
+    public int lastIndexOf(Object o) {
+        Object[] elements = getArray();
+        return lastIndexOf(o, elements, elements.length - 1);
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified element in
+     * this list, searching backwards from <tt>index</tt>, or -1 if the
+     * element is not found.
+     *
+     * @param o element to search for.
+     * @param index index to start searching backwards from.
+     * @return the index of the last occurrence of the element at or
+     *         before <tt>index</tt>, or -1 if it is not found.
+     * @throws IndexOutOfBoundsException if <tt>index</tt> is greater than
+     *         or equal to the current size of this list.
+     */
+    public int lastIndexOf(Object o, int index) {
+        Object[] elements = getArray();
+        if (index >= elements.length)
+            throw new IndexOutOfBoundsException("Index: " + index +
+                                                ", Size: " + elements.length);
+        return lastIndexOf(o, elements, index);
+    }
+
+    /**
+     * Returns a shallow copy of this list.  (The elements themselves are
+     * not copied.)
+     *
+     * @return a clone of this list.
+     */
+    public Object clone() {
+        try {
+            CopyOnWriteArrayList c = (CopyOnWriteArrayList)super.clone();
+            c.modCount = 0;
+            return c;
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError();
+        }
+    }
+
+    /**
+     * Returns an array containing all of the elements in this list in
+     * proper sequence.  The returned array is a copy, which the caller is
+     * free to modify.
+     *
+     * @return an array containing all of the elements in this list.
+     */
+    public Object[] toArray() {
+        Object[] elements = getArray();
+        return copyOf(elements, elements.length);
+    }
+
+    public Object[] toArray(Object a[]) {
+        Object[] elements = getArray();
+        int len = elements.length;
+        if (a.length < len)
+            a = (Object[])java.lang.reflect.Array.newInstance(
+                                  a.getClass().getComponentType(), len);
+        System.arraycopy(elements, 0, a, 0, len);
+        if (a.length > len)
+            a[len] = null;
+        return a;
+    }
+
+    /**
+     * Returns the element at the specified position in this list.
+     *
+     * @param index index of element to return.
+     * @return the element at the specified position in this list.
+     * @throws IndexOutOfBoundsException if index is out of range
+     *         <tt>(index &lt; 0 || index &gt;= size())</tt>.
+     */
+    public Object get(int index) {
+        Object[] elements = getArray();
+        if (index >= elements.length || index < 0)
+            throw new IndexOutOfBoundsException("Index: " + index +
+                                                ", Size: " + elements.length);
+        return elements[index];
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with the
+     * specified element.
+     *
+     * @param index index of element to replace.
+     * @param element element to be stored at the specified position.
+     * @return the element previously at the specified position.
+     * @throws IndexOutOfBoundsException if index out of range
+     *         <tt>(index &lt; 0 || index &gt;= size())</tt>.
+     */
+    public synchronized Object set(int index, Object element) {
+        Object[] elements = getArray();
+        Object oldValue = get(index);
+        if (oldValue != element) {
+            Object[] newElements = copyOf(elements, elements.length);
+            newElements[index] = element;
+            setArray(newElements);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Appends the specified element to the end of this list.
+     *
+     * @param o element to be appended to this list.
+     * @return <tt>true</tt> (as per the general contract of
+     *         <tt>Collection.add</tt>).
+     */
+    public synchronized boolean add(Object o) {
+        Object[] elements = getArray();
+        int len = elements.length;
+        Object[] newElements = copyOf(elements, len + 1);
+        newElements[len] = o;
+        setArray(newElements);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this
+     * list.  Shifts the element currently at that position (if any) and
+     * any subsequent elements to the right (adds one to their indices).
+     *
+     * @param index index at which the specified element is to be inserted.
+     * @param element element to be inserted.
+     * @throws IndexOutOfBoundsException if index is out of range
+     *         <tt>(index &lt; 0 || index &gt; size())</tt>.
+     */
+    public synchronized void add(int index, Object element) {
+        Object[] elements = getArray();
+        int len = elements.length;
+        if (index > len || index < 0)
+            throw new IndexOutOfBoundsException("Index: " + index +
+                                                ", Size: " + len);
+        Object[] newElements = new Object[len + 1];
+        System.arraycopy(elements, 0, newElements, 0, index);
+        newElements[index] = element;
+        System.arraycopy(elements, index, newElements, index + 1,
+                         len - index);
+        setArray(newElements);
+    }
+
+    /**
+     * Removes the element at the specified position in this list.  Shifts
+     * any subsequent elements to the left (subtracts one from their
+     * indices).
+     *
+     * @param index the index of the element to removed.
+     * @return the element that was removed from the list.
+     * @throws IndexOutOfBoundsException if index out of range
+     *         <tt>(index &lt; 0 || index &gt;= size())</tt>.
+     */
+    public synchronized Object remove(int index) {
+        Object[] elements = getArray();
+        Object oldValue = get(index);
+        setArray(removeAt(elements, index));
+        return oldValue;
+    }
+
+    /**
+     * Returns a copy of elements without the element at index.
+     */
+    private static Object[] removeAt(Object[] elements, int index) {
+        int len = elements.length;
+        if (len == 1)
+            return EMPTY;
+        Object[] newElements = new Object[len - 1];
+        System.arraycopy(elements, 0, newElements, 0, index);
+        System.arraycopy(elements, index + 1, newElements, index,
+                         len - index - 1);
+        return newElements;
+    }
+
+    /**
+     * Removes the first occurrence of the specified element in this list,
+     * if it is present.
+     *
+     * @param o element to be removed from this list, if present.
+     * @return <tt>true</tt> if the list contained the specified element.
+     */
+    public synchronized boolean remove(Object o) {
+        Object[] elements = getArray();
+        int index = indexOf(o, elements, 0, elements.length);
+        if (index < 0)
+            return false;
+        setArray(removeAt(elements, index));
+        return true;
+    }
+
+    /**
+     * Removes from this list all of the elements whose index is between
+     * <tt>fromIndex</tt>, inclusive, and <tt>toIndex</tt>, exclusive.
+     *
+     * @param fromIndex index of first element to be removed.
+     * @param toIndex index after last element to be removed.
+     */
+    protected synchronized void removeRange(int fromIndex, int toIndex) {
+        Object[] elements = getArray();
+        int len = elements.length;
+        if (fromIndex < 0 || toIndex > len || toIndex < fromIndex)
+            throw new IndexOutOfBoundsException();
+        int newlen = len - (toIndex - fromIndex);
+        Object[] newElements = new Object[newlen];
+        System.arraycopy(elements, 0, newElements, 0, fromIndex);
+        System.arraycopy(elements, toIndex, newElements, fromIndex,
+                         len - toIndex);
+        setArray(newElements);
+    }
+
+    /**
+     * Appends the element, if not present.
+     *
+     * @param o element to be added to this list, if absent.
+     * @return <tt>true</tt> if the element was added.
+     */
+    public synchronized boolean addIfAbsent(Object o) {
+        Object[] elements = getArray();
+        int len = elements.length;
+        if (indexOf(o, elements, 0, len) >= 0)
+            return false;
+        Object[] newElements = copyOf(elements, len + 1);
+        newElements[len] = o;
+        setArray(newElements);
+        return true;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this list contains all of the elements of
+     * the specified collection.
+     *
+     * @param c the collection to be checked for containment in this list.
+     * @return <tt>true</tt> if this list contains all of the elements of
+     *         the specified collection.
+     */
+    public boolean containsAll(Collection c) {
+        Object[] elements = getArray();
+        int len = elements.length;
+        for (Iterator it = c.iterator(); it.hasNext(); )
+            if (indexOf(it.next(), elements, 0, len) < 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Removes from this list all of its elements that are contained in the
+     * specified collection.  This is a particularly expensive operation in
+     * this class because of the need for an internal temporary array.
+     *
+     * @param c collection containing elements to be removed from this
+     *        list.
+     * @return <tt>true</tt> if this list changed as a result of the call.
+     */
+    public synchronized boolean removeAll(Collection c) {
+        return retain(c, false);
+    }
+
+    /**
+     * Retains only the elements in this list that are contained in the
+     * specified collection.  In other words, removes from this list all of
+     * its elements that are not contained in the specified collection.
+     *
+     * @param c collection containing elements to be retained in this list.
+     * @return <tt>true</tt> if this list changed as a result of the call.
+     */
+    public synchronized boolean retainAll(Collection c) {
+        return retain(c, true);
+    }
+
+    /**
+     * Keeps the elements for which c.contains is the given value.  Called
+     * holding this list's monitor.
+     */
+    private boolean retain(Collection c, boolean keep) {
+        Object[] elements = getArray();
+        int len = elements.length;
+        Object[] temp = new Object[len];
+        int newlen = 0;
+        for (int i = 0; i < len; i++) {
+            Object element = elements[i];
+            if (c.contains(element) == keep)
+                temp[newlen++] = element;
+        }
+        if (newlen == len)
+            return false;
+        setArray(copyOf(temp, newlen));
+        return true;
+    }
+
+    /**
+     * Appends all of the elements in the specified collection that are not
+     * already contained in this list, to the end of this list, in the
+     * order that they are returned by the specified collection's iterator.
+     *
+     * @param c collection containing elements to be added to this list.
+     * @return the number of elements added.
+     */
+    public synchronized int addAllAbsent(Collection c) {
+        Object[] cs = c.toArray();
+        if (cs.length == 0)
+            return 0;
+        Object[] elements = getArray();
+        int len = elements.length;
+        Object[] newElements = copyOf(elements, len + cs.length);
+        int added = len;
+        for (int i = 0; i < cs.length; i++) {
+            Object e = cs[i];
+            if (indexOf(e, newElements, 0, added) < 0)
+                newElements[added++] = e;
+        }
+        if (added == len)
+            return 0;
+        setArray(copyOf(newElements, added));
+        return added - len;
+    }
+
+    /**
+     * Removes all of the elements from this list.
+     */
+    public synchronized void clear() {
+        setArray(EMPTY);
+    }
+
+    /**
+     * Appends all of the elements in the specified collection to the end
+     * of this list, in the order that they are returned by the specified
+     * collection's iterator.
+     *
+     * @param c elements to be inserted into this list.
+     * @return <tt>true</tt> if this list changed as a result of the call.
+     */
+    public synchronized boolean addAll(Collection c) {
+        Object[] cs = c.toArray();
+        if (cs.length == 0)
+            return false;
+        Object[] elements = getArray();
+        int len = elements.length;
+        Object[] newElements = copyOf(elements, len + cs.length);
+        System.arraycopy(cs, 0, newElements, len, cs.length);
+        setArray(newElements);
+        return true;
+    }
+
+    /**
+     * Inserts all of the elements in the specified collection into this
+     * list, starting at the specified position.  Shifts the element
+     * currently at that position (if any) and any subsequent elements to
+     * the right (increases their indices).
+     *
+     * @param index index at which to insert the first element from the
+     *        specified collection.
+     * @param c elements to be inserted into this list.
+     * @return <tt>true</tt> if this list changed as a result of the call.
+     * @throws IndexOutOfBoundsException if index out of range
+     *         <tt>(index &lt; 0 || index &gt; size())</tt>.
+     */
+    public synchronized boolean addAll(int index, Collection c) {
+        Object[] elements = getArray();
+        int len = elements.length;
+        if (index > len || index < 0)
+            throw new IndexOutOfBoundsException("Index: " + index +
+                                                ", Size: " + len);
+        Object[] cs = c.toArray();
+        if (cs.length == 0)
+            return false;
+        Object[] newElements = new Object[len + cs.length];
+        System.arraycopy(elements, 0, newElements, 0, index);
+        System.arraycopy(cs, 0, newElements, index, cs.length);
+        System.arraycopy(elements, index, newElements, index + cs.length,
+                         len - index);
+        setArray(newElements);
+        return true;
+    }
+
+    /**
+     * Returns an iterator over the elements in this list in proper
+     * sequence.  The returned iterator provides a snapshot of the state of
+     * the list when the iterator was constructed.  No synchronization is
+     * needed while traversing the iterator.  The iterator does
+     * <em>NOT</em> support the <tt>remove</tt> method.
+     *
+     * @return an iterator over the elements in this list in proper
+     *         sequence.
+     */
+    public Iterator iterator() {
+        return new COWIterator(getArray(), 0);
+    }
+
+    /**
+     * Returns a list iterator over the elements in this list (in proper
+     * sequence).  The returned iterator provides a snapshot of the state
+     * of the list when the iterator was constructed.  The iterator does
+     * <em>NOT</em> support the <tt>remove</tt>, <tt>set</tt> or
+     * <tt>add</tt> methods.
+     *
+     * @return a list iterator of the elements in this list.
+     */
+    public ListIterator listIterator() {
+        return new COWIterator(getArray(), 0);
+    }
+
+    /**
+     * Returns a snapshot list iterator of the elements in this list (in
+     * proper sequence), starting at the specified position in this list.
+     * The iterator does <em>NOT</em> support the <tt>remove</tt>,
+     * <tt>set</tt> or <tt>add</tt> methods.
+     *
+     * @param index index of first element to be returned from the list
+     *        iterator (by a call to <tt>next</tt>).
+     * @return a list iterator of the elements in this list, starting at
+     *         the specified position.
+     * @throws IndexOutOfBoundsException if index is out of range
+     *         <tt>(index &lt; 0 || index &gt; size())</tt>.
+     */
+    public ListIterator listIterator(int index) {
+        Object[] elements = getArray();
+        if (index < 0 || index > elements.length)
+            throw new IndexOutOfBoundsException("Index: " + index);
+        return new COWIterator(elements, index);
+    }
+
+    private static class COWIterator implements ListIterator {
+        /** Snapshot of the array */
+        private final Object[] snapshot;
+
+        /** Index of element to be returned by subsequent call to next */
+        private int cursor;
+
+        COWIterator(Object[] elements, int initialCursor) {
+            cursor = initialCursor;
+            snapshot = elements;
+        }
+
+        public boolean hasNext() {
+            return cursor < snapshot.length;
+        }
+
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        public Object next() {
+            if (cursor >= snapshot.length)
+                throw new NoSuchElementException();
+            return snapshot[cursor++];
+        }
+
+        public Object previous() {
+            if (cursor <= 0)
+                throw new NoSuchElementException();
+            return snapshot[--cursor];
+        }
+
+        public int nextIndex() {
+            return cursor;
+        }
+
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        /**
+         * Not supported.  Always throws UnsupportedOperationException.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not supported.  Always throws UnsupportedOperationException.
+         */
+        public void set(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not supported.  Always throws UnsupportedOperationException.
+         */
+        public void add(Object o) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Save the state of the list to a stream (i.e., serialize it).
+     *
+     * @serialData The length of the array backing the list is emitted
+     *             (int), followed by all of its elements (each an
+     *             <tt>Object</tt>) in the proper order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws java.io.IOException {
+        s.defaultWriteObject();
+        Object[] elements = getArray();
+        s.writeInt(elements.length);
+        for (int i = 0; i < elements.length; i++)
+            s.writeObject(elements[i]);
+    }
+
+    /**
+     * Reconstitute the list from a stream (i.e., deserialize it).
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int len = s.readInt();
+        Object[] elements = (len == 0) ? EMPTY : new Object[len];
+        for (int i = 0; i < len; i++)
+            elements[i] = s.readObject();
+        array = elements;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A {@link Set} that uses a {@link CopyOnWriteArrayList} for all of its
+ * operations.  Thus, it shares the same basic properties:
+ * <ul>
+ *  <li>It is best suited for applications in which set sizes generally
+ *      stay small, read-only operations vastly outnumber mutative
+ *      operations, and you need to prevent interference among threads
+ *      during traversal.
+ *  <li>It is thread-safe, and read operations take no lock.
+ *  <li>Mutative operations (<tt>add</tt>, <tt>set</tt>, <tt>remove</tt>,
+ *      etc.) are expensive since they usually entail copying the entire
+ *      underlying array.
+ *  <li>Iterators do not support the mutative <tt>remove</tt> operation.
+ *  <li>Traversal via iterators is fast and cannot encounter interference
+ *      from other threads.  Iterators rely on unchanging snapshots of the
+ *      array at the time the iterators were constructed.
+ * </ul>
+ * Unlike <tt>HashSet</tt>, the elements are kept in the order in which
+ * they were added, and membership is tested with a linear scan using
+ * <tt>equals</tt>.
+ *
+ * @version 1.1, 10/15/26
+ * @see     CopyOnWriteArrayList
+ * @see     HashSet
+ * @since   1.4
+ */
+public class CopyOnWriteArraySet extends AbstractSet
+                                 implements java.io.Serializable {
+    private static final long serialVersionUID = 5457747651344034263L;
+
+    /**
+     * The list holding the elements.
+     *
+     * @serial
+     */
+    private final CopyOnWriteArrayList al;
+
+    /**
+     * Creates an empty set.
+     */
+    public CopyOnWriteArraySet() {
+        al = new CopyOnWriteArrayList();
+    }
+
+    /**
+     * Creates a set containing all of the elements of the specified
+     * collection.
+     *
+     * @param c the collection of elements to initially contain.
+     */
+    public CopyOnWriteArraySet(Collection c) {
+        al = new CopyOnWriteArrayList();
+        al.addAllAbsent(c);
+    }
+
+    public int size() {
+        return al.size();
+    }
+
+    public boolean isEmpty() {
+        return al.isEmpty();
+    }
+
+    public boolean contains(Object o) {
+        return al.contains(o);
+    }
+
+    public Object[] toArray() {
+        return al.toArray();
+    }
+
+    public Object[] toArray(Object[] a) {
+        return al.toArray(a);
+    }
+
+    public void clear() {
+        al.clear();
+    }
+
+    /**
+     * Returns an iterator over the elements contained in this set in the
+     * order in which these elements were added.  The iterator provides a
+     * snapshot of the state of the set when it was constructed, and does
+     * <em>NOT</em> support the <tt>remove</tt> method.
+     *
+     * @return an iterator over the elements in this set.
+     */
+    public Iterator iterator() {
+        return al.iterator();
+    }
+
+    public boolean remove(Object o) {
+        return al.remove(o);
+    }
+
+    public boolean add(Object o) {
+        return al.addIfAbsent(o);
+    }
+
+    public boolean containsAll(Collection c) {
+        return al.containsAll(c);
+    }
+
+    public boolean addAll(Collection c) {
+        return al.addAllAbsent(c) > 0;
+    }
+
+    public boolean removeAll(Collection c) {
+        return al.removeAll(c);
+    }
+
+    public boolean retainAll(Collection c) {
+        return al.retainAll(c);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * Exception thrown when attempting to retrieve the result of a task that
+ * aborted by throwing an exception.  The exception thrown by the task is
+ * available through the {@link #getCause()} method.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Future#get()
+ * @since   1.4
+ */
+public class ExecutionException extends Exception {
+    /**
+     * The exception thrown by the task.
+     *
+     * @serial
+     */
+    private Throwable cause;
+
+    /**
+     * Constructs an <tt>ExecutionException</tt> with the specified detail
+     * message and cause.
+     *
+     * @param message the detail message.
+     * @param cause the exception thrown by the task.
+     */
+    public ExecutionException(String message, Throwable cause) {
+        super(message);
+        this.cause = cause;
+    }
+
+    /**
+     * Constructs an <tt>ExecutionException</tt> with the specified cause.
+     *
+     * @param cause the exception thrown by the task.
+     */
+    public ExecutionException(Throwable cause) {
+        super(cause == null ? null : cause.toString());
+        this.cause = cause;
+    }
+
+    /**
+     * Returns the exception thrown by the task.
+     *
+     * @return the exception thrown by the task.
+     */
+    public Throwable getCause() {
+        return cause;
+    }
+
+    /**
+     * Prints the stack trace of the exception thrown by the task.
+     *
+     * @see     java.lang.System#err
+     */
+    public void printStackTrace() {
+        printStackTrace(System.err);
+    }
+
+    /**
+     * Prints the stack trace of the exception thrown by the task to the
+     * specified print stream.
+     */
+    public void printStackTrace(PrintStream ps) {
+        synchronized (ps) {
+            if (cause != null) {
+                ps.print("java.util.ExecutionException: ");
+                cause.printStackTrace(ps);
+            } else {
+                super.printStackTrace(ps);
+            }
+        }
+    }
+
+    /**
+     * Prints the stack trace of the exception thrown by the task to the
+     * specified print writer.
+     */
+    public void printStackTrace(PrintWriter pw) {
+        synchronized (pw) {
+            if (cause != null) {
+                pw.print("java.util.ExecutionException: ");
+                cause.printStackTrace(pw);
+            } else {
+                super.printStackTrace(pw);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * An object that executes submitted <tt>Runnable</tt> tasks.  This
+ * interface decouples the submission of a task from the mechanics of how
+ * it will be run, including the details of thread use and scheduling.  An
+ * <tt>Executor</tt> is normally used instead of explicitly creating
+ * threads: rather than invoking <tt>new Thread(new RunnableTask()).start()</tt>
+ * for each of a set of tasks, one might use
+ * <pre>
+ *     Executor executor = <em>anExecutor</em>;
+ *     executor.execute(new RunnableTask1());
+ *     executor.execute(new RunnableTask2());
+ * </pre>
+ *
+ * Whether the task runs in a new thread, in a pooled thread, or in the
+ * calling thread is at the discretion of the implementation.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ThreadPool
+ * @see     java.lang.Runnable
+ * @since   1.4
+ */
+public interface Executor {
+    /**
+     * Executes the given task at some time in the future.
+     *
+     * @param task the runnable task.
+     * @throws RejectedExecutionException if this task cannot be accepted
+     *         for execution.
+     * @throws NullPointerException if <tt>task</tt> is <tt>null</tt>.
+     */
+    void execute(Runnable task);
+}
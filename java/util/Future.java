@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A <tt>Future</tt> represents the result of an asynchronous computation.
+ * Methods are provided to check if the computation is complete, to wait
+ * for its completion, and to retrieve the result of the computation.  The
+ * result can only be retrieved using method <tt>get</tt> when the
+ * computation has completed, blocking if necessary until it is ready.
+ * Cancellation is performed by the <tt>cancel</tt> method.  Once a
+ * computation has completed, it cannot be cancelled.
+ *
+ * @version 1.1, 10/15/26
+ * @see     FutureTask
+ * @see     ThreadPool#submit(Callable)
+ * @since   1.4
+ */
+public interface Future {
+    /**
+     * Attempts to cancel execution of this task.  This attempt will fail if
+     * the task has already completed, has already been cancelled, or could
+     * not be cancelled for some other reason.  If successful, and this task
+     * has not started when <tt>cancel</tt> is called, this task should
+     * never run.  If the task has already started, then the
+     * <tt>mayInterruptIfRunning</tt> parameter determines whether the
+     * thread executing this task should be interrupted in an attempt to
+     * stop the task.
+     *
+     * @param mayInterruptIfRunning <tt>true</tt> if the thread executing
+     *        this task should be interrupted; otherwise, in-progress tasks
+     *        are allowed to complete.
+     * @return <tt>false</tt> if the task could not be cancelled, typically
+     *         because it has already completed normally; <tt>true</tt>
+     *         otherwise.
+     */
+    boolean cancel(boolean mayInterruptIfRunning);
+
+    /**
+     * Returns <tt>true</tt> if this task was cancelled before it completed
+     * normally.
+     *
+     * @return <tt>true</tt> if this task was cancelled before it completed.
+     */
+    boolean isCancelled();
+
+    /**
+     * Returns <tt>true</tt> if this task completed.  Completion may be due
+     * to normal termination, an exception, or cancellation; in all of
+     * these cases, this method will return <tt>true</tt>.
+     *
+     * @return <tt>true</tt> if this task completed.
+     */
+    boolean isDone();
+
+    /**
+     * Waits if necessary for the computation to complete, and then
+     * retrieves its result.
+     *
+     * @return the computed result.
+     * @exception CancellationException if the computation was cancelled.
+     * @exception ExecutionException if the computation threw an exception.
+     * @exception InterruptedException if the current thread was
+     *            interrupted while waiting.
+     */
+    Object get() throws InterruptedException, ExecutionException;
+
+    /**
+     * Waits if necessary for at most the given time for the computation to
+     * complete, and then retrieves its result, if available.
+     *
+     * @param timeout the maximum time to wait, in milliseconds.
+     * @return the computed result.
+     * @exception CancellationException if the computation was cancelled.
+     * @exception ExecutionException if the computation threw an exception.
+     * @exception InterruptedException if the current thread was
+     *            interrupted while waiting.
+     * @exception TimeoutException if the wait timed out.
+     */
+    Object get(long timeout)
+        throws InterruptedException, ExecutionException, TimeoutException;
+}
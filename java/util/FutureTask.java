@@ -0,0 +1,188 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A cancellable asynchronous computation.  This class provides a base
+ * implementation of {@link Future}, with methods to start and cancel a
+ * computation, query to see if the computation is complete, and retrieve
+ * the result of the computation.  The result can only be retrieved when
+ * the computation has completed; the <tt>get</tt> methods will block if
+ * the computation has not yet completed.  Once the computation has
+ * completed, the computation cannot be restarted or cancelled.<p>
+ *
+ * A <tt>FutureTask</tt> can be used to wrap a {@link Callable} or
+ * <tt>Runnable</tt> object.  Because <tt>FutureTask</tt> implements
+ * <tt>Runnable</tt>, a <tt>FutureTask</tt> can be submitted to an
+ * {@link Executor} for execution.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Future
+ * @see     Callable
+ * @see     ThreadPool
+ * @since   1.4
+ */
+public class FutureTask implements Future, Runnable {
+    /** State value representing that task is ready to run */
+    private static final int READY     = 0;
+    /** State value representing that task is running */
+    private static final int RUNNING   = 1;
+    /** State value representing that task ran */
+    private static final int RAN       = 2;
+    /** State value representing that task was cancelled */
+    private static final int CANCELLED = 3;
+
+    /** The underlying callable */
+    private final Callable callable;
+
+    /** The state of the task, protected by this object's monitor */
+    private int state = READY;
+
+    /** The result to return from get() */
+    private Object result;
+
+    /** The exception to throw from get() */
+    private Throwable exception;
+
+    /**
+     * The thread running the task.  Cleared once the task completes, so
+     * that cancel does not interrupt a thread that has moved on.
+     */
+    private Thread runner;
+
+    /**
+     * Creates a <tt>FutureTask</tt> that will, upon running, execute the
+     * given <tt>Callable</tt>.
+     *
+     * @param callable the callable task.
+     * @throws NullPointerException if callable is null.
+     */
+    public FutureTask(Callable callable) {
+        if (callable == null)
+            throw new NullPointerException();
+        this.callable = callable;
+    }
+
+    /**
+     * Creates a <tt>FutureTask</tt> that will, upon running, execute the
+     * given <tt>Runnable</tt>, and arrange that <tt>get</tt> will return
+     * the given result on successful completion.
+     *
+     * @param task the runnable task.
+     * @param result the result to return on successful completion.
+     * @throws NullPointerException if task is null.
+     */
+    public FutureTask(final Runnable task, final Object result) {
+        if (task == null)
+            throw new NullPointerException();
+        this.callable = new Callable() {
+            public Object call() {
+                task.run();
+                return result;
+            }
+        };
+    }
+
+    public synchronized boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    public synchronized boolean isDone() {
+        return state == RAN || state == CANCELLED;
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        Thread t;
+        synchronized (this) {
+            if (state == RAN || state == CANCELLED)
+                return false;
+            state = CANCELLED;
+            t = runner;
+            runner = null;
+            notifyAll();
+        }
+        if (mayInterruptIfRunning && t != null)
+            t.interrupt();
+        done();
+        return true;
+    }
+
+    public synchronized Object get()
+        throws InterruptedException, ExecutionException {
+        while (state != RAN && state != CANCELLED)
+            wait();
+        return getResult();
+    }
+
+    public synchronized Object get(long timeout)
+        throws InterruptedException, ExecutionException, TimeoutException {
+        if (state != RAN && state != CANCELLED) {
+            if (timeout <= 0)
+                throw new TimeoutException();
+            long deadline = System.currentTimeMillis() + timeout;
+            do {
+                wait(timeout);
+                if (state == RAN || state == CANCELLED)
+                    break;
+                timeout = deadline - System.currentTimeMillis();
+                if (timeout <= 0)
+                    throw new TimeoutException();
+            } while (true);
+        }
+        return getResult();
+    }
+
+    /**
+     * Returns the result of the completed task or throws its exception.
+     * Called holding this object's monitor.
+     */
+    private Object getResult() throws ExecutionException {
+        if (state == CANCELLED)
+            throw new CancellationException();
+        if (exception != null)
+            throw new ExecutionException(exception);
+        return result;
+    }
+
+    /**
+     * Sets this Future to the result of its computation unless it has
+     * been cancelled.
+     */
+    public void run() {
+        synchronized (this) {
+            if (state != READY)
+                return;
+            state = RUNNING;
+            runner = Thread.currentThread();
+        }
+        Object r = null;
+        Throwable ex = null;
+        try {
+            r = callable.call();
+        } catch (Throwable e) {
+            ex = e;
+        }
+        synchronized (this) {
+            if (state != RUNNING)
+                return;   // cancelled while running
+            state = RAN;
+            result = r;
+            exception = ex;
+            runner = null;
+            notifyAll();
+        }
+        done();
+    }
+
+    /**
+     * Protected method invoked when this task transitions to state
+     * <tt>isDone</tt> (whether normally or via cancellation).  The
+     * default implementation does nothing.  Subclasses may override this
+     * method to invoke completion callbacks or perform bookkeeping.
+     */
+    protected void done() {
+    }
+}
@@ -87,12 +87,12 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
     /**
      * The hash table data.
      */
-    private transient Entry table[];
+    transient Entry table[];
 
     /**
      * The total number of mappings in the hash table.
      */
-    private transient int count;
+    transient int count;
 
     /**
      * The table is rehashed when its size exceeds this threshold.  (The
@@ -116,7 +116,7 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
      * rehash).  This field is used to make iterators on Collection-views of
      * the HashMap fail-fast.  (See ConcurrentModificationException).
      */
-    private transient int modCount = 0;
+    transient int modCount = 0;
 
     /**
      * Constructs a new, empty map with the specified initial 
@@ -139,6 +139,17 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 	this.loadFactor = loadFactor;
 	table = new Entry[initialCapacity];
 	threshold = (int)(initialCapacity * loadFactor);
+	init();
+    }
+
+    // internal utilities
+
+    /**
+     * Initialization hook for subclasses.  This method is called in all
+     * constructors and pseudo-constructors (clone, readObject) after the
+     * table has been allocated but before any entries are inserted.
+     */
+    void init() {
     }
 
     /**
@@ -255,6 +266,15 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
      * @param key key whose associated value is to be returned.
      */
     public Object get(Object key) {
+	Entry e = getEntry(key);
+	return (e == null) ? null : e.value;
+    }
+
+    /**
+     * Returns the entry associated with the specified key in the map, or
+     * <tt>null</tt> if the map contains no mapping for the key.
+     */
+    Entry getEntry(Object key) {
 	Entry tab[] = table;
 
         if (key != null) {
@@ -262,11 +282,11 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
             int index = (hash & 0x7FFFFFFF) % tab.length;
             for (Entry e = tab[index]; e != null; e = e.next)
                 if ((e.hash == hash) && key.equals(e.key))
-                    return e.value;
+                    return e;
 	} else {
             for (Entry e = tab[0]; e != null; e = e.next)
                 if (e.key==null)
-                    return e.value;
+                    return e;
         }
 
 	return null;
@@ -325,6 +345,7 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
                 if ((e.hash == hash) && key.equals(e.key)) {
                     Object old = e.value;
                     e.value = value;
+                    e.recordAccess(this);
                     return old;
                 }
             }
@@ -333,6 +354,7 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
                 if (e.key == null) {
                     Object old = e.value;
                     e.value = value;
+                    e.recordAccess(this);
                     return old;
                 }
             }
@@ -347,13 +369,41 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
             index = (hash & 0x7FFFFFFF) % tab.length;
 	}
 
-	// Creates the new entry.
-	Entry e = new Entry(hash, key, value, tab[index]);
-	tab[index] = e;
-	count++;
+	addEntry(hash, key, value, index);
 	return null;
     }
 
+    /**
+     * Adds a new entry with the specified key, value and hash code to the
+     * specified bucket, on behalf of <tt>put</tt>.  The table has already
+     * been grown if necessary.  Subclasses override this method to alter
+     * the behavior of put; LinkedHashMap uses it to evict its eldest
+     * entry.
+     */
+    void addEntry(int hash, Object key, Object value, int index) {
+	createEntry(hash, key, value, index);
+    }
+
+    /**
+     * Like addEntry, except that this version is used when creating
+     * entries as part of map construction or "pseudo-construction" (clone,
+     * readObject), and so never triggers eviction.  Subclasses override
+     * this method to create their own type of entry.
+     */
+    void createEntry(int hash, Object key, Object value, int index) {
+	table[index] = new Entry(hash, key, value, table[index]);
+	count++;
+    }
+
+    /**
+     * Adds a mapping for a key known not to be present, without growing
+     * the table, for use by clone and readObject.
+     */
+    private void putForCreate(Object key, Object value) {
+	int hash = (key == null) ? 0 : key.hashCode();
+	createEntry(hash, key, value, (hash & 0x7FFFFFFF) % table.length);
+    }
+
     /**
      * Removes the mapping for this key from this map if present.
      *
@@ -364,42 +414,37 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
      *	       with the specified key.
      */
     public Object remove(Object key) {
-	Entry tab[] = table;
-
-        if (key != null) {
-            int hash = key.hashCode();
-            int index = (hash & 0x7FFFFFFF) % tab.length;
+	Entry e = removeEntryForKey(key);
+	if (e == null)
+	    return null;
+	Object oldValue = e.value;
+	e.value = null;
+	return oldValue;
+    }
 
-            for (Entry e = tab[index], prev = null; e != null;
-                 prev = e, e = e.next) {
-                if ((e.hash == hash) && key.equals(e.key)) {
-                    modCount++;
-                    if (prev != null)
-                        prev.next = e.next;
-                    else
-                        tab[index] = e.next;
-
-                    count--;
-                    Object oldValue = e.value;
-                    e.value = null;
-                    return oldValue;
-                }
-            }
-        } else {
-            for (Entry e = tab[0], prev = null; e != null;
-                 prev = e, e = e.next) {
-                if (e.key == null) {
-                    modCount++;
-                    if (prev != null)
-                        prev.next = e.next;
-                    else
-                        tab[0] = e.next;
-
-                    count--;
-                    Object oldValue = e.value;
-                    e.value = null;
-                    return oldValue;
-                }
+    /**
+     * Removes and returns the entry associated with the specified key in
+     * the map.  Returns <tt>null</tt> if the map contains no mapping for
+     * this key.
+     */
+    Entry removeEntryForKey(Object key) {
+	Entry tab[] = table;
+        int hash = (key == null) ? 0 : key.hashCode();
+        int index = (hash & 0x7FFFFFFF) % tab.length;
+
+        for (Entry e = tab[index], prev = null; e != null;
+             prev = e, e = e.next) {
+            if (e.hash == hash &&
+                (key == null ? e.key == null : key.equals(e.key))) {
+                modCount++;
+                if (prev != null)
+                    prev.next = e.next;
+                else
+                    tab[index] = e.next;
+
+                count--;
+                e.recordRemoval(this);
+                return e;
             }
         }
 
@@ -443,14 +488,16 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 	try { 
 	    HashMap t = (HashMap)super.clone();
 	    t.table = new Entry[table.length];
-	    for (int i = table.length ; i-- > 0 ; ) {
-		t.table[i] = (table[i] != null) 
-		    ? (Entry)table[i].clone() : null;
-	    }
+	    t.count = 0;
 	    t.keySet = null;
 	    t.entrySet = null;
             t.values = null;
 	    t.modCount = 0;
+	    t.init();
+	    for (Iterator i = getHashIterator(ENTRIES); i.hasNext(); ) {
+		Entry e = (Entry) i.next();
+		t.putForCreate(e.key, e.value);
+	    }
 	    return t;
 	} catch (CloneNotSupportedException e) { 
 	    // this shouldn't happen, since we are Cloneable
@@ -585,6 +632,7 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
                                 tab[index] = e.next;
 
                             count--;
+                            e.recordRemoval(HashMap.this);
                             e.value = null;
                             return true;
                         }
@@ -605,7 +653,11 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 	return entrySet;
     }
 
-    private Iterator getHashIterator(int type) {
+    /**
+     * Returns an iterator of the given type over the mappings of this
+     * map.  Overridden by LinkedHashMap to iterate in its own order.
+     */
+    Iterator getHashIterator(int type) {
 	if (count == 0) {
 	    return emptyHashIterator;
 	} else {
@@ -616,7 +668,7 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
     /**
      * HashMap collision list entry.
      */
-    private static class Entry implements Map.Entry {
+    static class Entry implements Map.Entry {
 	int hash;
 	Object key;
 	Object value;
@@ -629,11 +681,6 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 	    this.next = next;
 	}
 
-	protected Object clone() {
-	    return new Entry(hash, key, value,
-			     (next==null ? null : (Entry)next.clone()));
-	}
-
 	// Map.Entry Ops 
 
 	public Object getKey() {
@@ -666,12 +713,27 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 	public String toString() {
 	    return key+"="+value;
 	}
+
+	/**
+	 * This method is invoked whenever the value in an entry is
+	 * overwritten by an invocation of put(k,v) for a key k that's
+	 * already in the HashMap.
+	 */
+	void recordAccess(HashMap m) {
+	}
+
+	/**
+	 * This method is invoked whenever the entry is removed from the
+	 * table.
+	 */
+	void recordRemoval(HashMap m) {
+	}
     }
 
     // Types of Iterators
-    private static final int KEYS = 0;
-    private static final int VALUES = 1;
-    private static final int ENTRIES = 2;
+    static final int KEYS = 0;
+    static final int VALUES = 1;
+    static final int ENTRIES = 2;
 
     private static EmptyHashIterator emptyHashIterator 
 	= new EmptyHashIterator();
@@ -767,6 +829,7 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 		    else
 			prev.next = e.next;
 		    count--;
+		    e.recordRemoval(HashMap.this);
 		    lastReturned = null;
 		    return;
 		}
@@ -799,14 +862,10 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 	s.writeInt(count);
 
         // Write out keys and values (alternating)
-	for (int index = table.length-1; index >= 0; index--) {
-	    Entry entry = table[index];
-
-	    while (entry != null) {
-		s.writeObject(entry.key);
-		s.writeObject(entry.value);
-		entry = entry.next;
-	    }
+	for (Iterator i = getHashIterator(ENTRIES); i.hasNext(); ) {
+	    Entry entry = (Entry) i.next();
+	    s.writeObject(entry.key);
+	    s.writeObject(entry.value);
 	}
     }
 
@@ -826,6 +885,8 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 	int numBuckets = s.readInt();
 	table = new Entry[numBuckets];
 
+	init();  // Give subclass a chance to do its thing.
+
 	// Read in size (number of Mappings)
 	int size = s.readInt();
 
@@ -833,7 +894,7 @@ public class HashMap extends AbstractMap implements Map, Cloneable,
 	for (int i=0; i<size; i++) {
 	    Object key = s.readObject();
 	    Object value = s.readObject();
-	    put(key, value);
+	    putForCreate(key, value);
 	}
     }
 
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+import java.io.*;
+
+/**
+ * A set of primitive <tt>int</tt> values, backed by an open-addressed hash
+ * table.  This class offers the operations of a <tt>Set</tt> without boxing
+ * its elements into <tt>Integer</tt> objects: <tt>contains</tt>,
+ * <tt>add</tt> (while the table has room) and <tt>remove</tt> allocate
+ * nothing.  Any <tt>int</tt> may be an element.<p>
+ *
+ * Like <tt>HashSet</tt>, this class is not synchronized.  If multiple
+ * threads access an <tt>IntHashSet</tt> concurrently, and at least one of
+ * the threads modifies the set, it <i>must</i> be synchronized externally.
+ *
+ * @version 1.1, 10/15/26
+ * @see     HashSet
+ * @see     IntHashMap
+ * @see     LongHashSet
+ * @since   1.4
+ */
+public class IntHashSet extends PrimitiveHashtable {
+    /**
+     * The elements, parallel to <tt>states</tt>.
+     */
+    private transient int[] elements;
+
+    private static final long serialVersionUID = 6471580320413297355L;
+
+    /**
+     * Constructs an empty set with the specified initial capacity and load
+     * factor.
+     *
+     * @param  initialCapacity the number of elements the set can hold
+     *         before it must grow.
+     * @param  loadFactor the fraction of the table that may be occupied.
+     * @exception IllegalArgumentException if the initial capacity is
+     *            negative or the load factor is not between 0 and 1.
+     */
+    public IntHashSet(int initialCapacity, float loadFactor) {
+        super(initialCapacity, loadFactor);
+    }
+
+    /**
+     * Constructs an empty set with the specified initial capacity and the
+     * default load factor (.5).
+     *
+     * @param  initialCapacity the number of elements the set can hold
+     *         before it must grow.
+     * @exception IllegalArgumentException if the initial capacity is
+     *            negative.
+     */
+    public IntHashSet(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty set with the default initial capacity (16) and
+     * load factor (.5).
+     */
+    public IntHashSet() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a set containing the given elements.
+     *
+     * @param a the elements to be placed into this set.
+     */
+    public IntHashSet(int[] a) {
+        this(a.length, DEFAULT_LOAD_FACTOR);
+        for (int i = 0; i < a.length; i++)
+            add(a[i]);
+    }
+
+    void allocate(int capacity) {
+        super.allocate(capacity);
+        elements = new int[capacity];
+    }
+
+    /**
+     * Returns the slot holding the given element, or -1 if it is absent.
+     */
+    private int index(int e) {
+        byte[] states = this.states;
+        int[] elements = this.elements;
+        int mask = states.length - 1;
+        int i = mix(e) & mask;
+        byte state;
+        while ((state = states[i]) != FREE) {
+            if (state == FULL && elements[i] == e)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this set contains the specified element.
+     *
+     * @param e element whose presence in this set is to be tested.
+     * @return <tt>true</tt> if this set contains the specified element.
+     */
+    public boolean contains(int e) {
+        return index(e) >= 0;
+    }
+
+    /**
+     * Adds the specified element to this set if it is not already present.
+     *
+     * @param e element to be added to this set.
+     * @return <tt>true</tt> if the set did not already contain the
+     *         specified element.
+     */
+    public boolean add(int e) {
+        byte[] states = this.states;
+        int[] elements = this.elements;
+        int mask = states.length - 1;
+        int i = mix(e) & mask;
+        int firstRemoved = -1;
+        byte state;
+        while ((state = states[i]) != FREE) {
+            if (state == FULL) {
+                if (elements[i] == e)
+                    return false;
+            } else if (firstRemoved < 0) {
+                firstRemoved = i;
+            }
+            i = (i + 1) & mask;
+        }
+        if (firstRemoved >= 0)
+            i = firstRemoved;
+        boolean wasFree = (states[i] == FREE);
+        states[i] = FULL;
+        elements[i] = e;
+        postInsert(wasFree);
+        return true;
+    }
+
+    /**
+     * Adds all of the elements of the specified set to this set.
+     *
+     * @param s set whose elements are to be added to this set.
+     * @return <tt>true</tt> if this set changed as a result of the call.
+     */
+    public boolean addAll(IntHashSet s) {
+        boolean modified = false;
+        byte[] states = s.states;
+        for (int i = states.length; i-- > 0 ;)
+            if (states[i] == FULL && add(s.elements[i]))
+                modified = true;
+        return modified;
+    }
+
+    /**
+     * Removes the specified element from this set if it is present.
+     *
+     * @param e element to be removed from this set, if present.
+     * @return <tt>true</tt> if the set contained the specified element.
+     */
+    public boolean remove(int e) {
+        int i = index(e);
+        if (i < 0)
+            return false;
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Returns the elements of this set, in no particular order.  The
+     * returned array is a copy and may be freely modified by the caller.
+     *
+     * @return an array containing all of the elements in this set.
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        byte[] states = this.states;
+        for (int i = 0, j = 0; i < states.length; i++)
+            if (states[i] == FULL)
+                result[j++] = elements[i];
+        return result;
+    }
+
+    void rehash(int newCapacity) {
+        byte[] oldStates = states;
+        int[] oldElements = elements;
+        int count = size;
+
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = oldStates.length; i-- > 0 ;) {
+            if (oldStates[i] == FULL) {
+                int e = oldElements[i];
+                int j = mix(e) & mask;
+                while (states[j] != FREE)
+                    j = (j + 1) & mask;
+                states[j] = FULL;
+                elements[j] = e;
+            }
+        }
+        size = count;
+        free -= count;
+    }
+
+    /**
+     * Compares the specified object with this set for equality.  Returns
+     * <tt>true</tt> if the given object is also an <tt>IntHashSet</tt> and
+     * the two sets contain the same elements.
+     *
+     * @param o object to be compared for equality with this set.
+     * @return <tt>true</tt> if the specified object is equal to this set.
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof IntHashSet))
+            return false;
+        IntHashSet s = (IntHashSet) o;
+        if (s.size != size)
+            return false;
+        for (int i = states.length; i-- > 0 ;)
+            if (states[i] == FULL && !s.contains(elements[i]))
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this set, defined as the sum of its
+     * elements, which matches the hash code of an equivalent <tt>Set</tt>
+     * of <tt>Integer</tt> objects.
+     *
+     * @return the hash code value for this set.
+     */
+    public int hashCode() {
+        int h = 0;
+        for (int i = states.length; i-- > 0 ;)
+            if (states[i] == FULL)
+                h += elements[i];
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this set, in the same format as
+     * <tt>AbstractCollection.toString</tt>.
+     *
+     * @return a string representation of this set.
+     */
+    public String toString() {
+        StringBuffer buf = new StringBuffer();
+        buf.append("[");
+        boolean first = true;
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == FULL) {
+                if (!first)
+                    buf.append(", ");
+                first = false;
+                buf.append(elements[i]);
+            }
+        }
+        buf.append("]");
+        return buf.toString();
+    }
+
+    /**
+     * Returns a copy of this set.
+     *
+     * @return a copy of this set.
+     */
+    public Object clone() {
+        IntHashSet result = (IntHashSet)super.clone();
+        result.elements = (int[])elements.clone();
+        return result;
+    }
+
+    /**
+     * Save the state of the <tt>IntHashSet</tt> instance to a stream (i.e.,
+     * serialize it).
+     *
+     * @serialData The number of elements (<tt>int</tt>) is emitted,
+     *             followed by each element (<tt>int</tt>), in no particular
+     *             order.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        for (int i = 0; i < states.length; i++)
+            if (states[i] == FULL)
+                s.writeInt(elements[i]);
+    }
+
+    /**
+     * Reconstitute the <tt>IntHashSet</tt> instance from a stream (i.e.,
+     * deserialize it).
+     */
+    private void readObject(ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int count = s.readInt();
+        allocate(tableSizeFor(count));
+        for (int i = 0; i < count; i++)
+            add(s.readInt());
+    }
+}
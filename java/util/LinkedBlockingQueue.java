@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * An optionally-bounded {@linkplain BlockingQueue blocking queue} based on
+ * linked nodes.  This queue orders elements FIFO (first-in-first-out).
+ * The <em>head</em> of the queue is that element that has been on the
+ * queue the longest time.  The <em>tail</em> of the queue is that element
+ * that has been on the queue the shortest time.  New elements are inserted
+ * at the tail of the queue, and the queue retrieval operations obtain
+ * elements at the head of the queue.  Linked queues typically have higher
+ * throughput than array-based queues but less predictable performance in
+ * most concurrent applications.<p>
+ *
+ * The optional capacity bound constructor argument serves as a way to
+ * prevent excessive queue expansion.  The capacity, if unspecified, is
+ * equal to <tt>Integer.MAX_VALUE</tt>.  Linked nodes are dynamically
+ * created upon each insertion unless this would bring the queue above
+ * capacity.<p>
+ *
+ * Producers and consumers lock separately: a producer only ever blocks
+ * another producer, and a consumer another consumer.  Blocked threads are
+ * woken one at a time, as space or elements become available.
+ *
+ * @version 1.1, 10/15/26
+ * @see     BlockingQueue
+ * @see     ArrayBlockingQueue
+ * @see     ConcurrentLinkedQueue
+ * @since   1.4
+ */
+public class LinkedBlockingQueue extends TwoLockQueue {
+    private static final long serialVersionUID = -6903933977591709194L;
+
+    /*
+     * The list always holds a dummy node at its head, whose successor is
+     * the first element.  Takers only touch head, and putters only touch
+     * last, which is what lets them use separate locks: an empty queue is
+     * the single case where both point at the same node, and then only
+     * the putter writes to it.
+     */
+
+    /**
+     * Linked list node class.
+     */
+    private static class Node {
+        Object item;
+        Node next;
+
+        Node(Object x) {
+            item = x;
+        }
+    }
+
+    /** Head of linked list; guarded by takeLock */
+    private transient Node head;
+
+    /** Tail of linked list; guarded by putLock */
+    private transient Node last;
+
+    /**
+     * Creates a <tt>LinkedBlockingQueue</tt> with a capacity of
+     * <tt>Integer.MAX_VALUE</tt>.
+     */
+    public LinkedBlockingQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a <tt>LinkedBlockingQueue</tt> with the given (fixed)
+     * capacity.
+     *
+     * @param capacity the capacity of this queue.
+     * @throws IllegalArgumentException if <tt>capacity</tt> is not greater
+     *         than zero.
+     */
+    public LinkedBlockingQueue(int capacity) {
+        super(capacity);
+        initStorage();
+    }
+
+    /**
+     * Creates a <tt>LinkedBlockingQueue</tt> with a capacity of
+     * <tt>Integer.MAX_VALUE</tt>, initially containing the elements of the
+     * given collection, added in traversal order of the collection's
+     * iterator.
+     *
+     * @param c the collection of elements to initially contain.
+     * @throws NullPointerException if <tt>c</tt> or any element within it
+     *         is <tt>null</tt>.
+     */
+    public LinkedBlockingQueue(Collection c) {
+        this(Integer.MAX_VALUE);
+        for (Iterator it = c.iterator(); it.hasNext();)
+            add(it.next());
+    }
+
+    void initStorage() {
+        last = head = new Node(null);
+    }
+
+    void enqueue(Object x) {
+        last = last.next = new Node(x);
+    }
+
+    Object dequeue() {
+        Node first = head.next;
+        head = first;
+        Object x = first.item;
+        first.item = null;
+        return x;
+    }
+
+    Object first() {
+        Node first = head.next;
+        return (first == null) ? null : first.item;
+    }
+
+    Object[] elements() {
+        Object[] a = new Object[count.get()];
+        int k = 0;
+        for (Node p = head.next; p != null; p = p.next)
+            a[k++] = p.item;
+        return a;
+    }
+
+    boolean removeElement(Object o, boolean identity) {
+        Node trail = head;
+        for (Node p = head.next; p != null; trail = p, p = p.next) {
+            Object x = p.item;
+            if (identity ? x == o : o.equals(x)) {
+                p.item = null;
+                trail.next = p.next;
+                if (last == p)
+                    last = trail;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void clearElements() {
+        head.next = null;
+        last = head;
+    }
+}
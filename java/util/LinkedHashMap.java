@@ -0,0 +1,363 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * Hash table and linked list implementation of the <tt>Map</tt> interface,
+ * with predictable iteration order.  This implementation differs from
+ * <tt>HashMap</tt> in that it maintains a doubly-linked list running
+ * through all of its entries.  This linked list defines the iteration
+ * ordering, which is normally the order in which keys were inserted into
+ * the map (<i>insertion-order</i>).  Note that insertion order is not
+ * affected if a key is <i>re-inserted</i> into the map.<p>
+ *
+ * A special constructor is provided to create a linked hash map whose
+ * order of iteration is the order in which its entries were last
+ * accessed, from least-recently accessed to most-recently
+ * (<i>access-order</i>).  This kind of map is well-suited to building LRU
+ * caches.  Invoking the <tt>put</tt> or <tt>get</tt> method results in an
+ * access to the corresponding entry (assuming it exists after the
+ * invocation completes).  No other methods generate entry accesses.  In
+ * particular, operations on collection-views do <i>not</i> affect the
+ * order of iteration of the backing map.<p>
+ *
+ * The {@link #removeEldestEntry(Map.Entry)} method may be overridden to
+ * impose a policy for removing stale mappings automatically when new
+ * mappings are added to the map.  Every operation, including the upkeep
+ * of the access order and the eviction of the eldest entry, takes
+ * constant time.  For a thread-safe cache with size and weight limits,
+ * expiry and statistics, see {@link Cache}.<p>
+ *
+ * This class provides all of the optional <tt>Map</tt> operations, and
+ * permits null elements.  Performance is likely to be just slightly below
+ * that of <tt>HashMap</tt>, due to the added expense of maintaining the
+ * linked list, with one exception: iteration over the collection-views
+ * requires time proportional to the <i>size</i> of the map, regardless of
+ * its capacity.<p>
+ *
+ * <b>Note that this implementation is not synchronized.</b> If multiple
+ * threads access a linked hash map concurrently, and at least one of the
+ * threads modifies the map structurally, it <i>must</i> be synchronized
+ * externally.  In access-ordered linked hash maps, merely querying the map
+ * with <tt>get</tt> is a structural modification.<p>
+ *
+ * The iterators returned by all of this class's collection view methods
+ * are <i>fail-fast</i>, in the same way as those of <tt>HashMap</tt>.
+ *
+ * @version 1.1, 10/15/26
+ * @see     HashMap
+ * @see     Cache
+ * @since   1.4
+ */
+public class LinkedHashMap extends HashMap {
+    private static final long serialVersionUID = 3801124242820219131L;
+
+    /**
+     * The head of the doubly linked list.
+     */
+    private transient Entry header;
+
+    /**
+     * The iteration ordering method for this linked hash map:
+     * <tt>true</tt> for access-order, <tt>false</tt> for insertion-order.
+     *
+     * @serial
+     */
+    private final boolean accessOrder;
+
+    /**
+     * Constructs an empty insertion-ordered <tt>LinkedHashMap</tt>
+     * instance with the specified initial capacity and load factor.
+     *
+     * @param initialCapacity the initial capacity.
+     * @param loadFactor the load factor.
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is nonpositive.
+     */
+    public LinkedHashMap(int initialCapacity, float loadFactor) {
+        super(initialCapacity, loadFactor);
+        accessOrder = false;
+    }
+
+    /**
+     * Constructs an empty insertion-ordered <tt>LinkedHashMap</tt>
+     * instance with the specified initial capacity and a default load
+     * factor (0.75).
+     *
+     * @param initialCapacity the initial capacity.
+     * @throws IllegalArgumentException if the initial capacity is negative.
+     */
+    public LinkedHashMap(int initialCapacity) {
+        super(initialCapacity);
+        accessOrder = false;
+    }
+
+    /**
+     * Constructs an empty insertion-ordered <tt>LinkedHashMap</tt>
+     * instance with a default capacity and load factor (0.75).
+     */
+    public LinkedHashMap() {
+        super();
+        accessOrder = false;
+    }
+
+    /**
+     * Constructs an insertion-ordered <tt>LinkedHashMap</tt> instance with
+     * the same mappings as the specified map.  The <tt>LinkedHashMap</tt>
+     * instance is created with a default load factor (0.75) and an
+     * initial capacity sufficient to hold the mappings in the specified
+     * map.
+     *
+     * @param m the map whose mappings are to be placed in this map.
+     * @throws NullPointerException if the specified map is null.
+     */
+    public LinkedHashMap(Map m) {
+        super(m);
+        accessOrder = false;
+    }
+
+    /**
+     * Constructs an empty <tt>LinkedHashMap</tt> instance with the
+     * specified initial capacity, load factor and ordering mode.
+     *
+     * @param initialCapacity the initial capacity.
+     * @param loadFactor the load factor.
+     * @param accessOrder the ordering mode: <tt>true</tt> for
+     *        access-order, <tt>false</tt> for insertion-order.
+     * @throws IllegalArgumentException if the initial capacity is negative
+     *         or the load factor is nonpositive.
+     */
+    public LinkedHashMap(int initialCapacity, float loadFactor,
+                         boolean accessOrder) {
+        super(initialCapacity, loadFactor);
+        this.accessOrder = accessOrder;
+    }
+
+    /**
+     * Called by superclass constructors and pseudoconstructors (clone,
+     * readObject) before any entries are inserted into the map.
+     * Initializes the chain.
+     */
+    void init() {
+        header = new Entry(-1, null, null, null);
+        header.before = header.after = header;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map maps one or more keys to the
+     * specified value.
+     *
+     * @param value value whose presence in this map is to be tested.
+     * @return <tt>true</tt> if this map maps one or more keys to the
+     *         specified value.
+     */
+    public boolean containsValue(Object value) {
+        // Overridden to take advantage of faster iterator
+        if (value == null) {
+            for (Entry e = header.after; e != header; e = e.after)
+                if (e.value == null)
+                    return true;
+        } else {
+            for (Entry e = header.after; e != header; e = e.after)
+                if (value.equals(e.value))
+                    return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value to which this map maps the specified key.  Returns
+     * <tt>null</tt> if the map contains no mapping for this key.  A return
+     * value of <tt>null</tt> does not <i>necessarily</i> indicate that the
+     * map contains no mapping for the key; it's also possible that the map
+     * explicitly maps the key to <tt>null</tt>.  The <tt>containsKey</tt>
+     * operation may be used to distinguish these two cases.  In an
+     * access-ordered map, a successful lookup moves the entry to the end
+     * of the iteration order.
+     *
+     * @param key key whose associated value is to be returned.
+     * @return the value to which this map maps the specified key.
+     */
+    public Object get(Object key) {
+        Entry e = (Entry) getEntry(key);
+        if (e == null)
+            return null;
+        e.recordAccess(this);
+        return e.value;
+    }
+
+    /**
+     * Removes all mappings from this map.
+     */
+    public void clear() {
+        super.clear();
+        header.before = header.after = header;
+    }
+
+    /**
+     * LinkedHashMap entry.
+     */
+    private static class Entry extends HashMap.Entry {
+        // These fields comprise the doubly linked list used for iteration.
+        Entry before, after;
+
+        Entry(int hash, Object key, Object value, HashMap.Entry next) {
+            super(hash, key, value, next);
+        }
+
+        /**
+         * Removes this entry from the linked list.
+         */
+        private void remove() {
+            before.after = after;
+            after.before = before;
+        }
+
+        /**
+         * Inserts this entry before the specified existing entry in the
+         * list.
+         */
+        private void addBefore(Entry existingEntry) {
+            after  = existingEntry;
+            before = existingEntry.before;
+            before.after = this;
+            after.before = this;
+        }
+
+        /**
+         * This method is invoked by the superclass whenever the value of a
+         * pre-existing entry is read by Map.get or modified by Map.put.
+         * If the enclosing Map is access-ordered, it moves the entry to
+         * the end of the list; otherwise, it does nothing.
+         */
+        void recordAccess(HashMap m) {
+            LinkedHashMap lm = (LinkedHashMap) m;
+            if (lm.accessOrder && lm.header.before != this) {
+                lm.modCount++;
+                remove();
+                addBefore(lm.header);
+            }
+        }
+
+        void recordRemoval(HashMap m) {
+            remove();
+        }
+    }
+
+    private class LinkedHashIterator implements Iterator {
+        Entry nextEntry    = header.after;
+        Entry lastReturned = null;
+        int type;
+
+        /**
+         * The modCount value that the iterator believes that the backing
+         * List should have.  If this expectation is violated, the iterator
+         * has detected concurrent modification.
+         */
+        int expectedModCount = modCount;
+
+        LinkedHashIterator(int type) {
+            this.type = type;
+        }
+
+        public boolean hasNext() {
+            return nextEntry != header;
+        }
+
+        public Object next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (nextEntry == header)
+                throw new NoSuchElementException();
+
+            Entry e = lastReturned = nextEntry;
+            nextEntry = e.after;
+            return type == KEYS ? e.key : (type == VALUES ? e.value : e);
+        }
+
+        public void remove() {
+            if (lastReturned == null)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+
+            removeEntryForKey(lastReturned.key);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+    }
+
+    Iterator getHashIterator(int type) {
+        return new LinkedHashIterator(type);
+    }
+
+    /**
+     * This override alters behavior of the superclass put method.  It
+     * causes the newly allocated entry to get inserted at the end of the
+     * linked list and removes the eldest entry if appropriate.
+     */
+    void addEntry(int hash, Object key, Object value, int index) {
+        createEntry(hash, key, value, index);
+
+        // Remove eldest entry if instructed
+        Entry eldest = header.after;
+        if (removeEldestEntry(eldest))
+            removeEntryForKey(eldest.key);
+    }
+
+    /**
+     * This override differs from addEntry in that it doesn't remove the
+     * eldest entry.
+     */
+    void createEntry(int hash, Object key, Object value, int index) {
+        Entry e = new Entry(hash, key, value, table[index]);
+        table[index] = e;
+        e.addBefore(header);
+        count++;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map should remove its eldest entry.
+     * This method is invoked by <tt>put</tt> and <tt>putAll</tt> after
+     * inserting a new entry into the map.  It provides the implementer
+     * with the opportunity to remove the eldest entry each time a new one
+     * is added.  This is useful if the map represents a cache: it allows
+     * the map to reduce memory consumption by deleting stale entries.<p>
+     *
+     * Sample use: this override will allow the map to grow up to 100
+     * entries and then delete the eldest entry each time a new entry is
+     * added, maintaining a steady state of 100 entries.
+     * <pre>
+     *     private static final int MAX_ENTRIES = 100;
+     *
+     *     protected boolean removeEldestEntry(Map.Entry eldest) {
+     *        return size() > MAX_ENTRIES;
+     *     }
+     * </pre><p>
+     *
+     * This method typically does not modify the map in any way, instead
+     * allowing the map to modify itself as directed by its return value.
+     * It <i>is</i> permitted for this method to modify the map directly,
+     * but if it does so, it <i>must</i> return <tt>false</tt>.<p>
+     *
+     * This implementation merely returns <tt>false</tt> (so that this map
+     * acts like a normal map - the eldest element is never removed).
+     *
+     * @param eldest the least recently inserted entry in the map, or if
+     *        this is an access-ordered map, the least recently accessed
+     *        entry.  This is the entry that will be removed if this method
+     *        returns <tt>true</tt>.  If the map was empty prior to the
+     *        <tt>put</tt> or <tt>putAll</tt> invocation resulting in this
+     *        invocation, this will be the entry that was just inserted; in
+     *        other words, if the map contains a single entry, the eldest
+     *        entry is also the newest.
+     * @return <tt>true</tt> if the eldest entry should be removed from the
+     *         map; <tt>false</tt> if it should be retained.
+     */
+    protected boolean removeEldestEntry(Map.Entry eldest) {
+        return false;
+    }
+}
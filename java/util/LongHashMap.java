@@ -0,0 +1,418 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+import java.io.*;
+
+/**
+ * A hash table that maps primitive <tt>long</tt> keys to object values.
+ * This class offers the operations of a <tt>Map</tt> without boxing keys
+ * into <tt>Long</tt> objects: <tt>get</tt>, <tt>put</tt> (of an existing
+ * key, or while the table has room) and <tt>remove</tt> allocate nothing.
+ * Any <tt>long</tt> may be used as a key, and <tt>null</tt> may be used as a
+ * value.<p>
+ *
+ * The table is open-addressed: keys and values are stored in two parallel
+ * arrays, with a third array of one byte per slot recording which slots are
+ * in use.  With the default load factor (.5) a mapping therefore costs
+ * about 26 bytes of table space on a 32-bit VM, against roughly 40 bytes
+ * for a <tt>HashMap</tt> of <tt>Long</tt> keys (a 16-byte
+ * <tt>Long</tt>, a 24-byte <tt>HashMap.Entry</tt>, and the bucket
+ * slot), and no per-mapping objects are created for the garbage collector
+ * to trace.<p>
+ *
+ * Like <tt>HashMap</tt>, this class is not synchronized.  If multiple
+ * threads access a <tt>LongHashMap</tt> concurrently, and at least one of
+ * the threads modifies it structurally, it <i>must</i> be synchronized
+ * externally.
+ *
+ * @version 1.1, 10/15/26
+ * @see     HashMap
+ * @see     IntHashMap
+ * @see     LongHashSet
+ * @since   1.4
+ */
+public class LongHashMap extends PrimitiveHashtable {
+    /**
+     * The keys, parallel to <tt>states</tt>.
+     */
+    private transient long[] keys;
+
+    /**
+     * The values, parallel to <tt>states</tt>.
+     */
+    private transient Object[] values;
+
+    private static final long serialVersionUID = 3170824513429581760L;
+
+    /**
+     * Constructs an empty map with the specified initial capacity and load
+     * factor.
+     *
+     * @param  initialCapacity the number of mappings the map can hold
+     *         before it must grow.
+     * @param  loadFactor the fraction of the table that may be occupied.
+     * @exception IllegalArgumentException if the initial capacity is
+     *            negative or the load factor is not between 0 and 1.
+     */
+    public LongHashMap(int initialCapacity, float loadFactor) {
+        super(initialCapacity, loadFactor);
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and the
+     * default load factor (.5).
+     *
+     * @param  initialCapacity the number of mappings the map can hold
+     *         before it must grow.
+     * @exception IllegalArgumentException if the initial capacity is
+     *            negative.
+     */
+    public LongHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs an empty map with the default initial capacity (16) and
+     * load factor (.5).
+     */
+    public LongHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Folds a key into an <tt>int</tt> the same way as
+     * <tt>Long.hashCode</tt>.
+     */
+    private static int hash(long key) {
+        return (int)(key ^ (key >>> 32));
+    }
+
+    void allocate(int capacity) {
+        super.allocate(capacity);
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Returns the slot holding the given key, or -1 if it is absent.
+     */
+    private int index(long key) {
+        byte[] states = this.states;
+        long[] keys = this.keys;
+        int mask = states.length - 1;
+        int i = mix(hash(key)) & mask;
+        byte state;
+        while ((state = states[i]) != FREE) {
+            if (state == FULL && keys[i] == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot holding the given key if it is present; otherwise
+     * returns <tt>-(slot + 1)</tt>, where slot is the first free or removed
+     * slot on the key's probe sequence.
+     */
+    private int insertionIndex(long key) {
+        byte[] states = this.states;
+        long[] keys = this.keys;
+        int mask = states.length - 1;
+        int i = mix(hash(key)) & mask;
+        int firstRemoved = -1;
+        byte state;
+        while ((state = states[i]) != FREE) {
+            if (state == FULL) {
+                if (keys[i] == key)
+                    return i;
+            } else if (firstRemoved < 0) {
+                firstRemoved = i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -((firstRemoved >= 0 ? firstRemoved : i) + 1);
+    }
+
+    /**
+     * Returns the value to which this map maps the specified key.  Returns
+     * <tt>null</tt> if the map contains no mapping for this key, or if the
+     * key is mapped to <tt>null</tt>; use <tt>containsKey</tt> to tell the
+     * two cases apart.
+     *
+     * @param key key whose associated value is to be returned.
+     * @return the value to which this map maps the specified key.
+     */
+    public Object get(long key) {
+        int i = index(key);
+        return (i < 0 ? null : values[i]);
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map contains a mapping for the
+     * specified key.
+     *
+     * @param key key whose presence in this map is to be tested.
+     * @return <tt>true</tt> if this map contains a mapping for the
+     *         specified key.
+     */
+    public boolean containsKey(long key) {
+        return index(key) >= 0;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map maps one or more keys to the
+     * specified value.
+     *
+     * @param value value whose presence in this map is to be tested.
+     * @return <tt>true</tt> if this map maps one or more keys to the
+     *         specified value.
+     */
+    public boolean containsValue(Object value) {
+        byte[] states = this.states;
+        Object[] values = this.values;
+        for (int i = states.length; i-- > 0 ;)
+            if (states[i] == FULL &&
+                (value == null ? values[i] == null : value.equals(values[i])))
+                return true;
+        return false;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for this key, the old
+     * value is replaced.
+     *
+     * @param key key with which the specified value is to be associated.
+     * @param value value to be associated with the specified key.
+     * @return previous value associated with specified key, or
+     *         <tt>null</tt> if there was no mapping for key.
+     */
+    public Object put(long key, Object value) {
+        int i = insertionIndex(key);
+        if (i >= 0) {
+            Object old = values[i];
+            values[i] = value;
+            return old;
+        }
+        i = -i - 1;
+        boolean wasFree = (states[i] == FREE);
+        states[i] = FULL;
+        keys[i] = key;
+        values[i] = value;
+        postInsert(wasFree);
+        return null;
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map.
+     *
+     * @param t mappings to be stored in this map.
+     */
+    public void putAll(LongHashMap t) {
+        byte[] states = t.states;
+        for (int i = states.length; i-- > 0 ;)
+            if (states[i] == FULL)
+                put(t.keys[i], t.values[i]);
+    }
+
+    /**
+     * Removes the mapping for this key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map.
+     * @return previous value associated with specified key, or
+     *         <tt>null</tt> if there was no mapping for key.
+     */
+    public Object remove(long key) {
+        int i = index(key);
+        if (i < 0)
+            return null;
+        Object old = values[i];
+        values[i] = null;  // Drop reference to prevent memory leak
+        removeAt(i);
+        return old;
+    }
+
+    /**
+     * Removes all mappings from this map.
+     */
+    public void clear() {
+        super.clear();
+        Arrays.fill(values, null);
+    }
+
+    /**
+     * Returns the keys contained in this map, in no particular order.  The
+     * returned array is a copy and may be freely modified by the caller.
+     *
+     * @return an array of the keys contained in this map.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        byte[] states = this.states;
+        for (int i = 0, j = 0; i < states.length; i++)
+            if (states[i] == FULL)
+                result[j++] = keys[i];
+        return result;
+    }
+
+    /**
+     * Returns the values contained in this map, in the same order as the
+     * keys returned by <tt>keys</tt> if the map is not modified between
+     * the two calls.
+     *
+     * @return an array of the values contained in this map.
+     */
+    public Object[] values() {
+        Object[] result = new Object[size];
+        byte[] states = this.states;
+        for (int i = 0, j = 0; i < states.length; i++)
+            if (states[i] == FULL)
+                result[j++] = values[i];
+        return result;
+    }
+
+    void rehash(int newCapacity) {
+        byte[] oldStates = states;
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int count = size;
+
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = oldStates.length; i-- > 0 ;) {
+            if (oldStates[i] == FULL) {
+                long key = oldKeys[i];
+                int j = mix(hash(key)) & mask;
+                while (states[j] != FREE)
+                    j = (j + 1) & mask;
+                states[j] = FULL;
+                keys[j] = key;
+                values[j] = oldValues[i];
+            }
+        }
+        size = count;
+        free -= count;
+    }
+
+    /**
+     * Compares the specified object with this map for equality.  Returns
+     * <tt>true</tt> if the given object is also a <tt>LongHashMap</tt> and
+     * the two maps represent the same mappings.
+     *
+     * @param o object to be compared for equality with this map.
+     * @return <tt>true</tt> if the specified object is equal to this map.
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof LongHashMap))
+            return false;
+        LongHashMap t = (LongHashMap) o;
+        if (t.size != size)
+            return false;
+        for (int i = states.length; i-- > 0 ;) {
+            if (states[i] == FULL) {
+                int j = t.index(keys[i]);
+                if (j < 0)
+                    return false;
+                Object value = values[i];
+                if (!(value == null ? t.values[j] == null
+                                    : value.equals(t.values[j])))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this map, defined as the sum of
+     * <tt>(int)(key ^ (key >>> 32)) ^ value.hashCode()</tt> over its
+     * mappings, which matches the hash code of an equivalent <tt>Map</tt>
+     * of <tt>Long</tt> keys.
+     *
+     * @return the hash code value for this map.
+     */
+    public int hashCode() {
+        int h = 0;
+        for (int i = states.length; i-- > 0 ;)
+            if (states[i] == FULL)
+                h += hash(keys[i]) ^
+                     (values[i] == null ? 0 : values[i].hashCode());
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this map, in the same format as
+     * <tt>AbstractMap.toString</tt>.
+     *
+     * @return a string representation of this map.
+     */
+    public String toString() {
+        StringBuffer buf = new StringBuffer();
+        buf.append("{");
+        boolean first = true;
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == FULL) {
+                if (!first)
+                    buf.append(", ");
+                first = false;
+                buf.append(keys[i]);
+                buf.append("=");
+                buf.append(values[i] == this ? "(this Map)" : values[i]);
+            }
+        }
+        buf.append("}");
+        return buf.toString();
+    }
+
+    /**
+     * Returns a shallow copy of this map: the values themselves are not
+     * cloned.
+     *
+     * @return a shallow copy of this map.
+     */
+    public Object clone() {
+        LongHashMap result = (LongHashMap)super.clone();
+        result.keys = (long[])keys.clone();
+        result.values = (Object[])values.clone();
+        return result;
+    }
+
+    /**
+     * Save the state of the <tt>LongHashMap</tt> instance to a stream (i.e.,
+     * serialize it).
+     *
+     * @serialData The number of mappings (<tt>int</tt>) is emitted,
+     *             followed by the key (<tt>long</tt>) and value (Object) of
+     *             each mapping, in no particular order.
+     */
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == FULL) {
+                s.writeLong(keys[i]);
+                s.writeObject(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Reconstitute the <tt>LongHashMap</tt> instance from a stream (i.e.,
+     * deserialize it).
+     */
+    private void readObject(ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int count = s.readInt();
+        allocate(tableSizeFor(count));
+        for (int i = 0; i < count; i++) {
+            long key = s.readLong();
+            put(key, s.readObject());
+        }
+    }
+}
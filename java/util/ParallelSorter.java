@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * The driver of the <tt>Arrays.parallelSort</tt> methods.  A range of an
+ * array is cut into one run per available processor, the runs are sorted
+ * concurrently, and adjacent runs are then merged pairwise, each round of
+ * merges again running concurrently, until a single run remains.
+ * Subclasses supply the sequential sort and the merge for one array type.
+ * <p>
+ *
+ * The work is handed to a shared pool of daemon threads, which grows to
+ * one thread per processor and shrinks again when idle.  The calling
+ * thread always does one share of each round itself, and runs any share
+ * the pool cannot take at once, so concurrent parallel sorts degrade to
+ * sequential ones rather than queueing behind each other.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Arrays
+ * @since   1.4
+ */
+abstract class ParallelSorter {
+    /**
+     * The smallest run worth sorting in a thread of its own.  Ranges
+     * shorter than twice this are sorted sequentially.
+     */
+    static final int MIN_RUN = 1 << 13;
+
+    /**
+     * Time in milliseconds that an idle pool thread waits for more work.
+     */
+    private static final long KEEP_ALIVE = 60 * 1000;
+
+    /** The pool shared by all parallel sorts, created on first use */
+    private static ThreadPool pool;
+
+    /**
+     * The index of the first element being sorted; merge scratch space is
+     * indexed relative to it.
+     */
+    int base;
+
+    /**
+     * Sorts a[from .. to-1] sequentially.
+     */
+    abstract void sortRange(int from, int to);
+
+    /**
+     * Allocates n elements of scratch space for merging.
+     */
+    abstract void allocate(int n);
+
+    /**
+     * Merges the sorted runs a[lo .. mid-1] and a[mid .. hi-1] into
+     * a[lo .. hi-1], stably, using scratch[lo-base ..] for the low run.
+     */
+    abstract void merge(int lo, int mid, int hi);
+
+    /**
+     * Sorts a[from .. to-1].
+     */
+    final void sort(int from, int to) {
+        int n = to - from;
+        int runs = Math.min(Runtime.getRuntime().availableProcessors(),
+                            n / MIN_RUN);
+        if (runs <= 1) {
+            sortRange(from, to);
+            return;
+        }
+
+        final int[] bounds = new int[runs + 1];
+        for (int i = 0; i <= runs; i++)
+            bounds[i] = from + (int)((long)n * i / runs);
+
+        Runnable[] tasks = new Runnable[runs];
+        for (int i = 0; i < runs; i++) {
+            final int lo = bounds[i], hi = bounds[i+1];
+            tasks[i] = new Runnable() {
+                public void run() {
+                    sortRange(lo, hi);
+                }
+            };
+        }
+        invokeAll(tasks, runs);
+
+        base = from;
+        allocate(n);
+        for (int width = 1; width < runs; width *= 2) {
+            int count = 0;
+            for (int i = 0; i + width < runs; i += 2 * width) {
+                final int lo = bounds[i], mid = bounds[i + width];
+                final int hi = bounds[Math.min(i + 2 * width, runs)];
+                tasks[count++] = new Runnable() {
+                    public void run() {
+                        merge(lo, mid, hi);
+                    }
+                };
+            }
+            invokeAll(tasks, count);
+        }
+    }
+
+    /**
+     * Runs tasks[0 .. count-1] concurrently and waits for all of them.  If
+     * any task throws an exception, it is rethrown once all have finished.
+     */
+    private static void invokeAll(Runnable[] tasks, int count) {
+        ThreadPool p = pool();
+        FutureTask[] futures = new FutureTask[count];
+        for (int i = 1; i < count; i++) {
+            futures[i] = new FutureTask(tasks[i], null);
+            p.execute(futures[i]);
+        }
+        Throwable failure = null;
+        try {
+            tasks[0].run();
+        } catch (RuntimeException e) {
+            failure = e;
+        } catch (Error e) {
+            failure = e;
+        }
+
+        boolean interrupted = false;
+        for (int i = 1; i < count; i++) {
+            for (;;) {
+                try {
+                    futures[i].get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;    // Keep waiting; reassert below
+                } catch (ExecutionException e) {
+                    if (failure == null)
+                        failure = e.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (failure instanceof Error)
+            throw (Error)failure;
+        if (failure != null)
+            throw (RuntimeException)failure;
+    }
+
+    /**
+     * Returns the shared pool, creating it if necessary.  Work the pool
+     * has no thread for is run by the submitting thread.
+     */
+    private static synchronized ThreadPool pool() {
+        if (pool == null) {
+            int nThreads = Runtime.getRuntime().availableProcessors();
+            pool = new ThreadPool(0, nThreads, KEEP_ALIVE, 0, null,
+                                  "ParallelSort-", true);
+            pool.setRejectedExecutionHandler(
+                new ThreadPool.CallerRunsPolicy());
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+import java.util.Date;
+
+/**
+ * A facility for threads to schedule tasks for future execution by a pool
+ * of background threads.  A <tt>PooledTimer</tt> accepts the same
+ * {@link TimerTask} objects and offers the same scheduling methods as
+ * {@link Timer}, but differs from it in three respects:
+ *
+ * <ul>
+ * <li>Tasks that come due are executed by a fixed number of worker
+ *     threads, so a task that takes excessive time to complete delays only
+ *     the worker running it, not every other task scheduled on the timer.
+ *     A repeating task is never run by two workers at once: its next
+ *     execution is scheduled only once the current one completes.
+ *
+ * <li>Cancelling a task with {@link TimerTask#cancel} removes it from the
+ *     timer immediately, rather than leaving it in the timer's queue until
+ *     its execution time arrives.  Applications that schedule many
+ *     timeouts and cancel most of them therefore do not accumulate dead
+ *     tasks.
+ *
+ * <li>The timer may optionally be created in <i>hashed wheel</i> mode, in
+ *     which execution times are rounded up to a multiple of a fixed
+ *     <i>tick</i> and tasks are kept in a circular array of buckets, one
+ *     per tick, each with its own lock.  Scheduling and cancelling a task
+ *     then cost O(1) and rarely contend, at the price of the tick's
+ *     granularity.  This mode suits large numbers of short timeouts, such
+ *     as request or connection deadlines, that usually are cancelled before
+ *     they fire.
+ * </ul>
+ *
+ * <p>In the default mode, tasks are held in a binary heap ordered on their
+ * execution time, so the cost to schedule or cancel a task is O(log n),
+ * where n is the number of concurrently scheduled tasks.
+ *
+ * <p>A task that throws an unchecked exception does not terminate the
+ * worker that runs it; the exception is passed to the
+ * <tt>uncaughtException</tt> method of the worker's thread group, and a
+ * repeating task continues to be scheduled.
+ *
+ * <p>Unlike <tt>Timer</tt>, a <tt>PooledTimer</tt> keeps its threads until
+ * its <tt>cancel</tt> method is invoked.  Applications that do not cancel
+ * the timer explicitly should create it with daemon threads.
+ *
+ * <p>This class is thread-safe: multiple threads can share a single
+ * <tt>PooledTimer</tt> object without the need for external
+ * synchronization.  This class does <i>not</i> offer real-time guarantees.
+ *
+ * @version 1.1, 10/15/26
+ * @see     TimerTask
+ * @see     Timer
+ * @since   1.4
+ */
+public class PooledTimer {
+    /**
+     * The scheduled tasks, kept in a heap or a hashed wheel.  The store's
+     * dispatcher thread moves each task to the ready queue when it comes
+     * due.
+     */
+    private final TaskStore store;
+
+    /**
+     * Tasks that have come due and await a worker thread.
+     */
+    private final ReadyQueue ready = new ReadyQueue();
+
+    /**
+     * The thread that moves due tasks from the store to the ready queue.
+     */
+    private final Thread dispatcher;
+
+    /**
+     * The threads that execute tasks.
+     */
+    private final Thread[] workers;
+
+    /**
+     * Creates a new timer with the given number of worker threads, which do
+     * <i>not</i> run as daemons.
+     *
+     * @param nThreads the number of threads that execute tasks.
+     * @throws IllegalArgumentException if <tt>nThreads</tt> is not
+     *         positive.
+     */
+    public PooledTimer(int nThreads) {
+        this(nThreads, false);
+    }
+
+    /**
+     * Creates a new timer with the given number of worker threads, which
+     * may be specified to run as daemons.
+     *
+     * @param nThreads the number of threads that execute tasks.
+     * @param isDaemon true if the timer's threads should run as daemons.
+     * @throws IllegalArgumentException if <tt>nThreads</tt> is not
+     *         positive.
+     */
+    public PooledTimer(int nThreads, boolean isDaemon) {
+        this(nThreads, isDaemon, new TaskHeap());
+    }
+
+    /**
+     * Creates a new timer in hashed wheel mode.  Execution times are
+     * rounded up to the next multiple of <tt>tickMillis</tt>, and tasks are
+     * kept in a wheel of <tt>wheelSize</tt> buckets.  The wheel should be
+     * large enough that most tasks are scheduled less than one revolution
+     * (<tt>tickMillis * wheelSize</tt> milliseconds) ahead; tasks scheduled
+     * further out are examined once per revolution until they come due.
+     *
+     * @param nThreads   the number of threads that execute tasks.
+     * @param isDaemon   true if the timer's threads should run as daemons.
+     * @param tickMillis the granularity of the wheel, in milliseconds.
+     * @param wheelSize  the number of buckets in the wheel, which is
+     *                   rounded up to a power of two.
+     * @throws IllegalArgumentException if any of <tt>nThreads</tt>,
+     *         <tt>tickMillis</tt> or <tt>wheelSize</tt> is not positive.
+     */
+    public PooledTimer(int nThreads, boolean isDaemon, long tickMillis,
+                       int wheelSize) {
+        this(nThreads, isDaemon, new TimerWheel(tickMillis, wheelSize));
+    }
+
+    private PooledTimer(int nThreads, boolean isDaemon, TaskStore store) {
+        if (nThreads <= 0)
+            throw new IllegalArgumentException("Non-positive thread count.");
+        this.store = store;
+        dispatcher = new Thread(new Runnable() {
+            public void run() {
+                dispatch();
+            }
+        });
+        dispatcher.setDaemon(isDaemon);
+        workers = new Thread[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            workers[i] = new Thread(new Runnable() {
+                public void run() {
+                    work();
+                }
+            });
+            workers[i].setDaemon(isDaemon);
+        }
+        dispatcher.start();
+        for (int i = 0; i < nThreads; i++)
+            workers[i].start();
+    }
+
+    /**
+     * Schedules the specified task for execution after the specified delay.
+     *
+     * @param task  task to be scheduled.
+     * @param delay delay in milliseconds before task is to be executed.
+     * @throws IllegalArgumentException if <tt>delay</tt> is negative, or
+     *         <tt>delay + System.currentTimeMillis()</tt> is negative.
+     * @throws IllegalStateException if task was already scheduled or
+     *         cancelled, or timer was cancelled.
+     * @see Timer#schedule(TimerTask, long)
+     */
+    public void schedule(TimerTask task, long delay) {
+        if (delay < 0)
+            throw new IllegalArgumentException("Negative delay.");
+        sched(task, System.currentTimeMillis()+delay, 0);
+    }
+
+    /**
+     * Schedules the specified task for execution at the specified time.  If
+     * the time is in the past, the task is scheduled for immediate execution.
+     *
+     * @param task task to be scheduled.
+     * @param time time at which task is to be executed.
+     * @throws IllegalArgumentException if <tt>time.getTime()</tt> is negative.
+     * @throws IllegalStateException if task was already scheduled or
+     *         cancelled, or timer was cancelled.
+     * @see Timer#schedule(TimerTask, Date)
+     */
+    public void schedule(TimerTask task, Date time) {
+        sched(task, time.getTime(), 0);
+    }
+
+    /**
+     * Schedules the specified task for repeated <i>fixed-delay execution</i>,
+     * beginning after the specified delay.  Each execution is scheduled
+     * relative to the time at which the previous one came due.
+     *
+     * @param task   task to be scheduled.
+     * @param delay  delay in milliseconds before task is to be executed.
+     * @param period time in milliseconds between successive task executions.
+     * @throws IllegalArgumentException if <tt>delay</tt> is negative, or
+     *         <tt>delay + System.currentTimeMillis()</tt> is negative.
+     * @throws IllegalStateException if task was already scheduled or
+     *         cancelled, or timer was cancelled.
+     * @see Timer#schedule(TimerTask, long, long)
+     */
+    public void schedule(TimerTask task, long delay, long period) {
+        if (delay < 0)
+            throw new IllegalArgumentException("Negative delay.");
+        if (period <= 0)
+            throw new IllegalArgumentException("Non-positive period.");
+        sched(task, System.currentTimeMillis()+delay, -period);
+    }
+
+    /**
+     * Schedules the specified task for repeated <i>fixed-delay execution</i>,
+     * beginning at the specified time.
+     *
+     * @param task   task to be scheduled.
+     * @param firstTime First time at which task is to be executed.
+     * @param period time in milliseconds between successive task executions.
+     * @throws IllegalArgumentException if <tt>time.getTime()</tt> is negative.
+     * @throws IllegalStateException if task was already scheduled or
+     *         cancelled, or timer was cancelled.
+     * @see Timer#schedule(TimerTask, Date, long)
+     */
+    public void schedule(TimerTask task, Date firstTime, long period) {
+        if (period <= 0)
+            throw new IllegalArgumentException("Non-positive period.");
+        sched(task, firstTime.getTime(), -period);
+    }
+
+    /**
+     * Schedules the specified task for repeated <i>fixed-rate execution</i>,
+     * beginning after the specified delay.  Each execution is scheduled
+     * relative to the scheduled execution time of the initial execution.
+     *
+     * @param task   task to be scheduled.
+     * @param delay  delay in milliseconds before task is to be executed.
+     * @param period time in milliseconds between successive task executions.
+     * @throws IllegalArgumentException if <tt>delay</tt> is negative, or
+     *         <tt>delay + System.currentTimeMillis()</tt> is negative.
+     * @throws IllegalStateException if task was already scheduled or
+     *         cancelled, or timer was cancelled.
+     * @see Timer#scheduleAtFixedRate(TimerTask, long, long)
+     */
+    public void scheduleAtFixedRate(TimerTask task, long delay, long period) {
+        if (delay < 0)
+            throw new IllegalArgumentException("Negative delay.");
+        if (period <= 0)
+            throw new IllegalArgumentException("Non-positive period.");
+        sched(task, System.currentTimeMillis()+delay, period);
+    }
+
+    /**
+     * Schedules the specified task for repeated <i>fixed-rate execution</i>,
+     * beginning at the specified time.
+     *
+     * @param task   task to be scheduled.
+     * @param firstTime First time at which task is to be executed.
+     * @param period time in milliseconds between successive task executions.
+     * @throws IllegalArgumentException if <tt>time.getTime()</tt> is negative.
+     * @throws IllegalStateException if task was already scheduled or
+     *         cancelled, or timer was cancelled.
+     * @see Timer#scheduleAtFixedRate(TimerTask, Date, long)
+     */
+    public void scheduleAtFixedRate(TimerTask task, Date firstTime,
+                                    long period) {
+        if (period <= 0)
+            throw new IllegalArgumentException("Non-positive period.");
+        sched(task, firstTime.getTime(), period);
+    }
+
+    /**
+     * Schedule the specifed timer task for execution at the specified
+     * time with the specified period, in milliseconds, as Timer.sched does.
+     */
+    private void sched(TimerTask task, long time, long period) {
+        if (time < 0)
+            throw new IllegalArgumentException("Illegal execution time.");
+        if (store.cancelled)
+            throw new IllegalStateException("Timer already cancelled.");
+
+        synchronized(task.lock) {
+            if (task.state != TimerTask.VIRGIN)
+                throw new IllegalStateException(
+                    "Task already scheduled or cancelled");
+            task.nextExecutionTime = time;
+            task.period = period;
+            task.state = TimerTask.SCHEDULED;
+        }
+        store.add(task, ready);
+    }
+
+    /**
+     * Terminates this timer, discarding any currently scheduled tasks.
+     * Does not interfere with currently executing tasks.  Once a timer has
+     * been terminated, its threads terminate gracefully as they finish the
+     * tasks they are running, and no more tasks may be scheduled on it.
+     *
+     * <p>This method may be called repeatedly; the second and subsequent
+     * calls have no effect.
+     */
+    public void cancel() {
+        store.cancel();
+        ready.close();
+    }
+
+    /**
+     * The dispatcher thread's main loop.
+     */
+    private void dispatch() {
+        try {
+            store.dispatch(ready);
+        } finally {
+            // Someone killed this Thread, behave as if timer cancelled
+            cancel();
+        }
+    }
+
+    /**
+     * The worker threads' main loop: runs each task that comes due and, if
+     * it repeats, returns it to the store for its next execution.
+     */
+    private void work() {
+        TimerTask task;
+        while ((task = ready.take()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Thread t = Thread.currentThread();
+                t.getThreadGroup().uncaughtException(t, e);
+            }
+            if (task.period != 0)
+                store.add(task, ready);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * Skeletal implementation of an open-addressed hash table whose keys are
+ * primitive values held in a parallel array maintained by the subclass.
+ * This class tracks the state of each slot (free, full or removed), the
+ * number of entries, and the load-factor bookkeeping that decides when the
+ * table must be rebuilt.  Subclasses supply the key (and value) arrays, the
+ * probing for a particular key, and the rebuild itself.<p>
+ *
+ * Collisions are resolved by linear probing over a table whose length is
+ * always a power of two.  Removed slots are left as tombstones so that
+ * probe sequences for other keys remain intact; they are reclaimed when
+ * the table is rebuilt.
+ *
+ * @version 1.1, 10/15/26
+ * @see     IntHashMap
+ * @see     LongHashMap
+ * @see     IntHashSet
+ * @see     LongHashSet
+ * @since   1.4
+ */
+abstract class PrimitiveHashtable implements Cloneable, java.io.Serializable {
+    /**
+     * Slot state: never used since the table was last rebuilt.
+     */
+    static final byte FREE = 0;
+
+    /**
+     * Slot state: holds a live entry.
+     */
+    static final byte FULL = 1;
+
+    /**
+     * Slot state: held an entry that has since been removed.
+     */
+    static final byte REMOVED = 2;
+
+    /**
+     * The default initial capacity.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * The default load factor.  Open addressing degrades much faster than
+     * chaining as the table fills, so this is lower than the .75 used by
+     * <tt>HashMap</tt>.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    /**
+     * The largest table length, which must be a power of two.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The state of each slot, chosen from the constants above.
+     */
+    transient byte[] states;
+
+    /**
+     * The number of live entries.
+     */
+    transient int size;
+
+    /**
+     * The number of FREE slots.  The table is rebuilt when this drops to
+     * the point that the load factor would be exceeded.
+     */
+    transient int free;
+
+    /**
+     * The table is rebuilt when the number of slots that are not FREE
+     * exceeds this threshold.
+     */
+    transient int threshold;
+
+    /**
+     * The load factor of the table.
+     *
+     * @serial
+     */
+    final float loadFactor;
+
+    /**
+     * Constructs an empty table with the specified initial capacity and
+     * load factor.
+     *
+     * @exception IllegalArgumentException if the initial capacity is
+     *            negative or the load factor is not in the range (0, 1).
+     */
+    PrimitiveHashtable(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: "+
+                                               initialCapacity);
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("Illegal Load factor: "+
+                                               loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    /**
+     * Returns the smallest power-of-two table length that can hold the
+     * given number of entries without exceeding the load factor.
+     */
+    final int tableSizeFor(int entries) {
+        int needed = (int)(entries / loadFactor) + 1;
+        int capacity = 2;
+        while (capacity < needed && capacity < MAXIMUM_CAPACITY)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    /**
+     * Allocates fresh storage of the given length, discarding any existing
+     * entries.  Subclasses extend this to allocate their parallel arrays.
+     */
+    void allocate(int capacity) {
+        states = new byte[capacity];
+        size = 0;
+        free = capacity;
+        threshold = Math.min(capacity - 1, (int)(capacity * loadFactor));
+    }
+
+    /**
+     * Rebuilds the table with the given length, reinserting every live
+     * entry.
+     */
+    abstract void rehash(int newCapacity);
+
+    /**
+     * Scrambles a hash code so that keys differing only in their high bits
+     * still spread across a power-of-two table.
+     */
+    static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Records that a slot has been filled by an insertion, rebuilding the
+     * table if this takes it past the load factor.  A table choked with
+     * tombstones is rebuilt at its current size; a full one is doubled.
+     *
+     * @param wasFree whether the slot that was filled had been FREE rather
+     *        than REMOVED.
+     */
+    final void postInsert(boolean wasFree) {
+        size++;
+        if (wasFree)
+            free--;
+        if (states.length - free > threshold) {
+            int capacity = states.length;
+            if (size > threshold / 2 && capacity < MAXIMUM_CAPACITY)
+                capacity <<= 1;
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * Marks the slot at the given index removed.
+     */
+    final void removeAt(int index) {
+        states[index] = REMOVED;
+        size--;
+    }
+
+    /**
+     * Returns the number of entries in this table.
+     *
+     * @return the number of entries in this table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this table contains no entries.
+     *
+     * @return <tt>true</tt> if this table contains no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all entries from this table.  The table keeps its current
+     * capacity.
+     */
+    public void clear() {
+        Arrays.fill(states, FREE);
+        size = 0;
+        free = states.length;
+    }
+
+    /**
+     * Shrinks the table to the smallest capacity that holds its current
+     * entries within the load factor.
+     */
+    public void trimToSize() {
+        int capacity = tableSizeFor(size);
+        if (capacity < states.length)
+            rehash(capacity);
+    }
+
+    /**
+     * Returns a shallow copy of this table.  Subclasses clone their own
+     * arrays.
+     */
+    public Object clone() {
+        try {
+            PrimitiveHashtable t = (PrimitiveHashtable)super.clone();
+            t.states = (byte[])states.clone();
+            return t;
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError();
+        }
+    }
+}
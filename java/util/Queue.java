@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A collection designed for holding elements prior to processing.  Besides
+ * basic {@link Collection} operations, queues provide additional insertion,
+ * extraction, and inspection operations.  Each of these methods exists in
+ * two forms: one throws an exception if the operation fails, the other
+ * returns a special value (either <tt>null</tt> or <tt>false</tt>,
+ * depending on the operation).<p>
+ *
+ * <table BORDER CELLPADDING=3 CELLSPACING=1>
+ *  <tr>
+ *    <td></td>
+ *    <td ALIGN=CENTER><em>Throws exception</em></td>
+ *    <td ALIGN=CENTER><em>Returns special value</em></td>
+ *  </tr>
+ *  <tr>
+ *    <td><b>Insert</b></td>
+ *    <td><tt>add(o)</tt></td>
+ *    <td><tt>offer(o)</tt></td>
+ *  </tr>
+ *  <tr>
+ *    <td><b>Remove</b></td>
+ *    <td><tt>remove()</tt></td>
+ *    <td><tt>poll()</tt></td>
+ *  </tr>
+ *  <tr>
+ *    <td><b>Examine</b></td>
+ *    <td><tt>element()</tt></td>
+ *    <td><tt>peek()</tt></td>
+ *  </tr>
+ * </table><p>
+ *
+ * The queues in this package order elements in a FIFO (first-in-first-out)
+ * manner.  Queue implementations generally do not allow insertion of
+ * <tt>null</tt> elements, since <tt>null</tt> is used as a special return
+ * value by the <tt>poll</tt> method to indicate that the queue contains no
+ * elements.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Collection
+ * @see     BlockingQueue
+ * @see     ConcurrentLinkedQueue
+ * @since   1.4
+ */
+public interface Queue extends Collection {
+    /**
+     * Inserts the specified element into this queue, if possible.  When
+     * using queues that may impose insertion restrictions (for example
+     * capacity bounds), method <tt>offer</tt> is generally preferable to
+     * method <tt>Collection.add</tt>, which can fail to insert an element
+     * only by throwing an exception.
+     *
+     * @param o the element to insert.
+     * @return <tt>true</tt> if it was possible to add the element to this
+     *         queue, else <tt>false</tt>.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt> and this queue does not permit null elements.
+     */
+    boolean offer(Object o);
+
+    /**
+     * Retrieves and removes the head of this queue, or <tt>null</tt> if
+     * this queue is empty.
+     *
+     * @return the head of this queue, or <tt>null</tt> if this queue is
+     *         empty.
+     */
+    Object poll();
+
+    /**
+     * Retrieves and removes the head of this queue.  This method differs
+     * from the <tt>poll</tt> method in that it throws an exception if this
+     * queue is empty.
+     *
+     * @return the head of this queue.
+     * @throws NoSuchElementException if this queue is empty.
+     */
+    Object remove();
+
+    /**
+     * Retrieves, but does not remove, the head of this queue, returning
+     * <tt>null</tt> if this queue is empty.
+     *
+     * @return the head of this queue, or <tt>null</tt> if this queue is
+     *         empty.
+     */
+    Object peek();
+
+    /**
+     * Retrieves, but does not remove, the head of this queue.  This method
+     * differs from the <tt>peek</tt> method only in that it throws an
+     * exception if this queue is empty.
+     *
+     * @return the head of this queue.
+     * @throws NoSuchElementException if this queue is empty.
+     */
+    Object element();
+}
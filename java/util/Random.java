@@ -41,11 +41,11 @@ class Random implements java.io.Serializable {
     /**
      * The internal state associated with this pseudorandom number generator.
      * (The specs for the methods in this class describe the ongoing
-     * computation of this value.)
-     *
-     * @serial
+     * computation of this value.)  It is held in an <tt>AtomicLong</tt> so
+     * that <tt>next</tt> can advance it without locking this generator;
+     * the serialized form still records it as a plain <tt>long</tt>.
      */
-    private long seed;
+    private AtomicLong seed;
 
     private final static long multiplier = 0x5DEECE66DL;
     private final static long addend = 0xBL;
@@ -73,6 +73,7 @@ class Random implements java.io.Serializable {
      * @see     java.util.Random#setSeed(long)
      */
     public Random(long seed) {
+        this.seed = new AtomicLong(0L);
         setSeed(seed);
     }
 
@@ -96,7 +97,7 @@ class Random implements java.io.Serializable {
      * @param   seed   the initial seed.
      */
     synchronized public void setSeed(long seed) {
-        this.seed = (seed ^ multiplier) & mask;
+        this.seed.set((seed ^ multiplier) & mask);
     	haveNextNextGaussian = false;
     }
 
@@ -118,15 +119,25 @@ class Random implements java.io.Serializable {
      * This is a linear congruential pseudorandom number generator, as 
      * defined by D. H. Lehmer and described by Donald E. Knuth in <i>The 
      * Art of Computer Programming,</i> Volume 2: <i>Seminumerical 
-     * Algorithms</i>, section 3.2.1.
+     * Algorithms</i>, section 3.2.1.<p>
+     *
+     * This implementation does not lock the generator: it computes the
+     * next seed from the current one and installs it with
+     * <tt>compareAndSet</tt>, retrying if another thread advanced the seed
+     * in the meantime.  Each call still
+     * consumes exactly one step of the sequence.
      *
      * @param   bits random bits
      * @return  the next pseudorandom value from this random number generator's sequence.
      * @since   JDK1.1
      */
-    synchronized protected int next(int bits) {
-        long nextseed = (seed * multiplier + addend) & mask;
-        seed = nextseed;
+    protected int next(int bits) {
+        long oldseed, nextseed;
+        AtomicLong seed = this.seed;
+        do {
+            oldseed = seed.get();
+            nextseed = (oldseed * multiplier + addend) & mask;
+        } while (!seed.compareAndSet(oldseed, nextseed));
         return (int)(nextseed >>> (48 - bits));
     }
 
@@ -430,4 +441,52 @@ class Random implements java.io.Serializable {
     	    return v1 * multiplier;
         }
     }
-}     
+
+    /**
+     * Serializable fields for Random.
+     *
+     * @serialField    seed long
+     *                 seed for random computations
+     * @serialField    nextNextGaussian double
+     *                 next Gaussian to be used
+     * @serialField    haveNextNextGaussian boolean
+     *                 nextNextGaussian is valid
+     */
+    private static final java.io.ObjectStreamField[] serialPersistentFields = {
+        new java.io.ObjectStreamField("seed", Long.TYPE),
+        new java.io.ObjectStreamField("nextNextGaussian", Double.TYPE),
+        new java.io.ObjectStreamField("haveNextNextGaussian", Boolean.TYPE)
+    };
+
+    /**
+     * Reconstitute the <tt>Random</tt> instance from a stream (that is,
+     * deserialize it).  The seed is read as a <tt>long</tt> and placed in
+     * a new <tt>AtomicLong</tt>.
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+
+        java.io.ObjectInputStream.GetField fields = s.readFields();
+        long seedVal = fields.get("seed", -1L);
+        if (seedVal < 0)
+            throw new java.io.StreamCorruptedException(
+                "Random: invalid seed");
+        seed = new AtomicLong(seedVal);
+        nextNextGaussian = fields.get("nextNextGaussian", 0.0);
+        haveNextNextGaussian = fields.get("haveNextNextGaussian", false);
+    }
+
+    /**
+     * Save the <tt>Random</tt> instance to a stream, writing the seed as
+     * a plain <tt>long</tt> for compatibility with earlier releases.
+     */
+    synchronized private void writeObject(java.io.ObjectOutputStream s)
+        throws java.io.IOException {
+
+        java.io.ObjectOutputStream.PutField fields = s.putFields();
+        fields.put("seed", seed.get());
+        fields.put("nextNextGaussian", nextNextGaussian);
+        fields.put("haveNextNextGaussian", haveNextNextGaussian);
+        s.writeFields();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A first-in, first-out queue of PooledTimer tasks that have come due,
+ * from which the worker threads take their work.
+ */
+class ReadyQueue {
+    private TimerTask[] items = new TimerTask[16];
+    private int head = 0;
+    private int count = 0;
+    private boolean closed = false;
+
+    synchronized void put(TimerTask task) {
+        if (closed)
+            return;
+        if (count == items.length) {
+            TimerTask[] newItems = new TimerTask[2*count];
+            for (int i = 0; i < count; i++)
+                newItems[i] = items[(head + i) % count];
+            items = newItems;
+            head = 0;
+        }
+        items[(head + count++) % items.length] = task;
+        notify();
+    }
+
+    /**
+     * Returns the next task to run, waiting if necessary, or null once the
+     * queue has been closed.
+     */
+    synchronized TimerTask take() {
+        while (count == 0 && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+            }
+        }
+        if (closed)
+            return null;
+        TimerTask task = items[head];
+        items[head] = null;
+        head = (head + 1) % items.length;
+        count--;
+        return task;
+    }
+
+    /**
+     * Discards the waiting tasks and releases the worker threads.
+     */
+    synchronized void close() {
+        closed = true;
+        for (int i = 0; i < items.length; i++)
+            items[i] = null;
+        count = 0;
+        notifyAll();
+    }
+}
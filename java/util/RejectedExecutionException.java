@@ -0,0 +1,34 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * Exception thrown by an {@link Executor} when a task cannot be accepted
+ * for execution, for example because the executor has been shut down or
+ * its work queue and threads are saturated.
+ *
+ * @version 1.1, 10/15/26
+ * @see     RejectedExecutionHandler
+ * @since   1.4
+ */
+public class RejectedExecutionException extends RuntimeException {
+    /**
+     * Constructs a <tt>RejectedExecutionException</tt> with no detail
+     * message.
+     */
+    public RejectedExecutionException() {
+    }
+
+    /**
+     * Constructs a <tt>RejectedExecutionException</tt> with the specified
+     * detail message.
+     *
+     * @param message the detail message.
+     */
+    public RejectedExecutionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A handler for tasks that cannot be executed by a {@link ThreadPool}.
+ * Standard policies are provided as the nested classes of
+ * <tt>ThreadPool</tt>.
+ *
+ * @version 1.1, 10/15/26
+ * @see     ThreadPool.AbortPolicy
+ * @see     ThreadPool.CallerRunsPolicy
+ * @see     ThreadPool.DiscardPolicy
+ * @see     ThreadPool.DiscardOldestPolicy
+ * @since   1.4
+ */
+public interface RejectedExecutionHandler {
+    /**
+     * Method that may be invoked by a <tt>ThreadPool</tt> when
+     * <tt>execute</tt> cannot accept a task.  This may occur when no more
+     * threads or queue slots are available because their bounds would be
+     * exceeded, or upon shutdown of the pool.  In the absence of other
+     * alternatives, the method may throw an unchecked
+     * <tt>RejectedExecutionException</tt>, which will be propagated to the
+     * caller of <tt>execute</tt>.
+     *
+     * @param task the task requested to be executed.
+     * @param pool the pool attempting to execute this task.
+     * @exception RejectedExecutionException if there is no remedy.
+     */
+    void rejectedExecution(Runnable task, ThreadPool pool);
+}
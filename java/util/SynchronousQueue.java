@@ -0,0 +1,443 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A {@linkplain BlockingQueue blocking queue} in which each <tt>put</tt>
+ * must wait for a <tt>take</tt>, and vice versa.  A synchronous queue does
+ * not have any internal capacity, not even a capacity of one.  You cannot
+ * <tt>peek</tt> at a synchronous queue because an element is only present
+ * when you try to take it; you cannot add an element (using any method)
+ * unless another thread is trying to remove it; you cannot iterate as
+ * there is nothing to iterate.  For purposes of other
+ * <tt>Collection</tt> methods (for example <tt>contains</tt>), a
+ * <tt>SynchronousQueue</tt> acts as an empty collection.  This queue does
+ * not permit <tt>null</tt> elements.<p>
+ *
+ * Synchronous queues are similar to rendezvous channels used in CSP and
+ * Ada.  They are well suited for handoff designs, in which an object
+ * running in one thread must sync up with an object running in another
+ * thread in order to hand it some information, event, or task.  A
+ * {@link ThreadPool} with a work queue capacity of zero uses one.<p>
+ *
+ * Waiting producers and consumers are each served in FIFO order.
+ *
+ * @version 1.1, 10/15/26
+ * @see     BlockingQueue
+ * @see     ThreadPool
+ * @since   1.4
+ */
+public class SynchronousQueue extends AbstractQueue
+                              implements BlockingQueue, java.io.Serializable {
+    private static final long serialVersionUID = -3223113410248163686L;
+
+    /*
+     * Each thread that has to wait gets a Node and appends it to the list
+     * of waiting putters or waiting takers; at any moment at most one of
+     * the two lists is non-empty.  A thread arriving from the other side
+     * removes the first node and completes the transfer while holding the
+     * node's monitor, which is also what the waiter waits on, so only the
+     * thread concerned is woken.  A waiter that times out or is
+     * interrupted marks its node cancelled under the same monitor; the
+     * node is then skipped by the other side and unlinked by its owner.
+     * The lists are guarded by this queue's monitor, which is acquired
+     * before any node's.
+     */
+
+    /**
+     * The record of one waiting thread.
+     */
+    private static final class Node {
+        /** Node is waiting to be matched */
+        static final int WAITING = 0;
+        /** Node has been matched with a thread from the other side */
+        static final int MATCHED = 1;
+        /** Node's owner gave up waiting */
+        static final int CANCELLED = -1;
+
+        /** The item being transferred; guarded by this node's monitor */
+        Object item;
+
+        /** The state of the node; guarded by this node's monitor */
+        int state = WAITING;
+
+        Node(Object item) {
+            this.item = item;
+        }
+
+        /**
+         * Hands x to the taker waiting on this node.  Returns false if the
+         * taker has already given up.
+         */
+        synchronized boolean fill(Object x) {
+            if (state != WAITING)
+                return false;
+            item = x;
+            state = MATCHED;
+            notify();
+            return true;
+        }
+
+        /**
+         * Takes the item from the putter waiting on this node.  Returns
+         * null if the putter has already given up.
+         */
+        synchronized Object extract() {
+            if (state != WAITING)
+                return null;
+            Object x = item;
+            item = null;
+            state = MATCHED;
+            notify();
+            return x;
+        }
+
+        /**
+         * Waits for this node to be matched, for at most timeout
+         * milliseconds if timed.  Returns false, leaving the node
+         * cancelled, if the time elapses first.  If interrupted before
+         * being matched the node is cancelled too; if interrupted after,
+         * the transfer has happened, so the interrupt is just reasserted.
+         */
+        synchronized boolean await(boolean timed, long timeout)
+            throws InterruptedException {
+            long deadline = timed ? System.currentTimeMillis() + timeout : 0;
+            try {
+                while (state == WAITING) {
+                    if (!timed) {
+                        wait();
+                    } else {
+                        if (timeout <= 0) {
+                            state = CANCELLED;
+                            return false;
+                        }
+                        wait(timeout);
+                        timeout = deadline - System.currentTimeMillis();
+                    }
+                }
+                return true;
+            } catch (InterruptedException ie) {
+                if (state == WAITING) {
+                    state = CANCELLED;
+                    throw ie;
+                }
+                Thread.currentThread().interrupt();
+                return true;
+            }
+        }
+    }
+
+    /** Nodes of threads waiting in put/offer; guarded by this */
+    private transient LinkedList waitingPutters;
+
+    /** Nodes of threads waiting in take/poll; guarded by this */
+    private transient LinkedList waitingTakers;
+
+    /**
+     * Creates a <tt>SynchronousQueue</tt>.
+     */
+    public SynchronousQueue() {
+        init();
+    }
+
+    private void init() {
+        waitingPutters = new LinkedList();
+        waitingTakers = new LinkedList();
+    }
+
+    /**
+     * Common code for put and the offer methods.  Hands o to a waiting
+     * taker if there is one; otherwise, if wait is true, waits (for at
+     * most timeout milliseconds if timed) for a taker to arrive.
+     */
+    private boolean transferOut(Object o, boolean wait, boolean timed,
+                                long timeout) throws InterruptedException {
+        if (o == null)
+            throw new NullPointerException();
+        Node node;
+        synchronized (this) {
+            while (!waitingTakers.isEmpty()) {
+                Node taker = (Node)waitingTakers.removeFirst();
+                if (taker.fill(o))
+                    return true;
+            }
+            if (!wait)
+                return false;
+            node = new Node(o);
+            waitingPutters.addLast(node);
+        }
+        return awaitMatch(node, waitingPutters, timed, timeout);
+    }
+
+    /**
+     * Common code for take and the poll methods.
+     */
+    private Object transferIn(boolean wait, boolean timed, long timeout)
+        throws InterruptedException {
+        Node node;
+        synchronized (this) {
+            while (!waitingPutters.isEmpty()) {
+                Node putter = (Node)waitingPutters.removeFirst();
+                Object x = putter.extract();
+                if (x != null)
+                    return x;
+            }
+            if (!wait)
+                return null;
+            node = new Node(null);
+            waitingTakers.addLast(node);
+        }
+        if (!awaitMatch(node, waitingTakers, timed, timeout))
+            return null;
+        synchronized (node) {
+            return node.item;
+        }
+    }
+
+    /**
+     * Waits for the given node, queued on the given list, to be matched,
+     * unlinking it if the wait is abandoned.
+     */
+    private boolean awaitMatch(Node node, LinkedList list, boolean timed,
+                               long timeout) throws InterruptedException {
+        boolean matched = false;
+        try {
+            matched = node.await(timed, timeout);
+            return matched;
+        } finally {
+            if (!matched) {
+                synchronized (this) {
+                    list.remove(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the specified element to this queue, waiting if necessary for
+     * another thread to receive it.
+     *
+     * @param o the element to add.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public void put(Object o) throws InterruptedException {
+        transferOut(o, true, false, 0);
+    }
+
+    /**
+     * Inserts the specified element into this queue, waiting if necessary
+     * up to the specified wait time for another thread to receive it.
+     *
+     * @param o the element to add.
+     * @param timeout how long to wait before giving up, in milliseconds.
+     * @return <tt>true</tt> if successful, or <tt>false</tt> if the
+     *         specified waiting time elapses before a consumer appears.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean offer(Object o, long timeout) throws InterruptedException {
+        return transferOut(o, true, true, timeout);
+    }
+
+    /**
+     * Inserts the specified element into this queue, if another thread is
+     * waiting to receive it.
+     *
+     * @param o the element to add.
+     * @return <tt>true</tt> if it was possible to add the element to this
+     *         queue, else <tt>false</tt>.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean offer(Object o) {
+        try {
+            return transferOut(o, false, false, 0);
+        } catch (InterruptedException cannotHappen) {
+            throw new InternalError();
+        }
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, waiting if necessary
+     * for another thread to insert it.
+     *
+     * @return the head of this queue.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Object take() throws InterruptedException {
+        return transferIn(true, false, 0);
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, waiting if necessary
+     * up to the specified wait time for another thread to insert it.
+     *
+     * @param timeout how long to wait before giving up, in milliseconds.
+     * @return the head of this queue, or <tt>null</tt> if the specified
+     *         waiting time elapses before an element is present.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Object poll(long timeout) throws InterruptedException {
+        return transferIn(true, true, timeout);
+    }
+
+    /**
+     * Retrieves and removes the head of this queue, if another thread is
+     * currently making an element available.
+     *
+     * @return the head of this queue, or <tt>null</tt> if no element is
+     *         available.
+     */
+    public Object poll() {
+        try {
+            return transferIn(false, false, 0);
+        } catch (InterruptedException cannotHappen) {
+            throw new InternalError();
+        }
+    }
+
+    /**
+     * Always returns <tt>null</tt>.  A <tt>SynchronousQueue</tt> does not
+     * return elements unless actively waited on.
+     *
+     * @return <tt>null</tt>.
+     */
+    public Object peek() {
+        return null;
+    }
+
+    /**
+     * Always returns <tt>true</tt>.  A <tt>SynchronousQueue</tt> has no
+     * internal capacity.
+     *
+     * @return <tt>true</tt>.
+     */
+    public boolean isEmpty() {
+        return true;
+    }
+
+    /**
+     * Always returns zero.  A <tt>SynchronousQueue</tt> has no internal
+     * capacity.
+     *
+     * @return zero.
+     */
+    public int size() {
+        return 0;
+    }
+
+    /**
+     * Always returns zero.  A <tt>SynchronousQueue</tt> has no internal
+     * capacity.
+     *
+     * @return zero.
+     */
+    public int remainingCapacity() {
+        return 0;
+    }
+
+    /**
+     * Does nothing.  A <tt>SynchronousQueue</tt> has no internal capacity.
+     */
+    public void clear() {
+    }
+
+    /**
+     * Always returns <tt>false</tt>.  A <tt>SynchronousQueue</tt> has no
+     * internal capacity.
+     *
+     * @param o the element.
+     * @return <tt>false</tt>.
+     */
+    public boolean contains(Object o) {
+        return false;
+    }
+
+    /**
+     * Always returns <tt>false</tt>.  A <tt>SynchronousQueue</tt> has no
+     * internal capacity.
+     *
+     * @param o the element to remove.
+     * @return <tt>false</tt>.
+     */
+    public boolean remove(Object o) {
+        return false;
+    }
+
+    /**
+     * Returns an empty iterator in which <tt>hasNext</tt> always returns
+     * <tt>false</tt>.
+     *
+     * @return an empty iterator.
+     */
+    public Iterator iterator() {
+        return Collections.EMPTY_LIST.iterator();
+    }
+
+    /**
+     * Returns a zero-length array.
+     *
+     * @return a zero-length array.
+     */
+    public Object[] toArray() {
+        return new Object[0];
+    }
+
+    /**
+     * Sets the zeroeth element of the specified array to <tt>null</tt> (if
+     * the array has non-zero length) and returns it.
+     *
+     * @param a the array.
+     * @return the specified array.
+     */
+    public Object[] toArray(Object[] a) {
+        if (a.length > 0)
+            a[0] = null;
+        return a;
+    }
+
+    public int drainTo(Collection c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Transfers to the given collection the elements of threads currently
+     * waiting in <tt>put</tt> or <tt>offer</tt>, releasing them, up to the
+     * given number of elements.
+     *
+     * @param c the collection to transfer elements into.
+     * @param maxElements the maximum number of elements to transfer.
+     * @return the number of elements transferred.
+     * @throws NullPointerException if <tt>c</tt> is <tt>null</tt>.
+     * @throws IllegalArgumentException if <tt>c</tt> is this queue.
+     */
+    public int drainTo(Collection c, int maxElements) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        int n = 0;
+        Object x;
+        while (n < maxElements && (x = poll()) != null) {
+            c.add(x);
+            ++n;
+        }
+        return n;
+    }
+
+    /**
+     * Reconstitute the queue from a stream (that is, deserialize it).
+     * Waiting threads are not part of the serialized form.
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        init();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * The default PooledTimer store: a binary heap ordered on
+ * nextExecutionTime, like TaskQueue, except that each task records its
+ * position in the heap so that it can be removed from the middle.
+ */
+class TaskHeap extends TaskStore {
+    /**
+     * The heap: the two children of queue[n] are queue[2*n] and
+     * queue[2*n+1], and queue[1] holds the earliest task.  Each task's
+     * storeIndex is its index in this array.
+     */
+    private TimerTask[] queue = new TimerTask[128];
+
+    /**
+     * The number of tasks in the heap (stored in queue[1..size]).
+     */
+    private int size = 0;
+
+    synchronized void add(TimerTask task, ReadyQueue ready) {
+        if (cancelled || !claim(task))
+            return;
+        if (++size == queue.length) {
+            TimerTask[] newQueue = new TimerTask[2*queue.length];
+            System.arraycopy(queue, 0, newQueue, 0, size);
+            queue = newQueue;
+        }
+        queue[size] = task;
+        task.storeIndex = size;
+        fixUp(size);
+        if (queue[1] == task)
+            notify();
+    }
+
+    synchronized void remove(TimerTask task) {
+        int i = task.storeIndex;
+        if (i > 0 && i <= size && queue[i] == task) {
+            removeAt(i);
+            task.store = null;
+        }
+    }
+
+    synchronized void dispatch(ReadyQueue ready) {
+        while (!cancelled) {
+            try {
+                if (size == 0) {
+                    wait();
+                    continue;
+                }
+                TimerTask task = queue[1];
+                long currentTime = System.currentTimeMillis();
+                long executionTime = task.nextExecutionTime;
+                if (executionTime > currentTime) {
+                    wait(executionTime - currentTime);
+                    continue;
+                }
+                removeAt(1);
+                if (fire(task, currentTime))
+                    ready.put(task);
+            } catch (InterruptedException e) {
+            }
+        }
+    }
+
+    synchronized void cancel() {
+        cancelled = true;
+        for (int i=1; i<=size; i++)
+            queue[i] = null;
+        size = 0;
+        notify();
+    }
+
+    /**
+     * Removes the task at index i, filling the hole with the last task and
+     * restoring the heap invariant around it.
+     */
+    private void removeAt(int i) {
+        TimerTask last = queue[size];
+        queue[size--] = null;  // Drop extra reference to prevent memory leak
+        if (i <= size) {
+            queue[i] = last;
+            last.storeIndex = i;
+            fixDown(i);
+            fixUp(last.storeIndex);
+        }
+    }
+
+    private void swap(int i, int j) {
+        TimerTask tmp = queue[i];
+        queue[i] = queue[j];
+        queue[j] = tmp;
+        queue[i].storeIndex = i;
+        queue[j].storeIndex = j;
+    }
+
+    private void fixUp(int k) {
+        while (k > 1) {
+            int j = k >> 1;
+            if (queue[j].nextExecutionTime <= queue[k].nextExecutionTime)
+                break;
+            swap(j, k);
+            k = j;
+        }
+    }
+
+    private void fixDown(int k) {
+        int j;
+        while ((j = k << 1) <= size) {
+            if (j < size &&
+                queue[j].nextExecutionTime > queue[j+1].nextExecutionTime)
+                j++; // j indexes smallest kid
+            if (queue[k].nextExecutionTime <= queue[j].nextExecutionTime)
+                break;
+            swap(j, k);
+            k = j;
+        }
+    }
+}
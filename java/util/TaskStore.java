@@ -0,0 +1,82 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * A structure holding the tasks scheduled on a PooledTimer until they come
+ * due.  Tasks are added by the scheduling methods, and by worker threads
+ * when a repeating task has finished an execution; they are removed either
+ * by the dispatcher thread when they come due or by TimerTask.cancel.<p>
+ *
+ * Lock ordering: a store may acquire a task's lock while holding its own
+ * monitors, but never the reverse.  TimerTask.cancel therefore releases the
+ * task's lock before calling remove.
+ */
+abstract class TaskStore {
+    /**
+     * Set once the timer is cancelled, after which no task is accepted.
+     */
+    volatile boolean cancelled = false;
+
+    /**
+     * Adds the given task, which is scheduled for its next execution at
+     * task.nextExecutionTime.  If the task has meanwhile been cancelled,
+     * or the timer has, the task is dropped.
+     */
+    abstract void add(TimerTask task, ReadyQueue ready);
+
+    /**
+     * Removes the given task if this store holds it.
+     */
+    abstract void remove(TimerTask task);
+
+    /**
+     * Moves tasks to the ready queue as they come due, until the timer is
+     * cancelled.
+     */
+    abstract void dispatch(ReadyQueue ready);
+
+    /**
+     * Discards all tasks and stops the dispatcher.
+     */
+    abstract void cancel();
+
+    /**
+     * Prepares a task that has come due at the given time for execution.
+     * A non-repeating task is marked executed; a repeating one has its
+     * next execution time computed, as TimerThread does.  Returns false if
+     * the task has been cancelled and should not run.  Called with the
+     * store's monitor held, after the task has been removed from it.
+     */
+    static boolean fire(TimerTask task, long currentTime) {
+        synchronized(task.lock) {
+            task.store = null;
+            if (task.state == TimerTask.CANCELLED)
+                return false;
+            long executionTime = task.nextExecutionTime;
+            if (task.period == 0)
+                task.state = TimerTask.EXECUTED;
+            else
+                task.nextExecutionTime = (task.period < 0
+                                          ? currentTime - task.period
+                                          : executionTime + task.period);
+            return true;
+        }
+    }
+
+    /**
+     * Claims a task for this store, unless it has been cancelled.  Called
+     * with the store's monitor held.
+     */
+    final boolean claim(TimerTask task) {
+        synchronized(task.lock) {
+            if (task.state != TimerTask.SCHEDULED)
+                return false;
+            task.store = this;
+            return true;
+        }
+    }
+}
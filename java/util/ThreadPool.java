@@ -0,0 +1,926 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * An {@link Executor} that runs each submitted task using one of a pool of
+ * reusable threads.  Reusing threads avoids the cost of creating, starting
+ * and reclaiming a <tt>Thread</tt> for every short task, and bounds the
+ * number of threads an application creates under load.<p>
+ *
+ * <b>Core and maximum pool sizes.</b> A <tt>ThreadPool</tt> adjusts its
+ * size within the bounds set by <tt>corePoolSize</tt> and
+ * <tt>maximumPoolSize</tt>.  When a new task is submitted and fewer than
+ * <tt>corePoolSize</tt> threads are running, a new thread is created to
+ * handle it, even if other threads are idle.  Otherwise the task is placed
+ * on the work queue, unless the queue is full, in which case a new thread
+ * is created if fewer than <tt>maximumPoolSize</tt> threads are running.
+ * Threads beyond the core size terminate once they have been idle for the
+ * <i>keep-alive</i> time.<p>
+ *
+ * <b>Work queue.</b> Waiting tasks are held in a {@link BlockingQueue},
+ * which idle threads block on, so that submitting a task wakes exactly one
+ * of them and the submitting thread never contends with the workers for
+ * the pool's own lock.  The constructors taking a queue capacity use a
+ * {@link LinkedBlockingQueue} of that capacity, or a
+ * {@link SynchronousQueue} for a capacity of zero, which hands every task
+ * directly to a new or idle thread.  A capacity of
+ * <tt>Integer.MAX_VALUE</tt> makes the queue effectively unbounded, in
+ * which case the pool never grows past its core size.  Any other
+ * <tt>BlockingQueue</tt>, such as an {@link ArrayBlockingQueue}, may be
+ * given to the constructor instead.<p>
+ *
+ * <b>Rejected tasks.</b> Tasks submitted when the pool has been shut down,
+ * or when both the queue and the maximum number of threads are saturated,
+ * are passed to the pool's {@link RejectedExecutionHandler}.  Four
+ * policies are provided as nested classes: {@link AbortPolicy} (the
+ * default) throws a {@link RejectedExecutionException};
+ * {@link CallerRunsPolicy} runs the task in the submitting thread, which
+ * slows down the rate at which new tasks are submitted;
+ * {@link DiscardPolicy} drops the task; and {@link DiscardOldestPolicy}
+ * drops the oldest waiting task and retries.<p>
+ *
+ * <b>Results.</b> The <tt>submit</tt> methods wrap a task in a
+ * {@link FutureTask}, which can be used to wait for its result or cancel
+ * it.<p>
+ *
+ * <b>Threads.</b> Pool threads are created in the thread group given to
+ * the constructor, or the creating thread's group by default.  An
+ * unchecked exception thrown by a task executed with <tt>execute</tt> is
+ * passed to the <tt>uncaughtException</tt> method of that group, and the
+ * thread goes on to run further tasks.<p>
+ *
+ * <b>Shutdown.</b> The <tt>shutdown</tt> method lets previously submitted
+ * tasks run but rejects new ones; <tt>shutdownNow</tt> also discards the
+ * waiting tasks and interrupts the running ones.  <tt>awaitTermination</tt>
+ * waits for the pool's threads to finish.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Executor
+ * @see     FutureTask
+ * @see     java.lang.ThreadGroup
+ * @since   1.4
+ */
+public class ThreadPool implements Executor {
+    /**
+     * Run state: accepting new tasks and processing queued tasks.
+     */
+    private static final int RUNNING    = 0;
+
+    /**
+     * Run state: not accepting new tasks, but processing queued tasks.
+     */
+    private static final int SHUTDOWN   = 1;
+
+    /**
+     * Run state: not accepting new tasks, not processing queued tasks, and
+     * interrupting running tasks.
+     */
+    private static final int STOP       = 2;
+
+    /**
+     * Run state: all threads have terminated.
+     */
+    private static final int TERMINATED = 3;
+
+    /**
+     * The default rejected execution handler.
+     */
+    private static final RejectedExecutionHandler defaultHandler =
+        new AbortPolicy();
+
+    /**
+     * The current run state.  Changed only while holding this pool's
+     * monitor, but read without it by isShutdown and isTerminated.
+     */
+    private volatile int runState = RUNNING;
+
+    /**
+     * The tasks waiting for a thread.  The queue does its own locking.
+     */
+    private final BlockingQueue workQueue;
+
+    /**
+     * The running worker threads.  This and the fields below are protected
+     * by this pool's monitor.
+     */
+    private final HashSet workers = new HashSet();
+
+    private int corePoolSize;
+    private int maximumPoolSize;
+    private long keepAliveTime;
+
+    /**
+     * The number of tasks that have run to completion.
+     */
+    private long completedTaskCount = 0;
+
+    /**
+     * The largest number of threads that has ever been running at once.
+     */
+    private int largestPoolSize = 0;
+
+    private RejectedExecutionHandler handler;
+
+    /**
+     * The thread group in which worker threads are created.
+     */
+    private final ThreadGroup group;
+
+    /**
+     * The prefix for worker thread names, followed by a sequence number.
+     */
+    private final String namePrefix;
+
+    private final boolean daemon;
+    private int threadNumber = 0;
+
+    /**
+     * Object on which awaitTermination waits.
+     */
+    private final Object termination = new Object();
+
+    /**
+     * Creates a new pool with the given sizes, keep-alive time and queue
+     * capacity, whose non-daemon threads are created in the current
+     * thread's group, and which rejects tasks with an {@link AbortPolicy}.
+     *
+     * @param corePoolSize the number of threads to keep in the pool, even
+     *        if they are idle.
+     * @param maximumPoolSize the maximum number of threads to allow in the
+     *        pool.
+     * @param keepAliveTime the time in milliseconds that threads in excess
+     *        of the core size may wait idle before terminating.
+     * @param queueCapacity the maximum number of tasks that may wait for a
+     *        thread.
+     * @throws IllegalArgumentException if <tt>corePoolSize</tt>,
+     *         <tt>keepAliveTime</tt> or <tt>queueCapacity</tt> is negative,
+     *         or <tt>maximumPoolSize</tt> is not positive or is less than
+     *         <tt>corePoolSize</tt>.
+     */
+    public ThreadPool(int corePoolSize, int maximumPoolSize,
+                      long keepAliveTime, int queueCapacity) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, queueCapacity,
+             null, "pool-thread-", false);
+    }
+
+    /**
+     * Creates a new pool with the given parameters.
+     *
+     * @param corePoolSize the number of threads to keep in the pool, even
+     *        if they are idle.
+     * @param maximumPoolSize the maximum number of threads to allow in the
+     *        pool.
+     * @param keepAliveTime the time in milliseconds that threads in excess
+     *        of the core size may wait idle before terminating.
+     * @param queueCapacity the maximum number of tasks that may wait for a
+     *        thread.
+     * @param group the thread group in which to create threads, or
+     *        <tt>null</tt> for the current thread's group.
+     * @param namePrefix the prefix of the names given to the pool's
+     *        threads.
+     * @param daemon whether the pool's threads run as daemons.
+     * @throws IllegalArgumentException if <tt>corePoolSize</tt>,
+     *         <tt>keepAliveTime</tt> or <tt>queueCapacity</tt> is negative,
+     *         or <tt>maximumPoolSize</tt> is not positive or is less than
+     *         <tt>corePoolSize</tt>.
+     */
+    public ThreadPool(int corePoolSize, int maximumPoolSize,
+                      long keepAliveTime, int queueCapacity,
+                      ThreadGroup group, String namePrefix, boolean daemon) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime,
+             makeQueue(queueCapacity), group, namePrefix, daemon);
+    }
+
+    /**
+     * Creates a new pool with the given sizes, keep-alive time and work
+     * queue, whose non-daemon threads are created in the current thread's
+     * group, and which rejects tasks with an {@link AbortPolicy}.
+     *
+     * @param corePoolSize the number of threads to keep in the pool, even
+     *        if they are idle.
+     * @param maximumPoolSize the maximum number of threads to allow in the
+     *        pool.
+     * @param keepAliveTime the time in milliseconds that threads in excess
+     *        of the core size may wait idle before terminating.
+     * @param workQueue the queue to hold tasks before they are executed.
+     * @throws IllegalArgumentException if <tt>corePoolSize</tt> or
+     *         <tt>keepAliveTime</tt> is negative, or
+     *         <tt>maximumPoolSize</tt> is not positive or is less than
+     *         <tt>corePoolSize</tt>.
+     * @throws NullPointerException if <tt>workQueue</tt> is <tt>null</tt>.
+     */
+    public ThreadPool(int corePoolSize, int maximumPoolSize,
+                      long keepAliveTime, BlockingQueue workQueue) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, workQueue,
+             null, "pool-thread-", false);
+    }
+
+    /**
+     * Creates a new pool with the given parameters.
+     *
+     * @param corePoolSize the number of threads to keep in the pool, even
+     *        if they are idle.
+     * @param maximumPoolSize the maximum number of threads to allow in the
+     *        pool.
+     * @param keepAliveTime the time in milliseconds that threads in excess
+     *        of the core size may wait idle before terminating.
+     * @param workQueue the queue to hold tasks before they are executed.
+     * @param group the thread group in which to create threads, or
+     *        <tt>null</tt> for the current thread's group.
+     * @param namePrefix the prefix of the names given to the pool's
+     *        threads.
+     * @param daemon whether the pool's threads run as daemons.
+     * @throws IllegalArgumentException if <tt>corePoolSize</tt> or
+     *         <tt>keepAliveTime</tt> is negative, or
+     *         <tt>maximumPoolSize</tt> is not positive or is less than
+     *         <tt>corePoolSize</tt>.
+     * @throws NullPointerException if <tt>workQueue</tt> is <tt>null</tt>.
+     */
+    public ThreadPool(int corePoolSize, int maximumPoolSize,
+                      long keepAliveTime, BlockingQueue workQueue,
+                      ThreadGroup group, String namePrefix, boolean daemon) {
+        if (corePoolSize < 0 || maximumPoolSize <= 0 ||
+            maximumPoolSize < corePoolSize || keepAliveTime < 0)
+            throw new IllegalArgumentException();
+        if (workQueue == null)
+            throw new NullPointerException();
+        this.corePoolSize = corePoolSize;
+        this.maximumPoolSize = maximumPoolSize;
+        this.keepAliveTime = keepAliveTime;
+        this.workQueue = workQueue;
+        this.group = (group != null ? group
+                      : Thread.currentThread().getThreadGroup());
+        this.namePrefix = namePrefix;
+        this.daemon = daemon;
+        this.handler = defaultHandler;
+    }
+
+    /**
+     * Returns the work queue used for the given capacity.
+     */
+    private static BlockingQueue makeQueue(int queueCapacity) {
+        if (queueCapacity < 0)
+            throw new IllegalArgumentException();
+        if (queueCapacity == 0)
+            return new SynchronousQueue();
+        return new LinkedBlockingQueue(queueCapacity);
+    }
+
+    /**
+     * Executes the given task sometime in the future.  The task may
+     * execute in a new thread or in an existing pooled thread.  If the
+     * task cannot be accepted, because this pool has been shut down or
+     * because it is saturated, it is passed to the current
+     * <tt>RejectedExecutionHandler</tt>.
+     *
+     * @param task the task to execute.
+     * @throws RejectedExecutionException at the discretion of the
+     *         <tt>RejectedExecutionHandler</tt>, if the task cannot be
+     *         accepted for execution.
+     * @throws NullPointerException if <tt>task</tt> is <tt>null</tt>.
+     */
+    public void execute(Runnable task) {
+        if (task == null)
+            throw new NullPointerException();
+        RejectedExecutionHandler h;
+        synchronized (this) {
+            if (runState == RUNNING && workers.size() < corePoolSize) {
+                addThread(task);
+                return;
+            }
+        }
+        if (runState == RUNNING && workQueue.offer(task)) {
+            synchronized (this) {
+                if (runState == RUNNING) {
+                    if (workers.isEmpty())
+                        addThread(null);
+                    return;
+                }
+                // Shut down meanwhile; take the task back unless a worker
+                // already has it
+                if (!workQueue.remove(task))
+                    return;
+                h = handler;
+            }
+        } else {
+            synchronized (this) {
+                if (runState == RUNNING && workers.size() < maximumPoolSize) {
+                    addThread(task);
+                    return;
+                }
+                h = handler;
+            }
+        }
+        h.rejectedExecution(task, this);
+    }
+
+    /**
+     * Submits a value-returning task for execution and returns a
+     * <tt>Future</tt> representing the pending result of the task.
+     *
+     * @param task the task to submit.
+     * @return a <tt>Future</tt> representing pending completion of the
+     *         task.
+     * @throws RejectedExecutionException if the task cannot be accepted
+     *         for execution.
+     * @throws NullPointerException if <tt>task</tt> is <tt>null</tt>.
+     */
+    public Future submit(Callable task) {
+        FutureTask f = new FutureTask(task);
+        execute(f);
+        return f;
+    }
+
+    /**
+     * Submits a <tt>Runnable</tt> task for execution and returns a
+     * <tt>Future</tt> representing that task, whose <tt>get</tt> method
+     * returns <tt>null</tt> upon successful completion.
+     *
+     * @param task the task to submit.
+     * @return a <tt>Future</tt> representing pending completion of the
+     *         task.
+     * @throws RejectedExecutionException if the task cannot be accepted
+     *         for execution.
+     * @throws NullPointerException if <tt>task</tt> is <tt>null</tt>.
+     */
+    public Future submit(Runnable task) {
+        FutureTask f = new FutureTask(task, null);
+        execute(f);
+        return f;
+    }
+
+    /**
+     * Creates and starts a worker thread whose first task is the given
+     * one, which may be null.  Called holding this pool's monitor.
+     */
+    private void addThread(Runnable firstTask) {
+        Worker w = new Worker(firstTask);
+        Thread t = new Thread(group, w, namePrefix + (++threadNumber));
+        t.setDaemon(daemon);
+        w.thread = t;
+        workers.add(w);
+        if (workers.size() > largestPoolSize)
+            largestPoolSize = workers.size();
+        t.start();
+    }
+
+    /**
+     * Returns the next task for a worker to run, waiting if necessary, or
+     * null if the worker should terminate: because the pool is stopping, or
+     * shut down with an empty queue, or because the worker has been idle
+     * for the keep-alive time while the pool has more than its core number
+     * of threads.  Idle workers wait in the work queue, not on this pool's
+     * monitor, and are woken by interrupts from shutdown and
+     * setCorePoolSize.
+     */
+    private Runnable getTask() {
+        for (;;) {
+            try {
+                int state = runState;
+                if (state >= STOP)
+                    return null;
+                Runnable r;
+                if (state == SHUTDOWN) {
+                    r = (Runnable) workQueue.poll();  // help drain queue
+                } else {
+                    boolean timed;
+                    long timeout;
+                    synchronized (this) {
+                        timed = workers.size() > corePoolSize;
+                        timeout = keepAliveTime;
+                    }
+                    if (timed)
+                        r = (Runnable) workQueue.poll(timeout);
+                    else
+                        r = (Runnable) workQueue.take();
+                }
+                if (r != null)
+                    return r;
+                if (workerCanExit())
+                    return null;
+            } catch (InterruptedException e) {
+                // Woken up to recheck the run state or the pool size
+            }
+        }
+    }
+
+    /**
+     * Returns true if a worker that found no task may terminate.
+     */
+    private synchronized boolean workerCanExit() {
+        return runState >= STOP || workQueue.isEmpty() &&
+            (runState == SHUTDOWN || workers.size() > corePoolSize);
+    }
+
+    /**
+     * Interrupts the workers that are waiting for a task, so that they
+     * recheck the run state and the pool size.  Called holding this pool's
+     * monitor.
+     */
+    private void interruptIdleWorkers() {
+        for (Iterator it = workers.iterator(); it.hasNext(); )
+            ((Worker) it.next()).interruptIfIdle();
+    }
+
+    /**
+     * Performs bookkeeping for a terminating worker.  If the worker died
+     * because a task threw an error while tasks remain queued, a
+     * replacement is started.
+     */
+    private void workerDone(Worker w) {
+        boolean terminated = false;
+        synchronized (this) {
+            workers.remove(w);
+            completedTaskCount += w.completedTasks;
+            if (workers.isEmpty()) {
+                if (runState == STOP ||
+                    (runState == SHUTDOWN && workQueue.isEmpty())) {
+                    runState = TERMINATED;
+                    terminated = true;
+                } else if (!workQueue.isEmpty()) {
+                    addThread(null);
+                }
+            } else if (runState == RUNNING &&
+                       workers.size() < corePoolSize && !workQueue.isEmpty()) {
+                addThread(null);
+            }
+        }
+        if (terminated) {
+            synchronized (termination) {
+                termination.notifyAll();
+            }
+            terminated();
+        }
+    }
+
+    /**
+     * Initiates an orderly shutdown in which previously submitted tasks are
+     * executed, but no new tasks will be accepted.  Invocation has no
+     * additional effect if already shut down.
+     */
+    public void shutdown() {
+        boolean terminated = false;
+        synchronized (this) {
+            if (runState == RUNNING) {
+                runState = SHUTDOWN;
+                if (workers.isEmpty()) {
+                    runState = TERMINATED;
+                    terminated = true;
+                }
+            }
+            interruptIdleWorkers();   // Wake idle workers so they can exit
+        }
+        if (terminated) {
+            synchronized (termination) {
+                termination.notifyAll();
+            }
+            terminated();
+        }
+    }
+
+    /**
+     * Attempts to stop all actively executing tasks, halts the processing
+     * of waiting tasks, and returns a list of the tasks that were awaiting
+     * execution.  Running tasks are interrupted, so tasks that fail to
+     * respond to interrupts may never terminate.
+     *
+     * @return the list of tasks that never commenced execution.
+     */
+    public List shutdownNow() {
+        List pending;
+        boolean terminated = false;
+        synchronized (this) {
+            if (runState < STOP) {
+                runState = STOP;
+                if (workers.isEmpty()) {
+                    runState = TERMINATED;
+                    terminated = true;
+                }
+            }
+            pending = new ArrayList();
+            workQueue.drainTo(pending);
+            for (Iterator it = workers.iterator(); it.hasNext(); )
+                ((Worker) it.next()).thread.interrupt();
+        }
+        if (terminated) {
+            synchronized (termination) {
+                termination.notifyAll();
+            }
+            terminated();
+        }
+        return pending;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this pool has been shut down.
+     *
+     * @return <tt>true</tt> if this pool has been shut down.
+     */
+    public boolean isShutdown() {
+        return runState != RUNNING;
+    }
+
+    /**
+     * Returns <tt>true</tt> if all tasks have completed following shut
+     * down and all of this pool's threads have terminated.
+     *
+     * @return <tt>true</tt> if this pool has terminated.
+     */
+    public boolean isTerminated() {
+        return runState == TERMINATED;
+    }
+
+    /**
+     * Blocks until all tasks have completed execution after a shutdown
+     * request, or the timeout occurs, or the current thread is interrupted,
+     * whichever happens first.
+     *
+     * @param timeout the maximum time to wait, in milliseconds, or zero to
+     *        wait indefinitely.
+     * @return <tt>true</tt> if this pool terminated and <tt>false</tt> if
+     *         the timeout elapsed before termination.
+     * @exception InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout)
+        throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (termination) {
+            while (runState != TERMINATED) {
+                if (timeout == 0) {
+                    termination.wait();
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0)
+                        return false;
+                    termination.wait(remaining);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Removes the given task from the work queue if it has not started.
+     *
+     * @param task the task to remove.
+     * @return <tt>true</tt> if the task was removed.
+     */
+    public boolean remove(Runnable task) {
+        return workQueue.remove(task);
+    }
+
+    /**
+     * Returns the work queue used by this pool.  Access to the queue is
+     * intended primarily for monitoring; tasks should be added with
+     * <tt>execute</tt>, not directly to the queue.
+     *
+     * @return the tasks waiting for a thread.
+     */
+    public BlockingQueue getQueue() {
+        return workQueue;
+    }
+
+    /**
+     * Sets the core number of threads.  If the new value is smaller than
+     * the current value, excess idle threads will terminate once they have
+     * been idle for the keep-alive time.
+     *
+     * @param corePoolSize the new core size.
+     * @throws IllegalArgumentException if <tt>corePoolSize</tt> is
+     *         negative or greater than the maximum pool size.
+     */
+    public synchronized void setCorePoolSize(int corePoolSize) {
+        if (corePoolSize < 0 || corePoolSize > maximumPoolSize)
+            throw new IllegalArgumentException();
+        int extra = this.corePoolSize - corePoolSize;
+        this.corePoolSize = corePoolSize;
+        if (extra > 0)
+            interruptIdleWorkers();   // Let excess threads start timing out
+    }
+
+    /**
+     * Returns the core number of threads.
+     *
+     * @return the core number of threads.
+     */
+    public synchronized int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    /**
+     * Sets the maximum allowed number of threads.
+     *
+     * @param maximumPoolSize the new maximum.
+     * @throws IllegalArgumentException if <tt>maximumPoolSize</tt> is not
+     *         positive or is less than the core pool size.
+     */
+    public synchronized void setMaximumPoolSize(int maximumPoolSize) {
+        if (maximumPoolSize <= 0 || maximumPoolSize < corePoolSize)
+            throw new IllegalArgumentException();
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    /**
+     * Returns the maximum allowed number of threads.
+     *
+     * @return the maximum allowed number of threads.
+     */
+    public synchronized int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * Sets the time in milliseconds that threads in excess of the core
+     * size may remain idle before being terminated.
+     *
+     * @param keepAliveTime the new keep-alive time.
+     * @throws IllegalArgumentException if <tt>keepAliveTime</tt> is
+     *         negative.
+     */
+    public synchronized void setKeepAliveTime(long keepAliveTime) {
+        if (keepAliveTime < 0)
+            throw new IllegalArgumentException();
+        this.keepAliveTime = keepAliveTime;
+    }
+
+    /**
+     * Returns the keep-alive time in milliseconds.
+     *
+     * @return the keep-alive time.
+     */
+    public synchronized long getKeepAliveTime() {
+        return keepAliveTime;
+    }
+
+    /**
+     * Sets a new handler for tasks that cannot be executed.
+     *
+     * @param handler the new handler.
+     * @throws NullPointerException if <tt>handler</tt> is <tt>null</tt>.
+     */
+    public synchronized void setRejectedExecutionHandler(
+        RejectedExecutionHandler handler) {
+        if (handler == null)
+            throw new NullPointerException();
+        this.handler = handler;
+    }
+
+    /**
+     * Returns the current handler for tasks that cannot be executed.
+     *
+     * @return the current handler.
+     */
+    public synchronized RejectedExecutionHandler getRejectedExecutionHandler() {
+        return handler;
+    }
+
+    /**
+     * Returns the current number of threads in the pool.
+     *
+     * @return the number of threads.
+     */
+    public synchronized int getPoolSize() {
+        return workers.size();
+    }
+
+    /**
+     * Returns the approximate number of threads that are running tasks.
+     *
+     * @return the number of busy threads.
+     */
+    public synchronized int getActiveCount() {
+        int n = 0;
+        for (Iterator it = workers.iterator(); it.hasNext(); )
+            if (((Worker) it.next()).isActive())
+                n++;
+        return n;
+    }
+
+    /**
+     * Returns the largest number of threads that have ever simultaneously
+     * been in the pool.
+     *
+     * @return the largest number of threads.
+     */
+    public synchronized int getLargestPoolSize() {
+        return largestPoolSize;
+    }
+
+    /**
+     * Returns the approximate total number of tasks that have completed
+     * execution.
+     *
+     * @return the number of completed tasks.
+     */
+    public synchronized long getCompletedTaskCount() {
+        long n = completedTaskCount;
+        for (Iterator it = workers.iterator(); it.hasNext(); )
+            n += ((Worker) it.next()).completedTasks;
+        return n;
+    }
+
+    /**
+     * Method invoked prior to executing the given task in the given thread.
+     * The default implementation does nothing; subclasses may override it,
+     * for example to reinitialize thread-locals or perform logging.
+     *
+     * @param t the thread that will run the task.
+     * @param task the task that will be executed.
+     */
+    protected void beforeExecute(Thread t, Runnable task) {
+    }
+
+    /**
+     * Method invoked upon completion of execution of the given task.  The
+     * default implementation does nothing.
+     *
+     * @param task the task that has completed.
+     * @param exception the unchecked exception or error that terminated
+     *        the task, or <tt>null</tt> if it completed normally.  After an
+     *        error the worker thread that ran the task terminates.
+     */
+    protected void afterExecute(Runnable task, Throwable exception) {
+    }
+
+    /**
+     * Method invoked when this pool has terminated.  The default
+     * implementation does nothing.
+     */
+    protected void terminated() {
+    }
+
+    /**
+     * Invokes <tt>shutdown</tt> when this pool is no longer referenced.
+     */
+    protected void finalize() {
+        shutdown();
+    }
+
+    /**
+     * The body of each pool thread: runs its first task, if any, and then
+     * tasks taken from the queue until getTask tells it to terminate.
+     * Note that a running Worker keeps its pool reachable, so the pool's
+     * finalizer only runs once every worker has exited.
+     */
+    private class Worker implements Runnable {
+        Thread thread;
+        private Runnable firstTask;
+        volatile long completedTasks;
+
+        /**
+         * True while running a task; protected by this worker's monitor,
+         * so that interruptIfIdle never interrupts a running task.
+         */
+        private boolean active;
+
+        Worker(Runnable firstTask) {
+            this.firstTask = firstTask;
+        }
+
+        public void run() {
+            try {
+                Runnable task = firstTask;
+                firstTask = null;
+                while (task != null || (task = getTask()) != null) {
+                    runTask(task);
+                    task = null;
+                }
+            } finally {
+                workerDone(this);
+            }
+        }
+
+        private void runTask(Runnable task) {
+            synchronized (this) {
+                active = true;
+                // Clear an interrupt left over from a cancelled task or
+                // from a wakeup, unless the pool is stopping.
+                if (runState < STOP && Thread.interrupted() &&
+                    runState >= STOP)
+                    thread.interrupt();
+            }
+            try {
+                beforeExecute(thread, task);
+                Throwable thrown = null;
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    thrown = e;
+                } catch (Error e) {
+                    // Reported to afterExecute, then left to end the
+                    // worker; workerDone replaces it if need be
+                    thrown = e;
+                    throw e;
+                } finally {
+                    afterExecute(task, thrown);
+                }
+                if (thrown != null)
+                    group.uncaughtException(thread, thrown);
+                completedTasks++;
+            } finally {
+                synchronized (this) {
+                    active = false;
+                }
+            }
+        }
+
+        synchronized boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Interrupts this worker's thread if it is not running a task.
+         */
+        synchronized void interruptIfIdle() {
+            if (!active)
+                thread.interrupt();
+        }
+    }
+
+    /**
+     * A handler for rejected tasks that throws a
+     * <tt>RejectedExecutionException</tt>.  This is the default policy.
+     */
+    public static class AbortPolicy implements RejectedExecutionHandler {
+        /**
+         * Always throws <tt>RejectedExecutionException</tt>.
+         *
+         * @param task the task requested to be executed.
+         * @param pool the pool attempting to execute this task.
+         * @throws RejectedExecutionException always.
+         */
+        public void rejectedExecution(Runnable task, ThreadPool pool) {
+            throw new RejectedExecutionException();
+        }
+    }
+
+    /**
+     * A handler for rejected tasks that runs the rejected task directly in
+     * the calling thread of the <tt>execute</tt> method, unless the pool
+     * has been shut down, in which case the task is discarded.
+     */
+    public static class CallerRunsPolicy implements RejectedExecutionHandler {
+        /**
+         * Executes task in the caller's thread, unless the pool has been
+         * shut down, in which case the task is discarded.
+         *
+         * @param task the task requested to be executed.
+         * @param pool the pool attempting to execute this task.
+         */
+        public void rejectedExecution(Runnable task, ThreadPool pool) {
+            if (!pool.isShutdown())
+                task.run();
+        }
+    }
+
+    /**
+     * A handler for rejected tasks that silently discards the rejected
+     * task.
+     */
+    public static class DiscardPolicy implements RejectedExecutionHandler {
+        /**
+         * Does nothing, which has the effect of discarding the task.
+         *
+         * @param task the task requested to be executed.
+         * @param pool the pool attempting to execute this task.
+         */
+        public void rejectedExecution(Runnable task, ThreadPool pool) {
+        }
+    }
+
+    /**
+     * A handler for rejected tasks that discards the oldest unhandled
+     * request and then retries <tt>execute</tt>, unless the pool is shut
+     * down, in which case the task is discarded.
+     */
+    public static class DiscardOldestPolicy
+        implements RejectedExecutionHandler {
+        /**
+         * Obtains and ignores the next task that the pool would otherwise
+         * execute, if one is immediately available, and then retries
+         * execution of task, unless the pool is shut down, in which case
+         * task is instead discarded.
+         *
+         * @param task the task requested to be executed.
+         * @param pool the pool attempting to execute this task.
+         */
+        public void rejectedExecution(Runnable task, ThreadPool pool) {
+            if (!pool.isShutdown()) {
+                pool.pollQueue();
+                pool.execute(task);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the oldest waiting task, or null if there is
+     * none.  Used by DiscardOldestPolicy.
+     */
+    Runnable pollQueue() {
+        return (Runnable) workQueue.poll();
+    }
+}
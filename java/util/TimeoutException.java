@@ -0,0 +1,35 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * Exception thrown when a blocking operation times out.  Blocking
+ * operations for which a timeout is specified need a means to indicate
+ * that the timeout has occurred; for many such operations it is possible
+ * to return a value that indicates timeout, but where that is not possible
+ * <tt>TimeoutException</tt> should be declared and thrown.
+ *
+ * @version 1.1, 10/15/26
+ * @see     Future#get(long)
+ * @since   1.4
+ */
+public class TimeoutException extends Exception {
+    /**
+     * Constructs a <tt>TimeoutException</tt> with no detail message.
+     */
+    public TimeoutException() {
+    }
+
+    /**
+     * Constructs a <tt>TimeoutException</tt> with the specified detail
+     * message.
+     *
+     * @param message the detail message.
+     */
+    public TimeoutException(String message) {
+        super(message);
+    }
+}
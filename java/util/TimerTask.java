@@ -11,6 +11,7 @@ package java.util;
  * @author  Josh Bloch
  * @version 1.7, 02/06/02
  * @see	    Timer
+ * @see	    PooledTimer
  * @since   1.3
  */
 
@@ -61,6 +62,20 @@ public abstract class TimerTask implements Runnable {
      */
     long period = 0;
 
+    /**
+     * The PooledTimer structure holding this task while it awaits its next
+     * execution, or null if the task is not held by one.  This lets cancel
+     * remove the task at once rather than leaving it for the timer to
+     * discard when it comes due.  This field is protected by lock.
+     */
+    TaskStore store;
+
+    /**
+     * The position of this task within store.  Its meaning is private to
+     * the store, which maintains it under its own monitor.
+     */
+    int storeIndex;
+
     /**
      * Creates a new timer task.
      */
@@ -95,11 +110,16 @@ public abstract class TimerTask implements Runnable {
      *         executions from taking place.)
      */
     public boolean cancel() {
+        boolean result;
+        TaskStore s;
         synchronized(lock) {
-            boolean result = (state == SCHEDULED);
+            result = (state == SCHEDULED);
             state = CANCELLED;
-            return result;
+            s = store;
         }
+        if (s != null)
+            s.remove(this);  // Holding no locks, see PooledTimer
+        return result;
     }
 
     /**
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * The hashed wheel PooledTimer store.  Time is divided into ticks of
+ * tickMillis milliseconds, and a task due at time t belongs to tick
+ * ceil(t / tickMillis), which maps onto the bucket at that tick modulo the
+ * wheel size.  Each bucket is an unordered array guarded by its own
+ * monitor, and each task's storeIndex is its index in its bucket's array,
+ * so that adding and removing a task are constant-time operations.<p>
+ *
+ * The dispatcher thread advances processedTick one tick at a time,
+ * sweeping each bucket as its tick passes and firing the tasks whose tick
+ * has been reached; tasks more than one revolution ahead are left for a
+ * later sweep.  processedTick is only advanced while holding the monitor of
+ * the bucket being swept, so an add that finds its task's tick not yet
+ * processed, while holding that bucket's monitor, is guaranteed that the
+ * sweep of that tick has not happened.
+ */
+class TimerWheel extends TaskStore {
+    /**
+     * One slot of the wheel.
+     */
+    private static class Bucket {
+        TimerTask[] tasks = new TimerTask[4];
+        int count = 0;
+    }
+
+    private final long tickMillis;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    /**
+     * The last tick whose bucket has been swept.  Tasks due at or before
+     * this tick fire as soon as they are added.
+     */
+    private volatile long processedTick;
+
+    TimerWheel(long tickMillis, int wheelSize) {
+        if (tickMillis <= 0)
+            throw new IllegalArgumentException("Non-positive tick.");
+        if (wheelSize <= 0)
+            throw new IllegalArgumentException("Non-positive wheel size.");
+        int n = 1;
+        while (n < wheelSize && n < (1 << 30))
+            n <<= 1;
+        this.tickMillis = tickMillis;
+        wheel = new Bucket[n];
+        for (int i = 0; i < n; i++)
+            wheel[i] = new Bucket();
+        mask = n - 1;
+        processedTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * Returns the tick on or after the given time.
+     */
+    private long tickFor(long time) {
+        return (time + tickMillis - 1) / tickMillis;
+    }
+
+    void add(TimerTask task, ReadyQueue ready) {
+        if (cancelled)
+            return;
+        long tick = tickFor(task.nextExecutionTime);
+        Bucket b = wheel[(int)tick & mask];
+        synchronized(b) {
+            if (tick <= processedTick) {
+                // Already due: bypass the wheel.
+                synchronized(task.lock) {
+                    if (task.state != TimerTask.SCHEDULED)
+                        return;
+                }
+                if (fire(task, System.currentTimeMillis()))
+                    ready.put(task);
+                return;
+            }
+            if (!claim(task))
+                return;
+            if (b.count == b.tasks.length) {
+                TimerTask[] newTasks = new TimerTask[2*b.count];
+                System.arraycopy(b.tasks, 0, newTasks, 0, b.count);
+                b.tasks = newTasks;
+            }
+            task.storeIndex = b.count;
+            b.tasks[b.count++] = task;
+        }
+    }
+
+    void remove(TimerTask task) {
+        Bucket b = wheel[(int)tickFor(task.nextExecutionTime) & mask];
+        synchronized(b) {
+            int i = task.storeIndex;
+            if (i >= 0 && i < b.count && b.tasks[i] == task) {
+                removeAt(b, i);
+                task.store = null;
+            }
+        }
+    }
+
+    /**
+     * Removes the task at index i of the given bucket by moving the
+     * bucket's last task into its place.
+     */
+    private static void removeAt(Bucket b, int i) {
+        TimerTask last = b.tasks[--b.count];
+        b.tasks[b.count] = null;  // Drop extra reference to prevent leak
+        if (i < b.count) {
+            b.tasks[i] = last;
+            last.storeIndex = i;
+        }
+    }
+
+    void dispatch(ReadyQueue ready) {
+        while (!cancelled) {
+            long tick = processedTick + 1;
+            long currentTime = System.currentTimeMillis();
+            long delay = tick * tickMillis - currentTime;
+            if (delay > 0) {
+                synchronized(this) {
+                    try {
+                        if (!cancelled)
+                            wait(delay);
+                    } catch (InterruptedException e) {
+                    }
+                }
+                continue;
+            }
+            Bucket b = wheel[(int)tick & mask];
+            synchronized(b) {
+                processedTick = tick;
+                // Sweep downwards, so tasks moved into a vacated slot by
+                // removeAt have already been examined.
+                for (int i = b.count - 1; i >= 0; i--) {
+                    TimerTask task = b.tasks[i];
+                    if (tickFor(task.nextExecutionTime) <= tick) {
+                        removeAt(b, i);
+                        if (fire(task, currentTime))
+                            ready.put(task);
+                    }
+                }
+            }
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        for (int i = 0; i < wheel.length; i++) {
+            Bucket b = wheel[i];
+            synchronized(b) {
+                for (int j = 0; j < b.count; j++)
+                    b.tasks[j] = null;
+                b.count = 0;
+            }
+        }
+        synchronized(this) {
+            notify();
+        }
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package java.util;
+
+/**
+ * The blocking and counting logic shared by {@link ArrayBlockingQueue} and
+ * {@link LinkedBlockingQueue}.  Subclasses supply only the storage.<p>
+ *
+ * Producers and consumers synchronize on two different monitors, so a
+ * <tt>put</tt> and a <tt>take</tt> never contend with each other.  The
+ * element count is an {@link AtomicInteger} that both sides read and
+ * update; it is also what makes an element inserted under the put lock
+ * visible to a thread holding the take lock.  Each side wakes a single
+ * waiter at a time with <tt>notify</tt>, and a woken thread passes the
+ * signal on if it sees that more elements (or more space) remain, so
+ * there is never a <tt>notifyAll</tt> stampede.  The other side's monitor
+ * is only acquired on the transitions from empty and from full.<p>
+ *
+ * Operations that touch the interior of the queue, such as
+ * <tt>remove(Object)</tt> and iteration, hold both monitors, always
+ * acquiring the put lock first.
+ *
+ * @version 1.1, 10/15/26
+ * @see     BlockingQueue
+ * @since   1.4
+ */
+abstract class TwoLockQueue extends AbstractQueue
+                            implements BlockingQueue, java.io.Serializable {
+    private static final long serialVersionUID = 5358201498571620457L;
+
+    /** The capacity bound, or Integer.MAX_VALUE if none */
+    final int capacity;
+
+    /** Current number of elements */
+    transient AtomicInteger count;
+
+    /** Lock held by take, poll, etc; takers wait on it */
+    transient Object takeLock;
+
+    /** Lock held by put, offer, etc; putters wait on it */
+    transient Object putLock;
+
+    TwoLockQueue(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException();
+        this.capacity = capacity;
+        initLocks();
+    }
+
+    private void initLocks() {
+        count = new AtomicInteger(0);
+        takeLock = new Object();
+        putLock = new Object();
+    }
+
+    /**
+     * Allocates empty storage for <tt>capacity</tt> elements.  Called by
+     * the subclass constructors and on deserialization, before any
+     * element is added.
+     */
+    abstract void initStorage();
+
+    /*
+     * Storage operations.  enqueue is called holding putLock, dequeue and
+     * first holding takeLock, and the remaining ones holding both locks.
+     */
+
+    /** Links x at the end of the queue; the queue is known not to be full */
+    abstract void enqueue(Object x);
+
+    /** Unlinks and returns the head; the queue is known not to be empty */
+    abstract Object dequeue();
+
+    /** Returns the head without removing it, or null if empty */
+    abstract Object first();
+
+    /** Returns the elements in order */
+    abstract Object[] elements();
+
+    /**
+     * Removes the first element equal to o (identical to o if identity is
+     * true), without adjusting the count.  Returns true if one was found.
+     */
+    abstract boolean removeElement(Object o, boolean identity);
+
+    /** Removes all elements, without adjusting the count */
+    abstract void clearElements();
+
+    /**
+     * Wakes up a waiting take.  Called only from put/offer, which do not
+     * otherwise hold takeLock.
+     */
+    private void signalNotEmpty() {
+        synchronized (takeLock) {
+            takeLock.notify();
+        }
+    }
+
+    /**
+     * Wakes up a waiting put.  Called only from take/poll.
+     */
+    private void signalNotFull() {
+        synchronized (putLock) {
+            putLock.notify();
+        }
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting if
+     * necessary for space to become available.
+     *
+     * @param o the element to add.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public void put(Object o) throws InterruptedException {
+        if (o == null)
+            throw new NullPointerException();
+        int c;
+        synchronized (putLock) {
+            try {
+                while (count.get() == capacity)
+                    putLock.wait();
+            } catch (InterruptedException ie) {
+                putLock.notify(); // propagate to a non-interrupted thread
+                throw ie;
+            }
+            enqueue(o);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity)
+                putLock.notify();
+        }
+        if (c == 0)
+            signalNotEmpty();
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting if
+     * necessary up to the specified wait time for space to become
+     * available.
+     *
+     * @param o the element to add.
+     * @param timeout how long to wait before giving up, in milliseconds.
+     * @return <tt>true</tt> if successful, or <tt>false</tt> if the
+     *         specified waiting time elapses before space is available.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean offer(Object o, long timeout) throws InterruptedException {
+        if (o == null)
+            throw new NullPointerException();
+        long deadline = System.currentTimeMillis() + timeout;
+        int c;
+        synchronized (putLock) {
+            try {
+                while (count.get() == capacity) {
+                    if (timeout <= 0)
+                        return false;
+                    putLock.wait(timeout);
+                    timeout = deadline - System.currentTimeMillis();
+                }
+            } catch (InterruptedException ie) {
+                putLock.notify();
+                throw ie;
+            }
+            enqueue(o);
+            c = count.getAndIncrement();
+            if (c + 1 < capacity)
+                putLock.notify();
+        }
+        if (c == 0)
+            signalNotEmpty();
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue if possible,
+     * returning immediately if this queue is full.
+     *
+     * @param o the element to add.
+     * @return <tt>true</tt> if it was possible to add the element to this
+     *         queue, else <tt>false</tt>.
+     * @throws NullPointerException if the specified element is
+     *         <tt>null</tt>.
+     */
+    public boolean offer(Object o) {
+        if (o == null)
+            throw new NullPointerException();
+        if (count.get() == capacity)
+            return false;
+        int c = -1;
+        synchronized (putLock) {
+            if (count.get() < capacity) {
+                enqueue(o);
+                c = count.getAndIncrement();
+                if (c + 1 < capacity)
+                    putLock.notify();
+            }
+        }
+        if (c == 0)
+            signalNotEmpty();
+        return c >= 0;
+    }
+
+    public Object take() throws InterruptedException {
+        Object x;
+        int c;
+        synchronized (takeLock) {
+            try {
+                while (count.get() == 0)
+                    takeLock.wait();
+            } catch (InterruptedException ie) {
+                takeLock.notify(); // propagate to a non-interrupted thread
+                throw ie;
+            }
+            x = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1)
+                takeLock.notify();
+        }
+        if (c == capacity)
+            signalNotFull();
+        return x;
+    }
+
+    public Object poll(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        Object x;
+        int c;
+        synchronized (takeLock) {
+            try {
+                while (count.get() == 0) {
+                    if (timeout <= 0)
+                        return null;
+                    takeLock.wait(timeout);
+                    timeout = deadline - System.currentTimeMillis();
+                }
+            } catch (InterruptedException ie) {
+                takeLock.notify();
+                throw ie;
+            }
+            x = dequeue();
+            c = count.getAndDecrement();
+            if (c > 1)
+                takeLock.notify();
+        }
+        if (c == capacity)
+            signalNotFull();
+        return x;
+    }
+
+    public Object poll() {
+        if (count.get() == 0)
+            return null;
+        Object x = null;
+        int c = -1;
+        synchronized (takeLock) {
+            if (count.get() > 0) {
+                x = dequeue();
+                c = count.getAndDecrement();
+                if (c > 1)
+                    takeLock.notify();
+            }
+        }
+        if (c == capacity)
+            signalNotFull();
+        return x;
+    }
+
+    public Object peek() {
+        if (count.get() == 0)
+            return null;
+        synchronized (takeLock) {
+            return first();
+        }
+    }
+
+    /**
+     * Returns the number of elements in this queue.
+     *
+     * @return the number of elements in this queue.
+     */
+    public int size() {
+        return count.get();
+    }
+
+    /**
+     * Returns the number of elements that this queue can ideally (in the
+     * absence of memory or resource constraints) accept without blocking.
+     * This is always equal to the capacity of this queue less its current
+     * <tt>size</tt>.<p>
+     *
+     * Note that you <em>cannot</em> always tell if an attempt to
+     * <tt>add</tt> an element will succeed by inspecting
+     * <tt>remainingCapacity</tt>, because it may be the case that another
+     * thread is about to <tt>put</tt> or <tt>take</tt> an element.
+     *
+     * @return the remaining capacity.
+     */
+    public int remainingCapacity() {
+        return capacity - count.get();
+    }
+
+    /**
+     * Removes a single instance of the specified element from this queue,
+     * if it is present.
+     *
+     * @param o element to be removed from this queue, if present.
+     * @return <tt>true</tt> if this queue contained the specified element.
+     */
+    public boolean remove(Object o) {
+        return o != null && remove(o, false);
+    }
+
+    private boolean remove(Object o, boolean identity) {
+        synchronized (putLock) {
+            synchronized (takeLock) {
+                if (!removeElement(o, identity))
+                    return false;
+                if (count.getAndDecrement() == capacity)
+                    putLock.notify();
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(Object o) {
+        if (o == null)
+            return false;
+        synchronized (putLock) {
+            synchronized (takeLock) {
+                Object[] a = elements();
+                for (int i = 0; i < a.length; i++)
+                    if (o.equals(a[i]))
+                        return true;
+                return false;
+            }
+        }
+    }
+
+    public Object[] toArray() {
+        synchronized (putLock) {
+            synchronized (takeLock) {
+                return elements();
+            }
+        }
+    }
+
+    public Object[] toArray(Object[] a) {
+        Object[] elements = toArray();
+        int size = elements.length;
+        if (a.length < size)
+            a = (Object[])java.lang.reflect.Array.newInstance(
+                                  a.getClass().getComponentType(), size);
+        System.arraycopy(elements, 0, a, 0, size);
+        if (a.length > size)
+            a[size] = null;
+        return a;
+    }
+
+    /**
+     * Atomically removes all of the elements from this queue.  The queue
+     * will be empty after this call returns.
+     */
+    public void clear() {
+        synchronized (putLock) {
+            synchronized (takeLock) {
+                clearElements();
+                if (count.getAndSet(0) == capacity)
+                    putLock.notifyAll(); // every waiting putter has room
+            }
+        }
+    }
+
+    public int drainTo(Collection c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most the given number of elements from this queue and
+     * adds them into the given collection.  The elements are removed while
+     * holding the take lock once, rather than once per element, and
+     * producers blocked on a full queue are woken when the batch is done.
+     *
+     * @param c the collection to transfer elements into.
+     * @param maxElements the maximum number of elements to transfer.
+     * @return the number of elements transferred.
+     * @throws NullPointerException if <tt>c</tt> is <tt>null</tt>.
+     * @throws IllegalArgumentException if <tt>c</tt> is this queue.
+     */
+    public int drainTo(Collection c, int maxElements) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+        if (maxElements <= 0)
+            return 0;
+        int n;
+        boolean wasFull;
+        synchronized (takeLock) {
+            n = Math.min(maxElements, count.get());
+            for (int i = 0; i < n; i++)
+                c.add(dequeue());
+            wasFull = (count.getAndAdd(-n) == capacity);
+        }
+        if (wasFull && n > 0) {
+            synchronized (putLock) {
+                putLock.notifyAll();
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns an iterator over the elements in this queue in proper
+     * sequence.  The returned iterator is a "weakly consistent" iterator
+     * that will never throw {@link ConcurrentModificationException}; it
+     * traverses the elements present when the iterator was created.
+     *
+     * @return an iterator over the elements in this queue in proper
+     *         sequence.
+     */
+    public Iterator iterator() {
+        return new Itr(toArray());
+    }
+
+    private class Itr implements Iterator {
+        private final Object[] snapshot;
+        private int cursor;
+        private int lastRet = -1;
+
+        Itr(Object[] snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public boolean hasNext() {
+            return cursor < snapshot.length;
+        }
+
+        public Object next() {
+            if (cursor >= snapshot.length)
+                throw new NoSuchElementException();
+            lastRet = cursor++;
+            return snapshot[lastRet];
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            // A no-op if the element has already been taken
+            TwoLockQueue.this.remove(snapshot[lastRet], true);
+            lastRet = -1;
+        }
+    }
+
+    /**
+     * Save the state to a stream (that is, serialize it).
+     *
+     * @serialData The capacity (<tt>int</tt>), followed by the number of
+     *             elements (<tt>int</tt>) and each element
+     *             (<tt>Object</tt>) in the proper order.
+     */
+    private void writeObject(java.io.ObjectOutputStream s)
+        throws java.io.IOException {
+        s.defaultWriteObject();
+        Object[] a = toArray();
+        s.writeInt(a.length);
+        for (int i = 0; i < a.length; i++)
+            s.writeObject(a[i]);
+    }
+
+    /**
+     * Reconstitute the queue from a stream (that is, deserialize it).
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        initLocks();
+        initStorage();
+        int n = s.readInt();
+        for (int i = 0; i < n; i++)
+            add(s.readObject());
+    }
+}
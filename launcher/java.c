@@ -20,6 +20,8 @@
 #include <stdio.h>
 #include <stdlib.h>
 #include <string.h>
+#include <sys/types.h>
+#include <sys/stat.h>
 
 #include <jni.h>
 #include "java.h"
@@ -40,6 +42,16 @@ int      status = 0;
 static JavaVMOption *options;
 static int numOptions, maxOptions;
 
+/*
+ * Use of the shared class archive, as selected by -Xshare.
+ */
+#define SHARE_OFF  0
+#define SHARE_AUTO 1
+#define SHARE_ON   2
+#define SHARE_DUMP 3
+static int shareMode = SHARE_OFF;
+static jboolean bootClassPathSet = JNI_FALSE;
+
 /*
  * Prototypes for functions internal to launcher.
  */
@@ -47,6 +59,8 @@ static void AddOption(char *str, void *info);
 static void SetClassPath(char *s);
 static jboolean ParseArguments(int *pargc, char ***pargv, char **pjarfile,
 			       char **pclassname, int *pret);
+static jboolean SetSharedArchive(const char *jrepath, char **pjarfile,
+				 char **pclassname, int *pargc, char ***pargv);
 static jboolean InitializeJVM(JavaVM **pvm, JNIEnv **penv,
 			      InvocationFunctions *ifn);
 static void* MemAlloc(size_t size);
@@ -215,6 +229,12 @@ main(int argc, char **argv)
 	SetClassPath(jarfile);
     }
 
+    /* Use or write the shared class archive if -Xshare asked for it */
+    if (!SetSharedArchive(jrepath, &jarfile, &classname, &argc, &argv)) {
+        status = 2;
+	return 1;
+    }
+
     /* Initialize the virtual machine */
 
     if (debug)
@@ -421,6 +441,25 @@ ParseArguments(int *pargc, char ***pargv, char **pjarfile,
 	} else if (strcmp(arg, "-X") == 0) {
 	    *pret = PrintXUsage();
 	    return JNI_FALSE;
+	} else if (strncmp(arg, "-Xshare:", 8) == 0) {
+	    char *mode = arg + 8;
+	    if (strcmp(mode, "off") == 0) {
+		shareMode = SHARE_OFF;
+	    } else if (strcmp(mode, "auto") == 0) {
+		shareMode = SHARE_AUTO;
+	    } else if (strcmp(mode, "on") == 0) {
+		shareMode = SHARE_ON;
+	    } else if (strcmp(mode, "dump") == 0) {
+		shareMode = SHARE_DUMP;
+	    } else {
+		fprintf(stderr, "Unrecognized option %s: use -Xshare:off, "
+			"-Xshare:auto, -Xshare:on or -Xshare:dump\n", arg);
+		PrintUsage();
+		return JNI_FALSE;
+	    }
+	} else if (strncmp(arg, "-Xbootclasspath", 15) == 0) {
+	    bootClassPathSet = JNI_TRUE;
+	    AddOption(arg, NULL);
 /*
  * The following case provide backward compatibility with old-style
  * command line options.
@@ -491,6 +530,77 @@ ParseArguments(int *pargc, char ***pargv, char **pjarfile,
     return JNI_TRUE;
 }
 
+/*
+ * Arranges for the shared class archive to be used or written, as
+ * selected by -Xshare.  The archive is a jar file holding the class files
+ * of the core classes uncompressed, written in the order in which they
+ * are loaded at startup, so that the VM reads them without inflating
+ * them and concurrent VMs share the file's pages.  It is prepended to
+ * the boot class path, but only if it is no older than rt.jar and the
+ * boot class path has not been changed on the command line; otherwise
+ * -Xshare:on is an error and -Xshare:auto runs without it.  For
+ * -Xshare:dump the archive is written from the JRE's class list by
+ * sun.misc.SharedClassArchive, which is run in place of an application.
+ */
+static jboolean
+SetSharedArchive(const char *jrepath, char **pjarfile, char **pclassname,
+		 int *pargc, char ***pargv)
+{
+    char archive[MAXPATHLEN + sizeof(SHARED_ARCHIVE)];
+    char rtjar[MAXPATHLEN + sizeof(RT_JAR)];
+    struct stat as, rs;
+    char *reason = 0;
+    char *opt;
+
+    if (shareMode == SHARE_OFF)
+	return JNI_TRUE;
+
+    sprintf(archive, "%s" SHARED_ARCHIVE, jrepath);
+
+    if (shareMode == SHARE_DUMP) {
+	char **args;
+	if (*pjarfile != 0 || *pclassname != 0) {
+	    fprintf(stderr, "-Xshare:dump cannot be used to run a class\n");
+	    return JNI_FALSE;
+	}
+	args = MemAlloc(3 * sizeof(char *));
+	args[0] = MemAlloc(strlen(jrepath) + sizeof(SHARED_CLASSLIST));
+	sprintf(args[0], "%s" SHARED_CLASSLIST, jrepath);
+	args[1] = MemAlloc(strlen(archive) + 1);
+	strcpy(args[1], archive);
+	args[2] = 0;
+	*pclassname = "sun.misc.SharedClassArchive";
+	*pargc = 2;
+	*pargv = args;
+	return JNI_TRUE;
+    }
+
+    sprintf(rtjar, "%s" RT_JAR, jrepath);
+    if (bootClassPathSet) {
+	reason = "the boot class path has been set";
+    } else if (stat(archive, &as) != 0) {
+	reason = "it does not exist";
+    } else if (stat(rtjar, &rs) == 0 && as.st_mtime < rs.st_mtime) {
+	reason = "it is older than rt.jar";
+    }
+    if (reason != 0) {
+	if (shareMode == SHARE_ON) {
+	    fprintf(stderr, "Error: cannot use shared class archive `%s': %s.\n"
+		    "Run `%s -Xshare:dump' to write it.\n",
+		    archive, reason, progname);
+	    return JNI_FALSE;
+	}
+	if (debug)
+	    printf("Not using shared class archive %s: %s\n", archive, reason);
+	return JNI_TRUE;
+    }
+
+    opt = MemAlloc(strlen(archive) + 20);
+    sprintf(opt, "-Xbootclasspath/p:%s", archive);
+    AddOption(opt, NULL);
+    return JNI_TRUE;
+}
+
 /*
  * Initializes the Java Virtual Machine. Also frees options array when
  * finished.
@@ -880,6 +990,13 @@ PrintXUsage(void)
         fwrite(buf, 1, n, stdout);
     }
     fclose(fp);
+
+    /* Options handled by the launcher rather than the VM */
+    fprintf(stdout,
+	"    -Xshare:off       do not use the shared class archive (default)\n"
+	"    -Xshare:auto      use the shared class archive if it is current\n"
+	"    -Xshare:on        require use of the shared class archive\n"
+	"    -Xshare:dump      write the shared class archive and exit\n");
     return 0;
 }
 
@@ -14,6 +14,14 @@
 
 #define JVM_CFG "\\lib\\jvm.cfg"
 
+/*
+ * The shared class archive, the class list it is written from, and the
+ * jar file it is checked against, relative to the JRE directory.
+ */
+#define SHARED_ARCHIVE   "\\lib\\sharedclasses.jar"
+#define SHARED_CLASSLIST "\\lib\\classlist"
+#define RT_JAR           "\\lib\\rt.jar"
+
 #ifdef JAVA_ARGS
 /*
  * ApplicationHome is prepended to each of these entries; the resulting
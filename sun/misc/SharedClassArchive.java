@@ -0,0 +1,175 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.misc;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the shared class archive, which the launcher puts in front of
+ * the boot class path when run with <code>-Xshare:on</code> or
+ * <code>-Xshare:auto</code>, and runs in place of an application for
+ * <code>-Xshare:dump</code>.  The archive is a jar file holding the class
+ * files of the core classes named by a class list, stored without
+ * compression and in the order of the list, so that the VM reads each
+ * class without inflating it and the pages of the file are shared by all
+ * the VMs that have it open.
+ * <p>
+ * The class list names one class per line; blank lines and lines
+ * starting with <code>#</code> are ignored.  The output of
+ * <code>java -verbose:class</code> may be used as the list as it stands:
+ * only its lines reporting loaded classes are read.  Classes that the
+ * bootstrap class loader cannot load are left out of the archive.
+ */
+public class SharedClassArchive {
+
+    private SharedClassArchive() {
+    }
+
+    public static void main(String[] args) {
+	if (args.length != 2) {
+	    System.err.println("Usage: SharedClassArchive classlist archive");
+	    System.exit(1);
+	}
+	try {
+	    int n = dump(new File(args[0]), new File(args[1]));
+	    System.out.println("Wrote " + n + " classes to " + args[1]);
+	} catch (IOException e) {
+	    System.err.println("Error: could not write shared class archive "
+			       + args[1] + ": " + e.getMessage());
+	    System.exit(1);
+	}
+    }
+
+    /**
+     * Writes the classes named by a class list to an archive, replacing
+     * it as a whole once the new archive is complete.
+     *
+     * @return the number of classes written
+     */
+    static int dump(File list, File archive) throws IOException {
+	String[] names = readClassList(list);
+	File tmp = new File(archive.getPath() + ".tmp");
+	ZipOutputStream out = new ZipOutputStream(
+	    new BufferedOutputStream(new FileOutputStream(tmp)));
+	boolean done = false;
+	int count = 0;
+	try {
+	    out.setMethod(ZipOutputStream.STORED);
+	    CRC32 crc = new CRC32();
+	    for (int i = 0; i < names.length; i++) {
+		byte[] b = readBootstrapClass(names[i]);
+		if (b == null)
+		    continue;
+		ZipEntry e = new ZipEntry(names[i] + ".class");
+		crc.reset();
+		crc.update(b, 0, b.length);
+		e.setSize(b.length);
+		e.setCompressedSize(b.length);
+		e.setCrc(crc.getValue());
+		out.putNextEntry(e);
+		out.write(b, 0, b.length);
+		out.closeEntry();
+		count++;
+	    }
+	    if (count == 0)
+		throw new IOException("no core classes are named by " + list);
+	    out.close();
+	    done = true;
+	} finally {
+	    if (!done) {
+		try {
+		    out.close();
+		} catch (IOException e) {
+		}
+		tmp.delete();
+	    }
+	}
+	if (archive.exists() && !archive.delete()) {
+	    tmp.delete();
+	    throw new IOException("the existing archive is in use");
+	}
+	if (!tmp.renameTo(archive)) {
+	    tmp.delete();
+	    throw new IOException("could not rename " + tmp);
+	}
+	return count;
+    }
+
+    /*
+     * Reads the internal names of the classes in a class list, in order
+     * and without repeats.
+     */
+    private static String[] readClassList(File list) throws IOException {
+	ArrayList names = new ArrayList();
+	HashSet seen = new HashSet();
+	BufferedReader r = new BufferedReader(new FileReader(list));
+	try {
+	    String line;
+	    while ((line = r.readLine()) != null) {
+		line = line.trim();
+		if (line.startsWith("[Loaded ")) {
+		    int end = line.indexOf(' ', 8);
+		    if (end == -1)
+			end = line.indexOf(']', 8);
+		    if (end == -1)
+			continue;
+		    line = line.substring(8, end);
+		} else if (line.length() == 0 || line.charAt(0) == '#' ||
+			   line.charAt(0) == '[') {
+		    continue;
+		}
+		String name = line.replace('.', '/');
+		if (seen.add(name))
+		    names.add(name);
+	    }
+	} finally {
+	    r.close();
+	}
+	return (String[])names.toArray(new String[names.size()]);
+    }
+
+    /*
+     * Returns the class file of a class, in internal form, that the
+     * bootstrap class loader loads, or null if it does not load one.
+     */
+    private static byte[] readBootstrapClass(String name) throws IOException {
+	try {
+	    Class.forName(name.replace('/', '.'), false, null);
+	} catch (ClassNotFoundException e) {
+	    return null;
+	} catch (LinkageError e) {
+	    return null;
+	}
+	// The extension class loader finds the class where the bootstrap
+	// class loader, its parent, found it
+	ClassLoader ext = ClassLoader.getSystemClassLoader().getParent();
+	InputStream in = ext.getResourceAsStream(name + ".class");
+	if (in == null)
+	    return null;
+	try {
+	    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	    byte[] buf = new byte[4096];
+	    int n;
+	    while ((n = in.read(buf, 0, buf.length)) != -1)
+		bytes.write(buf, 0, n);
+	    return bytes.toByteArray();
+	} finally {
+	    in.close();
+	}
+    }
+}
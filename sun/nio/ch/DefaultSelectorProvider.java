@@ -0,0 +1,34 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * Creates this platform's default SelectorProvider.<p>
+ *
+ * Selectors use epoll on Linux and poll(2) elsewhere.  Setting the system
+ * property <tt>sun.nio.ch.disableEPoll</tt> to <tt>true</tt> forces the
+ * poll-based selector on Linux as well, for kernels that predate epoll.
+ */
+public class DefaultSelectorProvider {
+
+    /**
+     * Prevent instantiation.
+     */
+    private DefaultSelectorProvider() { }
+
+    /**
+     * Returns the default SelectorProvider.  Invoked with privileges by
+     * <tt>SelectorProvider.provider()</tt>.
+     */
+    public static SelectorProvider create() {
+        String osname = System.getProperty("os.name");
+        boolean useEPoll = "Linux".equals(osname)
+            && !Boolean.getBoolean("sun.nio.ch.disableEPoll");
+        return new SelectorProviderImpl(useEPoll);
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+/**
+ * Implemented by buffers whose content lives in native memory, so that
+ * channel implementations can pass the content's address straight to the
+ * operating system instead of copying it through a Java array.
+ */
+public interface DirectBuffer {
+
+    /**
+     * Returns the address of the buffer's element at index zero.
+     */
+    public long address();
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * A selector based on the Linux epoll facility.<p>
+ *
+ * The kernel holds the interest set of every registered descriptor, so a
+ * selection operation costs time proportional to the number of ready
+ * channels rather than to the number registered.  Interest-set changes
+ * are queued by {@link #putEventOps putEventOps}, which may be invoked by
+ * any thread without waiting for a selection in progress, and are handed
+ * to the kernel at the start of the next selection operation.  A
+ * descriptor whose interest set is empty is removed from the epoll set
+ * altogether, so that idle connections cost nothing.
+ */
+class EPollSelectorImpl extends SelectorImpl {
+
+    // epoll_ctl operations
+    private static final int EPOLL_CTL_ADD = 1;
+    private static final int EPOLL_CTL_DEL = 2;
+    private static final int EPOLL_CTL_MOD = 3;
+
+    // Maximum number of events returned by one epoll_wait.  Any further
+    // ready descriptors are reported by the next selection operation.
+    private static final int NUM_EPOLLEVENTS = 4096;
+
+    // The epoll descriptor
+    private final int epfd;
+
+    // Descriptors and events returned by epoll_wait
+    private final int[] eventFds = new int[NUM_EPOLLEVENTS];
+    private final int[] eventOps = new int[NUM_EPOLLEVENTS];
+
+    // Maps descriptor values (Integer) to selection keys
+    private final HashMap fdToKey = new HashMap();
+
+    // Descriptor values (Integer) currently in the kernel's epoll set
+    private final HashSet registered = new HashSet();
+
+    // Pending interest-set changes, applied by the next selection
+    private final Object updateLock = new Object();
+    private SelectionKeyImpl[] updateKeys = new SelectionKeyImpl[64];
+    private int[] updateEvents = new int[64];
+    private int updateCount = 0;
+
+    EPollSelectorImpl(SelectorProvider sp) throws IOException {
+        super(sp);
+        epfd = epollCreate();
+        epollCtl(epfd, EPOLL_CTL_ADD, fd0, Net.POLLIN);
+    }
+
+    protected int doSelect(long timeout) throws IOException {
+        processDeregisterQueue();
+        updateRegistrations();
+        int n;
+        try {
+            begin();
+            n = epollWait(epfd, eventFds, eventOps, NUM_EPOLLEVENTS, timeout);
+        } finally {
+            end();
+        }
+        processDeregisterQueue();
+        int numKeysUpdated = 0;
+        boolean interrupted = false;
+        for (int i = 0; i < n; i++) {
+            int fd = eventFds[i];
+            if (fd == fd0) {
+                interrupted = true;
+                continue;
+            }
+            SelectionKeyImpl ski =
+                (SelectionKeyImpl) fdToKey.get(new Integer(fd));
+            // ski is null in the case of a key deregistered by the second
+            // processDeregisterQueue
+            if (ski != null)
+                numKeysUpdated += updateReadyKey(ski, eventOps[i]);
+        }
+        if (interrupted)
+            resetWakeupSocket();
+        return numKeysUpdated;
+    }
+
+    /**
+     * Passes the queued interest-set changes to the kernel.
+     */
+    private void updateRegistrations() throws IOException {
+        synchronized (updateLock) {
+            for (int j = 0; j < updateCount; j++) {
+                SelectionKeyImpl ski = updateKeys[j];
+                int events = updateEvents[j];
+                updateKeys[j] = null;
+                Integer fd = new Integer(ski.channel.getFDVal());
+                // Skip keys that have since been deregistered
+                if (fdToKey.get(fd) != ski)
+                    continue;
+                if (events == 0) {
+                    if (registered.remove(fd))
+                        epollCtl(epfd, EPOLL_CTL_DEL, fd.intValue(), 0);
+                } else if (registered.contains(fd)) {
+                    epollCtl(epfd, EPOLL_CTL_MOD, fd.intValue(), events);
+                } else {
+                    epollCtl(epfd, EPOLL_CTL_ADD, fd.intValue(), events);
+                    registered.add(fd);
+                }
+            }
+            updateCount = 0;
+        }
+    }
+
+    protected void implRegister(SelectionKeyImpl ski) {
+        if (!isOpen())
+            throw new ClosedSelectorException();
+        fdToKey.put(new Integer(ski.channel.getFDVal()), ski);
+    }
+
+    protected void implDereg(SelectionKeyImpl ski) throws IOException {
+        Integer fd = new Integer(ski.channel.getFDVal());
+        if (fdToKey.get(fd) == ski) {
+            fdToKey.remove(fd);
+            // The native method ignores a descriptor that the kernel has
+            // already dropped because the channel was closed
+            if (registered.remove(fd))
+                epollCtl(epfd, EPOLL_CTL_DEL, fd.intValue(), 0);
+        }
+        removeKey(ski);
+    }
+
+    void putEventOps(SelectionKeyImpl ski, int events) {
+        synchronized (updateLock) {
+            if (updateCount == updateKeys.length) {
+                int n = updateCount * 2;
+                SelectionKeyImpl[] ks = new SelectionKeyImpl[n];
+                int[] evs = new int[n];
+                System.arraycopy(updateKeys, 0, ks, 0, updateCount);
+                System.arraycopy(updateEvents, 0, evs, 0, updateCount);
+                updateKeys = ks;
+                updateEvents = evs;
+            }
+            updateKeys[updateCount] = ski;
+            updateEvents[updateCount] = events;
+            updateCount++;
+        }
+    }
+
+    protected void implClose() throws IOException {
+        super.implClose();
+        synchronized (updateLock) {
+            for (int j = 0; j < updateCount; j++)
+                updateKeys[j] = null;
+            updateCount = 0;
+        }
+        IOUtil.close(epfd);
+    }
+
+    // -- Native methods --
+
+    private static native int epollCreate() throws IOException;
+
+    private static native void epollCtl(int epfd, int opcode, int fd,
+                                        int events) throws IOException;
+
+    /**
+     * Waits for events on the given epoll descriptor, storing up to
+     * <tt>max</tt> ready descriptors and their events in the given arrays.
+     * Returns the number stored, or zero on timeout or interrupt.
+     */
+    private static native int epollWait(int epfd, int[] fds, int[] events,
+                                        int max, long timeout)
+        throws IOException;
+
+    static {
+        Util.load();
+    }
+}
@@ -0,0 +1,703 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An implementation of FileChannels, shared with the stream or random
+ * access file from which it was obtained.
+ */
+public class FileChannelImpl extends FileChannel {
+
+    // Used to make native read and write calls
+    private static final NativeDispatcher nd = new FileDispatcher();
+
+    // File descriptor, shared with the parent
+    private final FileDescriptor fd;
+
+    // File access mode (immutable)
+    private final boolean writable;
+    private final boolean readable;
+
+    // The stream or random access file that created this channel, which is
+    // closed when this channel is closed; null if there is none
+    private final Object parent;
+
+    // Lock held by any thread that uses or moves the file position, or
+    // changes the size of the file
+    private final Object positionLock = new Object();
+
+    private FileChannelImpl(FileDescriptor fd, boolean readable,
+                            boolean writable, Object parent)
+    {
+        this.fd = fd;
+        this.readable = readable;
+        this.writable = writable;
+        this.parent = parent;
+    }
+
+    /**
+     * Returns a new channel for the given descriptor, which is owned by the
+     * given <tt>FileInputStream</tt>, <tt>FileOutputStream</tt> or
+     * <tt>RandomAccessFile</tt>.
+     */
+    public static FileChannel open(FileDescriptor fd, boolean readable,
+                                   boolean writable, Object parent)
+    {
+        return new FileChannelImpl(fd, readable, writable, parent);
+    }
+
+    // The parent's close method closes the shared descriptor directly, so
+    // the channel is closed as soon as its descriptor is no longer valid
+    public boolean isOpen() {
+        return super.isOpen() && fd.valid();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!isOpen()) {
+            close();    // releases the locks if the parent closed it
+            throw new ClosedChannelException();
+        }
+    }
+
+    // -- Standard channel operations --
+
+    protected void implCloseChannel() throws IOException {
+        // Closing the descriptor releases every lock held through it
+        synchronized (lockList) {
+            for (int i = 0; i < lockList.size(); i++)
+                ((FileLockImpl) lockList.get(i)).invalidate();
+            lockList.clear();
+        }
+
+        // Closing the parent closes the shared descriptor, unless the
+        // parent has already closed it
+        if (parent instanceof FileInputStream)
+            ((FileInputStream) parent).close();
+        else if (parent instanceof FileOutputStream)
+            ((FileOutputStream) parent).close();
+        else if (parent instanceof RandomAccessFile)
+            ((RandomAccessFile) parent).close();
+        else
+            nd.close(fd);
+    }
+
+    public int read(ByteBuffer dst) throws IOException {
+        if (dst == null)
+            throw new NullPointerException();
+        ensureOpen();
+        if (!readable)
+            throw new NonReadableChannelException();
+        synchronized (positionLock) {
+            int n = 0;
+            do {
+                n = IOUtil.read(fd, dst, nd);
+            } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            if (!isOpen() && n <= 0)
+                throw new AsynchronousCloseException();
+            return IOStatus.normalize(n);
+        }
+    }
+
+    public int write(ByteBuffer src) throws IOException {
+        if (src == null)
+            throw new NullPointerException();
+        ensureOpen();
+        if (!writable)
+            throw new NonWritableChannelException();
+        synchronized (positionLock) {
+            int written = 0;
+            while (src.hasRemaining()) {
+                int n = IOUtil.write(fd, src, nd);
+                if (n == IOStatus.INTERRUPTED) {
+                    if (!isOpen())
+                        break;
+                    continue;
+                }
+                written += IOStatus.normalize(n);
+            }
+            if (!isOpen() && src.hasRemaining())
+                throw new AsynchronousCloseException();
+            return written;
+        }
+    }
+
+    public long read(ByteBuffer[] dsts, int offset, int length)
+        throws IOException
+    {
+        IOUtil.checkBounds(dsts, offset, length);
+        ensureOpen();
+        if (!readable)
+            throw new NonReadableChannelException();
+        synchronized (positionLock) {
+            long n = 0;
+            do {
+                n = IOUtil.read(fd, dsts, offset, length, nd);
+            } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            if (!isOpen() && n <= 0)
+                throw new AsynchronousCloseException();
+            return IOStatus.normalize(n);
+        }
+    }
+
+    public long write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException
+    {
+        IOUtil.checkBounds(srcs, offset, length);
+        ensureOpen();
+        if (!writable)
+            throw new NonWritableChannelException();
+        synchronized (positionLock) {
+            long written = 0;
+            for (;;) {
+                // Skip the buffers that have been drained
+                while ((length > 0) && !srcs[offset].hasRemaining()) {
+                    offset++;
+                    length--;
+                }
+                if (length == 0)
+                    break;
+                long n = IOUtil.write(fd, srcs, offset, length, nd);
+                if (n == IOStatus.INTERRUPTED) {
+                    if (!isOpen())
+                        break;
+                    continue;
+                }
+                written += IOStatus.normalize(n);
+            }
+            if (!isOpen() && (length > 0))
+                throw new AsynchronousCloseException();
+            return written;
+        }
+    }
+
+    // -- Positional I/O --
+
+    public int read(ByteBuffer dst, long position) throws IOException {
+        if (dst == null)
+            throw new NullPointerException();
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        ensureOpen();
+        if (!readable)
+            throw new NonReadableChannelException();
+        int n = 0;
+        do {
+            n = IOUtil.read(fd, dst, position, nd);
+        } while ((n == IOStatus.INTERRUPTED) && isOpen());
+        if (!isOpen() && n <= 0)
+            throw new AsynchronousCloseException();
+        return IOStatus.normalize(n);
+    }
+
+    public int write(ByteBuffer src, long position) throws IOException {
+        if (src == null)
+            throw new NullPointerException();
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        ensureOpen();
+        if (!writable)
+            throw new NonWritableChannelException();
+        int written = 0;
+        while (src.hasRemaining()) {
+            int n = IOUtil.write(fd, src, position + written, nd);
+            if (n == IOStatus.INTERRUPTED) {
+                if (!isOpen())
+                    break;
+                continue;
+            }
+            written += IOStatus.normalize(n);
+        }
+        if (!isOpen() && src.hasRemaining())
+            throw new AsynchronousCloseException();
+        return written;
+    }
+
+    // -- Other operations --
+
+    public long position() throws IOException {
+        ensureOpen();
+        synchronized (positionLock) {
+            return position0(fd, -1);
+        }
+    }
+
+    public FileChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0)
+            throw new IllegalArgumentException();
+        synchronized (positionLock) {
+            position0(fd, newPosition);
+            return this;
+        }
+    }
+
+    public long size() throws IOException {
+        ensureOpen();
+        return size0(fd);
+    }
+
+    public FileChannel truncate(long size) throws IOException {
+        ensureOpen();
+        if (size < 0)
+            throw new IllegalArgumentException();
+        if (!writable)
+            throw new NonWritableChannelException();
+        synchronized (positionLock) {
+            long p = position0(fd, -1);
+            if (size < size0(fd))
+                truncate0(fd, size);
+            if (p > size)
+                position0(fd, size);
+            return this;
+        }
+    }
+
+    public void force(boolean metaData) throws IOException {
+        ensureOpen();
+        force0(fd, metaData);
+    }
+
+    // -- Transfers --
+
+    // Size of the buffer used when the kernel cannot transfer directly
+    private static final int TRANSFER_SIZE = 8192;
+
+    // Maximum number of bytes handed to the kernel in one native call, so
+    // that a large transfer does not monopolize the descriptors
+    private static final long MAX_DIRECT_TRANSFER = 0x7ffff000L;
+
+    // Cleared once transfer0 turns out to be missing from the native
+    // library, after which every transfer copies through a buffer
+    private static volatile boolean directTransferAvailable = true;
+
+    // Returns the descriptor of the given channel if it is one of ours and
+    // the kernel may be able to transfer to or from it directly, else null
+    private static FileDescriptor transferFD(Object ch) {
+        if (ch instanceof FileChannelImpl)
+            return ((FileChannelImpl) ch).fd;
+        if (ch instanceof SocketChannelImpl)
+            return ((SocketChannelImpl) ch).getFD();
+        return null;
+    }
+
+    // Transfers directly between the descriptors, without the bytes
+    // entering the Java heap.  Returns the number of bytes transferred, or
+    // IOStatus.UNSUPPORTED if the kernel cannot transfer between them or
+    // the native library does not provide transfer0.
+    private long transferDirectly(FileDescriptor src, long srcPosition,
+                                  long count, FileDescriptor dst,
+                                  long dstPosition)
+        throws IOException
+    {
+        if (!directTransferAvailable)
+            return IOStatus.UNSUPPORTED;
+        long n = 0;
+        try {
+            do {
+                n = transfer0(src, srcPosition,
+                              Math.min(count, MAX_DIRECT_TRANSFER),
+                              dst, dstPosition);
+            } while ((n == IOStatus.INTERRUPTED) && isOpen());
+        } catch (UnsatisfiedLinkError e) {
+            directTransferAvailable = false;
+            return IOStatus.UNSUPPORTED;
+        }
+        if (n == IOStatus.UNSUPPORTED)
+            return IOStatus.UNSUPPORTED;
+        if (!isOpen())
+            throw new AsynchronousCloseException();
+        return IOStatus.normalize(n);
+    }
+
+    public long transferTo(long position, long count,
+                           WritableByteChannel target)
+        throws IOException
+    {
+        ensureOpen();
+        if (!target.isOpen())
+            throw new ClosedChannelException();
+        if (!readable)
+            throw new NonReadableChannelException();
+        if ((target instanceof FileChannelImpl)
+            && !((FileChannelImpl) target).writable)
+            throw new NonWritableChannelException();
+        if ((position < 0) || (count < 0))
+            throw new IllegalArgumentException();
+        long sz = size();
+        if (position > sz)
+            return 0;
+        count = Math.min(count, sz - position);
+        if (count == 0)
+            return 0;
+
+        // Attempt a direct transfer, if the kernel supports it
+        FileDescriptor targetFD = transferFD(target);
+        if (targetFD != null) {
+            long n;
+            if (target instanceof FileChannelImpl) {
+                // The bytes are written at, and advance, the target's
+                // position
+                synchronized (((FileChannelImpl) target).positionLock) {
+                    n = transferDirectly(fd, position, count, targetFD, -1);
+                }
+            } else {
+                n = transferDirectly(fd, position, count, targetFD, -1);
+            }
+            if (n >= 0)
+                return n;
+        }
+
+        // Fall back to copying through a buffer, a chunk at a time
+        ByteBuffer bb = ByteBuffer.allocate((int) Math.min(count,
+                                                           TRANSFER_SIZE));
+        long tw = 0;
+        while (tw < count) {
+            bb.clear();
+            bb.limit((int) Math.min(count - tw, TRANSFER_SIZE));
+            int nr = read(bb, position + tw);
+            if (nr <= 0)
+                break;
+            bb.flip();
+            int nw = target.write(bb);
+            tw += nw;
+            if (nw != nr)
+                break;
+        }
+        return tw;
+    }
+
+    public long transferFrom(ReadableByteChannel src, long position,
+                             long count)
+        throws IOException
+    {
+        ensureOpen();
+        if (!src.isOpen())
+            throw new ClosedChannelException();
+        if (!writable)
+            throw new NonWritableChannelException();
+        if ((src instanceof FileChannelImpl)
+            && !((FileChannelImpl) src).readable)
+            throw new NonReadableChannelException();
+        if ((position < 0) || (count < 0))
+            throw new IllegalArgumentException();
+        if (position > size())
+            return 0;
+        if (count == 0)
+            return 0;
+
+        // A file source can be copied by the kernel straight into this
+        // file at the given position
+        if (src instanceof FileChannelImpl) {
+            FileChannelImpl fc = (FileChannelImpl) src;
+            synchronized (fc.positionLock) {
+                long p = fc.position();
+                long sz = fc.size();
+                count = Math.min(count, Math.max(0, sz - p));
+                if (count == 0)
+                    return 0;
+                long n = transferDirectly(fc.fd, p, count, fd, position);
+                if (n >= 0) {
+                    fc.position(p + n);
+                    return n;
+                }
+            }
+        }
+
+        // Fall back to copying through a buffer, a chunk at a time
+        ByteBuffer bb = ByteBuffer.allocate((int) Math.min(count,
+                                                           TRANSFER_SIZE));
+        long tw = 0;
+        while (tw < count) {
+            bb.clear();
+            bb.limit((int) Math.min(count - tw, TRANSFER_SIZE));
+            int nr = src.read(bb);
+            if (nr <= 0)
+                break;
+            bb.flip();
+            int nw = write(bb, position + tw);
+            tw += nw;
+            if (nw != nr)
+                break;
+        }
+        return tw;
+    }
+
+    // -- Locks --
+
+    // Results of lock0
+    private static final int LOCKED = 0;
+    private static final int NO_LOCK = -1;
+
+    // Like the other natives of this class, lock0 and release0 are not
+    // implemented in this tree; see the note on the native methods.
+
+    // Locks held, or being acquired, through this channel.  A lock is
+    // entered here before a thread blocks acquiring it, so that another
+    // thread asking for an overlapping region fails at once instead of
+    // deadlocking against it.
+    private final List lockList = new ArrayList(2);
+
+    private FileLockImpl reserve(long position, long size, boolean shared)
+        throws IOException
+    {
+        ensureOpen();
+        if (shared && !readable)
+            throw new NonReadableChannelException();
+        if (!shared && !writable)
+            throw new NonWritableChannelException();
+        FileLockImpl fli = new FileLockImpl(this, position, size, shared);
+        synchronized (lockList) {
+            for (int i = 0; i < lockList.size(); i++) {
+                FileLock fl = (FileLock) lockList.get(i);
+                if (fl.overlaps(position, size))
+                    throw new OverlappingFileLockException();
+            }
+            lockList.add(fli);
+        }
+        return fli;
+    }
+
+    private void unreserve(FileLockImpl fli) {
+        synchronized (lockList) {
+            lockList.remove(fli);
+        }
+    }
+
+    public FileLock lock(long position, long size, boolean shared)
+        throws IOException
+    {
+        FileLockImpl fli = reserve(position, size, shared);
+        boolean locked = false;
+        try {
+            int r;
+            do {
+                r = lock0(fd, true, position, size, shared);
+            } while ((r == IOStatus.INTERRUPTED) && isOpen());
+            if (!isOpen())
+                throw new AsynchronousCloseException();
+            // A blocking attempt should never come back empty-handed, but
+            // if it does the caller must not be given a lock it lacks
+            if (r != LOCKED)
+                throw new IOException("Lock not acquired");
+            locked = true;
+        } finally {
+            if (!locked)
+                unreserve(fli);
+        }
+        return fli;
+    }
+
+    public FileLock tryLock(long position, long size, boolean shared)
+        throws IOException
+    {
+        FileLockImpl fli = reserve(position, size, shared);
+        boolean locked = false;
+        try {
+            int r;
+            do {
+                r = lock0(fd, false, position, size, shared);
+            } while ((r == IOStatus.INTERRUPTED) && isOpen());
+            if (!isOpen())
+                throw new AsynchronousCloseException();
+            locked = (r == LOCKED);
+        } finally {
+            if (!locked)
+                unreserve(fli);
+        }
+        return locked ? fli : null;
+    }
+
+    // Invoked by FileLockImpl.release
+    void release(FileLockImpl fli) throws IOException {
+        ensureOpen();
+        synchronized (lockList) {
+            if (!lockList.contains(fli))
+                return;
+            release0(fd, fli.position(), fli.size());
+            lockList.remove(fli);
+            fli.invalidate();
+        }
+    }
+
+    // -- Memory-mapped buffers --
+
+    /**
+     * Unmaps a mapped file region once the last buffer that refers to it
+     * has been collected.
+     */
+    private static class Unmapper {
+
+        private long address;
+        private final long size;
+
+        Unmapper(long address, long size) {
+            this.address = address;
+            this.size = size;
+        }
+
+        protected synchronized void finalize() {
+            if (address == 0)
+                return;
+            unmap0(address, size);
+            address = 0;
+        }
+    }
+
+    private static final int MAP_RO = 0;
+    private static final int MAP_RW = 1;
+    private static final int MAP_PV = 2;
+
+    public MappedByteBuffer map(MapMode mode, long position, long size)
+        throws IOException
+    {
+        ensureOpen();
+        if (position < 0L)
+            throw new IllegalArgumentException("Negative position");
+        if (size < 0L)
+            throw new IllegalArgumentException("Negative size");
+        if (position + size < 0)
+            throw new IllegalArgumentException("Position + size overflow");
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Size exceeds Integer.MAX_VALUE");
+        int imode = -1;
+        if (mode == MapMode.READ_ONLY)
+            imode = MAP_RO;
+        else if (mode == MapMode.READ_WRITE)
+            imode = MAP_RW;
+        else if (mode == MapMode.PRIVATE)
+            imode = MAP_PV;
+        if (imode < 0)
+            throw new IllegalArgumentException("Unknown map mode: " + mode);
+        if ((mode != MapMode.READ_ONLY) && !writable)
+            throw new NonWritableChannelException();
+        if (!readable)
+            throw new NonReadableChannelException();
+
+        long addr = -1;
+        int pagePosition;
+        synchronized (positionLock) {
+            if (size0(fd) < position + size) {
+                // Extend the file to cover the requested region
+                if (!writable)
+                    throw new IOException("Channel not open for writing "
+                                          + "- cannot extend file to required size");
+                truncate0(fd, position + size);
+            }
+            if (size == 0) {
+                return Util.newMappedByteBuffer(0, 0, null,
+                                                (imode == MAP_RO));
+            }
+
+            // The mapping must begin on an allocation boundary
+            pagePosition = (int) (position % allocationGranularity);
+            long mapPosition = position - pagePosition;
+            long mapSize = size + pagePosition;
+            try {
+                addr = map0(fd, imode, mapPosition, mapSize);
+            } catch (OutOfMemoryError x) {
+                // An OutOfMemoryError may indicate that we've exhausted
+                // the address space; collect any unreachable mapped buffers
+                // so that their regions are unmapped, and try again
+                System.gc();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException y) {
+                    Thread.currentThread().interrupt();
+                }
+                try {
+                    addr = map0(fd, imode, mapPosition, mapSize);
+                } catch (OutOfMemoryError y) {
+                    throw new IOException("Map failed: " + y.getMessage());
+                }
+            }
+            Unmapper um = new Unmapper(addr, mapSize);
+            return Util.newMappedByteBuffer((int) size, addr + pagePosition,
+                                            um, (imode == MAP_RO));
+        }
+    }
+
+    // -- Native methods --
+
+    // None of these is implemented in this tree; they are meant to live in
+    // the nio library, whose sources it does not contain (see Util.load).
+    // Only the channels that the file streams hand out reach them, and
+    // they fail with UnsatisfiedLinkError until that library is supplied.
+
+    // Transfers up to count bytes from src, starting at srcPosition, to dst
+    // without changing src's file offset.  If dstPosition is non-negative
+    // then the bytes are written at that offset of dst, which is then left
+    // unchanged; otherwise they are written at, and advance, dst's current
+    // offset.  Uses copy_file_range(2) or sendfile(2) on Linux; returns
+    // IOStatus.UNSUPPORTED where neither can be used for the descriptors.
+    private static native long transfer0(FileDescriptor src, long srcPosition,
+                                         long count, FileDescriptor dst,
+                                         long dstPosition)
+        throws IOException;
+
+    // Acquires an fcntl(2) record lock on the given region, where a size of
+    // Long.MAX_VALUE extends to the end of the file however it grows.
+    // Returns LOCKED, NO_LOCK if a non-blocking attempt found the region
+    // locked, or IOStatus.INTERRUPTED.
+    private static native int lock0(FileDescriptor fd, boolean blocking,
+                                    long position, long size, boolean shared)
+        throws IOException;
+
+    private static native void release0(FileDescriptor fd, long position,
+                                        long size)
+        throws IOException;
+
+    // Maps the given region of the file, returning its address; throws
+    // OutOfMemoryError if the address space is exhausted.  Like the rest,
+    // neither this nor unmap0 is implemented in this tree.
+    private static native long map0(FileDescriptor fd, int prot,
+                                    long position, long length)
+        throws IOException;
+
+    private static native void unmap0(long address, long length);
+
+    // Returns the granularity at which mappings must begin
+    private static native long initIDs();
+
+
+    // Sets the file position to the given offset, or, if the offset is
+    // negative, leaves it unchanged; returns the resulting position
+    private static native long position0(FileDescriptor fd, long offset)
+        throws IOException;
+
+    private static native long size0(FileDescriptor fd) throws IOException;
+
+    private static native void truncate0(FileDescriptor fd, long size)
+        throws IOException;
+
+    private static native void force0(FileDescriptor fd, boolean metaData)
+        throws IOException;
+
+    private static final long allocationGranularity;
+
+    static {
+        Util.load();
+        allocationGranularity = initIDs();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+
+/**
+ * Performs read and write operations on file descriptors for regular
+ * files.
+ */
+class FileDispatcher extends NativeDispatcher {
+
+    static {
+        Util.load();
+    }
+
+    int read(FileDescriptor fd, long address, int len) throws IOException {
+        return read0(fd, address, len);
+    }
+
+    int read(FileDescriptor fd, byte[] b, int off, int len)
+        throws IOException
+    {
+        return readBytes0(fd, b, off, len);
+    }
+
+    int write(FileDescriptor fd, long address, int len) throws IOException {
+        return write0(fd, address, len);
+    }
+
+    int write(FileDescriptor fd, byte[] b, int off, int len)
+        throws IOException
+    {
+        return writeBytes0(fd, b, off, len);
+    }
+
+    int pread(FileDescriptor fd, long address, int len, long position)
+        throws IOException
+    {
+        return pread0(fd, address, len, position);
+    }
+
+    int pread(FileDescriptor fd, byte[] b, int off, int len, long position)
+        throws IOException
+    {
+        return preadBytes0(fd, b, off, len, position);
+    }
+
+    int pwrite(FileDescriptor fd, long address, int len, long position)
+        throws IOException
+    {
+        return pwrite0(fd, address, len, position);
+    }
+
+    int pwrite(FileDescriptor fd, byte[] b, int off, int len, long position)
+        throws IOException
+    {
+        return pwriteBytes0(fd, b, off, len, position);
+    }
+
+    long readv(FileDescriptor fd, long address, int len) throws IOException {
+        return readv0(fd, address, len);
+    }
+
+    long writev(FileDescriptor fd, long address, int len) throws IOException {
+        return writev0(fd, address, len);
+    }
+
+    void close(FileDescriptor fd) throws IOException {
+        close0(fd);
+    }
+
+    // -- Native methods --
+
+    // None of these is implemented in this tree; they are meant to live in
+    // the nio library, whose sources it does not contain (see Util.load)
+
+    static native int read0(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    static native int readBytes0(FileDescriptor fd, byte[] b, int off,
+                                 int len) throws IOException;
+
+    static native int write0(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    static native int writeBytes0(FileDescriptor fd, byte[] b, int off,
+                                  int len) throws IOException;
+
+    static native int pread0(FileDescriptor fd, long address, int len,
+                             long position) throws IOException;
+
+    static native int preadBytes0(FileDescriptor fd, byte[] b, int off,
+                                  int len, long position) throws IOException;
+
+    static native int pwrite0(FileDescriptor fd, long address, int len,
+                              long position) throws IOException;
+
+    static native int pwriteBytes0(FileDescriptor fd, byte[] b, int off,
+                                   int len, long position) throws IOException;
+
+    static native long readv0(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    static native long writev0(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    static native void close0(FileDescriptor fd) throws IOException;
+}
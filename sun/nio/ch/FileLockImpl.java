@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.channels.FileLock;
+
+/**
+ * A lock on a region of a file, held through a {@link FileChannelImpl}.
+ */
+class FileLockImpl extends FileLock {
+
+    private volatile boolean valid = true;
+
+    FileLockImpl(FileChannelImpl channel, long position, long size,
+                 boolean shared)
+    {
+        super(channel, position, size, shared);
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    // Invoked by the channel, holding its lock list, once the lock has
+    // been released or the channel closed
+    void invalidate() {
+        valid = false;
+    }
+
+    public synchronized void release() throws IOException {
+        if (!valid)
+            return;
+        ((FileChannelImpl) channel()).release(this);
+    }
+}
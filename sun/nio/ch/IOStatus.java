@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+/**
+ * Constants for reporting I/O status from the native dispatchers.  A
+ * non-negative value is a byte count; the negative values below are the
+ * conditions a native read or write can report without throwing.
+ */
+final class IOStatus {
+
+    private IOStatus() { }
+
+    static final int EOF = -1;              // End of file
+    static final int UNAVAILABLE = -2;      // Nothing available (non-blocking)
+    static final int INTERRUPTED = -3;      // System call interrupted
+    static final int UNSUPPORTED = -4;      // Operation not supported
+    static final int THROWN = -5;           // Exception thrown in JNI code
+
+    /**
+     * Maps a native status to the value returned by a channel read or
+     * write method: <tt>UNAVAILABLE</tt> becomes zero, anything else is
+     * returned unchanged.
+     */
+    static int normalize(int n) {
+        if (n == UNAVAILABLE)
+            return 0;
+        return n;
+    }
+
+    static long normalize(long n) {
+        if (n == UNAVAILABLE)
+            return 0;
+        return n;
+    }
+
+    static boolean check(int n) {
+        return (n >= UNAVAILABLE);
+    }
+}
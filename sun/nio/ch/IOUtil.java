@@ -0,0 +1,397 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * File-descriptor utilities shared by the channel and selector
+ * implementations.
+ */
+class IOUtil {
+
+    private IOUtil() { }
+
+    static {
+        Util.load();
+        initIDs();
+    }
+
+    /**
+     * Creates a new <tt>FileDescriptor</tt> for the given native file
+     * descriptor value.
+     */
+    static FileDescriptor newFD(int i) {
+        FileDescriptor fd = new FileDescriptor();
+        setfdVal(fd, i);
+        return fd;
+    }
+
+    // -- Buffer I/O --
+
+    /**
+     * Reads from the given descriptor into the remaining space of the given
+     * buffer and advances the buffer's position by the number of bytes
+     * read.  A direct buffer is filled in place, at its native address; a
+     * heap buffer is filled through its backing array.  Returns the count
+     * of bytes read or an {@link IOStatus} code.
+     */
+    static int read(FileDescriptor fd, ByteBuffer dst, NativeDispatcher nd)
+        throws IOException
+    {
+        return read(fd, dst, -1, nd);
+    }
+
+    /**
+     * Reads as {@link #read(FileDescriptor, ByteBuffer, NativeDispatcher)}
+     * does, but at the given file position, without using or changing the
+     * descriptor's file offset.  A position of <tt>-1</tt> reads at the
+     * current offset instead.
+     */
+    static int read(FileDescriptor fd, ByteBuffer dst, long position,
+                    NativeDispatcher nd)
+        throws IOException
+    {
+        if (dst.isReadOnly())
+            throw new IllegalArgumentException("Read-only buffer");
+        int pos = dst.position();
+        int rem = dst.remaining();
+        if (rem == 0)
+            return 0;
+        int n;
+        if (dst instanceof DirectBuffer) {
+            long a = ((DirectBuffer) dst).address() + pos;
+            n = (position != -1) ? nd.pread(fd, a, rem, position)
+                                 : nd.read(fd, a, rem);
+        } else {
+            byte[] b = dst.array();
+            int off = dst.arrayOffset() + pos;
+            n = (position != -1) ? nd.pread(fd, b, off, rem, position)
+                                 : nd.read(fd, b, off, rem);
+        }
+        if (n > 0)
+            dst.position(pos + n);
+        return n;
+    }
+
+    /**
+     * Writes the remaining bytes of the given buffer to the given
+     * descriptor and advances the buffer's position by the number of bytes
+     * written.  A direct buffer is written from its native address and a
+     * heap buffer from its backing array; only a read-only heap buffer,
+     * whose array is not accessible, is first copied.  Returns the count
+     * of bytes written or an {@link IOStatus} code.
+     */
+    static int write(FileDescriptor fd, ByteBuffer src, NativeDispatcher nd)
+        throws IOException
+    {
+        return write(fd, src, -1, nd);
+    }
+
+    /**
+     * Writes as {@link #write(FileDescriptor, ByteBuffer, NativeDispatcher)}
+     * does, but at the given file position, without using or changing the
+     * descriptor's file offset.  A position of <tt>-1</tt> writes at the
+     * current offset instead.
+     */
+    static int write(FileDescriptor fd, ByteBuffer src, long position,
+                     NativeDispatcher nd)
+        throws IOException
+    {
+        int pos = src.position();
+        int rem = src.remaining();
+        if (rem == 0)
+            return 0;
+        int n;
+        if (src instanceof DirectBuffer) {
+            long a = ((DirectBuffer) src).address() + pos;
+            n = (position != -1) ? nd.pwrite(fd, a, rem, position)
+                                 : nd.write(fd, a, rem);
+        } else {
+            byte[] b;
+            int off;
+            if (src.hasArray()) {
+                b = src.array();
+                off = src.arrayOffset() + pos;
+            } else {
+                b = new byte[rem];
+                off = 0;
+                src.duplicate().get(b);
+            }
+            n = (position != -1) ? nd.pwrite(fd, b, off, rem, position)
+                                 : nd.write(fd, b, off, rem);
+        }
+        if (n > 0)
+            src.position(pos + n);
+        return n;
+    }
+
+    // -- Scattering and gathering I/O --
+
+    // Maximum number of buffers passed to a single readv or writev
+    static final int IOV_MAX = 16;
+
+    // Cleared once the vectored path turns out to be unusable, because the
+    // native library lacks readv0 or writev0 or the VM lacks the memory
+    // access that direct buffers need; vectored operations then loop over
+    // the single-buffer path
+    private static volatile boolean vectoredIOAvailable = true;
+
+    // Layout of a struct iovec, worked out only when the vectored path is
+    // first used, so that the rest of this class does not depend on it
+    private static class IOVec {
+
+        // Size of a native pointer, and of each of the two members of a
+        // struct iovec (iov_base and iov_len)
+        static final int addressSize
+            = sun.misc.Unsafe.getUnsafe().addressSize();
+
+        static final int SIZE = 2 * addressSize;
+    }
+
+    private static void putIOVec(ByteBuffer iov, int i, long base, int len) {
+        int p = i * IOVec.SIZE;
+        if (IOVec.addressSize == 8) {
+            iov.putLong(p, base);
+            iov.putLong(p + 8, len);
+        } else {
+            iov.putInt(p, (int) base);
+            iov.putInt(p + 4, len);
+        }
+    }
+
+    // Checks the (offset, length) preconditions of a vectored operation
+    static void checkBounds(ByteBuffer[] bufs, int offset, int length) {
+        if ((offset < 0) || (length < 0) || (offset > bufs.length - length))
+            throw new IndexOutOfBoundsException();
+    }
+
+    // Returns the total number of bytes remaining in the given buffers
+    static long remaining(ByteBuffer[] bufs, int offset, int length) {
+        long r = 0;
+        for (int i = offset; i < offset + length; i++)
+            r += bufs[i].remaining();
+        return r;
+    }
+
+    /**
+     * Writes the remaining bytes of up to {@link #IOV_MAX} of the given
+     * buffers to the given descriptor with a single gathering write, and
+     * advances each buffer's position by the number of bytes taken from
+     * it.  Direct buffers are written in place; the content of heap buffers
+     * is first staged in a temporary direct buffer.  Where a gathering
+     * write cannot be made, the buffers are written one at a time, up to
+     * the first that is not written in full.  Returns the count of bytes
+     * written or an {@link IOStatus} code.
+     */
+    static long write(FileDescriptor fd, ByteBuffer[] bufs, int offset,
+                      int length, NativeDispatcher nd)
+        throws IOException
+    {
+        if (vectoredIOAvailable) {
+            try {
+                return writev(fd, bufs, offset, length, nd);
+            } catch (LinkageError e) {
+                // Nothing has been written or consumed yet
+                vectoredIOAvailable = false;
+            }
+        }
+        long written = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int rem = bufs[i].remaining();
+            if (rem == 0)
+                continue;
+            int n = write(fd, bufs[i], nd);
+            if (n < 0)
+                return (written > 0) ? written : n;
+            written += n;
+            if (n < rem)
+                break;
+        }
+        return written;
+    }
+
+    private static long writev(FileDescriptor fd, ByteBuffer[] bufs,
+                               int offset, int length, NativeDispatcher nd)
+        throws IOException
+    {
+        int n = Math.min(length, IOV_MAX);
+        int heapRemaining = 0;
+        for (int i = offset; i < offset + n; i++) {
+            if (!(bufs[i] instanceof DirectBuffer))
+                heapRemaining += bufs[i].remaining();
+        }
+        ByteBuffer shadow = null;
+        long shadowAddress = 0;
+        if (heapRemaining > 0) {
+            shadow = Util.getTemporaryDirectBuffer(heapRemaining);
+            shadowAddress = ((DirectBuffer) shadow).address();
+        }
+
+        ByteBuffer iov = Util.getIOVecBuffer(n * IOVec.SIZE);
+        int iovcnt = 0;
+        for (int i = offset; i < offset + n; i++) {
+            ByteBuffer b = bufs[i];
+            int pos = b.position();
+            int rem = b.remaining();
+            if (rem == 0)
+                continue;
+            if (b instanceof DirectBuffer) {
+                putIOVec(iov, iovcnt++, ((DirectBuffer) b).address() + pos,
+                         rem);
+            } else {
+                putIOVec(iov, iovcnt++, shadowAddress + shadow.position(),
+                         rem);
+                shadow.put(b);
+                b.position(pos);
+            }
+        }
+        if (iovcnt == 0)
+            return 0;
+
+        long written = nd.writev(fd, ((DirectBuffer) iov).address(), iovcnt);
+        if (written > 0) {
+            long left = written;
+            for (int i = offset; (i < offset + n) && (left > 0); i++) {
+                ByteBuffer b = bufs[i];
+                int take = (int) Math.min(b.remaining(), left);
+                b.position(b.position() + take);
+                left -= take;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Reads from the given descriptor into the remaining space of up to
+     * {@link #IOV_MAX} of the given buffers with a single scattering read,
+     * filling each buffer in turn and advancing its position by the
+     * number of bytes transferred into it.  Direct buffers are filled in
+     * place; heap buffers are filled from a temporary direct buffer once
+     * the read completes.  Where a scattering read cannot be made, only
+     * the first buffer with space remaining is read into, since reading
+     * on into the next could block once the data at hand is exhausted.
+     * Returns the count of bytes read or an {@link IOStatus} code.
+     */
+    static long read(FileDescriptor fd, ByteBuffer[] bufs, int offset,
+                     int length, NativeDispatcher nd)
+        throws IOException
+    {
+        if (vectoredIOAvailable) {
+            try {
+                return readv(fd, bufs, offset, length, nd);
+            } catch (LinkageError e) {
+                // Nothing has been read or stored yet
+                vectoredIOAvailable = false;
+            }
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (bufs[i].isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (bufs[i].hasRemaining())
+                return read(fd, bufs[i], nd);
+        }
+        return 0;
+    }
+
+    private static long readv(FileDescriptor fd, ByteBuffer[] bufs,
+                              int offset, int length, NativeDispatcher nd)
+        throws IOException
+    {
+        int n = Math.min(length, IOV_MAX);
+        int heapRemaining = 0;
+        for (int i = offset; i < offset + n; i++) {
+            ByteBuffer b = bufs[i];
+            if (b.isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+            if (!(b instanceof DirectBuffer))
+                heapRemaining += b.remaining();
+        }
+        ByteBuffer shadow = null;
+        long shadowAddress = 0;
+        if (heapRemaining > 0) {
+            shadow = Util.getTemporaryDirectBuffer(heapRemaining);
+            shadowAddress = ((DirectBuffer) shadow).address();
+        }
+
+        ByteBuffer iov = Util.getIOVecBuffer(n * IOVec.SIZE);
+        int iovcnt = 0;
+        int shadowOffset = 0;
+        for (int i = offset; i < offset + n; i++) {
+            ByteBuffer b = bufs[i];
+            int rem = b.remaining();
+            if (rem == 0)
+                continue;
+            if (b instanceof DirectBuffer) {
+                putIOVec(iov, iovcnt++,
+                         ((DirectBuffer) b).address() + b.position(), rem);
+            } else {
+                putIOVec(iov, iovcnt++, shadowAddress + shadowOffset, rem);
+                shadowOffset += rem;
+            }
+        }
+        if (iovcnt == 0)
+            return 0;
+
+        long bytesRead = nd.readv(fd, ((DirectBuffer) iov).address(), iovcnt);
+        if (bytesRead > 0) {
+            long left = bytesRead;
+            shadowOffset = 0;
+            for (int i = offset; (i < offset + n) && (left > 0); i++) {
+                ByteBuffer b = bufs[i];
+                int rem = b.remaining();
+                int take = (int) Math.min(rem, left);
+                if (b instanceof DirectBuffer) {
+                    b.position(b.position() + take);
+                } else {
+                    // Each heap buffer owns rem bytes of the shadow
+                    shadow.limit(shadowOffset + take);
+                    shadow.position(shadowOffset);
+                    b.put(shadow);
+                    shadowOffset += rem;
+                }
+                left -= take;
+            }
+        }
+        return bytesRead;
+    }
+
+    /**
+     * Returns the two ends of a new pipe, packed as
+     * <tt>(readFd &lt;&lt; 32) | writeFd</tt>.  Both ends are placed in the
+     * requested blocking mode.
+     */
+    static native long makePipe(boolean blocking);
+
+    /**
+     * Reads and discards everything currently available on the given
+     * non-blocking descriptor.  Returns <tt>true</tt> if anything was read.
+     */
+    static native boolean drain(int fd) throws IOException;
+
+    /**
+     * Writes a single byte to the given descriptor, ignoring a full pipe.
+     */
+    static native void write1(int fd, byte b) throws IOException;
+
+    /**
+     * Closes the given native file descriptor value.
+     */
+    static native void close(int fd) throws IOException;
+
+    static native void configureBlocking(FileDescriptor fd, boolean blocking)
+        throws IOException;
+
+    static native int fdVal(FileDescriptor fd);
+
+    static native void setfdVal(FileDescriptor fd, int value);
+
+    private static native void initIDs();
+}
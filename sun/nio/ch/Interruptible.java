@@ -0,0 +1,21 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+/**
+ * An object that is told when a thread blocked in one of its operations
+ * is interrupted, so that it can make the operation return.
+ */
+public interface Interruptible {
+
+    /**
+     * Invoked, after the thread's interrupt status has been set, by
+     * {@link Thread#interrupt} on a thread that is blocked in an
+     * operation upon this object.
+     */
+    public void interrupt();
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+
+/**
+ * Performs the primitive read, write and close operations upon a kind of
+ * file descriptor.  Each transfer names either a native address, for the
+ * content of a direct buffer, a range of a Java array, or a native array
+ * of <tt>struct iovec</tt> for a scattering or gathering transfer, and
+ * reports would-block, end-of-stream and interrupted conditions as
+ * {@link IOStatus} values instead of throwing.
+ */
+abstract class NativeDispatcher {
+
+    abstract int read(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    abstract int read(FileDescriptor fd, byte[] b, int off, int len)
+        throws IOException;
+
+    abstract int write(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    abstract int write(FileDescriptor fd, byte[] b, int off, int len)
+        throws IOException;
+
+    /**
+     * Reads at the given file position without changing the descriptor's
+     * file offset.  The default implementation throws an
+     * <tt>IOException</tt>, since not every kind of descriptor has a file
+     * position.
+     */
+    int pread(FileDescriptor fd, long address, int len, long position)
+        throws IOException
+    {
+        throw new IOException("Operation unsupported");
+    }
+
+    int pread(FileDescriptor fd, byte[] b, int off, int len, long position)
+        throws IOException
+    {
+        throw new IOException("Operation unsupported");
+    }
+
+    /**
+     * Writes at the given file position without changing the descriptor's
+     * file offset.  The default implementation throws an
+     * <tt>IOException</tt>.
+     */
+    int pwrite(FileDescriptor fd, long address, int len, long position)
+        throws IOException
+    {
+        throw new IOException("Operation unsupported");
+    }
+
+    int pwrite(FileDescriptor fd, byte[] b, int off, int len, long position)
+        throws IOException
+    {
+        throw new IOException("Operation unsupported");
+    }
+
+    /**
+     * Reads into the <tt>len</tt> <tt>struct iovec</tt> entries at the given
+     * address with a single scattering read.
+     */
+    abstract long readv(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    /**
+     * Writes from the <tt>len</tt> <tt>struct iovec</tt> entries at the
+     * given address with a single gathering write.
+     */
+    abstract long writev(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    /**
+     * Prepares the descriptor to be closed, releasing any thread blocked
+     * upon it.  The default implementation does nothing.
+     */
+    void preClose(FileDescriptor fd) throws IOException {
+        // Do nothing by default
+    }
+
+    abstract void close(FileDescriptor fd) throws IOException;
+}
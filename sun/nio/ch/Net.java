@@ -0,0 +1,194 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.net.SocketOptions;
+
+/**
+ * Socket operations for the channel implementations.  They cover the same
+ * ground as <tt>PlainSocketImpl</tt>, as static methods upon a bare
+ * <tt>FileDescriptor</tt> that report, rather than wait out, a connection
+ * or accept that would block.  They are native methods of the <tt>nio</tt>
+ * library, which this tree does not contain; see {@link Util#load}.
+ */
+class Net {
+
+    private Net() { }
+
+    static {
+        Util.load();
+        initIDs();
+    }
+
+    // Event masks understood by poll(2) and epoll(7); the two agree on Linux
+    static final short POLLIN   = 0x0001;
+    static final short POLLOUT  = 0x0004;
+    static final short POLLERR  = 0x0008;
+    static final short POLLHUP  = 0x0010;
+    static final short POLLNVAL = 0x0020;
+    static final short POLLCONN = POLLOUT;
+
+    // Arguments to shutdown
+    static final int SHUT_RD = 0;
+    static final int SHUT_WR = 1;
+
+    /**
+     * Creates a new stream socket, in blocking mode.
+     */
+    static FileDescriptor socket(boolean reuse) throws IOException {
+        return IOUtil.newFD(socket0(reuse));
+    }
+
+    static void bind(FileDescriptor fd, InetAddress addr, int port)
+        throws IOException
+    {
+        bind0(fd, addr, port);
+    }
+
+    static native void listen(FileDescriptor fd, int backlog)
+        throws IOException;
+
+    /**
+     * Initiates a connection.  Returns <tt>1</tt> if the connection was
+     * established, or <tt>IOStatus.UNAVAILABLE</tt> if the socket is
+     * non-blocking and the connection is in progress.
+     */
+    static native int connect(FileDescriptor fd, InetAddress remote,
+                              int remotePort) throws IOException;
+
+    /**
+     * Checks on a connection started by {@link #connect connect}, waiting
+     * for it to complete if <tt>block</tt> is true.  Returns <tt>1</tt> if
+     * the connection has been established or <tt>IOStatus.UNAVAILABLE</tt>
+     * if it is still in progress; throws if it failed.
+     */
+    static native int checkConnect(FileDescriptor fd, boolean block)
+        throws IOException;
+
+    /**
+     * Accepts a connection on the listening socket <tt>ssfd</tt>, storing
+     * the new descriptor in <tt>newfd</tt> and the remote endpoint in
+     * <tt>isaa[0]</tt> and <tt>portp[0]</tt>.  Returns <tt>1</tt>, or
+     * <tt>IOStatus.UNAVAILABLE</tt> if the socket is non-blocking and no
+     * connection is pending.
+     */
+    static native int accept(FileDescriptor ssfd, FileDescriptor newfd,
+                             InetAddress[] isaa, int[] portp)
+        throws IOException;
+
+    static native int localPort(FileDescriptor fd) throws IOException;
+
+    static native InetAddress localInetAddress(FileDescriptor fd)
+        throws IOException;
+
+    static native void shutdown(FileDescriptor fd, int how)
+        throws IOException;
+
+    // -- Socket options --
+
+    /**
+     * Sets a socket option, validating the value in the same way as
+     * <tt>PlainSocketImpl.setOption</tt>.  Options that only make sense for
+     * a stream-based socket, such as <tt>SO_TIMEOUT</tt>, are rejected.
+     */
+    static void setSocketOption(FileDescriptor fd, int opt, Object val)
+        throws SocketException
+    {
+        int arg;
+        switch (opt) {
+        case SocketOptions.SO_LINGER:
+            if (val == null || (!(val instanceof Integer)
+                                && !(val instanceof Boolean)))
+                throw new SocketException("Bad parameter for option");
+            // Boolean is only allowed in order to disable lingering
+            if (val instanceof Boolean) {
+                if (((Boolean) val).booleanValue())
+                    throw new SocketException("Bad parameter for SO_LINGER");
+                arg = -1;
+            } else {
+                arg = ((Integer) val).intValue();
+            }
+            break;
+        case SocketOptions.TCP_NODELAY:
+        case SocketOptions.SO_KEEPALIVE:
+        case SocketOptions.SO_REUSEADDR:
+            if (val == null || !(val instanceof Boolean))
+                throw new SocketException("bad parameter for option " + opt);
+            arg = ((Boolean) val).booleanValue() ? 1 : 0;
+            break;
+        case SocketOptions.SO_SNDBUF:
+        case SocketOptions.SO_RCVBUF:
+            if (val == null || !(val instanceof Integer) ||
+                !(((Integer) val).intValue() > 0)) {
+                throw new SocketException("bad parameter for SO_SNDBUF " +
+                                          "or SO_RCVBUF");
+            }
+            arg = ((Integer) val).intValue();
+            break;
+        case SocketOptions.SO_TIMEOUT:
+            throw new SocketException("SO_TIMEOUT is not supported by " +
+                                      "channels; use a Selector");
+        case SocketOptions.SO_BINDADDR:
+            throw new SocketException("Cannot re-bind socket");
+        default:
+            throw new SocketException("unrecognized TCP option: " + opt);
+        }
+        setIntOption0(fd, opt, arg);
+    }
+
+    /**
+     * Returns the value of a socket option, typed as by
+     * <tt>PlainSocketImpl.getOption</tt>.
+     */
+    static Object getSocketOption(FileDescriptor fd, int opt)
+        throws SocketException
+    {
+        switch (opt) {
+        case SocketOptions.SO_BINDADDR:
+            try {
+                return localInetAddress(fd);
+            } catch (SocketException x) {
+                throw x;
+            } catch (IOException x) {
+                throw new SocketException(x.getMessage());
+            }
+        case SocketOptions.SO_TIMEOUT:
+            return new Integer(0);
+        case SocketOptions.TCP_NODELAY:
+        case SocketOptions.SO_KEEPALIVE:
+        case SocketOptions.SO_REUSEADDR:
+            return new Boolean(getIntOption0(fd, opt) != 0);
+        case SocketOptions.SO_LINGER: {
+            int ret = getIntOption0(fd, opt);
+            return (ret == -1) ? (Object) Boolean.FALSE : new Integer(ret);
+        }
+        case SocketOptions.SO_SNDBUF:
+        case SocketOptions.SO_RCVBUF:
+            return new Integer(getIntOption0(fd, opt));
+        default:
+            throw new SocketException("unrecognized TCP option: " + opt);
+        }
+    }
+
+    // -- Native methods --
+
+    private static native int socket0(boolean reuse) throws IOException;
+
+    private static native void bind0(FileDescriptor fd, InetAddress addr,
+                                     int port) throws IOException;
+
+    private static native int getIntOption0(FileDescriptor fd, int opt)
+        throws SocketException;
+
+    private static native void setIntOption0(FileDescriptor fd, int opt,
+                                             int arg) throws SocketException;
+
+    private static native void initIDs();
+}
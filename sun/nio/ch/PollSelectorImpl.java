@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * A selector based on poll(2).  The descriptors, interest events and
+ * returned events are kept in parallel arrays, with the read end of the
+ * wakeup pipe in slot zero and each registered key recording its slot.
+ * Each selection operation costs time proportional to the number of
+ * registered channels, so this selector is used only where no better
+ * mechanism is available.
+ */
+class PollSelectorImpl extends SelectorImpl {
+
+    private static final int INIT_CAP = 10;
+
+    // The poll arrays: descriptors, interest events, and returned events
+    private int[] pollFds;
+    private int[] pollEvents;
+    private int[] pollRevents;
+
+    // The key for each slot of the poll arrays, or null for slot zero
+    private SelectionKeyImpl[] channelArray;
+
+    // The number of used slots, including the wakeup slot
+    private int totalChannels;
+
+    // Guards the arrays against interest-set changes made by other threads
+    // while a selection operation is in progress
+    private final Object arrayLock = new Object();
+
+    PollSelectorImpl(SelectorProvider sp) throws IOException {
+        super(sp);
+        pollFds = new int[INIT_CAP];
+        pollEvents = new int[INIT_CAP];
+        pollRevents = new int[INIT_CAP];
+        channelArray = new SelectionKeyImpl[INIT_CAP];
+        pollFds[0] = fd0;
+        pollEvents[0] = Net.POLLIN;
+        totalChannels = 1;
+    }
+
+    protected int doSelect(long timeout) throws IOException {
+        processDeregisterQueue();
+        int n;
+        try {
+            begin();
+            n = poll0(pollFds, pollEvents, pollRevents, totalChannels,
+                      timeout);
+        } finally {
+            end();
+        }
+        processDeregisterQueue();
+        int numKeysUpdated = 0;
+        for (int i = 1; (i < totalChannels) && (n > 0); i++) {
+            int rOps = pollRevents[i];
+            if (rOps != 0) {
+                n--;
+                pollRevents[i] = 0;
+                numKeysUpdated += updateReadyKey(channelArray[i], rOps);
+            }
+        }
+        if (pollRevents[0] != 0) {
+            pollRevents[0] = 0;
+            resetWakeupSocket();
+        }
+        return numKeysUpdated;
+    }
+
+    protected void implRegister(SelectionKeyImpl ski) {
+        if (!isOpen())
+            throw new java.nio.channels.ClosedSelectorException();
+        synchronized (arrayLock) {
+            if (totalChannels == pollFds.length)
+                growArrays();
+            int i = totalChannels++;
+            ski.setIndex(i);
+            channelArray[i] = ski;
+            pollFds[i] = ski.channel.getFDVal();
+            pollEvents[i] = 0;
+        }
+    }
+
+    private void growArrays() {
+        int newSize = pollFds.length * 2;
+        int[] fds = new int[newSize];
+        int[] events = new int[newSize];
+        SelectionKeyImpl[] ks = new SelectionKeyImpl[newSize];
+        System.arraycopy(pollFds, 0, fds, 0, totalChannels);
+        System.arraycopy(pollEvents, 0, events, 0, totalChannels);
+        System.arraycopy(channelArray, 0, ks, 0, totalChannels);
+        pollFds = fds;
+        pollEvents = events;
+        pollRevents = new int[newSize];
+        channelArray = ks;
+    }
+
+    protected void implDereg(SelectionKeyImpl ski) throws IOException {
+        // Move the last slot, with any events just returned for it, into
+        // the vacated one so that the arrays stay dense
+        synchronized (arrayLock) {
+            int i = ski.getIndex();
+            if (i > 0 && channelArray[i] == ski) {
+                int last = totalChannels - 1;
+                if (i != last) {
+                    SelectionKeyImpl lastKey = channelArray[last];
+                    channelArray[i] = lastKey;
+                    pollFds[i] = pollFds[last];
+                    pollEvents[i] = pollEvents[last];
+                    pollRevents[i] = pollRevents[last];
+                    lastKey.setIndex(i);
+                }
+                channelArray[last] = null;
+                pollEvents[last] = 0;
+                pollRevents[last] = 0;
+                totalChannels--;
+                ski.setIndex(-1);
+            }
+        }
+        removeKey(ski);
+    }
+
+    void putEventOps(SelectionKeyImpl ski, int events) {
+        synchronized (arrayLock) {
+            int i = ski.getIndex();
+            if (i > 0 && channelArray[i] == ski)
+                pollEvents[i] = events;
+        }
+    }
+
+    /**
+     * Invokes poll(2) upon the first <tt>n</tt> slots of the given arrays,
+     * storing the returned events in <tt>revents</tt>.  Returns the number
+     * of slots with events, or zero on timeout or interrupt.
+     */
+    private static native int poll0(int[] fds, int[] events, int[] revents,
+                                    int n, long timeout) throws IOException;
+
+    static {
+        Util.load();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+
+/**
+ * An interface that allows translation (and more!) between the selection
+ * operations of a channel and the native readiness events of its file
+ * descriptor.  Implemented by every channel that a selector in this
+ * package can multiplex.
+ */
+interface SelChImpl {
+
+    FileDescriptor getFD();
+
+    int getFDVal();
+
+    /**
+     * Adds the operations denoted by the native event set <tt>ops</tt> to
+     * the key's ready set.  Returns <tt>true</tt> if the ready set changed.
+     */
+    boolean translateAndUpdateReadyOps(int ops, SelectionKeyImpl sk);
+
+    /**
+     * Replaces the key's ready set with the operations denoted by the
+     * native event set <tt>ops</tt>.  Returns <tt>true</tt> if the ready set
+     * now contains an operation that the key is interested in.
+     */
+    boolean translateAndSetReadyOps(int ops, SelectionKeyImpl sk);
+
+    /**
+     * Translates the interest set <tt>ops</tt> into native events and
+     * passes them to the key's selector.
+     */
+    void translateAndSetInterestOps(int ops, SelectionKeyImpl sk);
+
+    int validOps();
+
+    boolean isOpen();
+
+    /**
+     * Releases the channel's file descriptor once it has been closed and
+     * deregistered from every selector.
+     */
+    void kill() throws IOException;
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.AbstractSelectionKey;
+
+/**
+ * An implementation of SelectionKey for the selectors in this package.
+ */
+class SelectionKeyImpl extends AbstractSelectionKey {
+
+    final SelChImpl channel;
+    final SelectorImpl selector;
+
+    // Index of this key in a poll array, for selectors that keep one
+    private int index;
+
+    private volatile int interestOps;
+    private volatile int readyOps;
+
+    SelectionKeyImpl(SelChImpl ch, SelectorImpl sel) {
+        channel = ch;
+        selector = sel;
+    }
+
+    public SelectableChannel channel() {
+        return (SelectableChannel) channel;
+    }
+
+    public Selector selector() {
+        return selector;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    void setIndex(int i) {
+        index = i;
+    }
+
+    private void ensureValid() {
+        if (!isValid())
+            throw new CancelledKeyException();
+    }
+
+    public int interestOps() {
+        ensureValid();
+        return interestOps;
+    }
+
+    public SelectionKey interestOps(int ops) {
+        ensureValid();
+        return nioInterestOps(ops);
+    }
+
+    public int readyOps() {
+        ensureValid();
+        return readyOps;
+    }
+
+    // The nio versions of these operations do not care if a key has been
+    // invalidated.  They are for internal use by the selectors.
+
+    void nioReadyOps(int ops) {
+        readyOps = ops;
+    }
+
+    int nioReadyOps() {
+        return readyOps;
+    }
+
+    SelectionKey nioInterestOps(int ops) {
+        if ((ops & ~channel().validOps()) != 0)
+            throw new IllegalArgumentException();
+        channel.translateAndSetInterestOps(ops, this);
+        interestOps = ops;
+        return this;
+    }
+
+    int nioInterestOps() {
+        return interestOps;
+    }
+}
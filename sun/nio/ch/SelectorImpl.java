@@ -0,0 +1,302 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.IllegalSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.AbstractSelectableChannel;
+import java.nio.channels.spi.AbstractSelector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Base Selector implementation class.  It maintains the key sets, drains
+ * the cancelled-key set, and implements the wakeup pipe; subclasses supply
+ * the native readiness mechanism.
+ */
+abstract class SelectorImpl extends AbstractSelector {
+
+    // The set of keys with data ready for an operation
+    protected HashSet selectedKeys;
+
+    // The set of keys registered with this Selector
+    protected HashSet keys;
+
+    // Public views of the key sets
+    private Set publicKeys;             // Immutable
+    private Set publicSelectedKeys;     // Removal allowed, but not addition
+
+    // Native descriptors of the wakeup pipe
+    protected final int fd0;            // read end
+    protected final int fd1;            // write end
+
+    // Lock for interrupt triggering and clearing
+    private final Object interruptLock = new Object();
+    private boolean interruptTriggered = false;
+
+    protected SelectorImpl(SelectorProvider sp) throws IOException {
+        super(sp);
+        keys = new HashSet();
+        selectedKeys = new HashSet();
+        publicKeys = Collections.unmodifiableSet(keys);
+        publicSelectedKeys = new UngrowableSet(selectedKeys);
+        long pipeFds = IOUtil.makePipe(false);
+        fd0 = (int) (pipeFds >>> 32);
+        fd1 = (int) pipeFds;
+    }
+
+    public Set keys() {
+        if (!isOpen())
+            throw new ClosedSelectorException();
+        return publicKeys;
+    }
+
+    public Set selectedKeys() {
+        if (!isOpen())
+            throw new ClosedSelectorException();
+        return publicSelectedKeys;
+    }
+
+    /**
+     * Waits for readiness events and updates the selected-key set.  Invoked
+     * while synchronized on this selector and on both of its key sets.
+     *
+     * @param timeout <tt>-1</tt> to block indefinitely, <tt>0</tt> not to
+     *        block, or a positive number of milliseconds.
+     * @return the number of keys whose ready sets were updated.
+     */
+    protected abstract int doSelect(long timeout) throws IOException;
+
+    private int lockAndDoSelect(long timeout) throws IOException {
+        synchronized (this) {
+            if (!isOpen())
+                throw new ClosedSelectorException();
+            synchronized (keys) {
+                synchronized (selectedKeys) {
+                    return doSelect(timeout);
+                }
+            }
+        }
+    }
+
+    public int select(long timeout) throws IOException {
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return lockAndDoSelect((timeout == 0) ? -1 : timeout);
+    }
+
+    public int select() throws IOException {
+        return select(0);
+    }
+
+    public int selectNow() throws IOException {
+        return lockAndDoSelect(0);
+    }
+
+    public Selector wakeup() {
+        synchronized (interruptLock) {
+            if (!interruptTriggered) {
+                try {
+                    IOUtil.write1(fd1, (byte) 0);
+                } catch (IOException x) {
+                    // The selector is closed; nothing to wake
+                }
+                interruptTriggered = true;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Empties the wakeup pipe and rearms {@link #wakeup wakeup}.  Invoked
+     * by subclasses when the pipe's read end is reported ready.
+     */
+    protected void resetWakeupSocket() throws IOException {
+        synchronized (interruptLock) {
+            if (!interruptTriggered)
+                return;
+            IOUtil.drain(fd0);
+            interruptTriggered = false;
+        }
+    }
+
+    protected void implCloseSelector() throws IOException {
+        wakeup();
+        synchronized (this) {
+            synchronized (keys) {
+                synchronized (selectedKeys) {
+                    implClose();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deregisters every remaining key and releases the wakeup pipe.  Invoked
+     * while holding all of the selector locks.  Subclasses that override
+     * this method must invoke it before releasing their own native
+     * resources.
+     */
+    protected void implClose() throws IOException {
+        // Deregister channels
+        Set cks = cancelledKeys();
+        synchronized (cks) {
+            cks.clear();
+        }
+        Iterator i = keys.iterator();
+        while (i.hasNext()) {
+            SelectionKeyImpl ski = (SelectionKeyImpl) i.next();
+            i.remove();
+            implDereg(ski);
+        }
+        selectedKeys.clear();
+
+        synchronized (interruptLock) {
+            interruptTriggered = true;
+        }
+        IOUtil.close(fd1);
+        IOUtil.close(fd0);
+    }
+
+    protected final SelectionKey register(AbstractSelectableChannel ch,
+                                          int ops, Object attachment)
+    {
+        if (!(ch instanceof SelChImpl))
+            throw new IllegalSelectorException();
+        SelectionKeyImpl k = new SelectionKeyImpl((SelChImpl) ch, this);
+        k.attach(attachment);
+        synchronized (keys) {
+            implRegister(k);
+            keys.add(k);
+        }
+        k.interestOps(ops);
+        return k;
+    }
+
+    /**
+     * Adds the key's channel to the native readiness mechanism.  Invoked
+     * while synchronized on the key set.
+     */
+    protected abstract void implRegister(SelectionKeyImpl ski);
+
+    /**
+     * Removes the key's channel from the native readiness mechanism.
+     * Subclasses must then invoke {@link #removeKey removeKey}.
+     */
+    protected abstract void implDereg(SelectionKeyImpl ski)
+        throws IOException;
+
+    /**
+     * Completes the deregistration of a key: removes it from the key sets
+     * and its channel, and releases the channel's descriptor if the
+     * channel was closed while still registered.
+     */
+    protected final void removeKey(SelectionKeyImpl ski) throws IOException {
+        keys.remove(ski);
+        selectedKeys.remove(ski);
+        deregister(ski);
+        SelChImpl ch = ski.channel;
+        if (!ch.isOpen() && !((AbstractSelectableChannel) ch).isRegistered())
+            ch.kill();
+    }
+
+    /**
+     * Records the native interest events of a key.  Invoked by the key's
+     * channel whenever the key's interest set is changed.
+     */
+    abstract void putEventOps(SelectionKeyImpl ski, int events);
+
+    /**
+     * Deregisters the channels of all cancelled keys.  Invoked at the start
+     * and end of each selection operation.
+     */
+    protected final void processDeregisterQueue() throws IOException {
+        Set cks = cancelledKeys();
+        synchronized (cks) {
+            if (cks.isEmpty())
+                return;
+            Iterator i = cks.iterator();
+            while (i.hasNext()) {
+                SelectionKeyImpl ski = (SelectionKeyImpl) i.next();
+                try {
+                    implDereg(ski);
+                } finally {
+                    i.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the native events <tt>rOps</tt>, reported ready for the
+     * channel of the given key, to the key's ready set and to the
+     * selected-key set.  Returns <tt>1</tt> if the key was updated, or
+     * <tt>0</tt>.
+     */
+    protected final int updateReadyKey(SelectionKeyImpl ski, int rOps) {
+        if (selectedKeys.contains(ski)) {
+            return ski.channel.translateAndUpdateReadyOps(rOps, ski) ? 1 : 0;
+        }
+        ski.channel.translateAndSetReadyOps(rOps, ski);
+        if ((ski.nioReadyOps() & ski.nioInterestOps()) != 0) {
+            selectedKeys.add(ski);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * A view of a set that permits removal but not addition, used for the
+     * public selected-key set.
+     */
+    private static class UngrowableSet extends AbstractSet {
+        private final Set s;
+
+        UngrowableSet(Set s) {
+            this.s = s;
+        }
+
+        public int size() {
+            return s.size();
+        }
+
+        public boolean isEmpty() {
+            return s.isEmpty();
+        }
+
+        public boolean contains(Object o) {
+            return s.contains(o);
+        }
+
+        public Iterator iterator() {
+            return s.iterator();
+        }
+
+        public boolean remove(Object o) {
+            return s.remove(o);
+        }
+
+        public boolean removeAll(Collection c) {
+            return s.removeAll(c);
+        }
+
+        public boolean retainAll(Collection c) {
+            return s.retainAll(c);
+        }
+
+        public void clear() {
+            s.clear();
+        }
+    }
+}
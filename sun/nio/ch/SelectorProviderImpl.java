@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.AbstractSelector;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * The selector provider for this package.  Selectors are epoll-based or
+ * poll-based according to the argument given at construction.
+ */
+public class SelectorProviderImpl extends SelectorProvider {
+
+    private final boolean useEPoll;
+
+    SelectorProviderImpl(boolean useEPoll) {
+        this.useEPoll = useEPoll;
+    }
+
+    public AbstractSelector openSelector() throws IOException {
+        if (useEPoll)
+            return new EPollSelectorImpl(this);
+        return new PollSelectorImpl(this);
+    }
+
+    public ServerSocketChannel openServerSocketChannel() throws IOException {
+        return new ServerSocketChannelImpl(this);
+    }
+
+    public SocketChannel openSocketChannel() throws IOException {
+        return new SocketChannelImpl(this);
+    }
+}
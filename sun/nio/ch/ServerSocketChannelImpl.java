@@ -0,0 +1,283 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NotYetBoundException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * An implementation of ServerSocketChannels.
+ */
+class ServerSocketChannelImpl extends ServerSocketChannel
+                              implements SelChImpl {
+
+    // Used to make native close and preClose calls
+    private static final NativeDispatcher nd = new SocketDispatcher();
+
+    // Our file descriptor
+    private final FileDescriptor fd;
+
+    // fd value needed by the selectors
+    private final int fdVal;
+
+    // Lock held by thread currently blocked in this channel
+    private final Object lock = new Object();
+
+    // Lock held by any thread that modifies the state fields declared below
+    // DO NOT invoke a blocking I/O operation while holding this lock!
+    private final Object stateLock = new Object();
+
+    // -- The following fields are protected by stateLock
+
+    // Channel state, increases monotonically
+    private static final int ST_UNINITIALIZED = -1;
+    private static final int ST_INUSE = 0;
+    private static final int ST_KILLPENDING = 1;
+    private static final int ST_KILLED = 2;
+    private int state = ST_UNINITIALIZED;
+
+    // True while a thread is blocked in accept
+    private boolean acceptorActive = false;
+
+    // Binding
+    private InetAddress localAddress = null;
+    private int localPort = -1;
+
+    // -- End of fields protected by stateLock
+
+    ServerSocketChannelImpl(SelectorProvider sp) throws IOException {
+        super(sp);
+        this.fd = Net.socket(true);
+        this.fdVal = IOUtil.fdVal(fd);
+        this.state = ST_INUSE;
+    }
+
+    public InetAddress getInetAddress() {
+        synchronized (stateLock) {
+            return localAddress;
+        }
+    }
+
+    public int getLocalPort() {
+        synchronized (stateLock) {
+            return localPort;
+        }
+    }
+
+    public boolean isBound() {
+        synchronized (stateLock) {
+            return localPort != -1;
+        }
+    }
+
+    public void bind(InetAddress bindAddr, int port, int backlog)
+        throws IOException
+    {
+        if (port < 0 || port > 0xFFFF)
+            throw new IllegalArgumentException("port out of range: " + port);
+        synchronized (lock) {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            if (isBound())
+                throw new SocketException("Already bound");
+            SecurityManager sm = System.getSecurityManager();
+            if (sm != null)
+                sm.checkListen(port);
+            Net.bind(fd, bindAddr, port);
+            Net.listen(fd, (backlog < 1) ? 50 : backlog);
+            synchronized (stateLock) {
+                localAddress = Net.localInetAddress(fd);
+                localPort = Net.localPort(fd);
+            }
+        }
+    }
+
+    public SocketChannel accept() throws IOException {
+        synchronized (lock) {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            if (!isBound())
+                throw new NotYetBoundException();
+            SocketChannel sc = null;
+
+            int n = 0;
+            FileDescriptor newfd = new FileDescriptor();
+            InetAddress[] isaa = new InetAddress[1];
+            int[] portp = new int[1];
+
+            boolean closed = false;
+            try {
+                synchronized (stateLock) {
+                    acceptorActive = true;
+                }
+                do {
+                    n = Net.accept(this.fd, newfd, isaa, portp);
+                } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            } finally {
+                synchronized (stateLock) {
+                    acceptorActive = false;
+                    if (state == ST_KILLPENDING)
+                        kill();
+                    closed = !isOpen();
+                }
+            }
+
+            if (n < 1) {
+                if (closed)
+                    throw new AsynchronousCloseException();
+                return null;
+            }
+
+            // The new channel starts out in blocking mode, whatever the
+            // mode of this one
+            IOUtil.configureBlocking(newfd, true);
+            sc = new SocketChannelImpl(provider(), newfd, isaa[0], portp[0]);
+            SecurityManager sm = System.getSecurityManager();
+            if (sm != null) {
+                try {
+                    sm.checkAccept(isaa[0].getHostAddress(), portp[0]);
+                } catch (SecurityException x) {
+                    sc.close();
+                    throw x;
+                }
+            }
+            return sc;
+        }
+    }
+
+    protected void implConfigureBlocking(boolean block) throws IOException {
+        IOUtil.configureBlocking(fd, block);
+    }
+
+    public void setOption(int opt, Object val) throws SocketException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new SocketException("Socket Closed");
+            Net.setSocketOption(fd, opt, val);
+        }
+    }
+
+    public Object getOption(int opt) throws SocketException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new SocketException("Socket Closed");
+            return Net.getSocketOption(fd, opt);
+        }
+    }
+
+    protected void implCloseSelectableChannel() throws IOException {
+        synchronized (stateLock) {
+            if (state != ST_KILLED)
+                nd.preClose(fd);
+            if (!isRegistered())
+                kill();
+        }
+    }
+
+    public void kill() throws IOException {
+        synchronized (stateLock) {
+            if (state == ST_KILLED)
+                return;
+            if (state == ST_UNINITIALIZED) {
+                state = ST_KILLED;
+                return;
+            }
+            if (acceptorActive) {
+                state = ST_KILLPENDING;
+                return;
+            }
+            nd.close(fd);
+            state = ST_KILLED;
+        }
+    }
+
+    // -- SelChImpl --
+
+    public FileDescriptor getFD() {
+        return fd;
+    }
+
+    public int getFDVal() {
+        return fdVal;
+    }
+
+    /**
+     * Translates native poll revent set into a ready operation set
+     */
+    private boolean translateReadyOps(int ops, int initialOps,
+                                      SelectionKeyImpl sk) {
+        int intOps = sk.nioInterestOps();
+        int oldOps = sk.nioReadyOps();
+        int newOps = initialOps;
+
+        if ((ops & Net.POLLNVAL) != 0) {
+            // This should only happen if this channel is pre-closed while a
+            // selection operation is in progress
+            return false;
+        }
+
+        if ((ops & (Net.POLLERR | Net.POLLHUP)) != 0) {
+            newOps = intOps;
+            sk.nioReadyOps(newOps);
+            return (newOps & ~oldOps) != 0;
+        }
+
+        if (((ops & Net.POLLIN) != 0) &&
+            ((intOps & SelectionKey.OP_ACCEPT) != 0))
+            newOps |= SelectionKey.OP_ACCEPT;
+
+        sk.nioReadyOps(newOps);
+        return (newOps & ~oldOps) != 0;
+    }
+
+    public boolean translateAndUpdateReadyOps(int ops, SelectionKeyImpl sk) {
+        return translateReadyOps(ops, sk.nioReadyOps(), sk);
+    }
+
+    public boolean translateAndSetReadyOps(int ops, SelectionKeyImpl sk) {
+        return translateReadyOps(ops, 0, sk);
+    }
+
+    /**
+     * Translates an interest operation set into a native poll event set
+     */
+    public void translateAndSetInterestOps(int ops, SelectionKeyImpl sk) {
+        int newOps = 0;
+        if ((ops & SelectionKey.OP_ACCEPT) != 0)
+            newOps |= Net.POLLIN;
+        sk.selector.putEventOps(sk, newOps);
+    }
+
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        sb.append(this.getClass().getName());
+        sb.append('[');
+        if (!isOpen()) {
+            sb.append("closed");
+        } else {
+            synchronized (stateLock) {
+                if (localAddress == null) {
+                    sb.append("unbound");
+                } else {
+                    sb.append(localAddress.getHostAddress());
+                    sb.append(':');
+                    sb.append(localPort);
+                }
+            }
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+}
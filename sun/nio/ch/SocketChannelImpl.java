@@ -0,0 +1,604 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.NoConnectionPendingException;
+import java.nio.channels.NotYetConnectedException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * An implementation of SocketChannels.
+ */
+class SocketChannelImpl extends SocketChannel implements SelChImpl {
+
+    // Used to make native read and write calls
+    private static final NativeDispatcher nd = new SocketDispatcher();
+
+    // Our file descriptor object
+    private final FileDescriptor fd;
+
+    // fd value needed by the selectors.  This value remains valid even
+    // after the value in the file descriptor object has been set to -1
+    private final int fdVal;
+
+    // Lock held by current reading or connecting thread
+    private final Object readLock = new Object();
+
+    // Lock held by current writing or connecting thread
+    private final Object writeLock = new Object();
+
+    // Lock held by any thread that modifies the state fields declared below
+    // DO NOT invoke a blocking I/O operation while holding this lock!
+    private final Object stateLock = new Object();
+
+    // -- The following fields are protected by stateLock
+
+    // State, increases monotonically
+    private static final int ST_UNINITIALIZED = -1;
+    private static final int ST_UNCONNECTED = 0;
+    private static final int ST_PENDING = 1;
+    private static final int ST_CONNECTED = 2;
+    private static final int ST_KILLPENDING = 3;
+    private static final int ST_KILLED = 4;
+    private int state = ST_UNINITIALIZED;
+
+    // Threads currently blocked in a read or a write; the descriptor is
+    // not released until both have left
+    private boolean readerActive = false;
+    private boolean writerActive = false;
+
+    // Binding and remote address (once connected)
+    private InetAddress localAddress = null;
+    private int localPort = 0;
+    private InetAddress remoteAddress = null;
+    private int remotePort = 0;
+
+    // Input/Output open
+    private boolean isInputOpen = true;
+    private boolean isOutputOpen = true;
+
+    // -- End of fields protected by stateLock
+
+    // Constructor for normal connecting sockets
+    SocketChannelImpl(SelectorProvider sp) throws IOException {
+        super(sp);
+        this.fd = Net.socket(false);
+        this.fdVal = IOUtil.fdVal(fd);
+        this.state = ST_UNCONNECTED;
+    }
+
+    // Constructor for sockets obtained from server sockets
+    SocketChannelImpl(SelectorProvider sp, FileDescriptor fd,
+                      InetAddress remote, int remotePort)
+        throws IOException
+    {
+        super(sp);
+        this.fd = fd;
+        this.fdVal = IOUtil.fdVal(fd);
+        this.state = ST_CONNECTED;
+        this.remoteAddress = remote;
+        this.remotePort = remotePort;
+        this.localAddress = Net.localInetAddress(fd);
+        this.localPort = Net.localPort(fd);
+    }
+
+    private boolean ensureReadOpen() throws ClosedChannelException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            if (!isConnected())
+                throw new NotYetConnectedException();
+            return isInputOpen;
+        }
+    }
+
+    private void ensureWriteOpen() throws ClosedChannelException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            if (!isOutputOpen)
+                throw new ClosedChannelException();
+            if (!isConnected())
+                throw new NotYetConnectedException();
+        }
+    }
+
+    /**
+     * Marks the end of a read or write.  If the channel was closed while
+     * the operation was in progress then the descriptor is released, if no
+     * other operation is still using it, and the caller is told to report
+     * an asynchronous close.
+     */
+    private boolean endIO(boolean reader) throws IOException {
+        synchronized (stateLock) {
+            if (reader)
+                readerActive = false;
+            else
+                writerActive = false;
+            if (state == ST_KILLPENDING)
+                kill();
+            return !isOpen();
+        }
+    }
+
+    private void beginIO(boolean reader) {
+        synchronized (stateLock) {
+            if (reader)
+                readerActive = true;
+            else
+                writerActive = true;
+        }
+    }
+
+    public int read(ByteBuffer buf) throws IOException {
+        if (buf == null)
+            throw new NullPointerException();
+        synchronized (readLock) {
+            if (!ensureReadOpen())
+                return -1;
+            if (!buf.hasRemaining())
+                return 0;
+            int n = 0;
+            boolean closed = false;
+            try {
+                beginIO(true);
+                do {
+                    n = IOUtil.read(fd, buf, nd);
+                } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            } finally {
+                closed = endIO(true);
+            }
+            if (closed && n <= 0)
+                throw new AsynchronousCloseException();
+            return IOStatus.normalize(n);
+        }
+    }
+
+    public int write(ByteBuffer buf) throws IOException {
+        if (buf == null)
+            throw new NullPointerException();
+        synchronized (writeLock) {
+            ensureWriteOpen();
+            boolean block = isBlocking();
+            int written = 0;
+            boolean closed = false;
+            try {
+                beginIO(false);
+                while (buf.hasRemaining()) {
+                    int n = IOUtil.write(fd, buf, nd);
+                    if (n == IOStatus.INTERRUPTED) {
+                        if (!isOpen())
+                            break;
+                        continue;
+                    }
+                    if (n == IOStatus.UNAVAILABLE)
+                        break;
+                    written += n;
+                    // A non-blocking channel writes only what the socket's
+                    // send buffer can take at once
+                    if (!block)
+                        break;
+                }
+            } finally {
+                closed = endIO(false);
+            }
+            if (closed && buf.hasRemaining())
+                throw new AsynchronousCloseException();
+            return written;
+        }
+    }
+
+    public long read(ByteBuffer[] dsts, int offset, int length)
+        throws IOException
+    {
+        IOUtil.checkBounds(dsts, offset, length);
+        synchronized (readLock) {
+            if (!ensureReadOpen())
+                return -1;
+            if (IOUtil.remaining(dsts, offset, length) == 0)
+                return 0;
+            long n = 0;
+            boolean closed = false;
+            try {
+                beginIO(true);
+                do {
+                    n = IOUtil.read(fd, dsts, offset, length, nd);
+                } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            } finally {
+                closed = endIO(true);
+            }
+            if (closed && n <= 0)
+                throw new AsynchronousCloseException();
+            return IOStatus.normalize(n);
+        }
+    }
+
+    public long write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException
+    {
+        IOUtil.checkBounds(srcs, offset, length);
+        synchronized (writeLock) {
+            ensureWriteOpen();
+            boolean block = isBlocking();
+            long written = 0;
+            boolean closed = false;
+            try {
+                beginIO(false);
+                for (;;) {
+                    // Skip the buffers that have been drained
+                    while ((length > 0) && !srcs[offset].hasRemaining()) {
+                        offset++;
+                        length--;
+                    }
+                    if (length == 0)
+                        break;
+                    long n = IOUtil.write(fd, srcs, offset, length, nd);
+                    if (n == IOStatus.INTERRUPTED) {
+                        if (!isOpen())
+                            break;
+                        continue;
+                    }
+                    if (n == IOStatus.UNAVAILABLE)
+                        break;
+                    written += n;
+                    if (!block)
+                        break;
+                }
+            } finally {
+                closed = endIO(false);
+            }
+            if (closed && (IOUtil.remaining(srcs, offset, length) > 0))
+                throw new AsynchronousCloseException();
+            return written;
+        }
+    }
+
+    protected void implConfigureBlocking(boolean block) throws IOException {
+        IOUtil.configureBlocking(fd, block);
+    }
+
+    public boolean isConnected() {
+        synchronized (stateLock) {
+            return (state == ST_CONNECTED);
+        }
+    }
+
+    public boolean isConnectionPending() {
+        synchronized (stateLock) {
+            return (state == ST_PENDING);
+        }
+    }
+
+    void ensureOpenAndUnconnected() throws IOException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            if (state == ST_CONNECTED)
+                throw new AlreadyConnectedException();
+            if (state == ST_PENDING)
+                throw new ConnectionPendingException();
+        }
+    }
+
+    public boolean connect(InetAddress address, int port) throws IOException {
+        if (address == null)
+            throw new NullPointerException();
+        if (port < 0 || port > 0xFFFF)
+            throw new IllegalArgumentException("port out of range: " + port);
+        synchronized (readLock) {
+            synchronized (writeLock) {
+                ensureOpenAndUnconnected();
+                SecurityManager sm = System.getSecurityManager();
+                if (sm != null)
+                    sm.checkConnect(address.getHostAddress(), port);
+                synchronized (blockingLock()) {
+                    int n = 0;
+                    try {
+                        do {
+                            n = Net.connect(fd, address, port);
+                        } while ((n == IOStatus.INTERRUPTED) && isOpen());
+                    } catch (IOException x) {
+                        // A failed connection leaves the socket unusable
+                        close();
+                        throw x;
+                    }
+                    synchronized (stateLock) {
+                        if (!isOpen())
+                            throw new AsynchronousCloseException();
+                        remoteAddress = address;
+                        remotePort = port;
+                        if (n > 0) {
+                            // Connection succeeded; disallow further
+                            // invocation
+                            state = ST_CONNECTED;
+                            updateLocalAddress();
+                            return true;
+                        }
+                        // If nonblocking and no exception then connection
+                        // pending; disallow another invocation
+                        if (!isBlocking())
+                            state = ST_PENDING;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    public boolean finishConnect() throws IOException {
+        synchronized (readLock) {
+            synchronized (writeLock) {
+                synchronized (stateLock) {
+                    if (!isOpen())
+                        throw new ClosedChannelException();
+                    if (state == ST_CONNECTED)
+                        return true;
+                    if (state != ST_PENDING)
+                        throw new NoConnectionPendingException();
+                }
+                int n = 0;
+                try {
+                    boolean block = isBlocking();
+                    do {
+                        n = Net.checkConnect(fd, block);
+                    } while (((n == IOStatus.INTERRUPTED)
+                              || (block && (n == IOStatus.UNAVAILABLE)))
+                             && isOpen());
+                } catch (IOException x) {
+                    close();
+                    throw x;
+                }
+                synchronized (stateLock) {
+                    if (!isOpen())
+                        throw new AsynchronousCloseException();
+                    if (n > 0) {
+                        state = ST_CONNECTED;
+                        updateLocalAddress();
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    // Invoked holding stateLock once the connection is established
+    private void updateLocalAddress() throws IOException {
+        localAddress = Net.localInetAddress(fd);
+        localPort = Net.localPort(fd);
+    }
+
+    public InetAddress getInetAddress() {
+        synchronized (stateLock) {
+            return (state == ST_CONNECTED) ? remoteAddress : null;
+        }
+    }
+
+    public int getPort() {
+        synchronized (stateLock) {
+            return (state == ST_CONNECTED) ? remotePort : 0;
+        }
+    }
+
+    public InetAddress getLocalAddress() {
+        synchronized (stateLock) {
+            return localAddress;
+        }
+    }
+
+    public int getLocalPort() {
+        synchronized (stateLock) {
+            return localPort;
+        }
+    }
+
+    public void shutdownInput() throws IOException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            if (isInputOpen) {
+                Net.shutdown(fd, Net.SHUT_RD);
+                isInputOpen = false;
+            }
+        }
+    }
+
+    public void shutdownOutput() throws IOException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new ClosedChannelException();
+            if (isOutputOpen) {
+                Net.shutdown(fd, Net.SHUT_WR);
+                isOutputOpen = false;
+            }
+        }
+    }
+
+    public void setOption(int opt, Object val) throws SocketException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new SocketException("Socket Closed");
+            Net.setSocketOption(fd, opt, val);
+        }
+    }
+
+    public Object getOption(int opt) throws SocketException {
+        synchronized (stateLock) {
+            if (!isOpen())
+                throw new SocketException("Socket Closed");
+            return Net.getSocketOption(fd, opt);
+        }
+    }
+
+    // AbstractSelectableChannel synchronizes invocations of this method
+    // using AbstractSelectableChannel.closeLock, and also ensures that this
+    // method is only ever invoked once.  Before we get to this method,
+    // isOpen (which is volatile) will have been set to false.
+    //
+    protected void implCloseSelectableChannel() throws IOException {
+        synchronized (stateLock) {
+            isInputOpen = false;
+            isOutputOpen = false;
+
+            // Close the socket so that any thread blocked upon it returns,
+            // but keep the descriptor value reserved until kill()
+            if (state != ST_KILLED)
+                nd.preClose(fd);
+
+            // If this channel is not registered then it's safe to close the
+            // fd immediately since we know at this point that no thread is
+            // blocked in an I/O operation upon the channel and, since the
+            // channel is marked closed, no thread will start another such
+            // operation.  If this channel is registered then we don't close
+            // the fd since it might be in use by a selector.  In that case
+            // closing this channel caused its keys to be cancelled, so the
+            // last selector to deregister a key for this channel will invoke
+            // kill() to close the fd.
+            if (!isRegistered())
+                kill();
+        }
+    }
+
+    public void kill() throws IOException {
+        synchronized (stateLock) {
+            if (state == ST_KILLED)
+                return;
+            if (state == ST_UNINITIALIZED) {
+                state = ST_KILLED;
+                return;
+            }
+            // Postpone the kill if there is a thread in an I/O operation;
+            // it will invoke kill() on its way out
+            if (readerActive || writerActive) {
+                state = ST_KILLPENDING;
+                return;
+            }
+            nd.close(fd);
+            state = ST_KILLED;
+        }
+    }
+
+    // -- SelChImpl --
+
+    public FileDescriptor getFD() {
+        return fd;
+    }
+
+    public int getFDVal() {
+        return fdVal;
+    }
+
+    /**
+     * Translates native poll revent ops into a ready operation ops
+     */
+    private boolean translateReadyOps(int ops, int initialOps,
+                                      SelectionKeyImpl sk) {
+        int intOps = sk.nioInterestOps();
+        int oldOps = sk.nioReadyOps();
+        int newOps = initialOps;
+
+        if ((ops & Net.POLLNVAL) != 0) {
+            // This should only happen if this channel is pre-closed while a
+            // selection operation is in progress
+            return false;
+        }
+
+        if ((ops & (Net.POLLERR | Net.POLLHUP)) != 0) {
+            newOps = intOps;
+            sk.nioReadyOps(newOps);
+            return (newOps & ~oldOps) != 0;
+        }
+
+        if (((ops & Net.POLLIN) != 0) &&
+            ((intOps & SelectionKey.OP_READ) != 0) &&
+            isConnected())
+            newOps |= SelectionKey.OP_READ;
+
+        if (((ops & Net.POLLCONN) != 0) &&
+            ((intOps & SelectionKey.OP_CONNECT) != 0) &&
+            isConnectionPending())
+            newOps |= SelectionKey.OP_CONNECT;
+
+        if (((ops & Net.POLLOUT) != 0) &&
+            ((intOps & SelectionKey.OP_WRITE) != 0) &&
+            isConnected())
+            newOps |= SelectionKey.OP_WRITE;
+
+        sk.nioReadyOps(newOps);
+        return (newOps & ~oldOps) != 0;
+    }
+
+    public boolean translateAndUpdateReadyOps(int ops, SelectionKeyImpl sk) {
+        return translateReadyOps(ops, sk.nioReadyOps(), sk);
+    }
+
+    public boolean translateAndSetReadyOps(int ops, SelectionKeyImpl sk) {
+        return translateReadyOps(ops, 0, sk);
+    }
+
+    /**
+     * Translates an interest operation set into a native poll event set
+     */
+    public void translateAndSetInterestOps(int ops, SelectionKeyImpl sk) {
+        int newOps = 0;
+        if ((ops & SelectionKey.OP_READ) != 0)
+            newOps |= Net.POLLIN;
+        if ((ops & SelectionKey.OP_WRITE) != 0)
+            newOps |= Net.POLLOUT;
+        if ((ops & SelectionKey.OP_CONNECT) != 0)
+            newOps |= Net.POLLCONN;
+        sk.selector.putEventOps(sk, newOps);
+    }
+
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        sb.append(this.getClass().getName());
+        sb.append('[');
+        if (!isOpen()) {
+            sb.append("closed");
+        } else {
+            synchronized (stateLock) {
+                switch (state) {
+                case ST_UNCONNECTED:
+                    sb.append("unconnected");
+                    break;
+                case ST_PENDING:
+                    sb.append("connection-pending");
+                    break;
+                case ST_CONNECTED:
+                    sb.append("connected");
+                    if (!isInputOpen)
+                        sb.append(" ishut");
+                    if (!isOutputOpen)
+                        sb.append(" oshut");
+                    break;
+                }
+                if (localAddress != null) {
+                    sb.append(" local=");
+                    sb.append(localAddress.getHostAddress() + ":" + localPort);
+                }
+                if (remoteAddress != null) {
+                    sb.append(" remote=");
+                    sb.append(remoteAddress.getHostAddress() + ":"
+                              + remotePort);
+                }
+            }
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+}
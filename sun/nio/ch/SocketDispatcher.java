@@ -0,0 +1,87 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+
+/**
+ * Performs read and write operations on socket file descriptors.
+ */
+class SocketDispatcher extends NativeDispatcher {
+
+    static {
+        Util.load();
+    }
+
+    int read(FileDescriptor fd, long address, int len) throws IOException {
+        return read0(fd, address, len);
+    }
+
+    int read(FileDescriptor fd, byte[] b, int off, int len)
+        throws IOException
+    {
+        return readBytes0(fd, b, off, len);
+    }
+
+    int write(FileDescriptor fd, long address, int len) throws IOException {
+        return write0(fd, address, len);
+    }
+
+    int write(FileDescriptor fd, byte[] b, int off, int len)
+        throws IOException
+    {
+        return writeBytes0(fd, b, off, len);
+    }
+
+    long readv(FileDescriptor fd, long address, int len) throws IOException {
+        return readv0(fd, address, len);
+    }
+
+    long writev(FileDescriptor fd, long address, int len) throws IOException {
+        return writev0(fd, address, len);
+    }
+
+    /**
+     * Prepares the descriptor to be closed by atomically replacing it with
+     * a descriptor for a half-closed socket.  Any thread blocked in a read
+     * or write upon the descriptor then returns at once, and the
+     * descriptor value cannot be reused by another channel until the
+     * deferred {@link #close close}, in the same way as
+     * <tt>PlainSocketImpl</tt>'s deferred close.
+     */
+    void preClose(FileDescriptor fd) throws IOException {
+        preClose0(fd);
+    }
+
+    void close(FileDescriptor fd) throws IOException {
+        close0(fd);
+    }
+
+    // -- Native methods --
+
+    static native int read0(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    static native int readBytes0(FileDescriptor fd, byte[] b, int off,
+                                 int len) throws IOException;
+
+    static native int write0(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    static native int writeBytes0(FileDescriptor fd, byte[] b, int off,
+                                  int len) throws IOException;
+
+    static native long readv0(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    static native long writev0(FileDescriptor fd, long address, int len)
+        throws IOException;
+
+    static native void preClose0(FileDescriptor fd) throws IOException;
+
+    static native void close0(FileDescriptor fd) throws IOException;
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+package sun.nio.ch;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+/**
+ * Miscellaneous helpers for the channel implementation classes.
+ */
+class Util {
+
+    private Util() { }
+
+    private static boolean loaded = false;
+
+    /**
+     * Loads the native libraries used by this package.  Every class in
+     * this package that declares native methods invokes this method from
+     * its static initializer.
+     * <p>
+     * The native methods of this package are meant to live in the
+     * <tt>nio</tt> library, whose sources are not part of this tree and
+     * which no build of it produces.  Until such a library is supplied,
+     * the first use of a channel or selector class fails with an
+     * <tt>UnsatisfiedLinkError</tt>.
+     */
+    static void load() {
+        synchronized (Util.class) {
+            if (loaded)
+                return;
+            loaded = true;
+            java.security.AccessController.doPrivileged(
+                new sun.security.action.LoadLibraryAction("net"));
+            java.security.AccessController.doPrivileged(
+                new sun.security.action.LoadLibraryAction("nio"));
+        }
+    }
+
+    /**
+     * Checks the bounds of an <tt>(array, offset, length)</tt> triple in
+     * the same way as <tt>InputStream.read(byte[], int, int)</tt>.
+     */
+    static void checkBounds(byte[] b, int off, int len) {
+        if (b == null) {
+            throw new NullPointerException();
+        } else if ((off < 0) || (off > b.length) || (len < 0) ||
+                   ((off + len) > b.length) || ((off + len) < 0)) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // -- Temporary direct buffers --
+
+    // Buffers larger than this are allocated afresh on each use rather than
+    // being cached, so that one large transfer does not pin a large block
+    // of native memory to its thread
+    private static final int MAX_CACHED_BUFFER_SIZE = 256 * 1024;
+
+    // Per-thread soft references to the most recently used buffers
+    private static ThreadLocal bufferCache = new ThreadLocal();
+    private static ThreadLocal iovecCache = new ThreadLocal();
+
+    private static ByteBuffer cachedBuffer(ThreadLocal cache, int size) {
+        SoftReference ref = (SoftReference) cache.get();
+        ByteBuffer bb = (ref == null) ? null : (ByteBuffer) ref.get();
+        if ((bb == null) || (bb.capacity() < size)) {
+            bb = ByteBuffer.allocateDirect(size);
+            bb.order(ByteOrder.nativeOrder());
+            if (size <= MAX_CACHED_BUFFER_SIZE)
+                cache.set(new SoftReference(bb));
+        }
+        bb.clear();
+        return bb;
+    }
+
+    /**
+     * Returns a direct buffer of at least <tt>size</tt> bytes, in native
+     * byte order, for staging the content of heap buffers during a native
+     * transfer.  The buffer is owned by the current thread and is reused
+     * by its next transfer, so it must not be retained.
+     */
+    static ByteBuffer getTemporaryDirectBuffer(int size) {
+        return cachedBuffer(bufferCache, size);
+    }
+
+    /**
+     * Returns a direct buffer of at least <tt>size</tt> bytes, in native
+     * byte order, for building an array of <tt>struct iovec</tt>.  Like a
+     * temporary buffer it is owned by the current thread.
+     */
+    static ByteBuffer getIOVecBuffer(int size) {
+        return cachedBuffer(iovecCache, size);
+    }
+
+    // -- Mapped buffers --
+
+    private static Constructor directByteBufferConstructor = null;
+
+    private static void initDBBConstructor() {
+        AccessController.doPrivileged(new PrivilegedAction() {
+                public Object run() {
+                    try {
+                        Class cl = Class.forName("java.nio.DirectByteBuffer");
+                        Constructor ctor = cl.getDeclaredConstructor(
+                            new Class[] { int.class, long.class,
+                                          Object.class, boolean.class });
+                        ctor.setAccessible(true);
+                        directByteBufferConstructor = ctor;
+                    } catch (ClassNotFoundException x) {
+                        throw new InternalError();
+                    } catch (NoSuchMethodException x) {
+                        throw new InternalError();
+                    }
+                    return null;
+                }});
+    }
+
+    /**
+     * Creates a buffer for the mapped file region of <tt>size</tt> bytes at
+     * the given address.  The unmapper is retained by the buffer and by
+     * every view of it, so that its finalizer runs, and unmaps the region,
+     * only once all of them are unreachable.
+     */
+    static MappedByteBuffer newMappedByteBuffer(int size, long addr,
+                                                Object unmapper,
+                                                boolean readOnly)
+    {
+        synchronized (Util.class) {
+            if (directByteBufferConstructor == null)
+                initDBBConstructor();
+        }
+        try {
+            return (MappedByteBuffer) directByteBufferConstructor.newInstance(
+                new Object[] { new Integer(size), new Long(addr), unmapper,
+                               new Boolean(readOnly) });
+        } catch (InstantiationException x) {
+            throw new InternalError();
+        } catch (IllegalAccessException x) {
+            throw new InternalError();
+        } catch (InvocationTargetException x) {
+            throw new InternalError();
+        }
+    }
+}
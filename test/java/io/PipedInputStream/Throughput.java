@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/* @test
+ * @summary PipedInputStream moves bulk data intact and wakes a waiting
+ *          reader promptly, without waiting out its one-second poll
+ */
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+public class Throughput {
+
+    static final int TOTAL = 8 * 1024 * 1024;
+    static final int CHUNK = 8 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        pump(new PipedInputStream(), "default pipe");
+        pump(new PipedInputStream(64 * 1024), "64K pipe");
+        promptWakeup();
+    }
+
+    /*
+     * Pumps TOTAL bytes of a known pattern through the pipe in CHUNK-sized
+     * writes, checks every byte read, and reports the time taken.
+     */
+    static void pump(PipedInputStream in, String what) throws Exception {
+        final PipedOutputStream out = new PipedOutputStream(in);
+        final Exception[] failure = new Exception[1];
+        Thread writer = new Thread() {
+            public void run() {
+                try {
+                    byte[] b = new byte[CHUNK];
+                    for (int n = 0; n < TOTAL; n += CHUNK) {
+                        for (int i = 0; i < CHUNK; i++)
+                            b[i] = (byte) (n + i);
+                        out.write(b, 0, CHUNK);
+                    }
+                    out.close();
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            }
+        };
+        long start = System.currentTimeMillis();
+        writer.start();
+        byte[] b = new byte[CHUNK];
+        int total = 0;
+        int n;
+        while ((n = in.read(b, 0, b.length)) != -1) {
+            for (int i = 0; i < n; i++) {
+                if (b[i] != (byte) (total + i))
+                    throw new RuntimeException(what + ": wrong byte at "
+                                               + (total + i));
+            }
+            total += n;
+        }
+        writer.join();
+        long elapsed = System.currentTimeMillis() - start;
+        if (failure[0] != null)
+            throw failure[0];
+        if (total != TOTAL)
+            throw new RuntimeException(what + ": read " + total
+                                       + " bytes, expected " + TOTAL);
+        System.out.println(what + ": " + (TOTAL >> 20) + " MB in "
+                           + elapsed + " ms");
+    }
+
+    /*
+     * A reader blocked on an empty pipe must see a single unflushed byte
+     * well before the one-second poll would have found it.  The best of
+     * three trials is taken so that a busy machine does not fail the test.
+     */
+    static void promptWakeup() throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int trial = 0; trial < 3; trial++) {
+            final PipedInputStream in = new PipedInputStream();
+            PipedOutputStream out = new PipedOutputStream(in);
+            final long[] readAt = new long[1];
+            Thread reader = new Thread() {
+                public void run() {
+                    try {
+                        if (in.read() == 42)
+                            readAt[0] = System.currentTimeMillis();
+                    } catch (IOException e) {
+                    }
+                }
+            };
+            reader.start();
+            Thread.sleep(200);
+            long wroteAt = System.currentTimeMillis();
+            out.write(42);
+            reader.join();
+            out.close();
+            if (readAt[0] == 0)
+                throw new RuntimeException("Reader did not read the byte");
+            best = Math.min(best, readAt[0] - wroteAt);
+        }
+        if (best >= 500)
+            throw new RuntimeException("Reader woke " + best
+                                       + " ms after the write");
+        System.out.println("reader woke " + best + " ms after the write");
+    }
+}
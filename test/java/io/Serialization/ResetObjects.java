@@ -0,0 +1,265 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/* @test
+ * @summary The serialization handle table resolves back-references in
+ *          large and cyclic graphs, and unshared writes, unshared mode and
+ *          descriptor-retaining resets (TC_RESETOBJECTS) round-trip
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+public class ResetObjects {
+
+    static class Node implements Serializable {
+        int id;
+        Node next;
+
+        Node(int id) {
+            this.id = id;
+        }
+    }
+
+    static class Other implements Serializable {
+        String name;
+        Node node;
+
+        Other(String name, Node node) {
+            this.name = name;
+            this.node = node;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        handleTable();
+        unsharedWrites();
+        unsharedReadOfBackReference();
+        descriptorRetention();
+        unsharedMode();
+        plainResetResendsDescriptors();
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+
+    static ObjectInputStream reader(ByteArrayOutputStream bytes)
+        throws IOException
+    {
+        return new ObjectInputStream(
+            new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    // A ring of nodes, whose last node refers back to the first
+    static Node ring(int n) {
+        Node first = new Node(0);
+        Node last = first;
+        for (int i = 1; i < n; i++) {
+            last.next = new Node(i);
+            last = last.next;
+        }
+        last.next = first;
+        return first;
+    }
+
+    static void checkRing(Node first, int n, String what) {
+        Node p = first;
+        for (int i = 0; i < n; i++) {
+            check(p.id == i, what + ": node " + i);
+            p = p.next;
+        }
+        check(p == first, what + ": ring closed");
+    }
+
+    // Enough objects to grow the handle table many times over, each
+    // written once in full and once as a back-reference
+    static void handleTable() throws Exception {
+        int n = 5000;
+        Node[] nodes = new Node[n];
+        for (int i = 0; i < n; i++)
+            nodes[i] = new Node(i);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        for (int i = 0; i < n; i++)
+            out.writeObject(nodes[i]);
+        for (int i = n - 1; i >= 0; i--)
+            out.writeObject(nodes[i]);
+        out.writeObject(ring(1000));
+        out.close();
+
+        ObjectInputStream in = reader(bytes);
+        Node[] read = new Node[n];
+        for (int i = 0; i < n; i++) {
+            read[i] = (Node) in.readObject();
+            check(read[i].id == i, "object " + i);
+        }
+        for (int i = n - 1; i >= 0; i--)
+            check(in.readObject() == read[i], "back-reference " + i);
+        checkRing((Node) in.readObject(), 1000, "cyclic graph");
+    }
+
+    // Only the object passed to writeUnshared is written afresh; the
+    // objects it refers to are shared as by writeObject
+    static void unsharedWrites() throws Exception {
+        Node a = new Node(1);
+        a.next = new Node(2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeUnshared(a);
+        out.writeObject(a);
+        out.writeObject(a);
+        out.writeUnshared(a);
+        out.close();
+
+        ObjectInputStream in = reader(bytes);
+        Node x = (Node) in.readUnshared();
+        Node y = (Node) in.readObject();
+        Node z = (Node) in.readObject();
+        Node w = (Node) in.readUnshared();
+        check(x.id == 1 && x.next.id == 2, "unshared write");
+        check(x != y, "writeObject after writeUnshared writes a new object");
+        check(y == z, "later writeObject is a back-reference");
+        check(w != x && w != y, "writeUnshared never writes a back-reference");
+        check(y.next == x.next && w.next == x.next,
+              "objects referenced by an unshared object are shared");
+    }
+
+    static void unsharedReadOfBackReference() throws Exception {
+        Node a = new Node(1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(a);
+        out.writeObject(a);
+        out.writeObject(a);
+        out.close();
+
+        ObjectInputStream in = reader(bytes);
+        in.readObject();
+        try {
+            in.readUnshared();
+            check(false, "readUnshared accepted a back-reference");
+        } catch (InvalidObjectException e) {
+        }
+
+        in = reader(bytes);
+        in.enableUnsharedMode(true);
+        in.readObject();
+        try {
+            in.readObject();
+            check(false, "unshared mode accepted a back-reference");
+        } catch (InvalidObjectException e) {
+        }
+    }
+
+    // A retaining reset forgets objects but not class descriptors, so the
+    // second write of the same object is new and smaller
+    static void descriptorRetention() throws Exception {
+        Node a = new Node(7);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.enableDescriptorRetention(true);
+        int start = bytes.size();
+        out.writeObject(a);
+        out.flush();
+        int first = bytes.size() - start;
+        out.reset();
+        out.flush();
+        start = bytes.size();
+        out.writeObject(a);
+        out.flush();
+        int second = bytes.size() - start;
+        check(second < first, "descriptor not sent again after reset ("
+              + first + " then " + second + " bytes)");
+
+        // Descriptor handles are renumbered by the reset; a new class and
+        // the retained one must both resolve afterwards
+        out.reset();
+        out.writeObject(new Other("x", a));
+        out.writeObject(a);
+        out.reset();
+        out.reset();
+        out.writeObject(new Other("y", null));
+        out.close();
+
+        ObjectInputStream in = reader(bytes);
+        Node a1 = (Node) in.readObject();
+        Node a2 = (Node) in.readObject();
+        check(a1.id == 7 && a2.id == 7, "values kept across reset");
+        check(a1 != a2, "reset forgets objects");
+        Other o = (Other) in.readObject();
+        Node a3 = (Node) in.readObject();
+        check(o.name.equals("x") && o.node == a3,
+              "references resolve after reset");
+        check(a3 != a2, "second reset forgets objects");
+        Other p = (Other) in.readObject();
+        check(p.name.equals("y") && p.node == null,
+              "descriptors resolve after repeated resets");
+    }
+
+    // In unshared mode every top-level object is written afresh and its
+    // graph then dropped, while cycles within the graph survive
+    static void unsharedMode() throws Exception {
+        Node a = ring(4);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.enableUnsharedMode(true);
+        out.writeObject(a);
+        out.writeObject(a);
+        out.writeObject(new Other("z", a));
+        out.enableUnsharedMode(false);
+        out.writeObject(a);
+        out.writeObject(a);
+        out.close();
+
+        for (int pass = 0; pass < 2; pass++) {
+            ObjectInputStream in = reader(bytes);
+            if (pass == 1)
+                in.enableUnsharedMode(true);
+            Node x = (Node) in.readObject();
+            Node y = (Node) in.readObject();
+            Other o = (Other) in.readObject();
+            checkRing(x, 4, "first unshared-mode write");
+            checkRing(y, 4, "second unshared-mode write");
+            checkRing(o.node, 4, "graph of a later object");
+            check(x != y && o.node != x && o.node != y,
+                  "unshared mode writes new objects");
+            if (pass == 1)
+                in.enableUnsharedMode(false);
+            Node u = (Node) in.readObject();
+            check(in.readObject() == u, "sharing resumes when disabled");
+        }
+    }
+
+    // An ordinary reset still forgets descriptors and resends them
+    static void plainResetResendsDescriptors() throws Exception {
+        Node a = new Node(3);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        int start = bytes.size();
+        out.writeObject(a);
+        out.flush();
+        int first = bytes.size() - start;
+        out.reset();
+        out.flush();
+        start = bytes.size();
+        out.writeObject(a);
+        out.flush();
+        int second = bytes.size() - start;
+        check(second == first, "descriptor sent again after plain reset");
+        out.close();
+
+        ObjectInputStream in = reader(bytes);
+        Node a1 = (Node) in.readObject();
+        Node a2 = (Node) in.readObject();
+        check(a1 != a2 && a1.id == 3 && a2.id == 3, "plain reset");
+    }
+}
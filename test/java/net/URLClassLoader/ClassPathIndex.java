@@ -0,0 +1,243 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/* @test
+ * @summary URLClassLoader finds classes and resources in search path order
+ *          whether or not the path is indexed, including packages split
+ *          across entries and jars listed by INDEX.LIST, and does not let
+ *          remembered misses hide names added to the path later
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Enumeration;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+public class ClassPathIndex {
+
+    static final String PROBE = "ClassPathIndexProbe";
+
+    static File dir;
+    static byte[] probe;
+    static URL one, two, three, indexed;
+
+    public static void main(String[] args) throws Exception {
+        setUp();
+        searchOrder();
+        misses();
+        directories();
+        indexList();
+        addURL();
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+
+    static class Loader extends URLClassLoader {
+        Loader(URL[] urls) {
+            super(urls, null);
+        }
+
+        void add(URL url) {
+            addURL(url);
+        }
+    }
+
+    static void setUp() throws IOException {
+        dir = File.createTempFile("cpindex", "");
+        dir.delete();
+        dir.mkdir();
+        dir.deleteOnExit();
+
+        InputStream in = ClassPathIndex.class.getClassLoader()
+            .getResourceAsStream(PROBE + ".class");
+        probe = readAll(in);
+
+        // p is split across both jars; r and r/s are only in the second
+        one = jar("one.jar", new String[] {
+            "p/A.txt", "one",
+            "p/q/B.txt", "one",
+            "top.txt", "one",
+        });
+        two = jar("two.jar", new String[] {
+            "p/A.txt", "two",
+            "p/C.txt", "two",
+            "r/D.txt", "two",
+            "r/s/F.txt", "two",
+            "top.txt", "two",
+        });
+        three = directory("three", new String[] {
+            "p/E.txt", "three",
+            "r/D.txt", "three",
+        });
+
+        // Lists the directories of two.jar, as jar -i does
+        indexed = jar("indexed.jar", new String[] {
+            "META-INF/INDEX.LIST",
+            "JarIndex-Version: 1.0\n\n"
+            + "indexed.jar\nx\n\n"
+            + "two.jar\np\nr\nr/s\ntop.txt\n" + PROBE + ".class\n\n",
+            "x/G.txt", "indexed",
+        });
+    }
+
+    static URL jar(String name, String[] contents) throws IOException {
+        File f = new File(dir, name);
+        f.deleteOnExit();
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(f));
+        for (int i = 0; i < contents.length; i += 2) {
+            out.putNextEntry(new ZipEntry(contents[i]));
+            out.write(contents[i + 1].getBytes("UTF8"));
+            out.closeEntry();
+        }
+        if (!name.equals("indexed.jar")) {
+            out.putNextEntry(new ZipEntry(PROBE + ".class"));
+            out.write(probe);
+            out.closeEntry();
+        }
+        out.close();
+        return f.toURL();
+    }
+
+    static URL directory(String name, String[] contents) throws IOException {
+        File d = new File(dir, name);
+        for (int i = 0; i < contents.length; i += 2)
+            write(new File(d, contents[i]), contents[i + 1]);
+        return d.toURL();
+    }
+
+    static void write(File f, String text) throws IOException {
+        f.getParentFile().mkdirs();
+        f.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(f);
+        out.write(text.getBytes("UTF8"));
+        out.close();
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = in.read(buf)) > 0)
+            bytes.write(buf, 0, n);
+        in.close();
+        return bytes.toByteArray();
+    }
+
+    // The contents of a resource, or null if it was not found
+    static String read(URLClassLoader l, String name) throws IOException {
+        URL url = l.getResource(name);
+        if (url == null)
+            return null;
+        return new String(readAll(url.openStream()), "UTF8");
+    }
+
+    static void searchOrder() throws Exception {
+        URLClassLoader l = new URLClassLoader(new URL[] { one, two }, null);
+        check("one".equals(read(l, "p/A.txt")), "first entry wins");
+        check("one".equals(read(l, "top.txt")),
+              "first entry wins at top level");
+        check("one".equals(read(l, "p/q/B.txt")), "nested package");
+        check("two".equals(read(l, "p/C.txt")), "package split across jars");
+        check("two".equals(read(l, "r/D.txt")), "package in a later jar");
+        check("two".equals(read(l, "r/s/F.txt")),
+              "nested package in a later jar");
+
+        Enumeration e = l.getResources("p/A.txt");
+        check(e.hasMoreElements() && "one".equals(
+                  new String(readAll(((URL) e.nextElement()).openStream()))),
+              "getResources returns the first entry first");
+        check(e.hasMoreElements() && "two".equals(
+                  new String(readAll(((URL) e.nextElement()).openStream()))),
+              "getResources returns every entry in order");
+        check(!e.hasMoreElements(), "getResources returns nothing else");
+
+        Class c = l.loadClass(PROBE);
+        check(c.getClassLoader() == l, "class defined by the loader");
+        check(c.getProtectionDomain().getCodeSource().getLocation()
+              .sameFile(one), "class loaded from the first jar");
+    }
+
+    // Misses are remembered for jar-only paths; they must stay misses, and
+    // must not hide names that are present, also after more misses than
+    // are remembered
+    static void misses() throws Exception {
+        URLClassLoader l = new URLClassLoader(new URL[] { one, two }, null);
+        for (int round = 0; round < 2; round++) {
+            check(l.getResource("p/Missing.txt") == null, "missing resource");
+            check(l.getResource("nothere/Missing.txt") == null,
+                  "missing package");
+            check(l.getResource("Missing.txt") == null, "missing top level");
+            try {
+                l.loadClass("p.Missing");
+                check(false, "missing class loaded");
+            } catch (ClassNotFoundException ex) {
+            }
+        }
+        for (int i = 0; i < 20000; i++)
+            check(l.getResource("p/Missing" + i + ".txt") == null,
+                  "missing resource " + i);
+        check(l.getResource("p/Missing.txt") == null,
+              "miss after many misses");
+        check("two".equals(read(l, "p/C.txt")), "hit after many misses");
+        check(l.loadClass(PROBE).getClassLoader() == l,
+              "class found after many misses");
+    }
+
+    static void directories() throws Exception {
+        URLClassLoader l =
+            new URLClassLoader(new URL[] { one, three, two }, null);
+        check("one".equals(read(l, "p/A.txt")), "jar before a directory");
+        check("three".equals(read(l, "r/D.txt")), "directory before a jar");
+        check("three".equals(read(l, "p/E.txt")),
+              "package split into a directory");
+        check("two".equals(read(l, "p/C.txt")), "jar after a directory");
+
+        // Directories are searched afresh for every name
+        check(l.getResource("p/Late.txt") == null, "not yet in the directory");
+        write(new File(new File(dir, "three"), "p/Late.txt"), "late");
+        check("late".equals(read(l, "p/Late.txt")),
+              "file added to a directory is found");
+    }
+
+    static void indexList() throws Exception {
+        URLClassLoader l =
+            new URLClassLoader(new URL[] { indexed, two }, null);
+        check("indexed".equals(read(l, "x/G.txt")), "indexed jar itself");
+        check("two".equals(read(l, "p/C.txt")), "listed package");
+        check("two".equals(read(l, "r/s/F.txt")), "listed nested package");
+        check("two".equals(read(l, "top.txt")), "listed top-level file");
+        check(l.getResource("p/Missing.txt") == null,
+              "miss in listed package");
+        check(l.getResource("y/Missing.txt") == null,
+              "miss in unlisted package");
+        check(l.loadClass(PROBE).getClassLoader() == l, "listed class");
+    }
+
+    // Names missed before the path is extended are found in the new entry
+    static void addURL() throws Exception {
+        Loader l = new Loader(new URL[] { one });
+        check(l.getResource("p/C.txt") == null, "not yet on the path");
+        check(l.getResource("r/D.txt") == null, "package not yet on the path");
+        l.add(two);
+        check("two".equals(read(l, "p/C.txt")), "found after addURL");
+        check("two".equals(read(l, "r/D.txt")), "new package after addURL");
+        check("one".equals(read(l, "p/A.txt")), "order kept after addURL");
+        l.add(three);
+        check("three".equals(read(l, "p/E.txt")), "directory added");
+        check("two".equals(read(l, "r/D.txt")), "added entries searched last");
+    }
+}
+
+class ClassPathIndexProbe {
+}
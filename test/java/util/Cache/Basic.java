@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/* @test
+ * @summary Cache evicts by recency or frequency within its capacity,
+ *          expires entries, keeps statistics and reports its own removals
+ *          to listeners
+ */
+
+import java.util.ArrayList;
+import java.util.Cache;
+import java.util.List;
+
+public class Basic {
+
+    public static void main(String[] args) throws Exception {
+        lru();
+        lfu();
+        weights();
+        expiry();
+        statistics();
+        listeners();
+        arguments();
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+
+    static void lru() {
+        Cache c = new Cache(3);
+        c.put("a", "1");
+        c.put("b", "2");
+        c.put("c", "3");
+        c.get("a");
+        c.put("d", "4");
+        check(!c.containsKey("b"), "least recently used entry evicted");
+        check(c.containsKey("a") && c.containsKey("c") && c.containsKey("d"),
+              "other entries kept");
+        check(c.size() == 3, "size kept at capacity");
+        c.put("c", "5");
+        check(c.size() == 3 && "5".equals(c.get("c")),
+              "replacing a value does not evict");
+        c.setCapacity(1);
+        check(c.size() == 1 && c.containsKey("c"),
+              "shrinking keeps the most recently used entry");
+    }
+
+    static void lfu() {
+        Cache c = new Cache(3, Cache.LFU);
+        c.put("a", "1");
+        c.put("b", "2");
+        c.put("c", "3");
+        for (int i = 0; i < 3; i++)
+            c.get("a");
+        c.get("b");
+        c.get("c");
+        c.put("d", "4");
+        check(!c.containsKey("b"),
+              "least frequently used entry evicted, the older on a tie");
+        c.put("e", "5");
+        check(!c.containsKey("d"), "new entry is the least frequently used");
+        check(c.containsKey("a") && c.containsKey("c") && c.containsKey("e"),
+              "frequently used entries kept");
+    }
+
+    static void weights() {
+        Cache c = new Cache(10, Cache.LRU, new Cache.Weigher() {
+            public long weightOf(Object key, Object value) {
+                return ((String) value).length();
+            }
+        });
+        c.put("a", "xxxx");
+        c.put("b", "xxxx");
+        check(c.getWeight() == 8, "weight is the sum of the entries");
+        c.put("c", "xxxx");
+        check(!c.containsKey("a") && c.getWeight() == 8,
+              "evicted to stay within the total weight");
+        c.put("b", "x");
+        check(c.getWeight() == 5, "replacement reweighs the entry");
+        c.remove("b");
+        check(c.getWeight() == 4, "removal subtracts the weight");
+    }
+
+    static void expiry() throws InterruptedException {
+        Cache c = new Cache(100);
+        c.put("short", "1", 50);
+        c.put("forever", "2", 0);
+        c.setTimeToLive(50);
+        c.put("default", "3");
+        check(c.get("short") != null && c.get("default") != null,
+              "entries live before their time");
+        Thread.sleep(200);
+        check(c.get("short") == null, "per-entry time to live");
+        check(!c.containsKey("default"), "cache time to live");
+        check("2".equals(c.get("forever")), "zero time to live never expires");
+        c.purge();
+        check(c.size() == 1, "purge removes expired entries");
+
+        Cache idle = new Cache(100);
+        idle.setTimeToIdle(150);
+        idle.put("used", "1");
+        idle.put("unused", "2");
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(50);
+            idle.get("used");
+        }
+        check(idle.containsKey("used"), "use keeps an entry alive");
+        check(!idle.containsKey("unused"), "idle entry expires");
+    }
+
+    static void statistics() {
+        Cache c = new Cache(2);
+        c.put("a", "1");
+        c.get("a");
+        c.get("a");
+        c.get("b");
+        check(c.getHitCount() == 2 && c.getMissCount() == 1, "hits and misses");
+        check(Math.abs(c.getHitRate() - 2.0 / 3) < 1e-9, "hit rate");
+        c.put("b", "2");
+        c.put("c", "3");
+        check(c.getEvictionCount() == 1, "eviction counted");
+        c.containsKey("c");
+        check(c.getHitCount() == 2, "containsKey is not a hit");
+        c.resetStatistics();
+        check(c.getHitCount() == 0 && c.getEvictionCount() == 0
+              && c.getHitRate() == 1.0, "statistics reset");
+    }
+
+    static void listeners() throws InterruptedException {
+        final Cache c = new Cache(2);
+        final List events = new ArrayList();
+        c.addEvictionListener(new Cache.EvictionListener() {
+            public void entryRemoved(Object key, Object value, int cause) {
+                // Called without the cache's lock, so may use the cache
+                c.size();
+                events.add(key + "=" + value + "/" + cause);
+            }
+        });
+        c.put("a", "1");
+        c.put("b", "2");
+        c.put("c", "3");
+        check(events.size() == 1 && events.get(0).equals("a=1/" + Cache.EVICTED),
+              "eviction reported");
+        c.remove("b");
+        c.put("c", "4");
+        c.clear();
+        check(events.size() == 1, "explicit removals are not reported");
+        c.put("d", "5", 20);
+        Thread.sleep(100);
+        c.get("d");
+        check(events.size() == 2 && events.get(1).equals("d=5/" + Cache.EXPIRED),
+              "expiry reported");
+    }
+
+    static void arguments() {
+        try {
+            new Cache(0);
+            check(false, "zero capacity accepted");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new Cache(1, 7);
+            check(false, "unknown policy accepted");
+        } catch (IllegalArgumentException e) {
+        }
+        Cache c = new Cache(1);
+        try {
+            c.put("a", null);
+            check(false, "null value accepted");
+        } catch (NullPointerException e) {
+        }
+        try {
+            c.get(null);
+            check(false, "null key accepted");
+        } catch (NullPointerException e) {
+        }
+    }
+}
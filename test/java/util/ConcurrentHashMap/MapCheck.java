@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/* @test
+ * @summary ConcurrentHashMap keeps every mapping through resizes and
+ *          concurrent updates, and its atomic operations and weakly
+ *          consistent iterators behave as specified
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ConcurrentHashMap;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class MapCheck {
+
+    public static void main(String[] args) throws Exception {
+        atomicOperations();
+        nulls();
+        resize();
+        manySegments();
+        concurrentPuts();
+        concurrentReplace();
+        iterateWhileModifying();
+        serialization();
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+
+    static void atomicOperations() {
+        ConcurrentHashMap m = new ConcurrentHashMap();
+        Integer one = new Integer(1);
+        Integer two = new Integer(2);
+        check(m.putIfAbsent("a", one) == null, "putIfAbsent on absent key");
+        check(m.putIfAbsent("a", two) == one, "putIfAbsent on present key");
+        check(m.get("a") == one, "putIfAbsent leaves the old value");
+        check(!m.replace("a", two, one), "replace with wrong old value");
+        check(m.replace("a", one, two), "replace with right old value");
+        check(m.get("a") == two, "replace stores the new value");
+        check(m.replace("b", one) == null, "replace on absent key");
+        check(!m.containsKey("b"), "replace does not insert");
+        check(!m.remove("a", one), "remove with wrong value");
+        check(m.remove("a", two), "remove with right value");
+        check(m.isEmpty(), "map empty after removes");
+    }
+
+    static void nulls() {
+        ConcurrentHashMap m = new ConcurrentHashMap();
+        try {
+            m.put(null, "x");
+            check(false, "null key accepted");
+        } catch (NullPointerException e) {
+        }
+        try {
+            m.put("x", null);
+            check(false, "null value accepted");
+        } catch (NullPointerException e) {
+        }
+        try {
+            m.get(null);
+            check(false, "get(null) accepted");
+        } catch (NullPointerException e) {
+        }
+    }
+
+    // Grows from the smallest table to many thousands of entries
+    static void resize() {
+        ConcurrentHashMap m = new ConcurrentHashMap(1, 0.75f, 1);
+        int n = 50000;
+        for (int i = 0; i < n; i++)
+            m.put(new Integer(i), new Integer(-i));
+        check(m.size() == n, "size after growth");
+        for (int i = 0; i < n; i++)
+            check(new Integer(-i).equals(m.get(new Integer(i))),
+                  "value of " + i + " after growth");
+        for (int i = 0; i < n; i += 2)
+            m.remove(new Integer(i));
+        check(m.size() == n / 2, "size after removing half");
+        for (int i = 0; i < n; i++)
+            check(m.containsKey(new Integer(i)) == ((i & 1) != 0),
+                  "presence of " + i + " after removing half");
+    }
+
+    // A concurrency level beyond the segment limit is accepted and capped
+    static void manySegments() {
+        ConcurrentHashMap m = new ConcurrentHashMap(16, 0.75f, 1 << 20);
+        for (int i = 0; i < 1000; i++)
+            m.put(new Integer(i), "v");
+        check(m.size() == 1000, "size with capped concurrency level");
+        try {
+            new ConcurrentHashMap(16, 0.75f, 0);
+            check(false, "zero concurrency level accepted");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    static final int THREADS = 8;
+
+    static void runAll(Thread[] threads) throws InterruptedException {
+        for (int i = 0; i < threads.length; i++)
+            threads[i].start();
+        for (int i = 0; i < threads.length; i++)
+            threads[i].join();
+    }
+
+    // Threads putting disjoint keys must not lose any of them
+    static void concurrentPuts() throws Exception {
+        final ConcurrentHashMap m = new ConcurrentHashMap(16, 0.75f, 4);
+        final int perThread = 20000;
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int base = t * perThread;
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < perThread; i++)
+                        m.put(new Integer(base + i), new Integer(i));
+                }
+            };
+        }
+        runAll(threads);
+        check(m.size() == THREADS * perThread, "size after concurrent puts");
+        for (int i = 0; i < THREADS * perThread; i++)
+            check(m.containsKey(new Integer(i)), "key " + i + " kept");
+    }
+
+    // Counters bumped through replace(key, old, new) must not lose counts
+    static void concurrentReplace() throws Exception {
+        final ConcurrentHashMap m = new ConcurrentHashMap();
+        final int keys = 16;
+        final int increments = 5000;
+        for (int k = 0; k < keys; k++)
+            m.put(new Integer(k), new Integer(0));
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < increments; i++) {
+                        Integer k = new Integer(i % keys);
+                        for (;;) {
+                            Integer v = (Integer) m.get(k);
+                            if (m.replace(k, v, new Integer(v.intValue() + 1)))
+                                break;
+                        }
+                    }
+                }
+            };
+        }
+        runAll(threads);
+        int total = 0;
+        for (int k = 0; k < keys; k++)
+            total += ((Integer) m.get(new Integer(k))).intValue();
+        check(total == THREADS * increments, "no increment lost");
+    }
+
+    // Iterators and enumerations never throw ConcurrentModificationException
+    static void iterateWhileModifying() {
+        ConcurrentHashMap m = new ConcurrentHashMap();
+        for (int i = 0; i < 1000; i++)
+            m.put(new Integer(i), "v");
+        int seen = 0;
+        for (Iterator it = m.keySet().iterator(); it.hasNext(); ) {
+            Integer k = (Integer) it.next();
+            m.put(new Integer(k.intValue() + 1000), "w");
+            m.remove(new Integer(999 - k.intValue()));
+            seen++;
+        }
+        check(seen > 0, "iterator returned entries");
+        for (Iterator it = m.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            if (((Integer) e.getKey()).intValue() % 2 == 0)
+                it.remove();
+        }
+        for (Iterator it = m.keySet().iterator(); it.hasNext(); )
+            check(((Integer) it.next()).intValue() % 2 != 0,
+                  "iterator remove took effect");
+        int n = 0;
+        for (Enumeration e = m.keys(); e.hasMoreElements(); e.nextElement())
+            n++;
+        check(n == m.size(), "keys enumeration matches size");
+    }
+
+    static void serialization() throws Exception {
+        ConcurrentHashMap m = new ConcurrentHashMap();
+        HashMap expected = new HashMap();
+        for (int i = 0; i < 500; i++) {
+            m.put("k" + i, new Integer(i));
+            expected.put("k" + i, new Integer(i));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(m);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(
+            new ByteArrayInputStream(bytes.toByteArray()));
+        ConcurrentHashMap copy = (ConcurrentHashMap) in.readObject();
+        check(copy.equals(expected), "deserialized map has every mapping");
+        copy.put("new", "value");
+        check(copy.get("new") != null, "deserialized map accepts updates");
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/* @test
+ * @summary ConcurrentSkipListMap and ConcurrentSkipListSet keep their
+ *          elements sorted and complete under concurrent insertion and
+ *          removal, and their range views and atomic operations behave
+ *          as specified
+ */
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentSkipListMap;
+import java.util.ConcurrentSkipListSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+public class MapCheck {
+
+    public static void main(String[] args) throws Exception {
+        agreesWithTreeMap();
+        rangeViews();
+        atomicOperations();
+        comparatorAndNulls();
+        concurrentInsertAndRemove();
+        iterateWhileModifying();
+        set();
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+
+    // A random sequence of puts and removes leaves the same mappings, in
+    // the same order, as in a TreeMap
+    static void agreesWithTreeMap() {
+        ConcurrentSkipListMap m = new ConcurrentSkipListMap();
+        TreeMap t = new TreeMap();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            Integer k = new Integer(rnd.nextInt(5000));
+            if (rnd.nextInt(3) == 0) {
+                check(eq(m.remove(k), t.remove(k)), "remove " + k);
+            } else {
+                Integer v = new Integer(i);
+                check(eq(m.put(k, v), t.put(k, v)), "put " + k);
+            }
+        }
+        check(m.size() == t.size(), "size matches TreeMap");
+        check(m.equals(t) && t.equals(m), "mappings match TreeMap");
+        Iterator a = m.entrySet().iterator();
+        Iterator b = t.entrySet().iterator();
+        while (b.hasNext()) {
+            Map.Entry x = (Map.Entry) a.next();
+            Map.Entry y = (Map.Entry) b.next();
+            check(x.getKey().equals(y.getKey()), "iteration order");
+        }
+        check(!a.hasNext(), "no extra entries");
+        check(m.firstKey().equals(t.firstKey()), "firstKey");
+        check(m.lastKey().equals(t.lastKey()), "lastKey");
+    }
+
+    static boolean eq(Object a, Object b) {
+        return (a == null) ? (b == null) : a.equals(b);
+    }
+
+    static void rangeViews() {
+        ConcurrentSkipListMap m = new ConcurrentSkipListMap();
+        for (int i = 0; i < 100; i += 2)
+            m.put(new Integer(i), "v" + i);
+        SortedMap sub = m.subMap(new Integer(10), new Integer(20));
+        check(sub.size() == 5, "subMap size");
+        check(sub.firstKey().equals(new Integer(10)), "subMap firstKey");
+        check(sub.lastKey().equals(new Integer(18)), "subMap lastKey");
+        check(m.headMap(new Integer(10)).size() == 5, "headMap size");
+        check(m.tailMap(new Integer(90)).size() == 5, "tailMap size");
+
+        // Views write through, and see later changes to the map
+        m.put(new Integer(11), "v11");
+        check(sub.containsKey(new Integer(11)), "subMap sees insertion");
+        sub.remove(new Integer(12));
+        check(!m.containsKey(new Integer(12)), "subMap removal writes through");
+        try {
+            sub.put(new Integer(30), "x");
+            check(false, "subMap accepted a key out of range");
+        } catch (IllegalArgumentException e) {
+        }
+        check(m.subMap(new Integer(200), new Integer(300)).isEmpty(),
+              "empty range");
+        try {
+            m.subMap(new Integer(300), new Integer(200));
+            check(false, "reversed range accepted");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    static void atomicOperations() {
+        ConcurrentSkipListMap m = new ConcurrentSkipListMap();
+        check(m.putIfAbsent("a", "1") == null, "putIfAbsent on absent key");
+        check("1".equals(m.putIfAbsent("a", "2")), "putIfAbsent on present key");
+        check(!m.replace("a", "2", "3"), "replace with wrong old value");
+        check(m.replace("a", "1", "3"), "replace with right old value");
+        check(m.replace("b", "1") == null, "replace on absent key");
+        check(!m.containsKey("b"), "replace does not insert");
+        check(!m.remove("a", "1"), "remove with wrong value");
+        check(m.remove("a", "3"), "remove with right value");
+        check(m.isEmpty(), "map empty after removes");
+        try {
+            m.firstKey();
+            check(false, "firstKey of empty map");
+        } catch (NoSuchElementException e) {
+        }
+    }
+
+    static void comparatorAndNulls() {
+        Comparator reverse = Collections.reverseOrder();
+        ConcurrentSkipListMap m = new ConcurrentSkipListMap(reverse);
+        for (int i = 0; i < 10; i++)
+            m.put(new Integer(i), "v");
+        check(m.comparator() == reverse, "comparator kept");
+        check(m.firstKey().equals(new Integer(9)), "reverse order first");
+        check(m.lastKey().equals(new Integer(0)), "reverse order last");
+        try {
+            m.put(null, "v");
+            check(false, "null key accepted");
+        } catch (NullPointerException e) {
+        }
+        try {
+            m.put(new Integer(1), null);
+            check(false, "null value accepted");
+        } catch (NullPointerException e) {
+        }
+    }
+
+    static final int THREADS = 8;
+
+    static void runAll(Thread[] threads) throws InterruptedException {
+        for (int i = 0; i < threads.length; i++)
+            threads[i].start();
+        for (int i = 0; i < threads.length; i++)
+            threads[i].join();
+    }
+
+    // Each thread inserts its own keys, interleaved with every other
+    // thread's, and then removes its odd ones; exactly the even keys of
+    // every thread must remain, in order
+    static void concurrentInsertAndRemove() throws Exception {
+        final ConcurrentSkipListMap m = new ConcurrentSkipListMap();
+        final int perThread = 10000;
+        final int[] lost = new int[1];
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < perThread; i++)
+                        m.put(new Integer(i * THREADS + id), "v");
+                    for (int i = 1; i < perThread; i += 2) {
+                        if (m.remove(new Integer(i * THREADS + id)) == null) {
+                            synchronized (lost) {
+                                lost[0]++;
+                            }
+                        }
+                    }
+                }
+            };
+        }
+        runAll(threads);
+        check(lost[0] == 0, "every inserted key found for removal");
+        check(m.size() == THREADS * perThread / 2, "size after removals");
+        int expected = 0;
+        for (Iterator it = m.keySet().iterator(); it.hasNext(); ) {
+            int k = ((Integer) it.next()).intValue();
+            while ((expected / THREADS) % 2 != 0)
+                expected++;
+            check(k == expected, "key " + expected + " present and in order");
+            expected++;
+        }
+    }
+
+    // Iterators never throw ConcurrentModificationException
+    static void iterateWhileModifying() {
+        ConcurrentSkipListMap m = new ConcurrentSkipListMap();
+        for (int i = 0; i < 1000; i++)
+            m.put(new Integer(i), "v");
+        Integer last = null;
+        for (Iterator it = m.keySet().iterator(); it.hasNext(); ) {
+            Integer k = (Integer) it.next();
+            check(last == null || k.compareTo(last) > 0, "ascending order");
+            last = k;
+            m.remove(new Integer(k.intValue() + 1));
+            if (k.intValue() < 500)
+                m.put(new Integer(k.intValue() + 5000), "w");
+        }
+        for (Iterator it = m.entrySet().iterator(); it.hasNext(); ) {
+            it.next();
+            it.remove();
+        }
+        check(m.isEmpty(), "iterator remove emptied the map");
+    }
+
+    static void set() {
+        ConcurrentSkipListSet s = new ConcurrentSkipListSet();
+        for (int i = 20; i > 0; i--)
+            check(s.add(new Integer(i)), "add " + i);
+        check(!s.add(new Integer(5)), "duplicate rejected");
+        check(s.size() == 20, "set size");
+        check(s.first().equals(new Integer(1)), "set first");
+        check(s.last().equals(new Integer(20)), "set last");
+        check(s.subSet(new Integer(5), new Integer(10)).size() == 5,
+              "subSet size");
+        check(s.remove(new Integer(5)) && !s.contains(new Integer(5)),
+              "set remove");
+        ConcurrentSkipListSet c = (ConcurrentSkipListSet) s.clone();
+        c.clear();
+        check(s.size() == 19 && c.isEmpty(), "clone is independent");
+    }
+}
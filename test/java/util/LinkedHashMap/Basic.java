@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002 Sun Microsystems, Inc. All rights reserved.
+ * SUN PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/* @test
+ * @summary LinkedHashMap iterates in insertion or access order, keeps that
+ *          order through clone and serialization, and evicts through
+ *          removeEldestEntry
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Basic {
+
+    public static void main(String[] args) throws Exception {
+        insertionOrder();
+        accessOrder();
+        eldestEviction();
+        failFast();
+        cloneAndSerialize();
+    }
+
+    static void check(boolean cond, String what) {
+        if (!cond)
+            throw new RuntimeException("Failed: " + what);
+    }
+
+    static String keys(Map m) {
+        StringBuffer sb = new StringBuffer();
+        for (Iterator it = m.keySet().iterator(); it.hasNext(); )
+            sb.append(it.next());
+        return sb.toString();
+    }
+
+    static void insertionOrder() {
+        LinkedHashMap m = new LinkedHashMap();
+        m.put("c", "1");
+        m.put("a", "2");
+        m.put("b", "3");
+        check(keys(m).equals("cab"), "insertion order");
+        m.put("c", "4");
+        m.get("a");
+        check(keys(m).equals("cab"), "re-insertion and get keep the order");
+        m.remove("a");
+        m.put("a", "5");
+        check(keys(m).equals("cba"), "removed key goes to the end");
+        m.put(null, null);
+        check(m.containsKey(null) && keys(m).equals("cbanull"),
+              "null key and value");
+        check(m.containsValue(null) && m.containsValue("4"), "containsValue");
+        m.clear();
+        check(m.isEmpty() && keys(m).equals(""), "clear");
+    }
+
+    static void accessOrder() {
+        LinkedHashMap m = new LinkedHashMap(16, 0.75f, true);
+        m.put("a", "1");
+        m.put("b", "2");
+        m.put("c", "3");
+        m.get("a");
+        check(keys(m).equals("bca"), "get moves to the end");
+        m.put("b", "4");
+        check(keys(m).equals("cab"), "put of an existing key moves it");
+        m.containsKey("c");
+        m.keySet().contains("c");
+        check(keys(m).equals("cab"), "views and containsKey do not access");
+        m.get("missing");
+        check(keys(m).equals("cab"), "a miss does not reorder");
+    }
+
+    // An LRU cache of three entries built on the removeEldestEntry hook
+    static void eldestEviction() {
+        final Map.Entry[] offered = new Map.Entry[1];
+        LinkedHashMap m = new LinkedHashMap(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry eldest) {
+                offered[0] = eldest;
+                return size() > 3;
+            }
+        };
+        m.put("a", "1");
+        check(offered[0] != null && offered[0].getKey().equals("a"),
+              "eldest offered after the first put");
+        m.put("b", "2");
+        m.put("c", "3");
+        m.get("a");
+        m.put("d", "4");
+        check(keys(m).equals("cad"), "least recently used entry evicted");
+        check(m.size() == 3, "size kept at three");
+        m.put("c", "5");
+        check(keys(m).equals("adc"), "updating an entry does not evict");
+        for (int i = 0; i < 1000; i++)
+            m.put(new Integer(i), "x");
+        check(m.size() == 3, "size bounded over many puts");
+        check(keys(m).equals("997998999"), "newest entries kept");
+    }
+
+    static void failFast() {
+        LinkedHashMap m = new LinkedHashMap();
+        for (int i = 0; i < 10; i++)
+            m.put(new Integer(i), "v");
+        try {
+            for (Iterator it = m.keySet().iterator(); it.hasNext(); ) {
+                it.next();
+                m.put(new Integer(100), "w");
+            }
+            check(false, "modification during iteration not detected");
+        } catch (ConcurrentModificationException e) {
+        }
+        for (Iterator it = m.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            if (((Integer) e.getKey()).intValue() % 2 == 0)
+                it.remove();
+        }
+        check(keys(m).equals("13579"), "iterator remove keeps the order");
+    }
+
+    static void cloneAndSerialize() throws Exception {
+        LinkedHashMap m = new LinkedHashMap(16, 0.75f, true);
+        m.put("x", "1");
+        m.put("y", "2");
+        m.put("z", "3");
+        m.get("x");
+        LinkedHashMap c = (LinkedHashMap) m.clone();
+        check(keys(c).equals("yzx"), "clone keeps the order");
+        c.get("y");
+        check(keys(c).equals("zxy") && keys(m).equals("yzx"),
+              "clone keeps access order and is independent");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(m);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(
+            new ByteArrayInputStream(bytes.toByteArray()));
+        LinkedHashMap s = (LinkedHashMap) in.readObject();
+        check(keys(s).equals("yzx"), "serialization keeps the order");
+        s.get("y");
+        check(keys(s).equals("zxy"), "serialization keeps access order");
+    }
+}